@@ -43,6 +43,8 @@ public class LocalExecutor extends PlanExecutor {
 	private final Object lock = new Object();	// we lock to ensure singleton execution
 	
 	private NepheleMiniCluster nephele;
+	
+	private final DataStatistics statistics = new DataStatistics();	// shared by all plans executed by this executor
 
 	// ---------------------------------- config options ------------------------------------------
 	
@@ -206,7 +208,7 @@ public class LocalExecutor extends PlanExecutor {
 			}
 
 			try {
-				PactCompiler pc = new PactCompiler(new DataStatistics());
+				PactCompiler pc = new PactCompiler(this.statistics);
 				OptimizedPlan op = pc.compile(plan);
 				
 				NepheleJobGraphGenerator jgg = new NepheleJobGraphGenerator();
@@ -214,6 +216,7 @@ public class LocalExecutor extends PlanExecutor {
 				
 				JobClient jobClient = this.nephele.getJobClient(jobGraph);
 				JobExecutionResult result = jobClient.submitJobAndWait();
+				this.statistics.cacheObservedCardinalities(result.getAllAccumulatorResults());
 				return result;
 			}
 			finally {
@@ -47,6 +47,10 @@ public class Client {
 	private final Configuration configuration;	// the configuration describing the job manager address
 	
 	private final PactCompiler compiler;		// the compiler to compile the jobs
+	
+	private final DataStatistics statistics;	// the statistics of the compiler, fed with the observations of executed jobs
+	
+	private final PlanCache planCache;			// the optimized plans of previously submitted programs, null if disabled
 
 	private boolean printStatusDuringExecution;
 	
@@ -65,7 +69,9 @@ public class Client {
 		configuration.setString(ConfigConstants.JOB_MANAGER_IPC_ADDRESS_KEY, jobManagerAddress.getAddress().getHostAddress());
 		configuration.setInteger(ConfigConstants.JOB_MANAGER_IPC_PORT_KEY, jobManagerAddress.getPort());
 		
-		this.compiler = new PactCompiler(new DataStatistics(), new DefaultCostEstimator(), jobManagerAddress);
+		this.statistics = createDataStatistics(config);
+		this.compiler = new PactCompiler(this.statistics, new DefaultCostEstimator(), jobManagerAddress);
+		this.planCache = createPlanCache(config, this.statistics);
 	}
 
 	/**
@@ -89,7 +95,29 @@ public class Client {
 		}
 
 		final InetSocketAddress jobManagerAddress = new InetSocketAddress(address, port);
-		this.compiler = new PactCompiler(new DataStatistics(), new DefaultCostEstimator(), jobManagerAddress);
+		this.statistics = createDataStatistics(config);
+		this.compiler = new PactCompiler(this.statistics, new DefaultCostEstimator(), jobManagerAddress);
+		this.planCache = createPlanCache(config, this.statistics);
+	}
+	
+	/**
+	 * Creates the statistics for the compiler, persisted in the statistics catalog directory, if one is configured.
+	 */
+	private static DataStatistics createDataStatistics(Configuration config) {
+		final String catalogDir = config.getString(ConfigConstants.COMPILER_STATISTICS_CATALOG_DIR_KEY, null);
+		final long maxAge = config.getLong(ConfigConstants.COMPILER_STATISTICS_MAX_AGE_KEY,
+			ConfigConstants.DEFAULT_COMPILER_STATISTICS_MAX_AGE);
+		return new DataStatistics(catalogDir == null ? null : new File(catalogDir), maxAge);
+	}
+	
+	/**
+	 * Creates the cache for optimized plans, if it is enabled in the configuration. Cached plans are compiled
+	 * again once the given statistics change.
+	 */
+	private static PlanCache createPlanCache(Configuration config, DataStatistics statistics) {
+		final int size = config.getInteger(ConfigConstants.COMPILER_PLAN_CACHE_SIZE_KEY,
+			ConfigConstants.DEFAULT_COMPILER_PLAN_CACHE_SIZE);
+		return size > 0 ? new PlanCache(size, statistics) : null;
 	}
 	
 	public void setPrintStatusDuringExecution(boolean print) {
@@ -127,9 +155,23 @@ public class Client {
 	}
 	
 	public OptimizedPlan getOptimizedPlan(Plan p) throws CompilerException {
+		return getOptimizedPlan(p, null);
+	}
+	
+	private OptimizedPlan getOptimizedPlan(Plan p, List<File> libraries) throws CompilerException {
 		ContextChecker checker = new ContextChecker();
 		checker.check(p);
-		return this.compiler.compile(p);
+		return this.planCache == null ? this.compiler.compile(p) : this.planCache.getOptimizedPlan(p, libraries, this.compiler);
+	}
+	
+	/**
+	 * Gets the cache that holds the optimized plans of previously submitted programs. The cache
+	 * exposes the number of reused plans and the compilation time saved by reusing them.
+	 * 
+	 * @return The plan cache, or null, if plan caching is disabled.
+	 */
+	public PlanCache getPlanCache() {
+		return this.planCache;
 	}
 	
 	
@@ -142,7 +184,7 @@ public class Client {
 	 * @throws ProgramInvocationException Thrown, if the program could not be instantiated from its jar file.
 	 */
 	public OptimizedPlan getOptimizedPlan(JobWithJars prog) throws CompilerException, ProgramInvocationException {
-		return getOptimizedPlan(prog.getPlan());
+		return getOptimizedPlan(prog.getPlan(), prog.getJarFiles());
 	}
 	
 	public JobGraph getJobGraph(PackagedProgram prog, OptimizedPlan optPlan) throws ProgramInvocationException {
@@ -194,7 +236,16 @@ public class Client {
 	 * @throws JobInstantiationException Thrown, if the plan assembler function causes an exception.
 	 */
 	public JobExecutionResult run(JobWithJars prog, boolean wait) throws CompilerException, ProgramInvocationException {
-		return run(getOptimizedPlan(prog), prog.getJarFiles(), wait);
+		if (this.planCache == null) {
+			return run(getOptimizedPlan(prog), prog.getJarFiles(), wait);
+		}
+		
+		// cached plans are rebound to the parameters of the program, so they must be translated before the next lookup
+		final JobGraph job;
+		synchronized (this.planCache) {
+			job = getJobGraph(getOptimizedPlan(prog), prog.getJarFiles());
+		}
+		return run(job, wait);
 	}
 	
 
@@ -216,7 +267,11 @@ public class Client {
 
 		try {
 			if (wait) {
-				return client.submitJobAndWait();
+				JobExecutionResult result = client.submitJobAndWait();
+				
+				// let the next compilations use the cardinalities observed in this execution
+				this.statistics.cacheObservedCardinalities(result.getAllAccumulatorResults());
+				return result;
 			}
 			else {
 				JobSubmissionResult result = client.submitJob();
@@ -0,0 +1,436 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+
+package eu.stratosphere.client.program;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.Plan;
+import eu.stratosphere.api.common.operators.AbstractUdfOperator;
+import eu.stratosphere.api.common.operators.BulkIteration;
+import eu.stratosphere.api.common.operators.CompilerHints;
+import eu.stratosphere.api.common.operators.DeltaIteration;
+import eu.stratosphere.api.common.operators.DualInputOperator;
+import eu.stratosphere.api.common.operators.GenericDataSink;
+import eu.stratosphere.api.common.operators.GenericDataSource;
+import eu.stratosphere.api.common.operators.Operator;
+import eu.stratosphere.api.common.operators.RecordOperator;
+import eu.stratosphere.api.common.operators.SingleInputOperator;
+import eu.stratosphere.api.common.operators.base.CoGroupOperatorBase;
+import eu.stratosphere.api.common.operators.base.GroupReduceOperatorBase;
+import eu.stratosphere.api.common.operators.util.UserCodeObjectWrapper;
+import eu.stratosphere.api.common.operators.util.UserCodeWrapper;
+import eu.stratosphere.compiler.CompilerException;
+import eu.stratosphere.compiler.DataStatistics;
+import eu.stratosphere.compiler.PactCompiler;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.util.InstantiationUtil;
+import eu.stratosphere.util.StringUtils;
+import eu.stratosphere.util.Visitor;
+
+/**
+ * A cache of optimized plans for programs that are submitted repeatedly. Plans are keyed by a structural
+ * fingerprint that covers everything the optimizer looks at: the operators and their connections, the
+ * functions (including the state of function objects), keys, degrees of parallelism, orders, compiler hints,
+ * strategy hints, the inputs of the sources, and the contents of the program's libraries. The values of all other
+ * parameters are excluded, so that a program submitted with different parameters reuses the plan that
+ * was optimized for its first submission. Upon reuse, the parameters of the new program are rebound to
+ * the operators of the cached plan.
+ * <p>
+ * A plan is only reused as long as the compiler's statistics are unchanged. Once new statistics or
+ * cardinalities observed in executed jobs are recorded, cached plans are compiled again on their next
+ * use. Changes of the inputs themselves are only noticed when statistics are obtained, i.e. when a
+ * program is compiled.
+ * <p>
+ * Because the operators of a cached plan are rebound, a plan returned by this cache is only valid until
+ * the next call to {@link #getOptimizedPlan(Plan, List, PactCompiler)}. Callers that translate the plan
+ * concurrently must synchronize on the cache.
+ */
+public class PlanCache {
+	
+	private static final Log LOG = LogFactory.getLog(PlanCache.class);
+	
+	private final Map<String, CachedPlan> plans;
+	
+	private final int capacity;
+	
+	private final DataStatistics statistics;
+	
+	private long numHits;
+	
+	private long numMisses;
+	
+	private long compilationTimeSaved;
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Creates a new cache that holds up to the given number of plans, evicting the least recently used ones.
+	 * 
+	 * @param capacity The maximum number of cached plans.
+	 */
+	public PlanCache(int capacity) {
+		this(capacity, null);
+	}
+	
+	/**
+	 * Creates a new cache that holds up to the given number of plans, evicting the least recently used ones.
+	 * Plans are compiled again once the given statistics changed.
+	 * 
+	 * @param capacity The maximum number of cached plans.
+	 * @param statistics The statistics used by the compiler, or null, if plans do not depend on statistics.
+	 */
+	public PlanCache(int capacity, DataStatistics statistics) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("The capacity of the plan cache must be at least one.");
+		}
+		this.capacity = capacity;
+		this.statistics = statistics;
+		this.plans = new LinkedHashMap<String, CachedPlan>(16, 0.75f, true);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Gets the optimized plan for the given program. If a plan for a structurally identical program is
+	 * cached, its operators are rebound to the parameters of the given program and the plan is returned.
+	 * Otherwise, the program is compiled with the given compiler and the result is cached.
+	 * 
+	 * @param plan The program's plan.
+	 * @param libraries The libraries containing the program's code, or null, if the code is on the class path.
+	 * @param compiler The compiler to compile the program with on a cache miss.
+	 * @return The optimized plan.
+	 * @throws CompilerException Thrown, if the compilation fails.
+	 */
+	public synchronized OptimizedPlan getOptimizedPlan(Plan plan, List<File> libraries, PactCompiler compiler) {
+		final List<Operator> operators = getOperators(plan);
+		final String fingerprint = getFingerprint(plan, operators, libraries);
+		
+		if (fingerprint != null) {
+			CachedPlan cached = this.plans.get(fingerprint);
+			if (cached != null && this.statistics != null && cached.statisticsVersion != this.statistics.getVersion()) {
+				// the plan was optimized with outdated statistics or observations
+				this.plans.remove(fingerprint);
+				cached = null;
+			}
+			if (cached != null) {
+				// the fingerprint covers the parameter keys, so adding the new values replaces all old ones
+				for (int i = 0; i < operators.size(); i++) {
+					cached.operators.get(i).getParameters().addAll(operators.get(i).getParameters());
+				}
+				
+				this.numHits++;
+				this.compilationTimeSaved += cached.compilationTime;
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Reusing the optimized plan for '" + plan.getJobName() + "', saved " +
+						cached.compilationTime + " msecs of compilation.");
+				}
+				return cached.plan;
+			}
+		}
+		
+		this.numMisses++;
+		final long start = System.currentTimeMillis();
+		final OptimizedPlan optimizedPlan = compiler.compile(plan);
+		final long compilationTime = System.currentTimeMillis() - start;
+		
+		if (fingerprint != null) {
+			// the compilation itself may have cached the statistics of the inputs, so the version is taken afterwards
+			final long statisticsVersion = this.statistics == null ? 0 : this.statistics.getVersion();
+			this.plans.put(fingerprint, new CachedPlan(optimizedPlan, operators, compilationTime, statisticsVersion));
+			if (this.plans.size() > this.capacity) {
+				this.plans.remove(this.plans.keySet().iterator().next());
+			}
+		}
+		return optimizedPlan;
+	}
+	
+	/**
+	 * Removes all cached plans.
+	 */
+	public synchronized void clear() {
+		this.plans.clear();
+	}
+	
+	/**
+	 * Gets the number of programs that were served from the cache.
+	 * 
+	 * @return The number of cache hits.
+	 */
+	public synchronized long getNumHits() {
+		return this.numHits;
+	}
+	
+	/**
+	 * Gets the number of programs that had to be compiled.
+	 * 
+	 * @return The number of cache misses.
+	 */
+	public synchronized long getNumMisses() {
+		return this.numMisses;
+	}
+	
+	/**
+	 * Gets the total compilation time saved by reusing plans, i.e., the sum of the original compilation
+	 * times of all reused plans.
+	 * 
+	 * @return The saved compilation time, in milliseconds.
+	 */
+	public synchronized long getCompilationTimeSaved() {
+		return this.compilationTimeSaved;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//                                      Fingerprinting
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Gets all operators of the plan, including the operators of iteration step functions, in the
+	 * order of a depth-first traversal from the sinks. Structurally identical plans produce their
+	 * operators in the same order.
+	 */
+	static List<Operator> getOperators(Plan plan) {
+		final List<Operator> operators = new ArrayList<Operator>();
+		final IdentityHashMap<Operator, Boolean> visited = new IdentityHashMap<Operator, Boolean>();
+		
+		plan.accept(new Visitor<Operator>() {
+			@Override
+			public boolean preVisit(Operator visitable) {
+				if (visited.put(visitable, Boolean.TRUE) != null) {
+					return false;
+				}
+				operators.add(visitable);
+				
+				if (visitable instanceof BulkIteration) {
+					final BulkIteration iteration = (BulkIteration) visitable;
+					visitIfSet(iteration.getNextPartialSolution());
+					visitIfSet(iteration.getTerminationCriterion());
+				}
+				else if (visitable instanceof DeltaIteration) {
+					final DeltaIteration iteration = (DeltaIteration) visitable;
+					visitIfSet(iteration.getSolutionSetDelta());
+					visitIfSet(iteration.getNextWorkset());
+				}
+				return true;
+			}
+			
+			private void visitIfSet(Operator root) {
+				if (root != null) {
+					root.accept(this);
+				}
+			}
+
+			@Override
+			public void postVisit(Operator visitable) {}
+		});
+		return operators;
+	}
+	
+	/**
+	 * Computes the fingerprint of the given plan.
+	 * 
+	 * @return The fingerprint, or null, if the plan cannot be fingerprinted (e.g. because of non-serializable functions).
+	 */
+	static String getFingerprint(Plan plan, List<Operator> operators, List<File> libraries) {
+		final MessageDigest md;
+		try {
+			md = MessageDigest.getInstance("MD5");
+		}
+		catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+		
+		final IdentityHashMap<Operator, Integer> ids = new IdentityHashMap<Operator, Integer>();
+		for (int i = 0; i < operators.size(); i++) {
+			ids.put(operators.get(i), i);
+		}
+		
+		try {
+			update(md, plan.getJobName(), plan.getDefaultParallelism(), plan.getMaxNumberMachines(),
+				plan.getPostPassClassName(), asMap(plan.getCachedFiles()));
+			if (libraries != null) {
+				// the libraries may be extracted to temporary files with random names, so only the contents count
+				for (File lib : libraries) {
+					update(md, lib.length());
+					updateWithContents(md, lib);
+				}
+			}
+			
+			for (Operator op : operators) {
+				update(md, "#", op.getClass().getName(), op.getName(), op.getDegreeOfParallelism());
+				
+				// the connections
+				if (op instanceof SingleInputOperator) {
+					update(md, ids.get(((SingleInputOperator<?>) op).getInput()));
+				}
+				else if (op instanceof DualInputOperator) {
+					final DualInputOperator<?> dio = (DualInputOperator<?>) op;
+					update(md, ids.get(dio.getFirstInput()), ids.get(dio.getSecondInput()));
+				}
+				else if (op instanceof GenericDataSink) {
+					final GenericDataSink sink = (GenericDataSink) op;
+					update(md, ids.get(sink.getInput()), sink.getLocalOrder(), sink.getPartitionOrdering(),
+						sink.getDataDistribution() == null ? null : sink.getDataDistribution().getClass().getName());
+				}
+				if (op instanceof AbstractUdfOperator) {
+					final AbstractUdfOperator<?> udfOp = (AbstractUdfOperator<?>) op;
+					for (Entry<String, Operator> bc : new TreeMap<String, Operator>(udfOp.getBroadcastInputs()).entrySet()) {
+						update(md, bc.getKey(), ids.get(bc.getValue()));
+					}
+					for (int i = 0; i < udfOp.getNumberOfInputs(); i++) {
+						update(md, Arrays.toString(udfOp.getKeyColumns(i)));
+					}
+				}
+				
+				// the function, keys, orders, and semantic properties
+				final UserCodeWrapper<?> udf = op.getUserCodeWrapper();
+				if (udf != null) {
+					update(md, udf.getUserCodeClass() == null ? null : udf.getUserCodeClass().getName());
+					if (udf instanceof UserCodeObjectWrapper) {
+						md.update(InstantiationUtil.serializeObject(udf.getUserCodeObject()));
+					}
+				}
+				if (op instanceof RecordOperator) {
+					update(md, Arrays.toString(((RecordOperator) op).getKeyClasses()));
+				}
+				if (op instanceof GroupReduceOperatorBase) {
+					update(md, ((GroupReduceOperatorBase<?>) op).getGroupOrder());
+				}
+				else if (op instanceof CoGroupOperatorBase) {
+					final CoGroupOperatorBase<?> cg = (CoGroupOperatorBase<?>) op;
+					update(md, cg.getGroupOrderForInputOne(), cg.getGroupOrderForInputTwo());
+				}
+				if (op instanceof SingleInputOperator && ((SingleInputOperator<?>) op).getSemanticProperties() != null) {
+					md.update(InstantiationUtil.serializeObject(((SingleInputOperator<?>) op).getSemanticProperties()));
+				}
+				else if (op instanceof DualInputOperator && ((DualInputOperator<?>) op).getSemanticProperties() != null) {
+					md.update(InstantiationUtil.serializeObject(((DualInputOperator<?>) op).getSemanticProperties()));
+				}
+				
+				// iterations
+				if (op instanceof BulkIteration) {
+					final BulkIteration iteration = (BulkIteration) op;
+					update(md, iteration.getMaximumNumberOfIterations(), ids.get(iteration.getPartialSolution()),
+						ids.get(iteration.getNextPartialSolution()), ids.get(iteration.getTerminationCriterion()));
+				}
+				else if (op instanceof DeltaIteration) {
+					final DeltaIteration iteration = (DeltaIteration) op;
+					update(md, iteration.getMaximumNumberOfIterations(), Arrays.toString(iteration.getSolutionSetKeyFields()),
+						ids.get(iteration.getSolutionSet()), ids.get(iteration.getWorkset()),
+						ids.get(iteration.getSolutionSetDelta()), ids.get(iteration.getNextWorkset()));
+				}
+				
+				// the compiler hints
+				final CompilerHints hints = op.getCompilerHints();
+				if (hints != null) {
+					update(md, hints.getOutputSize(), hints.getOutputCardinality(), hints.getAvgOutputRecordSize(),
+						hints.getFilterFactor(), hints.getUniqueFields());
+				}
+				
+				// the parameters: the values are only included where they influence the optimizer,
+				// i.e. for the sources (which describe the input) and for the strategy hints
+				if (op instanceof GenericDataSource) {
+					update(md, ((GenericDataSource<?>) op).getStatisticsKey());
+				}
+				final Configuration params = op.getParameters();
+				for (String key : new TreeSet<String>(params.keySet())) {
+					if (op instanceof GenericDataSource || key.equals(PactCompiler.HINT_LOCAL_STRATEGY) ||
+							key.equals(PactCompiler.HINT_SHIP_STRATEGY) || key.equals(PactCompiler.HINT_SHIP_STRATEGY_FIRST_INPUT) ||
+							key.equals(PactCompiler.HINT_SHIP_STRATEGY_SECOND_INPUT))
+					{
+						update(md, key, params.getString(key, null));
+					} else {
+						update(md, key);
+					}
+				}
+			}
+		}
+		catch (IOException e) {
+			// function objects that cannot be serialized and unreadable libraries cannot be compared
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Program '" + plan.getJobName() + "' cannot be cached: " + e.getMessage());
+			}
+			return null;
+		}
+		
+		return StringUtils.byteToHexString(md.digest());
+	}
+	
+	private static void update(MessageDigest md, Object... values) throws UnsupportedEncodingException {
+		for (Object value : values) {
+			md.update(String.valueOf(value).getBytes("UTF-8"));
+			md.update((byte) 0);
+		}
+	}
+	
+	private static void updateWithContents(MessageDigest md, File file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		try {
+			final byte[] buffer = new byte[64 * 1024];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				md.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+	}
+	
+	private static Map<String, String> asMap(Iterable<Entry<String, String>> entries) {
+		final Map<String, String> map = new TreeMap<String, String>();
+		for (Entry<String, String> e : entries) {
+			map.put(e.getKey(), e.getValue());
+		}
+		return map;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static final class CachedPlan {
+		
+		private final OptimizedPlan plan;
+		
+		private final List<Operator> operators;		// the operators of the plan, in traversal order
+		
+		private final long compilationTime;
+		
+		private final long statisticsVersion;	// the version of the statistics the plan was optimized with
+		
+		private CachedPlan(OptimizedPlan plan, List<Operator> operators, long compilationTime, long statisticsVersion) {
+			this.plan = plan;
+			this.operators = operators;
+			this.compilationTime = compilationTime;
+			this.statisticsVersion = statisticsVersion;
+		}
+	}
+}
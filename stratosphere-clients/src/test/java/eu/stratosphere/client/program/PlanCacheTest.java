@@ -0,0 +1,204 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+
+package eu.stratosphere.client.program;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import eu.stratosphere.api.common.Plan;
+import eu.stratosphere.api.common.operators.FileDataSink;
+import eu.stratosphere.api.common.operators.FileDataSource;
+import eu.stratosphere.api.common.operators.Operator;
+import eu.stratosphere.api.java.record.functions.MapFunction;
+import eu.stratosphere.api.java.record.io.CsvOutputFormat;
+import eu.stratosphere.api.java.record.io.TextInputFormat;
+import eu.stratosphere.api.java.record.operators.MapOperator;
+import eu.stratosphere.compiler.DataStatistics;
+import eu.stratosphere.compiler.PactCompiler;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.util.Collector;
+
+/**
+ * Tests that the {@link PlanCache} reuses the plans of structurally identical programs and rebinds their parameters.
+ */
+public class PlanCacheTest {
+	
+	private PactCompiler compiler;
+	
+	@Before
+	public void setup() {
+		this.compiler = mock(PactCompiler.class);
+		when(this.compiler.compile(any(Plan.class))).thenAnswer(new Answer<OptimizedPlan>() {
+			@Override
+			public OptimizedPlan answer(InvocationOnMock invocation) {
+				return mock(OptimizedPlan.class);
+			}
+		});
+	}
+	
+	@Test
+	public void testReuseWithReboundParameters() {
+		final PlanCache cache = new PlanCache(4);
+		
+		final Plan first = createPlan("file:///in", "10");
+		final OptimizedPlan plan1 = cache.getOptimizedPlan(first, null, this.compiler);
+		final OptimizedPlan plan2 = cache.getOptimizedPlan(createPlan("file:///in", "20"), null, this.compiler);
+		
+		assertSame(plan1, plan2);
+		verify(this.compiler, times(1)).compile(any(Plan.class));
+		assertEquals(1, cache.getNumHits());
+		assertEquals(1, cache.getNumMisses());
+		
+		// the operators of the cached plan carry the parameters of the second program
+		assertEquals("20", getMapper(first).getParameters().getString("threshold", null));
+	}
+	
+	@Test
+	public void testDifferentInputsAreCompiled() {
+		final PlanCache cache = new PlanCache(4);
+		
+		final OptimizedPlan plan1 = cache.getOptimizedPlan(createPlan("file:///in1", "10"), null, this.compiler);
+		final OptimizedPlan plan2 = cache.getOptimizedPlan(createPlan("file:///in2", "10"), null, this.compiler);
+		
+		assertNotNull(plan1);
+		assertTrue(plan1 != plan2);
+		assertEquals(2, cache.getNumMisses());
+		
+		// a new parameter changes the structure as well
+		final Plan withNewParameter = createPlan("file:///in1", "10");
+		getMapper(withNewParameter).setParameter("another", "x");
+		cache.getOptimizedPlan(withNewParameter, null, this.compiler);
+		assertEquals(3, cache.getNumMisses());
+		assertEquals(0, cache.getNumHits());
+	}
+	
+	@Test
+	public void testEviction() {
+		final PlanCache cache = new PlanCache(1);
+		
+		cache.getOptimizedPlan(createPlan("file:///in1", "10"), null, this.compiler);
+		cache.getOptimizedPlan(createPlan("file:///in2", "10"), null, this.compiler);
+		cache.getOptimizedPlan(createPlan("file:///in1", "10"), null, this.compiler);
+		
+		assertEquals(3, cache.getNumMisses());
+		verify(this.compiler, times(3)).compile(any(Plan.class));
+	}
+	
+	@Test
+	public void testChangedStatisticsInvalidate() {
+		final DataStatistics statistics = new DataStatistics();
+		final PlanCache cache = new PlanCache(4, statistics);
+		
+		cache.getOptimizedPlan(createPlan("file:///in", "10"), null, this.compiler);
+		cache.getOptimizedPlan(createPlan("file:///in", "10"), null, this.compiler);
+		assertEquals(1, cache.getNumHits());
+		
+		// a new observation requires a new compilation
+		statistics.cacheObservedCardinality("fingerprint", 100L);
+		cache.getOptimizedPlan(createPlan("file:///in", "10"), null, this.compiler);
+		assertEquals(1, cache.getNumHits());
+		assertEquals(2, cache.getNumMisses());
+		
+		// the same observation does not change anything
+		statistics.cacheObservedCardinality("fingerprint", 100L);
+		cache.getOptimizedPlan(createPlan("file:///in", "10"), null, this.compiler);
+		assertEquals(2, cache.getNumHits());
+		verify(this.compiler, times(2)).compile(any(Plan.class));
+	}
+	
+	@Test
+	public void testLibrariesAreIdentifiedByContents() throws IOException {
+		final File lib1 = createLibrary("contents");
+		final File lib2 = createLibrary("contents");
+		final File lib3 = createLibrary("other contents");
+		try {
+			final PlanCache cache = new PlanCache(4);
+			
+			// the same library extracted to a different file
+			cache.getOptimizedPlan(createPlan("file:///in", "10"), Collections.singletonList(lib1), this.compiler);
+			cache.getOptimizedPlan(createPlan("file:///in", "10"), Collections.singletonList(lib2), this.compiler);
+			assertEquals(1, cache.getNumHits());
+			
+			// a changed library
+			cache.getOptimizedPlan(createPlan("file:///in", "10"), Collections.singletonList(lib3), this.compiler);
+			assertEquals(1, cache.getNumHits());
+			assertEquals(2, cache.getNumMisses());
+		}
+		finally {
+			lib1.delete();
+			lib2.delete();
+			lib3.delete();
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static File createLibrary(String contents) throws IOException {
+		final File file = File.createTempFile("plan_cache_lib", ".jar");
+		final FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(contents.getBytes());
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+	
+	private static Plan createPlan(String input, String threshold) {
+		final FileDataSource source = new FileDataSource(new TextInputFormat(), input, "Source");
+		final MapOperator mapper = MapOperator.builder(new FilterMapper()).input(source).name("Filter").build();
+		mapper.setParameter("threshold", threshold);
+		final FileDataSink sink = new FileDataSink(new CsvOutputFormat(), "file:///out", mapper, "Sink");
+		return new Plan(sink, "Plan Cache Test");
+	}
+	
+	private static Operator getMapper(Plan plan) {
+		final List<Operator> operators = PlanCache.getOperators(plan);
+		for (Operator op : operators) {
+			if (op instanceof MapOperator) {
+				return op;
+			}
+		}
+		throw new IllegalStateException();
+	}
+	
+	public static final class FilterMapper extends MapFunction {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void map(Record record, Collector<Record> out) {
+			out.collect(record);
+		}
+	}
+}
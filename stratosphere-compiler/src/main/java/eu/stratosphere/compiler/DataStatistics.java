@@ -13,19 +13,60 @@
 
 package eu.stratosphere.compiler;
 
-import java.util.HashMap;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import eu.stratosphere.api.common.io.statistics.BaseStatistics;
+import eu.stratosphere.pact.runtime.task.util.TaskConfig;
 
 /**
  * The collection of access methods that can be used to retrieve statistical information about the
  * data processed in a job. Currently this method acts as an entry point only for obtaining cached
  * statistics.
+ * <p>
+ * If a catalog directory is given, the statistics are also persisted in that directory, such that
+ * later compilations (possibly in other processes) can reuse them. The statistics are stored under
+ * their identifier (for file inputs, the path). Whether persisted statistics are still valid is
+ * decided by the input format, which compares the modification time recorded in the statistics
+ * with the current modification time of the input.
+ * <p>
+ * Statistics expire after a maximum age, both in memory and in the catalog, such that entries of
+ * inputs and sub-plans that are not used anymore do not accumulate. Expired catalog files are
+ * deleted when they are read and when the catalog is opened.
+ * <p>
+ * Besides the statistics of the inputs, the object holds the cardinalities that were observed at the
+ * materialization points of previously executed plans. They are keyed by the fingerprint of the
+ * producing optimizer node and override the estimates when the same sub-plan is compiled again.
+ * <p>
+ * The object counts the changes of its statistics in a version, such that plans compiled with older
+ * statistics can be recognized (see {@link #getVersion()}).
  */
 public class DataStatistics {
 	
-	private final Map<String, BaseStatistics> baseStatisticsCache;
+	private static final Log LOG = LogFactory.getLog(DataStatistics.class);
+	
+	private static final String CATALOG_FILE_SUFFIX = ".stats";
+	
+	private static final String OBSERVED_CARDINALITY_PREFIX = "observed:";
+	
+	private final LinkedHashMap<String, CachedStatistics> baseStatisticsCache;	// in the order of caching
+	
+	private final File catalogDirectory;
+	
+	private final long maxAge;
+	
+	private long version;		// incremented whenever cached statistics are added, replaced or removed
 	
 	// --------------------------------------------------------------------------------------------
 	
@@ -33,11 +74,57 @@ public class DataStatistics {
 	 * Creates a new statistics object, with an empty cache. 
 	 */
 	public DataStatistics() {
-		this.baseStatisticsCache = new HashMap<String, BaseStatistics>();
+		this(null);
+	}
+	
+	/**
+	 * Creates a new statistics object, with an empty cache, that persists the statistics in the
+	 * given catalog directory. The statistics never expire.
+	 * 
+	 * @param catalogDirectory The directory to persist the statistics in, or <code>null</code>, to keep
+	 *                         the statistics only in memory.
+	 */
+	public DataStatistics(File catalogDirectory) {
+		this(catalogDirectory, 0);
+	}
+	
+	/**
+	 * Creates a new statistics object, with an empty cache, that persists the statistics in the
+	 * given catalog directory. Entries of the catalog that are older than the given age are deleted.
+	 * 
+	 * @param catalogDirectory The directory to persist the statistics in, or <code>null</code>, to keep
+	 *                         the statistics only in memory.
+	 * @param maxAge The age in milliseconds after which statistics expire, zero, if they never expire.
+	 */
+	public DataStatistics(File catalogDirectory, long maxAge) {
+		if (maxAge < 0) {
+			throw new IllegalArgumentException("The maximum age of the statistics must not be negative.");
+		}
+		
+		this.baseStatisticsCache = new LinkedHashMap<String, CachedStatistics>();
+		this.catalogDirectory = catalogDirectory;
+		this.maxAge = maxAge;
+		
+		if (catalogDirectory != null && maxAge > 0) {
+			deleteExpiredCatalogFiles();
+		}
 	}
 	
 	// --------------------------------------------------------------------------------------------
 	
+	/**
+	 * Gets the version of the statistics. The version changes whenever statistics are cached that differ
+	 * from the previously cached ones, or when statistics expire. Plans compiled at the same version are
+	 * based on the same statistics.
+	 * 
+	 * @return The version of the statistics.
+	 */
+	public long getVersion() {
+		synchronized (this.baseStatisticsCache) {
+			return this.version;
+		}
+	}
+	
 	/**
 	 * Gets the base statistics for the input identified by the given identifier.
 	 *  
@@ -46,7 +133,26 @@ public class DataStatistics {
 	 */
 	public BaseStatistics getBaseStatistics(String inputIdentifier) {
 		synchronized (this.baseStatisticsCache) {
-			return this.baseStatisticsCache.get(inputIdentifier);
+			removeExpiredEntries();
+			
+			final CachedStatistics cached = this.baseStatisticsCache.get(inputIdentifier);
+			if (cached != null) {
+				if (!isExpired(cached.timestamp)) {
+					return cached.statistics;
+				}
+				this.baseStatisticsCache.remove(inputIdentifier);
+				this.version++;
+			}
+			
+			if (this.catalogDirectory != null) {
+				final File file = getCatalogFile(inputIdentifier);
+				final BaseStatistics stats = readFromCatalog(file, inputIdentifier);
+				if (stats != null) {
+					this.baseStatisticsCache.put(inputIdentifier, new CachedStatistics(stats, file.lastModified()));
+					return stats;
+				}
+			}
+			return null;
 		}
 	}
 	
@@ -58,7 +164,221 @@ public class DataStatistics {
 	 */
 	public void cacheBaseStatistics(BaseStatistics statistics, String identifyer) {
 		synchronized (this.baseStatisticsCache) {
-			this.baseStatisticsCache.put(identifyer, statistics);
+			// remove first, such that the entry moves to the end of the caching order
+			final CachedStatistics previous = this.baseStatisticsCache.remove(identifyer);
+			this.baseStatisticsCache.put(identifyer, new CachedStatistics(statistics, System.currentTimeMillis()));
+			if (previous == null || !statistics.equals(previous.statistics)) {
+				this.version++;
+			}
+			removeExpiredEntries();
+			
+			if (this.catalogDirectory != null && statistics instanceof Serializable) {
+				writeToCatalog(statistics, identifyer);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the number of records that was observed for the result of the sub-plan with the given fingerprint.
+	 * 
+	 * @param fingerprint The fingerprint of the optimizer node producing the result.
+	 * @return The observed number of records, or {@link BaseStatistics#NUM_RECORDS_UNKNOWN}, if none was observed.
+	 */
+	public long getObservedCardinality(String fingerprint) {
+		final BaseStatistics stats = getBaseStatistics(OBSERVED_CARDINALITY_PREFIX + fingerprint);
+		return stats == null ? BaseStatistics.NUM_RECORDS_UNKNOWN : stats.getNumberOfRecords();
+	}
+	
+	/**
+	 * Caches the number of records that was observed for the result of the sub-plan with the given fingerprint.
+	 * 
+	 * @param fingerprint The fingerprint of the optimizer node producing the result.
+	 * @param numRecords The observed number of records.
+	 */
+	public void cacheObservedCardinality(String fingerprint, long numRecords) {
+		cacheBaseStatistics(new ObservedStatistics(numRecords), OBSERVED_CARDINALITY_PREFIX + fingerprint);
+	}
+	
+	/**
+	 * Caches the cardinalities that the tasks of an executed job reported for their materialized inputs and
+	 * removes the corresponding accumulators from the given accumulator results.
+	 * 
+	 * @param accumulatorResults The accumulator results of the executed job. May be null.
+	 */
+	public void cacheObservedCardinalities(Map<String, Object> accumulatorResults) {
+		if (accumulatorResults == null) {
+			return;
+		}
+		
+		final String prefix = TaskConfig.OBSERVED_CARDINALITY_ACCUMULATOR_PREFIX;
+		for (Iterator<Map.Entry<String, Object>> iter = accumulatorResults.entrySet().iterator(); iter.hasNext();) {
+			final Map.Entry<String, Object> entry = iter.next();
+			if (entry.getKey().startsWith(prefix)) {
+				if (entry.getValue() instanceof Long) {
+					cacheObservedCardinality(entry.getKey().substring(prefix.length()), (Long) entry.getValue());
+				}
+				iter.remove();
+			}
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private boolean isExpired(long timestamp) {
+		return this.maxAge > 0 && System.currentTimeMillis() - timestamp > this.maxAge;
+	}
+	
+	private void removeExpiredEntries() {
+		// the entries are in the order of caching, so the expired ones are at the head. entries loaded from
+		// the catalog may be older than their successors, they are also checked when they are accessed.
+		final Iterator<CachedStatistics> iter = this.baseStatisticsCache.values().iterator();
+		while (iter.hasNext() && isExpired(iter.next().timestamp)) {
+			iter.remove();
+			this.version++;
+		}
+	}
+	
+	private void deleteExpiredCatalogFiles() {
+		final File[] files = this.catalogDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.getName().endsWith(CATALOG_FILE_SUFFIX) && isExpired(file.lastModified())) {
+				file.delete();
+			}
+		}
+	}
+	
+	private File getCatalogFile(String identifier) {
+		// the hash only chooses the file, the identifier itself is stored in the file and checked upon reading
+		return new File(this.catalogDirectory, Integer.toHexString(identifier.hashCode()) + CATALOG_FILE_SUFFIX);
+	}
+	
+	private BaseStatistics readFromCatalog(File file, String identifier) {
+		if (!file.exists()) {
+			return null;
+		}
+		if (isExpired(file.lastModified())) {
+			file.delete();
+			return null;
+		}
+		
+		ObjectInputStream in = null;
+		try {
+			in = new ObjectInputStream(new FileInputStream(file));
+			if (!identifier.equals(in.readUTF())) {
+				return null;
+			}
+			return (BaseStatistics) in.readObject();
+		}
+		catch (Exception e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Could not read statistics for '" + identifier + "' from the catalog: " + e.getMessage());
+			}
+			return null;
+		}
+		finally {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {}
+			}
+		}
+	}
+	
+	private void writeToCatalog(BaseStatistics statistics, String identifier) {
+		if (!this.catalogDirectory.exists() && !this.catalogDirectory.mkdirs()) {
+			LOG.warn("Could not create the statistics catalog directory " + this.catalogDirectory);
+			return;
+		}
+		
+		final File file = getCatalogFile(identifier);
+		final File tmpFile = new File(file.getPath() + ".tmp");
+		ObjectOutputStream out = null;
+		try {
+			out = new ObjectOutputStream(new FileOutputStream(tmpFile));
+			out.writeUTF(identifier);
+			out.writeObject(statistics);
+			out.close();
+			out = null;
+			
+			if (!tmpFile.renameTo(file)) {
+				// rename does not replace existing files on all platforms
+				file.delete();
+				if (!tmpFile.renameTo(file)) {
+					throw new IOException("Could not move the statistics file into place.");
+				}
+			}
+		}
+		catch (IOException e) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Could not write statistics for '" + identifier + "' to the catalog: " + e.getMessage());
+			}
+			tmpFile.delete();
+		}
+		finally {
+			if (out != null) {
+				try {
+					out.close();
+				} catch (IOException e) {}
+			}
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Statistics in the cache, together with the time they were cached.
+	 */
+	private static final class CachedStatistics {
+		
+		private final BaseStatistics statistics;
+		
+		private final long timestamp;
+		
+		private CachedStatistics(BaseStatistics statistics, long timestamp) {
+			this.statistics = statistics;
+			this.timestamp = timestamp;
+		}
+	}
+	
+	/**
+	 * The statistics of an intermediate result, as observed during an execution.
+	 */
+	private static final class ObservedStatistics implements BaseStatistics, Serializable {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final long numRecords;
+		
+		private ObservedStatistics(long numRecords) {
+			this.numRecords = numRecords;
+		}
+
+		@Override
+		public long getTotalInputSize() {
+			return SIZE_UNKNOWN;
+		}
+
+		@Override
+		public long getNumberOfRecords() {
+			return this.numRecords;
+		}
+
+		@Override
+		public float getAverageRecordWidth() {
+			return AVG_RECORD_BYTES_UNKNOWN;
+		}
+		
+		@Override
+		public int hashCode() {
+			return (int) (this.numRecords ^ (this.numRecords >>> 32));
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ObservedStatistics && ((ObservedStatistics) obj).numRecords == this.numRecords;
 		}
 	}
 }
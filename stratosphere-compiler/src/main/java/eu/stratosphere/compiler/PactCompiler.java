@@ -72,6 +72,7 @@ import eu.stratosphere.compiler.dag.TempMode;
 import eu.stratosphere.compiler.dag.WorksetIterationNode;
 import eu.stratosphere.compiler.dag.WorksetNode;
 import eu.stratosphere.compiler.deadlockdetect.DeadlockPreventer;
+import eu.stratosphere.compiler.joinorder.JoinReorderer;
 import eu.stratosphere.compiler.plan.BinaryUnionPlanNode;
 import eu.stratosphere.compiler.plan.BulkIterationPlanNode;
 import eu.stratosphere.compiler.plan.BulkPartialSolutionPlanNode;
@@ -87,6 +88,7 @@ import eu.stratosphere.compiler.plan.SourcePlanNode;
 import eu.stratosphere.compiler.plan.WorksetIterationPlanNode;
 import eu.stratosphere.compiler.plan.WorksetPlanNode;
 import eu.stratosphere.compiler.postpass.OptimizerPostPass;
+import eu.stratosphere.compiler.skew.SkewResolver;
 import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.configuration.GlobalConfiguration;
@@ -669,22 +671,7 @@ public class PactCompiler {
 		GraphCreatingVisitor graphCreator = new GraphCreatingVisitor(maxMachinesJob, defaultParallelism);
 		program.accept(graphCreator);
 
-		// if we have a plan with multiple data sinks, add logical optimizer nodes that have two data-sinks as children
-		// each until we have only a single root node. This allows to transparently deal with the nodes with
-		// multiple outputs
-		OptimizerNode rootNode;
-		if (graphCreator.sinks.size() == 1) {
-			rootNode = graphCreator.sinks.get(0);
-		} else if (graphCreator.sinks.size() > 1) {
-			Iterator<DataSinkNode> iter = graphCreator.sinks.iterator();
-			rootNode = iter.next();
-
-			while (iter.hasNext()) {
-				rootNode = new SinkJoiner(rootNode, iter.next());
-			}
-		} else {
-			throw new CompilerException("Bug: The optimizer plan representation has no sinks.");
-		}
+		OptimizerNode rootNode = createRootNode(graphCreator.sinks);
 
 		// now that we have all nodes created and recorded which ones consume memory, tell the nodes their minimal
 		// guaranteed memory, for further cost estimations. we assume an equal distribution of memory among consumer tasks
@@ -692,6 +679,18 @@ public class PactCompiler {
 		rootNode.accept(new IdAndMemoryAndEstimatesVisitor(this.statistics,
 			graphCreator.getMemoryConsumerCount() == 0 ? 0 : memoryPerInstance / graphCreator.getMemoryConsumerCount()));
 		
+		// with the estimates at hand, check whether trees of joins are cheaper in a different order. if so,
+		// the optimizer representation is created again, with the reordered joins instead of the original ones
+		Map<Operator, Operator> reorderedJoins = new JoinReorderer(this.costEstimator).reorderJoins(rootNode);
+		if (!reorderedJoins.isEmpty()) {
+			graphCreator = new GraphCreatingVisitor(maxMachinesJob, defaultParallelism, reorderedJoins);
+			program.accept(graphCreator);
+			
+			rootNode = createRootNode(graphCreator.sinks);
+			rootNode.accept(new IdAndMemoryAndEstimatesVisitor(this.statistics,
+				graphCreator.getMemoryConsumerCount() == 0 ? 0 : memoryPerInstance / graphCreator.getMemoryConsumerCount()));
+		}
+		
 		// Now that the previous step is done, the next step is to traverse the graph again for the two
 		// steps that cannot directly be performed during the plan enumeration, because we are dealing with DAGs
 		// rather than a trees. That requires us to deviate at some points from the classical DB optimizer algorithms.
@@ -740,12 +739,40 @@ public class PactCompiler {
 		// we can do this after the plan finalization
 		plan.accept(new BinaryUnionReplacer());
 		
+		// spread the records with heavy hitter keys of skewed joins. this changes only ship strategies of
+		// channels whose partitioning is not relied upon, so it can also be done on the final plan
+		new SkewResolver().resolveSkew(plan);
+		
 		// post pass the plan. this is the phase where the serialization and comparator code is set
 		postPasser.postPass(plan);
 		
 		return plan;
 	}
 
+	/**
+	 * If we have a plan with multiple data sinks, add logical optimizer nodes that have two data-sinks as children
+	 * each until we have only a single root node. This allows to transparently deal with the nodes with
+	 * multiple outputs.
+	 * 
+	 * @param sinks The data sinks of the optimizer representation.
+	 * @return The single root node.
+	 */
+	private static OptimizerNode createRootNode(List<DataSinkNode> sinks) {
+		if (sinks.size() == 1) {
+			return sinks.get(0);
+		} else if (sinks.size() > 1) {
+			Iterator<DataSinkNode> iter = sinks.iterator();
+			OptimizerNode rootNode = iter.next();
+
+			while (iter.hasNext()) {
+				rootNode = new SinkJoiner(rootNode, iter.next());
+			}
+			return rootNode;
+		} else {
+			throw new CompilerException("Bug: The optimizer plan representation has no sinks.");
+		}
+	}
+
 	/**
 	 * This function performs only the first step to the compilation process - the creation of the optimizer
 	 * representation of the plan. No estimations or enumerations of alternatives are done here.
@@ -792,19 +819,31 @@ public class PactCompiler {
 		private final GraphCreatingVisitor parent;	// reference to enclosing creator, in case of a recursive translation
 		
 		private final boolean forceDOP;
+		
+		private final Map<Operator, Operator> substitutions; // operators to be translated in place of others
 
 		
 		private GraphCreatingVisitor(int maxMachines, int defaultParallelism) {
-			this(null, false, maxMachines, defaultParallelism, null);
+			this(maxMachines, defaultParallelism, null);
+		}
+		
+		private GraphCreatingVisitor(int maxMachines, int defaultParallelism, Map<Operator, Operator> substitutions) {
+			this(null, false, maxMachines, defaultParallelism, null, substitutions);
 		}
 
 		private GraphCreatingVisitor(GraphCreatingVisitor parent, boolean forceDOP, int maxMachines,
 									int defaultParallelism, HashMap<Operator, OptimizerNode> closure) {
+			this(parent, forceDOP, maxMachines, defaultParallelism, closure, null);
+		}
+		
+		private GraphCreatingVisitor(GraphCreatingVisitor parent, boolean forceDOP, int maxMachines,
+				int defaultParallelism, HashMap<Operator, OptimizerNode> closure, Map<Operator, Operator> substitutions) {
 			if (closure == null){
 				con2node = new HashMap<Operator, OptimizerNode>();
 			} else {
 				con2node = closure;
 			}
+			this.substitutions = substitutions;
 			this.sources = new ArrayList<DataSourceNode>(4);
 			this.sinks = new ArrayList<DataSinkNode>(2);
 			this.maxMachines = maxMachines;
@@ -819,6 +858,14 @@ public class PactCompiler {
 			if (this.con2node.containsKey(c)) {
 				return false;
 			}
+			
+			// translate the substitute instead of the operator, and let the successors connect to it
+			if (this.substitutions != null && this.substitutions.containsKey(c)) {
+				final Operator substitute = this.substitutions.get(c);
+				substitute.accept(this);
+				this.con2node.put(c, this.con2node.get(substitute));
+				return false;
+			}
 
 			final OptimizerNode n;
 
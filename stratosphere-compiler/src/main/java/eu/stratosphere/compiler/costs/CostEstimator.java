@@ -100,6 +100,8 @@ public abstract class CostEstimator {
 				addRandomPartitioningCost(channel, costs);
 				break;
 			case PARTITION_HASH:
+			case PARTITION_HASH_SKEW_SPLIT:
+			case PARTITION_HASH_SKEW_REPLICATE:
 				addHashPartitioningCost(channel, costs);
 				break;
 			case PARTITION_RANGE:
@@ -15,13 +15,18 @@ package eu.stratosphere.compiler.dag;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
 import eu.stratosphere.api.common.io.FileInputFormat;
+import eu.stratosphere.api.common.io.GenericCsvInputFormat;
 import eu.stratosphere.api.common.io.InputFormat;
 import eu.stratosphere.api.common.io.NonParallelInput;
 import eu.stratosphere.api.common.io.statistics.BaseStatistics;
+import eu.stratosphere.api.common.io.statistics.FieldBaseStatistics;
+import eu.stratosphere.api.common.io.statistics.FieldStatistics;
 import eu.stratosphere.api.common.operators.GenericDataSource;
 import eu.stratosphere.api.common.operators.Operator;
 import eu.stratosphere.compiler.DataStatistics;
@@ -39,6 +44,12 @@ import eu.stratosphere.util.Visitor;
 public class DataSourceNode extends OptimizerNode {
 	
 	private final boolean sequentialInput;
+	
+	private FieldBaseStatistics fieldStatistics; // the statistics of the produced fields, if known
+	
+	private long estimatedInputSize = -1; // the size of the input (bytes), before pushed-down predicates
+	
+	private long inputModificationTime = -1; // the modification time of the input files, if known
 
 	/**
 	 * Creates a new DataSourceNode for the given contract.
@@ -134,9 +145,11 @@ public class DataSourceNode extends OptimizerNode {
 			}
 			catch (Throwable t) {}
 			
-			// first of all, get the statistics from the cache
-			final String statisticsKey = getPactContract().getStatisticsKey();
-			final BaseStatistics cachedStatistics = statistics.getBaseStatistics(statisticsKey);
+			// first of all, get the statistics from the cache. file inputs are identified by their path by default,
+			// the input format checks the modification time to decide whether the cached statistics are still valid
+			final String statisticsKey = getInputIdentifier(format);
+			final BaseStatistics cachedStatistics = statisticsKey == null ? null : 
+				statistics.getBaseStatistics(statisticsKey);
 			
 			BaseStatistics bs = null;
 			try {
@@ -149,6 +162,10 @@ public class DataSourceNode extends OptimizerNode {
 			}
 			
 			if (bs != null) {
+				if (statisticsKey != null && bs != cachedStatistics) {
+					statistics.cacheBaseStatistics(bs, statisticsKey);
+				}
+				
 				final long len = bs.getTotalInputSize();
 				if (len == BaseStatistics.SIZE_UNKNOWN) {
 					if (PactCompiler.LOG.isInfoEnabled()) {
@@ -157,14 +174,117 @@ public class DataSourceNode extends OptimizerNode {
 				}
 				else if (len >= 0) {
 					this.estimatedOutputSize = len;
+					this.estimatedInputSize = len;
 				}
 				
 				final long card = bs.getNumberOfRecords();
 				if (card != BaseStatistics.NUM_RECORDS_UNKNOWN) {
 					this.estimatedNumRecords = card;
 				}
+				
+				if (bs instanceof FileInputFormat.FileBaseStatistics) {
+					this.inputModificationTime = ((FileInputFormat.FileBaseStatistics) bs).getLastModificationTime();
+				}
+				
+				if (bs instanceof FieldBaseStatistics) {
+					this.fieldStatistics = (FieldBaseStatistics) bs;
+					applyPredicateSelectivity(format);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the identifier of the input read by this source, i.e. the statistics key, or the path for file inputs.
+	 * 
+	 * @param format The configured input format.
+	 * @return The identifier, or null, if the input cannot be identified.
+	 */
+	private String getInputIdentifier(InputFormat<?, ?> format) {
+		String identifier = getPactContract().getStatisticsKey();
+		if (identifier == null && format instanceof FileInputFormat && 
+				((FileInputFormat<?>) format).getFilePath() != null)
+		{
+			identifier = ((FileInputFormat<?>) format).getFilePath().toString();
+		}
+		return identifier;
+	}
+	
+	@Override
+	protected void appendToFingerprint(StringBuilder bld) {
+		super.appendToFingerprint(bld);
+		
+		// format objects carry their input (e.g. the path) in fields rather than in the parameters
+		if (getPactContract().getStatisticsKey() != null) {
+			bld.append("|input=").append(getPactContract().getStatisticsKey());
+		} else {
+			try {
+				final InputFormat<?, ?> format = getPactContract().getFormatWrapper().getUserCodeObject();
+				format.configure(getPactContract().getParameters());
+				bld.append("|input=").append(getInputIdentifier(format));
+			}
+			catch (Throwable t) {
+				// the parameters identify the input as far as possible
 			}
 		}
+		
+		// results observed on older versions of the input do not apply anymore
+		if (this.inputModificationTime >= 0) {
+			bld.append("|modified=").append(this.inputModificationTime);
+		}
+	}
+
+	/**
+	 * Reduces the estimates by the selectivity of the predicates that have been pushed into the input format,
+	 * estimated from the field statistics.
+	 */
+	private void applyPredicateSelectivity(InputFormat<?, ?> format) {
+		if (!(format instanceof GenericCsvInputFormat)) {
+			return;
+		}
+		
+		double selectivity = 1.0;
+		for (FieldComparisonPredicate predicate : ((GenericCsvInputFormat<?>) format).getFieldPredicates()) {
+			final FieldStatistics fs = this.fieldStatistics.getFieldStatistics(predicate.getField());
+			if (fs != null) {
+				selectivity *= fs.estimateSelectivity(predicate);
+			}
+		}
+		
+		if (selectivity < 1.0) {
+			if (this.estimatedNumRecords >= 0) {
+				this.estimatedNumRecords = (long) Math.ceil(this.estimatedNumRecords * selectivity);
+			}
+			if (this.estimatedOutputSize >= 0) {
+				this.estimatedOutputSize = (long) Math.ceil(this.estimatedOutputSize * selectivity);
+			}
+		}
+	}
+	
+	@Override
+	public long getEstimatedNumDistinctValues(int field) {
+		final FieldStatistics fs = this.fieldStatistics == null ? null : this.fieldStatistics.getFieldStatistics(field);
+		if (fs == null || fs.getNumberOfDistinctValues() <= 0) {
+			return -1;
+		}
+		return this.estimatedNumRecords < 0 ? fs.getNumberOfDistinctValues() :
+			Math.min(fs.getNumberOfDistinctValues(), this.estimatedNumRecords);
+	}
+	
+	@Override
+	public Map<Integer, Double> getHeavyHitters(int field) {
+		final FieldStatistics fs = this.fieldStatistics == null ? null : this.fieldStatistics.getFieldStatistics(field);
+		if (fs == null || fs.getHeavyHitterHashes() == null) {
+			return null;
+		}
+		
+		final int[] hashes = fs.getHeavyHitterHashes();
+		final double[] frequencies = fs.getHeavyHitterFrequencies();
+		final Map<Integer, Double> heavyHitters = new HashMap<Integer, Double>();
+		for (int i = 0; i < hashes.length; i++) {
+			heavyHitters.put(hashes[i], frequencies[i]);
+		}
+		return heavyHitters;
 	}
 
 	@Override
@@ -188,10 +308,12 @@ public class DataSourceNode extends OptimizerNode {
 		candidate.updatePropertiesWithUniqueSets(getUniqueFields());
 		
 		final Costs costs = new Costs();
+		// the whole input is read, even if pushed-down predicates reduce the output
+		final long inputSize = this.estimatedInputSize >= 0 ? this.estimatedInputSize : this.estimatedOutputSize;
 		if (FileInputFormat.class.isAssignableFrom(getPactContract().getFormatWrapper().getUserCodeClass()) &&
-				this.estimatedOutputSize >= 0)
+				inputSize >= 0)
 		{
-			estimator.addFileInputCost(this.estimatedOutputSize, costs);
+			estimator.addFileInputCost(inputSize, costs);
 		}
 		candidate.setCosts(costs);
 
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import eu.stratosphere.api.common.operators.base.JoinOperatorBase;
+import eu.stratosphere.api.common.operators.util.FieldList;
 import eu.stratosphere.compiler.CompilerException;
 import eu.stratosphere.compiler.DataStatistics;
 import eu.stratosphere.compiler.PactCompiler;
@@ -113,7 +114,21 @@ public class MatchNode extends TwoInputNode {
 	protected void computeOperatorSpecificDefaultEstimates(DataStatistics statistics) {
 		long card1 = getFirstPredecessorNode().getEstimatedNumRecords();
 		long card2 = getSecondPredecessorNode().getEstimatedNumRecords();
-		this.estimatedNumRecords = (card1 < 0 || card2 < 0) ? -1 : Math.max(card1, card2);
+		
+		if (card1 < 0 || card2 < 0) {
+			this.estimatedNumRecords = -1;
+		} else {
+			// if the number of distinct keys is known, assume that each key of the side with fewer distinct keys
+			// finds its join partners on the other side. otherwise, assume a foreign key join.
+			final long distinct1 = getNumDistinctKeys(getFirstPredecessorNode(), this.keys1, card1);
+			final long distinct2 = getNumDistinctKeys(getSecondPredecessorNode(), this.keys2, card2);
+			
+			if (distinct1 > 0 && distinct2 > 0) {
+				this.estimatedNumRecords = (long) Math.ceil(((double) card1) * card2 / Math.max(distinct1, distinct2));
+			} else {
+				this.estimatedNumRecords = Math.max(card1, card2);
+			}
+		}
 		
 		if (this.estimatedNumRecords >= 0) {
 			float width1 = getFirstPredecessorNode().getEstimatedAvgWidthPerOutputRecord();
@@ -125,4 +140,25 @@ public class MatchNode extends TwoInputNode {
 			}
 		}
 	}
+	
+	/**
+	 * Estimates the number of distinct key combinations of the given input from the distinct values of the key fields.
+	 * 
+	 * @return The estimated number of distinct keys, or <code>-1</code>, if unknown.
+	 */
+	private static long getNumDistinctKeys(OptimizerNode input, FieldList keys, long cardinality) {
+		if (keys == null) {
+			return -1;
+		}
+		
+		double distinct = 1.0;
+		for (int i = 0; i < keys.size(); i++) {
+			final long fieldDistinct = input.getEstimatedNumDistinctValues(keys.get(i));
+			if (fieldDistinct <= 0) {
+				return -1;
+			}
+			distinct *= fieldDistinct;
+		}
+		return (long) Math.min(distinct, cardinality);
+	}
 }
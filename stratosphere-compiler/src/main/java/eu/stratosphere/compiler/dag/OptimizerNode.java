@@ -13,7 +13,12 @@
 
 package eu.stratosphere.compiler.dag;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -21,11 +26,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 import eu.stratosphere.api.common.operators.AbstractUdfOperator;
 import eu.stratosphere.api.common.operators.CompilerHints;
 import eu.stratosphere.api.common.operators.Operator;
 import eu.stratosphere.api.common.operators.util.FieldSet;
+import eu.stratosphere.api.common.operators.util.UserCodeObjectWrapper;
+import eu.stratosphere.api.common.operators.util.UserCodeWrapper;
 import eu.stratosphere.compiler.CompilerException;
 import eu.stratosphere.compiler.DataStatistics;
 import eu.stratosphere.compiler.costs.CostEstimator;
@@ -36,6 +44,9 @@ import eu.stratosphere.compiler.plan.PlanNode;
 import eu.stratosphere.compiler.plandump.DumpableConnection;
 import eu.stratosphere.compiler.plandump.DumpableNode;
 import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.util.InstantiationUtil;
+import eu.stratosphere.util.StringUtils;
 import eu.stratosphere.util.Visitable;
 import eu.stratosphere.util.Visitor;
 
@@ -95,6 +106,8 @@ public abstract class OptimizerNode implements Visitable<OptimizerNode>, Estimat
 	protected List<PlanNode> cachedPlans;	// cache candidates, because the may be accessed repeatedly
 	
 	protected int[][] remappedKeys;
+	
+	private String fingerprint;		// lazily computed identifier of the sub-plan rooted at this node
 
 	// ------------------------------------------------------------------------
 	//                      Constructor / Setup
@@ -548,6 +561,110 @@ public abstract class OptimizerNode implements Visitable<OptimizerNode>, Estimat
 		}
 	}
 
+	/**
+	 * Gets a fingerprint of the sub-plan rooted at this node. The fingerprint covers the operator, its
+	 * function and the function's state, keys and parameters, the modification time of the inputs of
+	 * sources, and recursively the fingerprints of all inputs. It is stable across
+	 * compilations of the same program and is used to relate the results observed during an execution
+	 * back to the nodes of later compilations.
+	 * 
+	 * @return The fingerprint, as a hex string.
+	 */
+	public String getFingerprint() {
+		if (this.fingerprint == null) {
+			final StringBuilder bld = new StringBuilder();
+			appendToFingerprint(bld);
+			for (PactConnection conn : getIncomingConnections()) {
+				bld.append("|in:").append(conn.getSource().getFingerprint());
+			}
+			for (PactConnection conn : getBroadcastConnections()) {
+				bld.append("|bc:").append(conn.getSource().getFingerprint());
+			}
+			
+			try {
+				this.fingerprint = md5(bld.toString().getBytes("UTF-8"));
+			}
+			catch (UnsupportedEncodingException e) {
+				throw new CompilerException("UTF-8 encoding is not available.", e);
+			}
+		}
+		return this.fingerprint;
+	}
+	
+	private static String md5(byte[] bytes) {
+		try {
+			return StringUtils.byteToHexString(MessageDigest.getInstance("MD5").digest(bytes));
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new CompilerException("MD5 hashing is not available.", e);
+		}
+	}
+	
+	/**
+	 * Appends the node specific parts of the fingerprint. The default implementation appends the type and
+	 * name of the operator, the class and the serialized state of the function, the keys and the parameters.
+	 * 
+	 * @param bld The builder to append to.
+	 */
+	protected void appendToFingerprint(StringBuilder bld) {
+		final Operator op = getPactContract();
+		if (op == null) {
+			bld.append(getName());
+			return;
+		}
+		bld.append(op.getClass().getName()).append('|').append(op.getName());
+		
+		final UserCodeWrapper<?> udf = op.getUserCodeWrapper();
+		if (udf != null && udf.getUserCodeClass() != null) {
+			bld.append('|').append(udf.getUserCodeClass().getName());
+		}
+		if (udf instanceof UserCodeObjectWrapper) {
+			// function objects carry their configuration in their fields
+			try {
+				bld.append("|udf=").append(md5(InstantiationUtil.serializeObject(udf.getUserCodeObject())));
+			}
+			catch (IOException e) {
+				// without its state, the function cannot be recognized in later compilations
+				bld.append("|udf@").append(System.identityHashCode(udf.getUserCodeObject()));
+			}
+		}
+		if (op instanceof AbstractUdfOperator<?>) {
+			final AbstractUdfOperator<?> udfOp = (AbstractUdfOperator<?>) op;
+			for (int i = 0; i < udfOp.getNumberOfInputs(); i++) {
+				bld.append('|').append(Arrays.toString(udfOp.getKeyColumns(i)));
+			}
+		}
+		
+		final Configuration params = op.getParameters();
+		for (String key : new TreeSet<String>(params.keySet())) {
+			bld.append('|').append(key).append('=').append(params.getString(key, null));
+		}
+	}
+	
+	/**
+	 * Gets the estimated number of distinct values of the given field in the output of this node. Nodes know the
+	 * number of distinct values if they read inputs with field statistics or forward the field unchanged from such
+	 * a node.
+	 * 
+	 * @param field The position of the field in the output records.
+	 * @return The estimated number of distinct values, or <code>-1</code>, if unknown.
+	 */
+	public long getEstimatedNumDistinctValues(int field) {
+		return -1;
+	}
+	
+	/**
+	 * Gets the values of the given field that occur in a large fraction of this node's output records. Like the
+	 * number of distinct values, they are known for inputs with field statistics and fields forwarded from them.
+	 * 
+	 * @param field The position of the field in the output records.
+	 * @return A map from the hash codes of the frequent values to the fractions of the records holding them, or
+	 *         <code>null</code>, if unknown.
+	 */
+	public Map<Integer, Double> getHeavyHitters(int field) {
+		return null;
+	}
+
 	/**
 	 * Checks whether this node has branching output. A node's output is branched, if it has more
 	 * than one output connection.
@@ -631,11 +748,17 @@ public abstract class OptimizerNode implements Visitable<OptimizerNode>, Estimat
 		computeOperatorSpecificDefaultEstimates(statistics);
 		
 		// overwrite default estimates with hints, if given
-		if (getPactContract() == null || getPactContract().getCompilerHints() == null) {
-			return ;
+		if (getPactContract() != null && getPactContract().getCompilerHints() != null) {
+			applyCompilerHints(getPactContract().getCompilerHints());
 		}
 		
-		CompilerHints hints = getPactContract().getCompilerHints();
+		// the cardinality observed in a previous execution of the same sub-plan beats all estimates
+		if (statistics != null) {
+			applyObservedCardinality(statistics);
+		}
+	}
+	
+	private void applyCompilerHints(CompilerHints hints) {
 		if (hints.getOutputSize() >= 0) {
 			this.estimatedOutputSize = hints.getOutputSize();
 		}
@@ -672,6 +795,20 @@ public abstract class OptimizerNode implements Visitable<OptimizerNode>, Estimat
 		}
 	}
 	
+	private void applyObservedCardinality(DataStatistics statistics) {
+		final long observed = statistics.getObservedCardinality(getFingerprint());
+		if (observed < 0) {
+			return;
+		}
+		
+		// keep the estimated width of the records
+		final float width = getEstimatedAvgWidthPerOutputRecord();
+		if (width > 0) {
+			this.estimatedOutputSize = (long) (observed * width);
+		}
+		this.estimatedNumRecords = observed;
+	}
+	
 	protected abstract void computeOperatorSpecificDefaultEstimates(DataStatistics statistics);
 	
 	// ------------------------------------------------------------------------
@@ -133,6 +133,24 @@ public abstract class SingleInputNode extends OptimizerNode {
 	}
 	
 
+	@Override
+	public long getEstimatedNumDistinctValues(int field) {
+		final OptimizerNode pred = getPredecessorNode();
+		if (pred == null || !isFieldConstant(0, field)) {
+			return -1;
+		}
+		
+		// a forwarded field has at most as many distinct values as there are records
+		final long distinct = pred.getEstimatedNumDistinctValues(field);
+		return (distinct < 0 || this.estimatedNumRecords < 0) ? distinct : Math.min(distinct, this.estimatedNumRecords);
+	}
+	
+	@Override
+	public Map<Integer, Double> getHeavyHitters(int field) {
+		final OptimizerNode pred = getPredecessorNode();
+		return (pred == null || !isFieldConstant(0, field)) ? null : pred.getHeavyHitters(field);
+	}
+	
 	@Override
 	public boolean isFieldConstant(int input, int fieldNumber) {
 		if (input != 0) {
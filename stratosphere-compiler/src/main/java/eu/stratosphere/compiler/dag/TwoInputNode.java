@@ -678,7 +678,35 @@ public abstract class TwoInputNode extends OptimizerNode {
 		}
 	}
 
+	@Override
+	public long getEstimatedNumDistinctValues(int field) {
+		final OptimizerNode pred;
+		if (isFieldConstant(0, field)) {
+			pred = getFirstPredecessorNode();
+		} else if (isFieldConstant(1, field)) {
+			pred = getSecondPredecessorNode();
+		} else {
+			return -1;
+		}
+
+		// a forwarded field has at most as many distinct values as there are records
+		final long distinct = pred == null ? -1 : pred.getEstimatedNumDistinctValues(field);
+		return (distinct < 0 || this.estimatedNumRecords < 0) ? distinct : Math.min(distinct, this.estimatedNumRecords);
+	}
 	
+	@Override
+	public Map<Integer, Double> getHeavyHitters(int field) {
+		final OptimizerNode pred;
+		if (isFieldConstant(0, field)) {
+			pred = getFirstPredecessorNode();
+		} else if (isFieldConstant(1, field)) {
+			pred = getSecondPredecessorNode();
+		} else {
+			return null;
+		}
+		return pred == null ? null : pred.getHeavyHitters(field);
+	}
+
 	@Override
 	public boolean isFieldConstant(int input, int fieldNumber) {
 		DualInputOperator<?> c = getPactContract();
@@ -0,0 +1,573 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.compiler.joinorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.operators.DualInputSemanticProperties;
+import eu.stratosphere.api.common.operators.Operator;
+import eu.stratosphere.api.common.operators.util.FieldSet;
+import eu.stratosphere.api.common.operators.util.UserCodeWrapper;
+import eu.stratosphere.api.java.record.functions.FunctionAnnotation.ConcatenatingJoin;
+import eu.stratosphere.api.java.record.functions.FunctionAnnotation.ConstantFieldsFirst;
+import eu.stratosphere.api.java.record.functions.FunctionAnnotation.ConstantFieldsSecond;
+import eu.stratosphere.api.java.record.functions.JoinFunction;
+import eu.stratosphere.api.java.record.operators.JoinOperator;
+import eu.stratosphere.compiler.PactCompiler;
+import eu.stratosphere.compiler.costs.CostEstimator;
+import eu.stratosphere.compiler.costs.Costs;
+import eu.stratosphere.compiler.dag.EstimateProvider;
+import eu.stratosphere.compiler.dag.MatchNode;
+import eu.stratosphere.compiler.dag.OptimizerNode;
+import eu.stratosphere.compiler.dag.PactConnection;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.types.Key;
+import eu.stratosphere.util.Visitor;
+
+/**
+ * Reorders trees of equi-joins, such that the intermediate results are as small as possible. The reordering
+ * only considers joins whose functions are declared as {@link ConcatenatingJoin}s, because only for those the
+ * result is independent of the order in which the inputs are joined. The fields that each input contributes
+ * are taken from the constant fields annotations.
+ * <p>
+ * For each maximal tree of such joins, the order is chosen through dynamic programming over all connected
+ * subsets of the tree's inputs (bushy trees, no cross products), using the estimates of the inputs and the
+ * costs of the {@link CostEstimator}. Each join is assumed to hash partition both its inputs and to build a
+ * hash table from the smaller one. The tree is only replaced, if the chosen order is cheaper than the original
+ * one.
+ * <p>
+ * The reorderer works on an optimizer plan representation with computed estimates. It does not change that
+ * representation, but returns the operators that replace the roots of the reordered trees. The optimizer
+ * representation must then be recreated with these substitutions.
+ */
+public class JoinReorderer implements Visitor<OptimizerNode> {
+	
+	private static final Log LOG = LogFactory.getLog(JoinReorderer.class);
+	
+	/**
+	 * The maximal number of inputs of a join tree. The enumeration effort grows with <i>3^n</i>, larger trees
+	 * are left in the order given by the program.
+	 */
+	public static final int MAX_NUM_INPUTS = 10;
+	
+	private final CostEstimator estimator;
+	
+	private final Set<OptimizerNode> visited = new HashSet<OptimizerNode>();
+	
+	private final List<MatchNode> roots = new ArrayList<MatchNode>();
+	
+	/**
+	 * Creates a new reorderer that uses the given estimator to cost the alternative join orders.
+	 * 
+	 * @param estimator The cost estimator.
+	 */
+	public JoinReorderer(CostEstimator estimator) {
+		if (estimator == null) {
+			throw new NullPointerException();
+		}
+		this.estimator = estimator;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Finds the join trees in the plan rooted at the given node and determines for each one whether a
+	 * different join order is cheaper. Joins in the step functions of iterations are not considered.
+	 * 
+	 * @param root The root of the optimizer plan representation, with computed estimates.
+	 * @return A map from the operators that are the roots of reordered join trees to the operators
+	 *         that replace them. Empty, if no tree was reordered.
+	 */
+	public Map<Operator, Operator> reorderJoins(OptimizerNode root) {
+		this.visited.clear();
+		this.roots.clear();
+		root.accept(this);
+		
+		final Map<Operator, Operator> substitutions = new HashMap<Operator, Operator>();
+		for (MatchNode treeRoot : this.roots) {
+			final JoinGraph graph = new JoinGraph();
+			if (graph.addJoins(treeRoot) < 0 || !graph.isValid()) {
+				continue;
+			}
+			
+			final int numInputs = graph.inputs.size();
+			if (numInputs < 3) {
+				continue;
+			}
+			if (numInputs > MAX_NUM_INPUTS) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Not reordering the joins ending in '" + treeRoot.getPactContract().getName() +
+						"', because the tree has more than " + MAX_NUM_INPUTS + " inputs.");
+				}
+				continue;
+			}
+			
+			final JoinPlan original = graph.getOriginalPlan(this.estimator);
+			final JoinPlan best = graph.enumerate(this.estimator);
+			
+			if (best.costs.compareTo(original.costs) < 0) {
+				if (PactCompiler.LOG.isInfoEnabled()) {
+					PactCompiler.LOG.info("Reordering the joins ending in '" + treeRoot.getPactContract().getName() +
+						"' to " + best + ", estimated costs " + best.costs + " instead of " + original.costs + '.');
+				}
+				substitutions.put(treeRoot.getPactContract(), graph.createOperators(best, graph.joins.iterator()));
+			}
+		}
+		return substitutions;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//                                    Finding the trees
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public boolean preVisit(OptimizerNode node) {
+		if (!this.visited.add(node)) {
+			return false;
+		}
+		
+		if (isReorderable(node)) {
+			// this join is the root of a tree, unless it is absorbed into the tree of its only successor
+			final List<PactConnection> outgoing = node.getOutgoingConnections();
+			final OptimizerNode successor = outgoing == null || outgoing.size() != 1 ? null : outgoing.get(0).getTarget();
+			
+			if (!(successor instanceof MatchNode) || getAbsorbedInput((MatchNode) successor, node) < 0) {
+				this.roots.add((MatchNode) node);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void postVisit(OptimizerNode node) {}
+	
+	/**
+	 * Checks whether the given node is a join that can be reordered.
+	 */
+	private static boolean isReorderable(OptimizerNode node) {
+		if (node.getClass() != MatchNode.class || !(node.getPactContract() instanceof JoinOperator)) {
+			return false;
+		}
+		
+		final JoinOperator join = (JoinOperator) node.getPactContract();
+		final UserCodeWrapper<JoinFunction> udf = join.getUserCodeWrapper();
+		if (udf.getUserCodeAnnotation(ConcatenatingJoin.class) == null ||
+				udf.getUserCodeAnnotation(ConstantFieldsFirst.class) == null ||
+				udf.getUserCodeAnnotation(ConstantFieldsSecond.class) == null ||
+				!join.getBroadcastInputs().isEmpty())
+		{
+			return false;
+		}
+		
+		// joins with fixed strategies are left as they are
+		final Configuration conf = join.getParameters();
+		return conf.getString(PactCompiler.HINT_LOCAL_STRATEGY, null) == null &&
+				conf.getString(PactCompiler.HINT_SHIP_STRATEGY, null) == null &&
+				conf.getString(PactCompiler.HINT_SHIP_STRATEGY_FIRST_INPUT, null) == null &&
+				conf.getString(PactCompiler.HINT_SHIP_STRATEGY_SECOND_INPUT, null) == null;
+	}
+	
+	/**
+	 * Gets the fields that the given input of a reorderable join contributes to the join's result.
+	 */
+	private static FieldSet getInputFields(MatchNode join, int input) {
+		final UserCodeWrapper<?> udf = join.getPactContract().getUserCodeWrapper();
+		return input == 0 ? new FieldSet(udf.getUserCodeAnnotation(ConstantFieldsFirst.class).value()) :
+			new FieldSet(udf.getUserCodeAnnotation(ConstantFieldsSecond.class).value());
+	}
+	
+	/**
+	 * Checks whether the given join is absorbed into the tree of the given successor join, i.e. whether both are
+	 * reorderable, the join's result is only consumed by the successor, and the successor keeps all of its fields.
+	 * 
+	 * @return The input of the successor that the join is absorbed as, or <code>-1</code>, if it is not absorbed.
+	 */
+	private static int getAbsorbedInput(MatchNode successor, OptimizerNode join) {
+		if (!isReorderable(successor) || !isReorderable(join) || join.getOutgoingConnections().size() != 1) {
+			return -1;
+		}
+		
+		final FieldSet fields = new FieldSet(getInputFields((MatchNode) join, 0));
+		fields.addAll(getInputFields((MatchNode) join, 1));
+		
+		if (successor.getFirstPredecessorNode() == join && fields.equals(getInputFields(successor, 0))) {
+			return 0;
+		} else if (successor.getSecondPredecessorNode() == join && fields.equals(getInputFields(successor, 1))) {
+			return 1;
+		} else {
+			return -1;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//                                      The join graph
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * The inputs of a join tree and the join predicates between them.
+	 */
+	private static final class JoinGraph {
+		
+		private final List<OptimizerNode> inputs = new ArrayList<OptimizerNode>();
+		
+		private final List<FieldSet> inputFields = new ArrayList<FieldSet>();
+		
+		private final List<JoinPredicate> predicates = new ArrayList<JoinPredicate>();
+		
+		private final List<JoinOperator> joins = new ArrayList<JoinOperator>(); // the original joins, in post order
+		
+		private final List<int[]> originalOrder = new ArrayList<int[]>(); // the input sets joined by the joins
+		
+		private long memory;
+		
+		/**
+		 * Adds the tree of joins rooted at the given join.
+		 * 
+		 * @return The bit set of the inputs below the join, or <code>-1</code>, if the tree cannot be reordered.
+		 */
+		private int addJoins(MatchNode join) {
+			final int[] sides = new int[2];
+			for (int input = 0; input < 2; input++) {
+				final OptimizerNode pred = input == 0 ? join.getFirstPredecessorNode() : join.getSecondPredecessorNode();
+				
+				if (pred instanceof MatchNode && getAbsorbedInput(join, pred) == input) {
+					sides[input] = addJoins((MatchNode) pred);
+					if (sides[input] < 0) {
+						return -1;
+					}
+				} else {
+					// the input may only be used once in the tree
+					if (this.inputs.contains(pred) || pred.getEstimatedNumRecords() < 0 ||
+							pred.getEstimatedAvgWidthPerOutputRecord() <= 0)
+					{
+						return -1;
+					}
+					sides[input] = 1 << this.inputs.size();
+					this.inputs.add(pred);
+					this.inputFields.add(getInputFields(join, input));
+				}
+			}
+			
+			// attribute the key fields to the inputs that contribute them
+			final JoinOperator contract = (JoinOperator) join.getPactContract();
+			final int[] keys1 = contract.getKeyColumns(0);
+			final int[] keys2 = contract.getKeyColumns(1);
+			final Class<? extends Key<?>>[] keyTypes = contract.getKeyClasses();
+			
+			for (int i = 0; i < keys1.length; i++) {
+				final int input1 = getContributingInput(sides[0], keys1[i]);
+				final int input2 = getContributingInput(sides[1], keys2[i]);
+				if (input1 < 0 || input2 < 0) {
+					return -1;
+				}
+				final JoinPredicate predicate = new JoinPredicate(input1, keys1[i], input2, keys2[i], keyTypes[i]);
+				predicate.distinct[0] = this.inputs.get(input1).getEstimatedNumDistinctValues(keys1[i]);
+				predicate.distinct[1] = this.inputs.get(input2).getEstimatedNumDistinctValues(keys2[i]);
+				this.predicates.add(predicate);
+			}
+			
+			this.joins.add(contract);
+			this.originalOrder.add(sides);
+			this.memory = Math.max(this.memory, join.getMinimalMemoryPerSubTask());
+			return sides[0] | sides[1];
+		}
+		
+		private int getContributingInput(int inputSet, int field) {
+			for (int i = 0; i < this.inputs.size(); i++) {
+				if ((inputSet & (1 << i)) != 0 && this.inputFields.get(i).contains(field)) {
+					return i;
+				}
+			}
+			return -1;
+		}
+		
+		/**
+		 * Checks that the fields of the inputs are disjoint, such that each field has a unique origin.
+		 */
+		private boolean isValid() {
+			for (int i = 0; i < this.inputFields.size(); i++) {
+				for (int k = i + 1; k < this.inputFields.size(); k++) {
+					for (Integer field : this.inputFields.get(k)) {
+						if (this.inputFields.get(i).contains(field)) {
+							return false;
+						}
+					}
+				}
+			}
+			return true;
+		}
+		
+		// ----------------------------------------------------------------------------------------
+		
+		private JoinPlan getOriginalPlan(CostEstimator estimator) {
+			final JoinPlan[] plans = new JoinPlan[1 << this.inputs.size()];
+			for (int i = 0; i < this.inputs.size(); i++) {
+				plans[1 << i] = new JoinPlan(i, this.inputs.get(i));
+			}
+			// the joins are in post order, so the inputs of each join have been planned before
+			JoinPlan plan = null;
+			for (int[] sides : this.originalOrder) {
+				plan = join(plans[sides[0]], plans[sides[1]], estimator);
+				plans[sides[0] | sides[1]] = plan;
+			}
+			return plan;
+		}
+		
+		/**
+		 * Finds the cheapest plan through dynamic programming over the connected subsets of the inputs.
+		 */
+		private JoinPlan enumerate(CostEstimator estimator) {
+			final int all = (1 << this.inputs.size()) - 1;
+			final JoinPlan[] best = new JoinPlan[all + 1];
+			for (int i = 0; i < this.inputs.size(); i++) {
+				best[1 << i] = new JoinPlan(i, this.inputs.get(i));
+			}
+			
+			// subsets are enumerated in increasing order, so all their subsets have been planned before
+			for (int set = 3; set <= all; set++) {
+				if (Integer.bitCount(set) < 2) {
+					continue;
+				}
+				final int lowest = Integer.lowestOneBit(set);
+				
+				for (int left = (set - 1) & set; left > 0; left = (left - 1) & set) {
+					// consider each split only once, with the lowest input on the left side
+					final int right = set ^ left;
+					if ((left & lowest) == 0 || best[left] == null || best[right] == null) {
+						continue;
+					}
+					
+					final JoinPlan candidate = join(best[left], best[right], estimator);
+					if (candidate != null && (best[set] == null || candidate.costs.compareTo(best[set].costs) < 0)) {
+						best[set] = candidate;
+					}
+				}
+			}
+			return best[all];
+		}
+		
+		/**
+		 * Creates the plan that joins the given plans, or returns null, if no predicate connects them.
+		 */
+		private JoinPlan join(JoinPlan left, JoinPlan right, CostEstimator estimator) {
+			// the number of distinct key combinations on both sides
+			double distinctLeft = 1.0;
+			double distinctRight = 1.0;
+			boolean connected = false;
+			
+			for (JoinPredicate predicate : this.predicates) {
+				final int pos = predicate.getInputOn(left.inputs, right.inputs);
+				if (pos < 0) {
+					continue;
+				}
+				connected = true;
+				
+				final long d1 = predicate.distinct[pos];
+				final long d2 = predicate.distinct[1 - pos];
+				distinctLeft = d1 < 0 || distinctLeft < 0 ? -1 : distinctLeft * Math.min(d1, left.numRecords);
+				distinctRight = d2 < 0 || distinctRight < 0 ? -1 : distinctRight * Math.min(d2, right.numRecords);
+			}
+			if (!connected) {
+				return null;
+			}
+			
+			// same estimate as for the join node itself
+			final long numRecords;
+			if (distinctLeft > 0 && distinctRight > 0) {
+				distinctLeft = Math.min(distinctLeft, left.numRecords);
+				distinctRight = Math.min(distinctRight, right.numRecords);
+				numRecords = (long) Math.ceil(((double) left.numRecords) * right.numRecords /
+					Math.max(distinctLeft, distinctRight));
+			} else {
+				numRecords = Math.max(left.numRecords, right.numRecords);
+			}
+			
+			final Costs costs = new Costs();
+			costs.addCosts(left.costs);
+			costs.addCosts(right.costs);
+			estimator.addHashPartitioningCost(left, costs);
+			estimator.addHashPartitioningCost(right, costs);
+			if (left.getEstimatedOutputSize() <= right.getEstimatedOutputSize()) {
+				estimator.addHybridHashCosts(left, right, this.memory, costs);
+			} else {
+				estimator.addHybridHashCosts(right, left, this.memory, costs);
+			}
+			
+			return new JoinPlan(left, right, numRecords, costs);
+		}
+		
+		// ----------------------------------------------------------------------------------------
+		
+		/**
+		 * Creates the join operators for the given plan. The joins take their functions and parameters
+		 * from the original joins.
+		 */
+		private Operator createOperators(JoinPlan plan, Iterator<JoinOperator> originals) {
+			if (plan.input >= 0) {
+				return this.inputs.get(plan.input).getPactContract();
+			}
+			
+			final Operator input1 = createOperators(plan.left, originals);
+			final Operator input2 = createOperators(plan.right, originals);
+			final JoinOperator original = originals.next();
+			
+			JoinOperator.Builder builder = null;
+			for (JoinPredicate predicate : this.predicates) {
+				final int pos = predicate.getInputOn(plan.left.inputs, plan.right.inputs);
+				if (pos < 0) {
+					continue;
+				}
+				if (builder == null) {
+					builder = JoinOperator.builder(original.getUserCodeWrapper(), predicate.keyType,
+						predicate.fields[pos], predicate.fields[1 - pos]);
+				} else {
+					builder.keyField(predicate.keyType, predicate.fields[pos], predicate.fields[1 - pos]);
+				}
+			}
+			
+			final JoinOperator join = builder.input1(input1).input2(input2).name(original.getName()).build();
+			join.setDegreeOfParallelism(original.getDegreeOfParallelism());
+			join.getParameters().addAll(original.getParameters());
+			
+			// the join forwards the fields of all inputs on either side
+			final DualInputSemanticProperties props = new DualInputSemanticProperties();
+			for (int i = 0; i < this.inputs.size(); i++) {
+				final boolean first = (plan.left.inputs & (1 << i)) != 0;
+				if (first || (plan.right.inputs & (1 << i)) != 0) {
+					for (Integer field : this.inputFields.get(i)) {
+						if (first) {
+							props.addForwardedField1(field, field);
+						} else {
+							props.addForwardedField2(field, field);
+						}
+					}
+				}
+			}
+			join.setSemanticProperties(props);
+			return join;
+		}
+	}
+	
+	/**
+	 * An equality predicate between the fields of two inputs.
+	 */
+	private static final class JoinPredicate {
+		
+		private final int[] inputs;
+		
+		private final int[] fields;
+		
+		private final long[] distinct; // the number of distinct values of the fields in the inputs
+		
+		private final Class<? extends Key<?>> keyType;
+		
+		private JoinPredicate(int input1, int field1, int input2, int field2, Class<? extends Key<?>> keyType) {
+			this.inputs = new int[] { input1, input2 };
+			this.fields = new int[] { field1, field2 };
+			this.distinct = new long[2];
+			this.keyType = keyType;
+		}
+		
+		/**
+		 * Gets the position of the predicate's side that refers to the left set of inputs, if the predicate
+		 * connects the two sets.
+		 * 
+		 * @return The position (0 or 1), or <code>-1</code>, if the predicate does not connect the sets.
+		 */
+		private int getInputOn(int left, int right) {
+			final int bit1 = 1 << this.inputs[0];
+			final int bit2 = 1 << this.inputs[1];
+			if ((left & bit1) != 0 && (right & bit2) != 0) {
+				return 0;
+			} else if ((left & bit2) != 0 && (right & bit1) != 0) {
+				return 1;
+			} else {
+				return -1;
+			}
+		}
+	}
+	
+	/**
+	 * A (partial) join order, which is either an input or the join of two other plans.
+	 */
+	private static final class JoinPlan implements EstimateProvider {
+		
+		private final int inputs; // the bit set of the contained inputs
+		
+		private final int input; // the input, if this plan is a single input, otherwise -1
+		
+		private final JoinPlan left;
+		
+		private final JoinPlan right;
+		
+		private final String name;
+		
+		private final long numRecords;
+		
+		private final float width;
+		
+		private final Costs costs;
+		
+		private JoinPlan(int input, OptimizerNode node) {
+			this.inputs = 1 << input;
+			this.input = input;
+			this.name = node.getPactContract().getName();
+			this.left = null;
+			this.right = null;
+			this.numRecords = node.getEstimatedNumRecords();
+			this.width = node.getEstimatedAvgWidthPerOutputRecord();
+			this.costs = new Costs();
+		}
+		
+		private JoinPlan(JoinPlan left, JoinPlan right, long numRecords, Costs costs) {
+			this.inputs = left.inputs | right.inputs;
+			this.input = -1;
+			this.name = null;
+			this.left = left;
+			this.right = right;
+			this.numRecords = numRecords;
+			this.width = left.width + right.width;
+			this.costs = costs;
+		}
+
+		@Override
+		public long getEstimatedOutputSize() {
+			return (long) (this.numRecords * this.width);
+		}
+
+		@Override
+		public long getEstimatedNumRecords() {
+			return this.numRecords;
+		}
+
+		@Override
+		public float getEstimatedAvgWidthPerOutputRecord() {
+			return this.width;
+		}
+		
+		@Override
+		public String toString() {
+			return this.input >= 0 ? this.name : "(" + this.left + " x " + this.right + ")";
+		}
+	}
+}
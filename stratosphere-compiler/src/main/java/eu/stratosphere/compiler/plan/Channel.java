@@ -60,6 +60,8 @@ public class Channel implements EstimateProvider, Cloneable, DumpableConnection<
 	
 	private DataDistribution dataDistribution;
 	
+	private int[] heavyHitters;
+	
 	private TempMode tempMode;
 	
 	private long tempMemory;
@@ -175,6 +177,24 @@ public class Channel implements EstimateProvider, Cloneable, DumpableConnection<
 		return this.dataDistribution;
 	}
 	
+	/**
+	 * Sets the heavy hitters treated specially by the skew resolving hash partitionings.
+	 * 
+	 * @param heavyHitters The hash codes of the values of the (single) ship strategy key field.
+	 */
+	public void setHeavyHitters(int[] heavyHitters) {
+		this.heavyHitters = heavyHitters;
+	}
+	
+	/**
+	 * Gets the heavy hitters treated specially by the skew resolving hash partitionings.
+	 * 
+	 * @return The hash codes of the values of the (single) ship strategy key field, or null, if not set.
+	 */
+	public int[] getHeavyHitters() {
+		return this.heavyHitters;
+	}
+	
 	public TempMode getTempMode() {
 		return this.tempMode;
 	}
@@ -346,6 +366,11 @@ public class Channel implements EstimateProvider, Cloneable, DumpableConnection<
 				case FORWARD:
 					break;
 				case PARTITION_RANDOM:
+				case PARTITION_HASH_SKEW_SPLIT:
+					this.globalProps.reset();
+					break;
+				case PARTITION_HASH_SKEW_REPLICATE:
+					this.globalProps.clearUniqueFieldCombinations();
 					this.globalProps.reset();
 					break;
 				case PARTITION_LOCAL_HASH:
@@ -397,6 +422,8 @@ public class Channel implements EstimateProvider, Cloneable, DumpableConnection<
 				case PARTITION_HASH:
 				case PARTITION_RANGE:
 				case PARTITION_RANDOM:
+				case PARTITION_HASH_SKEW_SPLIT:
+				case PARTITION_HASH_SKEW_REPLICATE:
 					props.reset();
 					break;
 				case PARTITION_LOCAL_HASH:
@@ -431,6 +458,8 @@ public class Channel implements EstimateProvider, Cloneable, DumpableConnection<
 		case PARTITION_HASH:
 		case PARTITION_RANGE:
 		case PARTITION_RANDOM:
+		case PARTITION_HASH_SKEW_SPLIT:
+		case PARTITION_HASH_SKEW_REPLICATE:
 			return;
 		}
 		throw new CompilerException("Unrecognized Ship Strategy Type: " + this.shipStrategy);
@@ -458,6 +487,8 @@ public class Channel implements EstimateProvider, Cloneable, DumpableConnection<
 		case PARTITION_HASH:
 		case PARTITION_RANGE:
 		case PARTITION_RANDOM:
+		case PARTITION_HASH_SKEW_SPLIT:
+		case PARTITION_HASH_SKEW_REPLICATE:
 			return;
 		}
 		
@@ -318,6 +318,12 @@ public class PlanJSONDumpGenerator {
 						case PARTITION_RANGE:
 							shipStrategy = "Range Partition";
 							break;
+						case PARTITION_HASH_SKEW_SPLIT:
+							shipStrategy = "Hash Partition (heavy hitters split)";
+							break;
+						case PARTITION_HASH_SKEW_REPLICATE:
+							shipStrategy = "Hash Partition (heavy hitters replicated)";
+							break;
 						case PARTITION_LOCAL_HASH:
 							shipStrategy = "Hash Partition (local)";
 							break;
@@ -17,10 +17,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -68,10 +70,13 @@ import eu.stratosphere.pact.runtime.iterative.task.IterationHeadPactTask;
 import eu.stratosphere.pact.runtime.iterative.task.IterationIntermediatePactTask;
 import eu.stratosphere.pact.runtime.iterative.task.IterationSynchronizationSinkTask;
 import eu.stratosphere.pact.runtime.iterative.task.IterationTailPactTask;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparatorFactory;
 import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
 import eu.stratosphere.pact.runtime.task.CoGroupDriver;
 import eu.stratosphere.pact.runtime.task.CoGroupWithSolutionSetFirstDriver;
 import eu.stratosphere.pact.runtime.task.CoGroupWithSolutionSetSecondDriver;
+import eu.stratosphere.pact.runtime.task.DamBehavior;
 import eu.stratosphere.pact.runtime.task.DataSinkTask;
 import eu.stratosphere.pact.runtime.task.DataSourceTask;
 import eu.stratosphere.pact.runtime.task.DriverStrategy;
@@ -114,6 +119,8 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 	
 	private Map<IterationPlanNode, IterationDescriptor> iterations;
 	
+	private Set<PlanNode> observedProducers; // the nodes whose output cardinality is already reported by a consumer
+	
 	private List<TaskInChain> chainedTasksInSequence;
 	
 	private List<AbstractJobVertex> auxVertices; // auxiliary vertices which are added during job graph generation
@@ -161,6 +168,7 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 		this.chainedTasksInSequence = new ArrayList<TaskInChain>();
 		this.auxVertices = new ArrayList<AbstractJobVertex>();
 		this.iterations = new HashMap<IterationPlanNode, IterationDescriptor>();
+		this.observedProducers = new HashSet<PlanNode>();
 		this.maxDegreeVertex = null;
 		
 		// generate Nephele job graph
@@ -217,6 +225,7 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 		this.chainedTasksInSequence = null;
 		this.auxVertices = null;
 		this.iterations = null;
+		this.observedProducers = null;
 		this.jobGraph = null;
 
 		// return job graph
@@ -690,6 +699,9 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 		// the local strategy is added only once. in non-union case that is the actual edge,
 		// in the union case, it is the edge between union and the target node
 		addLocalInfoFromChannelToConfig(input, targetVertexConfig, inputIndex, isBroadcast);
+		if (!isBroadcast) {
+			addObservationKeyToConfig(input, targetVertex, targetVertexConfig, inputIndex);
+		}
 		return 1;
 	}
 	
@@ -1048,6 +1060,8 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 			case BROADCAST:
 			case PARTITION_HASH:
 			case PARTITION_RANGE:
+			case PARTITION_HASH_SKEW_SPLIT:
+			case PARTITION_HASH_SKEW_REPLICATE:
 				distributionPattern = DistributionPattern.BIPARTITE;
 				channelType = ChannelType.NETWORK;
 				break;
@@ -1059,7 +1073,18 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 
 		// -------------- configure the source task's ship strategy strategies in task config --------------
 		final int outputIndex = sourceConfig.getNumOutputs();
-		sourceConfig.addOutputShipStrategy(channel.getShipStrategy());
+		final int[] heavyHitterKeyHashes = getHeavyHitterKeyHashes(channel);
+		if (heavyHitterKeyHashes != null) {
+			sourceConfig.addOutputShipStrategy(channel.getShipStrategy());
+			sourceConfig.setOutputHeavyHitters(heavyHitterKeyHashes, outputIndex);
+		} else if (channel.getShipStrategy() == ShipStrategyType.PARTITION_HASH_SKEW_SPLIT ||
+				channel.getShipStrategy() == ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE)
+		{
+			// the heavy hitters cannot be identified at runtime, so the skew is not resolved
+			sourceConfig.addOutputShipStrategy(ShipStrategyType.PARTITION_HASH);
+		} else {
+			sourceConfig.addOutputShipStrategy(channel.getShipStrategy());
+		}
 		if (outputIndex == 0) {
 			sourceConfig.setOutputSerializer(channel.getSerializer());
 		}
@@ -1141,6 +1166,65 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 		}
 	}
 	
+	/**
+	 * Translates the heavy hitters of a skew resolving hash partitioning from the hash codes of the key values
+	 * to the hash codes that the runtime comparator computes for the keys. That is only possible for the
+	 * comparators of the record data model and single field keys.
+	 * 
+	 * @param channel The channel.
+	 * @return The hash codes of the heavy hitter keys, or null, if the channel does not resolve skew or the hash
+	 *         codes of the keys cannot be determined.
+	 */
+	private static int[] getHeavyHitterKeyHashes(Channel channel) {
+		final int[] heavyHitters = channel.getHeavyHitters();
+		if (heavyHitters == null || channel.getShipStrategyKeys() == null || channel.getShipStrategyKeys().size() != 1 ||
+				!(channel.getShipStrategyComparator() instanceof RecordComparatorFactory) ||
+				(channel.getShipStrategy() != ShipStrategyType.PARTITION_HASH_SKEW_SPLIT &&
+				channel.getShipStrategy() != ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE))
+		{
+			return null;
+		}
+		
+		final int[] keyHashes = new int[heavyHitters.length];
+		for (int i = 0; i < heavyHitters.length; i++) {
+			keyHashes[i] = RecordComparator.hashKeyFields(heavyHitters[i]);
+		}
+		return keyHashes;
+	}
+	
+	/**
+	 * Marks inputs that are fully materialized before the driver consumes them (sorted inputs, temp barriers,
+	 * and the build sides of hash joins), such that the task reports the number of records that it received
+	 * through them. The observed cardinality is keyed by the fingerprint of the producing optimizer node and
+	 * replaces the estimate when the same sub-plan is compiled again.
+	 */
+	private void addObservationKeyToConfig(Channel channel, AbstractJobVertex targetVertex, TaskConfig config, int inputNum) {
+		// only regular tasks report, and only once per execution (not per superstep)
+		if (targetVertex.getInvokableClass() != RegularPactTask.class || channel.isOnDynamicPath()) {
+			return;
+		}
+		
+		final PlanNode target = channel.getTarget();
+		final boolean materialized = channel.getLocalStrategy().dams() ||
+				(channel.getTempMode() != null && channel.getTempMode().breaksPipeline()) ||
+				(inputNum < target.getDriverStrategy().getNumInputs() &&
+					target.getDriverStrategy().damOnInput(inputNum) == DamBehavior.FULL_DAM);
+		
+		// the output of a combiner belongs to the same operator as the reducer, so it cannot be keyed by it
+		final PlanNode source = channel.getSource();
+		if (!materialized || (source instanceof SingleInputPlanNode &&
+				((SingleInputPlanNode) source).getDriverStrategy() == DriverStrategy.PARTIAL_GROUP))
+		{
+			return;
+		}
+		
+		// every consumer receives the full result, it must be counted only once
+		if (this.observedProducers.add(source)) {
+			config.setInputObservationKey(inputNum, source.getOptimizerNode().getFingerprint(),
+				channel.getShipStrategy() == ShipStrategyType.BROADCAST);
+		}
+	}
+	
 	private void finalizeBulkIteration(IterationDescriptor descr) {
 		
 		final BulkIterationPlanNode bulkNode = (BulkIterationPlanNode) descr.getIterationNode();
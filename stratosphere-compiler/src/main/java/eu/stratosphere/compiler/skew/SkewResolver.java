@@ -0,0 +1,175 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.compiler.skew;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+import eu.stratosphere.compiler.plan.Channel;
+import eu.stratosphere.compiler.plan.DualInputPlanNode;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.compiler.plan.PlanNode;
+import eu.stratosphere.compiler.plan.SingleInputPlanNode;
+import eu.stratosphere.compiler.plan.SinkPlanNode;
+import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
+import eu.stratosphere.pact.runtime.task.DriverStrategy;
+
+/**
+ * Resolves the skew of hash partitioned joins whose key has heavy hitters, i.e., values that occur in so many
+ * records that a single instance receives much more than its share of the data.
+ * <p>
+ * The records of one input that hold a heavy hitter are distributed round robin across all instances, the
+ * records of the other input that hold a heavy hitter are replicated to all instances. All other records are
+ * hash partitioned as before. Each pair of matching records still meets in exactly one instance, but the join
+ * output is no longer partitioned on the key. Hence, joins are only changed if no successor relies on that
+ * partitioning.
+ * <p>
+ * The heavy hitters are taken from the field statistics of the inputs. Keys must consist of a single field.
+ */
+public class SkewResolver {
+	
+	/**
+	 * The load that a single key must cause on an instance, relative to the instance's share of the records,
+	 * for the key to be treated as a heavy hitter.
+	 */
+	public static final double HEAVY_HITTER_LOAD = 0.5;
+	
+	/**
+	 * Changes the hash partitionings of all joins in the given plan whose keys have heavy hitters.
+	 * 
+	 * @param plan The optimized plan.
+	 */
+	public void resolveSkew(OptimizedPlan plan) {
+		for (PlanNode node : plan.getAllNodes()) {
+			if (node instanceof DualInputPlanNode) {
+				resolveSkew((DualInputPlanNode) node);
+			}
+		}
+	}
+	
+	private void resolveSkew(DualInputPlanNode node) {
+		final DriverStrategy driver = node.getDriverStrategy();
+		if ((driver != DriverStrategy.HYBRIDHASH_BUILD_FIRST && driver != DriverStrategy.HYBRIDHASH_BUILD_SECOND &&
+				driver != DriverStrategy.MERGE) || node.isOnDynamicPath() || node.getDegreeOfParallelism() <= 1)
+		{
+			return;
+		}
+		
+		final Channel in1 = node.getInput1();
+		final Channel in2 = node.getInput2();
+		if (in1.getShipStrategy() != ShipStrategyType.PARTITION_HASH ||
+				in2.getShipStrategy() != ShipStrategyType.PARTITION_HASH ||
+				in1.getShipStrategyKeys().size() != 1 || in2.getShipStrategyKeys().size() != 1)
+		{
+			return;
+		}
+		
+		final Map<Integer, Double> frequencies1 = 
+				in1.getSource().getOptimizerNode().getHeavyHitters(in1.getShipStrategyKeys().get(0));
+		final Map<Integer, Double> frequencies2 = 
+				in2.getSource().getOptimizerNode().getHeavyHitters(in2.getShipStrategyKeys().get(0));
+		
+		// a key is a heavy hitter, if it is heavy in either input
+		final double minFrequency = HEAVY_HITTER_LOAD / node.getDegreeOfParallelism();
+		final TreeSet<Integer> heavyHitters = new TreeSet<Integer>();
+		addHeavyHitters(frequencies1, minFrequency, heavyHitters);
+		addHeavyHitters(frequencies2, minFrequency, heavyHitters);
+		
+		if (heavyHitters.isEmpty() || !isPartitioningIrrelevant(node)) {
+			return;
+		}
+		
+		final int[] hashes = new int[heavyHitters.size()];
+		int i = 0;
+		for (Integer hash : heavyHitters) {
+			hashes[i++] = hash;
+		}
+		
+		// split the input with more heavy hitter records, replicate the other one
+		final double heavy1 = getNumHeavyHitterRecords(in1, frequencies1, heavyHitters);
+		final double heavy2 = getNumHeavyHitterRecords(in2, frequencies2, heavyHitters);
+		final Channel split = heavy1 >= heavy2 ? in1 : in2;
+		final Channel replicated = heavy1 >= heavy2 ? in2 : in1;
+		
+		split.setShipStrategy(ShipStrategyType.PARTITION_HASH_SKEW_SPLIT, split.getShipStrategyKeys(),
+			split.getShipStrategySortOrder());
+		split.setHeavyHitters(hashes);
+		replicated.setShipStrategy(ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE, replicated.getShipStrategyKeys(),
+			replicated.getShipStrategySortOrder());
+		replicated.setHeavyHitters(Arrays.copyOf(hashes, hashes.length));
+		
+		node.getGlobalProperties().reset();
+	}
+	
+	private static void addHeavyHitters(Map<Integer, Double> frequencies, double minFrequency, TreeSet<Integer> target) {
+		if (frequencies != null) {
+			for (Map.Entry<Integer, Double> entry : frequencies.entrySet()) {
+				if (entry.getValue() >= minFrequency) {
+					target.add(entry.getKey());
+				}
+			}
+		}
+	}
+	
+	private static double getNumHeavyHitterRecords(Channel input, Map<Integer, Double> frequencies,
+			TreeSet<Integer> heavyHitters)
+	{
+		if (frequencies == null) {
+			return 0.0;
+		}
+		
+		double fraction = 0.0;
+		for (Integer hash : heavyHitters) {
+			final Double frequency = frequencies.get(hash);
+			fraction += frequency == null ? 0.0 : frequency;
+		}
+		final long numRecords = input.getEstimatedNumRecords();
+		return numRecords < 0 ? fraction : fraction * numRecords;
+	}
+	
+	/**
+	 * Checks whether the successors of the given node do not rely on the partitioning of its output. That is the
+	 * case, if its output is re-distributed, written to a sink, or forwarded to record-at-a-time functions whose
+	 * output in turn fulfills these conditions.
+	 */
+	private static boolean isPartitioningIrrelevant(PlanNode node) {
+		for (Channel channel : node.getOutgoingChannels()) {
+			switch (channel.getShipStrategy()) {
+			case PARTITION_HASH:
+			case PARTITION_RANGE:
+			case PARTITION_RANDOM:
+			case BROADCAST:
+				continue;
+			case FORWARD:
+				final PlanNode target = channel.getTarget();
+				if (target instanceof SinkPlanNode) {
+					continue;
+				}
+				if (target instanceof SingleInputPlanNode && !target.isOnDynamicPath()) {
+					final DriverStrategy driver = target.getDriverStrategy();
+					if ((driver == DriverStrategy.MAP || driver == DriverStrategy.FLAT_MAP ||
+							driver == DriverStrategy.COLLECTOR_MAP) && isPartitioningIrrelevant(target))
+					{
+						continue;
+					}
+				}
+				return false;
+			default:
+				return false;
+			}
+		}
+		return true;
+	}
+}
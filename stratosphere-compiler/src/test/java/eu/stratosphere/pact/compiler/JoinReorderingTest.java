@@ -0,0 +1,197 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.Plan;
+import eu.stratosphere.api.common.io.GenericCsvInputFormat.SampledFileBaseStatistics;
+import eu.stratosphere.api.common.io.statistics.FieldStatistics;
+import eu.stratosphere.api.common.operators.FileDataSink;
+import eu.stratosphere.api.common.operators.FileDataSource;
+import eu.stratosphere.api.java.record.functions.FunctionAnnotation.ConcatenatingJoin;
+import eu.stratosphere.api.java.record.functions.FunctionAnnotation.ConstantFieldsFirst;
+import eu.stratosphere.api.java.record.functions.FunctionAnnotation.ConstantFieldsSecond;
+import eu.stratosphere.api.java.record.functions.JoinFunction;
+import eu.stratosphere.api.java.record.operators.JoinOperator;
+import eu.stratosphere.compiler.plan.DualInputPlanNode;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.compiler.plan.PlanNode;
+import eu.stratosphere.compiler.plan.SinkPlanNode;
+import eu.stratosphere.compiler.plantranslate.NepheleJobGraphGenerator;
+import eu.stratosphere.pact.compiler.util.DummyInputFormat;
+import eu.stratosphere.pact.compiler.util.DummyMatchStub;
+import eu.stratosphere.pact.compiler.util.DummyOutputFormat;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.LongValue;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.util.Collector;
+
+/**
+ * Tests that trees of concatenating joins are reordered to produce small intermediate results.
+ */
+public class JoinReorderingTest extends CompilerTestBase {
+	
+	/**
+	 * Joins A (fields 0, 1) with B (fields 2, 3) on A.0 = B.2, which multiplies A with the hundred
+	 * matching records in B, and then the result with the tiny C (fields 4, 5) on A.1 = C.4, which
+	 * keeps only a hundred records. The optimizer should join A with C first.
+	 */
+	@Test
+	public void testReorderSelectiveJoinFirst() {
+		try {
+			final FileDataSource sourceA = createSource("A", 1000000, 1000, 1000000);
+			final FileDataSource sourceB = createSource("B", 100000, 1000, 100000);
+			final FileDataSource sourceC = createSource("C", 100, 100, 100);
+			
+			final JoinOperator joinAB = JoinOperator.builder(new JoinAB(), IntValue.class, 0, 2)
+				.input1(sourceA).input2(sourceB).name("Join AB").build();
+			final JoinOperator joinABC = JoinOperator.builder(new JoinABC(), LongValue.class, 1, 4)
+				.input1(joinAB).input2(sourceC).name("Join ABC").build();
+			
+			final Plan plan = createPlan(joinABC);
+			final OptimizedPlan oPlan = compileWithStats(plan);
+			
+			// the join of the sink's input must join B with the join of A and C
+			final DualInputPlanNode root = getSinkInput(oPlan);
+			final DualInputPlanNode inner;
+			if (root.getInput1().getSource() instanceof DualInputPlanNode) {
+				inner = (DualInputPlanNode) root.getInput1().getSource();
+				assertEquals("B", root.getInput2().getSource().getOriginalOptimizerNode().getPactContract().getName());
+			} else {
+				inner = (DualInputPlanNode) root.getInput2().getSource();
+				assertEquals("B", root.getInput1().getSource().getOriginalOptimizerNode().getPactContract().getName());
+			}
+			assertEquals(names("A", "C"), names(inner.getInput1().getSource(), inner.getInput2().getSource()));
+			
+			// the joins of the program itself are not changed
+			assertTrue(joinABC.getFirstInput() == joinAB);
+			assertTrue(joinAB.getFirstInput() == sourceA);
+			
+			new NepheleJobGraphGenerator().compileJobGraph(oPlan);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Same as above, but the first join is not declared as concatenating, so the order must be kept.
+	 */
+	@Test
+	public void testKeepOrderOfOpaqueJoins() {
+		try {
+			final FileDataSource sourceA = createSource("A", 1000000, 1000, 1000000);
+			final FileDataSource sourceB = createSource("B", 100000, 1000, 100000);
+			final FileDataSource sourceC = createSource("C", 100, 100, 100);
+			
+			final JoinOperator joinAB = JoinOperator.builder(new DummyMatchStub(), IntValue.class, 0, 2)
+				.input1(sourceA).input2(sourceB).name("Join AB").build();
+			final JoinOperator joinABC = JoinOperator.builder(new JoinABC(), LongValue.class, 1, 4)
+				.input1(joinAB).input2(sourceC).name("Join ABC").build();
+			
+			final OptimizedPlan oPlan = compileWithStats(createPlan(joinABC));
+			
+			final DualInputPlanNode root = getSinkInput(oPlan);
+			assertTrue(root.getOriginalOptimizerNode().getPactContract() == joinABC);
+			assertTrue(root.getInput1().getSource().getOriginalOptimizerNode().getPactContract() == joinAB);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Creates a source with two fields, the first with the given number of distinct values, the second
+	 * unique. The source produces the fields at the positions of the source's letter (A: 0, 1; B: 2, 3; ...).
+	 */
+	private FileDataSource createSource(String name, long numRecords, long distinctFirst, long distinctSecond) {
+		final int offset = 2 * (name.charAt(0) - 'A');
+		final FieldStatistics[] fields = new FieldStatistics[offset + 2];
+		fields[offset] = new FieldStatistics(distinctFirst, null);
+		fields[offset + 1] = new FieldStatistics(distinctSecond, null);
+		
+		final FileDataSource source = new FileDataSource(new DummyInputFormat(), IN_FILE, name);
+		setSourceStatistics(source, new SampledFileBaseStatistics(Long.MAX_VALUE, numRecords * 16, 16, name, fields));
+		return source;
+	}
+	
+	private static Plan createPlan(JoinOperator join) {
+		final FileDataSink sink = new FileDataSink(new DummyOutputFormat(), OUT_FILE, "Sink");
+		sink.setInput(join);
+		final Plan plan = new Plan(sink, "Join Reordering Test");
+		plan.setDefaultParallelism(DEFAULT_PARALLELISM);
+		return plan;
+	}
+	
+	private static DualInputPlanNode getSinkInput(OptimizedPlan plan) {
+		final SinkPlanNode sink = plan.getDataSinks().iterator().next();
+		return (DualInputPlanNode) sink.getInput().getSource();
+	}
+	
+	private static Set<String> names(String... names) {
+		final Set<String> set = new HashSet<String>();
+		for (String name : names) {
+			set.add(name);
+		}
+		return set;
+	}
+	
+	private static Set<String> names(PlanNode... nodes) {
+		final Set<String> set = new HashSet<String>();
+		for (PlanNode node : nodes) {
+			set.add(node.getOriginalOptimizerNode().getPactContract().getName());
+		}
+		return set;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@ConcatenatingJoin
+	@ConstantFieldsFirst({0, 1})
+	@ConstantFieldsSecond({2, 3})
+	public static final class JoinAB extends JoinFunction {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void join(Record value1, Record value2, Collector<Record> out) {
+			value1.unionFields(value2);
+			out.collect(value1);
+		}
+	}
+	
+	@ConcatenatingJoin
+	@ConstantFieldsFirst({0, 1, 2, 3})
+	@ConstantFieldsSecond({4, 5})
+	public static final class JoinABC extends JoinFunction {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void join(Record value1, Record value2, Collector<Record> out) {
+			value1.unionFields(value2);
+			out.collect(value1);
+		}
+	}
+}
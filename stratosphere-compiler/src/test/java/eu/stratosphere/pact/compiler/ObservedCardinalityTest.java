@@ -0,0 +1,217 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.compiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.Plan;
+import eu.stratosphere.api.common.io.FileInputFormat.FileBaseStatistics;
+import eu.stratosphere.api.common.io.statistics.BaseStatistics;
+import eu.stratosphere.api.common.operators.FileDataSink;
+import eu.stratosphere.api.common.operators.FileDataSource;
+import eu.stratosphere.api.java.record.functions.JoinFunction;
+import eu.stratosphere.api.java.record.operators.JoinOperator;
+import eu.stratosphere.compiler.DataStatistics;
+import eu.stratosphere.compiler.plan.DualInputPlanNode;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.compiler.plan.SinkPlanNode;
+import eu.stratosphere.compiler.plan.SourcePlanNode;
+import eu.stratosphere.compiler.plantranslate.NepheleJobGraphGenerator;
+import eu.stratosphere.nephele.jobgraph.JobGraph;
+import eu.stratosphere.nephele.jobgraph.JobTaskVertex;
+import eu.stratosphere.pact.compiler.util.DummyInputFormat;
+import eu.stratosphere.pact.compiler.util.DummyMatchStub;
+import eu.stratosphere.pact.compiler.util.DummyOutputFormat;
+import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
+import eu.stratosphere.pact.runtime.task.util.TaskConfig;
+import eu.stratosphere.types.IntValue;
+
+/**
+ * Tests that the cardinalities observed at materialized inputs are reported and used by later compilations.
+ */
+public class ObservedCardinalityTest extends CompilerTestBase {
+	
+	@Test
+	public void testBroadcastSideObservedAsSmall() {
+		try {
+			final FileDataSource sourceA = new FileDataSource(new DummyInputFormat(), IN_FILE, "A");
+			final FileDataSource sourceB = new FileDataSource(new DummyInputFormat(), IN_FILE, "B");
+			setSourceStatistics(sourceA, 10000000000L, 100);
+			setSourceStatistics(sourceB, 10000000000L, 100);
+			
+			final JoinOperator join = JoinOperator.builder(new DummyMatchStub(), IntValue.class, 0, 0)
+				.input1(sourceA).input2(sourceB).name("Join").build();
+			final FileDataSink sink = new FileDataSink(new DummyOutputFormat(), OUT_FILE, join, "Sink");
+			final Plan plan = new Plan(sink, "Observed Cardinality Test");
+			plan.setDefaultParallelism(DEFAULT_PARALLELISM);
+			
+			// two large inputs are repartitioned
+			OptimizedPlan oPlan = compileWithStats(plan);
+			DualInputPlanNode joinNode = getSinkInput(oPlan);
+			assertEquals(ShipStrategyType.PARTITION_HASH, joinNode.getInput1().getShipStrategy());
+			assertEquals(ShipStrategyType.PARTITION_HASH, joinNode.getInput2().getShipStrategy());
+			
+			// the join materializes one of its inputs and reports the cardinality under the producer's fingerprint
+			final JobGraph jobGraph = new NepheleJobGraphGenerator().compileJobGraph(oPlan);
+			final TaskConfig joinConfig = getJoinConfig(jobGraph);
+			final String key1 = joinConfig.getInputObservationKey(0);
+			final String key2 = joinConfig.getInputObservationKey(1);
+			assertTrue(key1 != null || key2 != null);
+			if (key1 != null) {
+				assertEquals(joinNode.getInput1().getSource().getOptimizerNode().getFingerprint(), key1);
+			}
+			if (key2 != null) {
+				assertEquals(joinNode.getInput2().getSource().getOptimizerNode().getFingerprint(), key2);
+			}
+			
+			// simulate that B turned out to be tiny
+			final SourcePlanNode nodeB = getOptimizerPlanNodeResolver(oPlan).getNode("B");
+			final Map<String, Object> accumulators = new HashMap<String, Object>();
+			accumulators.put(TaskConfig.OBSERVED_CARDINALITY_ACCUMULATOR_PREFIX + nodeB.getOptimizerNode().getFingerprint(), 10L);
+			accumulators.put("user-counter", 1);
+			this.dataStats.cacheObservedCardinalities(accumulators);
+			assertEquals(1, accumulators.size());
+			assertTrue(accumulators.containsKey("user-counter"));
+			
+			// the next compilation uses the observation and broadcasts B
+			oPlan = compileWithStats(plan);
+			joinNode = getSinkInput(oPlan);
+			final SourcePlanNode newNodeB = getOptimizerPlanNodeResolver(oPlan).getNode("B");
+			assertEquals(nodeB.getOptimizerNode().getFingerprint(), newNodeB.getOptimizerNode().getFingerprint());
+			assertEquals(10, newNodeB.getOptimizerNode().getEstimatedNumRecords());
+			assertEquals(ShipStrategyType.BROADCAST, joinNode.getInput2().getShipStrategy());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testFingerprintCoversFunctionStateAndInputVersion() {
+		try {
+			final FileDataSource sourceA = new FileDataSource(new DummyInputFormat(), IN_FILE, "A");
+			final FileDataSource sourceB = new FileDataSource(new DummyInputFormat(), IN_FILE, "B");
+			setSourceStatistics(sourceA, 10000000000L, 100);
+			setSourceStatistics(sourceB, 10000000000L, 100);
+			
+			final Plan plan1 = createJoinPlan(sourceA, sourceB, new ParameterizedMatchStub(1));
+			final Plan plan2 = createJoinPlan(sourceA, sourceB, new ParameterizedMatchStub(2));
+			final Plan plan3 = createJoinPlan(sourceA, sourceB, new ParameterizedMatchStub(1));
+			
+			final String join1 = getSinkInput(compileWithStats(plan1)).getOptimizerNode().getFingerprint();
+			final String join2 = getSinkInput(compileWithStats(plan2)).getOptimizerNode().getFingerprint();
+			final String join3 = getSinkInput(compileWithStats(plan3)).getOptimizerNode().getFingerprint();
+			
+			// the state of the function distinguishes the sub-plans
+			assertFalse(join1.equals(join2));
+			assertEquals(join1, join3);
+			
+			// a modified input changes the fingerprints of all nodes reading it
+			final String sourceB1 = getOptimizerPlanNodeResolver(compileWithStats(plan1)).getNode("B")
+				.getOptimizerNode().getFingerprint();
+			this.dataStats.cacheBaseStatistics(new FileBaseStatistics(1000L, 10000000000L, 100), 
+				sourceB.getStatisticsKey());
+			final OptimizedPlan modified = compileWithStats(plan1);
+			assertFalse(sourceB1.equals(getOptimizerPlanNodeResolver(modified).getNode("B")
+				.getOptimizerNode().getFingerprint()));
+			assertFalse(join1.equals(getSinkInput(modified).getOptimizerNode().getFingerprint()));
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testObservationsExpire() {
+		File catalog = null;
+		try {
+			catalog = File.createTempFile("statistics_catalog", "");
+			catalog.delete();
+			
+			final DataStatistics stats = new DataStatistics(catalog, 60000);
+			stats.cacheObservedCardinality("fingerprint", 10L);
+			assertEquals(10L, stats.getObservedCardinality("fingerprint"));
+			
+			// the observation is read back from the catalog
+			assertEquals(10L, new DataStatistics(catalog, 60000).getObservedCardinality("fingerprint"));
+			
+			// entries older than the maximum age are deleted
+			for (File f : catalog.listFiles()) {
+				f.setLastModified(System.currentTimeMillis() - 120000);
+			}
+			final DataStatistics reopened = new DataStatistics(catalog, 60000);
+			assertEquals(0, catalog.listFiles().length);
+			assertEquals(BaseStatistics.NUM_RECORDS_UNKNOWN, reopened.getObservedCardinality("fingerprint"));
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+		finally {
+			if (catalog != null && catalog.exists()) {
+				for (File f : catalog.listFiles()) {
+					f.delete();
+				}
+				catalog.delete();
+			}
+		}
+	}
+	
+	private static Plan createJoinPlan(FileDataSource sourceA, FileDataSource sourceB, JoinFunction function) {
+		final JoinOperator join = JoinOperator.builder(function, IntValue.class, 0, 0)
+			.input1(sourceA).input2(sourceB).name("Join").build();
+		final FileDataSink sink = new FileDataSink(new DummyOutputFormat(), OUT_FILE, join, "Sink");
+		final Plan plan = new Plan(sink, "Fingerprint Test");
+		plan.setDefaultParallelism(DEFAULT_PARALLELISM);
+		return plan;
+	}
+	
+	private static DualInputPlanNode getSinkInput(OptimizedPlan plan) {
+		final SinkPlanNode sink = plan.getDataSinks().iterator().next();
+		return (DualInputPlanNode) sink.getInput().getSource();
+	}
+	
+	private static TaskConfig getJoinConfig(JobGraph jobGraph) {
+		for (Iterator<JobTaskVertex> iter = jobGraph.getTaskVertices(); iter.hasNext();) {
+			final JobTaskVertex vertex = iter.next();
+			if (vertex.getName().startsWith("Join")) {
+				return new TaskConfig(vertex.getConfiguration());
+			}
+		}
+		throw new IllegalStateException("No join vertex found.");
+	}
+	
+	private static final class ParameterizedMatchStub extends DummyMatchStub {
+		private static final long serialVersionUID = 1L;
+		
+		@SuppressWarnings("unused")
+		private final int parameter;
+		
+		ParameterizedMatchStub(int parameter) {
+			this.parameter = parameter;
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.compiler;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.Plan;
+import eu.stratosphere.api.common.io.GenericCsvInputFormat.SampledFileBaseStatistics;
+import eu.stratosphere.api.common.io.statistics.FieldStatistics;
+import eu.stratosphere.api.common.operators.FileDataSink;
+import eu.stratosphere.api.common.operators.FileDataSource;
+import eu.stratosphere.api.java.record.operators.JoinOperator;
+import eu.stratosphere.api.java.record.operators.ReduceOperator;
+import eu.stratosphere.compiler.plan.DualInputPlanNode;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.compiler.plan.SingleInputPlanNode;
+import eu.stratosphere.compiler.plan.SinkPlanNode;
+import eu.stratosphere.compiler.plantranslate.NepheleJobGraphGenerator;
+import eu.stratosphere.nephele.jobgraph.AbstractJobInputVertex;
+import eu.stratosphere.nephele.jobgraph.JobGraph;
+import eu.stratosphere.pact.compiler.util.DummyInputFormat;
+import eu.stratosphere.pact.compiler.util.DummyMatchStub;
+import eu.stratosphere.pact.compiler.util.DummyOutputFormat;
+import eu.stratosphere.pact.compiler.util.IdentityReduce;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
+import eu.stratosphere.pact.runtime.task.util.TaskConfig;
+import eu.stratosphere.types.IntValue;
+
+/**
+ * Tests that the hash partitionings of joins with heavy hitter keys resolve the skew.
+ */
+public class SkewResolutionTest extends CompilerTestBase {
+	
+	private static final int HEAVY_HITTER = 42;
+	
+	@Test
+	public void testHeavyHittersAreSplitAndReplicated() {
+		try {
+			final FileDataSource sourceA = createSource("A", new FieldStatistics(1000, null,
+				new int[] { HEAVY_HITTER, 7 }, new double[] { 0.3, 0.01 }));
+			final FileDataSource sourceB = createSource("B", new FieldStatistics(1000, null));
+			
+			final JoinOperator join = JoinOperator.builder(new DummyMatchStub(), IntValue.class, 0, 0)
+				.input1(sourceA).input2(sourceB).name("Join").build();
+			final FileDataSink sink = new FileDataSink(new DummyOutputFormat(), OUT_FILE, join, "Sink");
+			final Plan plan = new Plan(sink, "Skew Resolution Test");
+			plan.setDefaultParallelism(DEFAULT_PARALLELISM);
+			
+			// the skewed input is split, the other one replicates the matching records
+			final OptimizedPlan oPlan = compileWithStats(plan);
+			final SinkPlanNode sinkNode = oPlan.getDataSinks().iterator().next();
+			final DualInputPlanNode joinNode = (DualInputPlanNode) sinkNode.getInput().getSource();
+			assertEquals(ShipStrategyType.PARTITION_HASH_SKEW_SPLIT, joinNode.getInput1().getShipStrategy());
+			assertEquals(ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE, joinNode.getInput2().getShipStrategy());
+			
+			// only the key that overloads an instance is a heavy hitter
+			assertArrayEquals(new int[] { HEAVY_HITTER }, joinNode.getInput1().getHeavyHitters());
+			assertArrayEquals(new int[] { HEAVY_HITTER }, joinNode.getInput2().getHeavyHitters());
+			
+			// the sources' outputs identify the heavy hitters by the hash code of the runtime comparator
+			final JobGraph jobGraph = new NepheleJobGraphGenerator().compileJobGraph(oPlan);
+			final int[] keyHashes = new int[] { RecordComparator.hashKeyFields(HEAVY_HITTER) };
+			final TaskConfig configA = getSourceConfig(jobGraph, "A");
+			assertEquals(ShipStrategyType.PARTITION_HASH_SKEW_SPLIT, configA.getOutputShipStrategy(0));
+			assertArrayEquals(keyHashes, configA.getOutputHeavyHitters(0));
+			final TaskConfig configB = getSourceConfig(jobGraph, "B");
+			assertEquals(ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE, configB.getOutputShipStrategy(0));
+			assertArrayEquals(keyHashes, configB.getOutputHeavyHitters(0));
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testReusedPartitioningIsKept() {
+		try {
+			final FileDataSource sourceA = createSource("A", new FieldStatistics(1000, null,
+				new int[] { HEAVY_HITTER }, new double[] { 0.3 }));
+			final FileDataSource sourceB = createSource("B", new FieldStatistics(1000, null));
+			
+			final JoinOperator join = JoinOperator.builder(new DummyMatchStub(), IntValue.class, 0, 0)
+				.input1(sourceA).input2(sourceB).name("Join").build();
+			final ReduceOperator reduce = ReduceOperator.builder(new IdentityReduce(), IntValue.class, 0)
+				.input(join).name("Reduce").build();
+			final FileDataSink sink = new FileDataSink(new DummyOutputFormat(), OUT_FILE, reduce, "Sink");
+			final Plan plan = new Plan(sink, "Skew Resolution Test");
+			plan.setDefaultParallelism(DEFAULT_PARALLELISM);
+			
+			// the reducer groups the join result without re-partitioning it, so the join must keep its partitioning
+			final OptimizedPlan oPlan = compileWithStats(plan);
+			final SinkPlanNode sinkNode = oPlan.getDataSinks().iterator().next();
+			final SingleInputPlanNode reduceNode = (SingleInputPlanNode) sinkNode.getInput().getSource();
+			final DualInputPlanNode joinNode = (DualInputPlanNode) reduceNode.getInput().getSource();
+			assertEquals(ShipStrategyType.FORWARD, reduceNode.getInput().getShipStrategy());
+			assertEquals(ShipStrategyType.PARTITION_HASH, joinNode.getInput1().getShipStrategy());
+			assertEquals(ShipStrategyType.PARTITION_HASH, joinNode.getInput2().getShipStrategy());
+			assertNull(joinNode.getInput1().getHeavyHitters());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private FileDataSource createSource(String name, FieldStatistics keyStatistics) {
+		final FileDataSource source = new FileDataSource(new DummyInputFormat(), IN_FILE, name);
+		setSourceStatistics(source, new SampledFileBaseStatistics(Long.MAX_VALUE, 10000000000L, 100, name,
+			new FieldStatistics[] { keyStatistics }));
+		return source;
+	}
+	
+	private static TaskConfig getSourceConfig(JobGraph jobGraph, String name) {
+		for (Iterator<AbstractJobInputVertex> iter = jobGraph.getInputVertices(); iter.hasNext();) {
+			final AbstractJobInputVertex vertex = iter.next();
+			if (vertex.getName().contains(name)) {
+				return new TaskConfig(vertex.getConfiguration());
+			}
+		}
+		throw new IllegalStateException("No source vertex found for " + name + ".");
+	}
+}
@@ -101,6 +101,31 @@ public class AccumulatorHelper {
 		return builder.toString();
 	}
 
+	/**
+	 * Creates copies of the given accumulators. Each copy is a new instance of the accumulator's class into
+	 * which the original is merged, so the accumulators must provide a public nullary constructor that
+	 * creates an empty accumulator.
+	 *
+	 * @param accumulators
+	 *            The accumulators to copy
+	 * @return A new map with copies of the accumulators
+	 */
+	public static Map<String, Accumulator<?, ?>> copy(Map<String, Accumulator<?, ?>> accumulators) {
+		Map<String, Accumulator<?, ?>> copies = new HashMap<String, Accumulator<?, ?>>(accumulators.size());
+		for (Map.Entry<String, Accumulator<?, ?>> entry : accumulators.entrySet()) {
+			Accumulator<?, ?> copy;
+			try {
+				copy = entry.getValue().getClass().newInstance();
+			} catch (Exception e) {
+				throw new RuntimeException("Could not instantiate accumulator '" + entry.getKey() + "' of type "
+						+ entry.getValue().getClass().getName(), e);
+			}
+			mergeSingle(copy, entry.getValue());
+			copies.put(entry.getKey(), copy);
+		}
+		return copies;
+	}
+
 	public static void resetAndClearAccumulators(
 			Map<String, Accumulator<?, ?>> accumulators) {
 		for (Map.Entry<String, Accumulator<?, ?>> entry : accumulators.entrySet()) {
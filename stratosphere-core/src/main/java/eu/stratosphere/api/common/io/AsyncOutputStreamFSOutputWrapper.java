@@ -0,0 +1,241 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import java.io.IOException;
+
+import eu.stratosphere.core.fs.FSDataOutputStream;
+
+/**
+ * A stream that writes to the wrapped stream asynchronously. The written data is collected in one of two buffers.
+ * Once a buffer is full, a background thread writes it to the wrapped stream, while the data written in the
+ * meantime goes to the other buffer. Writing only blocks if both buffers are full, such that slow file systems
+ * do not stall the writing thread, as long as they keep up with it on average.
+ * <p>
+ * Errors of the background thread are reported by the next call to any of the stream's methods.
+ */
+public class AsyncOutputStreamFSOutputWrapper extends FSDataOutputStream {
+	
+	/**
+	 * The default size of each of the two buffers.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private final FSDataOutputStream outStream;
+	
+	private final Writer writer;
+	
+	private byte[] current;			// the buffer collecting the data
+	
+	private byte[] spare;			// the buffer that is free once the writer finished its pending buffer
+	
+	private int count;				// the number of bytes in the current buffer
+	
+	private boolean closed;
+	
+	/**
+	 * Creates a new asynchronously writing stream on top of the given stream and starts its writer thread.
+	 * 
+	 * @param outStream The stream to write to.
+	 * @param bufferSize The size of each of the two buffers.
+	 */
+	public AsyncOutputStreamFSOutputWrapper(FSDataOutputStream outStream, int bufferSize) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException("The buffer size must be at least 1.");
+		}
+		
+		this.outStream = outStream;
+		this.current = new byte[bufferSize];
+		this.spare = new byte[bufferSize];
+		this.writer = new Writer(outStream);
+		this.writer.start();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public void write(int b) throws IOException {
+		if (this.count == this.current.length) {
+			handOff();
+		}
+		this.current[this.count++] = (byte) b;
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (this.count == this.current.length) {
+				handOff();
+			}
+			final int num = Math.min(len, this.current.length - this.count);
+			System.arraycopy(b, off, this.current, this.count, num);
+			this.count += num;
+			off += num;
+			len -= num;
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		if (this.count > 0) {
+			handOff();
+		}
+		this.writer.waitUntilIdle();
+		this.outStream.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		
+		try {
+			if (this.count > 0) {
+				handOff();
+			}
+			this.writer.waitUntilIdle();
+		}
+		finally {
+			// the wrapped stream is not thread-safe, so it is closed only once the writer has left it,
+			// even if the closing thread is interrupted when its task is canceled
+			this.writer.shutdown();
+			this.writer.joinUninterruptibly();
+			this.outStream.close();
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Passes the current buffer to the writer thread and continues with the spare buffer, once the writer
+	 * finished writing the previous one.
+	 */
+	private void handOff() throws IOException {
+		this.writer.waitUntilIdle();
+		this.writer.write(this.current, this.count);
+		
+		final byte[] free = this.spare;
+		this.spare = this.current;
+		this.current = free;
+		this.count = 0;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * The thread writing the handed off buffers to the wrapped stream.
+	 */
+	private static final class Writer extends Thread {
+		
+		private final FSDataOutputStream outStream;
+		
+		private byte[] pending;				// the buffer to be written, null, if idle
+		
+		private int pendingLength;
+		
+		private IOException error;
+		
+		private boolean shutdown;
+		
+		private Writer(FSDataOutputStream outStream) {
+			super("Asynchronous File Writer");
+			setDaemon(true);
+			this.outStream = outStream;
+		}
+		
+		@Override
+		public void run() {
+			while (true) {
+				final byte[] buffer;
+				final int length;
+				synchronized (this) {
+					while (this.pending == null && !this.shutdown) {
+						try {
+							wait();
+						} catch (InterruptedException iex) {
+							// only the shutdown flag ends the thread
+						}
+					}
+					if (this.pending == null) {
+						return;
+					}
+					buffer = this.pending;
+					length = this.pendingLength;
+				}
+				
+				IOException error = null;
+				try {
+					this.outStream.write(buffer, 0, length);
+				}
+				catch (IOException ioex) {
+					error = ioex;
+				}
+				catch (Throwable t) {
+					error = new IOException("Writing the buffer failed: " + t.getMessage(), t);
+				}
+				
+				synchronized (this) {
+					if (error != null && this.error == null) {
+						this.error = error;
+					}
+					this.pending = null;
+					notifyAll();
+				}
+			}
+		}
+		
+		private synchronized void write(byte[] buffer, int length) {
+			this.pending = buffer;
+			this.pendingLength = length;
+			notifyAll();
+		}
+		
+		private synchronized void waitUntilIdle() throws IOException {
+			while (this.pending != null) {
+				try {
+					wait();
+				} catch (InterruptedException iex) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while waiting for the asynchronous write to finish.");
+				}
+			}
+			if (this.error != null) {
+				throw new IOException("Asynchronous write failed: " + this.error.getMessage(), this.error);
+			}
+		}
+		
+		private synchronized void shutdown() {
+			this.shutdown = true;
+			notifyAll();
+		}
+		
+		private void joinUninterruptibly() {
+			boolean interrupted = false;
+			while (isAlive()) {
+				try {
+					join();
+				} catch (InterruptedException iex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
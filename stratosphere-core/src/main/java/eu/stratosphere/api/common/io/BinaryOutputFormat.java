@@ -63,6 +63,15 @@ public abstract class BinaryOutputFormat<T extends IOReadableWritable> extends F
 			throw new UnsupportedOperationException("Currently only block size up to Integer.MAX_VALUE are supported");
 		}
 	}
+	
+	/**
+	 * Binary output cannot be rolled over to new files, because the records are not delimited in the written
+	 * bytes and the blocks refer to positions within one file.
+	 */
+	@Override
+	public void setRollover(long maxBytes, long maxRecords) {
+		throw new UnsupportedOperationException("Binary output formats do not support rolling over to new files.");
+	}
 
 	protected BlockInfo createBlockInfo() {
 		return new BlockInfo();
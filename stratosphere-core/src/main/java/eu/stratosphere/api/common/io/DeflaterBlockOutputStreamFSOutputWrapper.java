@@ -0,0 +1,197 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import eu.stratosphere.core.fs.FSDataOutputStream;
+
+/**
+ * A stream that writes a splittable, block compressed file. The written data is collected into blocks of
+ * (at least) the given size, which are deflated independently and preceded by a sync marker that is random
+ * per file. The format is read by the {@link InflaterBlockInputStreamFSInputWrapper}.
+ * <p>
+ * To allow the blocks to be read independently, blocks are only cut directly after a record delimiter byte.
+ * Records larger than the block size result in correspondingly larger blocks, up to the maximal block size.
+ */
+public class DeflaterBlockOutputStreamFSOutputWrapper extends FSDataOutputStream {
+	
+	/**
+	 * The default (minimal) number of uncompressed bytes in a block.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+	
+	/**
+	 * The maximal number of uncompressed bytes in a block. Data without a record delimiter within that many
+	 * bytes cannot be written.
+	 */
+	public static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private final FSDataOutputStream outStream;
+	
+	private final DataOutputStream out;
+	
+	private final byte[] sync = new byte[InflaterBlockInputStreamFSInputWrapper.SYNC_SIZE];
+	
+	private final Deflater deflater = new Deflater();
+	
+	private final int blockSize;
+	
+	private final byte delimiter;
+	
+	private byte[] buffer;
+	
+	private int count;
+	
+	private byte[] compressed;
+	
+	private boolean closed;
+	
+	/**
+	 * Creates a new block compressing stream on top of the given stream and writes the file header.
+	 * 
+	 * @param outStream The stream to write the compressed file to.
+	 * @param blockSize The minimal number of uncompressed bytes in a block.
+	 * @param delimiter The record delimiter after which blocks may be cut.
+	 * @throws IOException Thrown, if the header could not be written.
+	 */
+	public DeflaterBlockOutputStreamFSOutputWrapper(FSDataOutputStream outStream, int blockSize, byte delimiter)
+			throws IOException
+	{
+		if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE) {
+			throw new IllegalArgumentException("The block size must be at least 1 and at most " + MAX_BLOCK_SIZE + ".");
+		}
+		
+		this.outStream = outStream;
+		this.out = new DataOutputStream(outStream);
+		this.blockSize = blockSize;
+		this.delimiter = delimiter;
+		this.buffer = new byte[blockSize];
+		this.compressed = new byte[blockSize + blockSize / 8 + 64];
+		
+		new Random().nextBytes(this.sync);
+		
+		this.out.writeInt(InflaterBlockInputStreamFSInputWrapper.MAGIC_NUMBER);
+		this.out.writeByte(InflaterBlockInputStreamFSInputWrapper.VERSION);
+		this.out.write(this.sync);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public void write(int b) throws IOException {
+		if (this.count == this.buffer.length) {
+			makeRoom();
+		}
+		this.buffer[this.count++] = (byte) b;
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len > 0) {
+			if (this.count == this.buffer.length) {
+				makeRoom();
+			}
+			final int toCopy = Math.min(len, this.buffer.length - this.count);
+			System.arraycopy(b, off, this.buffer, this.count, toCopy);
+			this.count += toCopy;
+			off += toCopy;
+			len -= toCopy;
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		// blocks are only written at record boundaries, so flushing can only pass on written blocks
+		this.out.flush();
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		
+		try {
+			if (this.count > 0) {
+				writeBlock(this.count);
+			}
+			this.out.flush();
+		}
+		finally {
+			this.deflater.end();
+			this.outStream.close();
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Writes the full records in the full buffer as a block, if it holds at least a block's worth of data,
+	 * and grows the buffer if it is still full.
+	 */
+	private void makeRoom() throws IOException {
+		if (this.count >= this.blockSize) {
+			// cut the block after the last delimiter
+			int end = this.count - 1;
+			while (end >= 0 && this.buffer[end] != this.delimiter) {
+				end--;
+			}
+			if (end >= 0) {
+				writeBlock(end + 1);
+			}
+		}
+		
+		if (this.count == this.buffer.length) {
+			if (this.buffer.length >= MAX_BLOCK_SIZE) {
+				throw new IOException("The data contains no record delimiter within " + MAX_BLOCK_SIZE + 
+					" bytes. Records larger than the maximal block size cannot be written block compressed.");
+			}
+			final byte[] nb = new byte[(int) Math.min((long) this.buffer.length * 2, MAX_BLOCK_SIZE)];
+			System.arraycopy(this.buffer, 0, nb, 0, this.count);
+			this.buffer = nb;
+		}
+	}
+	
+	private void writeBlock(int len) throws IOException {
+		this.deflater.reset();
+		this.deflater.setInput(this.buffer, 0, len);
+		this.deflater.finish();
+		
+		int compressedLen = 0;
+		while (!this.deflater.finished()) {
+			if (compressedLen == this.compressed.length) {
+				final byte[] nc = new byte[this.compressed.length * 2];
+				System.arraycopy(this.compressed, 0, nc, 0, compressedLen);
+				this.compressed = nc;
+			}
+			compressedLen += this.deflater.deflate(this.compressed, compressedLen, this.compressed.length - compressedLen);
+		}
+		
+		this.out.write(this.sync);
+		this.out.writeInt(len);
+		this.out.writeInt(compressedLen);
+		this.out.write(this.compressed, 0, compressedLen);
+		
+		// move the remaining partial record to the front
+		this.count -= len;
+		System.arraycopy(this.buffer, len, this.buffer, 0, this.count);
+	}
+}
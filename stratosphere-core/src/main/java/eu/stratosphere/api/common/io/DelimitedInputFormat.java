@@ -29,6 +29,7 @@ import eu.stratosphere.api.common.operators.FileDataSource;
 import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.configuration.GlobalConfiguration;
+import eu.stratosphere.core.memory.MemoryUtils;
 import eu.stratosphere.core.fs.FileInputSplit;
 import eu.stratosphere.core.fs.FileStatus;
 import eu.stratosphere.core.fs.FileSystem;
@@ -77,6 +78,18 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 	 */
 	private static int MAX_SAMPLE_LEN;
 	
+	@SuppressWarnings("restriction")
+	private static final sun.misc.Unsafe UNSAFE = MemoryUtils.UNSAFE;
+	
+	@SuppressWarnings("restriction")
+	private static final long BYTE_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+	
+	private static final boolean LITTLE_ENDIAN = (MemoryUtils.NATIVE_BYTE_ORDER == java.nio.ByteOrder.LITTLE_ENDIAN);
+	
+	private static final long LOW_SEVEN_BITS = 0x7f7f7f7f7f7f7f7fL;
+	
+	private static final long LOW_BYTES = 0x0101010101010101L;
+	
 	static { loadGloablConfigParams(); }
 	
 	protected static final void loadGloablConfigParams() {
@@ -131,9 +144,10 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 
 	private transient int limit;
 	
-	private transient byte[] currBuffer;		// buffer in which current record byte sequence is found
-	private transient int currOffset;			// offset in above buffer
-	private transient int currLen;				// length of current byte sequence
+	// the current record is also accessed by the statistics sampling of the CSV format
+	transient byte[] currBuffer;		// buffer in which current record byte sequence is found
+	transient int currOffset;			// offset in above buffer
+	transient int currLen;				// length of current byte sequence
 
 	private transient boolean overLimit;
 
@@ -291,6 +305,12 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 			}
 		}
 		
+		// set the read buffer size
+		int readBufferSize = parameters.getInteger(READ_BUFFER_SIZE, -1);
+		if (readBufferSize > 0) {
+			setBufferSize(readBufferSize);
+		}
+		
 		// set the number of samples
 		String samplesString = parameters.getString(NUM_STATISTICS_SAMPLES, null);
 		if (samplesString != null) {
@@ -467,6 +487,14 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 			fillBuffer();
 		}
 	}
+	
+	/**
+	 * Delimited formats can read block compressed files, because their blocks end with complete records.
+	 */
+	@Override
+	protected boolean supportsBlockCompression() {
+		return true;
+	}
 
 	/**
 	 * Checks whether the current split is at its end.
@@ -527,13 +555,23 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 			int startPos = this.readPos;
 			int count = 0;
 
-			while (this.readPos < this.limit && i < this.delimiter.length) {
-				if ((this.readBuffer[this.readPos++]) == this.delimiter[i]) {
-					i++;
+			if (this.delimiter.length == 1) {
+				// single byte delimiters are searched for a word at a time
+				final int delimPos = indexOf(this.readBuffer, this.readPos, this.limit, this.delimiter[0]);
+				if (delimPos >= 0) {
+					this.readPos = delimPos + 1;
+					i = 1;
 				} else {
-					i = 0;
+					this.readPos = this.limit;
+				}
+			} else {
+				while (this.readPos < this.limit && i < this.delimiter.length) {
+					if ((this.readBuffer[this.readPos++]) == this.delimiter[i]) {
+						i++;
+					} else {
+						i = 0;
+					}
 				}
-
 			}
 
 			// check why we dropped out
@@ -581,6 +619,51 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 		}
 	}
 	
+	/**
+	 * Finds the first occurrence of the given byte in the range <code>[from, to)</code> of the given array.
+	 * The search compares eight bytes at a time: every long word is XOR-ed with the byte replicated into
+	 * all eight byte lanes, such that the lanes holding the searched byte become zero, which is detected
+	 * with a carry-free bit trick. Only the bytes before the first full word and after the last full word
+	 * are compared individually.
+	 * 
+	 * @param bytes The array to search.
+	 * @param from The position to start the search at (inclusive).
+	 * @param to The position to end the search at (exclusive).
+	 * @param value The byte to search for.
+	 * @return The position of the first occurrence of the byte, or <code>-1</code>, if the range does not
+	 *         contain the byte.
+	 */
+	@SuppressWarnings("restriction")
+	protected static final int indexOf(byte[] bytes, int from, int to, byte value) {
+		if (from < 0 || to > bytes.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		final long pattern = (value & 0xffL) * LOW_BYTES;
+		final int wordsEnd = to - 7;
+		int pos = from;
+		
+		while (pos < wordsEnd) {
+			final long word = UNSAFE.getLong(bytes, BYTE_ARRAY_BASE_OFFSET + pos) ^ pattern;
+			
+			// the high bit of each lane is set, if and only if the lane is zero
+			final long matches = ~(((word & LOW_SEVEN_BITS) + LOW_SEVEN_BITS) | word | LOW_SEVEN_BITS);
+			if (matches != 0) {
+				return pos + ((LITTLE_ENDIAN ? Long.numberOfTrailingZeros(matches) :
+						Long.numberOfLeadingZeros(matches)) >>> 3);
+			}
+			pos += 8;
+		}
+		
+		while (pos < to) {
+			if (bytes[pos] == value) {
+				return pos;
+			}
+			pos++;
+		}
+		return -1;
+	}
+	
 	private final void setResult(byte[] buffer, int offset, int len) {
 		this.currBuffer = buffer;
 		this.currOffset = offset;
@@ -638,6 +721,11 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 	 */
 	private static final String RECORD_DELIMITER_ENCODING = "delimited-format.delimiter-encoding";
 	
+	/**
+	 * The configuration key to set the size of the read buffer.
+	 */
+	private static final String READ_BUFFER_SIZE = "delimited-format.read-buffer-size";
+	
 	/**
 	 * The configuration key to set the number of samples to take for the statistics.
 	 */
@@ -725,6 +813,21 @@ public abstract class DelimitedInputFormat<OT> extends FileInputFormat<OT> {
 			return ret;
 		}
 		
+		/**
+		 * Sets the size of the buffer into which the input format reads the input stream. Larger buffers
+		 * reduce the number of read calls against the file system and the number of records that span
+		 * across buffer boundaries.
+		 * 
+		 * @param bufferSize The size of the read buffer, in bytes.
+		 * @return The builder itself.
+		 */
+		public T readBufferSize(int bufferSize) {
+			this.config.setInteger(READ_BUFFER_SIZE, bufferSize);
+			@SuppressWarnings("unchecked")
+			T ret = (T) this;
+			return ret;
+		}
+		
 		/**
 		 * Sets the number of line samples to take in order to estimate the base statistics for the
 		 * input format.
@@ -0,0 +1,124 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import java.io.Serializable;
+
+/**
+ * A simple predicate that compares one field of a record against a constant. Field comparison predicates
+ * can be evaluated by input formats while a record is parsed (see
+ * {@link GenericCsvInputFormat#addFieldPredicate(FieldComparisonPredicate)}), such that records that do not
+ * qualify are rejected before their remaining fields are parsed.
+ * <p>
+ * The constant must be comparable to the parsed field values, i.e. an {@link Integer} constant for a field
+ * parsed as {@link Integer}, or an {@link eu.stratosphere.types.IntValue} for a field parsed as
+ * {@link eu.stratosphere.types.IntValue}.
+ */
+public class FieldComparisonPredicate implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The comparison operators supported by the predicate.
+	 */
+	public static enum Comparison {
+		EQUAL, NOT_EQUAL, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL
+	}
+
+	private final int field;
+
+	private final Comparison comparison;
+
+	private final Comparable<?> constant;
+
+	/**
+	 * Creates a new predicate comparing the given field against the given constant.
+	 *
+	 * @param field The position of the field in the produced record.
+	 * @param comparison The comparison operator.
+	 * @param constant The constant to compare against.
+	 */
+	public FieldComparisonPredicate(int field, Comparison comparison, Comparable<?> constant) {
+		if (field < 0) {
+			throw new IllegalArgumentException("The field position must not be negative.");
+		}
+		if (comparison == null || constant == null) {
+			throw new NullPointerException("Comparison and constant must not be null.");
+		}
+		if (!(constant instanceof Serializable)) {
+			throw new IllegalArgumentException("The constant must be serializable.");
+		}
+
+		this.field = field;
+		this.comparison = comparison;
+		this.constant = constant;
+	}
+
+	public int getField() {
+		return this.field;
+	}
+
+	public Comparison getComparison() {
+		return this.comparison;
+	}
+
+	public Comparable<?> getConstant() {
+		return this.constant;
+	}
+
+	/**
+	 * Creates a copy of this predicate that refers to a different field position.
+	 *
+	 * @param newField The position of the field for the new predicate.
+	 * @return A predicate with the same comparison on the new field position.
+	 */
+	public FieldComparisonPredicate withField(int newField) {
+		return new FieldComparisonPredicate(newField, this.comparison, this.constant);
+	}
+
+	/**
+	 * Evaluates the predicate on the given field value.
+	 *
+	 * @param value The value of the field.
+	 * @return True, if the value satisfies the comparison, false otherwise.
+	 */
+	public boolean accept(Object value) {
+		if (value == null) {
+			return false;
+		}
+
+		@SuppressWarnings("unchecked")
+		final int cmp = ((Comparable<Object>) value).compareTo(this.constant);
+
+		switch (this.comparison) {
+		case EQUAL:
+			return cmp == 0;
+		case NOT_EQUAL:
+			return cmp != 0;
+		case LESS:
+			return cmp < 0;
+		case LESS_EQUAL:
+			return cmp <= 0;
+		case GREATER:
+			return cmp > 0;
+		default:
+			return cmp >= 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Field " + this.field + ' ' + this.comparison + ' ' + this.constant;
+	}
+}
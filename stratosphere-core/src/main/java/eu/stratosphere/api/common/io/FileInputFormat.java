@@ -14,6 +14,7 @@
 package eu.stratosphere.api.common.io;
 
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -92,6 +93,12 @@ public abstract class FileInputFormat<OT> implements InputFormat<OT, FileInputSp
 	 */
 	protected static final String DEFLATE_SUFFIX = ".deflate";
 	
+	/**
+	 * Files with that suffix are block compressed, but splittable,
+	 * see {@link InflaterBlockInputStreamFSInputWrapper}.
+	 */
+	protected static final String BLOCK_DEFLATE_SUFFIX = ".bdeflate";
+	
 	/**
 	 * The splitLength is set to -1L for reading the whole split.
 	 */
@@ -140,6 +147,12 @@ public abstract class FileInputFormat<OT> implements InputFormat<OT, FileInputSp
 	 */
 	protected transient long splitLength;
 	
+	/**
+	 * Flag whether the split that this parallel instance must consume starts at the beginning of its file.
+	 * The splits of block compressed files are all read from a start of zero in the decompressed stream.
+	 */
+	protected transient boolean firstSplitOfFile;
+	
 	
 	// --------------------------------------------------------------------------------------------
 	//  The configuration parameters. Configured on the instance and serialized to be shipped.
@@ -596,6 +609,12 @@ public abstract class FileInputFormat<OT> implements InputFormat<OT, FileInputSp
 		
 		this.splitStart = fileSplit.getStart();
 		this.splitLength = fileSplit.getLength();
+		this.firstSplitOfFile = this.splitStart == 0;
+		
+		if (fileSplit.getPath().getName().endsWith(BLOCK_DEFLATE_SUFFIX) && !supportsBlockCompression()) {
+			throw new IOException("The input format " + getClass().getName() + 
+				" does not read delimited records and cannot read the block compressed file " + fileSplit.getPath());
+		}
 
 		if (LOG.isDebugEnabled()) {
 			LOG.debug("Opening input split " + fileSplit.getPath() + " [" + this.splitStart + "," + this.splitLength + "]");
@@ -612,7 +631,13 @@ public abstract class FileInputFormat<OT> implements InputFormat<OT, FileInputSp
 			if(fileSplit.getPath().getName().endsWith(DEFLATE_SUFFIX)) {
 				this.stream = new InflaterInputStreamFSInputWrapper(stream);
 			}
-			
+			// Block compressed files return the decompressed blocks of the split. As blocks start and end with
+			// complete records, the decompressed stream is read as a whole.
+			else if (fileSplit.getPath().getName().endsWith(BLOCK_DEFLATE_SUFFIX)) {
+				this.stream = new InflaterBlockInputStreamFSInputWrapper(this.stream, this.splitStart, this.splitLength);
+				this.splitStart = 0;
+				this.splitLength = READ_WHOLE_SPLIT_FLAG;
+			}
 		}
 		catch (Throwable t) {
 			throw new IOException("Error opening the Input Split " + fileSplit.getPath() + 
@@ -625,6 +650,17 @@ public abstract class FileInputFormat<OT> implements InputFormat<OT, FileInputSp
 		}
 	}
 	
+	/**
+	 * Checks whether this format can read block compressed files. Their blocks end with complete records, but
+	 * the split-wise decompressed stream carries no information about the positions of the blocks. Only formats
+	 * that find their records by a delimiter can read it, which is why the default is false.
+	 * 
+	 * @return True, if the format can read block compressed files, false otherwise.
+	 */
+	protected boolean supportsBlockCompression() {
+		return false;
+	}
+	
 	/**
 	 * Closes the file input stream of the input format.
 	 */
@@ -651,8 +687,10 @@ public abstract class FileInputFormat<OT> implements InputFormat<OT, FileInputSp
 	 * and the average bytes of a single record. The statistics also have a time-stamp that records the modification
 	 * time of the file and indicates as such for which time the statistics were valid.
 	 */
-	public static class FileBaseStatistics implements BaseStatistics {
+	public static class FileBaseStatistics implements BaseStatistics, Serializable {
 		
+		private static final long serialVersionUID = 1L;
+
 		protected final long fileModTime; // timestamp of the last modification
 
 		protected final long fileSize; // size of the file(s) in bytes
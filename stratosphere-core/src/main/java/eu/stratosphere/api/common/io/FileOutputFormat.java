@@ -85,6 +85,29 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 	 */
 	public static final String FILE_PARAMETER_KEY = "stratosphere.output.file";
 	
+	/**
+	 * The key under which the (uncompressed) size of the blocks of block compressed files is stored in
+	 * the configuration.
+	 */
+	public static final String COMPRESSION_BLOCK_SIZE_PARAMETER_KEY = "stratosphere.output.compression.block_size";
+	
+	/**
+	 * The key under which the size of the buffers for asynchronous writing is stored in the configuration.
+	 */
+	public static final String ASYNC_BUFFER_SIZE_PARAMETER_KEY = "stratosphere.output.async.buffer_size";
+	
+	/**
+	 * The key under which the number of bytes after which the output of a task rolls over to a new file
+	 * is stored in the configuration.
+	 */
+	public static final String ROLLOVER_BYTES_PARAMETER_KEY = "stratosphere.output.rollover.bytes";
+	
+	/**
+	 * The key under which the number of records after which the output of a task rolls over to a new file
+	 * is stored in the configuration.
+	 */
+	public static final String ROLLOVER_RECORDS_PARAMETER_KEY = "stratosphere.output.rollover.records";
+	
 	/**
 	 * The path of the file to be written.
 	 */
@@ -105,12 +128,37 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 	 */
 	private long openTimeout = -1;
 	
+	/**
+	 * The uncompressed size of the blocks, if the output is block compressed.
+	 */
+	private int compressionBlockSize = DeflaterBlockOutputStreamFSOutputWrapper.DEFAULT_BLOCK_SIZE;
+	
+	/**
+	 * The size of each of the two buffers for asynchronous writing, zero, if written synchronously.
+	 */
+	private int asyncBufferSize;
+	
+	/**
+	 * The number of bytes after which the output rolls over to a new file, zero for no limit.
+	 */
+	private long maxBytesPerFile;
+	
+	/**
+	 * The number of records after which the output rolls over to a new file, zero for no limit.
+	 */
+	private long maxRecordsPerFile;
+	
 	// --------------------------------------------------------------------------------------------
 	
 	/**
 	 * The stream to which the data is written;
 	 */
 	protected transient FSDataOutputStream stream;
+	
+	/**
+	 * The record delimiter after which blocks are cut, if the output is block compressed.
+	 */
+	private transient byte blockDelimiter;
 
 	// --------------------------------------------------------------------------------------------
 	
@@ -172,6 +220,84 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 		return this.openTimeout;
 	}
 	
+	
+	public void setCompressionBlockSize(int blockSize) {
+		if (blockSize < 1 || blockSize > DeflaterBlockOutputStreamFSOutputWrapper.MAX_BLOCK_SIZE) {
+			throw new IllegalArgumentException("The compression block size must be at least 1 and at most " + 
+				DeflaterBlockOutputStreamFSOutputWrapper.MAX_BLOCK_SIZE + ".");
+		}
+		
+		this.compressionBlockSize = blockSize;
+	}
+	
+	public int getCompressionBlockSize() {
+		return this.compressionBlockSize;
+	}
+	
+	
+	/**
+	 * Sets the size of the two buffers with which the output is written asynchronously. While one buffer is
+	 * written by a background thread, the task fills the other one. A size of zero writes synchronously.
+	 * 
+	 * @param bufferSize The size of each buffer, or zero for synchronous writing.
+	 */
+	public void setAsyncBufferSize(int bufferSize) {
+		if (bufferSize < 0) {
+			throw new IllegalArgumentException("The buffer size must be nonnegative (zero for synchronous writing).");
+		}
+		
+		this.asyncBufferSize = bufferSize;
+	}
+	
+	public int getAsyncBufferSize() {
+		return this.asyncBufferSize;
+	}
+	
+	
+	/**
+	 * Sets the limits after which the output of a task rolls over to a new file. Each task then writes into
+	 * a directory, where its files are named after the task index and the file number. Files are only cut
+	 * directly after a record delimiter, so rollover applies only to formats that write delimited records
+	 * (see {@link #getRecordDelimiter()}).
+	 * 
+	 * @param maxBytes The number of bytes after which a new file is started, zero for no limit.
+	 * @param maxRecords The number of records after which a new file is started, zero for no limit.
+	 */
+	public void setRollover(long maxBytes, long maxRecords) {
+		if (maxBytes < 0 || maxRecords < 0) {
+			throw new IllegalArgumentException("The rollover limits must be nonnegative (zero for no limit).");
+		}
+		
+		this.maxBytesPerFile = maxBytes;
+		this.maxRecordsPerFile = maxRecords;
+	}
+	
+	public long getMaxBytesPerFile() {
+		return this.maxBytesPerFile;
+	}
+	
+	public long getMaxRecordsPerFile() {
+		return this.maxRecordsPerFile;
+	}
+	
+	public boolean isRollingOutput() {
+		return this.maxBytesPerFile > 0 || this.maxRecordsPerFile > 0;
+	}
+	
+	/**
+	 * Gets the bytes that terminate every record written by this format. Rolled over files and the blocks of
+	 * block compressed files are cut only directly after this delimiter. Formats that do not write delimited
+	 * records, such as binary formats, return null, which is the default, and cannot roll over their output.
+	 * Block compressed output additionally requires a delimiter of a single byte.
+	 * <p>
+	 * The method is called when the format is opened, after it has been configured.
+	 * 
+	 * @return The record delimiter, or null, if records are not delimited.
+	 */
+	protected byte[] getRecordDelimiter() {
+		return null;
+	}
+	
 	// ----------------------------------------------------------------
 
 	@Override
@@ -205,6 +331,22 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 		if (this.openTimeout == -1) {
 			this.openTimeout = FileInputFormat.getDefaultOpeningTimeout();
 		}
+		
+		final int blockSize = parameters.getInteger(COMPRESSION_BLOCK_SIZE_PARAMETER_KEY, -1);
+		if (blockSize != -1) {
+			setCompressionBlockSize(blockSize);
+		}
+		
+		final int asyncBufferSize = parameters.getInteger(ASYNC_BUFFER_SIZE_PARAMETER_KEY, -1);
+		if (asyncBufferSize != -1) {
+			setAsyncBufferSize(asyncBufferSize);
+		}
+		
+		final long maxBytes = parameters.getLong(ROLLOVER_BYTES_PARAMETER_KEY, -1);
+		final long maxRecords = parameters.getLong(ROLLOVER_RECORDS_PARAMETER_KEY, -1);
+		if (maxBytes != -1 || maxRecords != -1) {
+			setRollover(maxBytes == -1 ? this.maxBytesPerFile : maxBytes, maxRecords == -1 ? this.maxRecordsPerFile : maxRecords);
+		}
 	}
 
 	
@@ -216,17 +358,70 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 					", OutputDirectoryMode=" + outputDirectoryMode + ", timeout=" + openTimeout);
 		}
 		
+		if (this.outputFilePath.getName().endsWith(FileInputFormat.BLOCK_DEFLATE_SUFFIX)) {
+			final byte[] delimiter = getRecordDelimiter();
+			if (delimiter == null || delimiter.length != 1) {
+				throw new IllegalArgumentException("The output format " + getClass().getName() + 
+					" does not write records delimited by a single byte and cannot write block compressed files.");
+			}
+			this.blockDelimiter = delimiter[0];
+		}
+		
 		// obtain FSDataOutputStream asynchronously, since HDFS client is vulnerable to InterruptedExceptions
 		OutputPathOpenThread opot = new OutputPathOpenThread(this, (taskNumber + 1), numTasks);
 		opot.start();
 		
+		final FSDataOutputStream firstFile;
 		try {
 			// get FSDataOutputStream
-			this.stream = opot.waitForCompletion();
+			firstFile = opot.waitForCompletion();
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Stream to output file could not be opened: " + e.getMessage(), e);
 		}
+		
+		if (isRollingOutput()) {
+			final byte[] delimiter = getRecordDelimiter();
+			if (delimiter == null || delimiter.length == 0) {
+				firstFile.close();
+				throw new IllegalArgumentException("The output format " + getClass().getName() + 
+					" does not write delimited records and cannot roll over its output.");
+			}
+			
+			// the first file is the one opened above, all further files are created next to it
+			final int taskIndex = taskNumber + 1;
+			this.stream = new RollingOutputStreamFSOutputWrapper(this.maxBytesPerFile, this.maxRecordsPerFile, delimiter) {
+				@Override
+				protected FSDataOutputStream openPart(int partNumber) throws IOException {
+					return wrapFileStream(partNumber == 0 ? firstFile : createRolledFile(taskIndex, partNumber));
+				}
+			};
+		} else {
+			this.stream = wrapFileStream(firstFile);
+		}
+		
+		if (this.asyncBufferSize > 0) {
+			this.stream = new AsyncOutputStreamFSOutputWrapper(this.stream, this.asyncBufferSize);
+		}
+	}
+	
+	private FSDataOutputStream wrapFileStream(FSDataOutputStream fileStream) throws IOException {
+		// write block compressed, splittable files for outputs with the corresponding suffix.
+		// blocks are cut at record boundaries, so this applies to delimited formats.
+		if (this.outputFilePath.getName().endsWith(FileInputFormat.BLOCK_DEFLATE_SUFFIX)) {
+			return new DeflaterBlockOutputStreamFSOutputWrapper(fileStream, this.compressionBlockSize, this.blockDelimiter);
+		} else {
+			return fileStream;
+		}
+	}
+	
+	private FSDataOutputStream createRolledFile(int taskIndex, int partNumber) throws IOException {
+		String name = taskIndex + "-" + partNumber;
+		if (this.outputFilePath.getName().endsWith(FileInputFormat.BLOCK_DEFLATE_SUFFIX)) {
+			name += FileInputFormat.BLOCK_DEFLATE_SUFFIX;
+		}
+		final Path p = new Path(this.outputFilePath, name);
+		return p.getFileSystem().create(p, this.writeMode == WriteMode.OVERWRITE);
 	}
 
 
@@ -265,7 +460,8 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 		public OutputPathOpenThread(FileOutputFormat<?> fof, int taskIndex, int numTasks) {
 			this.path = fof.getOutputFilePath();
 			this.writeMode = fof.getWriteMode();
-			this.outDirMode = fof.getOutputDirectoryMode();
+			// rolled over files are always written into a directory
+			this.outDirMode = fof.isRollingOutput() ? OutputDirectoryMode.ALWAYS : fof.getOutputDirectoryMode();
 			this.timeoutMillies = fof.getOpenTimeout();
 			this.taskIndex = taskIndex;
 			this.numTasks = numTasks;
@@ -306,6 +502,11 @@ public abstract class FileOutputFormat<IT> implements OutputFormat<IT> {
 					// Suffix the path with the parallel instance index
 					p = p.suffix("/" + this.taskIndex);
 					
+					// files in block compressed directories keep the suffix, so that they are read as such
+					if (this.path.getName().endsWith(FileInputFormat.BLOCK_DEFLATE_SUFFIX)) {
+						p = p.suffix(FileInputFormat.BLOCK_DEFLATE_SUFFIX);
+					}
+					
 				} else {
 					// invalid number of subtasks (<= 0)
 					throw new IllegalArgumentException("Invalid number of subtasks. Canceling task.");
@@ -15,11 +15,27 @@ package eu.stratosphere.api.common.io;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Ints;
 
+import eu.stratosphere.api.common.io.statistics.BaseStatistics;
+import eu.stratosphere.api.common.io.statistics.EquiDepthHistogram;
+import eu.stratosphere.api.common.io.statistics.FieldBaseStatistics;
+import eu.stratosphere.api.common.io.statistics.FieldStatistics;
+import eu.stratosphere.api.common.io.statistics.HyperLogLog;
 import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.FileStatus;
+import eu.stratosphere.core.fs.FileSystem;
 import eu.stratosphere.core.fs.Path;
 import eu.stratosphere.types.parser.FieldParser;
 import eu.stratosphere.util.InstantiationUtil;
@@ -29,12 +45,52 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 	
 	private static final long serialVersionUID = 1L;
 	
+	/**
+	 * The log.
+	 */
+	private static final Log LOG = LogFactory.getLog(GenericCsvInputFormat.class);
+	
 	private static final Class<?>[] EMPTY_TYPES = new Class[0];
 	
 	private static final boolean[] EMPTY_INCLUDED = new boolean[0];
 	
 	private static final char DEFAULT_FIELD_DELIMITER = ',';
 	
+	/**
+	 * The number of positions in the input at which records are sampled for the field statistics.
+	 */
+	private static final int NUM_FIELD_SAMPLE_POSITIONS = 32;
+	
+	/**
+	 * The number of consecutive records sampled at each position.
+	 */
+	private static final int NUM_FIELD_SAMPLES_PER_POSITION = 64;
+	
+	/**
+	 * The number of buckets of the histograms of numeric fields.
+	 */
+	private static final int NUM_HISTOGRAM_BUCKETS = 32;
+	
+	/**
+	 * The fraction of distinct values in the sample above which a field is considered to be (nearly) unique.
+	 */
+	private static final double UNIQUE_FIELD_FRACTION = 0.95;
+	
+	/**
+	 * The minimal fraction of the sampled records that must hold a value for the value to be a heavy hitter.
+	 */
+	private static final double HEAVY_HITTER_FRACTION = 0.01;
+	
+	/**
+	 * The minimal number of sampled records that must hold a value for the value to be a heavy hitter.
+	 */
+	private static final int MIN_HEAVY_HITTER_SAMPLES = 8;
+	
+	/**
+	 * The maximal number of heavy hitters recorded per field.
+	 */
+	private static final int MAX_HEAVY_HITTERS = 32;
+	
 	
 	// --------------------------------------------------------------------------------------------
 	//  Variables for internal operation.
@@ -43,6 +99,8 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 
 	private transient FieldParser<Object>[] fieldParsers;
 	
+	private transient FieldComparisonPredicate[][] predicatesPerField;
+	
 	
 	// --------------------------------------------------------------------------------------------
 	//  The configuration parameters. Configured on the instance and serialized to be shipped.
@@ -58,6 +116,10 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 	
 	private boolean skipFirstLineAsHeader;
 	
+	private ArrayList<FieldComparisonPredicate> fieldPredicates;
+	
+	private boolean sampleFieldStatistics;
+	
 	
 	// --------------------------------------------------------------------------------------------
 	//  Constructors and getters/setters for the configurable parameters
@@ -109,6 +171,51 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 		this.skipFirstLineAsHeader = skipFirstLine;
 	}
 	
+	/**
+	 * Adds a predicate that is evaluated directly after the field it refers to has been parsed. Lines for which
+	 * the predicate does not hold are skipped without parsing their remaining fields. The field position of the
+	 * predicate refers to the position among the parsed (non-skipped) fields.
+	 * 
+	 * @param predicate The predicate to add.
+	 */
+	public void addFieldPredicate(FieldComparisonPredicate predicate) {
+		if (predicate == null) {
+			throw new NullPointerException("Predicate must not be null.");
+		}
+		if (predicate.getField() >= this.fieldTypes.length) {
+			throw new IllegalArgumentException("The predicate refers to field " + predicate.getField() + 
+				", but only " + this.fieldTypes.length + " fields are parsed.");
+		}
+		
+		if (this.fieldPredicates == null) {
+			this.fieldPredicates = new ArrayList<FieldComparisonPredicate>();
+		}
+		this.fieldPredicates.add(predicate);
+	}
+	
+	public List<FieldComparisonPredicate> getFieldPredicates() {
+		if (this.fieldPredicates == null) {
+			return Collections.emptyList();
+		} else {
+			return Collections.unmodifiableList(this.fieldPredicates);
+		}
+	}
+
+	public boolean isSamplingFieldStatistics() {
+		return this.sampleFieldStatistics;
+	}
+	
+	/**
+	 * Sets whether {@link #getStatistics(BaseStatistics)} samples the records to estimate the number of distinct
+	 * values and the value distribution of each field. Disabled by default, because sampling opens each file
+	 * at many positions whenever the program is compiled, which is expensive on remote file systems.
+	 * 
+	 * @param sampleFieldStatistics True, to sample field statistics, false otherwise.
+	 */
+	public void setSampleFieldStatistics(boolean sampleFieldStatistics) {
+		this.sampleFieldStatistics = sampleFieldStatistics;
+	}
+	
 	// --------------------------------------------------------------------------------------------
 	
 	protected FieldParser<?>[] getFieldParsers() {
@@ -255,8 +362,28 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 		}
 		this.fieldParsers = parsers;
 		
+		// index the field predicates by the field they refer to
+		if (this.fieldPredicates != null && this.fieldPredicates.size() > 0) {
+			FieldComparisonPredicate[][] preds = new FieldComparisonPredicate[fieldTypes.length][];
+			for (FieldComparisonPredicate p : this.fieldPredicates) {
+				FieldComparisonPredicate[] forField = preds[p.getField()];
+				if (forField == null) {
+					forField = new FieldComparisonPredicate[] { p };
+				} else {
+					FieldComparisonPredicate[] tmp = new FieldComparisonPredicate[forField.length + 1];
+					System.arraycopy(forField, 0, tmp, 0, forField.length);
+					tmp[forField.length] = p;
+					forField = tmp;
+				}
+				preds[p.getField()] = forField;
+			}
+			this.predicatesPerField = preds;
+		} else {
+			this.predicatesPerField = null;
+		}
+		
 		// skip the first line, if we are at the beginning of a file and have the option set
-		if (this.skipFirstLineAsHeader && this.splitStart == 0) {
+		if (this.skipFirstLineAsHeader && this.firstSplitOfFile) {
 			readLine(); // read and ignore
 		}
 	}
@@ -264,6 +391,7 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 	protected boolean parseRecord(Object[] holders, byte[] bytes, int offset, int numBytes) throws ParseException {
 		
 		boolean[] fieldIncluded = this.fieldIncluded;
+		FieldComparisonPredicate[][] predicates = this.predicatesPerField;
 		
 		int startPos = offset;
 		final int limit = offset + numBytes;
@@ -296,6 +424,15 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 						throw new ParseException("Line could not be parsed: " + lineAsString);
 					}
 				}
+				
+				// evaluate the pushed-down predicates, rejecting the line before the remaining fields are parsed
+				if (predicates != null && predicates[output] != null) {
+					for (FieldComparisonPredicate p : predicates[output]) {
+						if (!p.accept(holders[output])) {
+							return false;
+						}
+					}
+				}
 				output++;
 			}
 			else {
@@ -360,4 +497,241 @@ public abstract class GenericCsvInputFormat<OT> extends DelimitedInputFormat<OT>
 			return (i == limit ? limit : i+1);
 		}
 	}
+	
+	// --------------------------------------------------------------------------------------------
+	//  Statistics
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Obtains the basic file statistics and, if enabled, samples records at evenly spaced positions of the input
+	 * to estimate the number of distinct values of each field (via {@link HyperLogLog} sketches) and the value
+	 * distribution of each numeric field (via {@link EquiDepthHistogram}s). The pushed-down field predicates are not
+	 * applied while sampling, so the statistics describe the unfiltered input.
+	 */
+	@Override
+	public FileBaseStatistics getStatistics(BaseStatistics cachedStats) throws IOException {
+		// field statistics are only valid for the same fields
+		final String fieldLayout = getFieldLayout();
+		if (cachedStats instanceof SampledFileBaseStatistics &&
+				!fieldLayout.equals(((SampledFileBaseStatistics) cachedStats).getFieldLayout()))
+		{
+			cachedStats = null;
+		}
+		
+		final FileBaseStatistics stats = super.getStatistics(cachedStats);
+		
+		// up-to-date statistics from the cache already contain the field statistics
+		if (stats == null || stats instanceof SampledFileBaseStatistics || !this.sampleFieldStatistics ||
+				this.fieldTypes.length == 0 || stats.getNumberOfRecords() == BaseStatistics.NUM_RECORDS_UNKNOWN)
+		{
+			return stats;
+		}
+		
+		final long oldTimeout = this.openTimeout;
+		try {
+			this.openTimeout = 10000;
+			return sampleFieldStatistics(stats, fieldLayout);
+		}
+		catch (Throwable t) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Could not sample the field statistics for file '" + this.filePath + "': " + t.getMessage());
+			}
+			return stats;
+		}
+		finally {
+			this.openTimeout = oldTimeout;
+		}
+	}
+	
+	/**
+	 * Describes which fields are parsed with which types, to match statistics to the format's configuration.
+	 */
+	private String getFieldLayout() {
+		final StringBuilder bld = new StringBuilder();
+		bld.append(this.fieldDelim).append(Arrays.toString(this.fieldIncluded));
+		for (Class<?> type : this.fieldTypes) {
+			bld.append(',').append(type == null ? null : type.getName());
+		}
+		return bld.toString();
+	}
+	
+	private FileBaseStatistics sampleFieldStatistics(FileBaseStatistics stats, String fieldLayout) throws IOException {
+		final FileSystem fs = FileSystem.get(this.filePath.toUri());
+		final ArrayList<FileStatus> files = new ArrayList<FileStatus>(1);
+		getFileStats(null, this.filePath, fs, files);
+		
+		final int numFields = this.fieldTypes.length;
+		final int numPositions = this.unsplittable ? 1 : NUM_FIELD_SAMPLE_POSITIONS;
+		final int maxSamples = numPositions * NUM_FIELD_SAMPLES_PER_POSITION;
+		
+		final HyperLogLog[] sketches = new HyperLogLog[numFields];
+		final double[][] values = new double[numFields][maxSamples];
+		final int[] numNumeric = new int[numFields];
+		final List<Map<Integer, int[]>> valueCounts = new ArrayList<Map<Integer, int[]>>(numFields);
+		for (int i = 0; i < numFields; i++) {
+			sketches[i] = new HyperLogLog();
+			valueCounts.add(new HashMap<Integer, int[]>());
+		}
+		
+		final Object[] holders = new Object[numFields];
+		final long stepSize = stats.getTotalInputSize() / numPositions;
+		long offset = 0;
+		int fileNum = 0;
+		int numSampled = 0;
+		
+		for (int position = 0; position < numPositions && fileNum < files.size(); position++) {
+			FileStatus file = files.get(fileNum);
+			open(new FileInputSplit(0, file.getPath(), offset, file.getLen() - offset, null));
+			try {
+				// sample the unfiltered records
+				this.predicatesPerField = null;
+				if (holders[0] == null) {
+					for (int i = 0; i < numFields; i++) {
+						holders[i] = this.fieldParsers[i].createValue();
+					}
+				}
+				
+				for (int record = 0; record < NUM_FIELD_SAMPLES_PER_POSITION && readLine(); record++) {
+					if (parseRecord(holders, this.currBuffer, this.currOffset, this.currLen)) {
+						for (int i = 0; i < numFields; i++) {
+							sketches[i].offer(holders[i]);
+							countValue(valueCounts.get(i), holders[i].hashCode());
+							final double value = FieldStatistics.toDouble(holders[i]);
+							if (!Double.isNaN(value)) {
+								values[i][numNumeric[i]++] = value;
+							}
+						}
+						numSampled++;
+					}
+				}
+			}
+			catch (ParseException pex) {
+				// skip the malformed record and continue at the next position
+			}
+			finally {
+				close();
+			}
+			
+			offset += stepSize;
+			
+			// skip to the next file, if necessary
+			while (fileNum < files.size() && offset >= (file = files.get(fileNum)).getLen()) {
+				offset -= file.getLen();
+				fileNum++;
+			}
+		}
+		
+		if (numSampled == 0) {
+			return stats;
+		}
+		
+		final long numRecords = stats.getNumberOfRecords();
+		final FieldStatistics[] fieldStats = new FieldStatistics[numFields];
+		for (int i = 0; i < numFields; i++) {
+			long distinct = sketches[i].cardinality();
+			
+			// a sample of a (nearly) unique field shows (nearly) only distinct values, so we extrapolate.
+			// the distinct values of other fields are assumed to be mostly contained in the sample.
+			if (numSampled < numRecords && distinct >= UNIQUE_FIELD_FRACTION * numSampled) {
+				distinct = (long) ((double) distinct * numRecords / numSampled);
+			}
+			distinct = Math.max(1, Math.min(distinct, numRecords));
+			
+			final EquiDepthHistogram histogram = numNumeric[i] == numSampled ?
+				new EquiDepthHistogram(Arrays.copyOf(values[i], numSampled), NUM_HISTOGRAM_BUCKETS) : null;
+			
+			fieldStats[i] = createFieldStatistics(distinct, histogram, valueCounts.get(i), numSampled);
+		}
+		
+		return new SampledFileBaseStatistics(stats.getLastModificationTime(), stats.getTotalInputSize(),
+			stats.getAverageRecordWidth(), fieldLayout, fieldStats);
+	}
+	
+	private static void countValue(Map<Integer, int[]> counts, int hashCode) {
+		final Integer key = Integer.valueOf(hashCode);
+		final int[] count = counts.get(key);
+		if (count == null) {
+			counts.put(key, new int[] { 1 });
+		} else {
+			count[0]++;
+		}
+	}
+	
+	/**
+	 * Creates the statistics of a field, picking the most frequent values of the sample as its heavy hitters.
+	 */
+	private static FieldStatistics createFieldStatistics(long distinct, EquiDepthHistogram histogram,
+			Map<Integer, int[]> valueCounts, int numSampled)
+	{
+		final int minCount = Math.max(MIN_HEAVY_HITTER_SAMPLES, (int) Math.ceil(HEAVY_HITTER_FRACTION * numSampled));
+		
+		final List<Map.Entry<Integer, int[]>> heavyHitters = new ArrayList<Map.Entry<Integer, int[]>>();
+		for (Map.Entry<Integer, int[]> entry : valueCounts.entrySet()) {
+			if (entry.getValue()[0] >= minCount) {
+				heavyHitters.add(entry);
+			}
+		}
+		if (heavyHitters.isEmpty()) {
+			return new FieldStatistics(distinct, histogram);
+		}
+		
+		// keep the most frequent ones
+		Collections.sort(heavyHitters, new Comparator<Map.Entry<Integer, int[]>>() {
+			@Override
+			public int compare(Map.Entry<Integer, int[]> o1, Map.Entry<Integer, int[]> o2) {
+				return o2.getValue()[0] - o1.getValue()[0];
+			}
+		});
+		final int num = Math.min(heavyHitters.size(), MAX_HEAVY_HITTERS);
+		final int[] hashes = new int[num];
+		final double[] frequencies = new double[num];
+		for (int i = 0; i < num; i++) {
+			hashes[i] = heavyHitters.get(i).getKey();
+			frequencies[i] = ((double) heavyHitters.get(i).getValue()[0]) / numSampled;
+		}
+		return new FieldStatistics(distinct, histogram, hashes, frequencies);
+	}
+	
+	/**
+	 * File statistics that additionally describe the values of the individual fields, obtained by sampling.
+	 */
+	public static class SampledFileBaseStatistics extends FileBaseStatistics implements FieldBaseStatistics {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final String fieldLayout;
+		
+		private final FieldStatistics[] fieldStatistics;
+		
+		/**
+		 * Creates a new statistics object.
+		 * 
+		 * @param fileModTime The timestamp of the latest modification of any of the involved files.
+		 * @param fileSize The size of the file, in bytes. <code>-1</code>, if unknown.
+		 * @param avgBytesPerRecord The average number of byte in a record, or <code>-1.0f</code>, if unknown.
+		 * @param fieldLayout The description of the parsed fields the statistics refer to.
+		 * @param fieldStatistics The statistics of the produced fields, by position.
+		 */
+		public SampledFileBaseStatistics(long fileModTime, long fileSize, float avgBytesPerRecord,
+				String fieldLayout, FieldStatistics[] fieldStatistics)
+		{
+			super(fileModTime, fileSize, avgBytesPerRecord);
+			this.fieldLayout = fieldLayout;
+			this.fieldStatistics = fieldStatistics;
+		}
+		
+		public String getFieldLayout() {
+			return this.fieldLayout;
+		}
+		
+		@Override
+		public FieldStatistics getFieldStatistics(int field) {
+			return field >= 0 && field < this.fieldStatistics.length ? this.fieldStatistics[field] : null;
+		}
+		
+		@Override
+		public String toString() {
+			return super.toString() + ", fields=" + Arrays.toString(this.fieldStatistics);
+		}
+	}
 }
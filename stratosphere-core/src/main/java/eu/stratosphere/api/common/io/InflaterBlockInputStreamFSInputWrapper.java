@@ -0,0 +1,270 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import eu.stratosphere.core.fs.FSDataInputStream;
+
+/**
+ * A stream that reads the decompressed contents of a block compressed file, as written by the
+ * {@link DeflaterBlockOutputStreamFSOutputWrapper}. In contrast to the {@link InflaterInputStreamFSInputWrapper},
+ * files in this format can be split: The file starts with a header that holds a random sync marker, and every
+ * independently deflated block is preceded by that sync marker. A reader for a byte range of the file
+ * searches the first sync marker at or after the range start and returns the decompressed contents of all blocks
+ * whose sync marker starts within the range.
+ * <p>
+ * Because blocks are only cut at record boundaries, the returned contents always start and end with
+ * complete records. Each block is thus read by exactly one of the splits that cover the file.
+ * <p>
+ * The file layout is the following:
+ * <pre>
+ *   header: MAGIC (int) | VERSION (byte) | SYNC (16 bytes)
+ *   block:  SYNC (16 bytes) | uncompressed length (int) | compressed length (int) | deflated bytes
+ * </pre>
+ */
+public class InflaterBlockInputStreamFSInputWrapper extends FSDataInputStream {
+	
+	/**
+	 * The magic number at the beginning of block compressed files.
+	 */
+	static final int MAGIC_NUMBER = 0x53424446;
+	
+	static final byte VERSION = 1;
+	
+	static final int SYNC_SIZE = 16;
+	
+	static final int HEADER_SIZE = 4 + 1 + SYNC_SIZE;
+	
+	private static final int READ_BUFFER_SIZE = 64 * 1024;
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private final FSDataInputStream inStream;
+	
+	private final DataInputStream in;
+	
+	private final byte[] sync = new byte[SYNC_SIZE];
+	
+	private final Inflater inflater = new Inflater();
+	
+	private final long rangeEnd;
+	
+	private long position;
+	
+	private byte[] compressed = new byte[0];
+	
+	private byte[] block = new byte[0];
+	
+	private int blockPos;
+	
+	private int blockLimit;
+	
+	private boolean syncRead;
+	
+	private boolean exhausted;
+	
+	/**
+	 * Creates a new stream that returns the decompressed blocks whose sync marker starts within the given range.
+	 * 
+	 * @param inStream The stream to the block compressed file.
+	 * @param start The start of the range to read.
+	 * @param length The length of the range to read, or {@link FileInputFormat#READ_WHOLE_SPLIT_FLAG} to read
+	 *               all blocks after the range start.
+	 * @throws IOException Thrown, if the header of the file could not be read, or it is not a block compressed file.
+	 */
+	public InflaterBlockInputStreamFSInputWrapper(FSDataInputStream inStream, long start, long length) throws IOException {
+		this.inStream = inStream;
+		this.rangeEnd = length == FileInputFormat.READ_WHOLE_SPLIT_FLAG ? Long.MAX_VALUE : start + length;
+		
+		// read the sync marker from the file header
+		if (start != 0) {
+			inStream.seek(0);
+		}
+		DataInputStream headerIn = new DataInputStream(inStream);
+		if (headerIn.readInt() != MAGIC_NUMBER) {
+			throw new IOException("The file is not a block compressed file.");
+		}
+		final byte version = headerIn.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version of block compressed file: " + version);
+		}
+		headerIn.readFully(this.sync);
+		
+		// position the stream at the range start
+		this.position = Math.max(start, HEADER_SIZE);
+		if (this.position != HEADER_SIZE) {
+			inStream.seek(this.position);
+		}
+		this.in = new DataInputStream(new BufferedInputStream(inStream, READ_BUFFER_SIZE));
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public void seek(long desired) throws IOException {
+		throw new UnsupportedOperationException("Compressed streams do not support the seek operation");
+	}
+	
+	@Override
+	public int read() throws IOException {
+		if (this.blockPos >= this.blockLimit && !nextBlock()) {
+			return -1;
+		}
+		return this.block[this.blockPos++] & 0xff;
+	}
+	
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0) {
+			return 0;
+		}
+		if (this.blockPos >= this.blockLimit && !nextBlock()) {
+			return -1;
+		}
+		
+		final int toCopy = Math.min(len, this.blockLimit - this.blockPos);
+		System.arraycopy(this.block, this.blockPos, b, off, toCopy);
+		this.blockPos += toCopy;
+		return toCopy;
+	}
+	
+	@Override
+	public int read(byte[] b) throws IOException {
+		return read(b, 0, b.length);
+	}
+	
+	@Override
+	public void close() throws IOException {
+		this.inflater.end();
+		this.inStream.close();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private boolean nextBlock() throws IOException {
+		while (!this.exhausted) {
+			final long syncStart = this.syncRead ? readSync() : findSync();
+			this.syncRead = true;
+			
+			if (syncStart < 0 || syncStart >= this.rangeEnd) {
+				this.exhausted = true;
+				return false;
+			}
+			
+			final int uncompressedLength = this.in.readInt();
+			final int compressedLength = this.in.readInt();
+			if (uncompressedLength < 0 || compressedLength < 0) {
+				throw new IOException("Corrupt block compressed file: Invalid block lengths at position " + syncStart);
+			}
+			this.position += 8 + compressedLength;
+			
+			if (this.compressed.length < compressedLength) {
+				this.compressed = new byte[compressedLength];
+			}
+			if (this.block.length < uncompressedLength) {
+				this.block = new byte[uncompressedLength];
+			}
+			this.in.readFully(this.compressed, 0, compressedLength);
+			
+			this.inflater.reset();
+			this.inflater.setInput(this.compressed, 0, compressedLength);
+			try {
+				int inflated = 0;
+				while (inflated < uncompressedLength && !this.inflater.finished()) {
+					final int n = this.inflater.inflate(this.block, inflated, uncompressedLength - inflated);
+					if (n == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+						break;
+					}
+					inflated += n;
+				}
+				if (inflated != uncompressedLength) {
+					throw new IOException("Corrupt block compressed file: Block at position " + syncStart +
+						" decompressed to " + inflated + " instead of " + uncompressedLength + " bytes.");
+				}
+			}
+			catch (DataFormatException dfex) {
+				throw new IOException("Corrupt block compressed file: " + dfex.getMessage(), dfex);
+			}
+			
+			this.blockPos = 0;
+			this.blockLimit = uncompressedLength;
+			if (uncompressedLength > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Reads the sync marker that directly follows the previous block.
+	 * 
+	 * @return The position of the sync marker, or <code>-1</code>, if the end of the file was reached.
+	 */
+	private long readSync() throws IOException {
+		final long syncStart = this.position;
+		final byte[] marker = new byte[SYNC_SIZE];
+		try {
+			this.in.readFully(marker);
+		}
+		catch (EOFException eofex) {
+			return -1;
+		}
+		if (!Arrays.equals(marker, this.sync)) {
+			throw new IOException("Corrupt block compressed file: Missing sync marker at position " + syncStart);
+		}
+		this.position += SYNC_SIZE;
+		return syncStart;
+	}
+	
+	/**
+	 * Searches the stream for the first sync marker.
+	 * 
+	 * @return The position of the sync marker, or <code>-1</code>, if the end of the file was reached.
+	 */
+	private long findSync() throws IOException {
+		final byte[] window = new byte[SYNC_SIZE];
+		int filled = 0;
+		
+		while (true) {
+			final int b = this.in.read();
+			if (b == -1) {
+				return -1;
+			}
+			this.position++;
+			
+			if (filled < SYNC_SIZE) {
+				window[filled++] = (byte) b;
+			} else {
+				System.arraycopy(window, 1, window, 0, SYNC_SIZE - 1);
+				window[SYNC_SIZE - 1] = (byte) b;
+			}
+			
+			if (filled == SYNC_SIZE && Arrays.equals(window, this.sync)) {
+				return this.position - SYNC_SIZE;
+			}
+			
+			// stop searching once no sync marker can start within the range any more
+			if (this.position - SYNC_SIZE >= this.rangeEnd) {
+				return -1;
+			}
+		}
+	}
+}
@@ -0,0 +1,241 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import java.io.IOException;
+
+import eu.stratosphere.core.fs.FSDataOutputStream;
+
+/**
+ * A stream that distributes the written data over a sequence of part files. A part is closed once it holds
+ * at least the given number of bytes or records, and the next part is opened with the next written byte.
+ * <p>
+ * Records are counted by their delimiter and parts are only cut directly after a delimiter, such that
+ * no record spans two parts. Delimiters may consist of several bytes and may be split across calls to
+ * the write methods. Records larger than the byte limit result in correspondingly larger parts.
+ */
+public abstract class RollingOutputStreamFSOutputWrapper extends FSDataOutputStream {
+	
+	private final long maxBytesPerPart;
+	
+	private final long maxRecordsPerPart;
+	
+	private final byte[] delimiter;
+	
+	private final int[] fallback;			// for each matched prefix of the delimiter, the longest proper border
+	
+	private int matched;					// the number of delimiter bytes matched by the last written bytes
+	
+	private FSDataOutputStream current;		// the stream to the current part, null, if no part is open
+	
+	private int partNumber;					// the number of the next part to open
+	
+	private long bytesInPart;
+	
+	private long recordsInPart;
+	
+	private boolean closed;
+	
+	/**
+	 * Creates a new rolling stream. The first part is opened with the first written byte.
+	 * 
+	 * @param maxBytesPerPart The number of bytes after which a part is cut, zero for no limit.
+	 * @param maxRecordsPerPart The number of records after which a part is cut, zero for no limit.
+	 * @param delimiter The record delimiter after which parts may be cut.
+	 */
+	protected RollingOutputStreamFSOutputWrapper(long maxBytesPerPart, long maxRecordsPerPart, byte[] delimiter) {
+		if (maxBytesPerPart < 0 || maxRecordsPerPart < 0) {
+			throw new IllegalArgumentException("The part limits must be nonnegative.");
+		}
+		if (maxBytesPerPart == 0 && maxRecordsPerPart == 0) {
+			throw new IllegalArgumentException("At least one of the part limits must be set.");
+		}
+		if (delimiter == null || delimiter.length == 0) {
+			throw new IllegalArgumentException("The record delimiter must not be empty.");
+		}
+		
+		this.maxBytesPerPart = maxBytesPerPart == 0 ? Long.MAX_VALUE : maxBytesPerPart;
+		this.maxRecordsPerPart = maxRecordsPerPart == 0 ? Long.MAX_VALUE : maxRecordsPerPart;
+		this.delimiter = delimiter.clone();
+		this.fallback = computeFallback(this.delimiter);
+	}
+	
+	/**
+	 * Opens the stream to the part with the given number. Parts are numbered consecutively, starting at zero.
+	 * 
+	 * @param partNumber The number of the part to open.
+	 * @return The stream to the part.
+	 * @throws IOException Thrown, if the part could not be opened.
+	 */
+	protected abstract FSDataOutputStream openPart(int partNumber) throws IOException;
+	
+	/**
+	 * Gets the number of parts opened so far.
+	 * 
+	 * @return The number of opened parts.
+	 */
+	public int getNumberOfParts() {
+		return this.partNumber;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public void write(int b) throws IOException {
+		if (this.current == null) {
+			nextPart();
+		}
+		
+		this.current.write(b);
+		this.bytesInPart++;
+		
+		if (matchDelimiter((byte) b)) {
+			this.recordsInPart++;
+			if (this.bytesInPart >= this.maxBytesPerPart || this.recordsInPart >= this.maxRecordsPerPart) {
+				closePart();
+			}
+		}
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		final boolean countRecords = this.maxRecordsPerPart != Long.MAX_VALUE;
+		
+		while (len > 0) {
+			if (this.current == null) {
+				nextPart();
+			}
+			
+			// without a record limit, delimiters need only be found once the part is full. only the
+			// last bytes can start a delimiter that is completed by the next write.
+			if (!countRecords && this.bytesInPart + len < this.maxBytesPerPart) {
+				this.current.write(b, off, len);
+				this.bytesInPart += len;
+				
+				int start = off;
+				if (len >= this.delimiter.length) {
+					start = off + len - this.delimiter.length + 1;
+					this.matched = 0;
+				}
+				for (int i = start; i < off + len; i++) {
+					matchDelimiter(b[i]);
+				}
+				return;
+			}
+			
+			int end = off;
+			final int limit = off + len;
+			while (end < limit && !matchDelimiter(b[end])) {
+				end++;
+			}
+			
+			if (end == limit) {
+				// no complete record
+				this.current.write(b, off, len);
+				this.bytesInPart += len;
+				return;
+			}
+			
+			final int num = end - off + 1;
+			this.current.write(b, off, num);
+			this.bytesInPart += num;
+			this.recordsInPart++;
+			off += num;
+			len -= num;
+			
+			if (this.bytesInPart >= this.maxBytesPerPart || this.recordsInPart >= this.maxRecordsPerPart) {
+				closePart();
+			}
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		if (this.current != null) {
+			this.current.flush();
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		
+		// make sure that even an empty output creates a file
+		if (this.partNumber == 0) {
+			nextPart();
+		}
+		closePart();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Advances the delimiter match by the given byte.
+	 * 
+	 * @return True, if the byte completes a delimiter, false otherwise.
+	 */
+	private boolean matchDelimiter(byte b) {
+		final byte[] delimiter = this.delimiter;
+		int m = this.matched;
+		while (m > 0 && b != delimiter[m]) {
+			m = this.fallback[m - 1];
+		}
+		if (b == delimiter[m]) {
+			m++;
+		}
+		
+		if (m == delimiter.length) {
+			this.matched = 0;
+			return true;
+		} else {
+			this.matched = m;
+			return false;
+		}
+	}
+	
+	private static int[] computeFallback(byte[] delimiter) {
+		final int[] fallback = new int[delimiter.length];
+		int k = 0;
+		for (int i = 1; i < delimiter.length; i++) {
+			while (k > 0 && delimiter[i] != delimiter[k]) {
+				k = fallback[k - 1];
+			}
+			if (delimiter[i] == delimiter[k]) {
+				k++;
+			}
+			fallback[i] = k;
+		}
+		return fallback;
+	}
+	
+	private void nextPart() throws IOException {
+		if (this.closed && this.partNumber > 0) {
+			throw new IOException("The stream is closed.");
+		}
+		this.current = openPart(this.partNumber++);
+		this.bytesInPart = 0;
+		this.recordsInPart = 0;
+	}
+	
+	private void closePart() throws IOException {
+		final FSDataOutputStream s = this.current;
+		if (s != null) {
+			this.current = null;
+			s.close();
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io.statistics;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An equi-depth histogram over numeric values. Each bucket holds roughly the same number of values, so the bucket
+ * boundaries adapt to skewed distributions. The histogram is built from a sample of the values and estimates which
+ * fraction of the values falls into a given range.
+ */
+public class EquiDepthHistogram implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final double[] boundaries;
+
+	/**
+	 * Builds a histogram from the given values.
+	 * 
+	 * @param values The (sampled) values. The array is not modified.
+	 * @param numBuckets The number of buckets. It is reduced to the number of values, if there are fewer values.
+	 */
+	public EquiDepthHistogram(double[] values, int numBuckets) {
+		if (values.length == 0) {
+			throw new IllegalArgumentException("Cannot build a histogram without values.");
+		}
+		if (numBuckets < 1) {
+			throw new IllegalArgumentException("The histogram needs at least one bucket.");
+		}
+
+		final double[] sorted = Arrays.copyOf(values, values.length);
+		Arrays.sort(sorted);
+
+		final int buckets = Math.min(numBuckets, sorted.length);
+		this.boundaries = new double[buckets + 1];
+		for (int i = 0; i < buckets; i++) {
+			this.boundaries[i] = sorted[(int) ((long) i * sorted.length / buckets)];
+		}
+		this.boundaries[buckets] = sorted[sorted.length - 1];
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	public int getNumberOfBuckets() {
+		return this.boundaries.length - 1;
+	}
+
+	public double getMin() {
+		return this.boundaries[0];
+	}
+
+	public double getMax() {
+		return this.boundaries[this.boundaries.length - 1];
+	}
+
+	/**
+	 * Estimates the fraction of values that are smaller than the given value. Within a bucket, the values are assumed
+	 * to be distributed uniformly.
+	 * 
+	 * @param value The value to compare against.
+	 * @return The estimated fraction of values smaller than the given value, between 0 and 1.
+	 */
+	public double estimateLessThan(double value) {
+		if (value <= getMin()) {
+			return 0.0;
+		}
+		if (value > getMax()) {
+			return 1.0;
+		}
+
+		final int numBuckets = getNumberOfBuckets();
+		double count = 0.0;
+		for (int i = 0; i < numBuckets; i++) {
+			final double low = this.boundaries[i];
+			final double high = this.boundaries[i + 1];
+			if (high < value) {
+				count += 1.0;
+			} else if (low < value) {
+				count += (value - low) / (high - low);
+			} else {
+				break;
+			}
+		}
+		return count / numBuckets;
+	}
+
+	/**
+	 * Estimates the fraction of values in the range from <code>low</code> (inclusive) to <code>high</code>
+	 * (exclusive).
+	 * 
+	 * @param low The lower bound of the range.
+	 * @param high The upper bound of the range.
+	 * @return The estimated fraction of values in the range, between 0 and 1.
+	 */
+	public double estimateRange(double low, double high) {
+		return high <= low ? 0.0 : Math.max(0.0, estimateLessThan(high) - estimateLessThan(low));
+	}
+
+	@Override
+	public String toString() {
+		return "EquiDepthHistogram " + Arrays.toString(this.boundaries);
+	}
+}
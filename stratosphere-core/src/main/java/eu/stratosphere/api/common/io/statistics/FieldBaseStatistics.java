@@ -0,0 +1,29 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io.statistics;
+
+/**
+ * Interface for input statistics that, in addition to the basic statistics, describe the values of the individual
+ * fields of the records.
+ */
+public interface FieldBaseStatistics extends BaseStatistics {
+
+	/**
+	 * Gets the statistics of the field at the given position of the produced records.
+	 * 
+	 * @param field The position of the field.
+	 * @return The statistics of the field, or <code>null</code>, if none are available.
+	 */
+	public FieldStatistics getFieldStatistics(int field);
+}
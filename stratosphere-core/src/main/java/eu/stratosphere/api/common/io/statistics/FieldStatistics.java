@@ -0,0 +1,170 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io.statistics;
+
+import java.io.Serializable;
+
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
+import eu.stratosphere.types.DoubleValue;
+import eu.stratosphere.types.FloatValue;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.LongValue;
+import eu.stratosphere.types.ShortValue;
+
+/**
+ * Statistics about the values of a single field: the estimated number of distinct values, the most frequent values
+ * (the heavy hitters) and, for numeric fields, an equi-depth histogram of the value distribution.
+ */
+public class FieldStatistics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The selectivity assumed for comparisons that cannot be estimated from the statistics.
+	 */
+	public static final double DEFAULT_SELECTIVITY = 1.0 / 3.0;
+
+	/**
+	 * Constant indicating that the number of distinct values is unknown.
+	 */
+	public static final long NUM_DISTINCT_VALUES_UNKNOWN = -1;
+
+	private final long numDistinctValues;
+
+	private final EquiDepthHistogram histogram;
+	
+	private final int[] heavyHitterHashes;
+	
+	private final double[] heavyHitterFrequencies;
+
+	/**
+	 * Creates new field statistics.
+	 * 
+	 * @param numDistinctValues The estimated number of distinct values, or <code>-1</code>, if unknown.
+	 * @param histogram The histogram of the values, or <code>null</code>, if the field is not numeric.
+	 */
+	public FieldStatistics(long numDistinctValues, EquiDepthHistogram histogram) {
+		this(numDistinctValues, histogram, null, null);
+	}
+	
+	/**
+	 * Creates new field statistics.
+	 * 
+	 * @param numDistinctValues The estimated number of distinct values, or <code>-1</code>, if unknown.
+	 * @param histogram The histogram of the values, or <code>null</code>, if the field is not numeric.
+	 * @param heavyHitterHashes The hash codes of the most frequent values, or <code>null</code>, if unknown.
+	 * @param heavyHitterFrequencies The fractions of the records holding the most frequent values.
+	 */
+	public FieldStatistics(long numDistinctValues, EquiDepthHistogram histogram,
+			int[] heavyHitterHashes, double[] heavyHitterFrequencies)
+	{
+		if ((heavyHitterHashes == null) != (heavyHitterFrequencies == null) ||
+				(heavyHitterHashes != null && heavyHitterHashes.length != heavyHitterFrequencies.length))
+		{
+			throw new IllegalArgumentException("Each heavy hitter must have exactly one frequency.");
+		}
+		
+		this.numDistinctValues = numDistinctValues;
+		this.histogram = histogram;
+		this.heavyHitterHashes = heavyHitterHashes;
+		this.heavyHitterFrequencies = heavyHitterFrequencies;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	public long getNumberOfDistinctValues() {
+		return this.numDistinctValues;
+	}
+
+	public EquiDepthHistogram getHistogram() {
+		return this.histogram;
+	}
+	
+	/**
+	 * Gets the hash codes (as returned by {@link Object#hashCode()}) of the values that occur in a large fraction
+	 * of the records.
+	 * 
+	 * @return The hash codes of the heavy hitters, or <code>null</code>, if unknown.
+	 */
+	public int[] getHeavyHitterHashes() {
+		return this.heavyHitterHashes;
+	}
+	
+	/**
+	 * Gets the fractions of the records that hold the heavy hitters, in the order of their hash codes.
+	 * 
+	 * @return The frequencies of the heavy hitters, or <code>null</code>, if unknown.
+	 */
+	public double[] getHeavyHitterFrequencies() {
+		return this.heavyHitterFrequencies;
+	}
+
+	/**
+	 * Estimates the fraction of records whose value in this field satisfies the given predicate. Equality is
+	 * estimated from the number of distinct values, range comparisons from the histogram.
+	 * 
+	 * @param predicate The predicate on this field.
+	 * @return The estimated selectivity, between 0 and 1.
+	 */
+	public double estimateSelectivity(FieldComparisonPredicate predicate) {
+		final double equal = this.numDistinctValues > 0 ? 1.0 / this.numDistinctValues : DEFAULT_SELECTIVITY;
+		final double constant = toDouble(predicate.getConstant());
+		final boolean useHistogram = this.histogram != null && !Double.isNaN(constant);
+
+		switch (predicate.getComparison()) {
+		case EQUAL:
+			return equal;
+		case NOT_EQUAL:
+			return 1.0 - equal;
+		case LESS:
+			return useHistogram ? this.histogram.estimateLessThan(constant) : DEFAULT_SELECTIVITY;
+		case LESS_EQUAL:
+			return useHistogram ? Math.min(1.0, this.histogram.estimateLessThan(constant) + equal) : DEFAULT_SELECTIVITY;
+		case GREATER:
+			return useHistogram ? Math.max(0.0, 1.0 - this.histogram.estimateLessThan(constant) - equal) : DEFAULT_SELECTIVITY;
+		default:
+			return useHistogram ? 1.0 - this.histogram.estimateLessThan(constant) : DEFAULT_SELECTIVITY;
+		}
+	}
+
+	/**
+	 * Converts a numeric field value into a double.
+	 * 
+	 * @param value The field value.
+	 * @return The numeric value, or <code>NaN</code>, if the value is not numeric.
+	 */
+	public static double toDouble(Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		} else if (value instanceof IntValue) {
+			return ((IntValue) value).getValue();
+		} else if (value instanceof LongValue) {
+			return ((LongValue) value).getValue();
+		} else if (value instanceof DoubleValue) {
+			return ((DoubleValue) value).getValue();
+		} else if (value instanceof FloatValue) {
+			return ((FloatValue) value).getValue();
+		} else if (value instanceof ShortValue) {
+			return ((ShortValue) value).getValue();
+		} else {
+			return Double.NaN;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "distinct=" + this.numDistinctValues + (this.histogram == null ? "" : ", " + this.histogram) +
+			(this.heavyHitterHashes == null ? "" : ", heavy hitters=" + this.heavyHitterHashes.length);
+	}
+}
@@ -0,0 +1,140 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io.statistics;
+
+import java.io.Serializable;
+
+/**
+ * A HyperLogLog sketch to estimate the number of distinct values in a stream of values using a small, fixed amount of
+ * memory. The sketch uses <code>2^precision</code> registers; the standard error of the estimate is about
+ * <code>1.04 / sqrt(2^precision)</code>, i.e. 1.6% for the default precision.
+ */
+public class HyperLogLog implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The default precision, using 4096 registers.
+	 */
+	public static final int DEFAULT_PRECISION = 12;
+
+	private final int precision;
+
+	private final byte[] registers;
+
+	/**
+	 * Creates a new sketch with the default precision.
+	 */
+	public HyperLogLog() {
+		this(DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Creates a new sketch with the given precision.
+	 * 
+	 * @param precision The number of bits used to select the register, between 4 and 16.
+	 */
+	public HyperLogLog(int precision) {
+		if (precision < 4 || precision > 16) {
+			throw new IllegalArgumentException("The precision must be between 4 and 16.");
+		}
+		this.precision = precision;
+		this.registers = new byte[1 << precision];
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Adds the given value to the sketch. Values are distinguished by their hash code.
+	 * 
+	 * @param value The value to add, ignored if <code>null</code>.
+	 */
+	public void offer(Object value) {
+		if (value != null) {
+			offerHash(mix(value.hashCode()));
+		}
+	}
+
+	/**
+	 * Adds a value to the sketch, given by its well distributed 64 bit hash.
+	 * 
+	 * @param hash The hash of the value.
+	 */
+	public void offerHash(long hash) {
+		final int index = (int) (hash >>> (64 - this.precision));
+		final long rest = hash << this.precision;
+		final int rank = rest == 0 ? 64 - this.precision + 1 : Long.numberOfLeadingZeros(rest) + 1;
+
+		if (rank > this.registers[index]) {
+			this.registers[index] = (byte) rank;
+		}
+	}
+
+	/**
+	 * Merges the given sketch into this sketch. Afterwards, this sketch estimates the number of distinct values
+	 * offered to either sketch.
+	 * 
+	 * @param other The sketch to merge, must have the same precision.
+	 */
+	public void merge(HyperLogLog other) {
+		if (other.precision != this.precision) {
+			throw new IllegalArgumentException("Cannot merge sketches of different precision.");
+		}
+		for (int i = 0; i < this.registers.length; i++) {
+			if (other.registers[i] > this.registers[i]) {
+				this.registers[i] = other.registers[i];
+			}
+		}
+	}
+
+	/**
+	 * Gets the estimated number of distinct values offered to the sketch.
+	 * 
+	 * @return The estimated number of distinct values.
+	 */
+	public long cardinality() {
+		final int m = this.registers.length;
+
+		double sum = 0.0;
+		int zeros = 0;
+		for (int i = 0; i < m; i++) {
+			sum += 1.0 / (1L << this.registers[i]);
+			if (this.registers[i] == 0) {
+				zeros++;
+			}
+		}
+
+		final double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1.0 + 1.079 / m);
+		final double estimate = alpha * m * m / sum;
+
+		// small range correction via linear counting
+		if (estimate <= 2.5 * m && zeros > 0) {
+			return Math.round(m * Math.log((double) m / zeros));
+		}
+		return Math.round(estimate);
+	}
+
+	/**
+	 * Spreads the bits of a 32 bit hash code over 64 bits (finalizer of MurmurHash3).
+	 */
+	private static long mix(int hashCode) {
+		long h = hashCode;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
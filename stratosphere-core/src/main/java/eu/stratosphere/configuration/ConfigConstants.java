@@ -54,6 +54,67 @@ public final class ConfigConstants {
 	 * The config parameter defining the number of handler threads for the jobmanager RPC service.
 	 */
 	public static final String JOB_MANAGER_IPC_HANDLERS_KEY = "jobmanager.rpc.numhandler";
+	
+	/**
+	 * The config parameter defining the number of local file input splits that an instance reserves at once.
+	 */
+	public static final String JOB_MANAGER_SPLIT_BATCH_SIZE_KEY = "jobmanager.splitassigner.batchsize";
+
+	/**
+	 * The config parameter defining the factor by which a task must run longer than the median of its finished
+	 * siblings to be reported as a straggler. A value of zero disables the straggler detection.
+	 */
+	public static final String JOB_MANAGER_STRAGGLER_SLOWDOWN_KEY = "jobmanager.straggler.slowdown";
+
+	/**
+	 * The config parameter defining the fraction of the tasks of a vertex that must have finished before the remaining
+	 * tasks are checked for stragglers.
+	 */
+	public static final String JOB_MANAGER_STRAGGLER_FINISHED_FRACTION_KEY = "jobmanager.straggler.finishedfraction";
+
+	/**
+	 * The config parameter defining the minimum run time in milliseconds before a task can be reported as a straggler.
+	 */
+	public static final String JOB_MANAGER_STRAGGLER_MIN_RUNTIME_KEY = "jobmanager.straggler.minruntime";
+
+	/**
+	 * The config parameter defining the minimum interval in milliseconds between two checks of the running tasks for
+	 * stragglers. The checks are triggered by the progress reports of the tasks.
+	 */
+	public static final String JOB_MANAGER_STRAGGLER_CHECK_INTERVAL_KEY = "jobmanager.straggler.checkinterval";
+
+	/**
+	 * The config parameter defining the class name of the scheduler the job manager uses in cluster mode.
+	 */
+	public static final String JOB_MANAGER_SCHEDULER_CLASS_KEY = "jobmanager.scheduler.classname";
+
+	/**
+	 * The config parameter defining the comma-separated names of the pools of the fair scheduler.
+	 */
+	public static final String FAIR_SCHEDULER_POOLS_KEY = "jobmanager.scheduler.fair.pools";
+
+	/**
+	 * The prefix of the config parameters defining the weight and job limit of a pool of the fair scheduler. The
+	 * parameters are named <code>jobmanager.scheduler.fair.&lt;pool&gt;.weight</code> and
+	 * <code>jobmanager.scheduler.fair.&lt;pool&gt;.maxjobs</code>.
+	 */
+	public static final String FAIR_SCHEDULER_POOL_PREFIX = "jobmanager.scheduler.fair.";
+
+	/**
+	 * The suffix of the config parameter defining the weight of a pool of the fair scheduler.
+	 */
+	public static final String FAIR_SCHEDULER_POOL_WEIGHT_SUFFIX = ".weight";
+
+	/**
+	 * The suffix of the config parameter defining the maximum number of concurrently running jobs of a pool of the fair
+	 * scheduler.
+	 */
+	public static final String FAIR_SCHEDULER_POOL_MAX_JOBS_SUFFIX = ".maxjobs";
+
+	/**
+	 * The job config parameter defining the pool of the fair scheduler a job is submitted to.
+	 */
+	public static final String FAIR_SCHEDULER_JOB_POOL_KEY = "jobmanager.scheduler.fair.pool";
 
 	/**
 	 * The config parameter defining the task manager's IPC port from the configuration.
@@ -86,6 +147,40 @@ public final class ConfigConstants {
 	 * The key for the config parameter defining whether the memory manager allocates memory lazy.
 	 */
 	public static final String TASK_MANAGER_MEMORY_LAZY_ALLOCATION_KEY = "taskmanager.memory.lazyalloc";
+
+	/**
+	 * The key for the config parameter defining whether lazily allocated memory is allocated in the background
+	 * after the task manager has started.
+	 */
+	public static final String TASK_MANAGER_MEMORY_PRE_TOUCH_KEY = "taskmanager.memory.pre-touch";
+
+	/**
+	 * The key for the config parameter defining the time in milliseconds after which the memory of an unused
+	 * task manager is released. The memory is allocated again when it is requested.
+	 */
+	public static final String TASK_MANAGER_MEMORY_IDLE_RELEASE_KEY = "taskmanager.memory.idle-release";
+
+	/**
+	 * The key for the config parameter defining whether the memory manager and the network buffers allocate
+	 * their memory off-heap, outside the garbage collected heap. Off-heap memory is bounded by the JVM's
+	 * maximum direct memory size, so the amount of managed memory should be set explicitly via
+	 * {@link #TASK_MANAGER_MEMORY_SIZE_KEY}.
+	 */
+	public static final String TASK_MANAGER_MEMORY_OFF_HEAP_KEY = "taskmanager.memory.off-heap";
+
+	/**
+	 * The key for the config parameter defining whether the managed memory and the network buffers share one
+	 * memory pool. If they do, the network buffers may borrow unused managed memory while data is in transit,
+	 * and the managed memory may borrow the elastic part of the network buffers. The network buffer size must
+	 * then be a valid page size.
+	 */
+	public static final String TASK_MANAGER_MEMORY_UNIFIED_KEY = "taskmanager.memory.unified";
+
+	/**
+	 * The key for the config parameter defining the fraction of the network buffers that is not guaranteed
+	 * to the network stack in a unified memory pool, but is shared with the managed memory.
+	 */
+	public static final String TASK_MANAGER_MEMORY_UNIFIED_ELASTIC_FRACTION_KEY = "taskmanager.memory.unified.elastic-fraction";
 	
 	
 	/**
@@ -104,6 +199,12 @@ public final class ConfigConstants {
 	 * to the JobManager (in msecs).
 	 */
 	public static final String TASK_MANAGER_HEARTBEAT_INTERVAL_KEY = "taskmanager.heartbeat-interval";
+
+	/**
+	 * Parameter for the interval in which the TaskManager reports the accumulators and metrics of its running tasks
+	 * to the JobManager (in msecs). A value of zero disables the reports while the tasks are running.
+	 */
+	public static final String TASK_MANAGER_PROGRESS_REPORT_INTERVAL_KEY = "taskmanager.progress-report-interval";
 	
 	/**
 	 * Parameter for the maximum fan for out-of-core algorithms.
@@ -166,6 +267,11 @@ public final class ConfigConstants {
 	 */
 	public static final String FILESYSTEM_OUTPUT_ALWAYS_CREATE_DIRECTORY_KEY = "fs.output.always-create-directory";
 
+	/**
+	 * Key to specify whether the local file system reads files through memory-mapped regions.
+	 */
+	public static final String FILESYSTEM_LOCAL_MEMORY_MAPPED_KEY = "fs.local.memory-mapped";
+
 	// ---------------------------- Compiler -------------------------------
 
 	/**
@@ -184,6 +290,24 @@ public final class ConfigConstants {
 	 * The maximum length of a single sampled record before the sampling is aborted.
 	 */
 	public static final String DELIMITED_FORMAT_MAX_SAMPLE_LENGTH_KEY = "compiler.delimited-informat.max-sample-len";
+
+	/**
+	 * The key for the directory in which the compiler persists the statistics it obtains about the inputs. If not set,
+	 * statistics are only cached in memory.
+	 */
+	public static final String COMPILER_STATISTICS_CATALOG_DIR_KEY = "compiler.statistics.catalog-dir";
+
+	/**
+	 * The key for the age in milliseconds after which the statistics in the catalog and in memory expire. A value of
+	 * zero keeps them forever.
+	 */
+	public static final String COMPILER_STATISTICS_MAX_AGE_KEY = "compiler.statistics.max-age";
+	
+	/**
+	 * The key for the number of optimized plans that the client keeps to reuse them for repeated
+	 * submissions of the same program. A value of zero, the default, disables the cache.
+	 */
+	public static final String COMPILER_PLAN_CACHE_SIZE_KEY = "compiler.plan-cache.size";
 	
 	
 	// ------------------------- JobManager Web Frontend ----------------------
@@ -208,6 +332,24 @@ public final class ConfigConstants {
 	 */
 	public static final String JOB_MANAGER_WEB_ARCHIVE_COUNT = "jobmanager.web.history";
 	
+	/**
+	 * The config parameter defining the directory in which the jobmanager stores the archived jobs. If it is not set,
+	 * the archived jobs are kept in memory only. Otherwise the number of archived jobs defines how many of them are
+	 * cached in memory.
+	 */
+	public static final String JOB_MANAGER_WEB_ARCHIVE_DIR_KEY = "jobmanager.web.history-dir";
+	
+	/**
+	 * The config parameter defining the maximum number of jobs kept in the archive directory.
+	 */
+	public static final String JOB_MANAGER_WEB_ARCHIVE_DIR_COUNT_KEY = "jobmanager.web.history-dir-count";
+	
+	/**
+	 * The config parameter defining the fraction of time a task must wait for output buffers to be considered
+	 * back pressured by the web frontend.
+	 */
+	public static final String JOB_MANAGER_WEB_BACKPRESSURE_THRESHOLD_KEY = "jobmanager.web.backpressure-threshold";
+	
 	public static final String JOB_MANAGER_WEB_LOG_PATH_KEY = "jobmanager.web.logpath";
 	
 	
@@ -284,6 +426,48 @@ public final class ConfigConstants {
 	 */
 	public static final int DEFAULT_JOB_MANAGER_IPC_HANDLERS = 8;
 	
+	/**
+	 * The default number of local file input splits that an instance reserves at once.
+	 */
+	public static final int DEFAULT_JOB_MANAGER_SPLIT_BATCH_SIZE = 16;
+
+	/**
+	 * The default factor by which a task must run longer than the median of its finished siblings to be reported as a
+	 * straggler.
+	 */
+	public static final float DEFAULT_JOB_MANAGER_STRAGGLER_SLOWDOWN = 2.0f;
+
+	/**
+	 * The default fraction of the tasks of a vertex that must have finished before the remaining tasks are checked for
+	 * stragglers.
+	 */
+	public static final float DEFAULT_JOB_MANAGER_STRAGGLER_FINISHED_FRACTION = 0.75f;
+
+	/**
+	 * The default minimum run time in milliseconds before a task can be reported as a straggler.
+	 */
+	public static final long DEFAULT_JOB_MANAGER_STRAGGLER_MIN_RUNTIME = 10000L;
+
+	/**
+	 * The default minimum interval in milliseconds between two checks of the running tasks for stragglers.
+	 */
+	public static final long DEFAULT_JOB_MANAGER_STRAGGLER_CHECK_INTERVAL = 5000L;
+
+	/**
+	 * The default class name of the scheduler the job manager uses in cluster mode.
+	 */
+	public static final String DEFAULT_JOB_MANAGER_SCHEDULER_CLASS = "eu.stratosphere.nephele.jobmanager.scheduler.queue.QueueScheduler";
+
+	/**
+	 * The default pool of the fair scheduler a job is submitted to.
+	 */
+	public static final String DEFAULT_FAIR_SCHEDULER_JOB_POOL = "default";
+
+	/**
+	 * The default weight of a pool of the fair scheduler.
+	 */
+	public static final float DEFAULT_FAIR_SCHEDULER_POOL_WEIGHT = 1.0f;
+	
 	/**
 	 * The default network port the task manager expects incoming IPC connections.
 	 */
@@ -308,6 +492,31 @@ public final class ConfigConstants {
 	 * The default setting for the memory manager lazy allocation feature.
 	 */
 	public static final boolean DEFAULT_TASK_MANAGER_MEMORY_LAZY_ALLOCATION = false;
+	
+	/**
+	 * The default setting for the background allocation of lazily allocated memory.
+	 */
+	public static final boolean DEFAULT_TASK_MANAGER_MEMORY_PRE_TOUCH = false;
+	
+	/**
+	 * The default idle time after which the memory is released, in milliseconds. -1 disables the release.
+	 */
+	public static final long DEFAULT_TASK_MANAGER_MEMORY_IDLE_RELEASE = -1;
+	
+	/**
+	 * The default setting for the off-heap allocation of managed memory and network buffers.
+	 */
+	public static final boolean DEFAULT_TASK_MANAGER_MEMORY_OFF_HEAP = false;
+	
+	/**
+	 * The default setting for sharing one memory pool between managed memory and network buffers.
+	 */
+	public static final boolean DEFAULT_TASK_MANAGER_MEMORY_UNIFIED = false;
+	
+	/**
+	 * The default fraction of the network buffers that is shared with the managed memory in a unified memory pool.
+	 */
+	public static final float DEFAULT_TASK_MANAGER_MEMORY_UNIFIED_ELASTIC_FRACTION = 0.25f;
 
 	/**
 	 * Default number of buffers used in the network stack.
@@ -323,6 +532,11 @@ public final class ConfigConstants {
 	 * The default interval for TaskManager heart beats (2000 msecs).
 	 */
 	public static final int DEFAULT_TASK_MANAGER_HEARTBEAT_INTERVAL = 2000;
+
+	/**
+	 * The default interval for reports of the accumulators and metrics of running tasks (5000 msecs).
+	 */
+	public static final int DEFAULT_TASK_MANAGER_PROGRESS_REPORT_INTERVAL = 5000;
 	
 	/**
 	 * The default value for the JobClient's polling interval. 2 Seconds.
@@ -362,6 +576,11 @@ public final class ConfigConstants {
 	 * The default behavior for output directory creating (create only directory when parallelism > 1).
 	 */
 	public static final boolean DEFAULT_FILESYSTEM_ALWAYS_CREATE_DIRECTORY = false;
+
+	/**
+	 * The default behavior for reading local files (= read through the file channel, not memory-mapped).
+	 */
+	public static final boolean DEFAULT_FILESYSTEM_LOCAL_MEMORY_MAPPED = false;
 	
 	
 	// ---------------------------- Compiler -------------------------------
@@ -381,6 +600,16 @@ public final class ConfigConstants {
 	 */
 	public static final int DEFAULT_DELIMITED_FORMAT_MAX_SAMPLE_LEN = 2 * 1024 * 1024;
 	
+	/**
+	 * The default age in milliseconds after which compiler statistics expire (one week).
+	 */
+	public static final long DEFAULT_COMPILER_STATISTICS_MAX_AGE = 7 * 24 * 60 * 60 * 1000L;
+	
+	/**
+	 * The default number of optimized plans cached by the client. Plan caching is disabled by default.
+	 */
+	public static final int DEFAULT_COMPILER_PLAN_CACHE_SIZE = 0;
+	
 	
 	// ------------------------- JobManager Web Frontend ----------------------
 	
@@ -403,6 +632,16 @@ public final class ConfigConstants {
 	 */
 	public static final int DEFAULT_JOB_MANAGER_WEB_ARCHIVE_COUNT = 5;
 	
+	/**
+	 * The default maximum number of jobs kept in the archive directory.
+	 */
+	public static final int DEFAULT_JOB_MANAGER_WEB_ARCHIVE_DIR_COUNT = 1000;
+	
+	/**
+	 * The default fraction of time a back pressured task waits for output buffers.
+	 */
+	public static final float DEFAULT_JOB_MANAGER_WEB_BACKPRESSURE_THRESHOLD = 0.5f;
+	
 	
 	// ------------------------------ Web Client ------------------------------
 	
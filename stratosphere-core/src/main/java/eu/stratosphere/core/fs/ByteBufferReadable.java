@@ -0,0 +1,47 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.core.fs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for input streams that can hand out their data in {@link ByteBuffer}s. Input formats that parse
+ * byte buffers use it to read data without first copying it into a byte array.
+ */
+public interface ByteBufferReadable {
+	
+	/**
+	 * Reads up to <code>target.remaining()</code> bytes into the given buffer. Reading into a direct buffer does
+	 * not require an intermediate copy.
+	 * 
+	 * @param target The buffer to read the data into.
+	 * @return The number of bytes read, or <code>-1</code>, if the end of the stream has been reached.
+	 * @throws IOException Thrown, if the data could not be read.
+	 */
+	int read(ByteBuffer target) throws IOException;
+	
+	/**
+	 * Returns the next bytes of the stream in a buffer and advances the stream behind them. The buffer may hold
+	 * fewer bytes than requested. It is only valid until the next call of any method of this stream, and
+	 * its contents must not be modified. Memory-mapped streams return views of the mapped file region, such
+	 * that no data is copied at all.
+	 * 
+	 * @param maxLength The maximal number of bytes to return.
+	 * @return A buffer with the next bytes between its position and limit, or <code>null</code>, if the end
+	 *         of the stream has been reached.
+	 * @throws IOException Thrown, if the data could not be read.
+	 */
+	ByteBuffer nextBuffer(int maxLength) throws IOException;
+}
@@ -16,21 +16,72 @@ package eu.stratosphere.core.fs.local;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 
+import eu.stratosphere.core.fs.ByteBufferReadable;
 import eu.stratosphere.core.fs.FSDataInputStream;
 
 /**
  * The <code>LocalDataInputStream</code> class is a wrapper class for a data
  * input stream to the local file system.
- * 
+ * <p>
+ * The stream either reads through the file's channel, or, if memory-mapped, maps regions of the file into memory
+ * and reads from them without any system calls. The regions are released by the garbage collector.
  */
-public class LocalDataInputStream extends FSDataInputStream {
+public class LocalDataInputStream extends FSDataInputStream implements ByteBufferReadable {
+
+	/**
+	 * The size of the file regions that are mapped into memory at once.
+	 */
+	private static final int MAPPED_REGION_SIZE = 64 * 1024 * 1024;
 
 	/**
 	 * The file input stream used to read data.
 	 */
 	private FileInputStream fis = null;
 
+	/**
+	 * The channel of the file input stream.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * Flag indicating whether the file is read through mapped regions.
+	 */
+	private final boolean memoryMapped;
+
+	/**
+	 * The size of the regions that are mapped at once.
+	 */
+	private final int regionSize;
+
+	/**
+	 * The size of the file, if memory-mapped.
+	 */
+	private final long fileSize;
+
+	/**
+	 * The currently mapped region of the file, if memory-mapped.
+	 */
+	private MappedByteBuffer region;
+
+	/**
+	 * The offset of the mapped region in the file.
+	 */
+	private long regionStart;
+
+	/**
+	 * The position in the file, if memory-mapped.
+	 */
+	private long position;
+
+	/**
+	 * The direct buffer handed out by {@link #nextBuffer(int)}, if not memory-mapped.
+	 */
+	private ByteBuffer directBuffer;
+
 	/**
 	 * Constructs a new <code>LocalDataInputStream</code> object from a given {@link File} object.
 	 * 
@@ -41,20 +92,55 @@ public class LocalDataInputStream extends FSDataInputStream {
 	 */
 	public LocalDataInputStream(final File file) throws IOException {
 
+		this(file, false);
+	}
+
+	/**
+	 * Constructs a new <code>LocalDataInputStream</code> object from a given {@link File} object.
+	 * 
+	 * @param file
+	 *        the {@link File} object the data stream is written to
+	 * @param memoryMapped
+	 *        <code>true</code>, if the file is to be read through memory-mapped regions
+	 * @throws IOException
+	 *         thrown if the data input stream cannot be created
+	 */
+	public LocalDataInputStream(final File file, final boolean memoryMapped) throws IOException {
+
+		this(file, memoryMapped, MAPPED_REGION_SIZE);
+	}
+
+	LocalDataInputStream(final File file, final boolean memoryMapped, final int regionSize) throws IOException {
+
 		this.fis = new FileInputStream(file);
+		this.channel = this.fis.getChannel();
+		this.memoryMapped = memoryMapped;
+		this.regionSize = regionSize;
+		this.fileSize = memoryMapped ? this.channel.size() : -1;
 	}
 
 
 	@Override
 	public void seek(final long desired) throws IOException {
 
-		this.fis.getChannel().position(desired);
+		if (this.memoryMapped) {
+			this.position = desired;
+		} else {
+			this.channel.position(desired);
+		}
 	}
 
 
 	@Override
 	public int read() throws IOException {
 
+		if (this.memoryMapped) {
+			if (!mapRegion()) {
+				return -1;
+			}
+			this.position++;
+			return this.region.get() & 0xff;
+		}
 		return this.fis.read();
 	}
 
@@ -62,26 +148,114 @@ public class LocalDataInputStream extends FSDataInputStream {
 	@Override
 	public int read(final byte[] buffer, final int offset, final int length) throws IOException {
 
+		if (this.memoryMapped) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!mapRegion()) {
+				return -1;
+			}
+			final int num = Math.min(length, this.region.remaining());
+			this.region.get(buffer, offset, num);
+			this.position += num;
+			return num;
+		}
 		return this.fis.read(buffer, offset, length);
 	}
 
 
+	@Override
+	public int read(final ByteBuffer target) throws IOException {
+
+		if (this.memoryMapped) {
+			final ByteBuffer next = nextBuffer(target.remaining());
+			if (next == null) {
+				return -1;
+			}
+			final int num = next.remaining();
+			target.put(next);
+			return num;
+		}
+		return this.channel.read(target);
+	}
+
+
+	@Override
+	public ByteBuffer nextBuffer(final int maxLength) throws IOException {
+
+		if (this.memoryMapped) {
+			if (!mapRegion()) {
+				return null;
+			}
+			final ByteBuffer view = this.region.slice();
+			view.limit(Math.min(maxLength, view.remaining()));
+			this.position += view.remaining();
+			return view;
+		}
+
+		if (this.directBuffer == null || this.directBuffer.capacity() < maxLength) {
+			this.directBuffer = ByteBuffer.allocateDirect(maxLength);
+		}
+		this.directBuffer.clear();
+		this.directBuffer.limit(maxLength);
+		if (this.channel.read(this.directBuffer) < 0) {
+			return null;
+		}
+		this.directBuffer.flip();
+		return this.directBuffer;
+	}
+
+
 	@Override
 	public void close() throws IOException {
 
+		this.region = null;
+		this.directBuffer = null;
 		this.fis.close();
 	}
 
 
 	@Override
 	public int available() throws IOException {
+
+		if (this.memoryMapped) {
+			return (int) Math.min(Integer.MAX_VALUE, Math.max(0, this.fileSize - this.position));
+		}
 		return this.fis.available();
 	}
 
 
 	@Override
 	public long skip(final long n) throws IOException {
+
+		if (this.memoryMapped) {
+			final long num = Math.max(0, Math.min(n, this.fileSize - this.position));
+			this.position += num;
+			return num;
+		}
 		return this.fis.skip(n);
 	}
 
+	/**
+	 * Makes sure that the region containing the current position is mapped and positioned accordingly.
+	 * 
+	 * @return <code>false</code>, if the end of the file has been reached, <code>true</code> otherwise.
+	 * @throws IOException
+	 *         thrown if the region could not be mapped
+	 */
+	private boolean mapRegion() throws IOException {
+
+		if (this.position >= this.fileSize) {
+			return false;
+		}
+		if (this.region == null || this.position < this.regionStart ||
+				this.position >= this.regionStart + this.region.capacity())
+		{
+			final long size = Math.min(this.regionSize, this.fileSize - this.position);
+			this.region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, size);
+			this.regionStart = this.position;
+		}
+		this.region.position((int) (this.position - this.regionStart));
+		return true;
+	}
 }
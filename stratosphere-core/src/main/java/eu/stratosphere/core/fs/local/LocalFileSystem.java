@@ -29,6 +29,8 @@ import java.net.UnknownHostException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.configuration.GlobalConfiguration;
 import eu.stratosphere.core.fs.BlockLocation;
 import eu.stratosphere.core.fs.FSDataInputStream;
 import eu.stratosphere.core.fs.FSDataOutputStream;
@@ -131,8 +133,10 @@ public class LocalFileSystem extends FileSystem {
 	public FSDataInputStream open(final Path f) throws IOException {
 
 		final File file = pathToFile(f);
+		final boolean memoryMapped = GlobalConfiguration.getBoolean(ConfigConstants.FILESYSTEM_LOCAL_MEMORY_MAPPED_KEY,
+			ConfigConstants.DEFAULT_FILESYSTEM_LOCAL_MEMORY_MAPPED);
 
-		return new LocalDataInputStream(file);
+		return new LocalDataInputStream(file, memoryMapped);
 	}
 
 
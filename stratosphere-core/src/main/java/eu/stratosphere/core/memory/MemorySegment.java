@@ -16,13 +16,23 @@ package eu.stratosphere.core.memory;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
 /**
  * This class represents a piece of memory allocated from the memory manager. The segment is backed
- * by a byte array and features random put and get methods for the basic types that are stored in a byte-wise
- * fashion in the memory.
+ * either by a byte array on the heap, or by off-heap memory of a direct byte buffer, and features random
+ * put and get methods for the basic types that are stored in a byte-wise fashion in the memory.
+ * 
+ * <p>
+ * 
+ * Both kinds of memory are accessed through the same code path: All accesses go through the "unsafe" with
+ * a base object (the byte array, or null for off-heap memory) and an address (the array base offset, or the
+ * absolute address of the off-heap memory). That way, there is only one memory segment class, all calls
+ * to its methods stay monomorphic and are inlined by the jit compiler, and off-heap memory adds no
+ * per-access overhead.
  * 
  * <p>
  * 
@@ -67,16 +77,47 @@ public class MemorySegment {
 	// code paths of the checks (as dead code) when this constant is set to false.
 	private static final boolean CHECKED = true;
 	
+	// flag to enable the boundary checks also in the unchecked accessors, for debugging. The JIT compiler
+	// treats the static final field as a constant and removes the checks when it is false.
+	private static final boolean CHECK_UNCHECKED = Boolean.getBoolean("stratosphere.memory.checked");
+	
 	/**
-	 * The array in which the data is stored.
+	 * The array in which the data is stored, or null, if the segment is backed by off-heap memory.
 	 */
 	protected byte[] memory;
 	
+	/**
+	 * The direct byte buffer holding the off-heap memory, or null, if the segment is backed by an array.
+	 * The reference prevents the off-heap memory from being garbage collected.
+	 */
+	protected ByteBuffer offHeapBuffer;
+	
+	/**
+	 * The address of the first byte, relative to the array for heap memory, absolute for off-heap memory.
+	 * Set beyond the address limit, once the segment is freed.
+	 */
+	protected long address;
+	
+	/**
+	 * The address one byte past the last byte of the segment.
+	 */
+	protected final long addressLimit;
+	
+	/**
+	 * The size of the segment in bytes.
+	 */
+	private final int size;
+	
 	/**
 	 * Wrapper for I/O requests.
 	 */
 	protected ByteBuffer wrapper;
 	
+	/**
+	 * View on the off-heap memory for bulk transfers.
+	 */
+	private ByteBuffer bulkView;
+	
 	// -------------------------------------------------------------------------
 	//                             Constructors
 	// -------------------------------------------------------------------------
@@ -87,7 +128,41 @@ public class MemorySegment {
 	 * @param memory The byte array that holds the data.
 	 */
 	public MemorySegment(byte[] memory) {
+		if (memory == null) {
+			throw new NullPointerException();
+		}
+		
 		this.memory = memory;
+		this.size = memory.length;
+		this.address = BYTE_ARRAY_BASE_OFFSET;
+		this.addressLimit = this.address + this.size;
+	}
+	
+	/**
+	 * Creates a new memory segment that represents the data in the given byte buffer. If the buffer is direct,
+	 * the segment is backed by the buffer's off-heap memory, otherwise by the buffer's array. The segment spans
+	 * the complete capacity of the buffer, regardless of its position and limit.
+	 * 
+	 * @param buffer The byte buffer that holds the data.
+	 */
+	public MemorySegment(ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new NullPointerException();
+		}
+		
+		if (buffer.isDirect()) {
+			this.offHeapBuffer = buffer;
+			this.address = getAddress(buffer);
+			this.size = buffer.capacity();
+		} else {
+			if (!buffer.hasArray() || buffer.arrayOffset() != 0 || buffer.capacity() != buffer.array().length) {
+				throw new IllegalArgumentException("A heap byte buffer must wrap a complete, accessible array.");
+			}
+			this.memory = buffer.array();
+			this.address = BYTE_ARRAY_BASE_OFFSET;
+			this.size = this.memory.length;
+		}
+		this.addressLimit = this.address + this.size;
 	}
 
 	// -------------------------------------------------------------------------
@@ -101,17 +176,38 @@ public class MemorySegment {
 	 * @return True, if the segment has been freed, false otherwise.
 	 */
 	public final boolean isFreed() {
+		return this.address > this.addressLimit;
+	}
+	
+	/**
+	 * Checks whether this memory segment is backed by off-heap memory.
+	 * 
+	 * @return True, if the segment is backed by off-heap memory, false, if it is backed by an array.
+	 */
+	public final boolean isOffHeap() {
 		return this.memory == null;
 	}
 	
+	/**
+	 * Frees this memory segment. Any access to the segment after this call fails with an exception, because the
+	 * address is moved beyond the address limit. The unchecked accessors test for that, too.
+	 */
+	protected void free() {
+		this.address = this.addressLimit + 1;
+		this.memory = null;
+		this.offHeapBuffer = null;
+		this.wrapper = null;
+		this.bulkView = null;
+	}
+	
 	/**
 	 * Gets the size of the memory segment, in bytes. Because segments
-	 * are backed by arrays, they cannot be larger than two GiBytes.
+	 * are backed by arrays or byte buffers, they cannot be larger than two GiBytes.
 	 * 
 	 * @return The size in bytes.
 	 */
 	public final int size() {
-		return this.memory.length;
+		return this.size;
 	}
 
 	/**
@@ -125,18 +221,17 @@ public class MemorySegment {
 	 *                                   or if the offset plus the length is larger than the segment size.
 	 */
 	public ByteBuffer wrap(int offset, int length) {
-		if (offset > this.memory.length || offset > this.memory.length - length) {
+		if (offset < 0 || length < 0 || offset > this.size - length || isFreed()) {
 			throw new IndexOutOfBoundsException();
 		}
 		
 		if (this.wrapper == null) {
-			this.wrapper = ByteBuffer.wrap(this.memory, offset, length);
-		}
-		else {
-			this.wrapper.position(offset);
-			this.wrapper.limit(offset + length);
+			this.wrapper = this.memory != null ? ByteBuffer.wrap(this.memory) : this.offHeapBuffer.duplicate();
 		}
 		
+		this.wrapper.clear();
+		this.wrapper.limit(offset + length);
+		this.wrapper.position(offset);
 		return this.wrapper;
 	}
 
@@ -164,8 +259,24 @@ public class MemorySegment {
 	 * @throws IndexOutOfBoundsException Thrown, if the index is negative, or larger or equal to the size of
 	 *                                   the memory segment.
 	 */
+	@SuppressWarnings("restriction")
 	public final byte get(int index) {
-		return this.memory[index];
+		// single bytes are accessed faster through the array, where the jit compiler eliminates the checks
+		final byte[] heap = this.memory;
+		if (heap != null) {
+			return heap[index];
+		}
+		
+		final long pos = this.address + index;
+		if (CHECKED) {
+			if (index >= 0 && pos < this.addressLimit) {
+				return UNSAFE.getByte(this.memory, pos);
+			} else {
+				throw new IndexOutOfBoundsException();
+			}
+		} else {
+			return UNSAFE.getByte(this.memory, pos);
+		}
 	}
 
 	/**
@@ -177,8 +288,25 @@ public class MemorySegment {
 	 * @throws IndexOutOfBoundsException Thrown, if the index is negative, or larger or equal to the size of
 	 *                                   the memory segment.
 	 */
+	@SuppressWarnings("restriction")
 	public final void put(int index, byte b) {
-		this.memory[index] = b;
+		// single bytes are accessed faster through the array, where the jit compiler eliminates the checks
+		final byte[] heap = this.memory;
+		if (heap != null) {
+			heap[index] = b;
+			return;
+		}
+		
+		final long pos = this.address + index;
+		if (CHECKED) {
+			if (index >= 0 && pos < this.addressLimit) {
+				UNSAFE.putByte(this.memory, pos, b);
+			} else {
+				throw new IndexOutOfBoundsException();
+			}
+		} else {
+			UNSAFE.putByte(this.memory, pos, b);
+		}
 	}
 
 	/**
@@ -224,8 +352,13 @@ public class MemorySegment {
 	 *                                   segment's end.
 	 */
 	public final void get(int index, byte[] dst, int offset, int length) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(this.memory, index, dst, offset, length);
+		if (this.memory != null) {
+			// system arraycopy does the boundary checks anyways, no need to check extra
+			System.arraycopy(this.memory, index, dst, offset, length);
+		} else {
+			// the byte buffer does the boundary checks
+			bulkView(index, length).get(dst, offset, length);
+		}
 	}
 
 	/**
@@ -243,8 +376,13 @@ public class MemorySegment {
 	 *                                   segment's end.
 	 */
 	public final void put(int index, byte[] src, int offset, int length) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(src, offset, this.memory, index, length);
+		if (this.memory != null) {
+			// system arraycopy does the boundary checks anyways, no need to check extra
+			System.arraycopy(src, offset, this.memory, index, length);
+		} else {
+			// the byte buffer does the boundary checks
+			bulkView(index, length).put(src, offset, length);
+		}
 	}
 
 	/**
@@ -258,7 +396,7 @@ public class MemorySegment {
 	 *                                   size minus 1.
 	 */
 	public final boolean getBoolean(int index) {
-		return this.memory[index] != 0;
+		return get(index) != 0;
 	}
 
 	/**
@@ -272,7 +410,7 @@ public class MemorySegment {
 	 *                                   size minus 1.
 	 */
 	public final void putBoolean(int index, boolean value) {
-		this.memory[index] = (byte) (value ? 1 : 0);
+		put(index, (byte) (value ? 1 : 0));
 	}
 
 	/**
@@ -286,8 +424,7 @@ public class MemorySegment {
 	 *                                   size minus 2.
 	 */
 	public final char getChar(int index) {
-		return (char) ( ((this.memory[index    ] & 0xff) << 8) | 
-						(this.memory[index + 1] & 0xff) );
+		return (char) getShort(index);
 	}
 
 	/**
@@ -301,8 +438,7 @@ public class MemorySegment {
 	 *                                   size minus 2.
 	 */
 	public final void putChar(int index, char value) {
-		this.memory[index    ] = (byte) (value >> 8);
-		this.memory[index + 1] = (byte) value;
+		putShort(index, (short) value);
 	}
 
 	/**
@@ -315,10 +451,20 @@ public class MemorySegment {
 	 * @throws IndexOutOfBoundsException Thrown, if the index is negative, or larger then the segment
 	 *                                   size minus 2.
 	 */
+	@SuppressWarnings("restriction")
 	public final short getShort(int index) {
-		return (short) (
-				((this.memory[index    ] & 0xff) << 8) |
-				((this.memory[index + 1] & 0xff)) );
+		final long pos = this.address + index;
+		final short value;
+		if (CHECKED) {
+			if (index >= 0 && pos <= this.addressLimit - 2) {
+				value = UNSAFE.getShort(this.memory, pos);
+			} else {
+				throw new IndexOutOfBoundsException();
+			}
+		} else {
+			value = UNSAFE.getShort(this.memory, pos);
+		}
+		return LITTLE_ENDIAN ? Short.reverseBytes(value) : value;
 	}
 
 	/**
@@ -331,9 +477,21 @@ public class MemorySegment {
 	 * @throws IndexOutOfBoundsException Thrown, if the index is negative, or larger then the segment
 	 *                                   size minus 2.
 	 */
+	@SuppressWarnings("restriction")
 	public final void putShort(int index, short value) {
-		this.memory[index    ] = (byte) (value >> 8);
-		this.memory[index + 1] = (byte) value;
+		final long pos = this.address + index;
+		if (LITTLE_ENDIAN) {
+			value = Short.reverseBytes(value);
+		}
+		if (CHECKED) {
+			if (index >= 0 && pos <= this.addressLimit - 2) {
+				UNSAFE.putShort(this.memory, pos, value);
+			} else {
+				throw new IndexOutOfBoundsException();
+			}
+		} else {
+			UNSAFE.putShort(this.memory, pos, value);
+		}
 	}
 	
 	/**
@@ -352,14 +510,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final int getInt(int index) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 4) {
-				return UNSAFE.getInt(this.memory, BASE_OFFSET + index);
+			if (index >= 0 && pos <= this.addressLimit - 4) {
+				return UNSAFE.getInt(this.memory, pos);
 			} else {
 				throw new IndexOutOfBoundsException();
 			}
 		} else {
-			return UNSAFE.getInt(this.memory, BASE_OFFSET + index);
+			return UNSAFE.getInt(this.memory, pos);
 		}
 	}
 	
@@ -423,14 +582,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final void putInt(int index, int value) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 4) {
-				UNSAFE.putInt(this.memory, BASE_OFFSET + index, value);
+			if (index >= 0 && pos <= this.addressLimit - 4) {
+				UNSAFE.putInt(this.memory, pos, value);
 			} else {
 				throw new IndexOutOfBoundsException();
 			}
 		} else {
-			UNSAFE.putInt(this.memory, BASE_OFFSET + index, value);
+			UNSAFE.putInt(this.memory, pos, value);
 		}
 	}
 	
@@ -494,14 +654,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final long getLong(int index) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 8) {
-				return UNSAFE.getLong(this.memory, BASE_OFFSET + index);
+			if (index >= 0 && pos <= this.addressLimit - 8) {
+				return UNSAFE.getLong(this.memory, pos);
 			} else {
 				throw new IndexOutOfBoundsException();
 			}
 		} else {
-			return UNSAFE.getLong(this.memory, BASE_OFFSET + index);
+			return UNSAFE.getLong(this.memory, pos);
 		}
 	}
 	
@@ -565,14 +726,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final void putLong(int index, long value) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 8) {
-				UNSAFE.putLong(this.memory, BASE_OFFSET + index, value);
+			if (index >= 0 && pos <= this.addressLimit - 8) {
+				UNSAFE.putLong(this.memory, pos, value);
 			} else {
 				throw new IndexOutOfBoundsException();
 			}
 		} else {
-			UNSAFE.putLong(this.memory, BASE_OFFSET + index, value);
+			UNSAFE.putLong(this.memory, pos, value);
 		}
 	}
 	
@@ -836,6 +998,227 @@ public class MemorySegment {
 		putLongBigEndian(index, Double.doubleToRawLongBits(value));
 	}
 	
+	// -------------------------------------------------------------------------
+	//              Unchecked Accessors for Trusted Runtime Code
+	// -------------------------------------------------------------------------
+	
+	// The following methods skip the range checks of their checked counterparts and are meant for
+	// runtime data structures (sorters, hash tables, paged views) that derive all offsets from the
+	// segment size themselves. An out-of-range index is not detected and may crash the JVM. Setting the
+	// system property "stratosphere.memory.checked" to true turns the checks on again for debugging.
+	// Accesses to a freed segment are always detected, because a segment may be released while a
+	// thread that was interrupted still works on it, and must then not read or write memory that has
+	// been handed to another task.
+	
+	/**
+	 * Gets the address of the given index for the unchecked accessors. The single comparison fails if the
+	 * segment has been freed, which moves the address beyond the address limit.
+	 * 
+	 * @param index The position in the segment.
+	 * @return The address of the position.
+	 * @throws IllegalStateException Thrown, if the segment has been freed.
+	 */
+	private long uncheckedAddress(int index) {
+		final long address = this.address;
+		if (address > this.addressLimit) {
+			throw new IllegalStateException("The memory segment has been freed.");
+		}
+		return address + index;
+	}
+	
+	/**
+	 * Reads the byte at the given position, without checking the index. Heap segments are read through
+	 * the array, which is as fast as the unchecked access.
+	 * 
+	 * @param index The position from which the byte will be read
+	 * @return The byte at the given position.
+	 * 
+	 * @see #get(int)
+	 */
+	@SuppressWarnings("restriction")
+	public final byte getUnchecked(int index) {
+		if (this.memory != null || CHECK_UNCHECKED) {
+			return get(index);
+		}
+		return UNSAFE.getByte(null, uncheckedAddress(index));
+	}
+	
+	/**
+	 * Writes the given byte at the given position, without checking the index. Heap segments are written
+	 * through the array, which is as fast as the unchecked access.
+	 * 
+	 * @param index The index at which the byte will be written.
+	 * @param b The byte value to be written.
+	 * 
+	 * @see #put(int, byte)
+	 */
+	@SuppressWarnings("restriction")
+	public final void putUnchecked(int index, byte b) {
+		if (this.memory != null || CHECK_UNCHECKED) {
+			put(index, b);
+		} else {
+			UNSAFE.putByte(null, uncheckedAddress(index), b);
+		}
+	}
+	
+	/**
+	 * Reads a short value from the given position, in the same byte order as {@link #getShort(int)},
+	 * without checking the index.
+	 * 
+	 * @param index The position from which the value will be read.
+	 * @return The short value at the given position.
+	 * 
+	 * @see #getShort(int)
+	 */
+	@SuppressWarnings("restriction")
+	public final short getShortUnchecked(int index) {
+		if (CHECK_UNCHECKED) {
+			return getShort(index);
+		}
+		final short value = UNSAFE.getShort(this.memory, uncheckedAddress(index));
+		return LITTLE_ENDIAN ? Short.reverseBytes(value) : value;
+	}
+	
+	/**
+	 * Writes the given short value at the given position, in the same byte order as
+	 * {@link #putShort(int, short)}, without checking the index.
+	 * 
+	 * @param index The position at which the value will be written.
+	 * @param value The short value to be written.
+	 * 
+	 * @see #putShort(int, short)
+	 */
+	@SuppressWarnings("restriction")
+	public final void putShortUnchecked(int index, short value) {
+		if (CHECK_UNCHECKED) {
+			putShort(index, value);
+		} else {
+			UNSAFE.putShort(this.memory, uncheckedAddress(index), LITTLE_ENDIAN ? Short.reverseBytes(value) : value);
+		}
+	}
+	
+	/**
+	 * Reads an int value (32bit, 4 bytes) from the given position, in the system's native byte order,
+	 * without checking the index.
+	 * 
+	 * @param index The position from which the value will be read.
+	 * @return The int value at the given position.
+	 * 
+	 * @see #getInt(int)
+	 */
+	@SuppressWarnings("restriction")
+	public final int getIntUnchecked(int index) {
+		if (CHECK_UNCHECKED) {
+			return getInt(index);
+		}
+		return UNSAFE.getInt(this.memory, uncheckedAddress(index));
+	}
+	
+	/**
+	 * Writes the given int value (32bit, 4 bytes) to the given position in the system's native
+	 * byte order, without checking the index.
+	 * 
+	 * @param index The position at which the value will be written.
+	 * @param value The int value to be written.
+	 * 
+	 * @see #putInt(int, int)
+	 */
+	@SuppressWarnings("restriction")
+	public final void putIntUnchecked(int index, int value) {
+		if (CHECK_UNCHECKED) {
+			putInt(index, value);
+		} else {
+			UNSAFE.putInt(this.memory, uncheckedAddress(index), value);
+		}
+	}
+	
+	/**
+	 * Reads an int value (32bit, 4 bytes) from the given position, in big endian byte order,
+	 * without checking the index.
+	 * 
+	 * @param index The position from which the value will be read.
+	 * @return The int value at the given position.
+	 * 
+	 * @see #getIntBigEndian(int)
+	 */
+	public final int getIntBigEndianUnchecked(int index) {
+		return LITTLE_ENDIAN ? Integer.reverseBytes(getIntUnchecked(index)) : getIntUnchecked(index);
+	}
+	
+	/**
+	 * Writes the given int value (32bit, 4 bytes) to the given position in big endian byte order,
+	 * without checking the index.
+	 * 
+	 * @param index The position at which the value will be written.
+	 * @param value The int value to be written.
+	 * 
+	 * @see #putIntBigEndian(int, int)
+	 */
+	public final void putIntBigEndianUnchecked(int index, int value) {
+		putIntUnchecked(index, LITTLE_ENDIAN ? Integer.reverseBytes(value) : value);
+	}
+	
+	/**
+	 * Reads a long value (64bit, 8 bytes) from the given position, in the system's native byte order,
+	 * without checking the index.
+	 * 
+	 * @param index The position from which the value will be read.
+	 * @return The long value at the given position.
+	 * 
+	 * @see #getLong(int)
+	 */
+	@SuppressWarnings("restriction")
+	public final long getLongUnchecked(int index) {
+		if (CHECK_UNCHECKED) {
+			return getLong(index);
+		}
+		return UNSAFE.getLong(this.memory, uncheckedAddress(index));
+	}
+	
+	/**
+	 * Writes the given long value (64bit, 8 bytes) to the given position in the system's native
+	 * byte order, without checking the index.
+	 * 
+	 * @param index The position at which the value will be written.
+	 * @param value The long value to be written.
+	 * 
+	 * @see #putLong(int, long)
+	 */
+	@SuppressWarnings("restriction")
+	public final void putLongUnchecked(int index, long value) {
+		if (CHECK_UNCHECKED) {
+			putLong(index, value);
+		} else {
+			UNSAFE.putLong(this.memory, uncheckedAddress(index), value);
+		}
+	}
+	
+	/**
+	 * Reads a long value (64bit, 8 bytes) from the given position, in big endian byte order,
+	 * without checking the index.
+	 * 
+	 * @param index The position from which the value will be read.
+	 * @return The long value at the given position.
+	 * 
+	 * @see #getLongBigEndian(int)
+	 */
+	public final long getLongBigEndianUnchecked(int index) {
+		return LITTLE_ENDIAN ? Long.reverseBytes(getLongUnchecked(index)) : getLongUnchecked(index);
+	}
+	
+	/**
+	 * Writes the given long value (64bit, 8 bytes) to the given position in big endian byte order,
+	 * without checking the index.
+	 * 
+	 * @param index The position at which the value will be written.
+	 * @param value The long value to be written.
+	 * 
+	 * @see #putLongBigEndian(int, long)
+	 */
+	public final void putLongBigEndianUnchecked(int index, long value) {
+		putLongUnchecked(index, LITTLE_ENDIAN ? Long.reverseBytes(value) : value);
+	}
+	
 	// -------------------------------------------------------------------------
 	//                     Bulk Read and Write Methods
 	// -------------------------------------------------------------------------
@@ -851,7 +1234,18 @@ public class MemorySegment {
 	 * @throws IOException Thrown, if the DataOutput encountered a problem upon writing.
 	 */
 	public final void get(DataOutput out, int offset, int length) throws IOException {
-		out.write(this.memory, offset, length);
+		if (this.memory != null) {
+			out.write(this.memory, offset, length);
+		} else {
+			final byte[] chunk = new byte[Math.min(length, BULK_CHUNK_SIZE)];
+			while (length > 0) {
+				final int num = Math.min(length, chunk.length);
+				get(offset, chunk, 0, num);
+				out.write(chunk, 0, num);
+				offset += num;
+				length -= num;
+			}
+		}
 	}
 
 	/**
@@ -866,7 +1260,18 @@ public class MemorySegment {
 	 *                     such as an End-Of-File.
 	 */
 	public final void put(DataInput in, int offset, int length) throws IOException {
-		in.readFully(this.memory, offset, length);
+		if (this.memory != null) {
+			in.readFully(this.memory, offset, length);
+		} else {
+			final byte[] chunk = new byte[Math.min(length, BULK_CHUNK_SIZE)];
+			while (length > 0) {
+				final int num = Math.min(length, chunk.length);
+				in.readFully(chunk, 0, num);
+				put(offset, chunk, 0, num);
+				offset += num;
+				length -= num;
+			}
+		}
 	}
 	
 	/**
@@ -886,7 +1291,11 @@ public class MemorySegment {
 	 */
 	public final void get(int offset, ByteBuffer target, int numBytes) {
 		// ByteBuffer performs the boundy checks
-		target.put(this.memory, offset, numBytes);
+		if (this.memory != null) {
+			target.put(this.memory, offset, numBytes);
+		} else {
+			target.put(bulkView(offset, numBytes));
+		}
 	}
 	
 	/**
@@ -908,7 +1317,17 @@ public class MemorySegment {
 	 */
 	public final void put(int offset, ByteBuffer source, int numBytes) {
 		// ByteBuffer performs the boundy checks
-		source.get(this.memory, offset, numBytes);
+		if (this.memory != null) {
+			source.get(this.memory, offset, numBytes);
+		} else {
+			if (numBytes > source.remaining()) {
+				throw new BufferUnderflowException();
+			}
+			final int limit = source.limit();
+			source.limit(source.position() + numBytes);
+			bulkView(offset, numBytes).put(source);
+			source.limit(limit);
+		}
 	}
 	
 	/**
@@ -925,29 +1344,91 @@ public class MemorySegment {
 	 *           contain the given number of bytes (starting from offset), or the target segment does
 	 *           not have enough space for the bytes (counting from targetOffset).
 	 */
+	@SuppressWarnings("restriction")
 	public final void copyTo(int offset, MemorySegment target, int targetOffset, int numBytes) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(this.memory, offset, target.memory, targetOffset, numBytes);
+		if (this.memory != null) {
+			// the target checks the boundaries of the source array and of itself
+			target.put(targetOffset, this.memory, offset, numBytes);
+		} else if (target.memory != null) {
+			get(offset, target.memory, targetOffset, numBytes);
+		} else {
+			// both segments are off-heap
+			if (offset < 0 || targetOffset < 0 || numBytes < 0 ||
+					offset > this.size - numBytes || targetOffset > target.size - numBytes ||
+					isFreed() || target.isFreed())
+			{
+				throw new IndexOutOfBoundsException();
+			}
+			UNSAFE.copyMemory(this.address + offset, target.address + targetOffset, numBytes);
+		}
 	}
 	
 	// -------------------------------------------------------------------------
 	//                      Comparisons & Swapping
 	// -------------------------------------------------------------------------
 	
+	@SuppressWarnings("restriction")
 	public static final int compare(MemorySegment seg1, MemorySegment seg2, int offset1, int offset2, int len) {
+		if (offset1 < 0 || offset2 < 0 || len < 0 ||
+				seg1.address + offset1 > seg1.addressLimit - len || seg2.address + offset2 > seg2.addressLimit - len)
+		{
+			throw new IndexOutOfBoundsException();
+		}
+		
 		final byte[] b1 = seg1.memory;
 		final byte[] b2 = seg2.memory;
+		final long a1 = seg1.address + offset1;
+		final long a2 = seg2.address + offset2;
 		
 		int val = 0;
-		for (int pos = 0; pos < len && (val = (b1[offset1 + pos] & 0xff) - (b2[offset2 + pos] & 0xff)) == 0; pos++);
+		for (int pos = 0; pos < len && (val = (UNSAFE.getByte(b1, a1 + pos) & 0xff) - (UNSAFE.getByte(b2, a2 + pos) & 0xff)) == 0; pos++);
 		return val;
 	}
 	
 	public static final void swapBytes(MemorySegment seg1, MemorySegment seg2, byte[] tempBuffer, int offset1, int offset2, int len) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(seg1.memory, offset1, tempBuffer, 0, len);
-		System.arraycopy(seg2.memory, offset2, seg1.memory, offset1, len);
-		System.arraycopy(tempBuffer, 0, seg2.memory, offset2, len);
+		// the bulk methods do the boundary checks
+		seg1.get(offset1, tempBuffer, 0, len);
+		seg2.copyTo(offset2, seg1, offset1, len);
+		seg2.put(offset2, tempBuffer, 0, len);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//                                Off-heap memory utilities
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Gets the view on the off-heap memory for a bulk transfer of the given range.
+	 */
+	private final ByteBuffer bulkView(int offset, int length) {
+		if (offset < 0 || length < 0 || offset > this.size - length || isFreed()) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		if (this.bulkView == null) {
+			this.bulkView = this.offHeapBuffer.duplicate();
+		}
+		this.bulkView.clear();
+		this.bulkView.limit(offset + length);
+		this.bulkView.position(offset);
+		return this.bulkView;
+	}
+	
+	/**
+	 * Gets the absolute address of the memory of the given direct byte buffer.
+	 */
+	@SuppressWarnings("restriction")
+	private static final long getAddress(ByteBuffer buffer) {
+		return UNSAFE.getLong(buffer, BUFFER_ADDRESS_FIELD_OFFSET);
+	}
+	
+	@SuppressWarnings("restriction")
+	private static final long getBufferAddressFieldOffset() {
+		try {
+			return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+		}
+		catch (NoSuchFieldException e) {
+			throw new RuntimeException("The address field of direct byte buffers could not be found.");
+		}
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -958,7 +1439,11 @@ public class MemorySegment {
 	private static final sun.misc.Unsafe UNSAFE = MemoryUtils.UNSAFE;
 	
 	@SuppressWarnings("restriction")
-	private static final long BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+	private static final long BYTE_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+	
+	private static final long BUFFER_ADDRESS_FIELD_OFFSET = getBufferAddressFieldOffset();
+	
+	private static final int BULK_CHUNK_SIZE = 4096;
 	
 	private static final boolean LITTLE_ENDIAN = (MemoryUtils.NATIVE_BYTE_ORDER == ByteOrder.LITTLE_ENDIAN);
 }
@@ -0,0 +1,130 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import eu.stratosphere.core.fs.FSDataOutputStream;
+
+/**
+ * Tests the asynchronously writing output stream.
+ */
+public class AsyncOutputStreamFSOutputWrapperTest {
+	
+	@Test
+	public void testWritesAllData() {
+		try {
+			final SlowOutputStream out = new SlowOutputStream(0);
+			final AsyncOutputStreamFSOutputWrapper async = new AsyncOutputStreamFSOutputWrapper(out, 16);
+			for (int i = 0; i < 1000; i++) {
+				async.write(i);
+			}
+			async.close();
+			
+			assertEquals(1000, out.written);
+			assertTrue(out.closed);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testInterruptedCloseWaitsForWriter() {
+		try {
+			final SlowOutputStream out = new SlowOutputStream(500);
+			final AsyncOutputStreamFSOutputWrapper async = new AsyncOutputStreamFSOutputWrapper(out, 16);
+			async.write(new byte[16]);
+			async.write(1);
+			out.writing.await();
+			
+			// the task is canceled while the writer is inside the wrapped stream
+			Thread.currentThread().interrupt();
+			try {
+				async.close();
+				fail("The interrupted close should fail.");
+			}
+			catch (IOException e) {
+				// expected
+			}
+			
+			assertTrue(Thread.interrupted());
+			assertTrue(out.closed);
+			assertFalse("The stream was closed during a write.", out.closedDuringWrite);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static final class SlowOutputStream extends FSDataOutputStream {
+		
+		private final long delay;
+		
+		private final CountDownLatch writing = new CountDownLatch(1);
+		
+		private volatile boolean inWrite;
+		
+		private volatile boolean closed;
+		
+		private volatile boolean closedDuringWrite;
+		
+		private volatile int written;
+		
+		private SlowOutputStream(long delay) {
+			this.delay = delay;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.inWrite = true;
+			this.writing.countDown();
+			try {
+				if (this.delay > 0) {
+					Thread.sleep(this.delay);
+				}
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			finally {
+				this.inWrite = false;
+			}
+			this.written += len;
+		}
+		
+		@Override
+		public void close() {
+			this.closedDuringWrite |= this.inWrite;
+			this.closed = true;
+		}
+	}
+}
@@ -0,0 +1,260 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+
+package eu.stratosphere.api.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.FileSystem.WriteMode;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.types.Value;
+
+/**
+ * Tests the writing and the split-wise reading of block compressed files.
+ */
+public class BlockCompressedFileTest {
+	
+	private File tempFile;
+	
+	@After
+	public void deleteTempFile() {
+		if (this.tempFile != null) {
+			this.tempFile.delete();
+		}
+	}
+	
+	@Test
+	public void testReadSplits() {
+		try {
+			this.tempFile = File.createTempFile("block_compressed", FileInputFormat.BLOCK_DEFLATE_SUFFIX);
+			
+			final List<String> expected = new ArrayList<String>();
+			
+			final LineOutputFormat output = new LineOutputFormat();
+			output.setOutputFilePath(new Path(this.tempFile.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.setCompressionBlockSize(1000);
+			output.configure(new Configuration());
+			output.open(0, 1);
+			for (int i = 0; i < 10000; i++) {
+				final String line = i % 97 == 0 ? createLongLine(i) : "line " + i + " with some text";
+				expected.add(line);
+				output.writeRecord(line);
+			}
+			output.close();
+			
+			assertTrue("The file was not compressed.", this.tempFile.length() < 200000);
+			
+			for (int numSplits : new int[] { 1, 3, 16 }) {
+				final LineInputFormat input = new LineInputFormat();
+				input.setFilePath(new Path(this.tempFile.toURI().toString()));
+				input.configure(new Configuration());
+				
+				final FileInputSplit[] splits = input.createInputSplits(numSplits);
+				assertEquals(numSplits, splits.length);
+				
+				final List<String> lines = new ArrayList<String>();
+				for (FileInputSplit split : splits) {
+					input.open(split);
+					while (!input.reachedEnd()) {
+						final String line = input.nextRecord(null);
+						if (line != null) {
+							lines.add(line);
+						}
+					}
+					input.close();
+				}
+				
+				assertEquals(expected, lines);
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testRejectUncompressedFile() {
+		try {
+			this.tempFile = File.createTempFile("not_compressed", FileInputFormat.BLOCK_DEFLATE_SUFFIX);
+			final FileOutputStream fos = new FileOutputStream(this.tempFile);
+			fos.write("some\nplain\ntext\n".getBytes());
+			fos.close();
+			
+			final LineInputFormat input = new LineInputFormat();
+			input.setFilePath(new Path(this.tempFile.toURI().toString()));
+			input.configure(new Configuration());
+			
+			try {
+				input.open(input.createInputSplits(1)[0]);
+				fail("Opening a file without block header should fail.");
+			}
+			catch (IOException e) {
+				// expected
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testSkipHeaderOnlyInFirstSplit() {
+		try {
+			this.tempFile = File.createTempFile("block_compressed", FileInputFormat.BLOCK_DEFLATE_SUFFIX);
+			
+			final LineOutputFormat output = new LineOutputFormat();
+			output.setOutputFilePath(new Path(this.tempFile.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.setCompressionBlockSize(100);
+			output.configure(new Configuration());
+			output.open(0, 1);
+			output.writeRecord("header");
+			for (int i = 0; i < 1000; i++) {
+				output.writeRecord(String.valueOf(i));
+			}
+			output.close();
+			
+			final IntCsvInputFormat input = new IntCsvInputFormat();
+			input.setFilePath(new Path(this.tempFile.toURI().toString()));
+			input.setSkipFirstLineAsHeader(true);
+			input.configure(new Configuration());
+			
+			final FileInputSplit[] splits = input.createInputSplits(4);
+			assertEquals(4, splits.length);
+			
+			int expected = 0;
+			for (FileInputSplit split : splits) {
+				input.open(split);
+				while (!input.reachedEnd()) {
+					final Value[] record = input.nextRecord(new Value[] { new IntValue() });
+					if (record != null) {
+						assertEquals(expected++, ((IntValue) record[0]).getValue());
+					}
+				}
+				input.close();
+			}
+			assertEquals(1000, expected);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testRejectUndelimitedFormats() {
+		try {
+			this.tempFile = File.createTempFile("block_compressed", FileInputFormat.BLOCK_DEFLATE_SUFFIX);
+			
+			final FileOutputFormat<String> output = new LineOutputFormat() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected byte[] getRecordDelimiter() {
+					return new byte[] { '\r', '\n' };
+				}
+			};
+			output.setOutputFilePath(new Path(this.tempFile.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.configure(new Configuration());
+			try {
+				output.open(0, 1);
+				fail("Block compressed output with a multi-byte delimiter should be rejected.");
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+			
+			final BinaryInputFormat<Record> input = new SerializedInputFormat<Record>();
+			input.setFilePath(new Path(this.tempFile.toURI().toString()));
+			input.configure(new Configuration());
+			try {
+				input.open(new FileInputSplit(0, new Path(this.tempFile.toURI().toString()), 0, 100, null));
+				fail("Block compressed input for a binary format should be rejected.");
+			}
+			catch (IOException e) {
+				// expected
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	private static String createLongLine(int num) {
+		final StringBuilder bld = new StringBuilder();
+		while (bld.length() < 3000) {
+			bld.append(num).append(' ');
+		}
+		return bld.toString();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static class LineOutputFormat extends FileOutputFormat<String> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void writeRecord(String record) throws IOException {
+			this.stream.write(record.getBytes());
+			this.stream.write('\n');
+		}
+		
+		@Override
+		protected byte[] getRecordDelimiter() {
+			return new byte[] { '\n' };
+		}
+	}
+	
+	private static final class LineInputFormat extends DelimitedInputFormat<String> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String readRecord(String reuse, byte[] bytes, int offset, int numBytes) {
+			return new String(bytes, offset, numBytes);
+		}
+	}
+	
+	private static final class IntCsvInputFormat extends GenericCsvInputFormat<Value[]> {
+		private static final long serialVersionUID = 1L;
+		
+		private IntCsvInputFormat() {
+			setFieldTypesGeneric(IntValue.class);
+		}
+
+		@Override
+		public Value[] readRecord(Value[] target, byte[] bytes, int offset, int numBytes) {
+			return parseRecord(target, bytes, offset, numBytes) ? target : null;
+		}
+	}
+}
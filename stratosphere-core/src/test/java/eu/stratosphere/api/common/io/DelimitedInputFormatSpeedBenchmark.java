@@ -0,0 +1,134 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.configuration.GlobalConfiguration;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.Path;
+
+/**
+ * Measures the throughput of the line splitting in the {@link DelimitedInputFormat} for different
+ * read buffer sizes, reading local files through the file channel and through memory-mapped regions.
+ * The benchmark generates a text file of the given size (in megabytes, default 2048) with lines of
+ * random length and reads it completely, counting the bytes of all records. If a directory is given,
+ * all files in it are read instead, for example a file set much larger than the main memory.
+ * <p>
+ * Usage: <code>DelimitedInputFormatSpeedBenchmark [size-in-mb] [file | directory]</code>
+ */
+public class DelimitedInputFormatSpeedBenchmark {
+	
+	private static final int[] BUFFER_SIZES = { 64 * 1024, 1024 * 1024, 8 * 1024 * 1024 };
+	
+	private static final int ROUNDS = 3;
+	
+	
+	public static void main(String[] args) throws Exception {
+		final long sizeMb = args.length > 0 ? Long.parseLong(args[0]) : 2048;
+		final File file = args.length > 1 ? new File(args[1]) : File.createTempFile("delimited-benchmark", ".txt");
+		
+		final boolean generate = !file.isDirectory();
+		final File[] files = generate ? new File[] { file } : file.listFiles();
+		long totalSize = 0;
+		if (generate) {
+			file.deleteOnExit();
+			System.out.println("Generating " + sizeMb + " MB of text in " + file.getAbsolutePath());
+			generateFile(file, sizeMb * 1024 * 1024);
+		}
+		for (File f : files) {
+			totalSize += f.length();
+		}
+		
+		for (boolean memoryMapped : new boolean[] { false, true }) {
+			final Configuration config = new Configuration();
+			config.setBoolean(ConfigConstants.FILESYSTEM_LOCAL_MEMORY_MAPPED_KEY, memoryMapped);
+			GlobalConfiguration.includeConfiguration(config);
+			
+			for (int bufferSize : BUFFER_SIZES) {
+				for (int round = 0; round < ROUNDS; round++) {
+					final long start = System.nanoTime();
+					long bytes = 0;
+					for (File f : files) {
+						bytes += readFile(f, bufferSize);
+					}
+					final long millis = (System.nanoTime() - start) / 1000000;
+					
+					System.out.println((memoryMapped ? "Memory-mapped, buffer size " : "Channel, buffer size ") +
+						bufferSize + ": read " + bytes + " record bytes in " + millis + " ms (" +
+						(totalSize / 1024 / 1024 * 1000 / Math.max(millis, 1)) + " MB/s)");
+				}
+			}
+		}
+		
+		if (generate) {
+			file.delete();
+		}
+	}
+	
+	private static void generateFile(File file, long size) throws IOException {
+		final Random rnd = new Random();
+		final OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1024 * 1024);
+		try {
+			long written = 0;
+			while (written < size) {
+				final int len = 20 + rnd.nextInt(200);
+				for (int i = 0; i < len; i++) {
+					out.write('a' + rnd.nextInt(26));
+				}
+				out.write('\n');
+				written += len + 1;
+			}
+		} finally {
+			out.close();
+		}
+	}
+	
+	private static long readFile(File file, int bufferSize) throws IOException {
+		final CountingFormat format = new CountingFormat();
+		final Path path = new Path(file.toURI().toString());
+		format.setFilePath(path);
+		format.setBufferSize(bufferSize);
+		format.configure(new Configuration());
+		format.open(new FileInputSplit(0, path, 0, file.length(), null));
+		
+		try {
+			while (!format.reachedEnd()) {
+				format.nextRecord(null);
+			}
+			return format.bytes;
+		} finally {
+			format.close();
+		}
+	}
+	
+	private static final class CountingFormat extends DelimitedInputFormat<Object> {
+		private static final long serialVersionUID = 1L;
+		
+		private long bytes;
+		
+		@Override
+		public Object readRecord(Object reuse, byte[] bytes, int offset, int numBytes) {
+			this.bytes += numBytes;
+			return reuse;
+		}
+	}
+}
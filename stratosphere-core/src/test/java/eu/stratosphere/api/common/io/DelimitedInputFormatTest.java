@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStreamWriter;
+import java.util.Random;
 
 import org.apache.log4j.Level;
 import org.junit.After;
@@ -179,6 +180,57 @@ public class DelimitedInputFormatTest {
 		assertTrue(format.reachedEnd());
 	}
 	
+	@Test
+	public void testReadWithSmallBuffer() throws IOException {
+		final StringBuilder bld = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			bld.append("key").append(i).append('|').append("a much longer value ").append(i).append('\n');
+		}
+		final FileInputSplit split = createTempFile(bld.toString());
+		
+		final Configuration parameters = new Configuration();
+		parameters.setInteger("delimited-format.read-buffer-size", 7);
+		
+		format.configure(parameters);
+		assertEquals(7, format.getBufferSize());
+		format.open(split);
+		
+		Record theRecord = new Record();
+		for (int i = 0; i < 100; i++) {
+			assertNotNull(format.nextRecord(theRecord));
+			assertEquals("key" + i, theRecord.getField(0, StringValue.class).getValue());
+			assertEquals("a much longer value " + i, theRecord.getField(1, StringValue.class).getValue());
+		}
+		
+		assertNull(format.nextRecord(theRecord));
+		assertTrue(format.reachedEnd());
+	}
+	
+	@Test
+	public void testIndexOf() {
+		final Random rnd = new Random(4398214317823L);
+		final byte[] bytes = new byte[117];
+		
+		for (int round = 0; round < 1000; round++) {
+			// few distinct values, such that matches occur at all positions of a word
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = (byte) (rnd.nextInt(24) + 120);
+			}
+			final byte value = (byte) (rnd.nextInt(24) + 120);
+			final int from = rnd.nextInt(bytes.length);
+			final int to = from + rnd.nextInt(bytes.length - from + 1);
+			
+			int expected = -1;
+			for (int i = from; i < to; i++) {
+				if (bytes[i] == value) {
+					expected = i;
+					break;
+				}
+			}
+			assertEquals(expected, DelimitedInputFormat.indexOf(bytes, from, to, value));
+		}
+	}
+	
 	private FileInputSplit createTempFile(String contents) throws IOException {
 		this.tempFile = File.createTempFile("test_contents", "tmp");
 		this.tempFile.deleteOnExit();
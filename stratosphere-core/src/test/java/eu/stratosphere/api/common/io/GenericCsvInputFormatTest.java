@@ -14,6 +14,7 @@
 package eu.stratosphere.api.common.io;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -31,6 +32,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import eu.stratosphere.api.common.io.statistics.FieldStatistics;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.core.fs.FileInputSplit;
 import eu.stratosphere.core.fs.Path;
@@ -482,6 +484,58 @@ public class GenericCsvInputFormatTest {
 		}
 	}
 	
+	@Test
+	public void testSampleFieldStatistics() {
+		try {
+			final StringBuilder content = new StringBuilder();
+			for (int i = 0; i < 10000; i++) {
+				content.append(i).append('|').append(i % 10).append("|name-").append(i % 100).append('\n');
+			}
+			
+			final FileInputSplit split = createTempFile(content.toString());
+			
+			format.setFilePath(split.getPath());
+			format.setFieldDelimiter('|');
+			format.setFieldTypesGeneric(IntValue.class, IntValue.class, StringValue.class);
+			format.addFieldPredicate(new FieldComparisonPredicate(0, FieldComparisonPredicate.Comparison.LESS, new IntValue(0)));
+			format.configure(new Configuration());
+			
+			// sampling is opt-in
+			assertFalse(format.getStatistics(null) instanceof GenericCsvInputFormat.SampledFileBaseStatistics);
+			format.setSampleFieldStatistics(true);
+			
+			final FileInputFormat.FileBaseStatistics stats = format.getStatistics(null);
+			assertTrue(stats instanceof GenericCsvInputFormat.SampledFileBaseStatistics);
+			final GenericCsvInputFormat.SampledFileBaseStatistics sampled = (GenericCsvInputFormat.SampledFileBaseStatistics) stats;
+			
+			// the unique field is extrapolated, the others are fully contained in the sample
+			final FieldStatistics unique = sampled.getFieldStatistics(0);
+			assertEquals(10000, unique.getNumberOfDistinctValues(), 2000);
+			assertEquals(10, sampled.getFieldStatistics(1).getNumberOfDistinctValues());
+			assertEquals(100, sampled.getFieldStatistics(2).getNumberOfDistinctValues(), 2);
+			assertNull(sampled.getFieldStatistics(2).getHistogram());
+			assertNull(sampled.getFieldStatistics(3));
+			
+			// the histogram of the unique field shows the uniform distribution
+			final FieldComparisonPredicate lessThan = new FieldComparisonPredicate(0, FieldComparisonPredicate.Comparison.LESS, new IntValue(2500));
+			assertEquals(0.25, unique.estimateSelectivity(lessThan), 0.05);
+			final FieldComparisonPredicate equal = new FieldComparisonPredicate(1, FieldComparisonPredicate.Comparison.EQUAL, new IntValue(3));
+			assertEquals(0.1, sampled.getFieldStatistics(1).estimateSelectivity(equal), 0.01);
+			
+			// each value of the second field is held by a tenth of the records, no value of the first one is frequent
+			assertNull(unique.getHeavyHitterHashes());
+			assertEquals(10, sampled.getFieldStatistics(1).getHeavyHitterHashes().length);
+			assertEquals(0.1, sampled.getFieldStatistics(1).getHeavyHitterFrequencies()[0], 0.05);
+			
+			// cached statistics are reused, unless the fields differ
+			assertTrue(format.getStatistics(stats) == stats);
+			format.setFieldTypesGeneric(IntValue.class, IntValue.class);
+			assertTrue(format.getStatistics(stats) != stats);
+		}
+		catch (Exception ex) {
+			fail("Test failed due to a " + ex.getClass().getSimpleName() + ": " + ex.getMessage());
+		}
+	}
 
 	private FileInputSplit createTempFile(String content) throws IOException {
 		this.tempFile = File.createTempFile("test_contents", "tmp");
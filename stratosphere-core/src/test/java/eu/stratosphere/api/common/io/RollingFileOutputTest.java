@@ -0,0 +1,304 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.FileSystem.WriteMode;
+import eu.stratosphere.core.fs.Path;
+
+/**
+ * Tests the rollover of file outputs into multiple files and the asynchronous writing of file outputs.
+ */
+public class RollingFileOutputTest {
+	
+	private File tempDir;
+	
+	@After
+	public void deleteTempDir() {
+		if (this.tempDir != null) {
+			final File[] files = this.tempDir.listFiles();
+			if (files != null) {
+				for (File f : files) {
+					f.delete();
+				}
+			}
+			this.tempDir.delete();
+		}
+	}
+	
+	@Test
+	public void testRolloverByRecordsAsync() {
+		try {
+			this.tempDir = File.createTempFile("rolling_output", "");
+			this.tempDir.delete();
+			
+			final Configuration config = new Configuration();
+			config.setLong(FileOutputFormat.ROLLOVER_RECORDS_PARAMETER_KEY, 100);
+			config.setInteger(FileOutputFormat.ASYNC_BUFFER_SIZE_PARAMETER_KEY, 64);
+			
+			final LineOutputFormat output = new LineOutputFormat();
+			output.setOutputFilePath(new Path(this.tempDir.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.configure(config);
+			assertTrue(output.isRollingOutput());
+			assertEquals(64, output.getAsyncBufferSize());
+			
+			output.open(0, 1);
+			for (int i = 0; i < 1000; i++) {
+				output.writeRecord("line " + i);
+			}
+			output.close();
+			
+			assertTrue(this.tempDir.isDirectory());
+			assertEquals(10, this.tempDir.list().length);
+			
+			final List<String> lines = new ArrayList<String>();
+			for (int part = 0; part < 10; part++) {
+				final List<String> partLines = readLines(new File(this.tempDir, part == 0 ? "1" : "1-" + part));
+				assertEquals(100, partLines.size());
+				lines.addAll(partLines);
+			}
+			for (int i = 0; i < 1000; i++) {
+				assertEquals("line " + i, lines.get(i));
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testRolloverByBytesCompressed() {
+		try {
+			this.tempDir = File.createTempFile("rolling_output", FileInputFormat.BLOCK_DEFLATE_SUFFIX);
+			this.tempDir.delete();
+			
+			final List<String> expected = new ArrayList<String>();
+			
+			final LineOutputFormat output = new LineOutputFormat();
+			output.setOutputFilePath(new Path(this.tempDir.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.setCompressionBlockSize(500);
+			output.setRollover(10000, 0);
+			output.setAsyncBufferSize(1000);
+			output.configure(new Configuration());
+			output.open(1, 2);
+			for (int i = 0; i < 5000; i++) {
+				final String line = "line " + i + " with some text";
+				expected.add(line);
+				output.writeRecord(line);
+			}
+			output.close();
+			
+			final String[] files = this.tempDir.list();
+			assertTrue("The output was not rolled over.", files.length > 1);
+			for (String name : files) {
+				assertTrue(name.startsWith("2") && name.endsWith(FileInputFormat.BLOCK_DEFLATE_SUFFIX));
+			}
+			
+			final LineInputFormat input = new LineInputFormat();
+			input.setFilePath(new Path(this.tempDir.toURI().toString()));
+			input.configure(new Configuration());
+			
+			final List<String> lines = new ArrayList<String>();
+			for (FileInputSplit split : input.createInputSplits(1)) {
+				input.open(split);
+				while (!input.reachedEnd()) {
+					final String line = input.nextRecord(null);
+					if (line != null) {
+						lines.add(line);
+					}
+				}
+				input.close();
+			}
+			
+			assertEquals(expected.size(), lines.size());
+			assertTrue(lines.containsAll(expected));
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testRolloverWithMultiByteDelimiter() {
+		try {
+			this.tempDir = File.createTempFile("rolling_output", "");
+			this.tempDir.delete();
+			
+			// records contain newlines, which must not be taken as record boundaries
+			final LineOutputFormat output = new LineOutputFormat("||");
+			output.setOutputFilePath(new Path(this.tempDir.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.setRollover(0, 7);
+			output.configure(new Configuration());
+			output.open(0, 1);
+			for (int i = 0; i < 70; i++) {
+				output.writeRecord("record\n" + i);
+			}
+			output.close();
+			
+			assertEquals(10, this.tempDir.list().length);
+			
+			int i = 0;
+			for (int part = 0; part < 10; part++) {
+				final String contents = readFile(new File(this.tempDir, part == 0 ? "1" : "1-" + part));
+				final StringBuilder expected = new StringBuilder();
+				for (int r = 0; r < 7; r++, i++) {
+					expected.append("record\n").append(i).append("||");
+				}
+				assertEquals(expected.toString(), contents);
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testBinaryFormatRejectsRollover() {
+		final SerializedOutputFormat output = new SerializedOutputFormat();
+		try {
+			output.setRollover(1000, 0);
+			fail("The binary format accepted the rollover limits.");
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+		
+		final Configuration config = new Configuration();
+		config.setString(FileOutputFormat.FILE_PARAMETER_KEY, "file:///tmp/binary_output");
+		config.setLong(FileOutputFormat.ROLLOVER_RECORDS_PARAMETER_KEY, 100);
+		try {
+			output.configure(config);
+			fail("The binary format accepted the rollover parameters.");
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+		assertFalse(output.isRollingOutput());
+	}
+	
+	@Test
+	public void testUndelimitedFormatRejectsRollover() {
+		try {
+			this.tempDir = File.createTempFile("rolling_output", "");
+			this.tempDir.delete();
+			
+			final LineOutputFormat output = new LineOutputFormat(null);
+			output.setOutputFilePath(new Path(this.tempDir.toURI().toString()));
+			output.setWriteMode(WriteMode.OVERWRITE);
+			output.setRollover(0, 10);
+			output.configure(new Configuration());
+			try {
+				output.open(0, 1);
+				fail("A format without record delimiter opened a rolling output.");
+			}
+			catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	private static String readFile(File file) throws IOException {
+		final byte[] bytes = new byte[(int) file.length()];
+		final DataInputStream in = new DataInputStream(new FileInputStream(file));
+		try {
+			in.readFully(bytes);
+		} finally {
+			in.close();
+		}
+		return new String(bytes);
+	}
+	
+	private static List<String> readLines(File file) throws IOException {
+		final List<String> lines = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+		return lines;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static final class LineOutputFormat extends FileOutputFormat<String> {
+		private static final long serialVersionUID = 1L;
+		
+		private final byte[] delimiter;
+		
+		LineOutputFormat() {
+			this("\n");
+		}
+		
+		LineOutputFormat(String delimiter) {
+			this.delimiter = delimiter == null ? null : delimiter.getBytes();
+		}
+		
+		@Override
+		protected byte[] getRecordDelimiter() {
+			return this.delimiter;
+		}
+
+		@Override
+		public void writeRecord(String record) throws IOException {
+			this.stream.write(record.getBytes());
+			if (this.delimiter != null) {
+				// write the delimiter bytes individually, such that they are split across write calls
+				for (byte b : this.delimiter) {
+					this.stream.write(b);
+				}
+			}
+		}
+	}
+	
+	private static final class LineInputFormat extends DelimitedInputFormat<String> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String readRecord(String reuse, byte[] bytes, int offset, int numBytes) {
+			return new String(bytes, offset, numBytes);
+		}
+	}
+}
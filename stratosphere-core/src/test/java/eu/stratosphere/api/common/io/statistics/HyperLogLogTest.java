@@ -0,0 +1,80 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.api.common.io.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+	@Test
+	public void testSmallCardinality() {
+		final HyperLogLog hll = new HyperLogLog();
+		for (int i = 0; i < 1000; i++) {
+			hll.offer(Integer.valueOf(i % 10));
+		}
+		assertEquals(10, hll.cardinality());
+	}
+
+	@Test
+	public void testLargeCardinality() {
+		final HyperLogLog hll = new HyperLogLog();
+		for (int i = 0; i < 1000000; i++) {
+			hll.offer("value-" + i);
+		}
+		assertWithinError(1000000, hll.cardinality(), 0.05);
+	}
+
+	@Test
+	public void testMerge() {
+		final HyperLogLog first = new HyperLogLog();
+		final HyperLogLog second = new HyperLogLog();
+		for (int i = 0; i < 60000; i++) {
+			first.offer(Long.valueOf(i));
+		}
+		for (int i = 40000; i < 100000; i++) {
+			second.offer(Long.valueOf(i));
+		}
+
+		first.merge(second);
+		assertWithinError(100000, first.cardinality(), 0.05);
+	}
+
+	@Test
+	public void testHistogram() {
+		final double[] values = new double[10000];
+		for (int i = 0; i < values.length; i++) {
+			// skewed: half of the values are in [0, 10), the other half in [10, 10000)
+			values[i] = i < 5000 ? i / 500.0 : 10 + (i - 5000) * 2;
+		}
+
+		final EquiDepthHistogram histogram = new EquiDepthHistogram(values, 20);
+		assertEquals(20, histogram.getNumberOfBuckets());
+		assertEquals(0.0, histogram.getMin(), 0.0);
+		assertEquals(10008.0, histogram.getMax(), 0.0);
+
+		assertEquals(0.0, histogram.estimateLessThan(-1.0), 0.0);
+		assertEquals(1.0, histogram.estimateLessThan(20000.0), 0.0);
+		assertEquals(0.5, histogram.estimateLessThan(10.0), 0.02);
+		assertEquals(0.25, histogram.estimateLessThan(5.0), 0.02);
+		assertEquals(0.25, histogram.estimateRange(10.0, 5010.0), 0.02);
+	}
+
+	private static void assertWithinError(long expected, long actual, double error) {
+		assertTrue("Expected about " + expected + " but was " + actual,
+			Math.abs(actual - expected) <= error * expected);
+	}
+}
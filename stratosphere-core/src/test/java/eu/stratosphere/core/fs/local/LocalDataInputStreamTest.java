@@ -0,0 +1,127 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.core.fs.local;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link LocalDataInputStream} returns the same data through the file channel and through
+ * memory-mapped regions.
+ */
+public class LocalDataInputStreamTest {
+	
+	private static final int FILE_SIZE = 100000;
+	
+	private static final int REGION_SIZE = 4096;
+	
+	private File file;
+	
+	private byte[] contents;
+	
+	@Before
+	public void createFile() throws Exception {
+		this.contents = new byte[FILE_SIZE];
+		new Random(42).nextBytes(this.contents);
+		
+		this.file = File.createTempFile("local-input", ".bin");
+		final FileOutputStream out = new FileOutputStream(this.file);
+		try {
+			out.write(this.contents);
+		} finally {
+			out.close();
+		}
+	}
+	
+	@After
+	public void deleteFile() {
+		this.file.delete();
+	}
+	
+	@Test
+	public void testReadChannel() {
+		try {
+			checkReads(new LocalDataInputStream(this.file, false));
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testReadMemoryMapped() {
+		try {
+			checkReads(new LocalDataInputStream(this.file, true, REGION_SIZE));
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+	
+	private void checkReads(LocalDataInputStream in) throws Exception {
+		try {
+			// read a split in the middle of the file, across region boundaries
+			final int start = 3 * REGION_SIZE - 100;
+			in.seek(start);
+			assertEquals(this.contents[start] & 0xff, in.read());
+			
+			final byte[] target = new byte[3 * REGION_SIZE];
+			int read = 0;
+			while (read < target.length) {
+				read += in.read(target, read, target.length - read);
+			}
+			assertArrayEquals(Arrays.copyOfRange(this.contents, start + 1, start + 1 + target.length), target);
+			
+			// the byte buffer access paths continue at the same position
+			int position = start + 1 + target.length;
+			final ByteBuffer next = in.nextBuffer(1000);
+			while (next.hasRemaining()) {
+				assertEquals(this.contents[position++], next.get());
+			}
+			
+			final ByteBuffer direct = ByteBuffer.allocateDirect(500);
+			final int num = in.read(direct);
+			direct.flip();
+			for (int i = 0; i < num; i++) {
+				assertEquals(this.contents[position++], direct.get());
+			}
+			
+			// skip to the end
+			assertEquals(FILE_SIZE - position - 10, in.skip(FILE_SIZE - position - 10));
+			assertEquals(10, in.read(new byte[100], 0, 100));
+			assertEquals(-1, in.read());
+			assertNull(in.nextBuffer(100));
+			
+			// seeking back re-reads the data
+			in.seek(0);
+			assertEquals(this.contents[0] & 0xff, in.read());
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,597 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.types.StringValue;
+import eu.stratosphere.types.Value;
+
+/**
+ * A batch of rows stored column-wise in primitive arrays. Column batches are the unit of data in the vectorized
+ * execution path: sources such as the {@link eu.stratosphere.api.java.io.ColumnarCsvInputFormat} fill a whole batch
+ * at a time and filter, projection and aggregation functions work on all rows of a batch in tight loops, rather
+ * than being invoked once per record.
+ * <p>
+ * Filters do not move data. Instead, they restrict the batch to a <i>selection vector</i>, which holds the
+ * positions of the rows that are still valid. All consumers must therefore iterate over the selected rows only,
+ * for example:
+ * <pre>
+ * int[] sel = batch.getSelection();
+ * long[] col = batch.getLongColumn(2);
+ * for (int i = 0; i &lt; batch.getNumSelected(); i++) {
+ *     long v = col[sel[i]];
+ *     ...
+ * }
+ * </pre>
+ * The batch supports the column types {@link Integer}, {@link Long}, {@link Double} and {@link String}, which are
+ * stored in arrays of type {@code int[]}, {@code long[]}, {@code double[]} and {@code String[]}, respectively.
+ */
+public class ColumnBatch implements Value {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The number of rows a batch holds, if no capacity is specified.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static final byte TYPE_INT = 0;
+	private static final byte TYPE_LONG = 1;
+	private static final byte TYPE_DOUBLE = 2;
+	private static final byte TYPE_STRING = 3;
+
+	private static final Class<?>[] EMPTY_TYPES = new Class<?>[0];
+
+	// --------------------------------------------------------------------------------------------
+
+	private Class<?>[] types;
+
+	private byte[] typeCodes;
+
+	private Object[] columns;
+
+	private int[] selection;
+
+	private int size;
+
+	private int numSelected;
+
+	private boolean selectionActive;
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates an empty batch without any columns. This constructor is used when batches are deserialized.
+	 */
+	public ColumnBatch() {
+		this(EMPTY_TYPES, 0);
+	}
+
+	/**
+	 * Creates a new batch with the given column types and the default capacity.
+	 *
+	 * @param types The types of the columns.
+	 */
+	public ColumnBatch(Class<?>... types) {
+		this(types, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new batch with the given column types and capacity.
+	 *
+	 * @param types The types of the columns.
+	 * @param capacity The maximal number of rows in the batch.
+	 */
+	public ColumnBatch(Class<?>[] types, int capacity) {
+		reset(types, capacity);
+	}
+
+	/**
+	 * Re-initializes this batch to the given schema and capacity. Column arrays are reused, if the schema and
+	 * capacity are the same as before.
+	 *
+	 * @param types The types of the columns.
+	 * @param capacity The maximal number of rows in the batch.
+	 */
+	public void reset(Class<?>[] types, int capacity) {
+		if (types == null) {
+			throw new NullPointerException("Column types must not be null.");
+		}
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative.");
+		}
+
+		if (!hasSchema(types) || getCapacity() != capacity) {
+			this.types = types;
+			this.typeCodes = new byte[types.length];
+			this.columns = new Object[types.length];
+
+			for (int i = 0; i < types.length; i++) {
+				this.typeCodes[i] = typeCodeFor(types[i]);
+				this.columns[i] = createColumn(this.typeCodes[i], capacity);
+			}
+			this.selection = new int[capacity];
+		}
+		clear();
+	}
+
+	/**
+	 * Removes all rows from this batch and resets the selection.
+	 */
+	public void clear() {
+		this.size = 0;
+		this.numSelected = 0;
+		this.selectionActive = false;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//  Schema and size
+	// --------------------------------------------------------------------------------------------
+
+	public int getNumColumns() {
+		return this.types.length;
+	}
+
+	public Class<?> getColumnType(int column) {
+		return this.types[column];
+	}
+
+	public Class<?>[] getColumnTypes() {
+		return this.types;
+	}
+
+	/**
+	 * Checks whether this batch has exactly the given column types.
+	 *
+	 * @param types The column types to check against.
+	 * @return True, if this batch has the given column types, false otherwise.
+	 */
+	public boolean hasSchema(Class<?>[] types) {
+		return this.types != null && Arrays.equals(this.types, types);
+	}
+
+	public int getCapacity() {
+		return this.selection == null ? -1 : this.selection.length;
+	}
+
+	/**
+	 * Gets the number of physical rows in the batch, including rows that were filtered out.
+	 *
+	 * @return The number of physical rows.
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Sets the number of physical rows in the batch. This method is used by producers that write directly into
+	 * the column arrays. Setting the size resets the selection to all rows.
+	 *
+	 * @param size The number of valid rows in the column arrays.
+	 */
+	public void setSize(int size) {
+		if (size < 0 || size > getCapacity()) {
+			throw new IllegalArgumentException("Size must be between 0 and the capacity (" + getCapacity() + ").");
+		}
+		this.size = size;
+		this.numSelected = size;
+		this.selectionActive = false;
+	}
+
+	public boolean isFull() {
+		return this.size == getCapacity();
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//  Selection vector
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Gets the number of rows that are selected, i.e., that passed all filters so far.
+	 *
+	 * @return The number of selected rows.
+	 */
+	public int getNumSelected() {
+		return this.numSelected;
+	}
+
+	/**
+	 * Gets the selection vector. The first {@link #getNumSelected()} entries hold the positions of the selected
+	 * rows in ascending order.
+	 *
+	 * @return The selection vector.
+	 */
+	public int[] getSelection() {
+		if (!this.selectionActive) {
+			final int[] sel = this.selection;
+			for (int i = 0; i < this.size; i++) {
+				sel[i] = i;
+			}
+			this.selectionActive = true;
+		}
+		return this.selection;
+	}
+
+	/**
+	 * Sets the number of selected rows. Callers must have written the positions of the selected rows into the
+	 * first {@code numSelected} entries of the array returned by {@link #getSelection()} before.
+	 *
+	 * @param numSelected The number of selected rows.
+	 */
+	public void setNumSelected(int numSelected) {
+		if (numSelected < 0 || numSelected > this.numSelected) {
+			throw new IllegalArgumentException("The selection can only be narrowed.");
+		}
+		// make sure the selection vector is materialized
+		getSelection();
+		this.numSelected = numSelected;
+	}
+
+	/**
+	 * Checks whether all physical rows are selected. If that is the case, consumers may skip the indirection
+	 * through the selection vector.
+	 *
+	 * @return True, if all rows are selected, false otherwise.
+	 */
+	public boolean isDense() {
+		return this.numSelected == this.size;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//  Column access
+	// --------------------------------------------------------------------------------------------
+
+	public int[] getIntColumn(int column) {
+		checkType(column, TYPE_INT);
+		return (int[]) this.columns[column];
+	}
+
+	public long[] getLongColumn(int column) {
+		checkType(column, TYPE_LONG);
+		return (long[]) this.columns[column];
+	}
+
+	public double[] getDoubleColumn(int column) {
+		checkType(column, TYPE_DOUBLE);
+		return (double[]) this.columns[column];
+	}
+
+	public String[] getStringColumn(int column) {
+		checkType(column, TYPE_STRING);
+		return (String[]) this.columns[column];
+	}
+
+	/**
+	 * Creates a batch that contains only the given columns of this batch, in the given order. The returned
+	 * batch shares the column arrays with this batch, so no data is copied. The selection is copied, so rows can
+	 * be filtered out of the projection independently of this batch.
+	 *
+	 * @param fields The positions of the columns to retain.
+	 * @return A batch with the projected columns.
+	 */
+	public ColumnBatch project(int... fields) {
+		ColumnBatch projected = new ColumnBatch(EMPTY_TYPES, 0);
+
+		projected.types = new Class<?>[fields.length];
+		projected.typeCodes = new byte[fields.length];
+		projected.columns = new Object[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			projected.types[i] = this.types[fields[i]];
+			projected.typeCodes[i] = this.typeCodes[fields[i]];
+			projected.columns[i] = this.columns[fields[i]];
+		}
+
+		// the selection is copied, so that filtering the projection does not change the selection of this batch
+		projected.selection = this.selection == null ? null : this.selection.clone();
+		projected.size = this.size;
+		projected.numSelected = this.numSelected;
+		projected.selectionActive = this.selectionActive;
+		return projected;
+	}
+
+	/**
+	 * Copies the selected row at the given position in the selection into the given tuple. The tuple must have
+	 * at least as many fields as the batch has columns.
+	 *
+	 * @param selectedRow The position of the row within the selected rows.
+	 * @param target The tuple to write the fields to.
+	 */
+	public void getRow(int selectedRow, Tuple target) {
+		final int row = this.selectionActive ? this.selection[selectedRow] : selectedRow;
+
+		for (int i = 0; i < this.columns.length; i++) {
+			switch (this.typeCodes[i]) {
+			case TYPE_INT:
+				target.setField(((int[]) this.columns[i])[row], i);
+				break;
+			case TYPE_LONG:
+				target.setField(((long[]) this.columns[i])[row], i);
+				break;
+			case TYPE_DOUBLE:
+				target.setField(((double[]) this.columns[i])[row], i);
+				break;
+			default:
+				target.setField(((String[]) this.columns[i])[row], i);
+			}
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//  Aggregations over the selected rows
+	// --------------------------------------------------------------------------------------------
+
+	public long sumInt(int column) {
+		final int[] col = getIntColumn(column);
+		long sum = 0;
+		if (isDense()) {
+			for (int i = 0; i < this.size; i++) {
+				sum += col[i];
+			}
+		} else {
+			final int[] sel = this.selection;
+			for (int i = 0; i < this.numSelected; i++) {
+				sum += col[sel[i]];
+			}
+		}
+		return sum;
+	}
+
+	public long sumLong(int column) {
+		final long[] col = getLongColumn(column);
+		long sum = 0;
+		if (isDense()) {
+			for (int i = 0; i < this.size; i++) {
+				sum += col[i];
+			}
+		} else {
+			final int[] sel = this.selection;
+			for (int i = 0; i < this.numSelected; i++) {
+				sum += col[sel[i]];
+			}
+		}
+		return sum;
+	}
+
+	public double sumDouble(int column) {
+		final double[] col = getDoubleColumn(column);
+		double sum = 0.0;
+		if (isDense()) {
+			for (int i = 0; i < this.size; i++) {
+				sum += col[i];
+			}
+		} else {
+			final int[] sel = this.selection;
+			for (int i = 0; i < this.numSelected; i++) {
+				sum += col[sel[i]];
+			}
+		}
+		return sum;
+	}
+
+	public long minLong(int column) {
+		final long[] col = getLongColumn(column);
+		long min = Long.MAX_VALUE;
+		final int[] sel = getSelection();
+		for (int i = 0; i < this.numSelected; i++) {
+			final long v = col[sel[i]];
+			min = v < min ? v : min;
+		}
+		return min;
+	}
+
+	public long maxLong(int column) {
+		final long[] col = getLongColumn(column);
+		long max = Long.MIN_VALUE;
+		final int[] sel = getSelection();
+		for (int i = 0; i < this.numSelected; i++) {
+			final long v = col[sel[i]];
+			max = v > max ? v : max;
+		}
+		return max;
+	}
+
+	public double minDouble(int column) {
+		final double[] col = getDoubleColumn(column);
+		double min = Double.POSITIVE_INFINITY;
+		final int[] sel = getSelection();
+		for (int i = 0; i < this.numSelected; i++) {
+			min = Math.min(min, col[sel[i]]);
+		}
+		return min;
+	}
+
+	public double maxDouble(int column) {
+		final double[] col = getDoubleColumn(column);
+		double max = Double.NEGATIVE_INFINITY;
+		final int[] sel = getSelection();
+		for (int i = 0; i < this.numSelected; i++) {
+			max = Math.max(max, col[sel[i]]);
+		}
+		return max;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//  Serialization
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Writes the schema and the selected rows of this batch. Rows that have been filtered out are not written,
+	 * so the deserialized batch is always dense.
+	 */
+	@Override
+	public void write(DataOutput out) throws IOException {
+		final int num = this.numSelected;
+		final int[] sel = getSelection();
+
+		out.writeInt(this.typeCodes.length);
+		for (int i = 0; i < this.typeCodes.length; i++) {
+			out.writeByte(this.typeCodes[i]);
+		}
+		out.writeInt(getCapacity());
+		out.writeInt(num);
+
+		for (int c = 0; c < this.columns.length; c++) {
+			switch (this.typeCodes[c]) {
+			case TYPE_INT: {
+				final int[] col = (int[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					out.writeInt(col[sel[i]]);
+				}
+				break;
+			}
+			case TYPE_LONG: {
+				final long[] col = (long[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					out.writeLong(col[sel[i]]);
+				}
+				break;
+			}
+			case TYPE_DOUBLE: {
+				final double[] col = (double[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					out.writeDouble(col[sel[i]]);
+				}
+				break;
+			}
+			default: {
+				final String[] col = (String[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					StringValue.writeString(col[sel[i]], out);
+				}
+			}
+			}
+		}
+	}
+
+	@Override
+	public void read(DataInput in) throws IOException {
+		final int numColumns = in.readInt();
+		final Class<?>[] types = new Class<?>[numColumns];
+		for (int i = 0; i < numColumns; i++) {
+			types[i] = typeForCode(in.readByte());
+		}
+		final int capacity = in.readInt();
+		final int num = in.readInt();
+
+		reset(types, capacity);
+
+		for (int c = 0; c < numColumns; c++) {
+			switch (this.typeCodes[c]) {
+			case TYPE_INT: {
+				final int[] col = (int[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					col[i] = in.readInt();
+				}
+				break;
+			}
+			case TYPE_LONG: {
+				final long[] col = (long[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					col[i] = in.readLong();
+				}
+				break;
+			}
+			case TYPE_DOUBLE: {
+				final double[] col = (double[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					col[i] = in.readDouble();
+				}
+				break;
+			}
+			default: {
+				final String[] col = (String[]) this.columns[c];
+				for (int i = 0; i < num; i++) {
+					col[i] = StringValue.readString(in);
+				}
+			}
+			}
+		}
+		setSize(num);
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnBatch " + Arrays.toString(this.types) + " (" + this.numSelected + '/' + this.size + " rows)";
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//  Utilities
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Checks whether the given type can be stored in a column batch.
+	 *
+	 * @param type The type to check.
+	 * @return True, if the type is supported as a column type, false otherwise.
+	 */
+	public static boolean isSupportedType(Class<?> type) {
+		return type == Integer.class || type == Long.class || type == Double.class || type == String.class;
+	}
+
+	private void checkType(int column, byte expected) {
+		if (this.typeCodes[column] != expected) {
+			throw new IllegalArgumentException("Column " + column + " is of type " + this.types[column].getName() +
+				", not of type " + typeForCode(expected).getName() + '.');
+		}
+	}
+
+	private static byte typeCodeFor(Class<?> type) {
+		if (type == Integer.class) {
+			return TYPE_INT;
+		} else if (type == Long.class) {
+			return TYPE_LONG;
+		} else if (type == Double.class) {
+			return TYPE_DOUBLE;
+		} else if (type == String.class) {
+			return TYPE_STRING;
+		} else {
+			throw new IllegalArgumentException("The type '" + (type == null ? "null" : type.getName()) +
+				"' is not supported as a column type.");
+		}
+	}
+
+	private static Class<?> typeForCode(byte code) throws IllegalArgumentException {
+		switch (code) {
+		case TYPE_INT:
+			return Integer.class;
+		case TYPE_LONG:
+			return Long.class;
+		case TYPE_DOUBLE:
+			return Double.class;
+		case TYPE_STRING:
+			return String.class;
+		default:
+			throw new IllegalArgumentException("Unknown column type code: " + code);
+		}
+	}
+
+	private static Object createColumn(byte typeCode, int capacity) {
+		switch (typeCode) {
+		case TYPE_INT:
+			return new int[capacity];
+		case TYPE_LONG:
+			return new long[capacity];
+		case TYPE_DOUBLE:
+			return new double[capacity];
+		default:
+			return new String[capacity];
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.columnar;
+
+import eu.stratosphere.api.java.functions.FlatMapFunction;
+import eu.stratosphere.util.Collector;
+
+/**
+ * Base class for filters in the vectorized execution path. A batch filter is invoked once per
+ * {@link ColumnBatch} and narrows the batch's selection vector to the rows that pass the predicate.
+ * Batches in which no row remains selected are dropped.
+ * <p>
+ * Implementations should evaluate the predicate in a tight loop over the column arrays, for example:
+ * <pre>
+ * protected int filter(ColumnBatch batch, int[] selection, int numSelected) {
+ *     long[] col = batch.getLongColumn(1);
+ *     int out = 0;
+ *     for (int i = 0; i &lt; numSelected; i++) {
+ *         int row = selection[i];
+ *         if (col[row] &gt; 100) {
+ *             selection[out++] = row;
+ *         }
+ *     }
+ *     return out;
+ * }
+ * </pre>
+ */
+public abstract class ColumnBatchFilter extends FlatMapFunction<ColumnBatch, ColumnBatch> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Evaluates the filter predicate on the selected rows of the batch. The implementation must compact the
+	 * positions of all rows that pass the predicate into the beginning of the selection array, keeping their
+	 * order.
+	 *
+	 * @param batch The batch to filter.
+	 * @param selection The selection vector, holding the positions of the currently selected rows.
+	 * @param numSelected The number of currently selected rows.
+	 * @return The number of rows that passed the filter.
+	 * @throws Exception Implementations may forward exceptions, which are caught by the runtime.
+	 */
+	protected abstract int filter(ColumnBatch batch, int[] selection, int numSelected) throws Exception;
+
+	@Override
+	public final void flatMap(ColumnBatch batch, Collector<ColumnBatch> out) throws Exception {
+		final int numSelected = batch.getNumSelected();
+		if (numSelected == 0) {
+			return;
+		}
+
+		final int passed = filter(batch, batch.getSelection(), numSelected);
+		if (passed > 0) {
+			batch.setNumSelected(passed);
+			out.collect(batch);
+		}
+	}
+}
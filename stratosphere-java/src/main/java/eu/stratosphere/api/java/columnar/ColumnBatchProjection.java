@@ -0,0 +1,50 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.columnar;
+
+import eu.stratosphere.api.java.functions.MapFunction;
+
+/**
+ * Projects a {@link ColumnBatch} to a subset of its columns. The projection does not copy any data, the
+ * projected batch shares the column arrays and the selection vector with the input batch.
+ */
+public class ColumnBatchProjection extends MapFunction<ColumnBatch, ColumnBatch> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int[] fields;
+
+	/**
+	 * Creates a new projection that retains the given columns, in the given order.
+	 *
+	 * @param fields The positions of the columns to retain.
+	 */
+	public ColumnBatchProjection(int... fields) {
+		if (fields == null || fields.length == 0) {
+			throw new IllegalArgumentException("At least one column must be retained by the projection.");
+		}
+		for (int f : fields) {
+			if (f < 0) {
+				throw new IllegalArgumentException("Column positions must not be negative.");
+			}
+		}
+		this.fields = fields;
+	}
+
+	@Override
+	public ColumnBatch map(ColumnBatch batch) {
+		return batch.project(this.fields);
+	}
+}
@@ -0,0 +1,72 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.columnar;
+
+import eu.stratosphere.api.java.functions.FlatMapFunction;
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.InstantiationUtil;
+
+/**
+ * Converts the selected rows of {@link ColumnBatch}es back into tuples, so that the batches can be fed into the
+ * regular, record-at-a-time operators (for example a grouping or a join). The emitted tuple object is reused
+ * for all rows.
+ * <p>
+ * The class is abstract so that the tuple type is captured by an (anonymous) subclass, for example:
+ * <pre>
+ * batches.flatMap(new ColumnBatchUnpacker&lt;Tuple2&lt;Integer, Double&gt;&gt;(Tuple2.class) {});
+ * </pre>
+ *
+ * @param <T> The type of the tuples to create.
+ */
+public abstract class ColumnBatchUnpacker<T extends Tuple> extends FlatMapFunction<ColumnBatch, T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Class<? extends Tuple> tupleClass;
+
+	private transient T reuse;
+
+	/**
+	 * Creates a new unpacker producing tuples of the given class.
+	 *
+	 * @param tupleClass The tuple class, which must have at least as many fields as the batches have columns.
+	 */
+	protected ColumnBatchUnpacker(Class<? extends Tuple> tupleClass) {
+		if (tupleClass == null) {
+			throw new NullPointerException("The tuple class must not be null.");
+		}
+		this.tupleClass = tupleClass;
+	}
+
+	@Override
+	public void open(Configuration parameters) throws Exception {
+		@SuppressWarnings("unchecked")
+		T t = (T) InstantiationUtil.instantiate(this.tupleClass, Tuple.class);
+		this.reuse = t;
+	}
+
+	@Override
+	public void flatMap(ColumnBatch batch, Collector<T> out) {
+		final T tuple = this.reuse;
+		final int num = batch.getNumSelected();
+
+		for (int i = 0; i < num; i++) {
+			batch.getRow(i, tuple);
+			out.collect(tuple);
+		}
+	}
+}
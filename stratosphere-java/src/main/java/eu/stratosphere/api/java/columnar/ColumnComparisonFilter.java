@@ -0,0 +1,344 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.columnar;
+
+/**
+ * A batch filter that compares one column against a constant. The comparison is evaluated in a loop that is
+ * specialized for the column type, so that no boxing and no virtual call happens per row.
+ */
+public class ColumnComparisonFilter extends ColumnBatchFilter {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The comparison operators supported by the filter.
+	 */
+	public static enum Comparison {
+		EQUAL, NOT_EQUAL, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL
+	}
+
+	private final int column;
+
+	private final Comparison comparison;
+
+	private final long longConstant;
+
+	private final double doubleConstant;
+
+	private final String stringConstant;
+
+	private final boolean integralConstant;
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a filter that compares an integer or long column against the given constant.
+	 *
+	 * @param column The position of the column to compare.
+	 * @param comparison The comparison operator.
+	 * @param constant The constant to compare against.
+	 */
+	public ColumnComparisonFilter(int column, Comparison comparison, long constant) {
+		this(column, comparison, constant, constant, null, true);
+	}
+
+	/**
+	 * Creates a filter that compares a double column against the given constant.
+	 *
+	 * @param column The position of the column to compare.
+	 * @param comparison The comparison operator.
+	 * @param constant The constant to compare against.
+	 */
+	public ColumnComparisonFilter(int column, Comparison comparison, double constant) {
+		this(column, comparison, 0L, constant, null, false);
+	}
+
+	/**
+	 * Creates a filter that compares a string column lexicographically against the given constant. Null strings
+	 * match none of the comparisons.
+	 *
+	 * @param column The position of the column to compare.
+	 * @param comparison The comparison operator.
+	 * @param constant The constant to compare against.
+	 */
+	public ColumnComparisonFilter(int column, Comparison comparison, String constant) {
+		this(column, comparison, 0L, 0.0, constant, false);
+		if (constant == null) {
+			throw new NullPointerException("The constant must not be null.");
+		}
+	}
+
+	private ColumnComparisonFilter(int column, Comparison comparison, long longConstant, double doubleConstant,
+			String stringConstant, boolean integralConstant)
+	{
+		if (column < 0) {
+			throw new IllegalArgumentException("The column must not be negative.");
+		}
+		if (comparison == null) {
+			throw new NullPointerException("The comparison must not be null.");
+		}
+
+		this.column = column;
+		this.comparison = comparison;
+		this.longConstant = longConstant;
+		this.doubleConstant = doubleConstant;
+		this.stringConstant = stringConstant;
+		this.integralConstant = integralConstant;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	protected int filter(ColumnBatch batch, int[] selection, int numSelected) {
+		final Class<?> type = batch.getColumnType(this.column);
+
+		if (type == Integer.class) {
+			return filterInt(batch.getIntColumn(this.column), selection, numSelected);
+		} else if (type == Long.class) {
+			return filterLong(batch.getLongColumn(this.column), selection, numSelected);
+		} else if (type == Double.class) {
+			return filterDouble(batch.getDoubleColumn(this.column), selection, numSelected);
+		} else {
+			return filterString(batch.getStringColumn(this.column), selection, numSelected);
+		}
+	}
+
+	private int filterInt(int[] col, int[] sel, int num) {
+		if (!this.integralConstant) {
+			throw new IllegalArgumentException("Cannot compare an integer column with a non-integral constant.");
+		}
+		final long c = this.longConstant;
+		int out = 0;
+
+		switch (this.comparison) {
+		case EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] == c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case NOT_EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] != c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case LESS:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] < c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case LESS_EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] <= c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case GREATER:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] > c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		default:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] >= c) {
+					sel[out++] = row;
+				}
+			}
+		}
+		return out;
+	}
+
+	private int filterLong(long[] col, int[] sel, int num) {
+		if (!this.integralConstant) {
+			throw new IllegalArgumentException("Cannot compare a long column with a non-integral constant.");
+		}
+		final long c = this.longConstant;
+		int out = 0;
+
+		switch (this.comparison) {
+		case EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] == c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case NOT_EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] != c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case LESS:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] < c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case LESS_EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] <= c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case GREATER:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] > c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		default:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] >= c) {
+					sel[out++] = row;
+				}
+			}
+		}
+		return out;
+	}
+
+	private int filterDouble(double[] col, int[] sel, int num) {
+		if (this.stringConstant != null) {
+			throw new IllegalArgumentException("Cannot compare a double column with a string constant.");
+		}
+		final double c = this.doubleConstant;
+		int out = 0;
+
+		switch (this.comparison) {
+		case EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] == c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case NOT_EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] != c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case LESS:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] < c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case LESS_EQUAL:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] <= c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		case GREATER:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] > c) {
+					sel[out++] = row;
+				}
+			}
+			break;
+		default:
+			for (int i = 0; i < num; i++) {
+				final int row = sel[i];
+				if (col[row] >= c) {
+					sel[out++] = row;
+				}
+			}
+		}
+		return out;
+	}
+
+	private int filterString(String[] col, int[] sel, int num) {
+		if (this.stringConstant == null) {
+			throw new IllegalArgumentException("Cannot compare a string column with a numeric constant.");
+		}
+		final String c = this.stringConstant;
+		int out = 0;
+
+		for (int i = 0; i < num; i++) {
+			final int row = sel[i];
+			final String value = col[row];
+			if (value == null) {
+				continue;
+			}
+			final int cmp = value.compareTo(c);
+
+			final boolean pass;
+			switch (this.comparison) {
+			case EQUAL:
+				pass = cmp == 0;
+				break;
+			case NOT_EQUAL:
+				pass = cmp != 0;
+				break;
+			case LESS:
+				pass = cmp < 0;
+				break;
+			case LESS_EQUAL:
+				pass = cmp <= 0;
+				break;
+			case GREATER:
+				pass = cmp > 0;
+				break;
+			default:
+				pass = cmp >= 0;
+			}
+
+			if (pass) {
+				sel[out++] = row;
+			}
+		}
+		return out;
+	}
+
+	@Override
+	public String toString() {
+		return "Column " + this.column + ' ' + this.comparison + ' ' +
+			(this.stringConstant != null ? this.stringConstant :
+				this.integralConstant ? String.valueOf(this.longConstant) : String.valueOf(this.doubleConstant));
+	}
+}
@@ -0,0 +1,63 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.functions;
+
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
+import eu.stratosphere.api.common.io.FieldComparisonPredicate.Comparison;
+import eu.stratosphere.api.java.tuple.Tuple;
+
+/**
+ * A filter that compares one field of a tuple against a constant. Because the predicate is fully described
+ * by the field position, the comparison operator and the constant, the filter can be pushed into input formats
+ * that evaluate it while parsing, such as the {@link eu.stratosphere.api.java.io.CsvInputFormat}. In that case,
+ * lines that do not qualify are rejected before their remaining fields are parsed.
+ * <p>
+ * Example: {@code data.filter(new FieldComparisonFilter<Tuple3<Integer, String, Double>>(2, Comparison.GREATER, 100.0))}
+ *
+ * @param <T> The type of the filtered tuples.
+ */
+@FunctionAnnotation.PushableFilter
+public class FieldComparisonFilter<T extends Tuple> extends FilterFunction<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final FieldComparisonPredicate predicate;
+
+	/**
+	 * Creates a new filter that retains all tuples whose field at the given position satisfies the comparison
+	 * with the constant. The constant must be of the same type as the field.
+	 *
+	 * @param field The position of the tuple field to compare.
+	 * @param comparison The comparison operator.
+	 * @param constant The constant to compare against.
+	 */
+	public FieldComparisonFilter(int field, Comparison comparison, Comparable<?> constant) {
+		this.predicate = new FieldComparisonPredicate(field, comparison, constant);
+	}
+
+	public FieldComparisonPredicate getPredicate() {
+		return this.predicate;
+	}
+
+	@Override
+	public boolean filter(T value) {
+		return this.predicate.accept(value.getField(this.predicate.getField()));
+	}
+
+	@Override
+	public String toString() {
+		return "Filter (" + this.predicate + ")";
+	}
+}
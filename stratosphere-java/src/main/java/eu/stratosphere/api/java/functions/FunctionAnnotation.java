@@ -314,6 +314,17 @@ public class FunctionAnnotation {
 		int[] value() default {};
 		String[] inCustomPos() default {};
 	}
+	
+	/**
+	 * Specifies that a {@link FilterFunction} may be evaluated inside the data source that produces its input,
+	 * before the records are handed to the rest of the program. A filter may only be annotated as pushable if
+	 * its result depends solely on the filtered record, i.e. it does not use broadcast variables, the runtime
+	 * context, or any state that is modified across invocations.
+	 */
+	@Target(ElementType.TYPE)
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface PushableFilter {}
+	
 	/**
 	 * Private constructor to prevent instantiation. This class is intended only as a container.
 	 */
@@ -0,0 +1,217 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
+
+/**
+ * Describes one block of a columnar file written by the {@link ColumnarOutputFormat}: the position of the
+ * block in the file, its number of rows, and for each column the position of the compressed column chunk
+ * together with the number of null values and the minimum and maximum value in the block.
+ * <p>
+ * The statistics are used to skip blocks that cannot contain rows satisfying a {@link FieldComparisonPredicate}.
+ */
+public class ColumnarBlockInfo {
+	
+	private final byte[] types;
+	
+	private long offset;
+	
+	private long length;
+	
+	private int numRows;
+	
+	private final long[] chunkOffsets;
+	
+	private final int[] chunkLengths;
+	
+	private final int[] uncompressedLengths;
+	
+	private final int[] nullCounts;
+	
+	private final Comparable<?>[] minValues;
+	
+	private final Comparable<?>[] maxValues;
+	
+	
+	ColumnarBlockInfo(byte[] types) {
+		this.types = types;
+		this.chunkOffsets = new long[types.length];
+		this.chunkLengths = new int[types.length];
+		this.uncompressedLengths = new int[types.length];
+		this.nullCounts = new int[types.length];
+		this.minValues = new Comparable<?>[types.length];
+		this.maxValues = new Comparable<?>[types.length];
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	public long getOffset() {
+		return this.offset;
+	}
+	
+	public long getLength() {
+		return this.length;
+	}
+	
+	public int getNumRows() {
+		return this.numRows;
+	}
+	
+	public int getNumColumns() {
+		return this.types.length;
+	}
+	
+	public long getChunkOffset(int column) {
+		return this.chunkOffsets[column];
+	}
+	
+	public int getChunkLength(int column) {
+		return this.chunkLengths[column];
+	}
+	
+	public int getUncompressedLength(int column) {
+		return this.uncompressedLengths[column];
+	}
+	
+	public int getNullCount(int column) {
+		return this.nullCounts[column];
+	}
+	
+	/**
+	 * Gets the minimum value of the given column in this block.
+	 * 
+	 * @param column The column.
+	 * @return The minimum value, or <code>null</code>, if the column holds only nulls in this block.
+	 */
+	public Comparable<?> getMin(int column) {
+		return this.minValues[column];
+	}
+	
+	/**
+	 * Gets the maximum value of the given column in this block.
+	 * 
+	 * @param column The column.
+	 * @return The maximum value, or <code>null</code>, if the column holds only nulls in this block.
+	 */
+	public Comparable<?> getMax(int column) {
+		return this.maxValues[column];
+	}
+	
+	void setBlock(long offset, long length, int numRows) {
+		this.offset = offset;
+		this.length = length;
+		this.numRows = numRows;
+	}
+	
+	void setChunk(int column, long offset, int length, int uncompressedLength, int nullCount,
+			Comparable<?> min, Comparable<?> max)
+	{
+		this.chunkOffsets[column] = offset;
+		this.chunkLengths[column] = length;
+		this.uncompressedLengths[column] = uncompressedLength;
+		this.nullCounts[column] = nullCount;
+		this.minValues[column] = min;
+		this.maxValues[column] = max;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Checks whether any row of this block may satisfy the given predicate, which refers to a column of the file.
+	 * 
+	 * @param predicate The predicate.
+	 * @return False, if the statistics prove that no row satisfies the predicate, true otherwise.
+	 */
+	public boolean canMatch(FieldComparisonPredicate predicate) {
+		final int column = predicate.getField();
+		final Comparable<?> min = this.minValues[column];
+		final Comparable<?> max = this.maxValues[column];
+		
+		// null values never satisfy a predicate
+		if (min == null) {
+			return false;
+		}
+		
+		final int minCmp = compare(min, predicate.getConstant());
+		final int maxCmp = compare(max, predicate.getConstant());
+		
+		switch (predicate.getComparison()) {
+		case EQUAL:
+			return minCmp <= 0 && maxCmp >= 0;
+		case NOT_EQUAL:
+			return minCmp != 0 || maxCmp != 0;
+		case LESS:
+			return minCmp < 0;
+		case LESS_EQUAL:
+			return minCmp <= 0;
+		case GREATER:
+			return maxCmp > 0;
+		default:
+			return maxCmp >= 0;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static int compare(Comparable<?> value, Comparable<?> constant) {
+		return ((Comparable<Object>) value).compareTo(constant);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	void write(DataOutput out) throws IOException {
+		out.writeLong(this.offset);
+		out.writeLong(this.length);
+		out.writeInt(this.numRows);
+		
+		for (int i = 0; i < this.types.length; i++) {
+			out.writeLong(this.chunkOffsets[i]);
+			out.writeInt(this.chunkLengths[i]);
+			out.writeInt(this.uncompressedLengths[i]);
+			out.writeInt(this.nullCounts[i]);
+			
+			// min and max are only present, if the column has a non-null value
+			if (this.nullCounts[i] < this.numRows) {
+				ColumnarFileFormat.writeValue(out, this.types[i], this.minValues[i]);
+				ColumnarFileFormat.writeValue(out, this.types[i], this.maxValues[i]);
+			}
+		}
+	}
+	
+	void read(DataInput in) throws IOException {
+		this.offset = in.readLong();
+		this.length = in.readLong();
+		this.numRows = in.readInt();
+		
+		for (int i = 0; i < this.types.length; i++) {
+			this.chunkOffsets[i] = in.readLong();
+			this.chunkLengths[i] = in.readInt();
+			this.uncompressedLengths[i] = in.readInt();
+			this.nullCounts[i] = in.readInt();
+			
+			if (this.nullCounts[i] < this.numRows) {
+				this.minValues[i] = ColumnarFileFormat.readValue(in, this.types[i]);
+				this.maxValues[i] = ColumnarFileFormat.readValue(in, this.types[i]);
+			} else {
+				this.minValues[i] = null;
+				this.maxValues[i] = null;
+			}
+		}
+	}
+}
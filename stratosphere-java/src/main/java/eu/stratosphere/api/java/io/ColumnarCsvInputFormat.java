@@ -0,0 +1,248 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import java.io.IOException;
+
+import com.google.common.base.Preconditions;
+
+import eu.stratosphere.api.common.io.GenericCsvInputFormat;
+import eu.stratosphere.api.java.columnar.ColumnBatch;
+import eu.stratosphere.api.java.typeutils.ResultTypeQueryable;
+import eu.stratosphere.api.java.typeutils.TypeInformation;
+import eu.stratosphere.api.java.typeutils.ValueTypeInfo;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.types.DoubleValue;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.LongValue;
+import eu.stratosphere.types.parser.FieldParser;
+import eu.stratosphere.util.StringUtils;
+
+/**
+ * A CSV input format that produces {@link ColumnBatch}es instead of individual tuples. Each call to
+ * {@link #nextRecord(ColumnBatch)} parses up to {@link #getBatchSize()} lines and writes the fields directly into
+ * the primitive column arrays of the batch. Numeric fields are parsed into mutable value holders, so no objects
+ * are created per field.
+ * <p>
+ * The supported column types are {@link Integer}, {@link Long}, {@link Double} and {@link String}.
+ */
+public class ColumnarCsvInputFormat extends GenericCsvInputFormat<ColumnBatch> implements ResultTypeQueryable<ColumnBatch> {
+
+	private static final long serialVersionUID = 1L;
+
+	private Class<?>[] columnTypes;
+
+	private int batchSize = ColumnBatch.DEFAULT_CAPACITY;
+
+
+	private transient Object[] parsedValues;
+
+	private transient Object[] currentColumns;
+
+	private transient int currentRow;
+
+
+	public ColumnarCsvInputFormat(Path filePath, Class<?> ... types) {
+		this(filePath, CsvInputFormat.DEFAULT_LINE_DELIMITER, CsvInputFormat.DEFAULT_FIELD_DELIMITER, types);
+	}
+
+	public ColumnarCsvInputFormat(Path filePath, String lineDelimiter, char fieldDelimiter, Class<?>... types) {
+		super(filePath);
+
+		setDelimiter(lineDelimiter);
+		setFieldDelimiter(fieldDelimiter);
+
+		setFieldTypes(types);
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Sets the types of the fields in the file. Fields with a <tt>null</tt> type are skipped.
+	 *
+	 * @param fieldTypes The field types.
+	 */
+	public void setFieldTypes(Class<?> ... fieldTypes) {
+		if (fieldTypes == null || fieldTypes.length == 0) {
+			throw new IllegalArgumentException("Field types must not be null or empty.");
+		}
+
+		this.columnTypes = denseColumnTypes(fieldTypes);
+		setFieldTypesGeneric(toParserTypes(fieldTypes));
+	}
+
+	public void setFields(int[] sourceFieldIndices, Class<?>[] fieldTypes) {
+		Preconditions.checkNotNull(sourceFieldIndices);
+		Preconditions.checkNotNull(fieldTypes);
+
+		this.columnTypes = denseColumnTypes(fieldTypes);
+		setFieldsGeneric(sourceFieldIndices, toParserTypes(fieldTypes));
+	}
+
+	public Class<?>[] getColumnTypes() {
+		return this.columnTypes;
+	}
+
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	/**
+	 * Sets the maximal number of rows that are put into one batch.
+	 *
+	 * @param batchSize The number of rows per batch.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1.");
+		}
+		this.batchSize = batchSize;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void open(FileInputSplit split) throws IOException {
+		super.open(split);
+
+		@SuppressWarnings("unchecked")
+		FieldParser<Object>[] fieldParsers = (FieldParser<Object>[]) getFieldParsers();
+
+		this.parsedValues = new Object[fieldParsers.length];
+		for (int i = 0; i < fieldParsers.length; i++) {
+			this.parsedValues[i] = fieldParsers[i].createValue();
+		}
+	}
+
+	@Override
+	public ColumnBatch nextRecord(ColumnBatch reuse) throws IOException {
+		final ColumnBatch batch = reuse == null ? new ColumnBatch(this.columnTypes, this.batchSize) : reuse;
+		if (batch.hasSchema(this.columnTypes) && batch.getCapacity() == this.batchSize) {
+			batch.clear();
+		} else {
+			batch.reset(this.columnTypes, this.batchSize);
+		}
+
+		// cache the column arrays for the row-wise filling
+		final Object[] columns = new Object[this.columnTypes.length];
+		for (int i = 0; i < columns.length; i++) {
+			final Class<?> type = this.columnTypes[i];
+			if (type == Integer.class) {
+				columns[i] = batch.getIntColumn(i);
+			} else if (type == Long.class) {
+				columns[i] = batch.getLongColumn(i);
+			} else if (type == Double.class) {
+				columns[i] = batch.getDoubleColumn(i);
+			} else {
+				columns[i] = batch.getStringColumn(i);
+			}
+		}
+		this.currentColumns = columns;
+		this.currentRow = 0;
+
+		while (this.currentRow < this.batchSize && !reachedEnd()) {
+			super.nextRecord(batch);
+		}
+
+		this.currentColumns = null;
+		if (this.currentRow > 0) {
+			batch.setSize(this.currentRow);
+			return batch;
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public ColumnBatch readRecord(ColumnBatch batch, byte[] bytes, int offset, int numBytes) {
+		final Object[] values = this.parsedValues;
+
+		if (parseRecord(values, bytes, offset, numBytes)) {
+			final Object[] columns = this.currentColumns;
+			final int row = this.currentRow++;
+
+			for (int i = 0; i < values.length; i++) {
+				final Object value = values[i];
+				if (value instanceof IntValue) {
+					((int[]) columns[i])[row] = ((IntValue) value).getValue();
+				} else if (value instanceof LongValue) {
+					((long[]) columns[i])[row] = ((LongValue) value).getValue();
+				} else if (value instanceof DoubleValue) {
+					((double[]) columns[i])[row] = ((DoubleValue) value).getValue();
+				} else {
+					((String[]) columns[i])[row] = (String) value;
+				}
+			}
+			return batch;
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public TypeInformation<ColumnBatch> getProducedType() {
+		return new ValueTypeInfo<ColumnBatch>(ColumnBatch.class);
+	}
+
+	@Override
+	public String toString() {
+		return "Columnar CSV Input (" + StringUtils.showControlCharacters(String.valueOf(getFieldDelimiter())) + ")";
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	private static Class<?>[] denseColumnTypes(Class<?>[] fieldTypes) {
+		int num = 0;
+		for (Class<?> type : fieldTypes) {
+			if (type != null) {
+				if (!ColumnBatch.isSupportedType(type)) {
+					throw new IllegalArgumentException("The type '" + type.getName() +
+						"' is not supported for the columnar CSV input format.");
+				}
+				num++;
+			}
+		}
+
+		Class<?>[] dense = new Class<?>[num];
+		for (int i = 0, k = 0; i < fieldTypes.length; i++) {
+			if (fieldTypes[i] != null) {
+				dense[k++] = fieldTypes[i];
+			}
+		}
+		return dense;
+	}
+
+	/**
+	 * Maps the column types to types with mutable parsers, so that numeric fields are parsed without
+	 * creating objects.
+	 */
+	private static Class<?>[] toParserTypes(Class<?>[] fieldTypes) {
+		Class<?>[] parserTypes = new Class<?>[fieldTypes.length];
+		for (int i = 0; i < fieldTypes.length; i++) {
+			final Class<?> type = fieldTypes[i];
+			if (type == Integer.class) {
+				parserTypes[i] = IntValue.class;
+			} else if (type == Long.class) {
+				parserTypes[i] = LongValue.class;
+			} else if (type == Double.class) {
+				parserTypes[i] = DoubleValue.class;
+			} else {
+				parserTypes[i] = type;
+			}
+		}
+		return parserTypes;
+	}
+}
@@ -0,0 +1,193 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import eu.stratosphere.core.fs.FSDataInputStream;
+import eu.stratosphere.core.fs.FileSystem;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.types.StringValue;
+
+/**
+ * Constants and helpers shared by the {@link ColumnarOutputFormat} and the {@link ColumnarInputFormat}.
+ * <p>
+ * A columnar file has the following layout:
+ * <pre>
+ *   header: MAGIC (int) | VERSION (byte) | number of columns (int) | column types (one byte each)
+ *   blocks: for every column a deflated chunk: null bitmap (only if the chunk has nulls) | non-null values
+ *   footer: number of blocks (int) | block infos | footer offset (long) | MAGIC (int)
+ * </pre>
+ * The block infos (see {@link ColumnarBlockInfo}) hold the positions of all column chunks and the per-column
+ * statistics, such that readers can read only the columns they need and skip blocks by their statistics.
+ */
+final class ColumnarFileFormat {
+	
+	static final int MAGIC_NUMBER = 0x53434f4c;
+	
+	static final byte VERSION = 1;
+	
+	static final int FOOTER_TAIL_SIZE = 8 + 4;
+	
+	static final byte TYPE_INT = 0;
+	
+	static final byte TYPE_LONG = 1;
+	
+	static final byte TYPE_DOUBLE = 2;
+	
+	static final byte TYPE_STRING = 3;
+	
+	// --------------------------------------------------------------------------------------------
+	
+	static byte[] getTypeCodes(Class<?>[] types) {
+		final byte[] codes = new byte[types.length];
+		for (int i = 0; i < types.length; i++) {
+			if (types[i] == Integer.class) {
+				codes[i] = TYPE_INT;
+			} else if (types[i] == Long.class) {
+				codes[i] = TYPE_LONG;
+			} else if (types[i] == Double.class) {
+				codes[i] = TYPE_DOUBLE;
+			} else if (types[i] == String.class) {
+				codes[i] = TYPE_STRING;
+			} else {
+				throw new IllegalArgumentException("The type '" + types[i].getName() +
+					"' is not supported by columnar files. Supported are Integer, Long, Double, and String.");
+			}
+		}
+		return codes;
+	}
+	
+	static void writeValue(DataOutput out, byte type, Object value) throws IOException {
+		switch (type) {
+		case TYPE_INT:
+			out.writeInt((Integer) value);
+			break;
+		case TYPE_LONG:
+			out.writeLong((Long) value);
+			break;
+		case TYPE_DOUBLE:
+			out.writeDouble((Double) value);
+			break;
+		default:
+			StringValue.writeString((String) value, out);
+		}
+	}
+	
+	static Comparable<?> readValue(DataInput in, byte type) throws IOException {
+		switch (type) {
+		case TYPE_INT:
+			return in.readInt();
+		case TYPE_LONG:
+			return in.readLong();
+		case TYPE_DOUBLE:
+			return in.readDouble();
+		case TYPE_STRING:
+			return StringValue.readString(in);
+		default:
+			throw new IOException("Corrupt columnar file: Unknown column type " + type);
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	static void writeHeader(DataOutput out, byte[] types) throws IOException {
+		out.writeInt(MAGIC_NUMBER);
+		out.writeByte(VERSION);
+		out.writeInt(types.length);
+		out.write(types);
+	}
+	
+	static int getHeaderSize(int numColumns) {
+		return 4 + 1 + 4 + numColumns;
+	}
+	
+	/**
+	 * Reads the column types and the block infos of the columnar file at the given path.
+	 * 
+	 * @param fs The file system holding the file.
+	 * @param file The path of the file.
+	 * @param fileLength The length of the file.
+	 * @return The footer of the file.
+	 * @throws IOException Thrown, if the file could not be read or is no columnar file.
+	 */
+	static Footer readFooter(FileSystem fs, Path file, long fileLength) throws IOException {
+		final FSDataInputStream stream = fs.open(file);
+		try {
+			return readFooter(stream, file, fileLength);
+		}
+		finally {
+			stream.close();
+		}
+	}
+	
+	static Footer readFooter(FSDataInputStream stream, Path file, long fileLength) throws IOException {
+		if (fileLength < getHeaderSize(0) + FOOTER_TAIL_SIZE) {
+			throw new IOException("The file " + file + " is too short to be a columnar file.");
+		}
+		
+		stream.seek(0);
+		final DataInputStream in = new DataInputStream(stream);
+		if (in.readInt() != MAGIC_NUMBER) {
+			throw new IOException("The file " + file + " is not a columnar file.");
+		}
+		final byte version = in.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported version " + version + " of columnar file " + file);
+		}
+		final byte[] types = new byte[in.readInt()];
+		in.readFully(types);
+		
+		stream.seek(fileLength - FOOTER_TAIL_SIZE);
+		final long footerOffset = in.readLong();
+		if (in.readInt() != MAGIC_NUMBER) {
+			throw new IOException("The columnar file " + file + " has no valid footer. Was it completely written?");
+		}
+		
+		stream.seek(footerOffset);
+		final int numBlocks = in.readInt();
+		final List<ColumnarBlockInfo> blocks = new ArrayList<ColumnarBlockInfo>(numBlocks);
+		for (int i = 0; i < numBlocks; i++) {
+			final ColumnarBlockInfo block = new ColumnarBlockInfo(types);
+			block.read(in);
+			blocks.add(block);
+		}
+		return new Footer(types, blocks);
+	}
+	
+	/**
+	 * The column types and block infos of a columnar file.
+	 */
+	static final class Footer {
+		
+		final byte[] types;
+		
+		final List<ColumnarBlockInfo> blocks;
+		
+		Footer(byte[] types, List<ColumnarBlockInfo> blocks) {
+			this.types = types;
+			this.blocks = blocks;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private ColumnarFileFormat() {}
+}
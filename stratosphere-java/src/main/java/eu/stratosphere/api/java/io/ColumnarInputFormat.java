@@ -0,0 +1,456 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
+import eu.stratosphere.api.common.io.FileInputFormat;
+import eu.stratosphere.api.common.io.statistics.BaseStatistics;
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.core.fs.BlockLocation;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.FileStatus;
+import eu.stratosphere.core.fs.FileSystem;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.util.StringUtils;
+
+/**
+ * An input format that reads the columnar files written by the {@link ColumnarOutputFormat}.
+ * <p>
+ * Only the columns selected via {@link #setFields(int[])} and the columns referenced by predicates are read
+ * and decompressed. Blocks whose statistics prove that no row satisfies one of the predicates added via
+ * {@link #addFieldPredicate(FieldComparisonPredicate)} are skipped, already when the input splits are created.
+ * The remaining rows are filtered by the predicates as well, such that only qualifying rows are returned.
+ * <p>
+ * Splits are aligned to the blocks of the files. The statistics report the number of rows and the compressed
+ * size of the selected columns in the blocks that are not skipped.
+ */
+public class ColumnarInputFormat<OUT extends Tuple> extends FileInputFormat<OUT> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final Log LOG = LogFactory.getLog(ColumnarInputFormat.class);
+	
+	private final byte[] types;
+	
+	private int[] fields;
+	
+	private final ArrayList<FieldComparisonPredicate> fieldPredicates = new ArrayList<FieldComparisonPredicate>();
+	
+	
+	private transient List<ColumnarBlockInfo> splitBlocks;
+	
+	private transient int nextBlock;
+	
+	private transient Object[][] columnValues;
+	
+	private transient boolean[] readColumns;
+	
+	private transient int numRows;
+	
+	private transient int currentRow;
+	
+	private transient Inflater inflater;
+	
+	private transient byte[] compressed;
+	
+	private transient byte[] uncompressed;
+	
+	
+	/**
+	 * Creates a new input format for columnar files with the given column types.
+	 * 
+	 * @param filePath The path of the file or directory of files to read.
+	 * @param types The types of all columns of the files.
+	 */
+	public ColumnarInputFormat(Path filePath, Class<?> ... types) {
+		super(filePath);
+		
+		if (types == null || types.length == 0) {
+			throw new IllegalArgumentException("At least one column type must be given.");
+		}
+		this.types = ColumnarFileFormat.getTypeCodes(types);
+		
+		this.fields = new int[types.length];
+		for (int i = 0; i < this.fields.length; i++) {
+			this.fields[i] = i;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	public int[] getFields() {
+		return this.fields;
+	}
+	
+	/**
+	 * Selects the columns to read. The produced tuples hold the selected columns in the given order.
+	 * 
+	 * @param fields The positions of the columns to read.
+	 */
+	public void setFields(int[] fields) {
+		if (fields == null || fields.length == 0) {
+			throw new IllegalArgumentException("At least one column must be selected.");
+		}
+		for (int field : fields) {
+			if (field < 0 || field >= this.types.length) {
+				throw new IllegalArgumentException("Column " + field + " does not exist.");
+			}
+		}
+		this.fields = fields;
+	}
+	
+	/**
+	 * Adds a predicate that rows must satisfy. The field of the predicate refers to the column position in the
+	 * file, not to the position in the produced tuple, so predicates may refer to columns that are not selected.
+	 * 
+	 * @param predicate The predicate to add.
+	 */
+	public void addFieldPredicate(FieldComparisonPredicate predicate) {
+		if (predicate == null) {
+			throw new NullPointerException();
+		}
+		if (predicate.getField() >= this.types.length) {
+			throw new IllegalArgumentException("Column " + predicate.getField() + " does not exist.");
+		}
+		this.fieldPredicates.add(predicate);
+	}
+	
+	public List<FieldComparisonPredicate> getFieldPredicates() {
+		return this.fieldPredicates;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//  Pre-flight: Splits and Statistics
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public FileInputSplit[] createInputSplits(int minNumSplits) throws IOException {
+		minNumSplits = Math.max(minNumSplits, this.numSplits);
+		
+		final FileSystem fs = this.filePath.getFileSystem();
+		final List<FileStatus> files = getFiles(fs);
+		
+		// gather the blocks that may contain qualifying rows
+		final List<List<ColumnarBlockInfo>> blocksPerFile = new ArrayList<List<ColumnarBlockInfo>>(files.size());
+		long totalLength = 0;
+		for (FileStatus file : files) {
+			final List<ColumnarBlockInfo> blocks = getCandidateBlocks(
+				ColumnarFileFormat.readFooter(fs, file.getPath(), file.getLen()));
+			for (ColumnarBlockInfo block : blocks) {
+				totalLength += block.getLength();
+			}
+			blocksPerFile.add(blocks);
+		}
+		
+		final long targetSplitSize = Math.max(1, totalLength / Math.max(minNumSplits, 1));
+		final List<FileInputSplit> splits = new ArrayList<FileInputSplit>();
+		
+		// combine consecutive blocks to splits of about the target size
+		for (int f = 0; f < files.size(); f++) {
+			final FileStatus file = files.get(f);
+			final List<ColumnarBlockInfo> blocks = blocksPerFile.get(f);
+			
+			int first = 0;
+			while (first < blocks.size()) {
+				final long start = blocks.get(first).getOffset();
+				long size = 0;
+				int last = first;
+				while (last < blocks.size() && size < targetSplitSize) {
+					size += blocks.get(last).getLength();
+					last++;
+				}
+				final ColumnarBlockInfo lastBlock = blocks.get(last - 1);
+				final long length = lastBlock.getOffset() + lastBlock.getLength() - start;
+				
+				final BlockLocation[] locations = fs.getFileBlockLocations(file, start, length);
+				final String[] hosts = locations.length > 0 ? locations[0].getHosts() : new String[0];
+				splits.add(new FileInputSplit(splits.size(), file.getPath(), start, length, hosts));
+				
+				first = last;
+			}
+		}
+		
+		// fill up with empty splits, such that every parallel instance gets a split
+		if (!files.isEmpty()) {
+			final Path lastFile = files.get(files.size() - 1).getPath();
+			while (splits.size() < minNumSplits) {
+				splits.add(new FileInputSplit(splits.size(), lastFile, 0, 0, new String[0]));
+			}
+		}
+		
+		return splits.toArray(new FileInputSplit[splits.size()]);
+	}
+	
+	@Override
+	public FileBaseStatistics getStatistics(BaseStatistics cachedStats) {
+		final FileBaseStatistics cachedFileStats = (cachedStats != null && cachedStats instanceof FileBaseStatistics) ?
+			(FileBaseStatistics) cachedStats : null;
+		
+		try {
+			final FileSystem fs = this.filePath.getFileSystem();
+			final ArrayList<FileStatus> allFiles = new ArrayList<FileStatus>(1);
+			
+			final FileBaseStatistics stats = getFileStats(cachedFileStats, this.filePath, fs, allFiles);
+			if (stats == null || stats == cachedFileStats) {
+				return stats;
+			}
+			
+			final boolean[] needed = getNeededColumns();
+			long size = 0;
+			long rows = 0;
+			for (FileStatus file : allFiles) {
+				if (!acceptFile(file)) {
+					continue;
+				}
+				for (ColumnarBlockInfo block : getCandidateBlocks(
+						ColumnarFileFormat.readFooter(fs, file.getPath(), file.getLen())))
+				{
+					rows += block.getNumRows();
+					for (int col = 0; col < needed.length; col++) {
+						if (needed[col]) {
+							size += block.getChunkLength(col);
+						}
+					}
+				}
+			}
+			
+			final float width = rows == 0 ? FileBaseStatistics.AVG_RECORD_BYTES_UNKNOWN : size / (float) rows;
+			return new FileBaseStatistics(stats.getLastModificationTime(), size == 0 ? FileBaseStatistics.SIZE_UNKNOWN : size, width);
+		}
+		catch (IOException ioex) {
+			if (LOG.isWarnEnabled()) {
+				LOG.warn("Could not determine statistics for columnar file '" + this.filePath + "' due to an io error: "
+						+ StringUtils.stringifyException(ioex));
+			}
+		}
+		return null;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//  Reading
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public void open(FileInputSplit split) throws IOException {
+		super.open(split);
+		
+		this.readColumns = getNeededColumns();
+		this.columnValues = new Object[this.types.length][];
+		this.inflater = new Inflater();
+		this.compressed = new byte[1024];
+		this.uncompressed = new byte[1024];
+		this.numRows = 0;
+		this.currentRow = 0;
+		this.nextBlock = 0;
+		this.splitBlocks = new ArrayList<ColumnarBlockInfo>();
+		
+		if (this.splitLength > 0) {
+			final FileSystem fs = split.getPath().getFileSystem();
+			final long fileLength = fs.getFileStatus(split.getPath()).getLen();
+			final ColumnarFileFormat.Footer footer = ColumnarFileFormat.readFooter(this.stream, split.getPath(), fileLength);
+			if (!Arrays.equals(footer.types, this.types)) {
+				throw new IOException("The column types of file " + split.getPath() +
+					" do not match the types of the input format.");
+			}
+			
+			final long splitEnd = this.splitStart + this.splitLength;
+			for (ColumnarBlockInfo block : getCandidateBlocks(footer)) {
+				if (block.getOffset() >= this.splitStart && block.getOffset() < splitEnd) {
+					this.splitBlocks.add(block);
+				}
+			}
+		}
+	}
+	
+	@Override
+	public boolean reachedEnd() {
+		return this.currentRow >= this.numRows && this.nextBlock >= this.splitBlocks.size();
+	}
+	
+	@Override
+	public OUT nextRecord(OUT reuse) throws IOException {
+		while (true) {
+			if (this.currentRow >= this.numRows) {
+				if (this.nextBlock >= this.splitBlocks.size()) {
+					return null;
+				}
+				readBlock(this.splitBlocks.get(this.nextBlock++));
+				continue;
+			}
+			
+			final int row = this.currentRow++;
+			if (!acceptRow(row)) {
+				continue;
+			}
+			
+			for (int i = 0; i < this.fields.length; i++) {
+				reuse.setField(this.columnValues[this.fields[i]][row], i);
+			}
+			return reuse;
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (this.inflater != null) {
+			this.inflater.end();
+			this.inflater = null;
+		}
+		this.columnValues = null;
+		this.splitBlocks = null;
+		super.close();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private boolean acceptRow(int row) {
+		for (int i = 0; i < this.fieldPredicates.size(); i++) {
+			final FieldComparisonPredicate predicate = this.fieldPredicates.get(i);
+			if (!predicate.accept(this.columnValues[predicate.getField()][row])) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void readBlock(ColumnarBlockInfo block) throws IOException {
+		final int rows = block.getNumRows();
+		
+		for (int col = 0; col < this.types.length; col++) {
+			if (!this.readColumns[col]) {
+				continue;
+			}
+			
+			// read and inflate the column chunk
+			final int compressedLength = block.getChunkLength(col);
+			final int uncompressedLength = block.getUncompressedLength(col);
+			if (this.compressed.length < compressedLength) {
+				this.compressed = new byte[compressedLength];
+			}
+			if (this.uncompressed.length < uncompressedLength) {
+				this.uncompressed = new byte[uncompressedLength];
+			}
+			
+			this.stream.seek(block.getChunkOffset(col));
+			int read = 0;
+			while (read < compressedLength) {
+				final int n = this.stream.read(this.compressed, read, compressedLength - read);
+				if (n < 0) {
+					throw new IOException("Unexpected end of columnar file " + this.filePath);
+				}
+				read += n;
+			}
+			
+			this.inflater.reset();
+			this.inflater.setInput(this.compressed, 0, compressedLength);
+			try {
+				int inflated = 0;
+				while (inflated < uncompressedLength) {
+					final int n = this.inflater.inflate(this.uncompressed, inflated, uncompressedLength - inflated);
+					if (n == 0 && (this.inflater.finished() || this.inflater.needsInput())) {
+						throw new IOException("Corrupt column chunk in columnar file " + this.filePath);
+					}
+					inflated += n;
+				}
+			}
+			catch (DataFormatException dfex) {
+				throw new IOException("Corrupt column chunk in columnar file " + this.filePath, dfex);
+			}
+			
+			// decode the values
+			Object[] values = this.columnValues[col];
+			if (values == null || values.length < rows) {
+				values = new Object[rows];
+				this.columnValues[col] = values;
+			}
+			
+			final DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.uncompressed, 0, uncompressedLength));
+			final byte type = this.types[col];
+			if (block.getNullCount(col) > 0) {
+				final byte[] nulls = new byte[(rows + 7) / 8];
+				in.readFully(nulls);
+				for (int row = 0; row < rows; row++) {
+					values[row] = (nulls[row >>> 3] & (1 << (row & 7))) != 0 ? null : ColumnarFileFormat.readValue(in, type);
+				}
+			} else {
+				for (int row = 0; row < rows; row++) {
+					values[row] = ColumnarFileFormat.readValue(in, type);
+				}
+			}
+		}
+		
+		this.numRows = rows;
+		this.currentRow = 0;
+	}
+	
+	private boolean[] getNeededColumns() {
+		final boolean[] needed = new boolean[this.types.length];
+		for (int field : this.fields) {
+			needed[field] = true;
+		}
+		for (FieldComparisonPredicate predicate : this.fieldPredicates) {
+			needed[predicate.getField()] = true;
+		}
+		return needed;
+	}
+	
+	private List<ColumnarBlockInfo> getCandidateBlocks(ColumnarFileFormat.Footer footer) {
+		final List<ColumnarBlockInfo> candidates = new ArrayList<ColumnarBlockInfo>(footer.blocks.size());
+		
+		Blocks:
+		for (ColumnarBlockInfo block : footer.blocks) {
+			for (FieldComparisonPredicate predicate : this.fieldPredicates) {
+				if (!block.canMatch(predicate)) {
+					continue Blocks;
+				}
+			}
+			candidates.add(block);
+		}
+		return candidates;
+	}
+	
+	private List<FileStatus> getFiles(FileSystem fs) throws IOException {
+		final List<FileStatus> files = new ArrayList<FileStatus>();
+		final FileStatus pathFile = fs.getFileStatus(this.filePath);
+		
+		if (pathFile.isDir()) {
+			for (FileStatus file : fs.listStatus(this.filePath)) {
+				if (!file.isDir() && acceptFile(file)) {
+					files.add(file);
+				}
+			}
+		} else {
+			files.add(pathFile);
+		}
+		return files;
+	}
+	
+	@Override
+	public String toString() {
+		return "ColumnarInputFormat (" + getFilePath() + ") " + Arrays.toString(this.fields);
+	}
+}
@@ -0,0 +1,300 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import eu.stratosphere.api.common.io.FileOutputFormat;
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.core.fs.Path;
+
+/**
+ * An output format that writes tuples into a columnar, block structured file. The tuples are collected into
+ * blocks of {@link #getRowsPerBlock()} rows. Each column of a block is deflated independently, and the minimum
+ * and maximum value as well as the number of nulls are recorded per block and column in the file footer.
+ * The files are read by the {@link ColumnarInputFormat}.
+ * <p>
+ * The supported column types are {@link Integer}, {@link Long}, {@link Double} and {@link String}.
+ */
+public class ColumnarOutputFormat<T extends Tuple> extends FileOutputFormat<T> {
+	
+	private static final long serialVersionUID = 1L;
+	
+	/**
+	 * The default number of rows per block.
+	 */
+	public static final int DEFAULT_ROWS_PER_BLOCK = 64 * 1024;
+	
+	/**
+	 * The configuration key to set the number of rows per block.
+	 */
+	public static final String ROWS_PER_BLOCK_PARAMETER_KEY = "columnar.output.rows_per_block";
+	
+	private final byte[] types;
+	
+	private int rowsPerBlock = DEFAULT_ROWS_PER_BLOCK;
+	
+	
+	private transient Object[][] columns;
+	
+	private transient int numRows;
+	
+	private transient CountingOutputStream out;
+	
+	private transient DataOutputStream dataOut;
+	
+	private transient List<ColumnarBlockInfo> blocks;
+	
+	private transient ByteArrayOutputStream chunkBytes;
+	
+	private transient byte[] compressed;
+	
+	private transient Deflater deflater;
+	
+	
+	public ColumnarOutputFormat(Path outputPath, Class<?> ... types) {
+		super(outputPath);
+		
+		if (types == null || types.length == 0) {
+			throw new IllegalArgumentException("At least one column type must be given.");
+		}
+		this.types = ColumnarFileFormat.getTypeCodes(types);
+	}
+	
+	
+	public int getRowsPerBlock() {
+		return this.rowsPerBlock;
+	}
+	
+	public void setRowsPerBlock(int rowsPerBlock) {
+		if (rowsPerBlock < 1) {
+			throw new IllegalArgumentException("The number of rows per block must be at least 1.");
+		}
+		this.rowsPerBlock = rowsPerBlock;
+	}
+	
+	/**
+	 * Columnar output cannot be rolled over to new files, because every file ends with the index of its blocks.
+	 */
+	@Override
+	public void setRollover(long maxBytes, long maxRecords) {
+		throw new UnsupportedOperationException("The columnar output format does not support rolling over to new files.");
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public void configure(Configuration parameters) {
+		super.configure(parameters);
+		
+		final int rows = parameters.getInteger(ROWS_PER_BLOCK_PARAMETER_KEY, -1);
+		if (rows != -1) {
+			setRowsPerBlock(rows);
+		}
+	}
+	
+	@Override
+	public void open(int taskNumber, int numTasks) throws IOException {
+		super.open(taskNumber, numTasks);
+		
+		this.columns = new Object[this.types.length][this.rowsPerBlock];
+		this.numRows = 0;
+		this.blocks = new ArrayList<ColumnarBlockInfo>();
+		this.chunkBytes = new ByteArrayOutputStream(1024);
+		this.compressed = new byte[1024];
+		this.deflater = new Deflater();
+		
+		this.out = new CountingOutputStream(this.stream);
+		this.dataOut = new DataOutputStream(this.out);
+		ColumnarFileFormat.writeHeader(this.dataOut, this.types);
+	}
+	
+	@Override
+	public void writeRecord(T record) throws IOException {
+		if (record.getArity() != this.types.length) {
+			throw new IllegalArgumentException("The tuple has " + record.getArity() + " fields, but the file has " +
+				this.types.length + " columns.");
+		}
+		
+		for (int i = 0; i < this.types.length; i++) {
+			this.columns[i][this.numRows] = record.getField(i);
+		}
+		if (++this.numRows == this.rowsPerBlock) {
+			writeBlock();
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			if (this.dataOut != null) {
+				if (this.numRows > 0) {
+					writeBlock();
+				}
+				
+				// write the footer with the block infos
+				final long footerOffset = this.out.getCount();
+				this.dataOut.writeInt(this.blocks.size());
+				for (ColumnarBlockInfo block : this.blocks) {
+					block.write(this.dataOut);
+				}
+				this.dataOut.writeLong(footerOffset);
+				this.dataOut.writeInt(ColumnarFileFormat.MAGIC_NUMBER);
+				this.dataOut.flush();
+			}
+		}
+		finally {
+			this.dataOut = null;
+			this.columns = null;
+			this.blocks = null;
+			if (this.deflater != null) {
+				this.deflater.end();
+				this.deflater = null;
+			}
+			super.close();
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@SuppressWarnings("unchecked")
+	private void writeBlock() throws IOException {
+		final ColumnarBlockInfo block = new ColumnarBlockInfo(this.types);
+		final long blockOffset = this.out.getCount();
+		final int rows = this.numRows;
+		
+		for (int col = 0; col < this.types.length; col++) {
+			final Object[] values = this.columns[col];
+			final byte type = this.types[col];
+			
+			// gather the statistics
+			int nullCount = 0;
+			Comparable<Object> min = null;
+			Comparable<Object> max = null;
+			for (int row = 0; row < rows; row++) {
+				final Comparable<Object> value = (Comparable<Object>) values[row];
+				if (value == null) {
+					nullCount++;
+				} else if (min == null) {
+					min = value;
+					max = value;
+				} else if (value.compareTo(min) < 0) {
+					min = value;
+				} else if (value.compareTo(max) > 0) {
+					max = value;
+				}
+			}
+			
+			// serialize the chunk: the null bitmap, if necessary, followed by the non-null values
+			this.chunkBytes.reset();
+			final DataOutputStream chunkOut = new DataOutputStream(this.chunkBytes);
+			if (nullCount > 0) {
+				for (int row = 0; row < rows; row += 8) {
+					int bits = 0;
+					for (int bit = 0; bit < 8 && row + bit < rows; bit++) {
+						if (values[row + bit] == null) {
+							bits |= 1 << bit;
+						}
+					}
+					chunkOut.writeByte(bits);
+				}
+			}
+			for (int row = 0; row < rows; row++) {
+				if (values[row] != null) {
+					ColumnarFileFormat.writeValue(chunkOut, type, values[row]);
+				}
+				values[row] = null;
+			}
+			chunkOut.flush();
+			
+			final int uncompressedLength = this.chunkBytes.size();
+			final int compressedLength = compress(this.chunkBytes.toByteArray(), uncompressedLength);
+			
+			block.setChunk(col, this.out.getCount(), compressedLength, uncompressedLength, nullCount, min, max);
+			this.dataOut.write(this.compressed, 0, compressedLength);
+		}
+		
+		block.setBlock(blockOffset, this.out.getCount() - blockOffset, rows);
+		this.blocks.add(block);
+		this.numRows = 0;
+	}
+	
+	private int compress(byte[] data, int len) {
+		this.deflater.reset();
+		this.deflater.setInput(data, 0, len);
+		this.deflater.finish();
+		
+		int compressedLength = 0;
+		while (!this.deflater.finished()) {
+			if (compressedLength == this.compressed.length) {
+				final byte[] nc = new byte[this.compressed.length * 2];
+				System.arraycopy(this.compressed, 0, nc, 0, compressedLength);
+				this.compressed = nc;
+			}
+			compressedLength += this.deflater.deflate(this.compressed, compressedLength,
+				this.compressed.length - compressedLength);
+		}
+		return compressedLength;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Keeps track of the position in the file, as the file system streams do not expose it.
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+		
+		private final OutputStream out;
+		
+		private long count;
+		
+		CountingOutputStream(OutputStream out) {
+			this.out = out;
+		}
+		
+		long getCount() {
+			return this.count;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			this.count++;
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			this.out.write(b, off, len);
+			this.count += len;
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			this.out.flush();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return "ColumnarOutputFormat (" + getOutputFilePath() + ")";
+	}
+}
@@ -16,13 +16,19 @@ package eu.stratosphere.api.java.io;
 
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 import com.google.common.base.Preconditions;
 
 import eu.stratosphere.api.common.io.GenericCsvInputFormat;
+import eu.stratosphere.api.common.io.ParseException;
+import eu.stratosphere.api.java.functions.FilterFunction;
 import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.core.fs.FileInputSplit;
 import eu.stratosphere.core.fs.Path;
 import eu.stratosphere.types.parser.FieldParser;
@@ -40,6 +46,10 @@ public class CsvInputFormat<OUT extends Tuple> extends GenericCsvInputFormat<OUT
 
 	private transient Object[] parsedValues;
 	
+	private transient FilterFunction<OUT>[] filters;
+	
+	private ArrayList<FilterFunction<OUT>> pushedFilters;
+	
 	
 	public CsvInputFormat(Path filePath) {
 		super(filePath);
@@ -86,6 +96,30 @@ public class CsvInputFormat<OUT extends Tuple> extends GenericCsvInputFormat<OUT
 		return super.getGenericFieldTypes();
 	}
 	
+	/**
+	 * Adds a filter that is applied to every parsed tuple before it is returned by the format. Tuples that are
+	 * rejected by the filter are not emitted. Only filters whose result depends solely on the record may be
+	 * added here (see {@link eu.stratosphere.api.java.functions.FunctionAnnotation.PushableFilter}).
+	 * 
+	 * @param filter The filter to apply.
+	 */
+	public void addPushedFilter(FilterFunction<OUT> filter) {
+		Preconditions.checkNotNull(filter);
+		
+		if (this.pushedFilters == null) {
+			this.pushedFilters = new ArrayList<FilterFunction<OUT>>();
+		}
+		this.pushedFilters.add(filter);
+	}
+	
+	public List<FilterFunction<OUT>> getPushedFilters() {
+		if (this.pushedFilters == null) {
+			return Collections.emptyList();
+		} else {
+			return Collections.unmodifiableList(this.pushedFilters);
+		}
+	}
+	
 	@Override
 	public void open(FileInputSplit split) throws IOException {
 		super.open(split);
@@ -98,6 +132,54 @@ public class CsvInputFormat<OUT extends Tuple> extends GenericCsvInputFormat<OUT
 		for (int i = 0; i < fieldParsers.length; i++) {
 			this.parsedValues[i] = fieldParsers[i].createValue();
 		}
+		
+		// open the pushed filters
+		if (this.pushedFilters != null && this.pushedFilters.size() > 0) {
+			@SuppressWarnings("unchecked")
+			FilterFunction<OUT>[] filters = (FilterFunction<OUT>[]) this.pushedFilters.toArray(new FilterFunction[this.pushedFilters.size()]);
+			for (FilterFunction<OUT> f : filters) {
+				try {
+					f.open(new Configuration());
+				} catch (Exception e) {
+					throw new IOException("The pushed filter '" + f + "' could not be opened: " + e.getMessage(), e);
+				}
+			}
+			this.filters = filters;
+		} else {
+			this.filters = null;
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		try {
+			super.close();
+		} finally {
+			if (this.filters != null) {
+				final FilterFunction<OUT>[] filters = this.filters;
+				this.filters = null;
+				
+				for (FilterFunction<OUT> f : filters) {
+					try {
+						f.close();
+					} catch (Exception e) {
+						throw new IOException("The pushed filter '" + f + "' could not be closed: " + e.getMessage(), e);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	public OUT nextRecord(OUT record) throws IOException {
+		// the callers reuse the returned object, so lines that are rejected by a predicate or a pushed filter
+		// must be skipped here instead of being returned as null
+		OUT returnRecord;
+		do {
+			returnRecord = super.nextRecord(record);
+		} while (returnRecord == null && !reachedEnd());
+		
+		return returnRecord;
 	}
 
 	@Override
@@ -107,6 +189,18 @@ public class CsvInputFormat<OUT extends Tuple> extends GenericCsvInputFormat<OUT
 			for (int i = 0; i < parsedValues.length; i++) {
 				reuse.setField(parsedValues[i], i);
 			}
+			
+			if (this.filters != null) {
+				for (FilterFunction<OUT> f : this.filters) {
+					try {
+						if (!f.filter(reuse)) {
+							return null;
+						}
+					} catch (Exception e) {
+						throw new ParseException("The pushed filter '" + f + "' failed: " + e.getMessage(), e);
+					}
+				}
+			}
 			return reuse;
 		} else {
 			return null;
@@ -63,6 +63,11 @@ public class TextOutputFormat<T> extends FileOutputFormat<T> {
 	
 	// --------------------------------------------------------------------------------------------
 	
+	@Override
+	protected byte[] getRecordDelimiter() {
+		return new byte[] { (byte) NEWLINE };
+	}
+	
 	@Override
 	public void open(int taskNumber, int numTasks) throws IOException {
 		super.open(taskNumber, numTasks);
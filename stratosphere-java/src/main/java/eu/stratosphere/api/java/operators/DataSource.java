@@ -55,6 +55,15 @@ public class DataSource<OUT> extends DataSet<OUT> {
 		return this;
 	}
 	
+	/**
+	 * Returns the name of this data source, or <tt>null</tt>, if no name has been set.
+	 * 
+	 * @return The name of this data source.
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
 	/**
 	 * Returns the degree of parallelism of this data source.
 	 * 
@@ -14,6 +14,7 @@
  **********************************************************************************************************************/
 package eu.stratosphere.api.java.operators;
 
+import eu.stratosphere.api.common.io.InputFormat;
 import eu.stratosphere.api.common.operators.AbstractUdfOperator;
 import eu.stratosphere.api.common.operators.BulkIteration;
 import eu.stratosphere.api.common.operators.GenericDataSink;
@@ -23,14 +24,25 @@ import eu.stratosphere.api.java.DataSet;
 import eu.stratosphere.api.java.DeltaIteration;
 import eu.stratosphere.api.java.DeltaIterationResultSet;
 import eu.stratosphere.api.java.IterativeDataSet;
+import eu.stratosphere.api.java.functions.FieldComparisonFilter;
+import eu.stratosphere.api.java.functions.FilterFunction;
+import eu.stratosphere.api.java.functions.FunctionAnnotation;
+import eu.stratosphere.api.java.io.CsvInputFormat;
 import eu.stratosphere.api.java.operators.translation.JavaPlan;
 import eu.stratosphere.api.java.operators.translation.PlanBulkIterationOperator;
 import eu.stratosphere.api.java.operators.translation.PlanDeltaIterationOperator;
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.api.java.typeutils.TupleTypeInfo;
+import eu.stratosphere.api.java.typeutils.TypeInformation;
+import eu.stratosphere.util.InstantiationUtil;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 
 /**
@@ -41,10 +53,22 @@ public class OperatorTranslation {
 	/** The already translated operations */
 	private Map<DataSet<?>, Operator> translated = new HashMap<DataSet<?>, Operator>();
 	
+	/** The number of operations (and sinks) that consume each data set */
+	private Map<DataSet<?>, Integer> numConsumers = new HashMap<DataSet<?>, Integer>();
+	
+	/** The data sets that were replaced by pushing operations into their sources */
+	private Map<DataSet<?>, DataSet<?>> rewritten = new HashMap<DataSet<?>, DataSet<?>>();
+	
 	
 	public JavaPlan translateToPlan(List<DataSink<?>> sinks, String jobName) {
 		List<GenericDataSink> planSinks = new ArrayList<GenericDataSink>();
 		
+		// count the consumers of all data sets, which decides whether a source may be rewritten
+		Set<DataSet<?>> visited = new HashSet<DataSet<?>>();
+		for (DataSink<?> sink : sinks) {
+			countConsumers(sink.getDataSet(), visited);
+		}
+		
 		for (DataSink<?> sink : sinks) {
 			planSinks.add(translate(sink));
 		}
@@ -72,6 +96,14 @@ public class OperatorTranslation {
 			return previous;
 		}
 		
+		// check if the operation can be pushed into its source
+		DataSet<?> replacement = rewrite(dataSet);
+		if (replacement != dataSet) {
+			Operator dataFlowOp = translate(replacement);
+			this.translated.put(dataSet, dataFlowOp);
+			return dataFlowOp;
+		}
+		
 		Operator dataFlowOp;
 		
 		if (dataSet instanceof DataSource) {
@@ -174,4 +206,227 @@ public class OperatorTranslation {
 			}
 		}
 	}
+	
+	// --------------------------------------------------------------------------------------------
+	//  Push-down of projections and filters into CSV sources
+	// --------------------------------------------------------------------------------------------
+	
+	private void countConsumers(DataSet<?> dataSet, Set<DataSet<?>> visited) {
+		Integer count = this.numConsumers.get(dataSet);
+		this.numConsumers.put(dataSet, count == null ? 1 : count + 1);
+		
+		if (!visited.add(dataSet)) {
+			return;
+		}
+		
+		List<DataSet<?>> inputs = new ArrayList<DataSet<?>>();
+		
+		if (dataSet instanceof SingleInputOperator) {
+			inputs.add(((SingleInputOperator<?, ?, ?>) dataSet).getInput());
+		}
+		else if (dataSet instanceof TwoInputOperator) {
+			inputs.add(((TwoInputOperator<?, ?, ?, ?>) dataSet).getInput1());
+			inputs.add(((TwoInputOperator<?, ?, ?, ?>) dataSet).getInput2());
+		}
+		else if (dataSet instanceof BulkIterationResultSet<?>) {
+			BulkIterationResultSet<?> iterationEnd = (BulkIterationResultSet<?>) dataSet;
+			inputs.add(iterationEnd.getIterationHead());
+			inputs.add(iterationEnd.getNextPartialSolution());
+			if (iterationEnd.getTerminationCriterion() != null) {
+				inputs.add(iterationEnd.getTerminationCriterion());
+			}
+		}
+		else if (dataSet instanceof DeltaIterationResultSet<?, ?>) {
+			DeltaIterationResultSet<?, ?> iterationEnd = (DeltaIterationResultSet<?, ?>) dataSet;
+			inputs.add(iterationEnd.getNextSolutionSet());
+			inputs.add(iterationEnd.getNextWorkset());
+			inputs.add(iterationEnd.getIterationHead().getInitialSolutionSet());
+			inputs.add(iterationEnd.getIterationHead().getInitialWorkset());
+		}
+		
+		if (dataSet instanceof UdfOperator) {
+			inputs.addAll(((UdfOperator<?>) dataSet).getBroadcastSets().values());
+		}
+		
+		for (DataSet<?> input : inputs) {
+			countConsumers(input, visited);
+		}
+	}
+	
+	/**
+	 * Checks whether the given data set is a projection or a filter whose input is produced by a CSV source that
+	 * has no other consumers. If so, the operation is pushed into (a copy of) the source's input format, such that
+	 * unneeded fields are skipped while scanning the bytes and rejected lines are never emitted as tuples.
+	 * 
+	 * @param dataSet The data set to rewrite.
+	 * @return The data set replacing the given data set, or the given data set itself, if it cannot be rewritten.
+	 */
+	private DataSet<?> rewrite(DataSet<?> dataSet) {
+		DataSet<?> previous = this.rewritten.get(dataSet);
+		if (previous != null) {
+			return previous;
+		}
+		
+		DataSet<?> result = dataSet;
+		
+		if (dataSet instanceof ProjectOperator || dataSet instanceof FilterOperator) {
+			SingleInputOperator<?, ?, ?> op = (SingleInputOperator<?, ?, ?>) dataSet;
+			
+			// the input may itself have been pushed into the source
+			DataSet<?> input = rewrite(op.getInput());
+			Integer consumers = this.numConsumers.get(op.getInput());
+			
+			if (input instanceof DataSource && consumers != null && consumers == 1 &&
+					((DataSource<?>) input).getInputFormat() instanceof CsvInputFormat)
+			{
+				DataSource<?> source = (DataSource<?>) input;
+				
+				if (dataSet instanceof ProjectOperator) {
+					DataSet<?> pushed = pushProjection((ProjectOperator<?, ?>) dataSet, source);
+					result = pushed != null ? pushed : dataSet;
+				} else {
+					DataSet<?> pushed = pushFilter((FilterOperator<?>) dataSet, source);
+					result = pushed != null ? pushed : dataSet;
+				}
+			}
+		}
+		
+		this.rewritten.put(dataSet, result);
+		return result;
+	}
+	
+	private DataSet<?> pushProjection(ProjectOperator<?, ?> project, DataSource<?> source) {
+		CsvInputFormat<?> format = (CsvInputFormat<?>) source.getInputFormat();
+		
+		// projections change the field positions, which would invalidate already pushed predicates
+		if (!format.getFieldPredicates().isEmpty() || !format.getPushedFilters().isEmpty()) {
+			return null;
+		}
+		if (!(source.getType() instanceof TupleTypeInfo)) {
+			return null;
+		}
+		
+		// map the tuple fields to the positions of the fields in the file
+		Class<?>[] sparseTypes = format.getFieldTypes();
+		int[] filePositions = new int[format.getNumberOfNonNullFields()];
+		Class<?>[] denseTypes = new Class<?>[filePositions.length];
+		for (int i = 0, k = 0; i < sparseTypes.length; i++) {
+			if (sparseTypes[i] != null) {
+				filePositions[k] = i;
+				denseTypes[k++] = sparseTypes[i];
+			}
+		}
+		
+		// the fields that actually need to be parsed, in file order
+		TreeSet<Integer> needed = new TreeSet<Integer>();
+		for (int f : project.fields) {
+			needed.add(f);
+		}
+		if (needed.size() == filePositions.length) {
+			// nothing to save
+			return null;
+		}
+		
+		int[] newPositions = new int[needed.size()];
+		Class<?>[] newTypes = new Class<?>[needed.size()];
+		TypeInformation<?>[] newFieldTypes = new TypeInformation<?>[needed.size()];
+		Map<Integer, Integer> remapping = new HashMap<Integer, Integer>();
+		
+		TupleTypeInfo<?> sourceType = (TupleTypeInfo<?>) source.getType();
+		int pos = 0;
+		for (int f : needed) {
+			newPositions[pos] = filePositions[f];
+			newTypes[pos] = denseTypes[f];
+			newFieldTypes[pos] = sourceType.getTypeAt(f);
+			remapping.put(f, pos);
+			pos++;
+		}
+		
+		CsvInputFormat<Tuple> newFormat = copyFormat(format);
+		newFormat.setFields(newPositions, newTypes);
+		
+		// check whether the projection is fully realized by the source, or whether fields must be reordered
+		boolean inOrder = project.fields.length == needed.size();
+		for (int i = 0; inOrder && i < project.fields.length; i++) {
+			inOrder = remapping.get(project.fields[i]) == i;
+		}
+		
+		if (inOrder) {
+			@SuppressWarnings("unchecked")
+			TypeInformation<Tuple> resultType = (TypeInformation<Tuple>) project.getResultType();
+			return createSource(source, newFormat, resultType);
+		}
+		else {
+			DataSource<Tuple> newSource = createSource(source, newFormat, new TupleTypeInfo<Tuple>(newFieldTypes));
+			
+			int[] residualFields = new int[project.fields.length];
+			for (int i = 0; i < residualFields.length; i++) {
+				residualFields[i] = remapping.get(project.fields[i]);
+			}
+			
+			@SuppressWarnings("unchecked")
+			TupleTypeInfo<Tuple> resultType = (TupleTypeInfo<Tuple>) project.getResultType();
+			ProjectOperator<Tuple, Tuple> residual = new ProjectOperator<Tuple, Tuple>(newSource, residualFields, resultType);
+			if (project.getName() != null) {
+				residual.name(project.getName());
+			}
+			if (project.getParallelism() > 0) {
+				residual.setParallelism(project.getParallelism());
+			}
+			return residual;
+		}
+	}
+	
+	private DataSet<?> pushFilter(FilterOperator<?> filter, DataSource<?> source) {
+		// filters that are parameterized or use broadcast variables need the operator's runtime context
+		if (!filter.getBroadcastSets().isEmpty() ||
+				(filter.getParameters() != null && !filter.getParameters().keySet().isEmpty()))
+		{
+			return null;
+		}
+		
+		FilterFunction<?> function = filter.function;
+		CsvInputFormat<Tuple> newFormat;
+		
+		if (function instanceof FieldComparisonFilter) {
+			newFormat = copyFormat((CsvInputFormat<?>) source.getInputFormat());
+			newFormat.addFieldPredicate(((FieldComparisonFilter<?>) function).getPredicate());
+		}
+		else if (function.getClass().isAnnotationPresent(FunctionAnnotation.PushableFilter.class)) {
+			newFormat = copyFormat((CsvInputFormat<?>) source.getInputFormat());
+			@SuppressWarnings("unchecked")
+			FilterFunction<Tuple> f = (FilterFunction<Tuple>) function;
+			newFormat.addPushedFilter(f);
+		}
+		else {
+			return null;
+		}
+		
+		@SuppressWarnings("unchecked")
+		TypeInformation<Tuple> type = (TypeInformation<Tuple>) source.getType();
+		return createSource(source, newFormat, type);
+	}
+	
+	private static DataSource<Tuple> createSource(DataSource<?> original, InputFormat<Tuple, ?> format, TypeInformation<Tuple> type) {
+		DataSource<Tuple> source = new DataSource<Tuple>(original.getExecutionEnvironment(), format, type);
+		if (original.getName() != null) {
+			source.name(original.getName());
+		}
+		if (original.getParallelism() > 0) {
+			source.setParallelism(original.getParallelism());
+		}
+		return source;
+	}
+	
+	private static CsvInputFormat<Tuple> copyFormat(CsvInputFormat<?> format) {
+		try {
+			byte[] bytes = InstantiationUtil.serializeObject(format);
+			@SuppressWarnings("unchecked")
+			CsvInputFormat<Tuple> copy = (CsvInputFormat<Tuple>) InstantiationUtil.deserializeObject(bytes, format.getClass().getClassLoader());
+			return copy;
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Error while creating the data flow plan for the program: Could not copy the input format " + format + ".", e);
+		}
+	}
 }
@@ -235,6 +235,20 @@ public class FunctionAnnotation {
 		int[] value();
 	}
 	
+	/**
+	 * Declares a {@link JoinFunction} to be a pure concatenation: For each pair of matching records, it emits
+	 * exactly one record that contains the fields of both records (as for example created through
+	 * {@link eu.stratosphere.types.Record#unionFields(eu.stratosphere.types.Record)}), and it has no other
+	 * effects. The fields that the two inputs contribute must be declared through the {@link ConstantFieldsFirst}
+	 * and {@link ConstantFieldsSecond} annotations and must not overlap.
+	 * 
+	 * Trees of such joins may be reordered by the optimizer, with each function possibly applied to other
+	 * inputs than in the original program.
+	 */
+	@Target(ElementType.TYPE)
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface ConcatenatingJoin {}
+	
 	
 	/**
 	 * Private constructor to prevent instantiation. This class is intended only as a container.
@@ -16,6 +16,7 @@ package eu.stratosphere.api.java.record.io;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 
 import org.apache.commons.logging.Log;
@@ -247,6 +248,16 @@ public class CsvOutputFormat extends FileOutputFormat {
 		this.lenient = parameters.getBoolean(LENIENT_PARSING, false);
 	}
 
+	@Override
+	protected byte[] getRecordDelimiter()
+	{
+		try {
+			return this.charsetName == null ? this.recordDelimiter.getBytes() : this.recordDelimiter.getBytes(this.charsetName);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalArgumentException("The charset with the name '" + this.charsetName + "' is not supported.", e);
+		}
+	}
+	
 	@Override
 	public void open(int taskNumber, int numTasks) throws IOException
 	{
@@ -99,6 +99,12 @@ public abstract class DelimitedOutputFormat extends FileOutputFormat {
 		}
 	}
 	
+	@Override
+	protected byte[] getRecordDelimiter()
+	{
+		return this.delimiter;
+	}
+	
 	@Override
 	public void open(int taskNumber, int numTasks) throws IOException
 	{
@@ -68,6 +68,18 @@ public class JoinOperator extends JoinOperatorBase<JoinFunction> implements Reco
 		return new Builder(new UserCodeClassWrapper<JoinFunction>(udf), keyClass, keyColumn1, keyColumn2);
 	}
 	
+	/**
+	 * Creates a Builder with the provided wrapped {@link JoinFunction} implementation.
+	 * 
+	 * @param udf The wrapper of the {@link JoinFunction} implementation for this Match operator.
+	 * @param keyClass The class of the key data type.
+	 * @param keyColumn1 The position of the key in the first input's records.
+	 * @param keyColumn2 The position of the key in the second input's records.
+	 */
+	public static Builder builder(UserCodeWrapper<JoinFunction> udf, Class<? extends Key<?>> keyClass, int keyColumn1, int keyColumn2) {
+		return new Builder(udf, keyClass, keyColumn1, keyColumn2);
+	}
+	
 	/**
 	 * The private constructor that only gets invoked from the Builder.
 	 * @param builder
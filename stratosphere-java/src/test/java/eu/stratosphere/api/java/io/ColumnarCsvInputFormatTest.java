@@ -0,0 +1,315 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Level;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import eu.stratosphere.api.java.columnar.ColumnBatch;
+import eu.stratosphere.api.java.columnar.ColumnBatchProjection;
+import eu.stratosphere.api.java.columnar.ColumnBatchUnpacker;
+import eu.stratosphere.api.java.columnar.ColumnComparisonFilter;
+import eu.stratosphere.api.java.columnar.ColumnComparisonFilter.Comparison;
+import eu.stratosphere.api.java.tuple.Tuple2;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.LogUtils;
+
+public class ColumnarCsvInputFormatTest {
+
+	private static final Path PATH = new Path("an/ignored/file/");
+
+
+	@BeforeClass
+	public static void initialize() {
+		LogUtils.initializeDefaultConsoleLogger(Level.WARN);
+	}
+
+	@Test
+	public void testReadBatches() {
+		try {
+			final String fileContent = "1|10|abc|1.5\n2|20|def|2.5\n3|30|ghi|3.5\n";
+			final FileInputSplit split = createTempFile(fileContent);
+
+			final ColumnarCsvInputFormat format = new ColumnarCsvInputFormat(PATH, "\n", '|',
+				Integer.class, Long.class, String.class, Double.class);
+			format.setBatchSize(2);
+			format.configure(new Configuration());
+			format.open(split);
+
+			ColumnBatch batch = format.nextRecord(null);
+			assertNotNull(batch);
+			assertEquals(2, batch.getSize());
+			assertArrayEquals(new int[] {1, 2}, copyOf(batch.getIntColumn(0), 2));
+			assertEquals(20L, batch.getLongColumn(1)[1]);
+			assertEquals("abc", batch.getStringColumn(2)[0]);
+			assertEquals(2.5, batch.getDoubleColumn(3)[1], 0.0);
+
+			batch = format.nextRecord(batch);
+			assertNotNull(batch);
+			assertEquals(1, batch.getSize());
+			assertEquals(3, batch.getIntColumn(0)[0]);
+			assertEquals("ghi", batch.getStringColumn(2)[0]);
+
+			assertNull(format.nextRecord(batch));
+			assertTrue(format.reachedEnd());
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testSkippedFields() {
+		try {
+			final String fileContent = "1|skip|10\n2|skip|20\n";
+			final FileInputSplit split = createTempFile(fileContent);
+
+			final ColumnarCsvInputFormat format = new ColumnarCsvInputFormat(PATH, "\n", '|',
+				Integer.class, null, Long.class);
+			format.configure(new Configuration());
+			format.open(split);
+
+			ColumnBatch batch = format.nextRecord(null);
+			assertNotNull(batch);
+			assertEquals(2, batch.getNumColumns());
+			assertEquals(2, batch.getSize());
+			assertEquals(2, batch.getIntColumn(0)[1]);
+			assertEquals(20L, batch.getLongColumn(1)[1]);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testFilterProjectUnpack() {
+		try {
+			final String fileContent = "1|10|1.0\n2|20|2.0\n3|30|3.0\n4|40|4.0\n";
+			final FileInputSplit split = createTempFile(fileContent);
+
+			final ColumnarCsvInputFormat format = new ColumnarCsvInputFormat(PATH, "\n", '|',
+				Integer.class, Long.class, Double.class);
+			format.configure(new Configuration());
+			format.open(split);
+
+			ColumnBatch batch = format.nextRecord(null);
+			assertEquals(4, batch.getSize());
+
+			ListCollector<ColumnBatch> filtered = new ListCollector<ColumnBatch>();
+			new ColumnComparisonFilter(1, Comparison.GREATER, 10).flatMap(batch, filtered);
+			assertEquals(1, filtered.list.size());
+			new ColumnComparisonFilter(2, Comparison.LESS, 4.0).flatMap(filtered.list.get(0), filtered);
+			assertEquals(2, filtered.list.size());
+
+			batch = filtered.list.get(1);
+			assertEquals(2, batch.getNumSelected());
+			assertEquals(50L, batch.sumLong(1));
+			assertEquals(5L, batch.sumInt(0));
+			assertEquals(3.0, batch.maxDouble(2), 0.0);
+
+			// a filter that rejects all rows drops the batch
+			ListCollector<ColumnBatch> empty = new ListCollector<ColumnBatch>();
+			new ColumnComparisonFilter(0, Comparison.EQUAL, 42).flatMap(batch, empty);
+			assertTrue(empty.list.isEmpty());
+
+			ColumnBatch projected = new ColumnBatchProjection(2, 0).map(batch);
+			assertEquals(Double.class, projected.getColumnType(0));
+			assertEquals(2, projected.getNumSelected());
+
+			ColumnBatchUnpacker<Tuple2<Double, Integer>> unpacker =
+					new ColumnBatchUnpacker<Tuple2<Double, Integer>>(Tuple2.class) {
+				private static final long serialVersionUID = 1L;
+			};
+			unpacker.open(new Configuration());
+
+			final List<String> rows = new ArrayList<String>();
+			unpacker.flatMap(projected, new Collector<Tuple2<Double, Integer>>() {
+				@Override
+				public void collect(Tuple2<Double, Integer> record) {
+					rows.add(record.f0 + "," + record.f1);
+				}
+
+				@Override
+				public void close() {}
+			});
+			assertEquals(2, rows.size());
+			assertEquals("2.0,2", rows.get(0));
+			assertEquals("3.0,3", rows.get(1));
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testSerializationWritesSelectedRows() {
+		try {
+			ColumnBatch batch = new ColumnBatch(new Class<?>[] {Long.class, String.class}, 4);
+			long[] longs = batch.getLongColumn(0);
+			String[] strings = batch.getStringColumn(1);
+			for (int i = 0; i < 4; i++) {
+				longs[i] = i;
+				strings[i] = "s" + i;
+			}
+			batch.setSize(4);
+
+			int[] sel = batch.getSelection();
+			sel[0] = 1;
+			sel[1] = 3;
+			batch.setNumSelected(2);
+
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			batch.write(new DataOutputStream(baos));
+
+			ColumnBatch copy = new ColumnBatch();
+			copy.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+			assertEquals(2, copy.getSize());
+			assertTrue(copy.isDense());
+			assertEquals(1L, copy.getLongColumn(0)[0]);
+			assertEquals(3L, copy.getLongColumn(0)[1]);
+			assertEquals("s3", copy.getStringColumn(1)[1]);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testSerializationOfNullAndLongStrings() {
+		try {
+			StringBuilder bld = new StringBuilder();
+			for (int i = 0; i < 70000; i++) {
+				bld.append((char) ('a' + i % 26));
+			}
+			final String longString = bld.toString();
+
+			ColumnBatch batch = new ColumnBatch(new Class<?>[] {String.class}, 2);
+			batch.getStringColumn(0)[0] = null;
+			batch.getStringColumn(0)[1] = longString;
+			batch.setSize(2);
+
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			batch.write(new DataOutputStream(baos));
+
+			ColumnBatch copy = new ColumnBatch();
+			copy.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+			assertEquals(2, copy.getSize());
+			assertNull(copy.getStringColumn(0)[0]);
+			assertEquals(longString, copy.getStringColumn(0)[1]);
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+
+	@Test
+	public void testFilterNullStrings() throws Exception {
+		ColumnBatch batch = new ColumnBatch(new Class<?>[] {String.class}, 4);
+		String[] strings = batch.getStringColumn(0);
+		strings[0] = "a";
+		strings[1] = null;
+		strings[2] = "c";
+		strings[3] = null;
+		batch.setSize(4);
+
+		// null strings match no comparison, not even an inequality
+		ListCollector<ColumnBatch> filtered = new ListCollector<ColumnBatch>();
+		new ColumnComparisonFilter(0, Comparison.NOT_EQUAL, "a").flatMap(batch, filtered);
+		assertEquals(1, filtered.list.size());
+		assertEquals(1, batch.getNumSelected());
+		assertEquals(2, batch.getSelection()[0]);
+
+		ListCollector<ColumnBatch> empty = new ListCollector<ColumnBatch>();
+		new ColumnComparisonFilter(0, Comparison.LESS, "c").flatMap(batch, empty);
+		assertTrue(empty.list.isEmpty());
+	}
+
+	@Test
+	public void testProjectionHasOwnSelection() {
+		ColumnBatch batch = new ColumnBatch(new Class<?>[] {Long.class, Integer.class}, 4);
+		batch.setSize(4);
+		batch.getSelection();
+
+		ColumnBatch projected = batch.project(1);
+		int[] sel = projected.getSelection();
+		sel[0] = 2;
+		projected.setNumSelected(1);
+
+		assertEquals(1, projected.getNumSelected());
+		assertEquals(4, batch.getNumSelected());
+		assertArrayEquals(new int[] {0, 1, 2, 3}, batch.getSelection());
+		assertTrue(projected.getIntColumn(0) == batch.getIntColumn(1));
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	private static int[] copyOf(int[] array, int len) {
+		int[] copy = new int[len];
+		System.arraycopy(array, 0, copy, 0, len);
+		return copy;
+	}
+
+	private FileInputSplit createTempFile(String content) throws IOException {
+		File tempFile = File.createTempFile("test_contents", "tmp");
+		tempFile.deleteOnExit();
+
+		FileWriter wrt = new FileWriter(tempFile);
+		wrt.write(content);
+		wrt.close();
+
+		return new FileInputSplit(0, new Path(tempFile.toURI().toString()), 0, tempFile.length(), new String[] {"localhost"});
+	}
+
+	private static final class ListCollector<T> implements Collector<T> {
+
+		private final List<T> list = new ArrayList<T>();
+
+		@Override
+		public void collect(T record) {
+			this.list.add(record);
+		}
+
+		@Override
+		public void close() {}
+	}
+}
@@ -0,0 +1,194 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
+import eu.stratosphere.api.common.io.FieldComparisonPredicate.Comparison;
+import eu.stratosphere.api.common.io.FileInputFormat.FileBaseStatistics;
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.api.java.tuple.Tuple2;
+import eu.stratosphere.api.java.tuple.Tuple3;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.FileSystem.WriteMode;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.util.LogUtils;
+
+public class ColumnarFileFormatTest {
+	
+	private static final int NUM_ROWS = 10000;
+	
+	private static final int ROWS_PER_BLOCK = 1000;
+	
+	private File tempFile;
+	
+	private Path path;
+	
+	@BeforeClass
+	public static void initialize() {
+		LogUtils.initializeDefaultConsoleLogger(Level.WARN);
+	}
+	
+	@Before
+	public void writeFile() throws Exception {
+		this.tempFile = File.createTempFile("columnar_test", ".col");
+		this.path = new Path(this.tempFile.toURI().toString());
+		
+		final ColumnarOutputFormat<Tuple3<Integer, Double, String>> output =
+				new ColumnarOutputFormat<Tuple3<Integer, Double, String>>(this.path, Integer.class, Double.class, String.class);
+		output.setWriteMode(WriteMode.OVERWRITE);
+		output.setRowsPerBlock(ROWS_PER_BLOCK);
+		output.configure(new Configuration());
+		output.open(0, 1);
+		
+		final Tuple3<Integer, Double, String> tuple = new Tuple3<Integer, Double, String>();
+		for (int i = 0; i < NUM_ROWS; i++) {
+			tuple.setFields(i, i / 2.0, i % 3 == 0 ? null : "value-" + (i % 10));
+			output.writeRecord(tuple);
+		}
+		output.close();
+	}
+	
+	@After
+	public void deleteFile() {
+		if (this.tempFile != null) {
+			this.tempFile.delete();
+		}
+	}
+	
+	@Test
+	public void testReadAll() {
+		try {
+			final ColumnarInputFormat<Tuple3<Integer, Double, String>> input =
+					new ColumnarInputFormat<Tuple3<Integer, Double, String>>(this.path, Integer.class, Double.class, String.class);
+			input.configure(new Configuration());
+			
+			final List<Object[]> rows = readAll(input, 4, new Tuple3<Integer, Double, String>());
+			assertEquals(NUM_ROWS, rows.size());
+			
+			for (int i = 0; i < NUM_ROWS; i++) {
+				final Object[] row = rows.get(i);
+				assertEquals(Integer.valueOf(i), row[0]);
+				assertEquals(Double.valueOf(i / 2.0), row[1]);
+				if (i % 3 == 0) {
+					assertNull(row[2]);
+				} else {
+					assertEquals("value-" + (i % 10), row[2]);
+				}
+			}
+			
+			final FileBaseStatistics stats = input.getStatistics(null);
+			assertEquals(NUM_ROWS, stats.getNumberOfRecords());
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testProjectionAndPredicates() {
+		try {
+			final ColumnarInputFormat<Tuple2<String, Integer>> input =
+					new ColumnarInputFormat<Tuple2<String, Integer>>(this.path, Integer.class, Double.class, String.class);
+			input.setFields(new int[] { 2, 0 });
+			input.addFieldPredicate(new FieldComparisonPredicate(0, Comparison.GREATER_EQUAL, 8500));
+			input.addFieldPredicate(new FieldComparisonPredicate(1, Comparison.LESS, 4600.0));
+			input.configure(new Configuration());
+			
+			// only the blocks with the rows 8000 to 9999 may qualify
+			final FileInputSplit[] splits = input.createInputSplits(4);
+			assertEquals(4, splits.length);
+			long splitBytes = 0;
+			for (FileInputSplit split : splits) {
+				splitBytes += split.getLength();
+			}
+			assertTrue(splitBytes < this.tempFile.length() / 4);
+			
+			final FileBaseStatistics stats = input.getStatistics(null);
+			assertEquals(2 * ROWS_PER_BLOCK, stats.getNumberOfRecords());
+			
+			final List<Object[]> rows = readAll(input, 4, new Tuple2<String, Integer>());
+			assertEquals(700, rows.size());
+			for (int i = 0; i < rows.size(); i++) {
+				final int expected = 8500 + i;
+				assertEquals(Integer.valueOf(expected), rows.get(i)[1]);
+				assertEquals(expected % 3 == 0 ? null : "value-" + (expected % 10), rows.get(i)[0]);
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testTypeMismatch() {
+		try {
+			final ColumnarInputFormat<Tuple2<Integer, Long>> input =
+					new ColumnarInputFormat<Tuple2<Integer, Long>>(this.path, Integer.class, Long.class, String.class);
+			input.setFields(new int[] { 0, 1 });
+			input.configure(new Configuration());
+			
+			try {
+				readAll(input, 1, new Tuple2<Integer, Long>());
+				fail("Reading columns with the wrong types should fail.");
+			}
+			catch (java.io.IOException e) {
+				// expected
+			}
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail(ex.getMessage());
+		}
+	}
+	
+	private static <T extends Tuple> List<Object[]> readAll(ColumnarInputFormat<T> input, int numSplits, T reuse)
+			throws Exception
+	{
+		final List<Object[]> rows = new ArrayList<Object[]>();
+		for (FileInputSplit split : input.createInputSplits(numSplits)) {
+			input.open(split);
+			while (!input.reachedEnd()) {
+				final T row = input.nextRecord(reuse);
+				if (row != null) {
+					final Object[] fields = new Object[row.getArity()];
+					for (int i = 0; i < fields.length; i++) {
+						fields[i] = row.getField(i);
+					}
+					rows.add(fields);
+				}
+			}
+			input.close();
+		}
+		return rows;
+	}
+}
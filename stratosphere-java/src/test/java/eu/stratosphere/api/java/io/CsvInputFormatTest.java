@@ -22,11 +22,17 @@ import static org.junit.Assert.fail;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.log4j.Level;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import eu.stratosphere.api.common.io.FieldComparisonPredicate;
+import eu.stratosphere.api.common.io.FieldComparisonPredicate.Comparison;
+import eu.stratosphere.api.java.functions.FilterFunction;
 import eu.stratosphere.api.java.tuple.Tuple2;
 import eu.stratosphere.api.java.tuple.Tuple3;
 import eu.stratosphere.api.java.tuple.Tuple5;
@@ -342,6 +348,92 @@ public class CsvInputFormatTest {
 		}
 	}
 	
+	@Test
+	public void testPushedPredicatesAndFilters() {
+		try {
+			final String fileContent = "1|a|10\n2|b|20\n3|c|30\n4|d|40\n";
+			final FileInputSplit split = createTempFile(fileContent);
+			
+			final CsvInputFormat<Tuple3<Integer, String, Integer>> format = 
+					new CsvInputFormat<Tuple3<Integer, String, Integer>>(PATH, "\n", '|', Integer.class, String.class, Integer.class);
+			
+			format.addFieldPredicate(new FieldComparisonPredicate(2, Comparison.GREATER_EQUAL, 20));
+			format.addPushedFilter(new FilterFunction<Tuple3<Integer, String, Integer>>() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				public boolean filter(Tuple3<Integer, String, Integer> value) {
+					return !value.f1.equals("c");
+				}
+			});
+			
+			format.configure(new Configuration());
+			format.open(split);
+			
+			Tuple3<Integer, String, Integer> result = new Tuple3<Integer, String, Integer>();
+			
+			// rejected lines are skipped
+			result = format.nextRecord(result);
+			assertNotNull(result);
+			assertEquals(Integer.valueOf(2), result.f0);
+			
+			result = format.nextRecord(result);
+			assertNotNull(result);
+			assertEquals(Integer.valueOf(4), result.f0);
+			assertEquals(Integer.valueOf(40), result.f2);
+			
+			assertNull(format.nextRecord(result));
+			assertTrue(format.reachedEnd());
+			format.close();
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+	
+	@Test
+	public void testPushedFilterRejectsConsecutiveRecords() {
+		try {
+			final String fileContent = "1|a\n2|b\n3|c\n4|d\n5|e\n6|f\n";
+			final FileInputSplit split = createTempFile(fileContent);
+			
+			final CsvInputFormat<Tuple2<Integer, String>> format = 
+					new CsvInputFormat<Tuple2<Integer, String>>(PATH, "\n", '|', Integer.class, String.class);
+			
+			format.addPushedFilter(new FilterFunction<Tuple2<Integer, String>>() {
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				public boolean filter(Tuple2<Integer, String> value) {
+					return value.f0 == 1 || value.f0 == 5;
+				}
+			});
+			
+			format.configure(new Configuration());
+			format.open(split);
+			
+			// read like the data source task, which hands the returned record back to the format
+			Tuple2<Integer, String> record = new Tuple2<Integer, String>();
+			final List<Integer> read = new ArrayList<Integer>();
+			while (!format.reachedEnd()) {
+				record = format.nextRecord(record);
+				if (record == null) {
+					break;
+				}
+				read.add(record.f0);
+			}
+			
+			assertEquals(Arrays.asList(1, 5), read);
+			assertTrue(format.reachedEnd());
+			format.close();
+		}
+		catch (Exception ex) {
+			ex.printStackTrace();
+			fail("Test failed due to a " + ex.getClass().getName() + ": " + ex.getMessage());
+		}
+	}
+	
 	private FileInputSplit createTempFile(String content) throws IOException {
 		File tempFile = File.createTempFile("test_contents", "tmp");
 		tempFile.deleteOnExit();
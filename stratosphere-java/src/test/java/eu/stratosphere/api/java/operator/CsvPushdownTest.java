@@ -0,0 +1,155 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.operator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.io.FieldComparisonPredicate.Comparison;
+import eu.stratosphere.api.common.operators.GenericDataSink;
+import eu.stratosphere.api.common.operators.GenericDataSource;
+import eu.stratosphere.api.common.operators.Operator;
+import eu.stratosphere.api.java.DataSet;
+import eu.stratosphere.api.java.ExecutionEnvironment;
+import eu.stratosphere.api.java.functions.FieldComparisonFilter;
+import eu.stratosphere.api.java.functions.FilterFunction;
+import eu.stratosphere.api.java.functions.FunctionAnnotation.PushableFilter;
+import eu.stratosphere.api.java.io.CsvInputFormat;
+import eu.stratosphere.api.java.io.DiscardingOuputFormat;
+import eu.stratosphere.api.java.operators.translation.PlanFilterOperator;
+import eu.stratosphere.api.java.operators.translation.PlanProjectOperator;
+import eu.stratosphere.api.java.tuple.Tuple2;
+import eu.stratosphere.api.java.tuple.Tuple4;
+import eu.stratosphere.api.java.typeutils.BasicTypeInfo;
+import eu.stratosphere.api.java.typeutils.TupleTypeInfo;
+import eu.stratosphere.core.fs.Path;
+
+public class CsvPushdownTest {
+	
+	private static final TupleTypeInfo<Tuple4<Integer, String, Long, Double>> TYPE = 
+			new TupleTypeInfo<Tuple4<Integer, String, Long, Double>>(
+					BasicTypeInfo.INT_TYPE_INFO,
+					BasicTypeInfo.STRING_TYPE_INFO,
+					BasicTypeInfo.LONG_TYPE_INFO,
+					BasicTypeInfo.DOUBLE_TYPE_INFO);
+	
+	@Test
+	public void testProjectionPushdown() {
+		ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+		DataSet<Tuple4<Integer, String, Long, Double>> source = env.createInput(createFormat(), TYPE);
+		
+		source.project(0, 2).types(Integer.class, Long.class)
+			.output(new DiscardingOuputFormat<Tuple2<Integer, Long>>());
+		
+		Operator input = getSinkInput(env);
+		assertTrue(input instanceof GenericDataSource);
+		
+		CsvInputFormat<?> format = getFormat(input);
+		assertArrayEquals(new Class<?>[] {Integer.class, null, Long.class}, format.getFieldTypes());
+	}
+	
+	@Test
+	public void testReorderingProjectionPushdown() {
+		ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+		DataSet<Tuple4<Integer, String, Long, Double>> source = env.createInput(createFormat(), TYPE);
+		
+		source.project(3, 1).types(Double.class, String.class)
+			.output(new DiscardingOuputFormat<Tuple2<Double, String>>());
+		
+		Operator input = getSinkInput(env);
+		assertTrue(input instanceof PlanProjectOperator);
+		
+		Operator sourceOp = ((PlanProjectOperator<?, ?>) input).getInput();
+		CsvInputFormat<?> format = getFormat(sourceOp);
+		assertArrayEquals(new Class<?>[] {null, String.class, null, Double.class}, format.getFieldTypes());
+	}
+	
+	@Test
+	public void testFilterPushdown() {
+		ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+		DataSet<Tuple4<Integer, String, Long, Double>> source = env.createInput(createFormat(), TYPE);
+		
+		source.filter(new FieldComparisonFilter<Tuple4<Integer, String, Long, Double>>(2, Comparison.GREATER, 10L))
+			.filter(new PushableMod())
+			.output(new DiscardingOuputFormat<Tuple4<Integer, String, Long, Double>>());
+		
+		Operator input = getSinkInput(env);
+		assertTrue(input instanceof GenericDataSource);
+		
+		CsvInputFormat<?> format = getFormat(input);
+		assertEquals(1, format.getFieldPredicates().size());
+		assertEquals(2, format.getFieldPredicates().get(0).getField());
+		assertEquals(1, format.getPushedFilters().size());
+	}
+	
+	@Test
+	public void testNoPushdownForSharedSource() {
+		ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+		DataSet<Tuple4<Integer, String, Long, Double>> source = env.createInput(createFormat(), TYPE);
+		
+		source.filter(new FieldComparisonFilter<Tuple4<Integer, String, Long, Double>>(2, Comparison.GREATER, 10L))
+			.output(new DiscardingOuputFormat<Tuple4<Integer, String, Long, Double>>());
+		source.output(new DiscardingOuputFormat<Tuple4<Integer, String, Long, Double>>());
+		
+		GenericDataSink sink = env.createProgramPlan().getDataSinks().iterator().next();
+		assertTrue(sink.getInput() instanceof PlanFilterOperator);
+	}
+	
+	@Test
+	public void testNoPushdownForRegularFilter() {
+		ExecutionEnvironment env = ExecutionEnvironment.getExecutionEnvironment();
+		DataSet<Tuple4<Integer, String, Long, Double>> source = env.createInput(createFormat(), TYPE);
+		
+		source.filter(new FilterFunction<Tuple4<Integer, String, Long, Double>>() {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public boolean filter(Tuple4<Integer, String, Long, Double> value) {
+				return value.f0 > 0;
+			}
+		}).output(new DiscardingOuputFormat<Tuple4<Integer, String, Long, Double>>());
+		
+		assertTrue(getSinkInput(env) instanceof PlanFilterOperator);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static CsvInputFormat<Tuple4<Integer, String, Long, Double>> createFormat() {
+		return new CsvInputFormat<Tuple4<Integer, String, Long, Double>>(new Path("file:///some/file"),
+				Integer.class, String.class, Long.class, Double.class);
+	}
+	
+	private static Operator getSinkInput(ExecutionEnvironment env) {
+		GenericDataSink sink = env.createProgramPlan().getDataSinks().iterator().next();
+		return sink.getInput();
+	}
+	
+	private static CsvInputFormat<?> getFormat(Operator source) {
+		return (CsvInputFormat<?>) ((GenericDataSource<?>) source).getUserCodeWrapper().getUserCodeObject();
+	}
+	
+	@PushableFilter
+	public static final class PushableMod extends FilterFunction<Tuple4<Integer, String, Long, Double>> {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		public boolean filter(Tuple4<Integer, String, Long, Double> value) {
+			return value.f0 % 2 == 0;
+		}
+	}
+}
@@ -280,7 +280,54 @@ function analyzeGroupvertexTime(json) {
 
 	// Draw our timeline with the created data and options
 	timeline.draw(data, {});
+	
+	showVertexMetrics(json);
+}
 
+/*
+ * Shows the runtime metrics the groupmembers reported last, one row per groupmember
+ */
+function showVertexMetrics(json) {
+	var groupvertex = json.groupvertex;
+	
+	// collect the names of all metrics, a groupmember only reports the metrics it updated
+	var names = [];
+	$.each(groupvertex.groupmembers, function(k, vertex) {
+		$.each(json.verticetimes[vertex.vertexid].metrics || {}, function(name, value) {
+			if($.inArray(name, names) < 0)
+				names.push(name);
+		});
+	});
+	if(names.length == 0)
+		return;
+	names.sort();
+	
+	var metricsTable = "<h3>Runtime Metrics</h3><div class=\"table-responsive\">" +
+			"<table class=\"table table-bordered table-hover table-striped\">" +
+			"<tr><th>Name</th>";
+	$.each(names, function(i, name) {
+		metricsTable += "<th>"+name+"</th>";
+	});
+	metricsTable += "</tr>";
+	
+	$.each(groupvertex.groupmembers, function(k, vertex) {
+		var metrics = json.verticetimes[vertex.vertexid].metrics || {};
+		metricsTable += "<tr><td>"+vertex.vertexname+"</td>";
+		$.each(names, function(i, name) {
+			var value = metrics[name];
+			if(value == undefined)
+				metricsTable += "<td></td>";
+			else if(typeof value == "object")
+				// histograms show their distribution, the count as tooltip
+				metricsTable += "<td title=\"count: "+value.count+"\">mean "+value.mean+", median "+value.p50
+						+", p99 "+value.p99+", max "+value.max+"</td>";
+			else
+				metricsTable += "<td>"+value+"</td>";
+		});
+		metricsTable += "</tr>";
+	});
+	metricsTable += "</table></div>";
+	$("#vertices").append(metricsTable);
 }
 
 function getSelectedRow(timeline) {
@@ -170,6 +170,7 @@ function fillTable(table, json) {
 							<th>Finished</th>\
 							<th>Canceled</th>\
 							<th>Failed</th>\
+							<th>Back Pressure</th>\
 						</tr>";
 
 		$.each(job.groupvertices, function(j, groupvertex) {
@@ -193,8 +194,9 @@ function fillTable(table, json) {
 			jobtable += progressBar(groupvertex.numberofgroupmembers, (groupvertex.FINISHING + groupvertex.FINISHED), 'success finished');
 			jobtable += progressBar(groupvertex.numberofgroupmembers, (groupvertex.CANCELING + groupvertex.CANCELED), 'warning canceled');
 			jobtable += progressBar(groupvertex.numberofgroupmembers, groupvertex.FAILED, 'danger failed');
+			jobtable += "<td class=\"backpressure\"></td>";
 			jobtable +=	"</tr><tr>\
-						<td colspan=8 id=\"_"+groupvertex.groupvertexid+"\" style=\"display:none\">\
+						<td colspan=9 id=\"_"+groupvertex.groupvertexid+"\" style=\"display:none\">\
 								<div class =\"table-responsive\">\
 								<table class=\"table table-bordered table-hover table-striped tablesorter\">\
 							  	<tr>\
@@ -223,10 +225,12 @@ function fillTable(table, json) {
 		jobtable += progressBar(countTasks, countFinished, 'success finished');
 		jobtable += progressBar(countTasks, countCanceled, 'warning canceled');
 		jobtable += progressBar(countTasks, countFailed, 'danger failed');
+		jobtable += "<td></td>";
 		jobtable += "</tr>";
 
 		jobtable += "</table></div>"
 		$(table).append(jobtable);
+		$(table).append("<div id=\""+job.jobid+"_metrics\"></div><div id=\""+job.jobid+"_accumulators\"></div>");
 		$("#" + job.jobid).prepend(
 						"<tr><td width=\"100\" rowspan=" + (countGroups * 2 + 2)+ " style=\"overflow:hidden\">\
 							<canvas id=\"dependencies" + job.jobid+ "\" height=\"10\" width=\"100\"></canvas>\
@@ -279,6 +283,9 @@ function newWidth(maximum, val) {
  */
 function updateTable(json) {
 	var pollfinished = false;
+	updateBackPressure(json.jobid, json.backpressure);
+	updateMetrics(json.jobid, json.metrics);
+	updateAccumulators(json.jobid, json.accumulators);
 	$.each(json.vertexevents , function(i, event) {
 
 		if(parseInt($("#"+event.vertexid).attr("lastupdate")) < event.timestamp)
@@ -367,6 +374,8 @@ function updateTable(json) {
 			$("#"+json.jobid).remove();
 			$("#"+json.jobid+"_title").remove();
 			$("#"+json.jobid+"_cancel").remove();
+			$("#"+json.jobid+"_metrics").remove();
+			$("#"+json.jobid+"_accumulators").remove();
 
 			// remove from internal list
 			for(var i in recentjobs){
@@ -401,6 +410,81 @@ function updateTable(json) {
 	}
 }
 
+/*
+ * Shows the back pressure of the groupvertices and marks the bottleneck
+ */
+function updateBackPressure(jobId, backpressure) {
+	// groupvertices without running tasks have no back pressure
+	$("#"+jobId).find(".backpressure").html("");
+	if(!$.isArray(backpressure))
+		return;
+	
+	$.each(backpressure, function(i, groupvertex) {
+		var cell = "<span title=\"max: " + formatRatio(groupvertex.maxratio)
+					+ ", input wait: " + formatRatio(groupvertex.inputwaitratio)
+					+ ", sampled tasks: " + groupvertex.sampledtasks + "\">"
+					+ formatRatio(groupvertex.ratio) + "</span>";
+		if(groupvertex.bottleneck)
+			cell += " <span class=\"label label-danger\">bottleneck</span>";
+		else if(groupvertex.backpressured)
+			cell += " <span class=\"label label-warning\">back pressured</span>";
+		$("#"+jobId).find("#"+groupvertex.groupvertexid).siblings(".backpressure").html(cell);
+	});
+}
+
+/*
+ * Shows the latest metrics of the running tasks, summed up per groupvertex
+ */
+function updateMetrics(jobId, metrics) {
+	if(!$.isArray(metrics) || metrics.length == 0) {
+		$("#"+jobId+"_metrics").html("");
+		return;
+	}
+	
+	var metricsTable = "<h4>Task Metrics</h4><div class=\"table-responsive\">" +
+			"<table class=\"table table-bordered table-hover table-striped\">" +
+			"<tr><th>Name</th><th>Records In</th><th>Records Out</th><th>Bytes In</th><th>Bytes Out</th>" +
+			"<th>Spilled Bytes</th><th>Input Wait</th><th>Output Wait</th></tr>";
+	$.each(metrics, function(i, groupvertex) {
+		metricsTable += "<tr><td>"+groupvertex.groupvertexname+"</td>" +
+				"<td>"+groupvertex.recordsin+"</td>" +
+				"<td>"+groupvertex.recordsout+"</td>" +
+				"<td>"+groupvertex.bytesin+"</td>" +
+				"<td>"+groupvertex.bytesout+"</td>" +
+				"<td>"+groupvertex.spilledbytes+"</td>" +
+				"<td>"+(convertTime(groupvertex.inputwaittime) || "0")+"</td>" +
+				"<td>"+(convertTime(groupvertex.outputwaittime) || "0")+"</td></tr>";
+	});
+	metricsTable += "</table></div>";
+	$("#"+jobId+"_metrics").html(metricsTable);
+}
+
+/*
+ * Shows the accumulators of a running job, including the latest snapshots of the running tasks
+ */
+function updateAccumulators(jobId, accumulators) {
+	if(!$.isArray(accumulators) || accumulators.length == 0) {
+		$("#"+jobId+"_accumulators").html("");
+		return;
+	}
+	
+	var accuTable = "<h4>Accumulators</h4><div class=\"table-responsive\">" +
+			"<table class=\"table table-bordered table-hover table-striped\">" +
+			"<tr><th>Name</th><th>Value</th></tr>";
+	$.each(accumulators, function(i, accu) {
+		accuTable += "<tr><td>"+accu.name+"</td><td>"+accu.value+"</td></tr>";
+	});
+	accuTable += "</table></div>";
+	$("#"+jobId+"_accumulators").html(accuTable);
+}
+
+/*
+ * Formats a ratio as percentage
+ */
+function formatRatio(ratio) {
+	return Math.round(ratio * 100) + "%";
+}
+
 var archive_finished = 0;
 var archive_failed = 0;
 var archive_canceled = 0;
@@ -25,8 +25,10 @@ import eu.stratosphere.nephele.io.GateID;
 import eu.stratosphere.nephele.io.InputGate;
 import eu.stratosphere.nephele.io.OutputGate;
 import eu.stratosphere.nephele.io.RecordDeserializerFactory;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
 import eu.stratosphere.nephele.io.channels.ChannelID;
 import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
 import eu.stratosphere.nephele.protocols.AccumulatorProtocol;
 import eu.stratosphere.nephele.services.iomanager.IOManager;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
@@ -48,6 +50,14 @@ public interface Environment {
 	 */
 	JobID getJobID();
 
+	/**
+	 * Returns the ID of the execution vertex this environment belongs to.
+	 * 
+	 * @return the ID of the execution vertex or <code>null</code> if the environment was not created for a deployed
+	 *         task
+	 */
+	ExecutionVertexID getExecutionVertexID();
+
 	/**
 	 * Returns the task configuration object which was attached to the original {@link JobVertex}.
 	 * 
@@ -255,5 +265,29 @@ public interface Environment {
 	 */
 	AccumulatorProtocol getAccumulatorProtocolProxy();
 
+	/**
+	 * Adds the given number of bytes to the number of bytes the task has spilled to disk.
+	 * 
+	 * @param bytes
+	 *        the number of bytes spilled
+	 */
+	void addSpilledBytes(long bytes);
+
+	/**
+	 * Returns a snapshot of the built-in metrics of the task. This method may be called by other threads than the
+	 * task's own threads, so the values may lag slightly behind the progress of the task.
+	 * 
+	 * @return a snapshot of the task's built-in metrics
+	 */
+	TaskMetrics getTaskMetrics();
+
+	/**
+	 * Returns the registry of the task's detailed runtime metrics. The registry is shared by the task and its chained
+	 * tasks, so components which are instantiated several times per task report together.
+	 * 
+	 * @return the registry of the task's runtime metrics
+	 */
+	MetricRegistry getMetrics();
+
 	Map<String, FutureTask<Path>> getCopyTask();
 }
@@ -25,6 +25,7 @@ import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -36,6 +37,7 @@ import eu.stratosphere.nephele.deployment.ChannelDeploymentDescriptor;
 import eu.stratosphere.nephele.deployment.GateDeploymentDescriptor;
 import eu.stratosphere.nephele.deployment.TaskDeploymentDescriptor;
 import eu.stratosphere.nephele.execution.librarycache.LibraryCacheManager;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
 import eu.stratosphere.nephele.io.ChannelSelector;
 import eu.stratosphere.nephele.io.GateID;
 import eu.stratosphere.nephele.io.InputGate;
@@ -46,6 +48,8 @@ import eu.stratosphere.nephele.io.RuntimeOutputGate;
 import eu.stratosphere.nephele.io.channels.ChannelID;
 import eu.stratosphere.nephele.io.channels.ChannelType;
 import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.metrics.Gauge;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
 import eu.stratosphere.nephele.protocols.AccumulatorProtocol;
 import eu.stratosphere.nephele.services.iomanager.IOManager;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
@@ -124,6 +128,22 @@ public class RuntimeEnvironment implements Environment, Runnable {
 	 */
 	private final JobID jobID;
 
+	/**
+	 * The ID of the execution vertex this environment belongs to, <code>null</code> if the environment was not
+	 * created for a deployed task.
+	 */
+	private final ExecutionVertexID vertexID;
+
+	/**
+	 * The number of bytes the task has spilled to disk.
+	 */
+	private final AtomicLong spilledBytes = new AtomicLong();
+
+	/**
+	 * The registry of the task's detailed runtime metrics.
+	 */
+	private final MetricRegistry metrics = new MetricRegistry();
+
 	/**
 	 * The job configuration encapsulated in the environment object.
 	 */
@@ -188,6 +208,7 @@ public class RuntimeEnvironment implements Environment, Runnable {
 			final Configuration jobConfiguration) throws Exception {
 
 		this.jobID = jobID;
+		this.vertexID = null;
 		this.taskName = taskName;
 		this.invokableClass = invokableClass;
 		this.taskConfiguration = taskConfiguration;
@@ -198,6 +219,8 @@ public class RuntimeEnvironment implements Environment, Runnable {
 		this.ioManager = null;
 		this.inputSplitProvider = null;
 
+		registerGateMetrics();
+
 		this.invokable = this.invokableClass.newInstance();
 		this.invokable.setEnvironment(this);
 		this.invokable.registerInputOutput();
@@ -224,6 +247,7 @@ public class RuntimeEnvironment implements Environment, Runnable {
 			AccumulatorProtocol accumulatorProtocolProxy, Map<String, FutureTask<Path>> cpTasks) throws Exception {
 
 		this.jobID = tdd.getJobID();
+		this.vertexID = tdd.getVertexID();
 		this.taskName = tdd.getTaskName();
 		this.invokableClass = tdd.getInvokableClass();
 		this.jobConfiguration = tdd.getJobConfiguration();
@@ -236,6 +260,8 @@ public class RuntimeEnvironment implements Environment, Runnable {
 		this.accumulatorProtocolProxy = accumulatorProtocolProxy;
 		this.cacheCopyTasks = cpTasks;
 
+		registerGateMetrics();
+
 		this.invokable = this.invokableClass.newInstance();
 		this.invokable.setEnvironment(this);
 		this.invokable.registerInputOutput();
@@ -313,6 +339,12 @@ public class RuntimeEnvironment implements Environment, Runnable {
 	}
 
 
+	@Override
+	public ExecutionVertexID getExecutionVertexID() {
+		return this.vertexID;
+	}
+
+
 	@Override
 	public GateID getNextUnboundInputGateID() {
 
@@ -856,6 +888,117 @@ public class RuntimeEnvironment implements Environment, Runnable {
 		return accumulatorProtocolProxy;
 	}
 
+	@Override
+	public void addSpilledBytes(final long bytes) {
+		this.spilledBytes.addAndGet(bytes);
+	}
+
+	@Override
+	public TaskMetrics getTaskMetrics() {
+
+		long recordsIn = 0L;
+		long bytesIn = 0L;
+		long inputWaitTime = 0L;
+		for (final InputGate<? extends IOReadableWritable> inputGate : this.inputGates) {
+			recordsIn += inputGate.getNumberOfRecordsRead();
+			inputWaitTime += inputGate.getInputWaitTime();
+			for (int i = 0; i < inputGate.getNumberOfInputChannels(); ++i) {
+				bytesIn += inputGate.getInputChannel(i).getAmountOfDataTransmitted();
+			}
+		}
+
+		long recordsOut = 0L;
+		long bytesOut = 0L;
+		long outputWaitTime = 0L;
+		for (final OutputGate<? extends IOReadableWritable> outputGate : this.outputGates) {
+			recordsOut += outputGate.getNumberOfRecordsWritten();
+			outputWaitTime += outputGate.getOutputWaitTime();
+			for (int i = 0; i < outputGate.getNumberOfOutputChannels(); ++i) {
+				bytesOut += outputGate.getOutputChannel(i).getAmountOfDataTransmitted();
+			}
+		}
+
+		return new TaskMetrics(recordsIn, recordsOut, bytesIn, bytesOut, this.spilledBytes.get(), inputWaitTime,
+			outputWaitTime);
+	}
+
+	@Override
+	public MetricRegistry getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Registers gauges for the records, buffers and wait times of the task's gates. The gauges read the counters
+	 * which the gates and channels maintain anyway, so they add no cost to the transport of records.
+	 */
+	private void registerGateMetrics() {
+
+		this.metrics.gauge("io.records-in", new Gauge() {
+			@Override
+			public long getValue() {
+				long records = 0L;
+				for (final InputGate<? extends IOReadableWritable> inputGate : inputGates) {
+					records += inputGate.getNumberOfRecordsRead();
+				}
+				return records;
+			}
+		});
+		this.metrics.gauge("io.records-out", new Gauge() {
+			@Override
+			public long getValue() {
+				long records = 0L;
+				for (final OutputGate<? extends IOReadableWritable> outputGate : outputGates) {
+					records += outputGate.getNumberOfRecordsWritten();
+				}
+				return records;
+			}
+		});
+		this.metrics.gauge("io.buffers-in", new Gauge() {
+			@Override
+			public long getValue() {
+				long buffers = 0L;
+				for (final InputGate<? extends IOReadableWritable> inputGate : inputGates) {
+					for (int i = 0; i < inputGate.getNumberOfInputChannels(); ++i) {
+						buffers += inputGate.getInputChannel(i).getNumberOfBuffersTransmitted();
+					}
+				}
+				return buffers;
+			}
+		});
+		this.metrics.gauge("io.buffers-out", new Gauge() {
+			@Override
+			public long getValue() {
+				long buffers = 0L;
+				for (final OutputGate<? extends IOReadableWritable> outputGate : outputGates) {
+					for (int i = 0; i < outputGate.getNumberOfOutputChannels(); ++i) {
+						buffers += outputGate.getOutputChannel(i).getNumberOfBuffersTransmitted();
+					}
+				}
+				return buffers;
+			}
+		});
+		this.metrics.gauge("io.input-wait-millis", new Gauge() {
+			@Override
+			public long getValue() {
+				long waitTime = 0L;
+				for (final InputGate<? extends IOReadableWritable> inputGate : inputGates) {
+					waitTime += inputGate.getInputWaitTime();
+				}
+				return waitTime;
+			}
+		});
+		this.metrics.gauge("io.output-wait-millis", new Gauge() {
+			@Override
+			public long getValue() {
+				long waitTime = 0L;
+				for (final OutputGate<? extends IOReadableWritable> outputGate : outputGates) {
+					waitTime += outputGate.getOutputWaitTime();
+				}
+				return waitTime;
+			}
+		});
+	}
+
 	public void addCopyTaskForCacheFile(String name, FutureTask<Path> copyTask) {
 		this.cacheCopyTasks.put(name, copyTask);
 	}
@@ -0,0 +1,161 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.execution;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import eu.stratosphere.core.io.IOReadableWritable;
+
+/**
+ * A snapshot of the built-in metrics of a task: the records and bytes that passed its gates, the bytes it spilled
+ * to disk, and the time it was blocked waiting for input records or for output buffers. The values are totals
+ * since the task was started.
+ */
+public final class TaskMetrics implements IOReadableWritable {
+
+	private long recordsIn;
+
+	private long recordsOut;
+
+	private long bytesIn;
+
+	private long bytesOut;
+
+	private long spilledBytes;
+
+	private long inputWaitTime;
+
+	private long outputWaitTime;
+
+	/**
+	 * Creates a new metrics object with all values set to zero.
+	 */
+	public TaskMetrics() {}
+
+	/**
+	 * Creates a new metrics object with the given values.
+	 * 
+	 * @param recordsIn
+	 *        the number of records read from the input gates
+	 * @param recordsOut
+	 *        the number of records written to the output gates
+	 * @param bytesIn
+	 *        the number of bytes received through the input channels
+	 * @param bytesOut
+	 *        the number of bytes sent through the output channels
+	 * @param spilledBytes
+	 *        the number of bytes spilled to disk
+	 * @param inputWaitTime
+	 *        the time in milliseconds the task waited for input records
+	 * @param outputWaitTime
+	 *        the time in milliseconds the task waited for output buffers
+	 */
+	public TaskMetrics(final long recordsIn, final long recordsOut, final long bytesIn, final long bytesOut,
+			final long spilledBytes, final long inputWaitTime, final long outputWaitTime) {
+		this.recordsIn = recordsIn;
+		this.recordsOut = recordsOut;
+		this.bytesIn = bytesIn;
+		this.bytesOut = bytesOut;
+		this.spilledBytes = spilledBytes;
+		this.inputWaitTime = inputWaitTime;
+		this.outputWaitTime = outputWaitTime;
+	}
+
+	/**
+	 * Adds the values of the given metrics to the values of this object.
+	 * 
+	 * @param other
+	 *        the metrics to add
+	 */
+	public void add(final TaskMetrics other) {
+		this.recordsIn += other.recordsIn;
+		this.recordsOut += other.recordsOut;
+		this.bytesIn += other.bytesIn;
+		this.bytesOut += other.bytesOut;
+		this.spilledBytes += other.spilledBytes;
+		this.inputWaitTime += other.inputWaitTime;
+		this.outputWaitTime += other.outputWaitTime;
+	}
+
+	public long getRecordsIn() {
+		return this.recordsIn;
+	}
+
+	public long getRecordsOut() {
+		return this.recordsOut;
+	}
+
+	public long getBytesIn() {
+		return this.bytesIn;
+	}
+
+	public long getBytesOut() {
+		return this.bytesOut;
+	}
+
+	public long getSpilledBytes() {
+		return this.spilledBytes;
+	}
+
+	/**
+	 * Returns the time the task waited for input records.
+	 * 
+	 * @return the time the task waited for input records in milliseconds
+	 */
+	public long getInputWaitTime() {
+		return this.inputWaitTime;
+	}
+
+	/**
+	 * Returns the time the task waited for buffers to write its output records to.
+	 * 
+	 * @return the time the task waited for output buffers in milliseconds
+	 */
+	public long getOutputWaitTime() {
+		return this.outputWaitTime;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void write(final DataOutput out) throws IOException {
+		out.writeLong(this.recordsIn);
+		out.writeLong(this.recordsOut);
+		out.writeLong(this.bytesIn);
+		out.writeLong(this.bytesOut);
+		out.writeLong(this.spilledBytes);
+		out.writeLong(this.inputWaitTime);
+		out.writeLong(this.outputWaitTime);
+	}
+
+	@Override
+	public void read(final DataInput in) throws IOException {
+		this.recordsIn = in.readLong();
+		this.recordsOut = in.readLong();
+		this.bytesIn = in.readLong();
+		this.bytesOut = in.readLong();
+		this.spilledBytes = in.readLong();
+		this.inputWaitTime = in.readLong();
+		this.outputWaitTime = in.readLong();
+	}
+
+	@Override
+	public String toString() {
+		return "records in/out: " + this.recordsIn + '/' + this.recordsOut + ", bytes in/out: " + this.bytesIn + '/'
+			+ this.bytesOut + ", spilled bytes: " + this.spilledBytes + ", input/output wait time: "
+			+ this.inputWaitTime + '/' + this.outputWaitTime + " msecs";
+	}
+}
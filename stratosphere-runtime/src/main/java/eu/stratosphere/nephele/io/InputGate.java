@@ -61,6 +61,21 @@ public interface InputGate<T extends IOReadableWritable> extends Gate<T> {
 	 */
 	AbstractInputChannel<T> getInputChannel(int pos);
 
+	/**
+	 * Returns the number of records read from this input gate so far.
+	 * 
+	 * @return the number of records read from this input gate
+	 */
+	long getNumberOfRecordsRead();
+
+	/**
+	 * Returns the time the reading thread was blocked on this input gate, waiting for any input channel to provide
+	 * data. The time includes a wait which is still in progress.
+	 * 
+	 * @return the time spent waiting for input in milliseconds
+	 */
+	long getInputWaitTime();
+
 	/**
 	 * Notify the gate that the channel with the given index has
 	 * at least one record available.
@@ -94,6 +94,22 @@ public interface OutputGate<T extends IOReadableWritable> extends Gate<T> {
 	 */
 	AbstractOutputChannel<T> getOutputChannel(int pos);
 
+	/**
+	 * Returns the number of records written to this output gate so far. A record written to several channels is
+	 * counted once.
+	 * 
+	 * @return the number of records written to this output gate
+	 */
+	long getNumberOfRecordsWritten();
+
+	/**
+	 * Returns the time the writing thread was blocked on the channels of this output gate, waiting for empty
+	 * buffers to write its records to.
+	 * 
+	 * @return the time spent waiting for output buffers in milliseconds
+	 */
+	long getOutputWaitTime();
+
 	/**
 	 * Returns the output gate's channel selector.
 	 * 
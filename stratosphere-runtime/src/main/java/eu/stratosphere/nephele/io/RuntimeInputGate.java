@@ -80,6 +80,22 @@ public class RuntimeInputGate<T extends IOReadableWritable> extends AbstractGate
 	 */
 	private int channelToReadFrom = -1;
 
+	/**
+	 * The number of records read from this gate. Only modified by the reading thread, other threads may see a
+	 * slightly outdated value.
+	 */
+	private long numberOfRecordsRead;
+
+	/**
+	 * The time in nanoseconds the reading thread waited for any channel to become available.
+	 */
+	private volatile long inputWaitTime;
+
+	/**
+	 * The start of the current wait for input in nanoseconds or <code>0</code> if the reading thread is not waiting.
+	 */
+	private volatile long inputWaitStart;
+
 	/**
 	 * Constructs a new runtime input gate.
 	 * 
@@ -192,9 +208,11 @@ public class RuntimeInputGate<T extends IOReadableWritable> extends AbstractGate
 		InputChannelResult result = this.getInputChannel(this.channelToReadFrom).readRecord(target);
 		switch (result) {
 			case INTERMEDIATE_RECORD_FROM_BUFFER: // full record and we can stay on the same channel
+				this.numberOfRecordsRead++;
 				return InputChannelResult.INTERMEDIATE_RECORD_FROM_BUFFER;
 				
 			case LAST_RECORD_FROM_BUFFER: // full record, but we must switch the channel afterwards
+				this.numberOfRecordsRead++;
 				this.channelToReadFrom = -1;
 				return InputChannelResult.LAST_RECORD_FROM_BUFFER;
 				
@@ -246,7 +264,34 @@ public class RuntimeInputGate<T extends IOReadableWritable> extends AbstractGate
 	 * @return the index of the channel which has at least one record available
 	 */
 	public int waitForAnyChannelToBecomeAvailable() throws InterruptedException {
-		return this.availableChannels.take().intValue();
+		// only measure the time if we actually have to wait
+		final Integer channel = this.availableChannels.poll();
+		if (channel != null) {
+			return channel.intValue();
+		}
+
+		final long start = System.nanoTime();
+		this.inputWaitStart = start;
+		try {
+			return this.availableChannels.take().intValue();
+		} finally {
+			this.inputWaitStart = 0L;
+			this.inputWaitTime += System.nanoTime() - start;
+		}
+	}
+
+
+	@Override
+	public long getNumberOfRecordsRead() {
+		return this.numberOfRecordsRead;
+	}
+
+
+	@Override
+	public long getInputWaitTime() {
+		final long start = this.inputWaitStart;
+		final long waitTime = this.inputWaitTime;
+		return (start == 0L ? waitTime : waitTime + Math.max(0L, System.nanoTime() - start)) / 1000000L;
 	}
 
 
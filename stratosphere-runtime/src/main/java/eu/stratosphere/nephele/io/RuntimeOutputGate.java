@@ -67,6 +67,12 @@ public class RuntimeOutputGate<T extends IOReadableWritable> extends AbstractGat
 	 */
 	private final boolean isBroadcast;
 
+	/**
+	 * The number of records written to this gate. Only modified by the writing thread, other threads may see a
+	 * slightly outdated value.
+	 */
+	private long numberOfRecordsWritten;
+
 	/**
 	 * Constructs a new runtime output gate.
 	 * 
@@ -237,6 +243,8 @@ public class RuntimeOutputGate<T extends IOReadableWritable> extends AbstractGat
 	@Override
 	public void writeRecord(final T record) throws IOException, InterruptedException {
 
+		this.numberOfRecordsWritten++;
+
 		if (this.isBroadcast) {
 
 			if (getChannelType() == ChannelType.INMEMORY) {
@@ -306,6 +314,22 @@ public class RuntimeOutputGate<T extends IOReadableWritable> extends AbstractGat
 	}
 
 
+	@Override
+	public long getNumberOfRecordsWritten() {
+		return this.numberOfRecordsWritten;
+	}
+
+
+	@Override
+	public long getOutputWaitTime() {
+		long waitTime = 0L;
+		for (int i = 0; i < this.outputChannels.size(); ++i) {
+			waitTime += this.outputChannels.get(i).getBufferWaitTime();
+		}
+		return waitTime / 1000000L;
+	}
+
+
 	@Override
 	public boolean isBroadcast() {
 
@@ -124,4 +124,11 @@ public abstract class AbstractChannel {
 	 * @return the number of bytes which have been transmitted through this channel since its instantiation
 	 */
 	public abstract long getAmountOfDataTransmitted();
+
+	/**
+	 * Returns the number of buffers which have been transmitted through this channel since its instantiation.
+	 * 
+	 * @return the number of buffers which have been transmitted through this channel since its instantiation
+	 */
+	public abstract long getNumberOfBuffersTransmitted();
 }
@@ -92,6 +92,14 @@ public abstract class AbstractOutputChannel<T extends IOReadableWritable> extend
 
 	public abstract void flush() throws IOException, InterruptedException;
 
+	/**
+	 * Returns the time the writing thread waited for empty buffers to write the records of this channel to,
+	 * including the time of a request which is still in progress.
+	 * 
+	 * @return the time spent waiting for buffers in nanoseconds
+	 */
+	public abstract long getBufferWaitTime();
+
 
 	@Override
 	public JobID getJobID() {
@@ -62,6 +62,11 @@ public abstract class AbstractByteBufferedInputChannel<T extends IOReadableWrita
 	 * Stores the number of bytes read through this input channel since its instantiation.
 	 */
 	private long amountOfDataTransmitted;
+
+	/**
+	 * Stores the number of buffers read through this input channel since its instantiation.
+	 */
+	private long numberOfBuffersTransmitted;
 	
 
 	private volatile boolean brokerAggreedToCloseChannel;
@@ -187,6 +192,7 @@ public abstract class AbstractByteBufferedInputChannel<T extends IOReadableWrita
 	
 	private void releasedConsumedReadBuffer(Buffer buffer) {
 		this.amountOfDataTransmitted += buffer.size();
+		this.numberOfBuffersTransmitted++;
 		buffer.recycleBuffer();
 	}
 	
@@ -226,6 +232,11 @@ public abstract class AbstractByteBufferedInputChannel<T extends IOReadableWrita
 		return this.amountOfDataTransmitted;
 	}
 
+	@Override
+	public long getNumberOfBuffersTransmitted() {
+		return this.numberOfBuffersTransmitted;
+	}
+
 	
 	/**
 	 * Notify the channel that a data unit has been consumed.
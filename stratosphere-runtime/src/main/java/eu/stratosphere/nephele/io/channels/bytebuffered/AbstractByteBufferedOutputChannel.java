@@ -56,6 +56,21 @@ public abstract class AbstractByteBufferedOutputChannel<T extends IOReadableWrit
 	 */
 	private long amountOfDataTransmitted = 0L;
 
+	/**
+	 * Stores the number of buffers transmitted through this output channel since its instantiation.
+	 */
+	private long numberOfBuffersTransmitted = 0L;
+
+	/**
+	 * Stores the time in nanoseconds the writing thread spent requesting write buffers from the broker.
+	 */
+	private volatile long bufferWaitTime = 0L;
+
+	/**
+	 * Stores the start of the current buffer request in nanoseconds or <code>0</code> if no request is in progress.
+	 */
+	private volatile long bufferWaitStart = 0L;
+
 	private static final Log LOG = LogFactory.getLog(AbstractByteBufferedOutputChannel.class);
 
 	/**
@@ -120,7 +135,14 @@ public abstract class AbstractByteBufferedOutputChannel<T extends IOReadableWrit
 		if (Thread.interrupted()) {
 			throw new InterruptedException();
 		}
-		this.dataBuffer = this.outputChannelBroker.requestEmptyWriteBuffer();
+		final long start = System.nanoTime();
+		this.bufferWaitStart = start;
+		try {
+			this.dataBuffer = this.outputChannelBroker.requestEmptyWriteBuffer();
+		} finally {
+			this.bufferWaitStart = 0L;
+			this.bufferWaitTime += System.nanoTime() - start;
+		}
 	}
 
 	/**
@@ -134,6 +156,7 @@ public abstract class AbstractByteBufferedOutputChannel<T extends IOReadableWrit
 	private void releaseWriteBuffer() throws IOException, InterruptedException {
 		// Keep track of number of bytes transmitted through this channel
 		this.amountOfDataTransmitted += this.dataBuffer.size();
+		this.numberOfBuffersTransmitted++;
 
 		this.outputChannelBroker.releaseWriteBuffer(this.dataBuffer);
 		this.dataBuffer = null;
@@ -252,4 +275,21 @@ public abstract class AbstractByteBufferedOutputChannel<T extends IOReadableWrit
 
 		return this.amountOfDataTransmitted;
 	}
+
+
+	@Override
+	public long getNumberOfBuffersTransmitted() {
+
+		return this.numberOfBuffersTransmitted;
+	}
+
+
+	@Override
+	public long getBufferWaitTime() {
+
+		// include the request in progress, so that a writer blocked for a long time shows up before it is unblocked
+		final long start = this.bufferWaitStart;
+		final long waitTime = this.bufferWaitTime;
+		return start == 0L ? waitTime : waitTime + Math.max(0L, System.nanoTime() - start);
+	}
 }
@@ -0,0 +1,127 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.ipc;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The table of the methods of a protocol, which assigns every method a numeric ID. Client and server compute
+ * the same IDs independently from the protocol interface, because the methods are ordered by their signatures.
+ * Calls therefore transmit the ID instead of the method name and parameter types, and the server resolves the
+ * method with an array access instead of a reflective lookup.
+ * <p>
+ * This class is thread-safe.
+ */
+final class MethodTable {
+
+	private static final Map<Class<?>, MethodTable> TABLES = new ConcurrentHashMap<Class<?>, MethodTable>();
+
+	private final Method[] methods;
+
+	private final Class<?>[][] parameterTypes;
+
+	private final boolean[] priority;
+
+	private final Map<Method, Integer> ids;
+
+	private MethodTable(final Class<?> protocol) {
+
+		this.methods = protocol.getMethods();
+		Arrays.sort(this.methods, new Comparator<Method>() {
+
+			@Override
+			public int compare(final Method m1, final Method m2) {
+				return getSignature(m1).compareTo(getSignature(m2));
+			}
+		});
+
+		this.parameterTypes = new Class<?>[this.methods.length][];
+		this.priority = new boolean[this.methods.length];
+		this.ids = new HashMap<Method, Integer>();
+
+		for (int i = 0; i < this.methods.length; i++) {
+			final Method method = this.methods[i];
+			method.setAccessible(true);
+			this.parameterTypes[i] = method.getParameterTypes();
+			this.priority[i] = method.isAnnotationPresent(PriorityCall.class);
+			this.ids.put(method, Integer.valueOf(i));
+		}
+	}
+
+	/**
+	 * Returns the method table of the given protocol.
+	 * 
+	 * @param protocol
+	 *        the protocol interface
+	 * @return the method table of the protocol
+	 */
+	static MethodTable get(final Class<?> protocol) {
+
+		MethodTable table = TABLES.get(protocol);
+		if (table == null) {
+			table = new MethodTable(protocol);
+			TABLES.put(protocol, table);
+		}
+
+		return table;
+	}
+
+	/**
+	 * Returns the ID of the given method.
+	 * 
+	 * @param method
+	 *        the method, which must belong to the protocol of this table
+	 * @return the ID of the method
+	 */
+	int getID(final Method method) {
+
+		final Integer id = this.ids.get(method);
+		if (id == null) {
+			throw new IllegalArgumentException("Method " + method + " is not part of the protocol");
+		}
+
+		return id.intValue();
+	}
+
+	Method getMethod(final int id) {
+		return this.methods[id];
+	}
+
+	Class<?>[] getParameterTypes(final int id) {
+		return this.parameterTypes[id];
+	}
+
+	boolean isPriorityCall(final int id) {
+		return this.priority[id];
+	}
+
+	int getNumberOfMethods() {
+		return this.methods.length;
+	}
+
+	private static String getSignature(final Method method) {
+
+		final StringBuilder sb = new StringBuilder(method.getName());
+		for (final Class<?> parameterType : method.getParameterTypes()) {
+			sb.append(',').append(parameterType.getName());
+		}
+
+		return sb.toString();
+	}
+}
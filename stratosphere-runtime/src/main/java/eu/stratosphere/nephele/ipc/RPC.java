@@ -64,35 +64,48 @@ public class RPC {
 	private RPC() {
 	} // no public ctor
 
-	/** A method invocation, including the method name and its parameters. */
+	/**
+	 * A method invocation, including the ID of the method in the protocol's {@link MethodTable} and its parameters.
+	 * Parameters whose class is the declared parameter type are written without their class name.
+	 */
 	private static class Invocation implements IOReadableWritable {
 
-		private String methodName;
+		private static final byte NULL_PARAMETER = 0;
+
+		private static final byte DECLARED_TYPE_PARAMETER = 1;
+
+		private static final byte SUBTYPE_PARAMETER = 2;
 
-		private Class<? extends IOReadableWritable>[] parameterClasses;
+		private final MethodTable methodTable;
+
+		private int methodID;
 
 		private IOReadableWritable[] parameters;
 
-		@SuppressWarnings("unused")
-		public Invocation() {
+		/**
+		 * Creates an invocation which is read from the wire.
+		 * 
+		 * @param methodTable
+		 *        the method table of the protocol the invocation belongs to
+		 */
+		public Invocation(MethodTable methodTable) {
+			this.methodTable = methodTable;
 		}
 
-		// TODO: See if type safety can be improved here
-		@SuppressWarnings("unchecked")
 		public Invocation(Method method, IOReadableWritable[] parameters) {
-			this.methodName = method.getName();
-			this.parameterClasses = (Class<? extends IOReadableWritable>[]) method.getParameterTypes();
+			this.methodTable = MethodTable.get(method.getDeclaringClass());
+			this.methodID = this.methodTable.getID(method);
 			this.parameters = parameters;
 		}
 
-		/** The name of the method invoked. */
-		public String getMethodName() {
-			return methodName;
+		/** The method invoked. */
+		public Method getMethod() {
+			return this.methodTable.getMethod(this.methodID);
 		}
 
-		/** The parameter classes. */
-		public Class<? extends IOReadableWritable>[] getParameterClasses() {
-			return parameterClasses;
+		/** Whether the invoked method is a priority call. */
+		public boolean isPriorityCall() {
+			return this.methodTable.isPriorityCall(this.methodID);
 		}
 
 		/** The parameter instances. */
@@ -100,64 +113,65 @@ public class RPC {
 			return parameters;
 		}
 
-		// TODO: See if type safety can be improved here
-		@SuppressWarnings("unchecked")
 		public void read(DataInput in) throws IOException {
 
-			this.methodName = StringRecord.readString(in);
-			this.parameters = new IOReadableWritable[in.readInt()];
-			this.parameterClasses = new Class[parameters.length];
+			this.methodID = in.readInt();
+			if (this.methodID < 0 || this.methodID >= this.methodTable.getNumberOfMethods()) {
+				throw new IOException("Unknown method ID " + this.methodID);
+			}
 
-			for (int i = 0; i < parameters.length; i++) {
+			final Class<?>[] parameterTypes = this.methodTable.getParameterTypes(this.methodID);
+			this.parameters = new IOReadableWritable[parameterTypes.length];
+
+			for (int i = 0; i < parameterTypes.length; i++) {
+
+				final byte kind = in.readByte();
+				if (kind == NULL_PARAMETER) {
+					continue;
+				}
 
-				// Read class name for parameter and try to get class to that name
-				final String className = StringRecord.readString(in);
 				try {
-					parameterClasses[i] = ClassUtils.getRecordByName(className);
+					final Class<?> parameterClass = kind == DECLARED_TYPE_PARAMETER ? parameterTypes[i]
+						: ClassUtils.getRecordByName(StringRecord.readString(in));
+					this.parameters[i] = (IOReadableWritable) parameterClass.newInstance();
+				} catch (IllegalAccessException iae) {
+					throw new IOException(iae.toString());
+				} catch (InstantiationException ie) {
+					throw new IOException(ie.toString());
 				} catch (ClassNotFoundException cnfe) {
 					throw new IOException(cnfe.toString());
 				}
-
-				// See if parameter is null
-				if (in.readBoolean()) {
-					try {
-						final String parameterClassName = StringRecord.readString(in);
-						final Class<? extends IOReadableWritable> parameterClass = ClassUtils
-							.getRecordByName(parameterClassName);
-						parameters[i] = parameterClass.newInstance();
-					} catch (IllegalAccessException iae) {
-						throw new IOException(iae.toString());
-					} catch (InstantiationException ie) {
-						throw new IOException(ie.toString());
-					} catch (ClassNotFoundException cnfe) {
-						throw new IOException(cnfe.toString());
-					}
-					// Object will do everything else on its own
-					parameters[i].read(in);
-				} else {
-					parameters[i] = null;
-				}
+				// Object will do everything else on its own
+				this.parameters[i].read(in);
 			}
 		}
 
 		public void write(DataOutput out) throws IOException {
-			StringRecord.writeString(out, methodName);
-			out.writeInt(parameterClasses.length);
-			for (int i = 0; i < parameterClasses.length; i++) {
-				StringRecord.writeString(out, parameterClasses[i].getName());
-				if (parameters[i] == null) {
-					out.writeBoolean(false);
+
+			out.writeInt(this.methodID);
+
+			final Class<?>[] parameterTypes = this.methodTable.getParameterTypes(this.methodID);
+			for (int i = 0; i < parameterTypes.length; i++) {
+
+				final IOReadableWritable parameter = this.parameters == null ? null : this.parameters[i];
+				if (parameter == null) {
+					out.writeByte(NULL_PARAMETER);
+					continue;
+				}
+
+				if (parameter.getClass() == parameterTypes[i]) {
+					out.writeByte(DECLARED_TYPE_PARAMETER);
 				} else {
-					out.writeBoolean(true);
-					StringRecord.writeString(out, parameters[i].getClass().getName());
-					parameters[i].write(out);
+					out.writeByte(SUBTYPE_PARAMETER);
+					StringRecord.writeString(out, parameter.getClass().getName());
 				}
+				parameter.write(out);
 			}
 		}
 
 		public String toString() {
 			StringBuffer buffer = new StringBuffer();
-			buffer.append(methodName);
+			buffer.append(getMethod().getName());
 			buffer.append("(");
 			for (int i = 0; i < parameters.length; i++) {
 				if (i != 0) {
@@ -404,6 +418,19 @@ public class RPC {
 			this.instance = instance;
 		}
 
+		@Override
+		protected IOReadableWritable readInvocation(Class<?> protocol, DataInput in) throws IOException {
+
+			final Invocation invocation = new Invocation(MethodTable.get(protocol));
+			invocation.read(in);
+			return invocation;
+		}
+
+		@Override
+		protected boolean isPriorityCall(IOReadableWritable param) {
+			return ((Invocation) param).isPriorityCall();
+		}
+
 		public IOReadableWritable call(Class<?> protocol, IOReadableWritable param, long receivedTime)
 				throws IOException {
 			
@@ -411,8 +438,8 @@ public class RPC {
 				
 				final Invocation call = (Invocation) param;
 				
-				final Method method = protocol.getMethod(call.getMethodName(), call.getParameterClasses());
-				method.setAccessible(true);
+				// the method is resolved and made accessible once, in the protocol's method table
+				final Method method = call.getMethod();
 
 				final Object value = method.invoke((Object) instance, (Object[]) call.getParameters());
 
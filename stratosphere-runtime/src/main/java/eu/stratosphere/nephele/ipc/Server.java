@@ -21,6 +21,7 @@ package eu.stratosphere.nephele.ipc;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -162,6 +163,8 @@ public abstract class Server {
 
 	private BlockingQueue<Call> callQueue; // queued calls
 
+	private BlockingQueue<Call> priorityCallQueue; // queued priority calls, handled by their own thread
+
 	private List<Connection> connectionList = Collections.synchronizedList(new LinkedList<Connection>());
 
 	// maintain a list
@@ -174,6 +177,8 @@ public abstract class Server {
 
 	private Handler[] handlers = null;
 
+	private Handler priorityHandler = null;
+
 	/**
 	 * A convenience method to bind to a given address and report
 	 * better exceptions if the address is not a valid host.
@@ -893,11 +898,14 @@ public abstract class Server {
 			int id = dis.readInt(); // try to read an id
 
 
-			IOReadableWritable invocation = newInstance(invocationClass); // read param
-			invocation.read(dis);
+			IOReadableWritable invocation = readInvocation(protocol, dis); // read param
 
 			Call call = new Call(id, invocation, this);
-			callQueue.put(call); // queue the call; maybe blocked here
+			if (isPriorityCall(invocation)) {
+				priorityCallQueue.put(call);
+			} else {
+				callQueue.put(call); // queue the call; maybe blocked here
+			}
 		}
 
 		private synchronized void close() throws IOException {
@@ -928,9 +936,12 @@ public abstract class Server {
 
 		private volatile boolean shutDown = false;
 
-		public Handler(int instanceNumber) {
+		private final BlockingQueue<Call> queue;
+
+		public Handler(String name, BlockingQueue<Call> queue) {
 			this.setDaemon(true);
-			this.setName("IPC Server handler " + instanceNumber + " on " + port);
+			this.setName(name);
+			this.queue = queue;
 		}
 
 		@Override
@@ -940,7 +951,7 @@ public abstract class Server {
 			ByteArrayOutputStream buf = new ByteArrayOutputStream(10240);
 			while (running) {
 				try {
-					final Call call = callQueue.take(); // pop the queue; maybe blocked here
+					final Call call = this.queue.take(); // pop the queue; maybe blocked here
 
 					String errorClass = null;
 					String error = null;
@@ -993,6 +1004,7 @@ public abstract class Server {
 		this.socketSendBufferSize = 0;
 		this.maxQueueSize = handlerCount * MAX_QUEUE_SIZE_PER_HANDLER;
 		this.callQueue = new LinkedBlockingQueue<Call>(maxQueueSize);
+		this.priorityCallQueue = new LinkedBlockingQueue<Call>(MAX_QUEUE_SIZE_PER_HANDLER);
 		this.maxIdleTime = 2 * 1000;
 		this.maxConnectionsToNuke = 10;
 		this.thresholdIdleConnections = 4000;
@@ -1070,9 +1082,12 @@ public abstract class Server {
 		handlers = new Handler[handlerCount];
 
 		for (int i = 0; i < handlerCount; i++) {
-			handlers[i] = new Handler(i);
+			handlers[i] = new Handler("IPC Server handler " + i + " on " + port, callQueue);
 			handlers[i].start();
 		}
+
+		priorityHandler = new Handler("IPC Server priority handler on " + port, priorityCallQueue);
+		priorityHandler.start();
 	}
 
 	/** Stops the service. No new calls will be handled after this is called. */
@@ -1086,6 +1101,9 @@ public abstract class Server {
 				}
 			}
 		}
+		if (priorityHandler != null) {
+			priorityHandler.interrupt();
+		}
 		listener.interrupt();
 		listener.doStop();
 		responder.interrupt();
@@ -1105,7 +1123,7 @@ public abstract class Server {
 					}
 				}
 
-				if (i < this.handlerCount) {
+				if (i < this.handlerCount || !this.priorityHandler.isShutDown()) {
 					try {
 						wait(100);
 					} catch (InterruptedException e) {
@@ -1157,6 +1175,24 @@ public abstract class Server {
 		return listener.getAddress();
 	}
 
+	/**
+	 * Reads the invocation of a call to the given protocol. By default, the invocation is an instance of the
+	 * invocation class given to the constructor, which reads itself.
+	 */
+	protected IOReadableWritable readInvocation(Class<?> protocol, DataInput in) throws IOException {
+		IOReadableWritable invocation = newInstance(invocationClass);
+		invocation.read(in);
+		return invocation;
+	}
+
+	/**
+	 * Checks whether the given invocation is handled by the priority handler thread instead of the regular
+	 * handler threads. By default, no invocation is.
+	 */
+	protected boolean isPriorityCall(IOReadableWritable invocation) {
+		return false;
+	}
+
 	/** Called for each call. */
 	public abstract IOReadableWritable call(Class<?> protocol, IOReadableWritable param, long receiveTime)
 			throws IOException;
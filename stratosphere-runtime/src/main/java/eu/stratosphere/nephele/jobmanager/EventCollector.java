@@ -394,6 +394,8 @@ public final class EventCollector extends TimerTask implements ProfilingListener
 
 		// Cancel the timer for the cleanup routine
 		this.timer.cancel();
+
+		flushArchivists();
 	}
 
 	/**
@@ -534,19 +536,22 @@ public final class EventCollector extends TimerTask implements ProfilingListener
 
 				// Check time stamp of last job status update
 				if ((entry.getValue().getTimestamp() + this.timerTaskInterval) < currentTime) {
-					archiveJobevent(entry.getKey(), entry.getValue());
-					it.remove();
+					// The job event is archived last, so archivists know the job is complete when receiving it
 					synchronized (this.recentManagementGraphs) {
 						archiveManagementGraph(entry.getKey(), this.recentManagementGraphs.get(entry.getKey()));
-						this.recentManagementGraphs.remove(entry.getValue());
+						this.recentManagementGraphs.remove(entry.getKey());
 					}
 					synchronized (this.recentNetworkTopologies) {
 						archiveNetworkTopology(entry.getKey(), this.recentNetworkTopologies.get(entry.getKey()));
-						this.recentNetworkTopologies.remove(entry.getValue());
+						this.recentNetworkTopologies.remove(entry.getKey());
 					}
+					archiveJobevent(entry.getKey(), entry.getValue());
+					it.remove();
 				}
 			}
 		}
+
+		flushArchivists();
 	}
 
 
@@ -671,4 +676,10 @@ public final class EventCollector extends TimerTask implements ProfilingListener
 			al.archiveNetworkTopology(jobId, topology);
 		}
 	}
+	
+	private void flushArchivists() {
+		for(ArchiveListener al : archivists) {
+			al.flush();
+		}
+	}
 }
@@ -83,7 +83,10 @@ import eu.stratosphere.nephele.jobgraph.JobGraph;
 import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.jobmanager.accumulators.AccumulatorManager;
 import eu.stratosphere.nephele.jobmanager.archive.ArchiveListener;
+import eu.stratosphere.nephele.jobmanager.archive.FileArchivist;
 import eu.stratosphere.nephele.jobmanager.archive.MemoryArchivist;
+import eu.stratosphere.nephele.jobmanager.backpressure.BackPressureTracker;
+import eu.stratosphere.nephele.jobmanager.backpressure.VertexBackPressure;
 import eu.stratosphere.nephele.jobmanager.scheduler.AbstractScheduler;
 import eu.stratosphere.nephele.jobmanager.scheduler.SchedulingException;
 import eu.stratosphere.nephele.jobmanager.splitassigner.InputSplitManager;
@@ -100,6 +103,7 @@ import eu.stratosphere.nephele.protocols.ExtendedManagementProtocol;
 import eu.stratosphere.nephele.protocols.InputSplitProviderProtocol;
 import eu.stratosphere.nephele.protocols.JobManagerProtocol;
 import eu.stratosphere.nephele.services.accumulators.AccumulatorEvent;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 import eu.stratosphere.nephele.taskmanager.AbstractTaskResult;
 import eu.stratosphere.nephele.taskmanager.TaskCancelResult;
 import eu.stratosphere.nephele.taskmanager.TaskExecutionState;
@@ -146,6 +150,8 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 	
 	private AccumulatorManager accumulatorManager;
 
+	private final BackPressureTracker backPressureTracker;
+
 	private InstanceManager instanceManager;
 
 	private final int recommendedClientPollingInterval;
@@ -188,7 +194,7 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 		int archived_items = GlobalConfiguration.getInteger(
 				ConfigConstants.JOB_MANAGER_WEB_ARCHIVE_COUNT, ConfigConstants.DEFAULT_JOB_MANAGER_WEB_ARCHIVE_COUNT);
 		if (archived_items > 0) {
-			this.archive = new MemoryArchivist(archived_items);
+			this.archive = createArchivist(archived_items);
 			this.eventCollector.registerArchivist(archive);
 		}
 		else {
@@ -199,7 +205,12 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 		// interface. We need to store the accumulators for at least one job.
 		// Otherwise they might be deleted before the client requested the
 		// accumulator results.
-		this.accumulatorManager = new AccumulatorManager(Math.min(1, archived_items));
+		this.accumulatorManager = new AccumulatorManager(Math.max(1, archived_items));
+
+		// Derive the back pressure of the tasks from their progress reports, for the same jobs
+		this.backPressureTracker = new BackPressureTracker(Math.max(1, archived_items), GlobalConfiguration.getFloat(
+			ConfigConstants.JOB_MANAGER_WEB_BACKPRESSURE_THRESHOLD_KEY,
+			ConfigConstants.DEFAULT_JOB_MANAGER_WEB_BACKPRESSURE_THRESHOLD));
 
 		// Load the input split manager
 		this.inputSplitManager = new InputSplitManager();
@@ -624,6 +635,13 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 			LOG.error(executionState.getDescription());
 		}
 
+		// the last back pressure of a stopped task does not describe its group vertex anymore
+		final ExecutionState newState = executionState.getExecutionState();
+		if (newState == ExecutionState.FINISHED || newState == ExecutionState.CANCELED
+			|| newState == ExecutionState.FAILED) {
+			this.backPressureTracker.taskStopped(executionState.getJobID(), executionState.getID());
+		}
+
 		final ExecutionGraph eg = this.scheduler.getExecutionGraphByID(executionState.getJobID());
 		if (eg == null) {
 			LOG.error("Cannot find execution graph for ID " + executionState.getJobID() + " to change state to "
@@ -838,6 +856,20 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 		// return ConnectionInfoLookupResponse.createReceiverNotFound();
 	}
 
+	@Override
+	public List<ConnectionInfoLookupResponse> lookupConnectionInfos(final InstanceConnectionInfo caller,
+			final JobID jobID, final List<ChannelID> sourceChannelIDs) {
+
+		final SerializableArrayList<ConnectionInfoLookupResponse> responses =
+			new SerializableArrayList<ConnectionInfoLookupResponse>(sourceChannelIDs.size());
+
+		for (final ChannelID sourceChannelID : sourceChannelIDs) {
+			responses.add(lookupConnectionInfo(caller, jobID, sourceChannelID));
+		}
+
+		return responses;
+	}
+
 	/**
 	 * Returns current ManagementGraph from eventCollector and, if not current, from archive
 	 * 
@@ -1213,6 +1245,31 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 		return this.archive;
 	}
 
+	/**
+	 * Creates the archivist for the jobs removed from the event collector. The jobs are stored in files if an archive
+	 * directory is configured and can be used, otherwise they are kept in memory.
+	 * 
+	 * @param archivedJobs
+	 *        the number of archived jobs to keep in memory
+	 * @return the archivist
+	 */
+	private static ArchiveListener createArchivist(final int archivedJobs) {
+
+		final String directory = GlobalConfiguration.getString(ConfigConstants.JOB_MANAGER_WEB_ARCHIVE_DIR_KEY, null);
+		if (directory != null) {
+			try {
+				return new FileArchivist(new File(directory), archivedJobs, GlobalConfiguration.getInteger(
+					ConfigConstants.JOB_MANAGER_WEB_ARCHIVE_DIR_COUNT_KEY,
+					ConfigConstants.DEFAULT_JOB_MANAGER_WEB_ARCHIVE_DIR_COUNT));
+			} catch (IOException e) {
+				LOG.error("Cannot use archive directory " + directory + ", keeping the archived jobs in memory: "
+					+ e.getMessage());
+			}
+		}
+
+		return new MemoryArchivist(archivedJobs);
+	}
+
 	public int getNumberOfTaskTrackers() {
 		return this.instanceManager.getNumberOfTaskTrackers();
 	}
@@ -1220,11 +1277,51 @@ public class JobManager implements DeploymentManager, ExtendedManagementProtocol
 	@Override
 	public void reportAccumulatorResult(AccumulatorEvent accumulatorEvent) throws IOException {
 		this.accumulatorManager.processIncomingAccumulators(accumulatorEvent.getJobID(),
-				accumulatorEvent.getAccumulators());
+				accumulatorEvent.getVertexID(), accumulatorEvent.getAccumulators());
+	}
+
+	@Override
+	public void reportTaskProgress(List<TaskProgressEvent> progressEvents) throws IOException {
+		for (TaskProgressEvent progress : progressEvents) {
+			if (this.archive != null && progress.getRuntimeMetrics() != null) {
+				this.archive.archiveMetrics(progress.getJobID(), progress.getVertexID().toManagementVertexID(),
+					progress.getRuntimeMetrics());
+			}
+			this.backPressureTracker.processTaskProgress(progress);
+			this.scheduler.reportTaskProgress(progress);
+			try {
+				this.accumulatorManager.processTaskProgress(progress);
+			} catch (IOException e) {
+				LOG.warn("Discarding the accumulator snapshot of task " + progress.getVertexID() + ": "
+					+ e.getMessage());
+			}
+		}
 	}
 
 	@Override
 	public AccumulatorEvent getAccumulatorResults(JobID jobID) throws IOException {
 		return new AccumulatorEvent(jobID, this.accumulatorManager.getJobAccumulators(jobID), false);
 	}
+
+	@Override
+	public List<TaskProgressEvent> getTaskProgress(JobID jobID) throws IOException {
+		final List<TaskProgressEvent> progress = this.accumulatorManager.getTaskProgress(jobID);
+		final SerializableArrayList<TaskProgressEvent> progressList = new SerializableArrayList<TaskProgressEvent>(progress.size());
+		progressList.addAll(progress);
+		return progressList;
+	}
+
+	/**
+	 * Returns the back pressure of the group vertices of the job with the given ID, derived from the progress reports
+	 * of their tasks.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 * @return the back pressure of the group vertices in topological order
+	 * @throws IOException
+	 *         thrown if the job cannot be found
+	 */
+	public List<VertexBackPressure> getBackPressure(final JobID jobID) throws IOException {
+		return this.backPressureTracker.getBackPressure(jobID, getManagementGraph(jobID));
+	}
 }
@@ -19,6 +19,8 @@ import java.lang.reflect.InvocationTargetException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.configuration.GlobalConfiguration;
 import eu.stratosphere.nephele.instance.InstanceManager;
 import eu.stratosphere.nephele.jobmanager.JobManager.ExecutionMode;
 import eu.stratosphere.nephele.jobmanager.scheduler.AbstractScheduler;
@@ -147,7 +149,8 @@ public class JobManagerUtils {
 		case LOCAL:
 			return "eu.stratosphere.nephele.jobmanager.scheduler.local.LocalScheduler";
 		case CLUSTER:
-			return "eu.stratosphere.nephele.jobmanager.scheduler.queue.QueueScheduler";
+			return GlobalConfiguration.getString(ConfigConstants.JOB_MANAGER_SCHEDULER_CLASS_KEY,
+				ConfigConstants.DEFAULT_JOB_MANAGER_SCHEDULER_CLASS);
 		default:
 			throw new RuntimeException("Unrecognized Execution Mode.");
 		}
@@ -13,12 +13,16 @@
 
 package eu.stratosphere.nephele.jobmanager.accumulators;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import eu.stratosphere.api.common.accumulators.Accumulator;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
 import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 
 /**
  * This class manages the accumulators for different jobs. Either the jobs are
@@ -48,32 +52,77 @@ public class AccumulatorManager {
 	 */
 	public void processIncomingAccumulators(JobID jobID,
 			Map<String, Accumulator<?, ?>> newAccumulators) {
+		processIncomingAccumulators(jobID, null, newAccumulators);
+	}
+
+	/**
+	 * Merges the final accumulators of a task with the existing accumulators
+	 * collected for the job. The latest snapshot of the task is dropped and
+	 * later snapshots of the task are ignored. If the ID of the task is
+	 * <code>null</code>, the accumulators are merged without touching any
+	 * snapshot.
+	 */
+	public void processIncomingAccumulators(JobID jobID, ExecutionVertexID vertexID,
+			Map<String, Accumulator<?, ?>> newAccumulators) {
+		synchronized (this.jobAccumulators) {
+			JobAccumulators jobAccumulators = getOrCreateJobAccumulators(jobID);
+			if (vertexID == null) {
+				jobAccumulators.processNew(newAccumulators);
+			} else {
+				jobAccumulators.processNew(vertexID, newAccumulators);
+			}
+		}
+	}
+
+	/**
+	 * Replaces the metrics and accumulator snapshot of a running task with
+	 * the newly reported ones.
+	 * 
+	 * @throws IOException
+	 *         thrown if the accumulator snapshot cannot be deserialized
+	 */
+	public void processTaskProgress(TaskProgressEvent progress) throws IOException {
+		synchronized (this.jobAccumulators) {
+			getOrCreateJobAccumulators(progress.getJobID()).processProgress(progress);
+		}
+	}
+
+	/**
+	 * Returns all collected accumulators for the job, including the latest
+	 * snapshots of the tasks which are still running. The returned map is a
+	 * copy and may be modified.
+	 */
+	public Map<String, Accumulator<?, ?>> getJobAccumulators(JobID jobID) {
 		synchronized (this.jobAccumulators) {
-			
-//			System.out.println("JobManager: Received accumulator result for job "
-//					+ jobID.toString());
-//			System.out.println(AccumulatorHelper.getAccumulatorsFormated(newAccumulators));
-			
 			JobAccumulators jobAccumulators = this.jobAccumulators.get(jobID);
 			if (jobAccumulators == null) {
-				jobAccumulators = new JobAccumulators();
-				this.jobAccumulators.put(jobID, jobAccumulators);
-				cleanup(jobID);
+				return new HashMap<String, Accumulator<?, ?>>();
 			}
-			jobAccumulators.processNew(newAccumulators);
+			return jobAccumulators.getAccumulators();
 		}
 	}
 
 	/**
-	 * Returns all collected accumulators for the job. For efficiency the
-	 * internal accumulator is returned, so please use it read-only.
+	 * Returns the latest metrics reported by the tasks of the job.
 	 */
-	public Map<String, Accumulator<?, ?>> getJobAccumulators(JobID jobID) {
+	public List<TaskProgressEvent> getTaskProgress(JobID jobID) {
+		synchronized (this.jobAccumulators) {
+			JobAccumulators jobAccumulators = this.jobAccumulators.get(jobID);
+			if (jobAccumulators == null) {
+				return new LinkedList<TaskProgressEvent>();
+			}
+			return jobAccumulators.getTaskProgress(jobID);
+		}
+	}
+
+	private JobAccumulators getOrCreateJobAccumulators(JobID jobID) {
 		JobAccumulators jobAccumulators = this.jobAccumulators.get(jobID);
 		if (jobAccumulators == null) {
-			return new HashMap<String, Accumulator<?, ?>>();
+			jobAccumulators = new JobAccumulators();
+			this.jobAccumulators.put(jobID, jobAccumulators);
+			cleanup(jobID);
 		}
-		return jobAccumulators.getAccumulators();
+		return jobAccumulators;
 	}
 
 	/**
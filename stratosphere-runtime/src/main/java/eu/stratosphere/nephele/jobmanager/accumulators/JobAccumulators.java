@@ -13,25 +13,88 @@
 
 package eu.stratosphere.nephele.jobmanager.accumulators;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import eu.stratosphere.api.common.accumulators.Accumulator;
 import eu.stratosphere.api.common.accumulators.AccumulatorHelper;
+import eu.stratosphere.nephele.execution.TaskMetrics;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.services.accumulators.AccumulatorEvent;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 
 /**
- * Simple class wrapping a map of accumulators for a single job. Just for better
- * handling.
+ * Simple class wrapping the accumulators for a single job. It keeps the merged
+ * final results of the finished tasks apart from the latest snapshots of the
+ * running tasks, such that a snapshot can be replaced by a newer one without
+ * counting anything twice.
  */
 public class JobAccumulators {
 
 	private final Map<String, Accumulator<?, ?>> accumulators = new HashMap<String, Accumulator<?, ?>>();
 
+	private final Map<ExecutionVertexID, Map<String, Accumulator<?, ?>>> liveAccumulators = new HashMap<ExecutionVertexID, Map<String, Accumulator<?, ?>>>();
+
+	// tasks that reported their final results, snapshots arriving later are outdated
+	private final Set<ExecutionVertexID> finishedTasks = new HashSet<ExecutionVertexID>();
+
+	private final Map<ExecutionVertexID, TaskMetrics> taskMetrics = new LinkedHashMap<ExecutionVertexID, TaskMetrics>();
+
+	/**
+	 * Returns the final results of the finished tasks merged with the latest
+	 * snapshots of the running tasks. The returned map is a copy.
+	 */
 	public Map<String, Accumulator<?, ?>> getAccumulators() {
-		return this.accumulators;
+		Map<String, Accumulator<?, ?>> result = AccumulatorHelper.copy(this.accumulators);
+		for (Map<String, Accumulator<?, ?>> snapshot : this.liveAccumulators.values()) {
+			AccumulatorHelper.mergeInto(result, AccumulatorHelper.copy(snapshot));
+		}
+		return result;
 	}
 
 	public void processNew(Map<String, Accumulator<?, ?>> newAccumulators) {
 		AccumulatorHelper.mergeInto(this.accumulators, newAccumulators);
 	}
+
+	/**
+	 * Merges the final results of the given task and drops its snapshot.
+	 */
+	public void processNew(ExecutionVertexID vertexID, Map<String, Accumulator<?, ?>> newAccumulators) {
+		processNew(newAccumulators);
+		this.liveAccumulators.remove(vertexID);
+		this.finishedTasks.add(vertexID);
+	}
+
+	/**
+	 * Replaces the metrics and the accumulator snapshot of the reporting task.
+	 * The metrics are replaced even if the accumulators cannot be read.
+	 */
+	public void processProgress(TaskProgressEvent progress) throws IOException {
+		final ExecutionVertexID vertexID = progress.getVertexID();
+		this.taskMetrics.put(vertexID, progress.getMetrics());
+		if (!this.finishedTasks.contains(vertexID)) {
+			final AccumulatorEvent snapshot = progress.getAccumulators();
+			if (snapshot != null) {
+				this.liveAccumulators.put(vertexID, snapshot.getAccumulators());
+			}
+		}
+	}
+
+	/**
+	 * Returns the latest metrics of all tasks which have reported their progress.
+	 */
+	public List<TaskProgressEvent> getTaskProgress(JobID jobID) {
+		final List<TaskProgressEvent> progress = new ArrayList<TaskProgressEvent>(this.taskMetrics.size());
+		for (Map.Entry<ExecutionVertexID, TaskMetrics> entry : this.taskMetrics.entrySet()) {
+			progress.add(new TaskProgressEvent(jobID, entry.getKey(), entry.getValue()));
+		}
+		return progress;
+	}
 }
@@ -14,6 +14,7 @@
 package eu.stratosphere.nephele.jobmanager.archive;
 
 import java.util.List;
+import java.util.Map;
 
 import eu.stratosphere.nephele.event.job.AbstractEvent;
 import eu.stratosphere.nephele.event.job.RecentJobEvent;
@@ -22,6 +23,7 @@ import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.jobgraph.JobStatus;
 import eu.stratosphere.nephele.managementgraph.ManagementGraph;
 import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
 import eu.stratosphere.nephele.topology.NetworkTopology;
 
 /**
@@ -39,7 +41,7 @@ public interface ArchiveListener {
 	void archiveEvent(JobID jobId, AbstractEvent event);
 	
 	/**
-	 * Stores old job in archive
+	 * Stores old job in archive. The job is archived after its events, ManagementGraph and NetworkTopology.
 	 * 
 	 * @param jobId
 	 * @param event
@@ -62,6 +64,14 @@ public interface ArchiveListener {
 	 */
 	void archiveNetworkTopology(JobID jobId, NetworkTopology topology);
 	
+	void archiveMetrics(JobID jobId, ManagementVertexID vertexId, MetricsSnapshot metrics);
+	
+	/**
+	 * Persists the archived data that changed since the last call, if the archivist persists its data.
+	 * Called periodically by the EventCollector.
+	 */
+	void flush();
+	
 	/**
 	 * Get all archived Jobs
 	 * 
@@ -93,6 +103,8 @@ public interface ArchiveListener {
 	 */
 	List<AbstractEvent> getEvents(JobID jobID);
 	
+	Map<ManagementVertexID, MetricsSnapshot> getMetrics(JobID jobID);
+	
 	/**
 	 * Returns the time when the status of the given job changed to jobStatus
 	 * 
@@ -0,0 +1,346 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import eu.stratosphere.core.io.IOReadableWritable;
+import eu.stratosphere.core.io.StringRecord;
+import eu.stratosphere.nephele.event.job.AbstractEvent;
+import eu.stratosphere.nephele.event.job.ExecutionStateChangeEvent;
+import eu.stratosphere.nephele.event.job.JobEvent;
+import eu.stratosphere.nephele.event.job.RecentJobEvent;
+import eu.stratosphere.nephele.execution.ExecutionState;
+import eu.stratosphere.nephele.jobgraph.JobStatus;
+import eu.stratosphere.nephele.managementgraph.ManagementGraph;
+import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
+import eu.stratosphere.nephele.topology.NetworkTopology;
+
+/**
+ * The archived data of a single job. Besides holding the data, this class answers the queries for the times of the
+ * job's and its vertices' state changes from lookup tables, and it implements the binary encoding of the job in the
+ * files of the {@link FileArchivist}.
+ * <p>
+ * A file starts with a small uncompressed header, which contains the job's {@link RecentJobEvent} and can be read
+ * without reading the rest of the file. The remainder is compressed. The class names of the events are written once
+ * per file, each event only refers to the index of its class.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class ArchivedJob {
+
+	private static final int MAGIC_NUMBER = 0x4E415243;
+
+	private static final byte VERSION = 1;
+
+	private final List<AbstractEvent> events = new ArrayList<AbstractEvent>();
+
+	private final Map<ManagementVertexID, MetricsSnapshot> metrics = new HashMap<ManagementVertexID, MetricsSnapshot>();
+
+	private RecentJobEvent jobEvent;
+
+	private ManagementGraph managementGraph;
+
+	private NetworkTopology networkTopology;
+
+	/**
+	 * The times of the job's state changes, built on the first query and dropped on every new event.
+	 */
+	private Map<JobStatus, Long> jobTimes;
+
+	/**
+	 * The times of the vertices' state changes, built on the first query and dropped on every new event.
+	 */
+	private Map<ManagementVertexID, Map<ExecutionState, Long>> vertexTimes;
+
+	RecentJobEvent getJobEvent() {
+		return this.jobEvent;
+	}
+
+	void setJobEvent(final RecentJobEvent jobEvent) {
+		this.jobEvent = jobEvent;
+	}
+
+	ManagementGraph getManagementGraph() {
+		return this.managementGraph;
+	}
+
+	void setManagementGraph(final ManagementGraph managementGraph) {
+		this.managementGraph = managementGraph;
+	}
+
+	NetworkTopology getNetworkTopology() {
+		return this.networkTopology;
+	}
+
+	void setNetworkTopology(final NetworkTopology networkTopology) {
+		this.networkTopology = networkTopology;
+	}
+
+	List<AbstractEvent> getEvents() {
+		return this.events;
+	}
+
+	void addEvent(final AbstractEvent event) {
+		this.events.add(event);
+		this.jobTimes = null;
+		this.vertexTimes = null;
+	}
+
+	Map<ManagementVertexID, MetricsSnapshot> getMetrics() {
+		return this.metrics;
+	}
+
+	void putMetrics(final ManagementVertexID vertexID, final MetricsSnapshot snapshot) {
+		this.metrics.put(vertexID, snapshot);
+	}
+
+	/**
+	 * Returns the time of the first event which changed the status of the job to the given status.
+	 * 
+	 * @param jobStatus
+	 *        the status of the job
+	 * @return the time of the status change or <code>0</code> if the job never had the given status
+	 */
+	long getJobTime(final JobStatus jobStatus) {
+		if (this.jobTimes == null) {
+			buildLookupTables();
+		}
+		final Long time = this.jobTimes.get(jobStatus);
+		return time == null ? 0L : time.longValue();
+	}
+
+	/**
+	 * Returns the time of the first event which changed the state of the given vertex to the given state.
+	 * 
+	 * @param vertexID
+	 *        the ID of the vertex
+	 * @param executionState
+	 *        the execution state of the vertex
+	 * @return the time of the state change or <code>0</code> if the vertex never had the given state
+	 */
+	long getVertexTime(final ManagementVertexID vertexID, final ExecutionState executionState) {
+		if (this.vertexTimes == null) {
+			buildLookupTables();
+		}
+		final Map<ExecutionState, Long> times = this.vertexTimes.get(vertexID);
+		if (times == null) {
+			return 0L;
+		}
+		final Long time = times.get(executionState);
+		return time == null ? 0L : time.longValue();
+	}
+
+	private void buildLookupTables() {
+
+		final Map<JobStatus, Long> jobTimes = new EnumMap<JobStatus, Long>(JobStatus.class);
+		final Map<ManagementVertexID, Map<ExecutionState, Long>> vertexTimes =
+			new HashMap<ManagementVertexID, Map<ExecutionState, Long>>();
+
+		for (final AbstractEvent event : this.events) {
+			if (event instanceof JobEvent) {
+				final JobStatus jobStatus = ((JobEvent) event).getCurrentJobStatus();
+				if (!jobTimes.containsKey(jobStatus)) {
+					jobTimes.put(jobStatus, Long.valueOf(event.getTimestamp()));
+				}
+			} else if (event instanceof ExecutionStateChangeEvent) {
+				final ExecutionStateChangeEvent stateChange = (ExecutionStateChangeEvent) event;
+				Map<ExecutionState, Long> times = vertexTimes.get(stateChange.getVertexID());
+				if (times == null) {
+					times = new EnumMap<ExecutionState, Long>(ExecutionState.class);
+					vertexTimes.put(stateChange.getVertexID(), times);
+				}
+				if (!times.containsKey(stateChange.getNewExecutionState())) {
+					times.put(stateChange.getNewExecutionState(), Long.valueOf(event.getTimestamp()));
+				}
+			}
+		}
+
+		this.jobTimes = jobTimes;
+		this.vertexTimes = vertexTimes;
+	}
+
+	/**
+	 * Writes the job to the given file. The job must have a job event.
+	 * 
+	 * @param file
+	 *        the file to write the job to
+	 * @throws IOException
+	 *         thrown if an error occurs while writing the file
+	 */
+	void write(final File file) throws IOException {
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			out.writeInt(MAGIC_NUMBER);
+			out.writeByte(VERSION);
+			this.jobEvent.write(out);
+
+			out = new DataOutputStream(new DeflaterOutputStream(out));
+			writeOptional(out, this.managementGraph);
+			writeOptional(out, this.networkTopology);
+
+			final Map<Class<?>, Integer> eventTypes = new LinkedHashMap<Class<?>, Integer>();
+			for (final AbstractEvent event : this.events) {
+				if (!eventTypes.containsKey(event.getClass())) {
+					eventTypes.put(event.getClass(), Integer.valueOf(eventTypes.size()));
+				}
+			}
+			out.writeInt(eventTypes.size());
+			for (final Class<?> eventType : eventTypes.keySet()) {
+				StringRecord.writeString(out, eventType.getName());
+			}
+			out.writeInt(this.events.size());
+			for (final AbstractEvent event : this.events) {
+				out.writeShort(eventTypes.get(event.getClass()).intValue());
+				event.write(out);
+			}
+
+			out.writeInt(this.metrics.size());
+			for (final Map.Entry<ManagementVertexID, MetricsSnapshot> entry : this.metrics.entrySet()) {
+				entry.getKey().write(out);
+				entry.getValue().write(out);
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads a job from the given file.
+	 * 
+	 * @param file
+	 *        the file to read the job from
+	 * @return the job read from the file
+	 * @throws IOException
+	 *         thrown if the file cannot be read or is not a job archive file
+	 */
+	static ArchivedJob read(final File file) throws IOException {
+
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			final ArchivedJob job = new ArchivedJob();
+			job.jobEvent = readHeader(in, file);
+
+			in = new DataInputStream(new InflaterInputStream(in));
+			if (in.readBoolean()) {
+				job.managementGraph = new ManagementGraph();
+				job.managementGraph.read(in);
+			}
+			if (in.readBoolean()) {
+				job.networkTopology = new NetworkTopology();
+				job.networkTopology.read(in);
+			}
+
+			final Class<?>[] eventTypes = new Class<?>[in.readInt()];
+			for (int i = 0; i < eventTypes.length; i++) {
+				final String className = StringRecord.readString(in);
+				try {
+					eventTypes[i] = Class.forName(className);
+				} catch (ClassNotFoundException e) {
+					throw new IOException("Cannot find event class " + className + " of archived job file " + file);
+				}
+				if (!AbstractEvent.class.isAssignableFrom(eventTypes[i])) {
+					throw new IOException("Class " + className + " in archived job file " + file + " is not an event");
+				}
+			}
+			final int numberOfEvents = in.readInt();
+			for (int i = 0; i < numberOfEvents; i++) {
+				final AbstractEvent event;
+				try {
+					event = (AbstractEvent) eventTypes[in.readUnsignedShort()].newInstance();
+				} catch (Exception e) {
+					throw new IOException("Cannot instantiate event of archived job file " + file + ": "
+						+ e.getMessage());
+				}
+				event.read(in);
+				job.events.add(event);
+			}
+
+			final int numberOfMetrics = in.readInt();
+			for (int i = 0; i < numberOfMetrics; i++) {
+				final ManagementVertexID vertexID = new ManagementVertexID();
+				vertexID.read(in);
+				final MetricsSnapshot snapshot = new MetricsSnapshot();
+				snapshot.read(in);
+				job.metrics.put(vertexID, snapshot);
+			}
+
+			return job;
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Reads only the job event from the header of the given file.
+	 * 
+	 * @param file
+	 *        the file to read the job event from
+	 * @return the job event read from the file
+	 * @throws IOException
+	 *         thrown if the file cannot be read or is not a job archive file
+	 */
+	static RecentJobEvent readJobEvent(final File file) throws IOException {
+
+		final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+		try {
+			return readHeader(in, file);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static RecentJobEvent readHeader(final DataInput in, final File file) throws IOException {
+
+		if (in.readInt() != MAGIC_NUMBER) {
+			throw new IOException(file + " is not an archived job file");
+		}
+		final byte version = in.readByte();
+		if (version != VERSION) {
+			throw new IOException("Archived job file " + file + " has unsupported version " + version);
+		}
+
+		final RecentJobEvent jobEvent = new RecentJobEvent();
+		jobEvent.read(in);
+		return jobEvent;
+	}
+
+	private static void writeOptional(final DataOutput out, final IOReadableWritable record) throws IOException {
+		if (record == null) {
+			out.writeBoolean(false);
+		} else {
+			out.writeBoolean(true);
+			record.write(out);
+		}
+	}
+}
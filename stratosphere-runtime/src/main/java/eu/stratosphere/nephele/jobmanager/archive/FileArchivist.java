@@ -0,0 +1,392 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.archive;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.nephele.event.job.AbstractEvent;
+import eu.stratosphere.nephele.event.job.RecentJobEvent;
+import eu.stratosphere.nephele.execution.ExecutionState;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.jobgraph.JobStatus;
+import eu.stratosphere.nephele.managementgraph.ManagementGraph;
+import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
+import eu.stratosphere.nephele.topology.NetworkTopology;
+
+/**
+ * Implementation of the ArchiveListener, that archives old data of the jobmanager in files, so that the history of
+ * the jobs survives a restart of the jobmanager.
+ * <p>
+ * The data of a job is collected in memory until the job itself is archived, which the EventCollector does after it
+ * has archived the job's events, management graph and network topology. The job is then written to a file of its own
+ * in the archive directory. Only the job events of the archived jobs are kept in memory, as an index ordered by the
+ * time the jobs were archived. The other data of a job is read from its file on demand and kept in a cache of
+ * limited size, which evicts the least recently used jobs. If the number of archived jobs exceeds the limit, the
+ * files of the oldest jobs are deleted.
+ * <p>
+ * Data that arrives for a job after the job has been archived, such as the final metrics of its tasks, only marks the
+ * job as modified. Modified jobs are written once per {@link #flush()}, or when they are evicted from the cache.
+ * <p>
+ * All methods are thread-safe.
+ */
+public class FileArchivist implements ArchiveListener {
+
+	private static final Log LOG = LogFactory.getLog(FileArchivist.class);
+
+	private static final String FILE_SUFFIX = ".job";
+
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+	private final File directory;
+
+	private final int maxArchivedJobs;
+
+	/**
+	 * The job events of the archived jobs, in the order the jobs were archived.
+	 */
+	private final LinkedHashMap<JobID, RecentJobEvent> index = new LinkedHashMap<JobID, RecentJobEvent>();
+
+	/**
+	 * The least recently used archived jobs.
+	 */
+	private final Map<JobID, ArchivedJob> cache;
+
+	/**
+	 * The data of the jobs which have not been archived themselves yet.
+	 */
+	private final Map<JobID, ArchivedJob> pendingJobs;
+
+	/**
+	 * The archived jobs which have been modified since they were last written.
+	 */
+	private final Set<JobID> modifiedJobs = new LinkedHashSet<JobID>();
+
+	/**
+	 * Constructs a new file archivist and reads the index of the jobs archived in the given directory.
+	 * 
+	 * @param directory
+	 *        the directory to store the archived jobs in, created if it does not exist
+	 * @param maxCachedJobs
+	 *        the maximum number of archived jobs to keep in memory
+	 * @param maxArchivedJobs
+	 *        the maximum number of jobs to keep in the archive directory
+	 * @throws IOException
+	 *         thrown if the archive directory cannot be created or read
+	 */
+	public FileArchivist(final File directory, final int maxCachedJobs, final int maxArchivedJobs) throws IOException {
+
+		if (maxCachedJobs < 1 || maxArchivedJobs < 1) {
+			throw new IllegalArgumentException("The archive must keep at least one job.");
+		}
+
+		this.directory = directory;
+		this.maxArchivedJobs = maxArchivedJobs;
+		this.cache = new LinkedHashMap<JobID, ArchivedJob>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -1703493810418862377L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<JobID, ArchivedJob> eldest) {
+				if (size() <= maxCachedJobs) {
+					return false;
+				}
+				// the evicted job is read from its file again, so its modifications must be written first
+				if (modifiedJobs.remove(eldest.getKey())) {
+					write(eldest.getKey(), eldest.getValue());
+				}
+				return true;
+			}
+		};
+		// jobs whose events arrive after they have been removed from the archive are never archived themselves
+		this.pendingJobs = new LinkedHashMap<JobID, ArchivedJob>() {
+
+			private static final long serialVersionUID = 6098345862107936473L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<JobID, ArchivedJob> eldest) {
+				return size() > maxArchivedJobs;
+			}
+		};
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create archive directory " + directory);
+		}
+		readIndex();
+	}
+
+	private void readIndex() throws IOException {
+
+		final File[] files = this.directory.listFiles();
+		if (files == null) {
+			throw new IOException("Cannot read archive directory " + this.directory);
+		}
+
+		final List<RecentJobEvent> jobEvents = new ArrayList<RecentJobEvent>(files.length);
+		for (final File file : files) {
+			if (file.getName().endsWith(TEMPORARY_FILE_SUFFIX)) {
+				// left over from an interrupted write
+				file.delete();
+			} else if (file.getName().endsWith(FILE_SUFFIX)) {
+				try {
+					jobEvents.add(ArchivedJob.readJobEvent(file));
+				} catch (IOException e) {
+					LOG.warn("Skipping archived job file " + file + ": " + e.getMessage());
+				}
+			}
+		}
+
+		Collections.sort(jobEvents, new Comparator<RecentJobEvent>() {
+
+			@Override
+			public int compare(final RecentJobEvent o1, final RecentJobEvent o2) {
+				return o1.getTimestamp() < o2.getTimestamp() ? -1 : (o1.getTimestamp() > o2.getTimestamp() ? 1 : 0);
+			}
+		});
+		for (final RecentJobEvent jobEvent : jobEvents) {
+			this.index.put(jobEvent.getJobID(), jobEvent);
+		}
+		removeOldestJobs();
+
+		LOG.info("Found " + this.index.size() + " archived jobs in " + this.directory);
+	}
+
+	@Override
+	public synchronized void archiveEvent(final JobID jobId, final AbstractEvent event) {
+
+		final ArchivedJob job = getJobForUpdate(jobId);
+		job.addEvent(event);
+		markIfArchived(jobId);
+	}
+
+	@Override
+	public synchronized void archiveJobevent(final JobID jobId, final RecentJobEvent event) {
+
+		ArchivedJob job = this.pendingJobs.remove(jobId);
+		if (job == null) {
+			job = getJobForUpdate(jobId);
+		}
+		job.setJobEvent(event);
+
+		this.index.put(jobId, event);
+		removeOldestJobs();
+		this.cache.put(jobId, job);
+		this.modifiedJobs.remove(jobId);
+		write(jobId, job);
+	}
+
+	@Override
+	public synchronized void archiveManagementGraph(final JobID jobId, final ManagementGraph graph) {
+
+		final ArchivedJob job = getJobForUpdate(jobId);
+		job.setManagementGraph(graph);
+		markIfArchived(jobId);
+	}
+
+	@Override
+	public synchronized void archiveNetworkTopology(final JobID jobId, final NetworkTopology topology) {
+
+		final ArchivedJob job = getJobForUpdate(jobId);
+		job.setNetworkTopology(topology);
+		markIfArchived(jobId);
+	}
+
+	@Override
+	public synchronized void archiveMetrics(final JobID jobId, final ManagementVertexID vertexId,
+			final MetricsSnapshot metrics) {
+
+		final ArchivedJob job = getJobForUpdate(jobId);
+		job.putMetrics(vertexId, metrics);
+		markIfArchived(jobId);
+	}
+
+	/**
+	 * Writes the archived jobs which have been modified since they were last written.
+	 */
+	@Override
+	public synchronized void flush() {
+
+		for (final JobID jobID : this.modifiedJobs) {
+			final ArchivedJob job = this.cache.get(jobID);
+			if (job != null) {
+				write(jobID, job);
+			}
+		}
+		this.modifiedJobs.clear();
+	}
+
+	@Override
+	public synchronized List<RecentJobEvent> getJobs() {
+
+		return new ArrayList<RecentJobEvent>(this.index.values());
+	}
+
+	@Override
+	public synchronized RecentJobEvent getJob(final JobID jobId) {
+
+		return this.index.get(jobId);
+	}
+
+	@Override
+	public synchronized ManagementGraph getManagementGraph(final JobID jobID) {
+
+		final ArchivedJob job = getJob(jobID, false);
+		return job == null ? null : job.getManagementGraph();
+	}
+
+	@Override
+	public synchronized List<AbstractEvent> getEvents(final JobID jobID) {
+
+		final ArchivedJob job = getJob(jobID, false);
+		return job == null ? null : new ArrayList<AbstractEvent>(job.getEvents());
+	}
+
+	@Override
+	public synchronized Map<ManagementVertexID, MetricsSnapshot> getMetrics(final JobID jobID) {
+
+		final ArchivedJob job = getJob(jobID, false);
+		if (job == null) {
+			return Collections.emptyMap();
+		}
+		return new HashMap<ManagementVertexID, MetricsSnapshot>(job.getMetrics());
+	}
+
+	@Override
+	public synchronized long getJobTime(final JobID jobID, final JobStatus jobStatus) {
+
+		final ArchivedJob job = getJob(jobID, false);
+		return job == null ? 0L : job.getJobTime(jobStatus);
+	}
+
+	@Override
+	public synchronized long getVertexTime(final JobID jobID, final ManagementVertexID jobVertexID,
+			final ExecutionState executionState) {
+
+		final ArchivedJob job = getJob(jobID, false);
+		return job == null ? 0L : job.getVertexTime(jobVertexID, executionState);
+	}
+
+	/**
+	 * Returns the data of the given job, creating a pending job if the job is not known.
+	 */
+	private ArchivedJob getJobForUpdate(final JobID jobID) {
+		return getJob(jobID, true);
+	}
+
+	/**
+	 * Returns the data of the given job from the pending jobs, the cache or the archive directory.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 * @param create
+	 *        <code>true</code> to create a pending job if the job is not known
+	 * @return the data of the job or <code>null</code> if the job is not known or cannot be read
+	 */
+	private ArchivedJob getJob(final JobID jobID, final boolean create) {
+
+		ArchivedJob job = this.pendingJobs.get(jobID);
+		if (job != null) {
+			return job;
+		}
+
+		job = this.cache.get(jobID);
+		if (job != null) {
+			return job;
+		}
+
+		if (this.index.containsKey(jobID)) {
+			try {
+				job = ArchivedJob.read(getFile(jobID));
+				this.cache.put(jobID, job);
+				return job;
+			} catch (IOException e) {
+				LOG.error("Cannot read archived job " + jobID + ": " + e.getMessage());
+				if (!create) {
+					return null;
+				}
+				// start over, the job's file is replaced with the data archived from now on
+				job = new ArchivedJob();
+				job.setJobEvent(this.index.get(jobID));
+				this.cache.put(jobID, job);
+				return job;
+			}
+		}
+
+		if (!create) {
+			return null;
+		}
+
+		job = new ArchivedJob();
+		this.pendingJobs.put(jobID, job);
+		return job;
+	}
+
+	private void markIfArchived(final JobID jobID) {
+
+		if (this.index.containsKey(jobID)) {
+			this.modifiedJobs.add(jobID);
+		}
+	}
+
+	/**
+	 * Writes the given job to a temporary file first, which then replaces the job's file.
+	 */
+	private void write(final JobID jobID, final ArchivedJob job) {
+
+		final File file = getFile(jobID);
+		final File temporaryFile = new File(this.directory, jobID.toString() + TEMPORARY_FILE_SUFFIX);
+		try {
+			job.write(temporaryFile);
+			if (!temporaryFile.renameTo(file) && !(file.delete() && temporaryFile.renameTo(file))) {
+				throw new IOException("Cannot rename " + temporaryFile + " to " + file);
+			}
+		} catch (IOException e) {
+			LOG.error("Cannot write archived job " + jobID + ": " + e.getMessage());
+			temporaryFile.delete();
+		}
+	}
+
+	private void removeOldestJobs() {
+
+		final Iterator<JobID> it = this.index.keySet().iterator();
+		while (this.index.size() > this.maxArchivedJobs && it.hasNext()) {
+			final JobID jobID = it.next();
+			it.remove();
+			this.modifiedJobs.remove(jobID);
+			this.cache.remove(jobID);
+			final File file = getFile(jobID);
+			if (file.exists() && !file.delete()) {
+				LOG.warn("Cannot delete archived job file " + file);
+			}
+		}
+	}
+
+	private File getFile(final JobID jobID) {
+		return new File(this.directory, jobID.toString() + FILE_SUFFIX);
+	}
+}
@@ -14,6 +14,7 @@
 package eu.stratosphere.nephele.jobmanager.archive;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -28,6 +29,7 @@ import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.jobgraph.JobStatus;
 import eu.stratosphere.nephele.managementgraph.ManagementGraph;
 import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
 import eu.stratosphere.nephele.topology.NetworkTopology;
 
 /**
@@ -59,6 +61,11 @@ public class MemoryArchivist implements ArchiveListener {
 	 */
 	private final Map<JobID, NetworkTopology> networkTopologies = new HashMap<JobID, NetworkTopology>();
 	
+	/**
+	 * Map of the latest runtime metrics reported by the tasks of recently started jobs.
+	 */
+	private final Map<JobID, Map<ManagementVertexID, MetricsSnapshot>> metrics = new HashMap<JobID, Map<ManagementVertexID, MetricsSnapshot>>();
+	
 	private final LinkedList<JobID> lru = new LinkedList<JobID>();
 	
 	public MemoryArchivist(int max_entries) {
@@ -66,7 +73,7 @@ public class MemoryArchivist implements ArchiveListener {
 	}
 	
 	
-	public void archiveEvent(JobID jobId, AbstractEvent event) {
+	public synchronized void archiveEvent(JobID jobId, AbstractEvent event) {
 		
 		if(!collectedEvents.containsKey(jobId)) {
 			collectedEvents.put(jobId, new ArrayList<AbstractEvent>());
@@ -77,33 +84,49 @@ public class MemoryArchivist implements ArchiveListener {
 		cleanup(jobId);
 	}
 	
-	public void archiveJobevent(JobID jobId, RecentJobEvent event) {
+	public synchronized void archiveJobevent(JobID jobId, RecentJobEvent event) {
 		
 		oldJobs.put(jobId, event);
 		
 		cleanup(jobId);
 	}
 	
-	public void archiveManagementGraph(JobID jobId, ManagementGraph graph) {
+	public synchronized void archiveManagementGraph(JobID jobId, ManagementGraph graph) {
 		
 		managementGraphs.put(jobId, graph);
 		
 		cleanup(jobId);
 	}
 	
-	public void archiveNetworkTopology(JobID jobId, NetworkTopology topology) {
+	public synchronized void archiveNetworkTopology(JobID jobId, NetworkTopology topology) {
 		
 		networkTopologies.put(jobId, topology);
 		
 		cleanup(jobId);
 	}
 
+	public synchronized void archiveMetrics(JobID jobId, ManagementVertexID vertexId, MetricsSnapshot snapshot) {
+		
+		Map<ManagementVertexID, MetricsSnapshot> jobMetrics = metrics.get(jobId);
+		if(jobMetrics == null) {
+			jobMetrics = new HashMap<ManagementVertexID, MetricsSnapshot>();
+			metrics.put(jobId, jobMetrics);
+		}
+		jobMetrics.put(vertexId, snapshot);
+		
+		cleanup(jobId);
+	}
+
+	public void flush() {
+		// nothing to persist
+	}
+
 	public List<RecentJobEvent> getJobs() {
 
 		return new ArrayList<RecentJobEvent>(oldJobs.values());
 	}
 	
-	private void cleanup(JobID jobId) {
+	private synchronized void cleanup(JobID jobId) {
 		if(!lru.contains(jobId)) {
 			lru.addFirst(jobId);
 		}
@@ -113,6 +136,7 @@ public class MemoryArchivist implements ArchiveListener {
 			oldJobs.remove(toRemove);
 			managementGraphs.remove(toRemove);
 			networkTopologies.remove(toRemove);
+			metrics.remove(toRemove);
 		}
 	}
 	
@@ -132,6 +156,14 @@ public class MemoryArchivist implements ArchiveListener {
 		return collectedEvents.get(jobID);
 	}
 	
+	public synchronized Map<ManagementVertexID, MetricsSnapshot> getMetrics(JobID jobID) {
+		Map<ManagementVertexID, MetricsSnapshot> jobMetrics = metrics.get(jobID);
+		if(jobMetrics == null) {
+			return Collections.emptyMap();
+		}
+		return new HashMap<ManagementVertexID, MetricsSnapshot>(jobMetrics);
+	}
+	
 	public long getJobTime(JobID jobID, JobStatus jobStatus) {
 		for(AbstractEvent event : this.getEvents(jobID)) {
 			if(event instanceof JobEvent)
@@ -0,0 +1,257 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.backpressure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.stratosphere.nephele.execution.TaskMetrics;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.managementgraph.ManagementGraph;
+import eu.stratosphere.nephele.managementgraph.ManagementGroupVertex;
+import eu.stratosphere.nephele.managementgraph.ManagementVertex;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
+
+/**
+ * This class derives the back pressure of the tasks of recent jobs from the progress reports of the tasks. Each
+ * report carries the total time the task waited for input and for output buffers. The difference to the previous
+ * report of the same task, divided by the time between the two reports, yields the fraction of time the task was
+ * blocked. The fractions are smoothed over consecutive reports, so that a single report does not flip the result.
+ * The samples of tasks which have stopped running are dropped, such that the back pressure of a group vertex only
+ * reflects its running members.
+ * <p>
+ * The samples of jobs are removed in the order the jobs were first reported, once the maximum number of jobs is
+ * reached. All methods are thread-safe.
+ */
+public class BackPressureTracker {
+
+	/**
+	 * The weight of the latest sample in the smoothed ratios.
+	 */
+	private static final double SMOOTHING = 0.5;
+
+	private final Map<JobID, Map<ExecutionVertexID, TaskSample>> jobSamples;
+
+	private final double threshold;
+
+	/**
+	 * Constructs a new back pressure tracker.
+	 * 
+	 * @param maxEntries
+	 *        the maximum number of jobs to keep the samples for
+	 * @param threshold
+	 *        the fraction of time a group vertex must wait for output buffers to be considered back pressured
+	 */
+	public BackPressureTracker(final int maxEntries, final double threshold) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("The tracker must keep the samples of at least one job.");
+		}
+		if (threshold <= 0.0 || threshold > 1.0) {
+			throw new IllegalArgumentException("The back pressure threshold must be in (0, 1].");
+		}
+
+		this.threshold = threshold;
+		this.jobSamples = new LinkedHashMap<JobID, Map<ExecutionVertexID, TaskSample>>() {
+
+			private static final long serialVersionUID = 2917349170384730593L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<JobID, Map<ExecutionVertexID, TaskSample>> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Updates the back pressure of the reporting task.
+	 * 
+	 * @param progress
+	 *        the progress report of the task
+	 */
+	public void processTaskProgress(final TaskProgressEvent progress) {
+
+		final TaskMetrics metrics = progress.getMetrics();
+		processSample(progress.getJobID(), progress.getVertexID(), progress.getTimestamp(), metrics.getInputWaitTime(),
+			metrics.getOutputWaitTime());
+	}
+
+	/**
+	 * Updates the back pressure of a task with a new sample of its total wait times.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the task belongs to
+	 * @param vertexID
+	 *        the ID of the task
+	 * @param timestamp
+	 *        the time the sample was taken in milliseconds
+	 * @param inputWaitTime
+	 *        the total time the task waited for input in milliseconds
+	 * @param outputWaitTime
+	 *        the total time the task waited for output buffers in milliseconds
+	 */
+	void processSample(final JobID jobID, final ExecutionVertexID vertexID, final long timestamp,
+			final long inputWaitTime, final long outputWaitTime) {
+
+		synchronized (this.jobSamples) {
+			Map<ExecutionVertexID, TaskSample> samples = this.jobSamples.get(jobID);
+			if (samples == null) {
+				samples = new HashMap<ExecutionVertexID, TaskSample>();
+				this.jobSamples.put(jobID, samples);
+			}
+
+			final TaskSample sample = samples.get(vertexID);
+			if (sample == null) {
+				samples.put(vertexID, new TaskSample(timestamp, inputWaitTime, outputWaitTime));
+			} else {
+				sample.update(timestamp, inputWaitTime, outputWaitTime);
+			}
+		}
+	}
+
+	/**
+	 * Drops the samples of a task which has finished, has been canceled or has failed. A progress report which
+	 * arrives after the task has stopped starts a new sample, which does not yield any ratio on its own.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the task belongs to
+	 * @param vertexID
+	 *        the ID of the task
+	 */
+	public void taskStopped(final JobID jobID, final ExecutionVertexID vertexID) {
+
+		synchronized (this.jobSamples) {
+			final Map<ExecutionVertexID, TaskSample> samples = this.jobSamples.get(jobID);
+			if (samples != null) {
+				samples.remove(vertexID);
+			}
+		}
+	}
+
+	/**
+	 * Aggregates the back pressure of the sampled tasks of a job per group vertex.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 * @param managementGraph
+	 *        the management graph of the job
+	 * @return the back pressure of the group vertices in topological order, group vertices without sampled members
+	 *         are omitted
+	 */
+	public List<VertexBackPressure> getBackPressure(final JobID jobID, final ManagementGraph managementGraph) {
+
+		final Map<ManagementGroupVertex, VertexBackPressure> result =
+			new LinkedHashMap<ManagementGroupVertex, VertexBackPressure>();
+
+		synchronized (this.jobSamples) {
+			final Map<ExecutionVertexID, TaskSample> samples = this.jobSamples.get(jobID);
+			if (samples == null) {
+				return new ArrayList<VertexBackPressure>();
+			}
+
+			for (final ManagementGroupVertex groupVertex : managementGraph.getGroupVerticesInTopologicalOrder()) {
+				int sampledTasks = 0;
+				double backPressure = 0.0;
+				double maxBackPressure = 0.0;
+				double inputWait = 0.0;
+
+				for (final ManagementVertex vertex : groupVertex.getGroupMembers()) {
+					final TaskSample sample = samples.get(ExecutionVertexID.fromManagementVertexID(vertex.getID()));
+					if (sample == null || !sample.hasRatios()) {
+						continue;
+					}
+					++sampledTasks;
+					backPressure += sample.outputWaitRatio;
+					maxBackPressure = Math.max(maxBackPressure, sample.outputWaitRatio);
+					inputWait += sample.inputWaitRatio;
+				}
+
+				if (sampledTasks > 0) {
+					backPressure /= sampledTasks;
+					result.put(groupVertex, new VertexBackPressure(groupVertex, sampledTasks, backPressure,
+						maxBackPressure, inputWait / sampledTasks, backPressure >= this.threshold));
+				}
+			}
+		}
+
+		// a group vertex which keeps its producers waiting without waiting for its own consumers is a bottleneck
+		for (final VertexBackPressure vertexBackPressure : result.values()) {
+			if (vertexBackPressure.isBackPressured()) {
+				continue;
+			}
+			for (final ManagementGroupVertex predecessor : vertexBackPressure.getGroupVertex().getPredecessors()) {
+				final VertexBackPressure producer = result.get(predecessor);
+				if (producer != null && producer.isBackPressured()) {
+					vertexBackPressure.setBottleneck(true);
+					break;
+				}
+			}
+		}
+
+		return new ArrayList<VertexBackPressure>(result.values());
+	}
+
+	/**
+	 * The last report of a single task and the smoothed ratios derived from the reports so far.
+	 */
+	private static final class TaskSample {
+
+		private long timestamp;
+
+		private long inputWaitTime;
+
+		private long outputWaitTime;
+
+		private double inputWaitRatio = Double.NaN;
+
+		private double outputWaitRatio = Double.NaN;
+
+		private TaskSample(final long timestamp, final long inputWaitTime, final long outputWaitTime) {
+			this.timestamp = timestamp;
+			this.inputWaitTime = inputWaitTime;
+			this.outputWaitTime = outputWaitTime;
+		}
+
+		private void update(final long timestamp, final long inputWaitTime, final long outputWaitTime) {
+
+			final long interval = timestamp - this.timestamp;
+			if (interval <= 0L) {
+				// reports of the same task manager arrive in order, so this is a duplicate
+				return;
+			}
+
+			this.inputWaitRatio = smooth(this.inputWaitRatio, ratio(inputWaitTime - this.inputWaitTime, interval));
+			this.outputWaitRatio = smooth(this.outputWaitRatio, ratio(outputWaitTime - this.outputWaitTime, interval));
+			this.timestamp = timestamp;
+			this.inputWaitTime = inputWaitTime;
+			this.outputWaitTime = outputWaitTime;
+		}
+
+		private boolean hasRatios() {
+			return !Double.isNaN(this.outputWaitRatio);
+		}
+
+		private static double ratio(final long waitTime, final long interval) {
+			// the wait times are read without synchronization, so clamp the result to the valid range
+			return Math.min(1.0, Math.max(0.0, (double) waitTime / (double) interval));
+		}
+
+		private static double smooth(final double previous, final double latest) {
+			return Double.isNaN(previous) ? latest : SMOOTHING * latest + (1.0 - SMOOTHING) * previous;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.backpressure;
+
+import eu.stratosphere.nephele.managementgraph.ManagementGroupVertex;
+
+/**
+ * The back pressure of a group vertex, aggregated from the samples of its running or finished group members.
+ * <p>
+ * The back pressure ratio is the fraction of time the members spent waiting for empty output buffers, i.e. waiting
+ * for their consumers. The input wait ratio is the fraction of time they spent waiting for input from their
+ * producers. A group vertex whose producers are back pressured while it is not back pressured itself cannot keep up
+ * with its input and is marked as the bottleneck.
+ */
+public final class VertexBackPressure {
+
+	private final ManagementGroupVertex groupVertex;
+
+	private final int numberOfSampledTasks;
+
+	private final double backPressureRatio;
+
+	private final double maxBackPressureRatio;
+
+	private final double inputWaitRatio;
+
+	private final boolean backPressured;
+
+	private boolean bottleneck;
+
+	VertexBackPressure(final ManagementGroupVertex groupVertex, final int numberOfSampledTasks,
+			final double backPressureRatio, final double maxBackPressureRatio, final double inputWaitRatio,
+			final boolean backPressured) {
+		this.groupVertex = groupVertex;
+		this.numberOfSampledTasks = numberOfSampledTasks;
+		this.backPressureRatio = backPressureRatio;
+		this.maxBackPressureRatio = maxBackPressureRatio;
+		this.inputWaitRatio = inputWaitRatio;
+		this.backPressured = backPressured;
+	}
+
+	/**
+	 * Returns the group vertex.
+	 * 
+	 * @return the group vertex
+	 */
+	public ManagementGroupVertex getGroupVertex() {
+		return this.groupVertex;
+	}
+
+	/**
+	 * Returns the number of group members for which at least two samples have been received.
+	 * 
+	 * @return the number of sampled group members
+	 */
+	public int getNumberOfSampledTasks() {
+		return this.numberOfSampledTasks;
+	}
+
+	/**
+	 * Returns the average fraction of time the sampled group members waited for output buffers.
+	 * 
+	 * @return the average back pressure ratio between <code>0</code> and <code>1</code>
+	 */
+	public double getBackPressureRatio() {
+		return this.backPressureRatio;
+	}
+
+	/**
+	 * Returns the fraction of time the most back pressured group member waited for output buffers.
+	 * 
+	 * @return the highest back pressure ratio of a group member between <code>0</code> and <code>1</code>
+	 */
+	public double getMaxBackPressureRatio() {
+		return this.maxBackPressureRatio;
+	}
+
+	/**
+	 * Returns the average fraction of time the sampled group members waited for input.
+	 * 
+	 * @return the average input wait ratio between <code>0</code> and <code>1</code>
+	 */
+	public double getInputWaitRatio() {
+		return this.inputWaitRatio;
+	}
+
+	/**
+	 * Checks whether the average back pressure ratio of the group vertex exceeds the threshold.
+	 * 
+	 * @return <code>true</code> if the group vertex is back pressured, <code>false</code> otherwise
+	 */
+	public boolean isBackPressured() {
+		return this.backPressured;
+	}
+
+	/**
+	 * Checks whether the group vertex is a bottleneck of the job, i.e. at least one of its producers is back
+	 * pressured while the group vertex itself is not.
+	 * 
+	 * @return <code>true</code> if the group vertex is a bottleneck, <code>false</code> otherwise
+	 */
+	public boolean isBottleneck() {
+		return this.bottleneck;
+	}
+
+	void setBottleneck(final boolean bottleneck) {
+		this.bottleneck = bottleneck;
+	}
+}
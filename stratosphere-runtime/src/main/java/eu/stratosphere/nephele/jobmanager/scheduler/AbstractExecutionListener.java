@@ -15,6 +15,7 @@ package eu.stratosphere.nephele.jobmanager.scheduler;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import eu.stratosphere.nephele.execution.ExecutionListener;
@@ -59,6 +60,12 @@ public abstract class AbstractExecutionListener implements ExecutionListener {
 
 		final ExecutionGraph eg = this.executionVertex.getExecutionGraph();
 
+		// Keep track of the run times to detect stragglers
+		final StragglerDetector stragglerDetector = this.scheduler.getStragglerDetector();
+		if (stragglerDetector != null) {
+			updateStragglerDetector(stragglerDetector, jobID, vertexID, newExecutionState);
+		}
+
 		// Check if we can deploy a new pipeline.
 		if (newExecutionState == ExecutionState.FINISHING) {
 
@@ -145,6 +152,36 @@ public abstract class AbstractExecutionListener implements ExecutionListener {
 
 	}
 
+	private void updateStragglerDetector(final StragglerDetector stragglerDetector, final JobID jobID,
+			final ExecutionVertexID vertexID, final ExecutionState newExecutionState) {
+
+		final ExecutionGroupVertex groupVertex = this.executionVertex.getGroupVertex();
+
+		switch (newExecutionState) {
+		case RUNNING:
+			stragglerDetector.vertexStarted(jobID, groupVertex.getJobVertexID(),
+				groupVertex.getCurrentNumberOfGroupMembers(), vertexID, System.currentTimeMillis());
+			break;
+		case FINISHING:
+			final List<ExecutionVertexID> stragglers = stragglerDetector.vertexFinished(jobID,
+				groupVertex.getJobVertexID(), vertexID, System.currentTimeMillis());
+			for (final ExecutionVertexID stragglerID : stragglers) {
+				final ExecutionVertex straggler = this.executionVertex.getExecutionGraph().getVertexByID(stragglerID);
+				if (straggler != null) {
+					this.scheduler.reportStraggler(straggler);
+				}
+			}
+			break;
+		case CANCELING:
+		case CANCELED:
+		case FAILED:
+			stragglerDetector.vertexStopped(jobID, groupVertex.getJobVertexID(), vertexID);
+			break;
+		default:
+			break;
+		}
+	}
+
 
 	@Override
 	public void userThreadFinished(final JobID jobID, final ExecutionVertexID vertexID, final Thread userThread) {
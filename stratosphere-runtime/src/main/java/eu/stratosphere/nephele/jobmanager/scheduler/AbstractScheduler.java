@@ -22,11 +22,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.configuration.GlobalConfiguration;
 import eu.stratosphere.nephele.execution.ExecutionState;
+import eu.stratosphere.nephele.execution.TaskMetrics;
 import eu.stratosphere.nephele.executiongraph.ExecutionEdge;
 import eu.stratosphere.nephele.executiongraph.ExecutionGate;
 import eu.stratosphere.nephele.executiongraph.ExecutionGraph;
@@ -49,6 +53,7 @@ import eu.stratosphere.nephele.instance.InstanceRequestMap;
 import eu.stratosphere.nephele.instance.InstanceType;
 import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.jobmanager.DeploymentManager;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 import eu.stratosphere.util.StringUtils;
 
 /**
@@ -81,6 +86,21 @@ public abstract class AbstractScheduler implements InstanceListener {
 	 */
 	private final Map<ExecutionVertexID, ExecutionVertex> verticesToBeRestarted = new ConcurrentHashMap<ExecutionVertexID, ExecutionVertex>();
 
+	/**
+	 * The detector for tasks running considerably slower than their siblings, <code>null</code> if disabled.
+	 */
+	private final StragglerDetector stragglerDetector;
+
+	/**
+	 * The minimum interval in milliseconds between two checks for stragglers.
+	 */
+	private final long stragglerCheckInterval;
+
+	/**
+	 * The time of the last check for stragglers.
+	 */
+	private final AtomicLong lastStragglerCheck = new AtomicLong(System.currentTimeMillis());
+
 	/**
 	 * Constructs a new abstract scheduler.
 	 * 
@@ -94,6 +114,23 @@ public abstract class AbstractScheduler implements InstanceListener {
 		this.deploymentManager = deploymentManager;
 		this.instanceManager = instanceManager;
 		this.instanceManager.setInstanceListener(this);
+
+		final float slowdown = GlobalConfiguration.getFloat(ConfigConstants.JOB_MANAGER_STRAGGLER_SLOWDOWN_KEY,
+			ConfigConstants.DEFAULT_JOB_MANAGER_STRAGGLER_SLOWDOWN);
+		if (slowdown > 0.0f) {
+			this.stragglerDetector = new StragglerDetector(slowdown, GlobalConfiguration.getFloat(
+				ConfigConstants.JOB_MANAGER_STRAGGLER_FINISHED_FRACTION_KEY,
+				ConfigConstants.DEFAULT_JOB_MANAGER_STRAGGLER_FINISHED_FRACTION), GlobalConfiguration.getLong(
+				ConfigConstants.JOB_MANAGER_STRAGGLER_MIN_RUNTIME_KEY,
+				ConfigConstants.DEFAULT_JOB_MANAGER_STRAGGLER_MIN_RUNTIME));
+
+			this.stragglerCheckInterval = GlobalConfiguration.getLong(
+				ConfigConstants.JOB_MANAGER_STRAGGLER_CHECK_INTERVAL_KEY,
+				ConfigConstants.DEFAULT_JOB_MANAGER_STRAGGLER_CHECK_INTERVAL);
+		} else {
+			this.stragglerDetector = null;
+			this.stragglerCheckInterval = 0L;
+		}
 	}
 
 	/**
@@ -558,6 +595,85 @@ public abstract class AbstractScheduler implements InstanceListener {
 		return this.verticesToBeRestarted;
 	}
 
+	/**
+	 * Returns the detector for tasks running considerably longer than their siblings.
+	 * 
+	 * @return the straggler detector or <code>null</code> if the straggler detection is disabled
+	 */
+	protected StragglerDetector getStragglerDetector() {
+
+		return this.stragglerDetector;
+	}
+
+	/**
+	 * Passes the progress reported by a task to the straggler detection. As the running tasks report their progress
+	 * periodically, the reports also trigger the checks for stragglers, at most once per check interval.
+	 * 
+	 * @param progress
+	 *        the progress reported by the task
+	 */
+	public void reportTaskProgress(final TaskProgressEvent progress) {
+
+		final TaskMetrics metrics = progress.getMetrics();
+		if (this.stragglerDetector != null && metrics != null) {
+			// the start times of the tasks are taken from the job manager's clock as well
+			final long now = System.currentTimeMillis();
+			this.stragglerDetector.progressReported(progress.getJobID(), progress.getVertexID(), now,
+				metrics.getRecordsIn() + metrics.getRecordsOut());
+
+			final long lastCheck = this.lastStragglerCheck.get();
+			if (now - lastCheck >= this.stragglerCheckInterval && this.lastStragglerCheck.compareAndSet(lastCheck, now)) {
+				checkForStragglers(now);
+			}
+		}
+	}
+
+	/**
+	 * Checks the running tasks of all jobs for stragglers and reports them.
+	 * 
+	 * @param now
+	 *        the current time
+	 */
+	void checkForStragglers(final long now) {
+
+		try {
+			final Map<JobID, List<ExecutionVertexID>> stragglers = this.stragglerDetector.checkForStragglers(now);
+
+			for (final Map.Entry<JobID, List<ExecutionVertexID>> entry : stragglers.entrySet()) {
+
+				final ExecutionGraph eg = getExecutionGraphByID(entry.getKey());
+				if (eg == null) {
+					continue;
+				}
+
+				for (final ExecutionVertexID stragglerID : entry.getValue()) {
+					final ExecutionVertex straggler = eg.getVertexByID(stragglerID);
+					if (straggler != null) {
+						reportStraggler(straggler);
+					}
+				}
+			}
+		} catch (RuntimeException e) {
+			// do not let the exception fail the progress report
+			LOG.error("Error while checking for stragglers: " + StringUtils.stringifyException(e));
+		}
+	}
+
+	/**
+	 * Reports the given vertex as a straggler. The straggler is not re-executed, as every vertex has exactly one
+	 * attempt whose pipelined channels cannot be taken over by a second one. Splits which have been reserved for the
+	 * straggler's instance but not yet consumed are taken over by faster instances through the input split assigners,
+	 * so a straggling input vertex only delays the completion of the split it is currently processing.
+	 * 
+	 * @param straggler
+	 *        the vertex running considerably slower than its siblings
+	 */
+	void reportStraggler(final ExecutionVertex straggler) {
+
+		LOG.warn(straggler + " on " + straggler.getAllocatedResource().getInstance()
+			+ " runs considerably slower than the other tasks of " + straggler.getGroupVertex().getName());
+	}
+
 
 	@Override
 	public void allocatedResourcesDied(final JobID jobID, final List<AllocatedResource> allocatedResources) {
@@ -0,0 +1,426 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+
+package eu.stratosphere.nephele.jobmanager.scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.jobgraph.JobVertexID;
+
+/**
+ * The straggler detector tracks the run times and the progress of the members of each group vertex and identifies
+ * members which are considerably slower than their siblings. A running member is considered a straggler, once it has
+ * run for a minimum time and
+ * <ul>
+ * <li>its progress rate, i.e. the number of records it has processed per millisecond, falls below the median rate of
+ * its group by a configurable factor, or</li>
+ * <li>a configurable fraction of its group has finished and its run time exceeds the median run time of the finished
+ * members by that factor.</li>
+ * </ul>
+ * The progress is fed by the periodic progress reports of the tasks, and the running members are checked both when a
+ * member finishes and by {@link #checkForStragglers(long)}, which the scheduler calls periodically. Each straggler is
+ * reported only once per run.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class StragglerDetector {
+
+	/**
+	 * The factor by which a member must be slower than its siblings.
+	 */
+	private final float slowdownFactor;
+
+	/**
+	 * The fraction of a group that must have finished before the run times of the remaining members are checked.
+	 */
+	private final float finishedFraction;
+
+	/**
+	 * The minimum run time in milliseconds before a member can be considered a straggler.
+	 */
+	private final long minimumRuntime;
+
+	/**
+	 * The progress of the group vertices of each job.
+	 */
+	private final Map<JobID, Map<JobVertexID, GroupProgress>> jobs = new HashMap<JobID, Map<JobVertexID, GroupProgress>>();
+
+	/**
+	 * Constructs a new straggler detector.
+	 * 
+	 * @param slowdownFactor
+	 *        the factor by which a member must be slower than its siblings
+	 * @param finishedFraction
+	 *        the fraction of a group that must have finished before the run times of the remaining members are checked
+	 * @param minimumRuntime
+	 *        the minimum run time in milliseconds before a member can be considered a straggler
+	 */
+	public StragglerDetector(final float slowdownFactor, final float finishedFraction, final long minimumRuntime) {
+
+		if (slowdownFactor < 1.0f) {
+			throw new IllegalArgumentException("The slowdown factor must be at least 1.");
+		}
+		if (finishedFraction <= 0.0f || finishedFraction > 1.0f) {
+			throw new IllegalArgumentException("The finished fraction must be in (0, 1].");
+		}
+		if (minimumRuntime < 0) {
+			throw new IllegalArgumentException("The minimum run time must not be negative.");
+		}
+
+		this.slowdownFactor = slowdownFactor;
+		this.finishedFraction = finishedFraction;
+		this.minimumRuntime = minimumRuntime;
+	}
+
+	/**
+	 * Records that a member of a group vertex has started to run. A member which is restarted, for example as part of
+	 * a recovery, starts a new run.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the group vertex belongs to
+	 * @param groupID
+	 *        the ID of the group vertex
+	 * @param numberOfMembers
+	 *        the current number of members of the group vertex
+	 * @param vertexID
+	 *        the ID of the member
+	 * @param timestamp
+	 *        the time of the start in milliseconds
+	 */
+	public synchronized void vertexStarted(final JobID jobID, final JobVertexID groupID, final int numberOfMembers,
+			final ExecutionVertexID vertexID, final long timestamp) {
+
+		Map<JobVertexID, GroupProgress> groups = this.jobs.get(jobID);
+		if (groups == null) {
+			groups = new HashMap<JobVertexID, GroupProgress>();
+			this.jobs.put(jobID, groups);
+		}
+
+		GroupProgress group = groups.get(groupID);
+		if (group == null) {
+			group = new GroupProgress();
+			groups.put(groupID, group);
+		}
+
+		group.numberOfMembers = numberOfMembers;
+		group.running.put(vertexID, new MemberProgress(timestamp));
+		group.reported.remove(vertexID);
+	}
+
+	/**
+	 * Records the progress of a running member of a group vertex. Reports for members which are not running are
+	 * ignored.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the member belongs to
+	 * @param vertexID
+	 *        the ID of the member
+	 * @param timestamp
+	 *        the time of the report in milliseconds
+	 * @param processedRecords
+	 *        the total number of records the member has processed so far in its current run
+	 */
+	public synchronized void progressReported(final JobID jobID, final ExecutionVertexID vertexID,
+			final long timestamp, final long processedRecords) {
+
+		final Map<JobVertexID, GroupProgress> groups = this.jobs.get(jobID);
+		if (groups == null) {
+			return;
+		}
+
+		for (final GroupProgress group : groups.values()) {
+			final MemberProgress member = group.running.get(vertexID);
+			if (member != null) {
+				if (timestamp > member.startTime) {
+					member.processedRecords = processedRecords;
+					member.reportTime = timestamp;
+				}
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Records that a member of a group vertex has finished and checks the remaining members of the group for
+	 * stragglers.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the group vertex belongs to
+	 * @param groupID
+	 *        the ID of the group vertex
+	 * @param vertexID
+	 *        the ID of the member
+	 * @param timestamp
+	 *        the time of the completion in milliseconds
+	 * @return the IDs of the members which have been identified as stragglers by this call, possibly empty
+	 */
+	public synchronized List<ExecutionVertexID> vertexFinished(final JobID jobID, final JobVertexID groupID,
+			final ExecutionVertexID vertexID, final long timestamp) {
+
+		final GroupProgress group = getGroup(jobID, groupID);
+		if (group == null) {
+			return Collections.emptyList();
+		}
+
+		final MemberProgress member = group.running.remove(vertexID);
+		if (member == null) {
+			return Collections.emptyList();
+		}
+
+		group.addRuntime(timestamp - member.startTime);
+		if (member.hasRate()) {
+			group.addRate(member.getRate());
+		}
+
+		return findStragglers(group, timestamp);
+	}
+
+	/**
+	 * Records that a member of a group vertex has stopped without finishing, for example because it has been canceled
+	 * or has failed.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the group vertex belongs to
+	 * @param groupID
+	 *        the ID of the group vertex
+	 * @param vertexID
+	 *        the ID of the member
+	 */
+	public synchronized void vertexStopped(final JobID jobID, final JobVertexID groupID,
+			final ExecutionVertexID vertexID) {
+
+		final GroupProgress group = getGroup(jobID, groupID);
+		if (group != null) {
+			group.running.remove(vertexID);
+			group.reported.remove(vertexID);
+		}
+	}
+
+	/**
+	 * Checks the running members of all group vertices for stragglers.
+	 * 
+	 * @param now
+	 *        the current time in milliseconds
+	 * @return the IDs of the members which have been identified as stragglers by this call, grouped by their jobs,
+	 *         possibly empty
+	 */
+	public synchronized Map<JobID, List<ExecutionVertexID>> checkForStragglers(final long now) {
+
+		Map<JobID, List<ExecutionVertexID>> stragglers = null;
+
+		for (final Map.Entry<JobID, Map<JobVertexID, GroupProgress>> job : this.jobs.entrySet()) {
+
+			List<ExecutionVertexID> jobStragglers = null;
+			for (final GroupProgress group : job.getValue().values()) {
+
+				final List<ExecutionVertexID> groupStragglers = findStragglers(group, now);
+				if (groupStragglers.isEmpty()) {
+					continue;
+				}
+				if (jobStragglers == null) {
+					jobStragglers = new ArrayList<ExecutionVertexID>();
+				}
+				jobStragglers.addAll(groupStragglers);
+			}
+
+			if (jobStragglers != null) {
+				if (stragglers == null) {
+					stragglers = new HashMap<JobID, List<ExecutionVertexID>>();
+				}
+				stragglers.put(job.getKey(), jobStragglers);
+			}
+		}
+
+		if (stragglers == null) {
+			return Collections.emptyMap();
+		}
+
+		return stragglers;
+	}
+
+	/**
+	 * Removes all progress information about the given job.
+	 * 
+	 * @param jobID
+	 *        the ID of the job to remove
+	 */
+	public synchronized void unregisterJob(final JobID jobID) {
+		this.jobs.remove(jobID);
+	}
+
+	private GroupProgress getGroup(final JobID jobID, final JobVertexID groupID) {
+
+		final Map<JobVertexID, GroupProgress> groups = this.jobs.get(jobID);
+		if (groups == null) {
+			return null;
+		}
+
+		return groups.get(groupID);
+	}
+
+	private List<ExecutionVertexID> findStragglers(final GroupProgress group, final long now) {
+
+		if (group.running.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		// the run times are only compared once enough members have finished
+		long runtimeThreshold = Long.MAX_VALUE;
+		if (group.numberOfFinished > 0 && group.numberOfFinished >= this.finishedFraction * group.numberOfMembers) {
+			runtimeThreshold = Math.max(this.minimumRuntime, (long) (this.slowdownFactor * group.getMedianRuntime()));
+		}
+
+		// the rates are compared as soon as at least two members have reported their progress
+		final double medianRate = group.getMedianRate();
+		final double rateThreshold = Double.isNaN(medianRate) ? 0.0 : medianRate / this.slowdownFactor;
+
+		List<ExecutionVertexID> stragglers = null;
+		final Iterator<Map.Entry<ExecutionVertexID, MemberProgress>> it = group.running.entrySet().iterator();
+		while (it.hasNext()) {
+
+			final Map.Entry<ExecutionVertexID, MemberProgress> entry = it.next();
+			final MemberProgress member = entry.getValue();
+			final long runtime = now - member.startTime;
+			if (runtime < this.minimumRuntime || group.reported.contains(entry.getKey())) {
+				continue;
+			}
+
+			if (runtime > runtimeThreshold || (member.hasRate() && member.getRate() < rateThreshold)) {
+				group.reported.add(entry.getKey());
+				if (stragglers == null) {
+					stragglers = new ArrayList<ExecutionVertexID>();
+				}
+				stragglers.add(entry.getKey());
+			}
+		}
+
+		if (stragglers == null) {
+			return Collections.emptyList();
+		}
+
+		return stragglers;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * The start time and the last reported progress of a running member.
+	 */
+	private static final class MemberProgress {
+
+		final long startTime;
+
+		long processedRecords;
+
+		/**
+		 * The time of the last progress report, <code>-1</code> if the member has not reported any progress yet.
+		 */
+		long reportTime = -1L;
+
+		MemberProgress(final long startTime) {
+			this.startTime = startTime;
+		}
+
+		boolean hasRate() {
+			return this.reportTime > this.startTime;
+		}
+
+		double getRate() {
+			return this.processedRecords / (double) (this.reportTime - this.startTime);
+		}
+	}
+
+	/**
+	 * The run times and progress rates of the members of one group vertex.
+	 */
+	private static final class GroupProgress {
+
+		/**
+		 * The progress of the running members.
+		 */
+		final Map<ExecutionVertexID, MemberProgress> running = new HashMap<ExecutionVertexID, MemberProgress>();
+
+		/**
+		 * The running members which have already been reported as stragglers.
+		 */
+		final Set<ExecutionVertexID> reported = new HashSet<ExecutionVertexID>();
+
+		/**
+		 * The run times of the finished members.
+		 */
+		long[] runtimes = new long[4];
+
+		int numberOfFinished;
+
+		/**
+		 * The final progress rates of the finished members which have reported their progress.
+		 */
+		double[] rates = new double[4];
+
+		int numberOfRates;
+
+		int numberOfMembers;
+
+		void addRuntime(final long runtime) {
+			if (this.numberOfFinished == this.runtimes.length) {
+				this.runtimes = Arrays.copyOf(this.runtimes, 2 * this.runtimes.length);
+			}
+			this.runtimes[this.numberOfFinished++] = runtime;
+		}
+
+		void addRate(final double rate) {
+			if (this.numberOfRates == this.rates.length) {
+				this.rates = Arrays.copyOf(this.rates, 2 * this.rates.length);
+			}
+			this.rates[this.numberOfRates++] = rate;
+		}
+
+		long getMedianRuntime() {
+			final long[] sorted = Arrays.copyOf(this.runtimes, this.numberOfFinished);
+			Arrays.sort(sorted);
+			return sorted[sorted.length / 2];
+		}
+
+		/**
+		 * Returns the median progress rate of the finished and the running members, <code>NaN</code> if fewer than two
+		 * members have reported their progress.
+		 */
+		double getMedianRate() {
+			final double[] all = Arrays.copyOf(this.rates, this.numberOfRates + this.running.size());
+			int num = this.numberOfRates;
+			for (final MemberProgress member : this.running.values()) {
+				if (member.hasRate()) {
+					all[num++] = member.getRate();
+				}
+			}
+
+			if (num < 2) {
+				return Double.NaN;
+			}
+
+			Arrays.sort(all, 0, num);
+			return all[num / 2];
+		}
+	}
+}
@@ -0,0 +1,297 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.scheduler.fair;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.configuration.GlobalConfiguration;
+import eu.stratosphere.nephele.execution.ExecutionState;
+import eu.stratosphere.nephele.executiongraph.ExecutionGraph;
+import eu.stratosphere.nephele.executiongraph.ExecutionGraphIterator;
+import eu.stratosphere.nephele.executiongraph.ExecutionStage;
+import eu.stratosphere.nephele.executiongraph.ExecutionStageListener;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertex;
+import eu.stratosphere.nephele.executiongraph.InternalJobStatus;
+import eu.stratosphere.nephele.executiongraph.JobStatusListener;
+import eu.stratosphere.nephele.instance.AllocatedResource;
+import eu.stratosphere.nephele.instance.InstanceException;
+import eu.stratosphere.nephele.instance.InstanceManager;
+import eu.stratosphere.nephele.instance.InstanceRequestMap;
+import eu.stratosphere.nephele.instance.InstanceType;
+import eu.stratosphere.nephele.instance.InstanceTypeDescription;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.jobmanager.DeploymentManager;
+import eu.stratosphere.nephele.jobmanager.scheduler.AbstractScheduler;
+import eu.stratosphere.nephele.jobmanager.scheduler.SchedulingException;
+import eu.stratosphere.nephele.jobmanager.scheduler.StragglerDetector;
+
+/**
+ * The fair scheduler runs several jobs concurrently and shares the instances between them. Each job is submitted to a
+ * pool, chosen through the job configuration parameter {@link ConfigConstants#FAIR_SCHEDULER_JOB_POOL_KEY}. Pools
+ * have a weight and a limit on the number of concurrently running jobs. The instances of each execution stage are
+ * requested only when the {@link FairShareQueue} grants the request, so a job holding many instances yields to the
+ * jobs of other pools at its next stage boundary. Requests are served strictly in fair order: if the instances for
+ * the first pending request are not available, later requests wait until instances are released.
+ * <p>
+ * This class is thread-safe.
+ */
+public class FairScheduler extends AbstractScheduler implements JobStatusListener, ExecutionStageListener {
+
+	/**
+	 * The jobs currently known to the scheduler.
+	 */
+	private final Map<JobID, ExecutionGraph> jobs = new HashMap<JobID, ExecutionGraph>();
+
+	/**
+	 * The queue deciding the order in which the instance requests are served.
+	 */
+	private final FairShareQueue queue = new FairShareQueue();
+
+	/**
+	 * Constructs a new fair scheduler.
+	 * 
+	 * @param deploymentManager
+	 *        the deployment manager assigned to this scheduler
+	 * @param instanceManager
+	 *        the instance manager to be used with this scheduler
+	 */
+	public FairScheduler(final DeploymentManager deploymentManager, final InstanceManager instanceManager) {
+		super(deploymentManager, instanceManager);
+
+		final String pools = GlobalConfiguration.getString(ConfigConstants.FAIR_SCHEDULER_POOLS_KEY, "");
+		for (final String pool : pools.split(",")) {
+
+			final String name = pool.trim();
+			if (name.isEmpty()) {
+				continue;
+			}
+
+			final float weight = GlobalConfiguration.getFloat(ConfigConstants.FAIR_SCHEDULER_POOL_PREFIX + name
+				+ ConfigConstants.FAIR_SCHEDULER_POOL_WEIGHT_SUFFIX, ConfigConstants.DEFAULT_FAIR_SCHEDULER_POOL_WEIGHT);
+			final int maxJobs = GlobalConfiguration.getInteger(ConfigConstants.FAIR_SCHEDULER_POOL_PREFIX + name
+				+ ConfigConstants.FAIR_SCHEDULER_POOL_MAX_JOBS_SUFFIX, -1);
+
+			this.queue.addPool(name, weight, maxJobs < 0 ? Integer.MAX_VALUE : maxJobs);
+			LOG.info("Fair scheduler pool " + name + " with weight " + weight + " and job limit " + maxJobs);
+		}
+	}
+
+	/**
+	 * Removes the job represented by the given {@link ExecutionGraph} from the scheduler.
+	 * 
+	 * @param executionGraphToRemove
+	 *        the job to be removed
+	 */
+	void removeJobFromSchedule(final ExecutionGraph executionGraphToRemove) {
+
+		final StragglerDetector stragglerDetector = getStragglerDetector();
+		if (stragglerDetector != null) {
+			stragglerDetector.unregisterJob(executionGraphToRemove.getJobID());
+		}
+
+		final ExecutionGraph removed;
+		synchronized (this.jobs) {
+			removed = this.jobs.remove(executionGraphToRemove.getJobID());
+			this.queue.removeJob(executionGraphToRemove.getJobID());
+		}
+
+		if (removed == null) {
+			LOG.error("Cannot find job " + executionGraphToRemove.getJobName() + " ("
+				+ executionGraphToRemove.getJobID() + ") to remove");
+		}
+
+		// The instances of the removed job may allow to serve pending requests
+		servePendingRequests();
+	}
+
+
+	@Override
+	public void schedulJob(final ExecutionGraph executionGraph) throws SchedulingException {
+
+		// Get Map of all available Instance types
+		final Map<InstanceType, InstanceTypeDescription> availableInstances = getInstanceManager()
+				.getMapOfAvailableInstanceTypes();
+
+		final Iterator<ExecutionStage> stageIt = executionGraph.iterator();
+		while (stageIt.hasNext()) {
+
+			final InstanceRequestMap instanceRequestMap = new InstanceRequestMap();
+			final ExecutionStage stage = stageIt.next();
+			stage.collectRequiredInstanceTypes(instanceRequestMap, ExecutionState.CREATED);
+
+			// Iterator over required Instances
+			final Iterator<Map.Entry<InstanceType, Integer>> it = instanceRequestMap.getMinimumIterator();
+			while (it.hasNext()) {
+
+				final Map.Entry<InstanceType, Integer> entry = it.next();
+
+				final InstanceTypeDescription descr = availableInstances.get(entry.getKey());
+				if (descr == null) {
+					throw new SchedulingException("Unable to schedule job: No instance of type " + entry.getKey()
+							+ " available");
+				}
+
+				if (descr.getMaximumNumberOfAvailableInstances() != -1
+						&& descr.getMaximumNumberOfAvailableInstances() < entry.getValue().intValue()) {
+					throw new SchedulingException("Unable to schedule job: " + entry.getValue().intValue()
+							+ " instances of type " + entry.getKey() + " required, but only "
+							+ descr.getMaximumNumberOfAvailableInstances() + " are available");
+				}
+			}
+		}
+
+		// Subscribe to job status notifications
+		executionGraph.registerJobStatusListener(this);
+
+		// Register execution listener for each vertex
+		final ExecutionGraphIterator it2 = new ExecutionGraphIterator(executionGraph, true);
+		while (it2.hasNext()) {
+
+			final ExecutionVertex vertex = it2.next();
+			vertex.registerExecutionListener(new FairExecutionListener(this, vertex));
+		}
+
+		// Register the scheduler as an execution stage listener
+		executionGraph.registerExecutionStageListener(this);
+
+		final String pool = executionGraph.getJobConfiguration().getString(
+			ConfigConstants.FAIR_SCHEDULER_JOB_POOL_KEY, ConfigConstants.DEFAULT_FAIR_SCHEDULER_JOB_POOL);
+
+		synchronized (this.jobs) {
+			this.jobs.put(executionGraph.getJobID(), executionGraph);
+			this.queue.addJob(executionGraph.getJobID(), pool);
+			this.queue.request(executionGraph.getJobID(),
+				getNumberOfRequiredInstances(executionGraph.getCurrentExecutionStage()));
+		}
+
+		LOG.info("Job " + executionGraph.getJobID() + " submitted to pool " + pool);
+
+		// Request resources for the first stage of the job if it is its turn
+		servePendingRequests();
+	}
+
+	/**
+	 * Serves the pending instance requests in the order determined by the fair share queue. Serving stops at the first
+	 * request which cannot be fulfilled with the currently available instances.
+	 */
+	private void servePendingRequests() {
+
+		synchronized (this.jobs) {
+
+			for (final JobID jobID : this.queue.getPendingRequests()) {
+
+				final ExecutionGraph executionGraph = this.jobs.get(jobID);
+				if (executionGraph == null) {
+					continue;
+				}
+
+				try {
+					requestInstances(executionGraph.getCurrentExecutionStage());
+				} catch (InstanceException e) {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug("Request of job " + jobID + " must wait for instances: " + e.getMessage());
+					}
+					return;
+				}
+
+				this.queue.granted(jobID);
+
+				// Deploy the vertices which could be assigned to already allocated instances
+				deployAssignedInputVertices(executionGraph);
+			}
+		}
+	}
+
+	/**
+	 * Returns the minimum number of instances the given stage requires.
+	 * 
+	 * @param executionStage
+	 *        the execution stage
+	 * @return the minimum number of instances the stage requires
+	 */
+	private static int getNumberOfRequiredInstances(final ExecutionStage executionStage) {
+
+		final InstanceRequestMap instanceRequestMap = new InstanceRequestMap();
+		synchronized (executionStage) {
+			executionStage.collectRequiredInstanceTypes(instanceRequestMap, ExecutionState.CREATED);
+		}
+
+		int numberOfInstances = 0;
+		final Iterator<Map.Entry<InstanceType, Integer>> it = instanceRequestMap.getMinimumIterator();
+		while (it.hasNext()) {
+			numberOfInstances += it.next().getValue().intValue();
+		}
+
+		return numberOfInstances;
+	}
+
+
+	@Override
+	public void checkAndReleaseAllocatedResource(final ExecutionGraph executionGraph,
+			final AllocatedResource allocatedResource) {
+
+		super.checkAndReleaseAllocatedResource(executionGraph, allocatedResource);
+
+		// A released instance may allow to serve pending requests
+		servePendingRequests();
+	}
+
+
+	@Override
+	public ExecutionGraph getExecutionGraphByID(final JobID jobID) {
+
+		synchronized (this.jobs) {
+			return this.jobs.get(jobID);
+		}
+	}
+
+
+	@Override
+	public void shutdown() {
+
+		synchronized (this.jobs) {
+			for (final JobID jobID : this.jobs.keySet()) {
+				this.queue.removeJob(jobID);
+			}
+			this.jobs.clear();
+		}
+	}
+
+
+	@Override
+	public void jobStatusHasChanged(final ExecutionGraph executionGraph, final InternalJobStatus newJobStatus,
+			final String optionalMessage) {
+
+		if (newJobStatus == InternalJobStatus.FAILED || newJobStatus == InternalJobStatus.FINISHED
+			|| newJobStatus == InternalJobStatus.CANCELED) {
+			removeJobFromSchedule(executionGraph);
+		}
+	}
+
+
+	@Override
+	public void nextExecutionStageEntered(final JobID jobID, final ExecutionStage executionStage) {
+
+		// The job gives back the instances of its previous stage and queues the request for the new one
+		synchronized (this.jobs) {
+			this.queue.stageFinished(jobID);
+			this.queue.request(jobID, getNumberOfRequiredInstances(executionStage));
+		}
+
+		servePendingRequests();
+	}
+}
@@ -0,0 +1,283 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.scheduler.fair;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import eu.stratosphere.nephele.jobgraph.JobID;
+
+/**
+ * The fair share queue decides in which order the instance requests of concurrent jobs are served. Each job belongs
+ * to a pool which has a weight and a limit on the number of jobs it may run concurrently. A job requests instances
+ * stage by stage and gives them back when the stage is finished. Among the pending requests, the request which leads
+ * to the lowest weighted share of its pool is served first, so a job holding many instances yields to the jobs of
+ * other pools at its next stage boundary.
+ * <p>
+ * This class is thread-safe.
+ */
+final class FairShareQueue {
+
+	/**
+	 * The pools by name.
+	 */
+	private final Map<String, Pool> pools = new HashMap<String, Pool>();
+
+	/**
+	 * The registered jobs in the order of their submission.
+	 */
+	private final Map<JobID, JobEntry> jobs = new LinkedHashMap<JobID, JobEntry>();
+
+	/**
+	 * The sequence number of the next submitted job.
+	 */
+	private long nextSequenceNumber;
+
+	/**
+	 * Adds a pool with the given weight and limit of concurrently running jobs.
+	 * 
+	 * @param name
+	 *        the name of the pool
+	 * @param weight
+	 *        the weight of the pool, must be positive
+	 * @param maxRunningJobs
+	 *        the maximum number of concurrently running jobs of the pool, must be positive
+	 */
+	synchronized void addPool(final String name, final float weight, final int maxRunningJobs) {
+
+		if (weight <= 0.0f) {
+			throw new IllegalArgumentException("The weight of pool " + name + " must be positive.");
+		}
+		if (maxRunningJobs < 1) {
+			throw new IllegalArgumentException("The job limit of pool " + name + " must be positive.");
+		}
+
+		this.pools.put(name, new Pool(weight, maxRunningJobs));
+	}
+
+	/**
+	 * Registers a job with the given pool. Pools which have not been added explicitly are created with weight 1 and
+	 * without a job limit.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 * @param poolName
+	 *        the name of the pool the job belongs to
+	 */
+	synchronized void addJob(final JobID jobID, final String poolName) {
+
+		Pool pool = this.pools.get(poolName);
+		if (pool == null) {
+			pool = new Pool(1.0f, Integer.MAX_VALUE);
+			this.pools.put(poolName, pool);
+		}
+
+		this.jobs.put(jobID, new JobEntry(jobID, pool, this.nextSequenceNumber++));
+	}
+
+	/**
+	 * Removes the given job and gives back the instances it holds.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 */
+	synchronized void removeJob(final JobID jobID) {
+
+		final JobEntry job = this.jobs.remove(jobID);
+		if (job != null) {
+			job.pool.allocated -= job.allocated;
+			if (job.running) {
+				--job.pool.runningJobs;
+			}
+		}
+	}
+
+	/**
+	 * Records that the given job requests instances for its next stage.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 * @param numberOfInstances
+	 *        the number of requested instances
+	 */
+	synchronized void request(final JobID jobID, final int numberOfInstances) {
+
+		final JobEntry job = this.jobs.get(jobID);
+		if (job != null) {
+			job.demand = numberOfInstances;
+		}
+	}
+
+	/**
+	 * Records that the pending request of the given job has been served.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 */
+	synchronized void granted(final JobID jobID) {
+
+		final JobEntry job = this.jobs.get(jobID);
+		if (job == null || job.demand < 0) {
+			return;
+		}
+
+		if (!job.running) {
+			job.running = true;
+			++job.pool.runningJobs;
+		}
+
+		job.allocated += job.demand;
+		job.pool.allocated += job.demand;
+		job.demand = -1;
+	}
+
+	/**
+	 * Records that the given job has finished its current stage and given back the instances of the stage.
+	 * 
+	 * @param jobID
+	 *        the ID of the job
+	 */
+	synchronized void stageFinished(final JobID jobID) {
+
+		final JobEntry job = this.jobs.get(jobID);
+		if (job != null) {
+			job.pool.allocated -= job.allocated;
+			job.allocated = 0;
+		}
+	}
+
+	/**
+	 * Returns the IDs of the jobs with pending requests in the order in which the requests shall be served. Jobs which
+	 * have not started yet are only included if their pool has not reached its job limit.
+	 * 
+	 * @return the IDs of the jobs with pending requests in the order in which they shall be served
+	 */
+	synchronized List<JobID> getPendingRequests() {
+
+		final List<JobEntry> pending = new ArrayList<JobEntry>();
+		final Map<Pool, Integer> admittable = new HashMap<Pool, Integer>();
+
+		for (final JobEntry job : this.jobs.values()) {
+
+			if (job.demand < 0) {
+				continue;
+			}
+
+			if (!job.running) {
+				// admit new jobs in the order of their submission up to the job limit of their pool
+				Integer slots = admittable.get(job.pool);
+				if (slots == null) {
+					slots = Integer.valueOf(job.pool.maxRunningJobs - job.pool.runningJobs);
+				}
+				if (slots.intValue() <= 0) {
+					continue;
+				}
+				admittable.put(job.pool, Integer.valueOf(slots.intValue() - 1));
+			}
+
+			pending.add(job);
+		}
+
+		Collections.sort(pending, new Comparator<JobEntry>() {
+
+			@Override
+			public int compare(final JobEntry o1, final JobEntry o2) {
+
+				final float share1 = (o1.pool.allocated + o1.demand) / o1.pool.weight;
+				final float share2 = (o2.pool.allocated + o2.demand) / o2.pool.weight;
+				if (share1 != share2) {
+					return share1 < share2 ? -1 : 1;
+				}
+
+				return o1.sequenceNumber < o2.sequenceNumber ? -1 : (o1.sequenceNumber == o2.sequenceNumber ? 0 : 1);
+			}
+		});
+
+		final List<JobID> jobIDs = new ArrayList<JobID>(pending.size());
+		for (final JobEntry job : pending) {
+			jobIDs.add(job.jobID);
+		}
+
+		return jobIDs;
+	}
+
+	/**
+	 * Returns the number of instances currently held by the jobs of the given pool.
+	 * 
+	 * @param poolName
+	 *        the name of the pool
+	 * @return the number of instances held by the jobs of the pool
+	 */
+	synchronized int getAllocatedInstances(final String poolName) {
+
+		final Pool pool = this.pools.get(poolName);
+		return pool == null ? 0 : pool.allocated;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * The weight, limit and current usage of a pool.
+	 */
+	private static final class Pool {
+
+		final float weight;
+
+		final int maxRunningJobs;
+
+		int runningJobs;
+
+		int allocated;
+
+		Pool(final float weight, final int maxRunningJobs) {
+			this.weight = weight;
+			this.maxRunningJobs = maxRunningJobs;
+		}
+	}
+
+	/**
+	 * The state of a registered job.
+	 */
+	private static final class JobEntry {
+
+		final JobID jobID;
+
+		final Pool pool;
+
+		final long sequenceNumber;
+
+		/**
+		 * The number of instances requested for the next stage or <code>-1</code> if no request is pending.
+		 */
+		int demand = -1;
+
+		/**
+		 * The number of instances held for the current stage.
+		 */
+		int allocated;
+
+		boolean running;
+
+		JobEntry(final JobID jobID, final Pool pool, final long sequenceNumber) {
+			this.jobID = jobID;
+			this.pool = pool;
+			this.sequenceNumber = sequenceNumber;
+		}
+	}
+}
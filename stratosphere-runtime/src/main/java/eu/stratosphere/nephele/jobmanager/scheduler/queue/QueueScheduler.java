@@ -35,6 +35,7 @@ import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.jobmanager.DeploymentManager;
 import eu.stratosphere.nephele.jobmanager.scheduler.AbstractScheduler;
 import eu.stratosphere.nephele.jobmanager.scheduler.SchedulingException;
+import eu.stratosphere.nephele.jobmanager.scheduler.StragglerDetector;
 import eu.stratosphere.util.StringUtils;
 
 /**
@@ -68,6 +69,11 @@ public class QueueScheduler extends AbstractScheduler implements JobStatusListen
 	 */
 	void removeJobFromSchedule(final ExecutionGraph executionGraphToRemove) {
 
+		final StragglerDetector stragglerDetector = getStragglerDetector();
+		if (stragglerDetector != null) {
+			stragglerDetector.unregisterJob(executionGraphToRemove.getJobID());
+		}
+
 		boolean removedFromQueue = false;
 
 		synchronized (this.jobQueue) {
@@ -19,6 +19,8 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.configuration.GlobalConfiguration;
 import eu.stratosphere.core.fs.FileInputSplit;
 import eu.stratosphere.core.io.InputSplit;
 import eu.stratosphere.nephele.executiongraph.ExecutionGroupVertex;
@@ -76,7 +78,15 @@ public final class FileInputSplitAssigner implements InputSplitAssigner {
 			return;
 		}
 
-		final FileInputSplitList splitStore = new FileInputSplitList();
+		int batchSize = GlobalConfiguration.getInteger(ConfigConstants.JOB_MANAGER_SPLIT_BATCH_SIZE_KEY,
+			ConfigConstants.DEFAULT_JOB_MANAGER_SPLIT_BATCH_SIZE);
+		if (batchSize < 1) {
+			LOG.error("Invalid split batch size " + batchSize + ", using default value of "
+				+ ConfigConstants.DEFAULT_JOB_MANAGER_SPLIT_BATCH_SIZE);
+			batchSize = ConfigConstants.DEFAULT_JOB_MANAGER_SPLIT_BATCH_SIZE;
+		}
+
+		final FileInputSplitList splitStore = new FileInputSplitList(batchSize);
 		if (this.vertexMap.putIfAbsent(groupVertex, splitStore) != null) {
 			LOG.error(groupVertex.getName()
 				+ " appears to be already registered with the file input split assigner, ignoring vertex...");
@@ -11,21 +11,22 @@
  * specific language governing permissions and limitations under the License.
  **********************************************************************************************************************/
 
+
 package eu.stratosphere.nephele.jobmanager.splitassigner.file;
 
+import java.util.ArrayDeque;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import eu.stratosphere.core.fs.FileInputSplit;
 import eu.stratosphere.nephele.instance.AbstractInstance;
+import eu.stratosphere.nephele.instance.InstanceConnectionInfo;
 
 /**
  * The file input split list stores the file input splits for an input vertex that are still expected to be consumed.
@@ -34,7 +35,14 @@ import eu.stratosphere.nephele.instance.AbstractInstance;
  * That way input splits are always given to consuming vertices in a way that data locality is preserved as well as
  * possible.
  * <p>
- * This class is not thread-safe.
+ * The splits are indexed by the hosts that store them, so handing out a split does not require to look at all
+ * remaining splits. Each requesting {@link AbstractInstance} determines once which hosts are local to it and reserves
+ * its local splits in batches, such that most requests are served from the instance's own batch without touching the
+ * shared index. Once an instance has no local splits left, it receives single remote splits, taken from the closest
+ * host with the most remaining splits. When the index is exhausted, instances steal reserved splits from the batches
+ * of other instances, so that slow instances do not delay the completion of the input vertex.
+ * <p>
+ * All splits must be added before the first split is requested. This class is thread-safe.
  * 
  */
 public final class FileInputSplitList {
@@ -45,65 +53,47 @@ public final class FileInputSplitList {
 	private static final Log LOG = LogFactory.getLog(FileInputSplitList.class);
 
 	/**
-	 * The set containing all the file input splits that still must be consumed.
+	 * The number of local splits an instance reserves at once.
 	 */
-	private Set<FileInputSplit> masterSet = new HashSet<FileInputSplit>();
+	private final int batchSize;
 
 	/**
-	 * The map caching the specific file input split lists for each {@link AbstractInstance}.
+	 * The index from host names to the splits stored on the respective host.
 	 */
-	private Map<AbstractInstance, Queue<QueueElem>> instanceMap = new HashMap<AbstractInstance, Queue<QueueElem>>();
+	private final Map<String, HostQueue> hostQueues = new HashMap<String, HostQueue>();
 
 	/**
-	 * This is an auxiliary class to store the minimum distance between a file input split's storage locations and an
-	 * {@link AbstractInstance}.
-	 * 
+	 * The splits without any storage location.
 	 */
-	private final class QueueElem implements Comparable<QueueElem> {
-
-		/**
-		 * The file input split the distance applies to.
-		 */
-		final FileInputSplit inputSplit;
-
-		/**
-		 * The minimum distance between the file input split's storage locations and the instance this object has been
-		 * created for.
-		 */
-		final int distance;
+	private final Queue<SplitEntry> unlocatedSplits = new ArrayDeque<SplitEntry>();
 
-		/**
-		 * Creates a new queue element.
-		 * 
-		 * @param inputSplit
-		 *        the file input split to be stored
-		 * @param distance
-		 *        the minimum distance between the stored input split's storage locations and the instance this object
-		 *        has been created for
-		 */
-		private QueueElem(final FileInputSplit inputSplit, final int distance) {
-			this.inputSplit = inputSplit;
-			this.distance = distance;
-		}
+	/**
+	 * The host queues as an array, such that instances can store their distances to the hosts by position.
+	 */
+	private HostQueue[] hostArray;
 
-		/**
-		 * Returns the file input split stored within this object.
-		 * 
-		 * @return the file input split
-		 */
-		private FileInputSplit getInputSplit() {
-			return this.inputSplit;
-		}
+	/**
+	 * The assignment state of each instance that requested splits.
+	 */
+	private final ConcurrentMap<AbstractInstance, InstanceState> instanceStates = new ConcurrentHashMap<AbstractInstance, InstanceState>();
 
-		/**
-		 * {@inheritDoc}
-		 */
-		@Override
-		public int compareTo(final QueueElem o) {
+	/**
+	 * The number of splits that have neither been handed out nor reserved by an instance.
+	 */
+	private int numUnassigned;
 
-			return (this.distance - o.distance);
+	/**
+	 * Creates a new file input split list.
+	 * 
+	 * @param batchSize
+	 *        the number of local splits an instance reserves at once
+	 */
+	FileInputSplitList(final int batchSize) {
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be at least 1.");
 		}
 
+		this.batchSize = batchSize;
 	}
 
 	/**
@@ -114,7 +104,26 @@ public final class FileInputSplitList {
 	 */
 	synchronized void addSplit(final FileInputSplit fileInputSplit) {
 
-		this.masterSet.add(fileInputSplit);
+		final String[] hostNames = fileInputSplit.getHostNames();
+		final int numHosts = hostNames == null ? 0 : hostNames.length;
+
+		final SplitEntry entry = new SplitEntry(fileInputSplit, new HostQueue[numHosts]);
+		if (numHosts == 0) {
+			this.unlocatedSplits.add(entry);
+		} else {
+			for (int i = 0; i < numHosts; ++i) {
+				HostQueue hostQueue = this.hostQueues.get(hostNames[i]);
+				if (hostQueue == null) {
+					hostQueue = new HostQueue(hostNames[i]);
+					this.hostQueues.put(hostNames[i], hostQueue);
+					this.hostArray = null;
+				}
+				hostQueue.add(entry);
+				entry.hosts[i] = hostQueue;
+			}
+		}
+
+		++this.numUnassigned;
 	}
 
 	/**
@@ -127,78 +136,267 @@ public final class FileInputSplitList {
 	 * @return the next input split to be consumed by the given instance or <code>null</code> if all input splits have
 	 *         already been consumed.
 	 */
-	synchronized FileInputSplit getNextInputSplit(final AbstractInstance instance) {
+	FileInputSplit getNextInputSplit(final AbstractInstance instance) {
+
+		InstanceState state = this.instanceStates.get(instance);
+		if (state == null) {
+			state = new InstanceState();
+			final InstanceState previous = this.instanceStates.putIfAbsent(instance, state);
+			if (previous != null) {
+				state = previous;
+			}
+		}
 
-		final Queue<QueueElem> instanceSplitList = getInstanceSplitList(instance);
+		// serve the request from the splits reserved for the instance
+		FileInputSplit split = state.poll();
+		if (split != null) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug(instance + " receives local file input split");
+			}
+			return split;
+		}
 
-		while (true) {
+		// reserve the next batch of local splits or take a remote split
+		split = assignFromIndex(instance, state);
+		if (split != null) {
+			return split;
+		}
 
-			final QueueElem candidate = instanceSplitList.poll();
-			if (candidate == null) {
-				return null;
+		// the index is exhausted, steal reserved splits from other instances
+		for (final InstanceState other : this.instanceStates.values()) {
+			if (other != state) {
+				split = other.steal();
+				if (split != null) {
+					if (LOG.isDebugEnabled()) {
+						LOG.debug(instance + " steals file input split reserved for another instance");
+					}
+					return split;
+				}
 			}
+		}
 
-			if (this.masterSet.remove(candidate.getInputSplit())) {
-				if (LOG.isInfoEnabled()) {
-					if (candidate.distance == 0) {
-						LOG.info(instance + " receives local file input split");
-					} else {
-						LOG.info(instance + " receives remote file input split (distance " + candidate.distance + ")");
-					}
+		return null;
+	}
+
+	/**
+	 * Takes splits for the given instance from the host index. If local splits are left, up to a batch of them is
+	 * reserved for the instance and the first one of them is returned. Otherwise, a single split from the closest
+	 * host with the most remaining splits is returned.
+	 * 
+	 * @param instance
+	 *        the instance requesting the split
+	 * @param state
+	 *        the assignment state of the instance
+	 * @return the split for the instance or <code>null</code> if the index holds no more splits
+	 */
+	private synchronized FileInputSplit assignFromIndex(final AbstractInstance instance, final InstanceState state) {
+
+		if (this.numUnassigned == 0) {
+			return null;
+		}
+
+		if (this.hostArray == null) {
+			this.hostArray = this.hostQueues.values().toArray(new HostQueue[this.hostQueues.size()]);
+		}
+		if (state.hostArray != this.hostArray) {
+			state.computeDistances(instance, this.hostArray);
+		}
+
+		// reserve a batch of local splits
+		FileInputSplit first = null;
+		int reserved = 0;
+		for (int i = 0; i < state.localHosts.length && reserved < this.batchSize; ++i) {
+			final HostQueue hostQueue = this.hostArray[state.localHosts[i]];
+			SplitEntry entry;
+			while (reserved < this.batchSize && (entry = hostQueue.pollUnassigned()) != null) {
+				markAssigned(entry);
+				if (first == null) {
+					first = entry.split;
+				} else {
+					state.reserve(entry.split);
 				}
-				return candidate.getInputSplit();
+				++reserved;
 			}
+		}
 
-			if (this.masterSet.isEmpty()) {
-				return null;
+		if (first != null) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug(instance + " receives local file input split");
+			}
+			return first;
+		}
+
+		// no local splits left, take a split from the closest host with the most remaining splits
+		HostQueue best = null;
+		int bestDistance = Integer.MAX_VALUE;
+		for (int i = 0; i < this.hostArray.length; ++i) {
+			final HostQueue hostQueue = this.hostArray[i];
+			if (hostQueue.remaining > 0) {
+				final int distance = state.distances[i];
+				if (best == null || distance < bestDistance
+					|| (distance == bestDistance && hostQueue.remaining > best.remaining)) {
+					best = hostQueue;
+					bestDistance = distance;
+				}
+			}
+		}
+
+		SplitEntry entry = null;
+		if (best != null) {
+			entry = best.pollUnassigned();
+		} else {
+			while ((entry = this.unlocatedSplits.poll()) != null) {
+				if (!entry.assigned) {
+					break;
+				}
 			}
 		}
+
+		if (entry == null) {
+			return null;
+		}
+
+		markAssigned(entry);
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(instance + " receives remote file input split (distance " + bestDistance + ")");
+		}
+		return entry.split;
 	}
 
+	private void markAssigned(final SplitEntry entry) {
+		entry.assigned = true;
+		for (int i = 0; i < entry.hosts.length; ++i) {
+			--entry.hosts[i].remaining;
+		}
+		--this.numUnassigned;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
 	/**
-	 * Returns a list of file input splits specifically ordered for the given {@link AbstractInstance}. When the list is
-	 * initially created, it contains all the unconsumed file input splits at that point in time, ascendingly ordered by
-	 * the minimum distance between the input splits' storage locations and the given {@link AbstractInstance}.
-	 * 
-	 * @param instance
-	 *        the instance for which the file input split list has been computed
-	 * @return the list of file input splits ordered specifically for the given instance
+	 * A file input split together with the queues of the hosts storing it.
 	 */
-	private Queue<QueueElem> getInstanceSplitList(final AbstractInstance instance) {
+	private static final class SplitEntry {
 
-		Queue<QueueElem> instanceSplitList = this.instanceMap.get(instance);
-		if (instanceSplitList == null) {
+		final FileInputSplit split;
 
-			// Create and populate instance specific split list
-			instanceSplitList = new PriorityQueue<FileInputSplitList.QueueElem>();
-			final Iterator<FileInputSplit> it = this.masterSet.iterator();
-			while (it.hasNext()) {
+		final HostQueue[] hosts;
 
-				final FileInputSplit split = it.next();
-				final String[] hostNames = split.getHostNames();
-				if (hostNames == null) {
-					instanceSplitList.add(new QueueElem(split, Integer.MAX_VALUE));
+		/**
+		 * Whether the split has been handed out or reserved. Guarded by the lock of the split list.
+		 */
+		boolean assigned;
 
-				} else {
+		SplitEntry(final FileInputSplit split, final HostQueue[] hosts) {
+			this.split = split;
+			this.hosts = hosts;
+		}
+	}
 
-					int minDistance = Integer.MAX_VALUE;
-					for (int i = 0; i < hostNames.length; ++i) {
-						final int distance = instance.getDistance(hostNames[i]);
-						if (LOG.isDebugEnabled()) {
-							LOG.debug("Distance between " + instance + " and " + hostNames[i] + " is " + distance);
-						}
-						if (distance < minDistance) {
-							minDistance = distance;
-						}
-					}
+	/**
+	 * The splits stored on one host. Splits with several storage locations are contained in the queues of all their
+	 * hosts and skipped once they have been assigned through any of them. Guarded by the lock of the split list.
+	 */
+	private static final class HostQueue {
+
+		final String hostName;
+
+		final ArrayDeque<SplitEntry> splits = new ArrayDeque<SplitEntry>();
+
+		/**
+		 * The number of splits in the queue that have not been assigned yet.
+		 */
+		int remaining;
+
+		HostQueue(final String hostName) {
+			this.hostName = hostName;
+		}
+
+		void add(final SplitEntry entry) {
+			this.splits.add(entry);
+			++this.remaining;
+		}
+
+		SplitEntry pollUnassigned() {
+			SplitEntry entry;
+			while ((entry = this.splits.poll()) != null) {
+				if (!entry.assigned) {
+					return entry;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * The locality information and the reserved splits of one requesting instance.
+	 */
+	private static final class InstanceState {
+
+		/**
+		 * The host array for which the distances have been computed. Guarded by the lock of the split list.
+		 */
+		HostQueue[] hostArray;
+
+		/**
+		 * The positions of the hosts that are local to the instance. Guarded by the lock of the split list.
+		 */
+		int[] localHosts;
+
+		/**
+		 * The distances of the instance to the hosts, by position. Guarded by the lock of the split list.
+		 */
+		int[] distances;
+
+		/**
+		 * The splits reserved for the instance. Guarded by its own lock, as it is accessed by other instances to steal.
+		 */
+		private final ArrayDeque<FileInputSplit> reserved = new ArrayDeque<FileInputSplit>();
+
+		void computeDistances(final AbstractInstance instance, final HostQueue[] hosts) {
+
+			final InstanceConnectionInfo connectionInfo = instance.getInstanceConnectionInfo();
+			final String instanceHost = connectionInfo == null ? null : connectionInfo.getHostName();
 
-					instanceSplitList.add(new QueueElem(split, minDistance));
+			this.distances = new int[hosts.length];
+			int numLocal = 0;
+			for (int i = 0; i < hosts.length; ++i) {
+				final int distance = hosts[i].hostName.equalsIgnoreCase(instanceHost) ? 0 :
+					instance.getDistance(hosts[i].hostName);
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Distance between " + instance + " and " + hosts[i].hostName + " is " + distance);
+				}
+				this.distances[i] = distance;
+				if (distance == 0) {
+					++numLocal;
 				}
 			}
 
-			this.instanceMap.put(instance, instanceSplitList);
+			this.localHosts = new int[numLocal];
+			for (int i = 0, pos = 0; i < hosts.length; ++i) {
+				if (this.distances[i] == 0) {
+					this.localHosts[pos++] = i;
+				}
+			}
+			this.hostArray = hosts;
 		}
 
-		return instanceSplitList;
+		void reserve(final FileInputSplit split) {
+			synchronized (this.reserved) {
+				this.reserved.addLast(split);
+			}
+		}
+
+		FileInputSplit poll() {
+			synchronized (this.reserved) {
+				return this.reserved.pollFirst();
+			}
+		}
+
+		FileInputSplit steal() {
+			synchronized (this.reserved) {
+				return this.reserved.pollLast();
+			}
+		}
 	}
 }
@@ -18,6 +18,7 @@ import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -37,15 +38,21 @@ import eu.stratosphere.nephele.event.job.ExecutionStateChangeEvent;
 import eu.stratosphere.nephele.event.job.JobEvent;
 import eu.stratosphere.nephele.event.job.RecentJobEvent;
 import eu.stratosphere.nephele.execution.ExecutionState;
+import eu.stratosphere.nephele.execution.TaskMetrics;
 import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.jobgraph.JobStatus;
 import eu.stratosphere.nephele.jobmanager.JobManager;
+import eu.stratosphere.nephele.jobmanager.backpressure.VertexBackPressure;
 import eu.stratosphere.nephele.managementgraph.ManagementGraph;
 import eu.stratosphere.nephele.managementgraph.ManagementGraphIterator;
 import eu.stratosphere.nephele.managementgraph.ManagementGroupVertex;
 import eu.stratosphere.nephele.managementgraph.ManagementGroupVertexID;
 import eu.stratosphere.nephele.managementgraph.ManagementVertex;
+import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.metrics.HistogramSnapshot;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
 import eu.stratosphere.nephele.services.accumulators.AccumulatorEvent;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 import eu.stratosphere.util.StringUtils;
 
 
@@ -282,19 +289,8 @@ public class JobmanagerInfoServlet extends HttpServlet {
 			wrt.write("],");
 			
 			// write accumulators
-			AccumulatorEvent accumulators = jobmanager.getAccumulatorResults(jobEvent.getJobID());
-			Map<String, Object> accMap = AccumulatorHelper.toResultMap(accumulators.getAccumulators());
-			
-			wrt.write("\n\"accumulators\": [");
-			int i = 0;
-			for( Entry<String, Object> accumulator : accMap.entrySet()) {
-				wrt.write("{ \"name\": \""+accumulator.getKey()+" (" + accumulator.getValue().getClass().getName()+")\","
-						+ " \"value\": \""+accumulator.getValue().toString()+"\"}\n");
-				if(++i < accMap.size()) {
-					wrt.write(",");
-				}
-			}
-			wrt.write("],\n");
+			writeJsonForAccumulators(wrt, jobEvent.getJobID());
+			wrt.write(",\n");
 			
 			wrt.write("\"groupverticetimes\": {");
 			first = true;
@@ -434,7 +430,14 @@ public class JobmanagerInfoServlet extends HttpServlet {
 				}
 			}
 			
-			wrt.write("]");
+			wrt.write("],");
+			
+			// write the accumulators and metrics reported by the running tasks so far
+			writeJsonForAccumulators(wrt, jobId);
+			wrt.write(",");
+			writeJsonForTaskMetrics(wrt, jobId);
+			wrt.write(",");
+			writeJsonForBackPressure(wrt, jobId);
 			
 			wrt.write("}");
 			
@@ -447,6 +450,145 @@ public class JobmanagerInfoServlet extends HttpServlet {
 		
 	}
 	
+	/**
+	 * Writes the accumulators of a job. For a running job, they include the latest snapshots of the running tasks.
+	 * 
+	 * @param wrt
+	 * @param jobId
+	 */
+	private void writeJsonForAccumulators(PrintWriter wrt, JobID jobId) throws IOException {
+		
+		AccumulatorEvent accumulators = jobmanager.getAccumulatorResults(jobId);
+		Map<String, Object> accMap = AccumulatorHelper.toResultMap(accumulators.getAccumulators());
+		
+		wrt.write("\n\"accumulators\": [");
+		int i = 0;
+		for( Entry<String, Object> accumulator : accMap.entrySet()) {
+			wrt.write("{ \"name\": \""+accumulator.getKey()+" (" + accumulator.getValue().getClass().getName()+")\","
+					+ " \"value\": \""+accumulator.getValue().toString()+"\"}\n");
+			if(++i < accMap.size()) {
+				wrt.write(",");
+			}
+		}
+		wrt.write("]");
+	}
+	
+	/**
+	 * Writes the latest metrics reported by the tasks of a job, summed up per groupvertex
+	 * 
+	 * @param wrt
+	 * @param jobId
+	 */
+	private void writeJsonForTaskMetrics(PrintWriter wrt, JobID jobId) throws IOException {
+		
+		ManagementGraph jobManagementGraph = jobmanager.getManagementGraph(jobId);
+		
+		// sum up the metrics of the group members, in topological order of the groupvertices
+		Map<ManagementGroupVertex, TaskMetrics> groupMetrics = new LinkedHashMap<ManagementGroupVertex, TaskMetrics>();
+		for (ManagementGroupVertex groupVertex : jobManagementGraph.getGroupVerticesInTopologicalOrder()) {
+			groupMetrics.put(groupVertex, new TaskMetrics());
+		}
+		for (TaskProgressEvent progress : jobmanager.getTaskProgress(jobId)) {
+			ManagementVertex vertex = jobManagementGraph.getVertexByID(progress.getVertexID().toManagementVertexID());
+			if (vertex != null) {
+				groupMetrics.get(vertex.getGroupVertex()).add(progress.getMetrics());
+			}
+		}
+		
+		wrt.write("\"metrics\": [");
+		boolean first = true;
+		for (Entry<ManagementGroupVertex, TaskMetrics> entry : groupMetrics.entrySet()) {
+			if(first) {
+				first = false;
+			} else {
+				wrt.write(","); }
+			
+			TaskMetrics metrics = entry.getValue();
+			wrt.write("{");
+			wrt.write("\"groupvertexid\": \"" + entry.getKey().getID() + "\",");
+			wrt.write("\"groupvertexname\": \"" + entry.getKey().getName() + "\",");
+			wrt.write("\"recordsin\": " + metrics.getRecordsIn() + ",");
+			wrt.write("\"recordsout\": " + metrics.getRecordsOut() + ",");
+			wrt.write("\"bytesin\": " + metrics.getBytesIn() + ",");
+			wrt.write("\"bytesout\": " + metrics.getBytesOut() + ",");
+			wrt.write("\"spilledbytes\": " + metrics.getSpilledBytes() + ",");
+			wrt.write("\"inputwaittime\": " + metrics.getInputWaitTime() + ",");
+			wrt.write("\"outputwaittime\": " + metrics.getOutputWaitTime());
+			wrt.write("}");
+		}
+		wrt.write("]");
+	}
+	
+	/**
+	 * Writes the back pressure of the groupvertices of a job, marking the groupvertices which are the bottleneck
+	 * 
+	 * @param wrt
+	 * @param jobId
+	 */
+	private void writeJsonForBackPressure(PrintWriter wrt, JobID jobId) throws IOException {
+		
+		wrt.write("\"backpressure\": [");
+		boolean first = true;
+		for (VertexBackPressure backPressure : jobmanager.getBackPressure(jobId)) {
+			if(first) {
+				first = false;
+			} else {
+				wrt.write(","); }
+			
+			wrt.write("{");
+			wrt.write("\"groupvertexid\": \"" + backPressure.getGroupVertex().getID() + "\",");
+			wrt.write("\"groupvertexname\": \"" + backPressure.getGroupVertex().getName() + "\",");
+			wrt.write("\"sampledtasks\": " + backPressure.getNumberOfSampledTasks() + ",");
+			wrt.write("\"ratio\": " + formatRatio(backPressure.getBackPressureRatio()) + ",");
+			wrt.write("\"maxratio\": " + formatRatio(backPressure.getMaxBackPressureRatio()) + ",");
+			wrt.write("\"inputwaitratio\": " + formatRatio(backPressure.getInputWaitRatio()) + ",");
+			wrt.write("\"backpressured\": " + backPressure.isBackPressured() + ",");
+			wrt.write("\"bottleneck\": " + backPressure.isBottleneck());
+			wrt.write("}");
+		}
+		wrt.write("]");
+	}
+	
+	private static String formatRatio(double ratio) {
+		return String.valueOf(Math.round(ratio * 1000.0) / 1000.0);
+	}
+	
+	/**
+	 * Writes the runtime metrics of a single vertex, histograms with their count, mean, median, 99th percentile and maximum
+	 * 
+	 * @param wrt
+	 * @param metrics
+	 */
+	private void writeJsonForMetrics(PrintWriter wrt, MetricsSnapshot metrics) {
+		
+		wrt.write("{");
+		if (metrics != null) {
+			boolean first = true;
+			for (Entry<String, Long> value : metrics.getValues().entrySet()) {
+				if(first) {
+					first = false;
+				} else {
+					wrt.write(","); }
+				wrt.write("\"" + value.getKey() + "\": " + value.getValue());
+			}
+			for (Entry<String, HistogramSnapshot> histogram : metrics.getHistograms().entrySet()) {
+				if(first) {
+					first = false;
+				} else {
+					wrt.write(","); }
+				HistogramSnapshot h = histogram.getValue();
+				wrt.write("\"" + histogram.getKey() + "\": {");
+				wrt.write("\"count\": " + h.getCount() + ",");
+				wrt.write("\"mean\": " + Math.round(h.getMean()) + ",");
+				wrt.write("\"p50\": " + (h.getCount() > 0 ? h.getPercentile(0.5) : 0) + ",");
+				wrt.write("\"p99\": " + (h.getCount() > 0 ? h.getPercentile(0.99) : 0) + ",");
+				wrt.write("\"max\": " + h.getMax());
+				wrt.write("}");
+			}
+		}
+		wrt.write("}");
+	}
+	
 	/**
 	 * Writes infos about one particular archived groupvertex in a job, including all groupmembers, their times and status
 	 * 
@@ -466,6 +608,8 @@ public class JobmanagerInfoServlet extends HttpServlet {
 		// Serialize ManagementGraph to json
 		wrt.write("{\"groupvertex\": "+groupvertex.toJson()+",");
 		
+		Map<ManagementVertexID, MetricsSnapshot> vertexMetrics = jobmanager.getArchive().getMetrics(jobEvent.getJobID());
+		
 		wrt.write("\"verticetimes\": {");
 		boolean first = true;
 		for(ManagementGroupVertex groupVertex : jobManagementGraph.getGroupVerticesInTopologicalOrder()) {
@@ -491,7 +635,9 @@ public class JobmanagerInfoServlet extends HttpServlet {
 				wrt.write("\"FINISHED\": "+ jobmanager.getArchive().getVertexTime(jobEvent.getJobID(), vertex.getID(), ExecutionState.FINISHED) + ",");
 				wrt.write("\"CANCELING\": "+ jobmanager.getArchive().getVertexTime(jobEvent.getJobID(), vertex.getID(), ExecutionState.CANCELING) + ",");
 				wrt.write("\"CANCELED\": "+ jobmanager.getArchive().getVertexTime(jobEvent.getJobID(), vertex.getID(), ExecutionState.CANCELED) + ",");
-				wrt.write("\"FAILED\": "+ jobmanager.getArchive().getVertexTime(jobEvent.getJobID(), vertex.getID(), ExecutionState.FAILED) + "");
+				wrt.write("\"FAILED\": "+ jobmanager.getArchive().getVertexTime(jobEvent.getJobID(), vertex.getID(), ExecutionState.FAILED) + ",");
+				wrt.write("\"metrics\": ");
+				writeJsonForMetrics(wrt, vertexMetrics.get(vertex.getID()));
 				wrt.write("}");
 			}
 			
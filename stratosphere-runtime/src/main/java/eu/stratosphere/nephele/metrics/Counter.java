@@ -0,0 +1,63 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that can be updated concurrently without allocating objects. Each thread adds to the cell of its stripe
+ * and reading the counter sums up the cells of all stripes, so updates are cheap while reads are comparatively
+ * expensive.
+ */
+public final class Counter {
+
+	private final AtomicLongArray cells = new AtomicLongArray(Striping.NUM_STRIPES * Striping.PADDING);
+
+	/**
+	 * Creates a counter which is not part of any registry. Use {@link MetricRegistry#counter(String)} to create
+	 * a counter which is reported.
+	 */
+	public Counter() {}
+
+	/**
+	 * Increments the counter by one.
+	 */
+	public void increment() {
+		this.cells.getAndIncrement(Striping.stripe() * Striping.PADDING);
+	}
+
+	/**
+	 * Adds the given value to the counter.
+	 * 
+	 * @param delta
+	 *        the value to add
+	 */
+	public void add(final long delta) {
+		this.cells.getAndAdd(Striping.stripe() * Striping.PADDING, delta);
+	}
+
+	/**
+	 * Returns the current value of the counter. Updates which happen concurrently to this call may or may not be
+	 * included.
+	 * 
+	 * @return the current value of the counter
+	 */
+	public long get() {
+		long sum = 0L;
+		for (int i = 0; i < Striping.NUM_STRIPES; i++) {
+			sum += this.cells.get(i * Striping.PADDING);
+		}
+		return sum;
+	}
+}
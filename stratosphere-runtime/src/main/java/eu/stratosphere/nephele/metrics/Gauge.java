@@ -0,0 +1,29 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+/**
+ * A metric whose value is computed when it is read, for example from a counter that the instrumented code maintains
+ * anyway or from the length of a queue.
+ */
+public interface Gauge {
+
+	/**
+	 * Returns the current value of the gauge. The method is called by reporting threads and must therefore be
+	 * thread-safe and must not block.
+	 * 
+	 * @return the current value of the gauge
+	 */
+	long getValue();
+}
@@ -0,0 +1,104 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values that can be updated concurrently without allocating objects. Values are counted
+ * in buckets of exponentially growing width: bucket <code>0</code> holds the value <code>0</code> and bucket
+ * <code>b</code> holds the values in <code>[2^(b-1), 2^b)</code>. The histogram therefore has a fixed size and
+ * percentiles derived from it are accurate up to a factor of two, which is sufficient to tell typical values from
+ * outliers. The sum and the maximum of the recorded values are kept exactly.
+ */
+public final class Histogram {
+
+	/**
+	 * The number of buckets, sufficient to hold every non-negative long.
+	 */
+	static final int NUM_BUCKETS = 64;
+
+	private static final int SUM_OFFSET = NUM_BUCKETS;
+
+	private static final int MAX_OFFSET = NUM_BUCKETS + 1;
+
+	/**
+	 * The number of cells per stripe: the buckets, the sum and the maximum, padded to a full cache line.
+	 */
+	private static final int STRIDE = NUM_BUCKETS + 2 + Striping.PADDING - 2;
+
+	private final AtomicLongArray cells = new AtomicLongArray(Striping.NUM_STRIPES * STRIDE);
+
+	/**
+	 * Creates a histogram which is not part of any registry. Use {@link MetricRegistry#histogram(String)} to
+	 * create a histogram which is reported.
+	 */
+	public Histogram() {}
+
+	/**
+	 * Records the given value. Negative values are recorded as <code>0</code>.
+	 * 
+	 * @param value
+	 *        the value to record
+	 */
+	public void record(long value) {
+
+		if (value < 0L) {
+			value = 0L;
+		}
+
+		final int base = Striping.stripe() * STRIDE;
+		this.cells.getAndIncrement(base + bucket(value));
+		this.cells.getAndAdd(base + SUM_OFFSET, value);
+
+		long max = this.cells.get(base + MAX_OFFSET);
+		while (value > max && !this.cells.compareAndSet(base + MAX_OFFSET, max, value)) {
+			max = this.cells.get(base + MAX_OFFSET);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the recorded values. Values which are recorded concurrently to this call may or may not
+	 * be included.
+	 * 
+	 * @return a snapshot of the recorded values
+	 */
+	public HistogramSnapshot snapshot() {
+
+		final long[] buckets = new long[NUM_BUCKETS];
+		long sum = 0L;
+		long max = 0L;
+		for (int i = 0; i < Striping.NUM_STRIPES; i++) {
+			final int base = i * STRIDE;
+			for (int b = 0; b < NUM_BUCKETS; b++) {
+				buckets[b] += this.cells.get(base + b);
+			}
+			sum += this.cells.get(base + SUM_OFFSET);
+			max = Math.max(max, this.cells.get(base + MAX_OFFSET));
+		}
+
+		return new HistogramSnapshot(buckets, sum, max);
+	}
+
+	/**
+	 * Returns the bucket of the given non-negative value.
+	 * 
+	 * @param value
+	 *        the value
+	 * @return the bucket the value is counted in
+	 */
+	static int bucket(final long value) {
+		return Long.SIZE - Long.numberOfLeadingZeros(value);
+	}
+}
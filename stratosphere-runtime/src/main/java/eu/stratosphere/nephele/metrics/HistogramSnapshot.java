@@ -0,0 +1,179 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import eu.stratosphere.core.io.IOReadableWritable;
+
+/**
+ * An immutable snapshot of a {@link Histogram}. Snapshots of the same metric taken at different tasks can be added up
+ * to get the distribution over all tasks.
+ */
+public final class HistogramSnapshot implements IOReadableWritable {
+
+	private long[] buckets;
+
+	private long count;
+
+	private long sum;
+
+	private long max;
+
+	/**
+	 * Creates an empty snapshot, used for deserialization.
+	 */
+	public HistogramSnapshot() {
+		this.buckets = new long[Histogram.NUM_BUCKETS];
+	}
+
+	HistogramSnapshot(final long[] buckets, final long sum, final long max) {
+		this.buckets = buckets;
+		this.sum = sum;
+		this.max = max;
+		for (int i = 0; i < buckets.length; i++) {
+			this.count += buckets[i];
+		}
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 * 
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the sum of the recorded values.
+	 * 
+	 * @return the sum of the recorded values
+	 */
+	public long getSum() {
+		return this.sum;
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 * 
+	 * @return the largest recorded value or <code>0</code> if no value has been recorded
+	 */
+	public long getMax() {
+		return this.max;
+	}
+
+	/**
+	 * Returns the mean of the recorded values.
+	 * 
+	 * @return the mean of the recorded values or <code>0</code> if no value has been recorded
+	 */
+	public double getMean() {
+		return this.count == 0L ? 0.0 : ((double) this.sum) / this.count;
+	}
+
+	/**
+	 * Returns an upper bound for the given percentile of the recorded values. The bound is the upper end of the
+	 * bucket holding the percentile, but never larger than the maximum.
+	 * 
+	 * @param percentile
+	 *        the percentile, in <code>(0, 1]</code>
+	 * @return an upper bound for the given percentile or <code>0</code> if no value has been recorded
+	 */
+	public long getPercentile(final double percentile) {
+
+		if (percentile <= 0.0 || percentile > 1.0) {
+			throw new IllegalArgumentException("Percentile must be in (0, 1]: " + percentile);
+		}
+
+		final long rank = (long) Math.ceil(percentile * this.count);
+		long seen = 0L;
+		for (int b = 0; b < this.buckets.length; b++) {
+			seen += this.buckets[b];
+			if (seen >= rank && seen > 0L) {
+				final long upperBound = b == 0 ? 0L : (1L << b) - 1;
+				return Math.min(upperBound, this.max);
+			}
+		}
+
+		return 0L;
+	}
+
+	/**
+	 * Returns a snapshot holding the values of this snapshot and of the given one.
+	 * 
+	 * @param other
+	 *        the snapshot to add
+	 * @return the combined snapshot
+	 */
+	public HistogramSnapshot add(final HistogramSnapshot other) {
+
+		final long[] combined = new long[Histogram.NUM_BUCKETS];
+		for (int b = 0; b < combined.length; b++) {
+			combined[b] = this.buckets[b] + other.buckets[b];
+		}
+
+		return new HistogramSnapshot(combined, this.sum + other.sum, Math.max(this.max, other.max));
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void write(final DataOutput out) throws IOException {
+
+		// most buckets are empty, so only the non-empty ones are written
+		int nonEmpty = 0;
+		for (int b = 0; b < this.buckets.length; b++) {
+			if (this.buckets[b] != 0L) {
+				nonEmpty++;
+			}
+		}
+
+		out.writeByte(nonEmpty);
+		for (int b = 0; b < this.buckets.length; b++) {
+			if (this.buckets[b] != 0L) {
+				out.writeByte(b);
+				out.writeLong(this.buckets[b]);
+			}
+		}
+		out.writeLong(this.sum);
+		out.writeLong(this.max);
+	}
+
+	@Override
+	public void read(final DataInput in) throws IOException {
+
+		this.buckets = new long[Histogram.NUM_BUCKETS];
+		this.count = 0L;
+
+		final int nonEmpty = in.readUnsignedByte();
+		for (int i = 0; i < nonEmpty; i++) {
+			final int b = in.readUnsignedByte();
+			if (b >= Histogram.NUM_BUCKETS) {
+				throw new IOException("Invalid histogram bucket " + b);
+			}
+			this.buckets[b] = in.readLong();
+			this.count += this.buckets[b];
+		}
+		this.sum = in.readLong();
+		this.max = in.readLong();
+	}
+
+	@Override
+	public String toString() {
+		return "count: " + this.count + ", mean: " + getMean() + ", max: " + this.max;
+	}
+}
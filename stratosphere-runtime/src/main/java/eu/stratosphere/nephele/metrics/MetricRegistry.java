@@ -0,0 +1,135 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A registry of named metrics. The runtime keeps one registry per task, shared by the task and its chained tasks,
+ * and one per task manager for the shared services such as the I/O manager.
+ * <p>
+ * Instrumented code looks up its metrics once, when it is set up, and then only updates them. Updating a
+ * {@link Counter} or {@link Histogram} does not allocate and does not lock; the cost of aggregating the
+ * concurrent updates is paid by {@link #snapshot()}, which is called by the reporting threads. Metrics which the
+ * instrumented code already tracks for itself can be registered as {@link Gauge}s at no cost on the hot path.
+ * <p>
+ * Names are dot-separated, starting with the component, for example <code>sort.spilled-bytes</code>. Asking twice
+ * for a counter or histogram of the same name returns the same instance, such that several instances of a
+ * component working for the same task report together.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class MetricRegistry {
+
+	private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<String, Object>();
+
+	/**
+	 * Returns the counter with the given name, creating it if it does not exist yet.
+	 * 
+	 * @param name
+	 *        the name of the counter
+	 * @return the counter with the given name
+	 * @throws IllegalArgumentException
+	 *         thrown if a metric of a different type is registered with the given name
+	 */
+	public Counter counter(final String name) {
+		return getOrCreate(name, Counter.class);
+	}
+
+	/**
+	 * Returns the histogram with the given name, creating it if it does not exist yet.
+	 * 
+	 * @param name
+	 *        the name of the histogram
+	 * @return the histogram with the given name
+	 * @throws IllegalArgumentException
+	 *         thrown if a metric of a different type is registered with the given name
+	 */
+	public Histogram histogram(final String name) {
+		return getOrCreate(name, Histogram.class);
+	}
+
+	/**
+	 * Registers the given gauge, replacing a gauge previously registered with the same name.
+	 * 
+	 * @param name
+	 *        the name of the gauge
+	 * @param gauge
+	 *        the gauge to register
+	 * @throws IllegalArgumentException
+	 *         thrown if a counter or histogram is registered with the given name
+	 */
+	public void gauge(final String name, final Gauge gauge) {
+
+		final Object previous = this.metrics.put(name, gauge);
+		if (previous != null && !(previous instanceof Gauge)) {
+			this.metrics.put(name, previous);
+			throw new IllegalArgumentException("Metric " + name + " is already registered as "
+				+ previous.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Removes the metric with the given name.
+	 * 
+	 * @param name
+	 *        the name of the metric to remove
+	 */
+	public void remove(final String name) {
+		this.metrics.remove(name);
+	}
+
+	/**
+	 * Takes a snapshot of all registered metrics.
+	 * 
+	 * @return a snapshot of all registered metrics
+	 */
+	public MetricsSnapshot snapshot() {
+
+		final MetricsSnapshot snapshot = new MetricsSnapshot();
+		for (final Map.Entry<String, Object> entry : this.metrics.entrySet()) {
+			final Object metric = entry.getValue();
+			if (metric instanceof Counter) {
+				snapshot.putValue(entry.getKey(), ((Counter) metric).get());
+			} else if (metric instanceof Histogram) {
+				snapshot.putHistogram(entry.getKey(), ((Histogram) metric).snapshot());
+			} else {
+				snapshot.putValue(entry.getKey(), ((Gauge) metric).getValue());
+			}
+		}
+
+		return snapshot;
+	}
+
+	private <T> T getOrCreate(final String name, final Class<T> type) {
+
+		Object metric = this.metrics.get(name);
+		if (metric == null) {
+			final Object created = type == Counter.class ? new Counter() : new Histogram();
+			metric = this.metrics.putIfAbsent(name, created);
+			if (metric == null) {
+				metric = created;
+			}
+		}
+
+		if (metric.getClass() != type) {
+			throw new IllegalArgumentException("Metric " + name + " is already registered as "
+				+ metric.getClass().getSimpleName());
+		}
+
+		return type.cast(metric);
+	}
+}
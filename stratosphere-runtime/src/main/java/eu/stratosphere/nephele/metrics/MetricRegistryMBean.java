@@ -0,0 +1,190 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Exposes the metrics of a {@link MetricRegistry} as read-only attributes of an MBean, such that they can be
+ * inspected with any JMX client. Counters and gauges are exposed under their names, histograms as the attributes
+ * <code>&lt;name&gt;.count</code>, <code>.mean</code>, <code>.p50</code>, <code>.p99</code> and <code>.max</code>.
+ * <p>
+ * Since metrics may be registered at any time, the attributes are taken from a fresh snapshot whenever the MBean is
+ * queried.
+ */
+public final class MetricRegistryMBean implements DynamicMBean {
+
+	/**
+	 * The domain of the object names of all registered MBeans.
+	 */
+	public static final String DOMAIN = "eu.stratosphere";
+
+	private static final Log LOG = LogFactory.getLog(MetricRegistryMBean.class);
+
+	private final MetricRegistry registry;
+
+	private MetricRegistryMBean(final MetricRegistry registry) {
+		this.registry = registry;
+	}
+
+	/**
+	 * Registers the given registry with the platform MBean server. Failures are logged, as they must not affect the
+	 * monitored component.
+	 * 
+	 * @param registry
+	 *        the registry to expose
+	 * @param properties
+	 *        the key properties of the object name, for example <code>type=IOManager</code>
+	 * @return the object name of the registered MBean or <code>null</code> if the registration failed
+	 */
+	public static ObjectName register(final MetricRegistry registry, final String properties) {
+
+		try {
+			final ObjectName name = new ObjectName(DOMAIN + ':' + properties);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricRegistryMBean(registry), name);
+			return name;
+		} catch (JMException e) {
+			LOG.warn("Could not register metrics " + properties + " with the MBean server: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Unregisters an MBean registered by {@link #register(MetricRegistry, String)}.
+	 * 
+	 * @param name
+	 *        the object name of the MBean, may be <code>null</code>
+	 */
+	public static void unregister(final ObjectName name) {
+
+		if (name == null) {
+			return;
+		}
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			LOG.warn("Could not unregister metrics " + name + " from the MBean server: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Flattens the given snapshot into the values of the MBean attributes.
+	 * 
+	 * @param snapshot
+	 *        the snapshot to flatten
+	 * @return the values of the attributes, in the order of the metric names
+	 */
+	private static List<Attribute> toAttributes(final MetricsSnapshot snapshot) {
+
+		final List<Attribute> attributes = new ArrayList<Attribute>();
+		for (final Map.Entry<String, Long> entry : snapshot.getValues().entrySet()) {
+			attributes.add(new Attribute(entry.getKey(), entry.getValue()));
+		}
+		for (final Map.Entry<String, HistogramSnapshot> entry : snapshot.getHistograms().entrySet()) {
+			final String name = entry.getKey();
+			final HistogramSnapshot histogram = entry.getValue();
+			attributes.add(new Attribute(name + ".count", Long.valueOf(histogram.getCount())));
+			attributes.add(new Attribute(name + ".mean", Long.valueOf(Math.round(histogram.getMean()))));
+			if (histogram.getCount() > 0) {
+				attributes.add(new Attribute(name + ".p50", Long.valueOf(histogram.getPercentile(0.5))));
+				attributes.add(new Attribute(name + ".p99", Long.valueOf(histogram.getPercentile(0.99))));
+			} else {
+				attributes.add(new Attribute(name + ".p50", Long.valueOf(0L)));
+				attributes.add(new Attribute(name + ".p99", Long.valueOf(0L)));
+			}
+			attributes.add(new Attribute(name + ".max", Long.valueOf(histogram.getMax())));
+		}
+
+		return attributes;
+	}
+
+	@Override
+	public Object getAttribute(final String attribute) throws AttributeNotFoundException {
+
+		for (final Attribute a : toAttributes(this.registry.snapshot())) {
+			if (a.getName().equals(attribute)) {
+				return a.getValue();
+			}
+		}
+
+		throw new AttributeNotFoundException(attribute);
+	}
+
+	@Override
+	public AttributeList getAttributes(final String[] attributes) {
+
+		final List<Attribute> all = toAttributes(this.registry.snapshot());
+		final AttributeList result = new AttributeList();
+		for (final String requested : attributes) {
+			for (final Attribute a : all) {
+				if (a.getName().equals(requested)) {
+					result.add(a);
+					break;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+
+		final List<Attribute> attributes = toAttributes(this.registry.snapshot());
+		final MBeanAttributeInfo[] infos = new MBeanAttributeInfo[attributes.size()];
+		for (int i = 0; i < infos.length; i++) {
+			infos[i] = new MBeanAttributeInfo(attributes.get(i).getName(), Long.class.getName(),
+				attributes.get(i).getName(), true, false, false);
+		}
+
+		return new MBeanInfo(getClass().getName(), "Stratosphere runtime metrics", infos, null,
+			new MBeanOperationInfo[0], null);
+	}
+
+	@Override
+	public void setAttribute(final Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+	}
+
+	@Override
+	public AttributeList setAttributes(final AttributeList attributes) {
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(final String actionName, final Object[] params, final String[] signature) {
+		throw new UnsupportedOperationException(actionName);
+	}
+}
@@ -0,0 +1,162 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import eu.stratosphere.core.io.IOReadableWritable;
+import eu.stratosphere.core.io.StringRecord;
+
+/**
+ * A snapshot of the metrics of a {@link MetricRegistry}, which can be shipped to the job manager and archived.
+ * Counters and gauges are represented by their values, histograms by {@link HistogramSnapshot}s.
+ */
+public final class MetricsSnapshot implements IOReadableWritable {
+
+	private final SortedMap<String, Long> values = new TreeMap<String, Long>();
+
+	private final SortedMap<String, HistogramSnapshot> histograms = new TreeMap<String, HistogramSnapshot>();
+
+	/**
+	 * Creates an empty snapshot.
+	 */
+	public MetricsSnapshot() {}
+
+	void putValue(final String name, final long value) {
+		this.values.put(name, Long.valueOf(value));
+	}
+
+	void putHistogram(final String name, final HistogramSnapshot histogram) {
+		this.histograms.put(name, histogram);
+	}
+
+	/**
+	 * Returns the values of the counters and gauges, sorted by name.
+	 * 
+	 * @return the values of the counters and gauges
+	 */
+	public SortedMap<String, Long> getValues() {
+		return Collections.unmodifiableSortedMap(this.values);
+	}
+
+	/**
+	 * Returns the value of the counter or gauge with the given name.
+	 * 
+	 * @param name
+	 *        the name of the counter or gauge
+	 * @return the value of the counter or gauge or <code>0</code> if the snapshot does not contain it
+	 */
+	public long getValue(final String name) {
+		final Long value = this.values.get(name);
+		return value == null ? 0L : value.longValue();
+	}
+
+	/**
+	 * Returns the histograms, sorted by name.
+	 * 
+	 * @return the histograms
+	 */
+	public SortedMap<String, HistogramSnapshot> getHistograms() {
+		return Collections.unmodifiableSortedMap(this.histograms);
+	}
+
+	/**
+	 * Returns the histogram with the given name.
+	 * 
+	 * @param name
+	 *        the name of the histogram
+	 * @return the histogram or <code>null</code> if the snapshot does not contain it
+	 */
+	public HistogramSnapshot getHistogram(final String name) {
+		return this.histograms.get(name);
+	}
+
+	/**
+	 * Adds the metrics of the given snapshot to this snapshot. Values of the same name are summed up and histograms
+	 * of the same name are combined.
+	 * 
+	 * @param other
+	 *        the snapshot to add
+	 */
+	public void add(final MetricsSnapshot other) {
+
+		for (final Map.Entry<String, Long> entry : other.values.entrySet()) {
+			putValue(entry.getKey(), getValue(entry.getKey()) + entry.getValue().longValue());
+		}
+
+		for (final Map.Entry<String, HistogramSnapshot> entry : other.histograms.entrySet()) {
+			final HistogramSnapshot own = this.histograms.get(entry.getKey());
+			putHistogram(entry.getKey(), own == null ? entry.getValue() : own.add(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Checks whether the snapshot contains any metrics.
+	 * 
+	 * @return <code>true</code> if the snapshot contains no metrics, <code>false</code> otherwise
+	 */
+	public boolean isEmpty() {
+		return this.values.isEmpty() && this.histograms.isEmpty();
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void write(final DataOutput out) throws IOException {
+
+		out.writeInt(this.values.size());
+		for (final Map.Entry<String, Long> entry : this.values.entrySet()) {
+			StringRecord.writeString(out, entry.getKey());
+			out.writeLong(entry.getValue().longValue());
+		}
+
+		out.writeInt(this.histograms.size());
+		for (final Map.Entry<String, HistogramSnapshot> entry : this.histograms.entrySet()) {
+			StringRecord.writeString(out, entry.getKey());
+			entry.getValue().write(out);
+		}
+	}
+
+	@Override
+	public void read(final DataInput in) throws IOException {
+
+		this.values.clear();
+		this.histograms.clear();
+
+		final int numValues = in.readInt();
+		for (int i = 0; i < numValues; i++) {
+			final String name = StringRecord.readString(in);
+			putValue(name, in.readLong());
+		}
+
+		final int numHistograms = in.readInt();
+		for (int i = 0; i < numHistograms; i++) {
+			final String name = StringRecord.readString(in);
+			final HistogramSnapshot histogram = new HistogramSnapshot();
+			histogram.read(in);
+			putHistogram(name, histogram);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "values: " + this.values + ", histograms: " + this.histograms;
+	}
+}
@@ -0,0 +1,48 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+/**
+ * Spreads the updates of counters and histograms over several cells, such that threads updating the same metric
+ * concurrently rarely write to the same cache line.
+ */
+final class Striping {
+
+	/**
+	 * The number of longs spanning a cache line, used to pad the cells of different stripes.
+	 */
+	static final int PADDING = 8;
+
+	/**
+	 * The number of stripes, a power of two.
+	 */
+	static final int NUM_STRIPES;
+
+	static {
+		final int processors = Math.min(Runtime.getRuntime().availableProcessors(), 32);
+		NUM_STRIPES = Integer.highestOneBit(Math.max(processors * 2 - 1, 1));
+	}
+
+	private Striping() {}
+
+	/**
+	 * Returns the stripe of the calling thread. Thread IDs are assigned sequentially, so the threads working for
+	 * one task usually map to different stripes.
+	 * 
+	 * @return the stripe of the calling thread, in <code>[0, NUM_STRIPES)</code>
+	 */
+	static int stripe() {
+		return ((int) Thread.currentThread().getId()) & (NUM_STRIPES - 1);
+	}
+}
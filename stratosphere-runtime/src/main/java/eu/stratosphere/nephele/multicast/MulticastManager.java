@@ -41,6 +41,7 @@ import eu.stratosphere.nephele.jobmanager.JobManager;
 import eu.stratosphere.nephele.jobmanager.scheduler.AbstractScheduler;
 import eu.stratosphere.nephele.protocols.ChannelLookupProtocol;
 import eu.stratosphere.nephele.taskmanager.bytebuffered.ConnectionInfoLookupResponse;
+import eu.stratosphere.nephele.util.SerializableArrayList;
 
 /**
  * The MulticastManager is responsible for the creation and storage of application-layer multicast trees used to
@@ -106,6 +107,30 @@ public final class MulticastManager implements ChannelLookupProtocol {
 		this.hardCodedTreeFilePath = GlobalConfiguration.getString("multicast.hardcodedtreefile", null);
 	}
 
+	/**
+	 * Retrieves the recipients of data for each of the given source channels.
+	 * 
+	 * @param caller
+	 *        the {@link InstanceConnectionInfo} object of the task manager which calls this method
+	 * @param jobID
+	 *        the ID of the job the channel IDs belong to
+	 * @param sourceChannelIDs
+	 *        the IDs of the channels to resolve
+	 * @return the lookup responses, in the order of the given channel IDs
+	 */
+	public synchronized List<ConnectionInfoLookupResponse> lookupConnectionInfos(final InstanceConnectionInfo caller,
+			final JobID jobID, final List<ChannelID> sourceChannelIDs) {
+
+		final SerializableArrayList<ConnectionInfoLookupResponse> responses =
+			new SerializableArrayList<ConnectionInfoLookupResponse>(sourceChannelIDs.size());
+
+		for (final ChannelID sourceChannelID : sourceChannelIDs) {
+			responses.add(lookupConnectionInfo(caller, jobID, sourceChannelID));
+		}
+
+		return responses;
+	}
+
 	/**
 	 * Retrieves all recipients of a data for the given <code>sourceChannelID</code>. Returns both local recipients as
 	 * well as next-hop remote instances within the multicast-tree.
@@ -14,10 +14,12 @@
 package eu.stratosphere.nephele.protocols;
 
 import java.io.IOException;
+import java.util.List;
 
 import eu.stratosphere.core.protocols.VersionedProtocol;
 import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.services.accumulators.AccumulatorEvent;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 
 /**
  * The accumulator protocol is implemented by the job manager. TaskManagers can
@@ -35,8 +37,16 @@ public interface AccumulatorProtocol extends VersionedProtocol {
 			throws IOException;
 
 	/**
-	 * Get the final accumulator results. Called by JobClient after the job
-	 * ended.
+	 * Report snapshots of the accumulators and metrics of running tasks. Called
+	 * periodically by Task Manager, with one event per running task.
+	 */
+	void reportTaskProgress(List<TaskProgressEvent> progressEvents)
+			throws IOException;
+
+	/**
+	 * Get the accumulator results. While the job is running, the results
+	 * include the latest snapshots of the running tasks. Called by JobClient
+	 * after the job ended.
 	 */
 	AccumulatorEvent getAccumulatorResults(JobID jobID) throws IOException;
 
@@ -14,6 +14,7 @@
 package eu.stratosphere.nephele.protocols;
 
 import java.io.IOException;
+import java.util.List;
 
 import eu.stratosphere.core.protocols.VersionedProtocol;
 import eu.stratosphere.nephele.instance.InstanceConnectionInfo;
@@ -43,4 +44,21 @@ public interface ChannelLookupProtocol extends VersionedProtocol {
 	 */
 	ConnectionInfoLookupResponse lookupConnectionInfo(InstanceConnectionInfo caller, JobID jobID,
 			ChannelID sourceChannelID) throws IOException;
+
+	/**
+	 * Retrieves all recipients of data for each of the given source channels with a single call. Task managers
+	 * use this method to resolve all channels of a gate at once, instead of issuing one call per channel.
+	 * 
+	 * @param caller
+	 *        the {@link InstanceConnectionInfo} object of the task manager which calls this method
+	 * @param jobID
+	 *        the ID of the job the channel IDs belong to
+	 * @param sourceChannelIDs
+	 *        the IDs of the channels to resolve
+	 * @return the lookup responses, in the order of the given channel IDs
+	 * @throws IOException
+	 *         thrown if an error occurs during the IPC call
+	 */
+	List<ConnectionInfoLookupResponse> lookupConnectionInfos(InstanceConnectionInfo caller, JobID jobID,
+			List<ChannelID> sourceChannelIDs) throws IOException;
 }
@@ -25,6 +25,8 @@ import eu.stratosphere.nephele.instance.InstanceTypeDescription;
 import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.nephele.managementgraph.ManagementGraph;
 import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.services.accumulators.AccumulatorEvent;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 import eu.stratosphere.nephele.topology.NetworkTopology;
 
 /**
@@ -81,6 +83,30 @@ public interface ExtendedManagementProtocol extends JobManagementProtocol {
 	 */
 	List<AbstractEvent> getEvents(JobID jobID) throws IOException;
 
+	/**
+	 * Retrieves the accumulators of the job with the given job ID. For a running job, the final results of the
+	 * finished tasks are merged with the latest snapshots reported by the running tasks.
+	 * 
+	 * @param jobID
+	 *        the ID of the job to retrieve the accumulators for
+	 * @return the accumulators of the job
+	 * @throws IOException
+	 *         thrown if an error occurs while retrieving the accumulators
+	 */
+	AccumulatorEvent getAccumulatorResults(JobID jobID) throws IOException;
+
+	/**
+	 * Retrieves the latest built-in metrics of the tasks of the job with the given job ID. The returned events do not
+	 * include the tasks' accumulators.
+	 * 
+	 * @param jobID
+	 *        the ID of the job to retrieve the task metrics for
+	 * @return a (possibly empty) list with one event per task that has reported its progress
+	 * @throws IOException
+	 *         thrown if an error occurs while retrieving the task metrics
+	 */
+	List<TaskProgressEvent> getTaskProgress(JobID jobID) throws IOException;
+
 	/**
 	 * Kills the task with the given vertex ID.
 	 * 
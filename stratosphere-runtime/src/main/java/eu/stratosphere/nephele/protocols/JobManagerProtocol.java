@@ -18,6 +18,7 @@ import java.io.IOException;
 import eu.stratosphere.core.protocols.VersionedProtocol;
 import eu.stratosphere.nephele.instance.HardwareDescription;
 import eu.stratosphere.nephele.instance.InstanceConnectionInfo;
+import eu.stratosphere.nephele.ipc.PriorityCall;
 import eu.stratosphere.nephele.taskmanager.TaskExecutionState;
 
 /**
@@ -29,7 +30,8 @@ import eu.stratosphere.nephele.taskmanager.TaskExecutionState;
 public interface JobManagerProtocol extends VersionedProtocol {
 
 	/**
-	 * Sends a heart beat to the job manager.
+	 * Sends a heart beat to the job manager. Heart beats are handled ahead of the other calls to the job manager,
+	 * so that a busy job manager does not consider task managers dead.
 	 * 
 	 * @param instanceConnectionInfo
 	 *        the information the job manager requires to connect to the instance's task manager
@@ -38,6 +40,7 @@ public interface JobManagerProtocol extends VersionedProtocol {
 	 * @throws IOException
 	 *         thrown if an error occurs during this remote procedure call
 	 */
+	@PriorityCall
 	void sendHeartbeat(InstanceConnectionInfo instanceConnectionInfo, HardwareDescription hardwareDescription)
 			throws IOException;
 
@@ -22,6 +22,7 @@ import java.util.Map;
 import eu.stratosphere.api.common.accumulators.Accumulator;
 import eu.stratosphere.core.io.IOReadableWritable;
 import eu.stratosphere.nephele.execution.librarycache.LibraryCacheManager;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
 import eu.stratosphere.nephele.jobgraph.JobID;
 import eu.stratosphere.util.StringUtils;
 
@@ -38,6 +39,12 @@ public class AccumulatorEvent implements IOReadableWritable {
 
 	private boolean useUserClassLoader = false;
 
+	/**
+	 * The ID of the task that reported the accumulators, <code>null</code> if the accumulators are not the final
+	 * results of a single task.
+	 */
+	private ExecutionVertexID vertexID;
+
 	// Removing this causes an EOFException in the RPC service. The RPC should
 	// be improved in this regard (error message is very unspecific).
 	public AccumulatorEvent() {
@@ -51,10 +58,28 @@ public class AccumulatorEvent implements IOReadableWritable {
 		this.useUserClassLoader = useUserClassLoader;
 	}
 
+	/**
+	 * Creates an event that carries the final accumulator results of the task with the given ID.
+	 */
+	public AccumulatorEvent(JobID jobID, ExecutionVertexID vertexID,
+			Map<String, Accumulator<?, ?>> accumulators,
+			boolean useUserClassLoader) {
+		this(jobID, accumulators, useUserClassLoader);
+		this.vertexID = vertexID;
+	}
+
 	public JobID getJobID() {
 		return this.jobID;
 	}
 
+	/**
+	 * Returns the ID of the task that reported the accumulators, or <code>null</code> if the event does not carry
+	 * the final results of a single task.
+	 */
+	public ExecutionVertexID getVertexID() {
+		return this.vertexID;
+	}
+
 	public Map<String, Accumulator<?, ?>> getAccumulators() {
 		return this.accumulators;
 	}
@@ -63,6 +88,10 @@ public class AccumulatorEvent implements IOReadableWritable {
 	public void write(DataOutput out) throws IOException {
 		out.writeBoolean(this.useUserClassLoader);
 		jobID.write(out);
+		out.writeBoolean(this.vertexID != null);
+		if (this.vertexID != null) {
+			this.vertexID.write(out);
+		}
 		out.writeInt(accumulators.size());
 		for (Map.Entry<String, Accumulator<?, ?>> entry : this.accumulators
 				.entrySet()) {
@@ -78,6 +107,12 @@ public class AccumulatorEvent implements IOReadableWritable {
 		this.useUserClassLoader = in.readBoolean();
 		jobID = new JobID();
 		jobID.read(in);
+		if (in.readBoolean()) {
+			this.vertexID = new ExecutionVertexID();
+			this.vertexID.read(in);
+		} else {
+			this.vertexID = null;
+		}
 		int numberOfMapEntries = in.readInt();
 		this.accumulators = new HashMap<String, Accumulator<?, ?>>(
 				numberOfMapEntries);
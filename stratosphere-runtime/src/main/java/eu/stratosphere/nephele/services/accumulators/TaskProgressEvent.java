@@ -0,0 +1,201 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.services.accumulators;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import eu.stratosphere.api.common.accumulators.Accumulator;
+import eu.stratosphere.core.io.IOReadableWritable;
+import eu.stratosphere.nephele.execution.TaskMetrics;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
+
+/**
+ * This class encapsulates a snapshot of the progress of a single running task: its built-in metrics and, optionally,
+ * its detailed runtime metrics and the current values of its accumulators. Task managers send these snapshots periodically to the JobManager. A
+ * snapshot replaces the previous snapshot of the same task, and it is discarded once the task has reported its final
+ * accumulator results.
+ * <p>
+ * The accumulators are kept in their serialized form until they are requested, so that an accumulator which cannot
+ * be deserialized by the receiver, for example because the job's libraries have already been unregistered, does
+ * not affect the transfer of the other snapshots.
+ */
+public class TaskProgressEvent implements IOReadableWritable {
+
+	private JobID jobID;
+
+	private ExecutionVertexID vertexID;
+
+	private long timestamp;
+
+	private TaskMetrics metrics;
+
+	private MetricsSnapshot runtimeMetrics;
+
+	private byte[] serializedAccumulators;
+
+	public TaskProgressEvent() {
+	}
+
+	/**
+	 * Creates a new progress snapshot without accumulators.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the task belongs to
+	 * @param vertexID
+	 *        the ID of the task
+	 * @param metrics
+	 *        the task's built-in metrics
+	 */
+	public TaskProgressEvent(JobID jobID, ExecutionVertexID vertexID, TaskMetrics metrics) {
+		this.jobID = jobID;
+		this.vertexID = vertexID;
+		this.timestamp = System.currentTimeMillis();
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Creates a new progress snapshot.
+	 * 
+	 * @param jobID
+	 *        the ID of the job the task belongs to
+	 * @param vertexID
+	 *        the ID of the task
+	 * @param metrics
+	 *        the task's built-in metrics
+	 * @param accumulators
+	 *        copies of the task's current accumulators, which must not be modified concurrently
+	 * @throws IOException
+	 *         thrown if the accumulators cannot be serialized
+	 */
+	public TaskProgressEvent(JobID jobID, ExecutionVertexID vertexID, TaskMetrics metrics,
+			Map<String, Accumulator<?, ?>> accumulators) throws IOException {
+		this(jobID, vertexID, metrics);
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final DataOutputStream dos = new DataOutputStream(baos);
+		new AccumulatorEvent(jobID, accumulators, true).write(dos);
+		dos.flush();
+		this.serializedAccumulators = baos.toByteArray();
+	}
+
+	public JobID getJobID() {
+		return this.jobID;
+	}
+
+	public ExecutionVertexID getVertexID() {
+		return this.vertexID;
+	}
+
+	/**
+	 * Returns the time the snapshot was taken, measured by the clock of the task manager.
+	 * 
+	 * @return the time the snapshot was taken in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	public TaskMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Returns the snapshot of the task's detailed runtime metrics.
+	 * 
+	 * @return the snapshot of the task's runtime metrics or <code>null</code> if the event does not include it
+	 */
+	public MetricsSnapshot getRuntimeMetrics() {
+		return this.runtimeMetrics;
+	}
+
+	/**
+	 * Attaches a snapshot of the task's detailed runtime metrics to this event.
+	 * 
+	 * @param runtimeMetrics
+	 *        the snapshot of the task's runtime metrics
+	 */
+	public void setRuntimeMetrics(MetricsSnapshot runtimeMetrics) {
+		this.runtimeMetrics = runtimeMetrics;
+	}
+
+	/**
+	 * Deserializes the snapshot of the task's accumulators, using the class loader of the job.
+	 * 
+	 * @return the snapshot of the task's accumulators or <code>null</code> if the snapshot does not include any
+	 * @throws IOException
+	 *         thrown if the accumulators cannot be deserialized
+	 */
+	public AccumulatorEvent getAccumulators() throws IOException {
+		if (this.serializedAccumulators == null) {
+			return null;
+		}
+
+		final AccumulatorEvent accumulators = new AccumulatorEvent();
+		accumulators.read(new DataInputStream(new ByteArrayInputStream(this.serializedAccumulators)));
+		return accumulators;
+	}
+
+	@Override
+	public void write(DataOutput out) throws IOException {
+		this.jobID.write(out);
+		this.vertexID.write(out);
+		out.writeLong(this.timestamp);
+		this.metrics.write(out);
+		if (this.runtimeMetrics == null) {
+			out.writeBoolean(false);
+		} else {
+			out.writeBoolean(true);
+			this.runtimeMetrics.write(out);
+		}
+		if (this.serializedAccumulators == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(this.serializedAccumulators.length);
+			out.write(this.serializedAccumulators);
+		}
+	}
+
+	@Override
+	public void read(DataInput in) throws IOException {
+		this.jobID = new JobID();
+		this.jobID.read(in);
+		this.vertexID = new ExecutionVertexID();
+		this.vertexID.read(in);
+		this.timestamp = in.readLong();
+		this.metrics = new TaskMetrics();
+		this.metrics.read(in);
+		if (in.readBoolean()) {
+			this.runtimeMetrics = new MetricsSnapshot();
+			this.runtimeMetrics.read(in);
+		} else {
+			this.runtimeMetrics = null;
+		}
+		final int length = in.readInt();
+		if (length < 0) {
+			this.serializedAccumulators = null;
+		} else {
+			this.serializedAccumulators = new byte[length];
+			in.readFully(this.serializedAccumulators);
+		}
+	}
+}
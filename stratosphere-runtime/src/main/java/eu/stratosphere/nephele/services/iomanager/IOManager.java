@@ -23,6 +23,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.metrics.Gauge;
+import eu.stratosphere.nephele.metrics.Histogram;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
 
 /**
  * The facade for the provided I/O manager services.
@@ -65,6 +68,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	 */
 	private volatile boolean isClosed = false;
 
+	/**
+	 * The registry of the metrics of the reader and writer threads.
+	 */
+	private final MetricRegistry metrics = new MetricRegistry();
+
 	
 	// -------------------------------------------------------------------------
 	//               Constructors / Destructors
@@ -102,7 +110,7 @@ public final class IOManager implements UncaughtExceptionHandler
 		// start a write worker thread for each directory
 		this.writers = new WriterThread[paths.length];
 		for (int i = 0; i < this.writers.length; i++) {
-			final WriterThread t = new WriterThread();
+			final WriterThread t = new WriterThread(this.metrics.histogram("iomanager.write-time-micros"));
 			this.writers[i] = t;
 			t.setName("IOManager writer thread #" + (i + 1));
 			t.setDaemon(true);
@@ -113,13 +121,34 @@ public final class IOManager implements UncaughtExceptionHandler
 		// start a reader worker thread for each directory
 		this.readers = new ReaderThread[paths.length];
 		for (int i = 0; i < this.readers.length; i++) {
-			final ReaderThread t = new ReaderThread();
+			final ReaderThread t = new ReaderThread(this.metrics.histogram("iomanager.read-time-micros"));
 			this.readers[i] = t;
 			t.setName("IOManager reader thread #" + (i + 1));
 			t.setDaemon(true);
 			t.setUncaughtExceptionHandler(this);
 			t.start();
 		}
+
+		this.metrics.gauge("iomanager.write-queue-length", new Gauge() {
+			@Override
+			public long getValue() {
+				long length = 0L;
+				for (int i = 0; i < writers.length; i++) {
+					length += writers[i].requestQueue.size();
+				}
+				return length;
+			}
+		});
+		this.metrics.gauge("iomanager.read-queue-length", new Gauge() {
+			@Override
+			public long getValue() {
+				long length = 0L;
+				for (int i = 0; i < readers.length; i++) {
+					length += readers[i].requestQueue.size();
+				}
+				return length;
+			}
+		});
 	}
 
 	/**
@@ -167,6 +196,16 @@ public final class IOManager implements UncaughtExceptionHandler
 		}
 	}
 	
+	/**
+	 * Returns the metrics of the I/O manager: the lengths of the request queues and the time taken to serve the
+	 * read and write requests.
+	 * 
+	 * @return the metrics of the I/O manager
+	 */
+	public MetricRegistry getMetrics() {
+		return this.metrics;
+	}
+	
 	/**
 	 * Utility method to check whether the IO manager has been properly shut down. The IO manager is considered
 	 * to be properly shut down when it is closed and its threads have ceased operation.
@@ -476,15 +515,18 @@ public final class IOManager implements UncaughtExceptionHandler
 	{
 		protected final RequestQueue<ReadRequest> requestQueue;
 
+		private final Histogram serviceTime;
+
 		private volatile boolean alive;
 
 		// ---------------------------------------------------------------------
 		// Constructors / Destructors
 		// ---------------------------------------------------------------------
 		
-		protected ReaderThread()
+		protected ReaderThread(Histogram serviceTime)
 		{
 			this.requestQueue = new RequestQueue<ReadRequest>();
+			this.serviceTime = serviceTime;
 			this.alive = true;
 		}
 		
@@ -541,6 +583,7 @@ public final class IOManager implements UncaughtExceptionHandler
 				// remember any IO exception that occurs, so it can be reported to the writer
 				IOException ioex = null;
 
+				final long start = System.nanoTime();
 				try {
 					// read buffer from the specified channel
 					request.read();
@@ -554,6 +597,8 @@ public final class IOManager implements UncaughtExceptionHandler
 						t.getMessage() == null ? "." : ": ", t);
 				}
 
+				this.serviceTime.record((System.nanoTime() - start) / 1000);
+
 				// invoke the processed buffer handler of the request issuing reader object
 				request.requestDone(ioex);
 			} // end while alive
@@ -568,15 +613,18 @@ public final class IOManager implements UncaughtExceptionHandler
 	{
 		protected final RequestQueue<WriteRequest> requestQueue;
 
+		private final Histogram serviceTime;
+
 		private volatile boolean alive;
 
 		// ---------------------------------------------------------------------
 		// Constructors / Destructors
 		// ---------------------------------------------------------------------
 
-		protected WriterThread()
+		protected WriterThread(Histogram serviceTime)
 		{
 			this.requestQueue = new RequestQueue<WriteRequest>();
+			this.serviceTime = serviceTime;
 			this.alive = true;
 		}
 
@@ -634,6 +682,7 @@ public final class IOManager implements UncaughtExceptionHandler
 				// remember any IO exception that occurs, so it can be reported to the writer
 				IOException ioex = null;
 				
+				final long start = System.nanoTime();
 				try {
 					// write buffer to the specified channel
 					request.write();
@@ -647,6 +696,8 @@ public final class IOManager implements UncaughtExceptionHandler
 						t.getMessage() == null ? "." : ": ", t);
 				}
 
+				this.serviceTime.record((System.nanoTime() - start) / 1000);
+
 				// invoke the processed buffer handler of the request issuing writer object
 				request.requestDone(ioex);
 			} // end while alive
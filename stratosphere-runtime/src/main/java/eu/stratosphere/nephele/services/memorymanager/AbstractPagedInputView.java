@@ -232,7 +232,7 @@ public abstract class AbstractPagedInputView implements DataInputView {
 	@Override
 	public byte readByte() throws IOException {
 		if (this.positionInSegment < this.limitInSegment) {
-			return this.currentSegment.get(this.positionInSegment++);
+			return this.currentSegment.getUnchecked(this.positionInSegment++);
 		}
 		else {
 			advance();
@@ -248,7 +248,7 @@ public abstract class AbstractPagedInputView implements DataInputView {
 	@Override
 	public short readShort() throws IOException {
 		if (this.positionInSegment < this.limitInSegment - 1) {
-			final short v = this.currentSegment.getShort(this.positionInSegment);
+			final short v = this.currentSegment.getShortUnchecked(this.positionInSegment);
 			this.positionInSegment += 2;
 			return v;
 		}
@@ -264,7 +264,7 @@ public abstract class AbstractPagedInputView implements DataInputView {
 	@Override
 	public int readUnsignedShort() throws IOException {
 		if (this.positionInSegment < this.limitInSegment - 1) {
-			final int v = this.currentSegment.getShort(this.positionInSegment) & 0xffff;
+			final int v = this.currentSegment.getShortUnchecked(this.positionInSegment) & 0xffff;
 			this.positionInSegment += 2;
 			return v;
 		}
@@ -280,7 +280,7 @@ public abstract class AbstractPagedInputView implements DataInputView {
 	@Override
 	public char readChar() throws IOException  {
 		if (this.positionInSegment < this.limitInSegment - 1) {
-			final char v = this.currentSegment.getChar(this.positionInSegment);
+			final char v = (char) this.currentSegment.getShortUnchecked(this.positionInSegment);
 			this.positionInSegment += 2;
 			return v;
 		}
@@ -296,7 +296,7 @@ public abstract class AbstractPagedInputView implements DataInputView {
 	@Override
 	public int readInt() throws IOException {
 		if (this.positionInSegment < this.limitInSegment - 3) {
-			final int v = this.currentSegment.getIntBigEndian(this.positionInSegment);
+			final int v = this.currentSegment.getIntBigEndianUnchecked(this.positionInSegment);
 			this.positionInSegment += 4;
 			return v;
 		}
@@ -315,7 +315,7 @@ public abstract class AbstractPagedInputView implements DataInputView {
 	@Override
 	public long readLong() throws IOException {
 		if (this.positionInSegment < this.limitInSegment - 7) {
-			final long v = this.currentSegment.getLongBigEndian(this.positionInSegment);
+			final long v = this.currentSegment.getLongBigEndianUnchecked(this.positionInSegment);
 			this.positionInSegment += 8;
 			return v;
 		}
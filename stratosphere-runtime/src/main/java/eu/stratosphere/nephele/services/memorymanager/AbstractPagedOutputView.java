@@ -211,7 +211,7 @@ public abstract class AbstractPagedOutputView implements DataOutputView {
 	@Override
 	public void writeByte(int v) throws IOException {
 		if (this.positionInSegment < this.segmentSize) {
-			this.currentSegment.put(this.positionInSegment++, (byte) v);
+			this.currentSegment.putUnchecked(this.positionInSegment++, (byte) v);
 		}
 		else {
 			advance();
@@ -222,7 +222,7 @@ public abstract class AbstractPagedOutputView implements DataOutputView {
 	@Override
 	public void writeShort(int v) throws IOException {
 		if (this.positionInSegment < this.segmentSize - 1) {
-			this.currentSegment.putShort(this.positionInSegment, (short) v);
+			this.currentSegment.putShortUnchecked(this.positionInSegment, (short) v);
 			this.positionInSegment += 2;
 		}
 		else if (this.positionInSegment == this.segmentSize) {
@@ -238,7 +238,7 @@ public abstract class AbstractPagedOutputView implements DataOutputView {
 	@Override
 	public void writeChar(int v) throws IOException {
 		if (this.positionInSegment < this.segmentSize - 1) {
-			this.currentSegment.putChar(this.positionInSegment, (char) v);
+			this.currentSegment.putShortUnchecked(this.positionInSegment, (short) v);
 			this.positionInSegment += 2;
 		}
 		else if (this.positionInSegment == this.segmentSize) {
@@ -254,7 +254,7 @@ public abstract class AbstractPagedOutputView implements DataOutputView {
 	@Override
 	public void writeInt(int v) throws IOException {
 		if (this.positionInSegment < this.segmentSize - 3) {
-			this.currentSegment.putIntBigEndian(this.positionInSegment, v);
+			this.currentSegment.putIntBigEndianUnchecked(this.positionInSegment, v);
 			this.positionInSegment += 4;
 		}
 		else if (this.positionInSegment == this.segmentSize) {
@@ -272,7 +272,7 @@ public abstract class AbstractPagedOutputView implements DataOutputView {
 	@Override
 	public void writeLong(long v) throws IOException {
 		if (this.positionInSegment < this.segmentSize - 7) {
-			this.currentSegment.putLongBigEndian(this.positionInSegment, v);
+			this.currentSegment.putLongBigEndianUnchecked(this.positionInSegment, v);
 			this.positionInSegment += 8;
 		}
 		else if (this.positionInSegment == this.segmentSize) {
@@ -0,0 +1,555 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.services.memorymanager;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Collection;
+
+/**
+ * A pool of equally sized memory segments that is shared by the managed memory of the memory manager and
+ * by the network buffers. Both consumers borrow their segments from one budget.
+ * <p>
+ * Each consumer has a guaranteed minimum number of segments, which it can always obtain. Beyond that, consumers
+ * borrow elastically from the segments that are currently not used:
+ * <ul>
+ *   <li>Network buffers are only held while data is in transit and return to the pool as soon as they are
+ *       recycled. They may therefore also borrow from the unused guarantee of the managed memory.</li>
+ *   <li>Managed memory is held by its owner until the owner releases it. It may only borrow segments that
+ *       are not needed to fulfill the guarantee of the network buffers.</li>
+ * </ul>
+ * If managed memory is requested within its guarantee while network buffers occupy that part of the pool,
+ * the pool reclaims the segments: It stops lending to the network buffers and waits for the borrowed buffers
+ * to be recycled.
+ * <p>
+ * The pool keeps per-consumer occupancy metrics, which are accessible through the getter methods.
+ * <p>
+ * The memory of the segments is either allocated eagerly when the pool is created, or lazily when the segments
+ * are first requested. A lazily allocating pool may pre-touch its memory in a background thread, so that the
+ * allocation cost leaves the startup path without delaying the first requests. Optionally, the pool releases
+ * its memory after it has not been used for a given time, and allocates it again on demand.
+ */
+public final class UnifiedMemoryPool {
+	
+	/**
+	 * The consumers of the memory in the pool.
+	 */
+	public static enum Consumer {
+		
+		/** The managed memory, used by sorters, hash tables, and caches. */
+		MANAGED_MEMORY(false),
+		
+		/** The buffers of the network stack. */
+		NETWORK_BUFFERS(true);
+		
+		private final boolean returnsBorrowedSegments;
+		
+		private Consumer(boolean returnsBorrowedSegments) {
+			this.returnsBorrowedSegments = returnsBorrowedSegments;
+		}
+	}
+	
+	/**
+	 * The maximal size of the chunks in which off-heap memory is allocated. Allocating the memory in
+	 * large chunks rather than per segment keeps the per-segment book-keeping objects on the heap small.
+	 * Lazily allocated chunks are allocated while holding the pool's lock, so they must not be too large.
+	 */
+	private static final int MAX_OFF_HEAP_CHUNK_SIZE = 64 * 1024 * 1024;
+	
+	/**
+	 * The maximal interval in which the maintenance thread checks whether the pool is idle, in milliseconds.
+	 */
+	private static final long IDLE_CHECK_INTERVAL = 1000;
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private final Object lock = new Object();
+	
+	private final ArrayDeque<ByteBuffer> freeSegments;		// the free segments whose memory is allocated
+	
+	private final int segmentSize;
+	
+	private final int totalNumSegments;
+	
+	private final boolean offHeap;
+	
+	private final long idleReleaseMillis;		// the time after which an unused pool releases its memory, or -1
+	
+	private final Thread maintenanceThread;		// pre-touches and releases the memory, or null
+	
+	private final int[] minimum;				// the guaranteed number of segments per consumer
+	
+	private final int[] inUse;					// the number of segments currently held per consumer
+	
+	private final int[] peak;					// the maximal number of segments held per consumer
+	
+	private final long[] numBorrowed;			// the number of times a consumer obtained a segment beyond its minimum
+	
+	private final long[] numReclaimWaits;		// the number of times a consumer waited for borrowed segments
+	
+	private int reclaiming;						// the number of segments that requests currently wait for
+	
+	private int numUnallocated;					// the number of free segments whose memory is not yet allocated
+	
+	private long lastUsed;						// the time at which a segment was last requested or released
+	
+	private long numIdleReleases;				// the number of times the pool released its memory when idle
+	
+	private boolean isDestroyed;
+	
+	/**
+	 * Creates a new pool and allocates its memory.
+	 * 
+	 * @param totalNumSegments The total number of segments in the pool.
+	 * @param segmentSize The size of each segment, in bytes.
+	 * @param offHeap True, if the memory should be allocated off-heap, false for heap memory.
+	 * @param managedMinimum The number of segments guaranteed to the managed memory.
+	 * @param networkMinimum The number of segments guaranteed to the network buffers.
+	 */
+	public UnifiedMemoryPool(int totalNumSegments, int segmentSize, boolean offHeap, int managedMinimum, int networkMinimum) {
+		this(totalNumSegments, segmentSize, offHeap, managedMinimum, networkMinimum, false, false, -1);
+	}
+	
+	/**
+	 * Creates a new pool that allocates its memory either eagerly, or lazily when the segments are requested.
+	 * 
+	 * @param totalNumSegments The total number of segments in the pool.
+	 * @param segmentSize The size of each segment, in bytes.
+	 * @param offHeap True, if the memory should be allocated off-heap, false for heap memory.
+	 * @param managedMinimum The number of segments guaranteed to the managed memory.
+	 * @param networkMinimum The number of segments guaranteed to the network buffers.
+	 * @param lazy True, if the memory should be allocated when it is first requested, false to allocate it now.
+	 * @param preTouch True, if a lazily allocating pool should allocate its memory in a background thread.
+	 * @param idleReleaseMillis The time after which the pool releases its memory, if no segment is in use
+	 *                          and none has been requested. A value smaller than one disables the release.
+	 */
+	public UnifiedMemoryPool(int totalNumSegments, int segmentSize, boolean offHeap, int managedMinimum, int networkMinimum,
+			boolean lazy, boolean preTouch, long idleReleaseMillis)
+	{
+		if (totalNumSegments < 1 || segmentSize < 1) {
+			throw new IllegalArgumentException("The pool must contain at least one segment of at least one byte.");
+		}
+		if (managedMinimum < 0 || networkMinimum < 0 || (long) managedMinimum + networkMinimum > totalNumSegments) {
+			throw new IllegalArgumentException("The guaranteed minimums must be nonnegative and must not exceed the total number of segments.");
+		}
+		
+		this.totalNumSegments = totalNumSegments;
+		this.segmentSize = segmentSize;
+		this.offHeap = offHeap;
+		
+		final int numConsumers = Consumer.values().length;
+		this.minimum = new int[numConsumers];
+		this.inUse = new int[numConsumers];
+		this.peak = new int[numConsumers];
+		this.numBorrowed = new long[numConsumers];
+		this.numReclaimWaits = new long[numConsumers];
+		this.minimum[Consumer.MANAGED_MEMORY.ordinal()] = managedMinimum;
+		this.minimum[Consumer.NETWORK_BUFFERS.ordinal()] = networkMinimum;
+		
+		this.freeSegments = new ArrayDeque<ByteBuffer>(totalNumSegments);
+		this.numUnallocated = totalNumSegments;
+		this.idleReleaseMillis = idleReleaseMillis > 0 ? idleReleaseMillis : -1;
+		this.lastUsed = System.currentTimeMillis();
+		
+		if (!lazy) {
+			while (this.numUnallocated > 0) {
+				allocateSegments();
+			}
+		}
+		
+		if ((lazy && preTouch) || this.idleReleaseMillis > 0) {
+			this.maintenanceThread = new MaintenanceThread(lazy && preTouch);
+			this.maintenanceThread.start();
+		} else {
+			this.maintenanceThread = null;
+		}
+	}
+	
+	/**
+	 * Drops the references to all free segments. Segments that are still in use are dropped when they
+	 * are released.
+	 */
+	public void destroy() {
+		synchronized (this.lock) {
+			this.isDestroyed = true;
+			this.freeSegments.clear();
+			this.numUnallocated = 0;
+			this.lock.notifyAll();
+		}
+		if (this.maintenanceThread != null) {
+			this.maintenanceThread.interrupt();
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Requests a single segment for the given consumer without waiting. 
+	 * 
+	 * @param consumer The consumer requesting the segment.
+	 * @return The segment, or null, if the consumer may currently not obtain a segment.
+	 */
+	public ByteBuffer requestSegment(Consumer consumer) {
+		synchronized (this.lock) {
+			if (this.isDestroyed || !mayGrant(consumer, 1)) {
+				return null;
+			}
+			ensureAllocated(1);
+			grant(consumer, 1);
+			return this.freeSegments.poll();
+		}
+	}
+	
+	/**
+	 * Requests the given number of segments for the given consumer. Either all segments are obtained, or none.
+	 * If the request lies within the consumer's guarantee, but segments are currently lent to consumers that
+	 * return them, the method stops lending to these consumers and waits for them to return the segments.
+	 * 
+	 * @param consumer The consumer requesting the segments.
+	 * @param numSegments The number of requested segments.
+	 * @param target The collection to add the segments to.
+	 * @param timeoutMillis The maximal time to wait for borrowed segments to be returned.
+	 * @return True, if the segments were obtained, false otherwise.
+	 * @throws InterruptedException Thrown, if the thread was interrupted while waiting for segments.
+	 */
+	public boolean requestSegments(Consumer consumer, int numSegments, Collection<ByteBuffer> target, long timeoutMillis)
+			throws InterruptedException
+	{
+		if (numSegments < 0) {
+			throw new IllegalArgumentException("The number of segments must not be negative.");
+		}
+		
+		synchronized (this.lock) {
+			if (this.isDestroyed) {
+				throw new IllegalStateException("The memory pool has been destroyed.");
+			}
+			
+			if (!mayGrant(consumer, numSegments)) {
+				// wait only for the part of the request that lies within the guarantee and is lent out
+				final int reclaimable = getReclaimableSegments(consumer);
+				final int withinGuarantee = Math.max(0, this.minimum[consumer.ordinal()] - this.inUse[consumer.ordinal()]);
+				if (numSegments > withinGuarantee || reclaimable == 0 || timeoutMillis <= 0) {
+					return false;
+				}
+				
+				this.numReclaimWaits[consumer.ordinal()]++;
+				this.reclaiming += numSegments;
+				try {
+					final long deadline = System.currentTimeMillis() + timeoutMillis;
+					long remaining = timeoutMillis;
+					while (!this.isDestroyed && getNumFree() < numSegments && remaining > 0) {
+						this.lock.wait(remaining);
+						remaining = deadline - System.currentTimeMillis();
+					}
+				} finally {
+					this.reclaiming -= numSegments;
+				}
+				
+				if (this.isDestroyed || getNumFree() < numSegments) {
+					return false;
+				}
+			}
+			
+			ensureAllocated(numSegments);
+			grant(consumer, numSegments);
+			for (int i = 0; i < numSegments; i++) {
+				target.add(this.freeSegments.poll());
+			}
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns a segment that was obtained by the given consumer to the pool.
+	 * 
+	 * @param consumer The consumer that obtained the segment.
+	 * @param segment The segment to return.
+	 */
+	public void releaseSegment(Consumer consumer, ByteBuffer segment) {
+		synchronized (this.lock) {
+			this.inUse[consumer.ordinal()]--;
+			this.lastUsed = System.currentTimeMillis();
+			if (!this.isDestroyed) {
+				this.freeSegments.add(segment);
+				if (this.reclaiming > 0) {
+					this.lock.notifyAll();
+				}
+			}
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private boolean mayGrant(Consumer consumer, int numSegments) {
+		final int free = getNumFree();
+		if (numSegments > free) {
+			return false;
+		}
+		
+		final int c = consumer.ordinal();
+		final int beyondMinimum = this.inUse[c] + numSegments - this.minimum[c];
+		if (beyondMinimum <= 0) {
+			// within the guarantee
+			return true;
+		}
+		
+		if (consumer.returnsBorrowedSegments) {
+			// do not lend segments that are currently reclaimed
+			return free - numSegments >= this.reclaiming;
+		} else {
+			// keep the segments that are needed to fulfill the guarantees of the other consumers
+			int reserved = 0;
+			for (Consumer other : Consumer.values()) {
+				if (other != consumer) {
+					reserved += Math.max(0, this.minimum[other.ordinal()] - this.inUse[other.ordinal()]);
+				}
+			}
+			return free - numSegments >= reserved;
+		}
+	}
+	
+	private void grant(Consumer consumer, int numSegments) {
+		final int c = consumer.ordinal();
+		if (this.inUse[c] + numSegments > this.minimum[c]) {
+			this.numBorrowed[c] += Math.min(numSegments, this.inUse[c] + numSegments - this.minimum[c]);
+		}
+		this.inUse[c] += numSegments;
+		if (this.inUse[c] > this.peak[c]) {
+			this.peak[c] = this.inUse[c];
+		}
+		this.lastUsed = System.currentTimeMillis();
+	}
+	
+	private int getNumFree() {
+		return this.freeSegments.size() + this.numUnallocated;
+	}
+	
+	/**
+	 * Makes sure that the memory of the given number of free segments is allocated. If the allocation fails,
+	 * the segments allocated so far remain free segments.
+	 */
+	private void ensureAllocated(int numSegments) {
+		while (this.freeSegments.size() < numSegments && this.numUnallocated > 0) {
+			allocateSegments();
+		}
+	}
+	
+	/**
+	 * Allocates the memory for the next segments that are not yet allocated and adds them to the free segments.
+	 * Heap memory is allocated one segment at a time, off-heap memory in one chunk.
+	 */
+	private void allocateSegments() {
+		if (this.offHeap) {
+			// allocate the memory in large direct chunks and cut them into segments
+			final int num = Math.min(this.numUnallocated, Math.max(1, MAX_OFF_HEAP_CHUNK_SIZE / this.segmentSize));
+			final ByteBuffer chunk = ByteBuffer.allocateDirect(num * this.segmentSize);
+			
+			for (int i = 0; i < num; i++) {
+				chunk.limit((i + 1) * this.segmentSize);
+				chunk.position(i * this.segmentSize);
+				this.freeSegments.add(chunk.slice());
+			}
+			this.numUnallocated -= num;
+		} else {
+			this.freeSegments.add(ByteBuffer.wrap(new byte[this.segmentSize]));
+			this.numUnallocated--;
+		}
+	}
+	
+	/**
+	 * Releases the memory of all free segments, if no segment is in use and none has been requested for the
+	 * idle release time. Off-heap chunks are only released when none of their segments is in use, which is
+	 * why the pool releases its memory only as a whole.
+	 * 
+	 * @return True, if the memory was released, false otherwise.
+	 */
+	private boolean releaseIdleMemory() {
+		synchronized (this.lock) {
+			if (this.isDestroyed || this.freeSegments.isEmpty() || this.reclaiming > 0 ||
+					System.currentTimeMillis() - this.lastUsed < this.idleReleaseMillis)
+			{
+				return false;
+			}
+			for (int used : this.inUse) {
+				if (used > 0) {
+					return false;
+				}
+			}
+			
+			this.numUnallocated += this.freeSegments.size();
+			this.freeSegments.clear();
+			this.numIdleReleases++;
+			return true;
+		}
+	}
+	
+	private int getReclaimableSegments(Consumer consumer) {
+		int reclaimable = 0;
+		for (Consumer other : Consumer.values()) {
+			if (other != consumer && other.returnsBorrowedSegments) {
+				reclaimable += Math.max(0, this.inUse[other.ordinal()] - this.minimum[other.ordinal()]);
+			}
+		}
+		return reclaimable;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//                                   Properties and Metrics
+	// --------------------------------------------------------------------------------------------
+	
+	public int getSegmentSize() {
+		return this.segmentSize;
+	}
+	
+	public int getTotalNumberOfSegments() {
+		return this.totalNumSegments;
+	}
+	
+	public boolean isOffHeap() {
+		return this.offHeap;
+	}
+	
+	public int getNumberOfFreeSegments() {
+		synchronized (this.lock) {
+			return getNumFree();
+		}
+	}
+	
+	/**
+	 * Gets the number of segments whose memory is currently not allocated.
+	 */
+	public int getNumberOfUnallocatedSegments() {
+		synchronized (this.lock) {
+			return this.numUnallocated;
+		}
+	}
+	
+	/**
+	 * Gets the number of times the pool released its memory because it was not used.
+	 */
+	public long getNumberOfIdleReleases() {
+		synchronized (this.lock) {
+			return this.numIdleReleases;
+		}
+	}
+	
+	/**
+	 * Gets the number of segments guaranteed to the given consumer.
+	 */
+	public int getMinimum(Consumer consumer) {
+		return this.minimum[consumer.ordinal()];
+	}
+	
+	/**
+	 * Gets the number of segments that the given consumer currently holds.
+	 */
+	public int getNumberOfSegmentsInUse(Consumer consumer) {
+		synchronized (this.lock) {
+			return this.inUse[consumer.ordinal()];
+		}
+	}
+	
+	/**
+	 * Gets the maximal number of segments that the given consumer held at the same time.
+	 */
+	public int getPeakNumberOfSegmentsInUse(Consumer consumer) {
+		synchronized (this.lock) {
+			return this.peak[consumer.ordinal()];
+		}
+	}
+	
+	/**
+	 * Gets the number of segments that the given consumer currently holds beyond its guarantee.
+	 */
+	public int getNumberOfBorrowedSegments(Consumer consumer) {
+		synchronized (this.lock) {
+			return Math.max(0, this.inUse[consumer.ordinal()] - this.minimum[consumer.ordinal()]);
+		}
+	}
+	
+	/**
+	 * Gets the total number of segments that the given consumer obtained beyond its guarantee.
+	 */
+	public long getTotalNumberOfBorrowedSegments(Consumer consumer) {
+		synchronized (this.lock) {
+			return this.numBorrowed[consumer.ordinal()];
+		}
+	}
+	
+	/**
+	 * Gets the number of times that the given consumer waited for borrowed segments to be returned.
+	 */
+	public long getNumberOfReclaimWaits(Consumer consumer) {
+		synchronized (this.lock) {
+			return this.numReclaimWaits[consumer.ordinal()];
+		}
+	}
+	
+	@Override
+	public String toString() {
+		final StringBuilder bld = new StringBuilder("Memory pool (");
+		synchronized (this.lock) {
+			bld.append(getNumFree()).append('/').append(this.totalNumSegments).append(" segments of ");
+			bld.append(this.segmentSize).append(" bytes free, ").append(this.numUnallocated).append(" unallocated)");
+			for (Consumer consumer : Consumer.values()) {
+				final int c = consumer.ordinal();
+				bld.append(", ").append(consumer.name()).append(": in use=").append(this.inUse[c]);
+				bld.append(", minimum=").append(this.minimum[c]).append(", peak=").append(this.peak[c]);
+				bld.append(", borrowed=").append(this.numBorrowed[c]).append(", reclaim waits=").append(this.numReclaimWaits[c]);
+			}
+		}
+		return bld.toString();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * The background thread that pre-touches the memory of a lazily allocating pool and releases the
+	 * memory of the pool when it is idle.
+	 */
+	private final class MaintenanceThread extends Thread {
+		
+		private final boolean preTouch;
+		
+		private MaintenanceThread(boolean preTouch) {
+			super("Memory Pool Maintenance Thread");
+			setDaemon(true);
+			this.preTouch = preTouch;
+		}
+		
+		@Override
+		public void run() {
+			// allocate one chunk at a time, so that requests are not blocked for the whole allocation
+			while (this.preTouch && !isInterrupted()) {
+				synchronized (lock) {
+					if (isDestroyed || numUnallocated == 0) {
+						break;
+					}
+					allocateSegments();
+				}
+			}
+			
+			if (idleReleaseMillis > 0) {
+				try {
+					while (!isInterrupted()) {
+						Thread.sleep(Math.min(IDLE_CHECK_INTERVAL, idleReleaseMillis));
+						releaseIdleMemory();
+					}
+				} catch (InterruptedException iex) {
+					// the pool has been destroyed
+				}
+			}
+		}
+	}
+}
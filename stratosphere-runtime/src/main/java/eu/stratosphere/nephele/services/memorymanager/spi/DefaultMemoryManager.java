@@ -14,7 +14,7 @@
 package eu.stratosphere.nephele.services.memorymanager.spi;
 
 
-import java.util.ArrayDeque;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -29,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.nephele.services.memorymanager.MemoryAllocationException;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.nephele.services.memorymanager.UnifiedMemoryPool;
 import eu.stratosphere.nephele.template.AbstractInvokable;
 
 
@@ -44,6 +45,11 @@ public class DefaultMemoryManager implements MemoryManager {
 	 */
 	public static final int MIN_PAGE_SIZE = 4 * 1024;
 	
+	/**
+	 * The maximal time to wait for pages of a shared memory pool that are lent to the network buffers.
+	 */
+	private static final long RECLAIM_TIMEOUT = 10000;
+	
 	/**
 	 * The Log.
 	 */
@@ -53,7 +59,9 @@ public class DefaultMemoryManager implements MemoryManager {
 	
 	private final Object lock = new Object();	 	// The lock used on the shared structures.
 	
-	private final ArrayDeque<byte[]> freeSegments;	// the free memory segments
+	private final UnifiedMemoryPool pool;			// the pool holding the free memory segments
+	
+	private final boolean ownsPool;					// flag whether the pool is exclusive to this memory manager
 	
 	private final HashMap<AbstractInvokable, Set<DefaultMemorySegment>> allocatedSegments;
 	
@@ -87,6 +95,39 @@ public class DefaultMemoryManager implements MemoryManager {
 	 * @param pageSize The size of the pages handed out by the memory manager.
 	 */
 	public DefaultMemoryManager(long memorySize, int pageSize) {
+		this(memorySize, pageSize, false);
+	}
+	
+	/**
+	 * Creates a memory manager with the given capacity and given page size. The memory is either allocated
+	 * as byte arrays on the heap, or as off-heap memory, which is not subject to garbage collection. Off-heap
+	 * memory is limited by the JVM's maximum direct memory size (<i>-XX:MaxDirectMemorySize</i>).
+	 * 
+	 * @param memorySize The total size of the memory to be managed by this memory manager.
+	 * @param pageSize The size of the pages handed out by the memory manager.
+	 * @param offHeap True, if the memory should be allocated off-heap, false for heap memory.
+	 */
+	public DefaultMemoryManager(long memorySize, int pageSize, boolean offHeap) {
+		this(memorySize, pageSize, offHeap, false, false, -1);
+	}
+	
+	/**
+	 * Creates a memory manager with the given capacity and given page size, which allocates its memory either
+	 * eagerly, or lazily when the pages are first requested. Lazily allocated memory may be pre-touched in a
+	 * background thread, and may be released again after the memory manager has not been used for a while.
+	 * 
+	 * @param memorySize The total size of the memory to be managed by this memory manager.
+	 * @param pageSize The size of the pages handed out by the memory manager.
+	 * @param offHeap True, if the memory should be allocated off-heap, false for heap memory.
+	 * @param lazy True, if the memory should be allocated when it is first requested.
+	 * @param preTouch True, if lazily allocated memory should be allocated in a background thread.
+	 * @param idleReleaseMillis The time after which unused memory is released, or -1, to keep the memory.
+	 * 
+	 * @see UnifiedMemoryPool
+	 */
+	public DefaultMemoryManager(long memorySize, int pageSize, boolean offHeap, boolean lazy, boolean preTouch,
+			long idleReleaseMillis)
+	{
 		// sanity checks
 		if (memorySize <= 0) {
 			throw new IllegalArgumentException("Size of total memory must be positive.");
@@ -113,16 +154,42 @@ public class DefaultMemoryManager implements MemoryManager {
 			throw new IllegalArgumentException("The given amount of memory amounted to less than one page.");
 		}
 		
-		// initialize the free segments and allocated segments tracking structures
-		this.freeSegments = new ArrayDeque<byte[]>(this.totalNumPages);
+		// the memory is exclusive to this memory manager and all of it is guaranteed
+		this.pool = new UnifiedMemoryPool(this.totalNumPages, this.pageSize, offHeap, this.totalNumPages, 0,
+			lazy, preTouch, idleReleaseMillis);
+		this.ownsPool = true;
 		this.allocatedSegments = new HashMap<AbstractInvokable, Set<DefaultMemorySegment>>();
-
+	}
+	
+	/**
+	 * Creates a memory manager that obtains its pages from the given memory pool, which it shares with the
+	 * network buffers. The memory manager takes as many pages as the pool guarantees to the managed memory
+	 * as its size, but may temporarily borrow further pages from the pool.
+	 * 
+	 * @param pool The memory pool to obtain the pages from.
+	 */
+	public DefaultMemoryManager(UnifiedMemoryPool pool) {
+		final int pageSize = pool.getSegmentSize();
+		if (pageSize < MIN_PAGE_SIZE) {
+			throw new IllegalArgumentException("The page size must be at least " + MIN_PAGE_SIZE + " bytes.");
+		}
+		if ((pageSize & (pageSize - 1)) != 0) {
+			// not a power of two
+			throw new IllegalArgumentException("The given page size is not a power of two.");
+		}
 		
-		// add the full chunks
-		for (int i = 0; i < this.totalNumPages; i++) {
-			// allocate memory of the specified size
-			this.freeSegments.add(new byte[this.pageSize]);
+		this.pageSize = pageSize;
+		this.roundingMask = ~((long) (pageSize - 1));
+		this.pageSizeBits = Integer.numberOfTrailingZeros(pageSize);
+		
+		this.totalNumPages = pool.getMinimum(UnifiedMemoryPool.Consumer.MANAGED_MEMORY);
+		if (this.totalNumPages < 1) {
+			throw new IllegalArgumentException("The pool guarantees less than one page to the managed memory.");
 		}
+		
+		this.pool = pool;
+		this.ownsPool = false;
+		this.allocatedSegments = new HashMap<AbstractInvokable, Set<DefaultMemorySegment>>();
 	}
 
 
@@ -138,14 +205,18 @@ public class DefaultMemoryManager implements MemoryManager {
 	
 				// mark as shutdown and release memory
 				this.isShutDown = true;
-				this.freeSegments.clear();
 				
 				// go over all allocated segments and release them
 				for (Set<DefaultMemorySegment> segments : this.allocatedSegments.values()) {
 					for (DefaultMemorySegment seg : segments) {
-						seg.destroy();
+						this.pool.releaseSegment(UnifiedMemoryPool.Consumer.MANAGED_MEMORY, seg.destroy());
 					}
 				}
+				this.allocatedSegments.clear();
+				
+				if (this.ownsPool) {
+					this.pool.destroy();
+				}
 			}
 		}
 		// -------------------- END CRITICAL SECTION -------------------
@@ -154,7 +225,7 @@ public class DefaultMemoryManager implements MemoryManager {
 
 	public boolean verifyEmpty() {
 		synchronized (this.lock) {
-			return this.freeSegments.size() == this.totalNumPages;
+			return this.pool.getNumberOfSegmentsInUse(UnifiedMemoryPool.Consumer.MANAGED_MEMORY) == 0;
 		}
 	}
 
@@ -183,26 +254,43 @@ public class DefaultMemoryManager implements MemoryManager {
 			((ArrayList<MemorySegment>) target).ensureCapacity(numPages);
 		}
 		
+		synchronized (this.lock) {
+			if (this.isShutDown) {
+				throw new IllegalStateException("Memory manager has been shut down.");
+			}
+		}
+		
+		// wait for the pages outside the lock, the releases of other tasks that free them need the lock
+		final ArrayList<ByteBuffer> buffers = new ArrayList<ByteBuffer>(numPages);
+		try {
+			if (!this.pool.requestSegments(UnifiedMemoryPool.Consumer.MANAGED_MEMORY, numPages, buffers, RECLAIM_TIMEOUT)) {
+				throw new MemoryAllocationException("Could not allocate " + numPages + " pages. Only " + 
+					this.pool.getNumberOfFreeSegments() + " pages are remaining.");
+			}
+		}
+		catch (InterruptedException iex) {
+			Thread.currentThread().interrupt();
+			throw new MemoryAllocationException("Interrupted while waiting for " + numPages + " pages.");
+		}
+		
 		// -------------------- BEGIN CRITICAL SECTION -------------------
 		synchronized (this.lock)
 		{
 			if (this.isShutDown) {
+				// the manager was shut down while we waited, hand the pages back
+				for (ByteBuffer buffer : buffers) {
+					this.pool.releaseSegment(UnifiedMemoryPool.Consumer.MANAGED_MEMORY, buffer);
+				}
 				throw new IllegalStateException("Memory manager has been shut down.");
 			}
 			
-			if (numPages > this.freeSegments.size()) {
-				throw new MemoryAllocationException("Could not allocate " + numPages + " pages. Only " + 
-					this.freeSegments.size() + " pages are remaining.");
-			}
-			
 			Set<DefaultMemorySegment> segmentsForOwner = this.allocatedSegments.get(owner);
 			if (segmentsForOwner == null) {
 				segmentsForOwner = new HashSet<DefaultMemorySegment>(4 * numPages / 3 + 1);
 				this.allocatedSegments.put(owner, segmentsForOwner);
 			}
 			
-			for (int i = numPages; i > 0; i--) {
-				byte[] buffer = this.freeSegments.poll();
+			for (ByteBuffer buffer : buffers) {
 				final DefaultMemorySegment segment = new DefaultMemorySegment(owner, buffer);
 				target.add(segment);
 				segmentsForOwner.add(segment);
@@ -247,8 +335,7 @@ public class DefaultMemoryManager implements MemoryManager {
 			}
 			finally {
 				// release the memory in any case
-				byte[] buffer = defSeg.destroy();
-				this.freeSegments.add(buffer);
+				this.pool.releaseSegment(UnifiedMemoryPool.Consumer.MANAGED_MEMORY, defSeg.destroy());
 			}
 		}
 		// -------------------- END CRITICAL SECTION -------------------
@@ -307,8 +394,7 @@ public class DefaultMemoryManager implements MemoryManager {
 				}
 				finally {
 					// release the memory in any case
-					byte[] buffer = defSeg.destroy();
-					this.freeSegments.add(buffer);
+					this.pool.releaseSegment(UnifiedMemoryPool.Consumer.MANAGED_MEMORY, defSeg.destroy());
 				}
 			}
 			
@@ -337,8 +423,7 @@ public class DefaultMemoryManager implements MemoryManager {
 			
 			// free each segment
 			for (DefaultMemorySegment seg : segments) {
-				final byte[] buffer = seg.destroy();
-				this.freeSegments.add(buffer);
+				this.pool.releaseSegment(UnifiedMemoryPool.Consumer.MANAGED_MEMORY, seg.destroy());
 			}
 			
 			segments.clear();
@@ -349,6 +434,24 @@ public class DefaultMemoryManager implements MemoryManager {
 	// ------------------------------------------------------------------------
 	
 
+	/**
+	 * Checks whether the memory of this memory manager is allocated off-heap.
+	 * 
+	 * @return True, if the memory is allocated off-heap, false, if it is allocated on the heap.
+	 */
+	public boolean isOffHeap() {
+		return this.pool.isOffHeap();
+	}
+	
+	/**
+	 * Gets the memory pool from which this memory manager obtains its pages.
+	 * 
+	 * @return The memory pool of this memory manager.
+	 */
+	public UnifiedMemoryPool getMemoryPool() {
+		return this.pool;
+	}
+
 	@Override
 	public int getPageSize() {
 		return this.pageSize;
@@ -385,15 +488,18 @@ public class DefaultMemoryManager implements MemoryManager {
 		
 		private AbstractInvokable owner;
 		
-		DefaultMemorySegment(AbstractInvokable owner, byte[] memory) {
-			super(memory);
+		private ByteBuffer buffer;
+		
+		DefaultMemorySegment(AbstractInvokable owner, ByteBuffer buffer) {
+			super(buffer);
 			this.owner = owner;
+			this.buffer = buffer;
 		}
 		
-		byte[] destroy() {
-			final byte[] buffer = this.memory;
-			this.memory = null;
-			this.wrapper = null;
+		ByteBuffer destroy() {
+			final ByteBuffer buffer = this.buffer;
+			this.buffer = null;
+			free();
 			return buffer;
 		}
 	}
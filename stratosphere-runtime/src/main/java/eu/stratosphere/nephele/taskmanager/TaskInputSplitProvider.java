@@ -57,11 +57,11 @@ public class TaskInputSplitProvider implements InputSplitProvider {
 
 		try {
 
-			synchronized (this.globalInputSplitProvider) {
-				final InputSplitWrapper wrapper = this.globalInputSplitProvider.requestNextInputSplit(this.jobID,
-					this.executionVertexID, new IntegerRecord(this.sequenceNumber.getAndIncrement()));
-				return wrapper.getInputSplit();
-			}
+			// the proxy is shared by all tasks of the task manager, but multiplexes concurrent calls over its
+			// connection, so the requests of different tasks need not wait for each other
+			final InputSplitWrapper wrapper = this.globalInputSplitProvider.requestNextInputSplit(this.jobID,
+				this.executionVertexID, new IntegerRecord(this.sequenceNumber.getAndIncrement()));
+			return wrapper.getInputSplit();
 
 		} catch (IOException ioe) {
 			// Convert IOException into a RuntimException and let the regular fault tolerance routines take care of the
@@ -32,12 +32,15 @@ import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.management.ObjectName;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.GnuParser;
@@ -49,6 +52,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.security.UserGroupInformation;
 
+import eu.stratosphere.api.common.accumulators.Accumulator;
 import eu.stratosphere.api.common.cache.DistributedCache;
 import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.configuration.Configuration;
@@ -57,6 +61,7 @@ import eu.stratosphere.core.fs.Path;
 import eu.stratosphere.nephele.deployment.TaskDeploymentDescriptor;
 import eu.stratosphere.nephele.execution.ExecutionState;
 import eu.stratosphere.nephele.execution.RuntimeEnvironment;
+import eu.stratosphere.nephele.execution.TaskMetrics;
 import eu.stratosphere.nephele.execution.librarycache.LibraryCacheManager;
 import eu.stratosphere.nephele.execution.librarycache.LibraryCacheProfileRequest;
 import eu.stratosphere.nephele.execution.librarycache.LibraryCacheProfileResponse;
@@ -69,6 +74,7 @@ import eu.stratosphere.nephele.io.channels.ChannelID;
 import eu.stratosphere.nephele.ipc.RPC;
 import eu.stratosphere.nephele.ipc.Server;
 import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.metrics.MetricRegistryMBean;
 import eu.stratosphere.nephele.net.NetUtils;
 import eu.stratosphere.nephele.profiling.ProfilingUtils;
 import eu.stratosphere.nephele.profiling.TaskManagerProfiler;
@@ -77,9 +83,12 @@ import eu.stratosphere.nephele.protocols.ChannelLookupProtocol;
 import eu.stratosphere.nephele.protocols.InputSplitProviderProtocol;
 import eu.stratosphere.nephele.protocols.JobManagerProtocol;
 import eu.stratosphere.nephele.protocols.TaskOperationProtocol;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
 import eu.stratosphere.nephele.services.iomanager.IOManager;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.nephele.services.memorymanager.UnifiedMemoryPool;
 import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.taskmanager.bufferprovider.GlobalBufferPool;
 import eu.stratosphere.nephele.taskmanager.bytebuffered.ByteBufferedChannelManager;
 import eu.stratosphere.nephele.taskmanager.bytebuffered.InsufficientResourcesException;
 import eu.stratosphere.nephele.taskmanager.runtime.ExecutorThreadFactory;
@@ -145,6 +154,25 @@ public class TaskManager implements TaskOperationProtocol {
 	private static HardwareDescription hardwareDescription = null;
 
 	private final Thread heartbeatThread;
+
+	/**
+	 * The thread reporting the accumulators and metrics of the running tasks, <code>null</code> if the reports are
+	 * disabled.
+	 */
+	private final Thread progressReportThread;
+
+	/**
+	 * The final metrics of the tasks which have finished since the last progress report.
+	 */
+	private final ConcurrentLinkedQueue<TaskProgressEvent> finishedTaskProgress = new ConcurrentLinkedQueue<TaskProgressEvent>();
+
+	/**
+	 * The names under which the metrics of the I/O manager and of the running tasks are registered with the MBean
+	 * server.
+	 */
+	private final ObjectName ioManagerMBean;
+
+	private final Map<ExecutionVertexID, ObjectName> taskMBeans = new ConcurrentHashMap<ExecutionVertexID, ObjectName>();
 	
 	private final AtomicBoolean shutdownStarted = new AtomicBoolean(false);
 	
@@ -279,15 +307,6 @@ public class TaskManager implements TaskOperationProtocol {
 		final int pageSize = GlobalConfiguration.getInteger(ConfigConstants.TASK_MANAGER_NETWORK_BUFFER_SIZE_KEY,
 			ConfigConstants.DEFAULT_TASK_MANAGER_NETWORK_BUFFER_SIZE);
 
-		// Initialize the byte buffered channel manager
-		try {
-			this.byteBufferedChannelManager = new ByteBufferedChannelManager(this.lookupService,
-				this.localInstanceConnectionInfo);
-		} catch (Exception e) {
-			LOG.fatal("Cannot create byte channel manager:" + e.getMessage(), e);
-			throw new Exception("Failed to instantiate Byte-buffered channel manager. " + e.getMessage(), e);
-		}
-		
 		{
 			HardwareDescription resources = HardwareDescriptionFactory.extractFromSystem();
 
@@ -307,19 +326,64 @@ public class TaskManager implements TaskOperationProtocol {
 					"Page size is " + pageSize + " bytes.");
 			
 			try {
-				@SuppressWarnings("unused")
+				final long memoryStartTime = System.currentTimeMillis();
+				
 				final boolean lazyAllocation = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_LAZY_ALLOCATION_KEY,
 					ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_LAZY_ALLOCATION);
+				final boolean preTouch = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_PRE_TOUCH_KEY,
+					ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_PRE_TOUCH);
+				final long idleRelease = GlobalConfiguration.getLong(ConfigConstants.TASK_MANAGER_MEMORY_IDLE_RELEASE_KEY,
+					ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_IDLE_RELEASE);
 				
-				this.memoryManager = new DefaultMemoryManager(resources.getSizeOfFreeMemory(), pageSize);
+				final boolean offHeap = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_OFF_HEAP_KEY,
+					ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_OFF_HEAP);
+				
+				final boolean unified = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_UNIFIED_KEY,
+					ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_UNIFIED);
+				
+				if (unified) {
+					// managed memory and network buffers share one pool. the managed memory keeps its full size
+					// guaranteed, the network buffers only a part of theirs, so the rest is shared elastically
+					final int numNetworkBuffers = GlobalConfiguration.getInteger(ConfigConstants.TASK_MANAGER_NETWORK_NUM_BUFFERS_KEY,
+						ConfigConstants.DEFAULT_TASK_MANAGER_NETWORK_NUM_BUFFERS);
+					final float elasticFraction = GlobalConfiguration.getFloat(ConfigConstants.TASK_MANAGER_MEMORY_UNIFIED_ELASTIC_FRACTION_KEY,
+						ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_UNIFIED_ELASTIC_FRACTION);
+					final int managedPages = (int) (resources.getSizeOfFreeMemory() / pageSize);
+					final int networkMinimum = (int) (numNetworkBuffers * (1.0f - elasticFraction));
+					
+					final UnifiedMemoryPool pool = new UnifiedMemoryPool(managedPages + numNetworkBuffers, pageSize,
+						offHeap, managedPages, networkMinimum, lazyAllocation, preTouch, idleRelease);
+					GlobalBufferPool.initialize(pool);
+					this.memoryManager = new DefaultMemoryManager(pool);
+					
+					LOG.info("Managed memory and network buffers share a pool of " + (managedPages + numNetworkBuffers) +
+						" pages, " + networkMinimum + " of which are guaranteed to the network buffers.");
+				} else {
+					this.memoryManager = new DefaultMemoryManager(resources.getSizeOfFreeMemory(), pageSize, offHeap,
+						lazyAllocation, preTouch, idleRelease);
+				}
+				
+				LOG.info("Initialized memory manager in " + (System.currentTimeMillis() - memoryStartTime) + " msecs" +
+					(lazyAllocation ? (preTouch ? ", allocating the memory in the background." : ", allocating the memory on demand.") : "."));
 			} catch (Throwable t) {
 				LOG.fatal("Unable to initialize memory manager with " + (resources.getSizeOfFreeMemory() >>> 20)
 					+ " megabytes of memory.", t);
 				throw new Exception("Unable to initialize memory manager.", t);
 			}
 		}
+		
+		// Initialize the byte buffered channel manager
+		try {
+			this.byteBufferedChannelManager = new ByteBufferedChannelManager(this.lookupService,
+				this.localInstanceConnectionInfo);
+		} catch (Exception e) {
+			LOG.fatal("Cannot create byte channel manager:" + e.getMessage(), e);
+			throw new Exception("Failed to instantiate Byte-buffered channel manager. " + e.getMessage(), e);
+		}
 
 		this.ioManager = new IOManager(tmpDirPaths);
+		this.ioManagerMBean = MetricRegistryMBean.register(this.ioManager.getMetrics(),
+			"type=IOManager,taskmanager=" + this.localInstanceConnectionInfo.getIPCPort());
 		
 		this.heartbeatThread = new Thread() {
 			@Override
@@ -330,6 +394,23 @@ public class TaskManager implements TaskOperationProtocol {
 		
 		this.heartbeatThread.setName("Heartbeat Thread");
 		this.heartbeatThread.start();
+
+		final long progressReportInterval = GlobalConfiguration.getInteger(
+			ConfigConstants.TASK_MANAGER_PROGRESS_REPORT_INTERVAL_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_PROGRESS_REPORT_INTERVAL);
+		if (progressReportInterval > 0) {
+			this.progressReportThread = new Thread() {
+				@Override
+				public void run() {
+					runProgressReportLoop(progressReportInterval);
+				}
+			};
+			this.progressReportThread.setName("Progress Report Thread");
+			this.progressReportThread.setDaemon(true);
+			this.progressReportThread.start();
+		} else {
+			this.progressReportThread = null;
+		}
 	}
 
 	private int getAvailablePort() {
@@ -454,6 +535,86 @@ public class TaskManager implements TaskOperationProtocol {
 		}
 	}
 
+
+	/**
+	 * This method periodically reports the accumulators and metrics of the running tasks, together with the final
+	 * metrics of the tasks which have finished since the last report. All tasks are reported with a single call.
+	 * 
+	 * @param interval
+	 *        the interval between two reports in milliseconds
+	 */
+	private void runProgressReportLoop(final long interval) {
+
+		while (!shutdownStarted.get()) {
+			try {
+				Thread.sleep(interval);
+			}
+			catch (InterruptedException e) {
+				if (shutdownStarted.get()) {
+					break;
+				}
+			}
+
+			final SerializableArrayList<TaskProgressEvent> progressEvents = new SerializableArrayList<TaskProgressEvent>();
+			TaskProgressEvent finished;
+			while ((finished = this.finishedTaskProgress.poll()) != null) {
+				progressEvents.add(finished);
+			}
+			for (final Task task : this.runningTasks.values()) {
+				progressEvents.add(createTaskProgressEvent(task));
+			}
+
+			if (progressEvents.isEmpty()) {
+				continue;
+			}
+
+			try {
+				this.accumulatorProtocolProxy.reportTaskProgress(progressEvents);
+			} catch (IOException e) {
+				if (shutdownStarted.get()) {
+					break;
+				} else {
+					LOG.error("Reporting the progress of the running tasks caused an exception: " + e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a snapshot of the metrics and accumulators of a running task. The accumulators are copied while the
+	 * task keeps modifying them, so the copying may fail. In that case, the snapshot only includes the metrics and
+	 * the JobManager keeps the previous snapshot of the accumulators.
+	 * 
+	 * @param task
+	 *        the task to create the snapshot for
+	 * @return the snapshot of the task's progress
+	 */
+	private TaskProgressEvent createTaskProgressEvent(final Task task) {
+
+		final TaskMetrics metrics = task.getEnvironment().getTaskMetrics();
+		TaskProgressEvent progress = null;
+
+		if (task instanceof RuntimeTask) {
+			try {
+				final Map<String, Accumulator<?, ?>> accumulators =
+					((RuntimeTask) task).getRuntimeEnvironment().getInvokable().getAccumulatorSnapshot();
+				if (accumulators != null && !accumulators.isEmpty()) {
+					progress = new TaskProgressEvent(task.getJobID(), task.getVertexID(), metrics, accumulators);
+				}
+			} catch (Exception e) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Skipping the accumulators of task " + task.getVertexID() + ": " + e.getMessage());
+				}
+			}
+		}
+
+		if (progress == null) {
+			progress = new TaskProgressEvent(task.getJobID(), task.getVertexID(), metrics);
+		}
+		progress.setRuntimeMetrics(task.getEnvironment().getMetrics().snapshot());
+
+		return progress;
+	}
 	
 	/**
 	 * The states of address detection mechanism.
@@ -752,6 +913,12 @@ public class TaskManager implements TaskOperationProtocol {
 				}
 
 				this.runningTasks.put(id, task);
+
+				final ObjectName mbean = MetricRegistryMBean.register(task.getEnvironment().getMetrics(),
+					"type=Task,job=" + task.getJobID() + ",task=" + id);
+				if (mbean != null) {
+					this.taskMBeans.put(id, mbean);
+				}
 			}
 		}
 		return task;
@@ -778,6 +945,15 @@ public class TaskManager implements TaskOperationProtocol {
 			for (Entry<String, String> e: DistributedCache.getCachedFile(task.getEnvironment().getJobConfiguration())) {
 				this.fileCache.deleteTmpFile(e.getKey(), task.getJobID());
 			}
+			// Keep the final metrics of the task for the next progress report
+			if (this.progressReportThread != null) {
+				final TaskProgressEvent finalProgress = new TaskProgressEvent(task.getJobID(), id,
+					task.getEnvironment().getTaskMetrics());
+				finalProgress.setRuntimeMetrics(task.getEnvironment().getMetrics().snapshot());
+				this.finishedTaskProgress.add(finalProgress);
+			}
+			MetricRegistryMBean.unregister(this.taskMBeans.remove(id));
+
 			// Unregister task from the byte buffered channel manager
 			this.byteBufferedChannelManager.unregister(id, task);
 
@@ -864,6 +1040,14 @@ public class TaskManager implements TaskOperationProtocol {
 			this.heartbeatThread.join(1000);
 		} catch (InterruptedException e) {}
 
+		// stop the progress reports
+		if (this.progressReportThread != null) {
+			this.progressReportThread.interrupt();
+			try {
+				this.progressReportThread.join(1000);
+			} catch (InterruptedException e) {}
+		}
+
 		// Stop RPC proxy for the task manager
 		RPC.stopProxy(this.jobManager);
 
@@ -891,9 +1075,15 @@ public class TaskManager implements TaskOperationProtocol {
 		if (this.ioManager != null) {
 			this.ioManager.shutdown();
 		}
+		MetricRegistryMBean.unregister(this.ioManagerMBean);
 
 		if (this.memoryManager != null) {
 			this.memoryManager.shutdown();
+			
+			// a pool shared with the network buffers is not owned by the memory manager and stops its threads here
+			if (this.memoryManager instanceof DefaultMemoryManager) {
+				((DefaultMemoryManager) this.memoryManager).getMemoryPool().destroy();
+			}
 		}
 
 		this.fileCache.shutdown();
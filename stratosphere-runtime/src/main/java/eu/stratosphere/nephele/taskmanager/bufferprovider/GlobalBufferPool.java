@@ -13,6 +13,7 @@
 
 package eu.stratosphere.nephele.taskmanager.bufferprovider;
 
+import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 
@@ -22,6 +23,7 @@ import org.apache.commons.logging.LogFactory;
 import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.configuration.GlobalConfiguration;
 import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.UnifiedMemoryPool;
 
 public final class GlobalBufferPool {
 
@@ -32,6 +34,11 @@ public final class GlobalBufferPool {
 	 */
 	private static GlobalBufferPool instance = null;
 
+	/**
+	 * The maximal size of the chunks in which off-heap buffers are allocated.
+	 */
+	private static final int MAX_OFF_HEAP_CHUNK_SIZE = 64 * 1024 * 1024;
+
 	/**
 	 * The number of buffers created at startup.
 	 */
@@ -44,6 +51,11 @@ public final class GlobalBufferPool {
 
 	private final Queue<MemorySegment> buffers;
 
+	/**
+	 * The memory pool shared with the managed memory, or <code>null</code> if the buffers are exclusive.
+	 */
+	private final UnifiedMemoryPool memoryPool;
+
 	/**
 	 * Returns the singleton instance of the global buffer pool. If the instance does not already exist, it is also
 	 * created by calling this method.
@@ -59,28 +71,80 @@ public final class GlobalBufferPool {
 		return instance;
 	}
 
+	/**
+	 * Creates the singleton instance of the global buffer pool such that it obtains its buffers from the given
+	 * memory pool, which is shared with the managed memory. Must be called before the instance is first accessed.
+	 * 
+	 * @param memoryPool
+	 *        the memory pool to obtain the buffers from
+	 * @return the singleton instance of the global buffer pool
+	 */
+	public static synchronized GlobalBufferPool initialize(final UnifiedMemoryPool memoryPool) {
+
+		if (instance != null) {
+			throw new IllegalStateException("The global buffer pool has already been initialized.");
+		}
+
+		instance = new GlobalBufferPool(memoryPool);
+		return instance;
+	}
+
+	/**
+	 * Constructs the global buffer pool on top of a shared memory pool.
+	 */
+	private GlobalBufferPool(final UnifiedMemoryPool memoryPool) {
+
+		this.memoryPool = memoryPool;
+		this.numberOfBuffers = memoryPool.getMinimum(UnifiedMemoryPool.Consumer.NETWORK_BUFFERS);
+		this.bufferSizeInBytes = memoryPool.getSegmentSize();
+		this.buffers = null;
+
+		LOG.info("Initialized global buffer pool with " + this.numberOfBuffers + " guaranteed buffers with a size "
+			+ this.bufferSizeInBytes + " bytes each from a shared memory pool");
+	}
+
 	/**
 	 * Constructs the global buffer pool.
 	 */
 	private GlobalBufferPool() {
 
+		this.memoryPool = null;
+
 		this.numberOfBuffers = GlobalConfiguration.getInteger(ConfigConstants.TASK_MANAGER_NETWORK_NUM_BUFFERS_KEY,
 			ConfigConstants.DEFAULT_TASK_MANAGER_NETWORK_NUM_BUFFERS);
 		this.bufferSizeInBytes = GlobalConfiguration.getInteger(ConfigConstants.TASK_MANAGER_NETWORK_BUFFER_SIZE_KEY,
 			ConfigConstants.DEFAULT_TASK_MANAGER_NETWORK_BUFFER_SIZE);
 
+		final boolean offHeap = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_OFF_HEAP_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_MEMORY_OFF_HEAP);
+
 		this.buffers = new ArrayBlockingQueue<MemorySegment>(this.numberOfBuffers);
 
-		// Initialize buffers
-		for (int i = 0; i < this.numberOfBuffers; i++) {
-			// allocate byteBuffer
-			final byte[] segMemory = new byte[this.bufferSizeInBytes];
-			final MemorySegment readBuffer = new MemorySegment(segMemory);
-			this.buffers.add(readBuffer);
+		if (offHeap) {
+			// allocate the buffers in large direct chunks and cut them into the individual buffers
+			final int buffersPerChunk = Math.max(1, MAX_OFF_HEAP_CHUNK_SIZE / this.bufferSizeInBytes);
+			for (int remaining = this.numberOfBuffers; remaining > 0; remaining -= buffersPerChunk) {
+				final int num = Math.min(remaining, buffersPerChunk);
+				final ByteBuffer chunk = ByteBuffer.allocateDirect(num * this.bufferSizeInBytes);
+				
+				for (int i = 0; i < num; i++) {
+					chunk.limit((i + 1) * this.bufferSizeInBytes);
+					chunk.position(i * this.bufferSizeInBytes);
+					this.buffers.add(new MemorySegment(chunk.slice()));
+				}
+			}
+		} else {
+			// Initialize buffers
+			for (int i = 0; i < this.numberOfBuffers; i++) {
+				// allocate byteBuffer
+				final byte[] segMemory = new byte[this.bufferSizeInBytes];
+				final MemorySegment readBuffer = new MemorySegment(segMemory);
+				this.buffers.add(readBuffer);
+			}
 		}
 
-		LOG.info("Initialized global buffer pool with " + this.numberOfBuffers + " buffers with a size "
-			+ this.bufferSizeInBytes + " bytes each");
+		LOG.info("Initialized global buffer pool with " + this.numberOfBuffers + (offHeap ? " off-heap" : "") +
+			" buffers with a size " + this.bufferSizeInBytes + " bytes each");
 	}
 
 	/**
@@ -100,7 +164,24 @@ public final class GlobalBufferPool {
 	 */
 	public MemorySegment lockGlobalBuffer() {
 
-		return this.buffers.poll();
+		if (this.memoryPool == null) {
+			return this.buffers.poll();
+		}
+
+		final ByteBuffer buffer = this.memoryPool.requestSegment(UnifiedMemoryPool.Consumer.NETWORK_BUFFERS);
+		return buffer == null ? null : new PooledMemorySegment(buffer);
+	}
+
+	/**
+	 * Borrows a buffer beyond the designated buffers of a local buffer pool, if the global buffer pool shares its
+	 * memory with the managed memory and the managed memory currently does not need it. The buffer must be
+	 * released as soon as it is no longer needed.
+	 * 
+	 * @return the borrowed buffer or <code>null</code> if currently no buffer can be borrowed
+	 */
+	public MemorySegment lockSurplusBuffer() {
+
+		return this.memoryPool == null ? null : lockGlobalBuffer();
 	}
 
 	/**
@@ -110,7 +191,13 @@ public final class GlobalBufferPool {
 	 *        the previously locked buffer to be released
 	 */
 	public void releaseGlobalBuffer(final MemorySegment releasedBuffer) {
-		this.buffers.add(releasedBuffer);
+
+		if (this.memoryPool == null) {
+			this.buffers.add(releasedBuffer);
+		} else {
+			this.memoryPool.releaseSegment(UnifiedMemoryPool.Consumer.NETWORK_BUFFERS,
+				((PooledMemorySegment) releasedBuffer).destroy());
+		}
 	}
 
 	/**
@@ -130,6 +217,40 @@ public final class GlobalBufferPool {
 	 */
 	public int getCurrentNumberOfBuffers() {
 
-		return this.buffers.size();
+		if (this.memoryPool == null) {
+			return this.buffers.size();
+		}
+
+		return this.memoryPool.getNumberOfFreeSegments();
+	}
+
+	/**
+	 * Returns the memory pool which this pool shares with the managed memory.
+	 * 
+	 * @return the shared memory pool or <code>null</code> if the buffers are exclusive to this pool
+	 */
+	public UnifiedMemoryPool getMemoryPool() {
+
+		return this.memoryPool;
+	}
+
+	/**
+	 * A buffer obtained from the shared memory pool, which remembers its memory to return it to the pool.
+	 */
+	private static final class PooledMemorySegment extends MemorySegment {
+
+		private ByteBuffer buffer;
+
+		private PooledMemorySegment(final ByteBuffer buffer) {
+			super(buffer);
+			this.buffer = buffer;
+		}
+
+		private ByteBuffer destroy() {
+			final ByteBuffer buffer = this.buffer;
+			this.buffer = null;
+			free();
+			return buffer;
+		}
 	}
 }
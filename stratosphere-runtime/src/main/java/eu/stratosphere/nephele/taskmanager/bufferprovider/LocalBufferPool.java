@@ -134,6 +134,15 @@ public final class LocalBufferPool implements BufferProvider {
 							this.requestedNumberOfBuffers++;
 							continue;
 						}
+					} else {
+
+						// Borrow a buffer beyond the designated ones, it is returned as soon as it is recycled
+						final MemorySegment memSeg = this.globalBufferPool.lockSurplusBuffer();
+						if (memSeg != null) {
+							this.buffers.add(memSeg);
+							this.requestedNumberOfBuffers++;
+							continue;
+						}
 					}
 
 					if (this.asynchronousEventOccurred && block) {
@@ -242,7 +251,8 @@ public final class LocalBufferPool implements BufferProvider {
 
 		synchronized (this.buffers) {
 
-			if (this.isDestroyed) {
+			if (this.isDestroyed || this.requestedNumberOfBuffers > this.designatedNumberOfBuffers) {
+				// return excess and borrowed buffers immediately
 				this.globalBufferPool.releaseGlobalBuffer(memSeg);
 				this.requestedNumberOfBuffers--;
 			} else {
@@ -15,6 +15,7 @@ package eu.stratosphere.nephele.taskmanager.bytebuffered;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@ import eu.stratosphere.nephele.taskmanager.bufferprovider.LocalBufferPoolOwner;
 import eu.stratosphere.nephele.taskmanager.transferenvelope.TransferEnvelope;
 import eu.stratosphere.nephele.taskmanager.transferenvelope.TransferEnvelopeDispatcher;
 import eu.stratosphere.nephele.taskmanager.transferenvelope.TransferEnvelopeReceiverList;
+import eu.stratosphere.nephele.util.SerializableArrayList;
 
 public final class ByteBufferedChannelManager implements TransferEnvelopeDispatcher, BufferProviderBroker {
 
@@ -82,6 +84,11 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 	 */
 	private final Map<ChannelID, TransferEnvelopeReceiverList> receiverCache = new ConcurrentHashMap<ChannelID, TransferEnvelopeReceiverList>();
 
+	/**
+	 * The channels of each gate, whose receivers are looked up together.
+	 */
+	private final ChannelLookupGroups lookupGroups = new ChannelLookupGroups();
+
 	public ByteBufferedChannelManager(final ChannelLookupProtocol channelLookupService,
 			final InstanceConnectionInfo localInstanceConnectionInfo) throws IOException {
 
@@ -136,6 +143,7 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 			final GateID gateID = gateIt.next();
 			final OutputGateContext outputGateContext = taskContext.createOutputGateContext(gateID);
 			final Set<ChannelID> outputChannelIDs = environment.getOutputChannelIDsOfGate(gateID);
+			final List<ChannelID> networkChannelIDs = new ArrayList<ChannelID>(outputChannelIDs.size());
 			for (final Iterator<ChannelID> channelIt = outputChannelIDs.iterator(); channelIt.hasNext();) {
 
 				final ChannelID channelID = channelIt.next();
@@ -157,6 +165,7 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 				if (outputChannelContext.getType() == ChannelType.NETWORK) {
 					addReceiverListHint(outputChannelContext.getConnectedChannelID(),
 						outputChannelContext.getChannelID());
+					networkChannelIDs.add(outputChannelContext.getChannelID());
 				}
 
 				if (LOG.isDebugEnabled()) {
@@ -166,6 +175,9 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 
 				this.registeredChannels.put(outputChannelContext.getChannelID(), outputChannelContext);
 			}
+
+			// Look up the receivers of all network channels of the gate together
+			this.lookupGroups.addGroup(networkChannelIDs);
 		}
 
 		final Set<GateID> inputGateIDs = environment.getInputGateIDs();
@@ -174,6 +186,7 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 			final GateID gateID = gateIt.next();
 			final InputGateContext inputGateContext = taskContext.createInputGateContext(gateID);
 			final Set<ChannelID> inputChannelIDs = environment.getInputChannelIDsOfGate(gateID);
+			final List<ChannelID> networkChannelIDs = new ArrayList<ChannelID>(inputChannelIDs.size());
 			for (final Iterator<ChannelID> channelIt = inputChannelIDs.iterator(); channelIt.hasNext();) {
 
 				final ChannelID channelID = channelIt.next();
@@ -186,11 +199,16 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 				// Add routing entry to receiver cache to reduce latency
 				if (inputChannelContext.getType() == ChannelType.INMEMORY) {
 					addReceiverListHint(inputChannelContext.getChannelID(), inputChannelContext.getConnectedChannelID());
+				} else if (inputChannelContext.getType() == ChannelType.NETWORK) {
+					networkChannelIDs.add(inputChannelContext.getChannelID());
 				}
 
 				this.registeredChannels.put(inputChannelContext.getChannelID(), inputChannelContext);
 			}
 
+			// Look up the senders of all network channels of the gate together, when events are sent back
+			this.lookupGroups.addGroup(networkChannelIDs);
+
 			// Add input gate context to set of local buffer pool owner
 			final LocalBufferPoolOwner bufferPoolOwner = inputGateContext.getLocalBufferPoolOwner();
 			if (bufferPoolOwner != null) {
@@ -226,6 +244,7 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 				context.destroy();
 			}
 			this.receiverCache.remove(outputChannelID);
+			this.lookupGroups.remove(outputChannelID);
 		}
 
 		channelIterator = environment.getInputChannelIDs().iterator();
@@ -238,6 +257,7 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 				context.destroy();
 			}
 			this.receiverCache.remove(outputChannelID);
+			this.lookupGroups.remove(outputChannelID);
 		}
 
 		final Iterator<GateID> inputGateIterator = environment.getInputGateIDs().iterator();
@@ -541,10 +561,29 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 				break;
 			}
 
-			ConnectionInfoLookupResponse lookupResponse;
+			final ConnectionInfoLookupResponse lookupResponse;
 			synchronized (this.channelLookupService) {
-				lookupResponse = this.channelLookupService.lookupConnectionInfo(
-					this.localConnectionInfo, jobID, sourceChannelID);
+
+				// Another thread may have resolved the channel together with the other channels of its gate
+				receiverList = this.receiverCache.get(sourceChannelID);
+				if (receiverList != null) {
+					break;
+				}
+
+				// Look up the unresolved channels of the gate together with the requested one
+				final SerializableArrayList<ChannelID> batch = this.lookupGroups.getLookupBatch(sourceChannelID,
+					this.receiverCache);
+				final List<ConnectionInfoLookupResponse> lookupResponses = this.channelLookupService
+					.lookupConnectionInfos(this.localConnectionInfo, jobID, batch);
+
+				for (int i = 1; i < batch.size(); i++) {
+					final ConnectionInfoLookupResponse response = lookupResponses.get(i);
+					if (response.receiverReady()) {
+						this.receiverCache.put(batch.get(i), new TransferEnvelopeReceiverList(response));
+					}
+				}
+
+				lookupResponse = lookupResponses.get(0);
 			}
 
 			if (lookupResponse.isJobAborting()) {
@@ -647,6 +686,10 @@ public final class ByteBufferedChannelManager implements TransferEnvelopeDispatc
 
 		System.out.println("\tUnused global buffers: " + GlobalBufferPool.getInstance().getCurrentNumberOfBuffers());
 
+		if (GlobalBufferPool.getInstance().getMemoryPool() != null) {
+			System.out.println("\t" + GlobalBufferPool.getInstance().getMemoryPool());
+		}
+
 		System.out.println("\tLocal buffer pool status:");
 
 		final Iterator<LocalBufferPoolOwner> it = this.localBufferPoolOwner.values().iterator();
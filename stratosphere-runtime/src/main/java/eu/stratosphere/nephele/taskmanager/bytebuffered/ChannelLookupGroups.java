@@ -0,0 +1,100 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.taskmanager.bytebuffered;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import eu.stratosphere.nephele.io.channels.ChannelID;
+import eu.stratosphere.nephele.util.SerializableArrayList;
+
+/**
+ * Groups the channels of a gate, so that the receivers of all channels of the gate can be looked up with one
+ * call to the job manager. Without grouping, every channel of an all-to-all connection issues its own lookup,
+ * which amounts to one call per pair of tasks at the start of a job.
+ * <p>
+ * This class is thread-safe.
+ */
+final class ChannelLookupGroups {
+
+	/**
+	 * The maximum number of channels that are looked up with a single call.
+	 */
+	static final int MAX_BATCH_SIZE = 1024;
+
+	private final Map<ChannelID, List<ChannelID>> groups = new ConcurrentHashMap<ChannelID, List<ChannelID>>();
+
+	/**
+	 * Adds a group of channels, whose receivers shall be looked up together.
+	 * 
+	 * @param channelIDs
+	 *        the IDs of the channels in the group
+	 */
+	void addGroup(final Collection<ChannelID> channelIDs) {
+
+		final List<ChannelID> group = Collections.unmodifiableList(new ArrayList<ChannelID>(channelIDs));
+		for (final ChannelID channelID : group) {
+			this.groups.put(channelID, group);
+		}
+	}
+
+	/**
+	 * Removes the given channel from its group.
+	 * 
+	 * @param channelID
+	 *        the ID of the channel to remove
+	 */
+	void remove(final ChannelID channelID) {
+		this.groups.remove(channelID);
+	}
+
+	/**
+	 * Returns the channels whose receivers shall be looked up together with the receivers of the given channel.
+	 * The given channel is the first entry of the returned list, followed by the other channels of its group
+	 * which are neither resolved nor removed.
+	 * 
+	 * @param channelID
+	 *        the ID of the channel which shall be looked up
+	 * @param resolved
+	 *        the channels whose receivers are already known
+	 * @return the list of channels to look up
+	 */
+	SerializableArrayList<ChannelID> getLookupBatch(final ChannelID channelID, final Map<ChannelID, ?> resolved) {
+
+		final SerializableArrayList<ChannelID> batch = new SerializableArrayList<ChannelID>();
+		batch.add(channelID);
+
+		final List<ChannelID> group = this.groups.get(channelID);
+		if (group == null) {
+			return batch;
+		}
+
+		for (final ChannelID other : group) {
+
+			if (batch.size() >= MAX_BATCH_SIZE) {
+				break;
+			}
+
+			if (!other.equals(channelID) && !resolved.containsKey(other) && this.groups.containsKey(other)) {
+				batch.add(other);
+			}
+		}
+
+		return batch;
+	}
+}
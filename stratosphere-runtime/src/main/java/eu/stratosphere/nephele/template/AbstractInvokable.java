@@ -13,6 +13,9 @@
 
 package eu.stratosphere.nephele.template;
 
+import java.util.Map;
+
+import eu.stratosphere.api.common.accumulators.Accumulator;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.configuration.IllegalConfigurationException;
 import eu.stratosphere.nephele.execution.Environment;
@@ -176,4 +179,17 @@ public abstract class AbstractInvokable {
 
 		// The default implementation does nothing.
 	}
+
+	/**
+	 * This method is called periodically by the task manager to report the progress of the running task. It is called
+	 * from a thread other than the task's thread and may be overwritten to return copies of the accumulators the task
+	 * has collected so far.
+	 * 
+	 * @return copies of the task's current accumulators or <code>null</code> if the task does not collect any
+	 */
+	public Map<String, Accumulator<?, ?>> getAccumulatorSnapshot() {
+
+		// The default implementation does not collect accumulators.
+		return null;
+	}
 }
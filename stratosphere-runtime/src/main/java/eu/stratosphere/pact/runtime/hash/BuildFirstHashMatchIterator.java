@@ -74,6 +74,9 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 		
 		this.hashJoin = getHashJoin(serializer1, comparator1, serializer2, comparator2, pairComparator,
 			memManager, ioManager, ownerTask, totalMemory);
+		if (ownerTask != null && ownerTask.getEnvironment() != null) {
+			this.hashJoin.setMetrics(ownerTask.getEnvironment().getMetrics());
+		}
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -74,6 +74,9 @@ public final class BuildSecondHashMatchIterator<V1, V2, O> implements JoinTaskIt
 		
 		this.hashJoin = getHashJoin(serializer2, comparator2, serializer1, comparator1, pairComparator,
 			memManager, ioManager, ownerTask, totalMemory);
+		if (ownerTask != null && ownerTask.getEnvironment() != null) {
+			this.hashJoin.setMetrics(ownerTask.getEnvironment().getMetrics());
+		}
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -436,7 +436,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 		
 		this.buildSideComparator.setReference(record);
 		
-		int countInSegment = bucket.getInt(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+		int countInSegment = bucket.getIntUnchecked(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 		int numInSegment = 0;
 		int posInSegment = bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
 		
@@ -447,14 +447,14 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			
 			while (numInSegment < countInSegment) {
 				
-				final int thisCode = bucket.getInt(posInSegment);
+				final int thisCode = bucket.getIntUnchecked(posInSegment);
 				posInSegment += HASH_CODE_LEN;
 					
 				// check if the hash code matches
 				if (thisCode == searchHashCode) {
 					// get the pointer to the pair
 					final int pointerOffset = bucketInSegmentOffset + BUCKET_POINTER_START_OFFSET + (numInSegment * POINTER_LEN);
-					final long pointer = bucket.getLong(pointerOffset);
+					final long pointer = bucket.getLongUnchecked(pointerOffset);
 					numInSegment++;
 					
 					// deserialize the key to check whether it is really equal, or whether we had only a hash collision
@@ -462,7 +462,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 						partition.readRecordAt(pointer, tempHolder);
 						if (this.buildSideComparator.equalToReference(tempHolder)) {
 							long newPointer = partition.appendRecord(record);
-							bucket.putLong(pointerOffset, newPointer);
+							bucket.putLongUnchecked(pointerOffset, newPointer);
 							partition.setCompaction(false);
 							if((newPointer >> this.pageSizeInBits) > this.compactionMemory.getBlockCount()) {
 								this.compactionMemory.allocateSegments((int)(newPointer >> this.pageSizeInBits));
@@ -489,7 +489,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 									" bucketSize: " + this.buckets.length +
 									" Message: " + ex.getMessage());
 						}
-						bucket.putLong(pointerOffset, newPointer);
+						bucket.putLongUnchecked(pointerOffset, newPointer);
 						return;
 					} catch (IndexOutOfBoundsException e) {
 						// system is out of memory so we attempt to reclaim memory with a copy compact run
@@ -511,7 +511,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 									" bucketSize: " + this.buckets.length +
 									" Message: " + ex.getMessage());
 						}
-						bucket.putLong(pointerOffset, newPointer);
+						bucket.putLongUnchecked(pointerOffset, newPointer);
 						return;
 					} catch (IOException e) {
 						throw new RuntimeException("Error deserializing record from the hashtable: " + e.getMessage(), e);
@@ -523,7 +523,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			}
 			
 			// this segment is done. check if there is another chained bucket
-			long newForwardPointer = bucket.getLong(bucketInSegmentOffset + HEADER_FORWARD_OFFSET);
+			long newForwardPointer = bucket.getLongUnchecked(bucketInSegmentOffset + HEADER_FORWARD_OFFSET);
 			if (newForwardPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
 				// nothing found. append and insert
 				long pointer = partition.appendRecord(record);
@@ -537,7 +537,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			final int overflowSegNum = (int) (newForwardPointer >>> 32);
 			bucket = overflowSegments[overflowSegNum];
 			bucketInSegmentOffset = (int) (newForwardPointer & 0xffffffff);
-			countInSegment = bucket.getInt(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+			countInSegment = bucket.getIntUnchecked(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 			posInSegment = bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
 			numInSegment = 0;
 			currentForwardPointer = newForwardPointer;
@@ -549,16 +549,16 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 	throws IOException
 	{
 		// find the position to put the hash code and pointer
-		final int count = bucket.getInt(bucketInSegmentPos + HEADER_COUNT_OFFSET);
+		final int count = bucket.getIntUnchecked(bucketInSegmentPos + HEADER_COUNT_OFFSET);
 		if (count < NUM_ENTRIES_PER_BUCKET) {
 			// we are good in our current bucket, put the values
-			bucket.putInt(bucketInSegmentPos + BUCKET_HEADER_LENGTH + (count * HASH_CODE_LEN), hashCode);	// hash code
-			bucket.putLong(bucketInSegmentPos + BUCKET_POINTER_START_OFFSET + (count * POINTER_LEN), pointer); // pointer
-			bucket.putInt(bucketInSegmentPos + HEADER_COUNT_OFFSET, count + 1); // update count
+			bucket.putIntUnchecked(bucketInSegmentPos + BUCKET_HEADER_LENGTH + (count * HASH_CODE_LEN), hashCode);	// hash code
+			bucket.putLongUnchecked(bucketInSegmentPos + BUCKET_POINTER_START_OFFSET + (count * POINTER_LEN), pointer); // pointer
+			bucket.putIntUnchecked(bucketInSegmentPos + HEADER_COUNT_OFFSET, count + 1); // update count
 		}
 		else {
 			// we need to go to the overflow buckets
-			final long originalForwardPointer = bucket.getLong(bucketInSegmentPos + HEADER_FORWARD_OFFSET);
+			final long originalForwardPointer = bucket.getLongUnchecked(bucketInSegmentPos + HEADER_FORWARD_OFFSET);
 			final long forwardForNewBucket;
 			
 			if (originalForwardPointer != BUCKET_FORWARD_POINTER_NOT_SET) {
@@ -568,14 +568,14 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 				final int segOffset = (int) (originalForwardPointer & 0xffffffff);
 				final MemorySegment seg = p.overflowSegments[overflowSegNum];
 				
-				final int obCount = seg.getInt(segOffset + HEADER_COUNT_OFFSET);
+				final int obCount = seg.getIntUnchecked(segOffset + HEADER_COUNT_OFFSET);
 				
 				// check if there is space in this overflow bucket
 				if (obCount < NUM_ENTRIES_PER_BUCKET) {
 					// space in this bucket and we are done
-					seg.putInt(segOffset + BUCKET_HEADER_LENGTH + (obCount * HASH_CODE_LEN), hashCode);	// hash code
-					seg.putLong(segOffset + BUCKET_POINTER_START_OFFSET + (obCount * POINTER_LEN), pointer); // pointer
-					seg.putInt(segOffset + HEADER_COUNT_OFFSET, obCount + 1); // update count
+					seg.putIntUnchecked(segOffset + BUCKET_HEADER_LENGTH + (obCount * HASH_CODE_LEN), hashCode);	// hash code
+					seg.putLongUnchecked(segOffset + BUCKET_POINTER_START_OFFSET + (obCount * POINTER_LEN), pointer); // pointer
+					seg.putIntUnchecked(segOffset + HEADER_COUNT_OFFSET, obCount + 1); // update count
 					return;
 				}
 				else {
@@ -624,25 +624,25 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			// insert the new overflow bucket in the chain of buckets
 			// 1) set the old forward pointer
 			// 2) let the bucket in the main table point to this one
-			overflowSeg.putLong(overflowBucketOffset + HEADER_FORWARD_OFFSET, forwardForNewBucket);
+			overflowSeg.putLongUnchecked(overflowBucketOffset + HEADER_FORWARD_OFFSET, forwardForNewBucket);
 			final long pointerToNewBucket = (((long) overflowBucketNum) << 32) | ((long) overflowBucketOffset);
-			bucket.putLong(bucketInSegmentPos + HEADER_FORWARD_OFFSET, pointerToNewBucket);
+			bucket.putLongUnchecked(bucketInSegmentPos + HEADER_FORWARD_OFFSET, pointerToNewBucket);
 			
 			// finally, insert the values into the overflow buckets
-			overflowSeg.putInt(overflowBucketOffset + BUCKET_HEADER_LENGTH, hashCode);	// hash code
-			overflowSeg.putLong(overflowBucketOffset + BUCKET_POINTER_START_OFFSET, pointer); // pointer
+			overflowSeg.putIntUnchecked(overflowBucketOffset + BUCKET_HEADER_LENGTH, hashCode);	// hash code
+			overflowSeg.putLongUnchecked(overflowBucketOffset + BUCKET_POINTER_START_OFFSET, pointer); // pointer
 			
 			// set the count to one
-			overflowSeg.putInt(overflowBucketOffset + HEADER_COUNT_OFFSET, 1); 
+			overflowSeg.putIntUnchecked(overflowBucketOffset + HEADER_COUNT_OFFSET, 1); 
 		}
 	}
 	
 	private final void insertBucketEntryFromSearch(InMemoryPartition<T> partition, MemorySegment originalBucket, MemorySegment currentBucket, int originalBucketOffset, int currentBucketOffset, int countInCurrentBucket, long currentForwardPointer, int hashCode, long pointer) {
 		if (countInCurrentBucket < NUM_ENTRIES_PER_BUCKET) {
 			// we are good in our current bucket, put the values
-			currentBucket.putInt(currentBucketOffset + BUCKET_HEADER_LENGTH + (countInCurrentBucket * HASH_CODE_LEN), hashCode);	// hash code
-			currentBucket.putLong(currentBucketOffset + BUCKET_POINTER_START_OFFSET + (countInCurrentBucket * POINTER_LEN), pointer); // pointer
-			currentBucket.putInt(currentBucketOffset + HEADER_COUNT_OFFSET, countInCurrentBucket + 1); // update count
+			currentBucket.putIntUnchecked(currentBucketOffset + BUCKET_HEADER_LENGTH + (countInCurrentBucket * HASH_CODE_LEN), hashCode);	// hash code
+			currentBucket.putLongUnchecked(currentBucketOffset + BUCKET_POINTER_START_OFFSET + (countInCurrentBucket * POINTER_LEN), pointer); // pointer
+			currentBucket.putIntUnchecked(currentBucketOffset + HEADER_COUNT_OFFSET, countInCurrentBucket + 1); // update count
 		}
 		else {
 			// we need a new overflow bucket
@@ -680,16 +680,16 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			// insert the new overflow bucket in the chain of buckets
 			// 1) set the old forward pointer
 			// 2) let the bucket in the main table point to this one
-			overflowSeg.putLong(overflowBucketOffset + HEADER_FORWARD_OFFSET, currentForwardPointer);
+			overflowSeg.putLongUnchecked(overflowBucketOffset + HEADER_FORWARD_OFFSET, currentForwardPointer);
 			final long pointerToNewBucket = (((long) overflowBucketNum) << 32) | ((long) overflowBucketOffset);
-			originalBucket.putLong(originalBucketOffset + HEADER_FORWARD_OFFSET, pointerToNewBucket);
+			originalBucket.putLongUnchecked(originalBucketOffset + HEADER_FORWARD_OFFSET, pointerToNewBucket);
 			
 			// finally, insert the values into the overflow buckets
-			overflowSeg.putInt(overflowBucketOffset + BUCKET_HEADER_LENGTH, hashCode);	// hash code
-			overflowSeg.putLong(overflowBucketOffset + BUCKET_POINTER_START_OFFSET, pointer); // pointer
+			overflowSeg.putIntUnchecked(overflowBucketOffset + BUCKET_HEADER_LENGTH, hashCode);	// hash code
+			overflowSeg.putLongUnchecked(overflowBucketOffset + BUCKET_POINTER_START_OFFSET, pointer); // pointer
 			
 			// set the count to one
-			overflowSeg.putInt(overflowBucketOffset + HEADER_COUNT_OFFSET, 1); 
+			overflowSeg.putIntUnchecked(overflowBucketOffset + HEADER_COUNT_OFFSET, 1); 
 		}
 	}
 	
@@ -736,8 +736,8 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 				
 				// initialize the header fields
 				seg.put(bucketOffset + HEADER_PARTITION_OFFSET, partition);
-				seg.putInt(bucketOffset + HEADER_COUNT_OFFSET, 0);
-				seg.putLong(bucketOffset + HEADER_FORWARD_OFFSET, BUCKET_FORWARD_POINTER_NOT_SET);
+				seg.putIntUnchecked(bucketOffset + HEADER_COUNT_OFFSET, 0);
+				seg.putLongUnchecked(bucketOffset + HEADER_FORWARD_OFFSET, BUCKET_FORWARD_POINTER_NOT_SET);
 			}
 			
 			table[i] = seg;
@@ -875,31 +875,31 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 				if((int)segment.get(bucketOffset + HEADER_PARTITION_OFFSET) != partitionNumber) {
 					throw new IOException("Accessed wrong bucket! ");
 				}
-				int count = segment.getInt(bucketOffset + HEADER_COUNT_OFFSET);
+				int count = segment.getIntUnchecked(bucketOffset + HEADER_COUNT_OFFSET);
 				for (int j = 0; j < NUM_ENTRIES_PER_BUCKET && j < count; j++) {
 					pointerOffset = bucketOffset + BUCKET_POINTER_START_OFFSET + (j * POINTER_LEN);
-					pointer = segment.getLong(pointerOffset);
+					pointer = segment.getLongUnchecked(pointerOffset);
 					partition.readRecordAt(pointer, tempHolder);
 					pointer = this.compactionMemory.appendRecord(tempHolder);
-					segment.putLong(pointerOffset, pointer);
+					segment.putLongUnchecked(pointerOffset, pointer);
 				}
-				long overflowPointer = segment.getLong(bucketOffset + HEADER_FORWARD_OFFSET);
+				long overflowPointer = segment.getLongUnchecked(bucketOffset + HEADER_FORWARD_OFFSET);
 				if(overflowPointer != BUCKET_FORWARD_POINTER_NOT_SET) {
 					// scan overflow buckets
 					int current = NUM_ENTRIES_PER_BUCKET;
 					bucketOffset = (int) (overflowPointer & 0xffffffff);
 					pointerOffset = ((int) (overflowPointer & 0xffffffff)) + BUCKET_POINTER_START_OFFSET;
 					int overflowSegNum = (int) (overflowPointer >>> 32);
-					count += partition.overflowSegments[overflowSegNum].getInt(bucketOffset + HEADER_COUNT_OFFSET);
+					count += partition.overflowSegments[overflowSegNum].getIntUnchecked(bucketOffset + HEADER_COUNT_OFFSET);
 					while(current < count) {
-						pointer = partition.overflowSegments[overflowSegNum].getLong(pointerOffset);
+						pointer = partition.overflowSegments[overflowSegNum].getLongUnchecked(pointerOffset);
 						partition.readRecordAt(pointer, tempHolder);
 						pointer = this.compactionMemory.appendRecord(tempHolder);
-						partition.overflowSegments[overflowSegNum].putLong(pointerOffset, pointer);
+						partition.overflowSegments[overflowSegNum].putLongUnchecked(pointerOffset, pointer);
 						current++;
 						if(current % NUM_ENTRIES_PER_BUCKET == 0) {
-							count += partition.overflowSegments[overflowSegNum].getInt(bucketOffset + HEADER_COUNT_OFFSET);
-							overflowPointer = partition.overflowSegments[overflowSegNum].getLong(bucketOffset + HEADER_FORWARD_OFFSET);
+							count += partition.overflowSegments[overflowSegNum].getIntUnchecked(bucketOffset + HEADER_COUNT_OFFSET);
+							overflowPointer = partition.overflowSegments[overflowSegNum].getLongUnchecked(bucketOffset + HEADER_FORWARD_OFFSET);
 							if(overflowPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
 								break;
 							}
@@ -1026,7 +1026,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			final InMemoryPartition<T> partition = table.partitions.get(partitionNumber);
 			final MemorySegment[] overflowSegments = partition.overflowSegments;
 			
-			int countInSegment = bucket.getInt(currentBucketOffset + HEADER_COUNT_OFFSET);
+			int countInSegment = bucket.getIntUnchecked(currentBucketOffset + HEADER_COUNT_OFFSET);
 			int numInSegment = 0;
 			int posInSegment = currentBucketOffset + BUCKET_POINTER_START_OFFSET;
 			int bucketOffset = currentBucketOffset;
@@ -1034,7 +1034,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			// loop over all segments that are involved in the bucket (original bucket plus overflow buckets)
 			while (true) {
 				while (numInSegment < countInSegment) {
-					long pointer = bucket.getLong(posInSegment);
+					long pointer = bucket.getLongUnchecked(posInSegment);
 					posInSegment += POINTER_LEN;
 					numInSegment++;
 					T target = table.buildSideSerializer.createInstance();
@@ -1046,14 +1046,14 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 					}
 				}
 				// this segment is done. check if there is another chained bucket
-				final long forwardPointer = bucket.getLong(bucketOffset + HEADER_FORWARD_OFFSET);
+				final long forwardPointer = bucket.getLongUnchecked(bucketOffset + HEADER_FORWARD_OFFSET);
 				if (forwardPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
 					break;
 				}
 				final int overflowSegNum = (int) (forwardPointer >>> 32);
 				bucket = overflowSegments[overflowSegNum];
 				bucketOffset = (int)(forwardPointer & 0xffffffff);
-				countInSegment = bucket.getInt(bucketOffset + HEADER_COUNT_OFFSET);
+				countInSegment = bucket.getIntUnchecked(bucketOffset + HEADER_COUNT_OFFSET);
 				posInSegment = bucketOffset + BUCKET_POINTER_START_OFFSET;
 				numInSegment = 0;
 			}
@@ -1099,7 +1099,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 			
 			this.pairComparator.setReference(probeSideRecord);
 			
-			int countInSegment = bucket.getInt(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+			int countInSegment = bucket.getIntUnchecked(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 			int numInSegment = 0;
 			int posInSegment = bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
 
@@ -1108,14 +1108,14 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 				
 				while (numInSegment < countInSegment) {
 					
-					final int thisCode = bucket.getInt(posInSegment);
+					final int thisCode = bucket.getIntUnchecked(posInSegment);
 					posInSegment += HASH_CODE_LEN;
 						
 					// check if the hash code matches
 					if (thisCode == searchHashCode) {
 						// get the pointer to the pair
 						final int pointerOffset = bucketInSegmentOffset + BUCKET_POINTER_START_OFFSET + (numInSegment * POINTER_LEN);
-						final long pointer = bucket.getLong(pointerOffset);
+						final long pointer = bucket.getLongUnchecked(pointerOffset);
 						numInSegment++;
 						
 						// deserialize the key to check whether it is really equal, or whether we had only a hash collision
@@ -1139,7 +1139,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 				}
 				
 				// this segment is done. check if there is another chained bucket
-				final long forwardPointer = bucket.getLong(bucketInSegmentOffset + HEADER_FORWARD_OFFSET);
+				final long forwardPointer = bucket.getLongUnchecked(bucketInSegmentOffset + HEADER_FORWARD_OFFSET);
 				if (forwardPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
 					return false;
 				}
@@ -1147,7 +1147,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 				final int overflowSegNum = (int) (forwardPointer >>> 32);
 				bucket = overflowSegments[overflowSegNum];
 				bucketInSegmentOffset = (int) (forwardPointer & 0xffffffff);
-				countInSegment = bucket.getInt(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+				countInSegment = bucket.getIntUnchecked(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 				posInSegment = bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
 				numInSegment = 0;
 			}
@@ -1155,7 +1155,7 @@ public class CompactingHashTable<T> extends AbstractMutableHashTable<T>{
 		
 		public void updateMatch(T record) throws IOException {
 			long newPointer = this.partition.appendRecord(record);
-			this.bucket.putLong(this.pointerOffsetInBucket, newPointer);
+			this.bucket.putLongUnchecked(this.pointerOffsetInBucket, newPointer);
 			this.partition.setCompaction(false); //FIXME Do we really create garbage here?
 		}
 	}
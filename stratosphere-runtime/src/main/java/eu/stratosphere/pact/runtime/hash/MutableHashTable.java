@@ -29,6 +29,9 @@ import eu.stratosphere.api.common.typeutils.TypeSerializer;
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.core.memory.MemorySegmentSource;
 import eu.stratosphere.core.memory.SeekableDataOutputView;
+import eu.stratosphere.nephele.metrics.Counter;
+import eu.stratosphere.nephele.metrics.Histogram;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelReader;
 import eu.stratosphere.nephele.services.iomanager.BulkBlockChannelReader;
 import eu.stratosphere.nephele.services.iomanager.Channel;
@@ -329,6 +332,25 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	 */
 	protected int currentRecursionDepth;
 	
+	/**
+	 * The number of partitions spilled to disk, over all recursion levels. The metrics are null
+	 * unless the hash table reports to a registry.
+	 */
+	private Counter spilledPartitions;
+	
+	/**
+	 * The number of build-side and probe-side records that went to spilled partitions and had to be
+	 * written to disk and read back.
+	 */
+	private Counter spilledBuildRecords;
+	
+	private Counter spilledProbeRecords;
+	
+	/**
+	 * The recursion level of each table built from a spilled partition.
+	 */
+	private Histogram recursionDepth;
+	
 	/**
 	 * Flag indicating that the closing logic has been invoked.
 	 */
@@ -407,6 +429,20 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	}
 	
 	
+	/**
+	 * Makes the hash table report its metrics to the given registry, usually the registry of the task that
+	 * owns the hash table. The metrics are updated per partition rather than per record, so they do not
+	 * slow down building and probing the table.
+	 * 
+	 * @param metrics The registry to report to.
+	 */
+	public void setMetrics(MetricRegistry metrics) {
+		this.spilledPartitions = metrics.counter("hash.spilled-partitions");
+		this.spilledBuildRecords = metrics.counter("hash.spilled-build-records");
+		this.spilledProbeRecords = metrics.counter("hash.spilled-probe-records");
+		this.recursionDepth = metrics.histogram("hash.recursion-depth");
+	}
+	
 	// ------------------------------------------------------------------------
 	//                              Life-Cycle
 	// ------------------------------------------------------------------------
@@ -480,6 +516,10 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		int buffersAvailable = 0;
 		for (int i = 0; i < this.partitionsBeingBuilt.size(); i++) {
 			final HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(i);
+			if (!p.isInMemory() && this.spilledBuildRecords != null) {
+				this.spilledBuildRecords.add(p.getBuildSideRecordCount());
+				this.spilledProbeRecords.add(p.getProbeSideRecordCount());
+			}
 			p.setFurtherPatitioning(this.furtherPartitioning);
 			buffersAvailable += p.finalizeProbePhase(this.availableMemory, this.partitionsPending);
 		}
@@ -720,6 +760,9 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	protected void buildTableFromSpilledPartition(final HashPartition<BT, PT> p) throws IOException {
 		
 		final int nextRecursionLevel = p.getRecursionLevel() + 1;
+		if (this.recursionDepth != null) {
+			this.recursionDepth.record(nextRecursionLevel);
+		}
 		if (nextRecursionLevel > MAX_RECURSION_DEPTH) {
 			throw new RuntimeException("Hash join exceeded maximum number of recursions, without reducing "
 				+ "partitions enough to be memory resident. Probably cause: Too many duplicate keys.");
@@ -871,17 +914,17 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	throws IOException
 	{
 		// find the position to put the hash code and pointer
-		final int count = bucket.getShort(bucketInSegmentPos + HEADER_COUNT_OFFSET);
+		final int count = bucket.getShortUnchecked(bucketInSegmentPos + HEADER_COUNT_OFFSET);
 		if (count < NUM_ENTRIES_PER_BUCKET)
 		{
 			// we are good in our current bucket, put the values
-			bucket.putInt(bucketInSegmentPos + BUCKET_HEADER_LENGTH + (count * HASH_CODE_LEN), hashCode);	// hash code
-			bucket.putLong(bucketInSegmentPos + BUCKET_POINTER_START_OFFSET + (count * POINTER_LEN), pointer); // pointer
-			bucket.putShort(bucketInSegmentPos + HEADER_COUNT_OFFSET, (short) (count + 1)); // update count
+			bucket.putIntUnchecked(bucketInSegmentPos + BUCKET_HEADER_LENGTH + (count * HASH_CODE_LEN), hashCode);	// hash code
+			bucket.putLongUnchecked(bucketInSegmentPos + BUCKET_POINTER_START_OFFSET + (count * POINTER_LEN), pointer); // pointer
+			bucket.putShortUnchecked(bucketInSegmentPos + HEADER_COUNT_OFFSET, (short) (count + 1)); // update count
 		}
 		else {
 			// we need to go to the overflow buckets
-			final long originalForwardPointer = bucket.getLong(bucketInSegmentPos + HEADER_FORWARD_OFFSET);
+			final long originalForwardPointer = bucket.getLongUnchecked(bucketInSegmentPos + HEADER_FORWARD_OFFSET);
 			final long forwardForNewBucket;
 			
 			if (originalForwardPointer != BUCKET_FORWARD_POINTER_NOT_SET) {
@@ -891,14 +934,14 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 				final int segOffset = (int) (originalForwardPointer & 0xffffffff);
 				final MemorySegment seg = p.overflowSegments[overflowSegNum];
 				
-				final short obCount = seg.getShort(segOffset + HEADER_COUNT_OFFSET);
+				final short obCount = seg.getShortUnchecked(segOffset + HEADER_COUNT_OFFSET);
 				
 				// check if there is space in this overflow bucket
 				if (obCount < NUM_ENTRIES_PER_BUCKET) {
 					// space in this bucket and we are done
-					seg.putInt(segOffset + BUCKET_HEADER_LENGTH + (obCount * HASH_CODE_LEN), hashCode);	// hash code
-					seg.putLong(segOffset + BUCKET_POINTER_START_OFFSET + (obCount * POINTER_LEN), pointer); // pointer
-					seg.putShort(segOffset + HEADER_COUNT_OFFSET, (short) (obCount + 1)); // update count
+					seg.putIntUnchecked(segOffset + BUCKET_HEADER_LENGTH + (obCount * HASH_CODE_LEN), hashCode);	// hash code
+					seg.putLongUnchecked(segOffset + BUCKET_POINTER_START_OFFSET + (obCount * POINTER_LEN), pointer); // pointer
+					seg.putShortUnchecked(segOffset + HEADER_COUNT_OFFSET, (short) (obCount + 1)); // update count
 					return;
 				}
 				else {
@@ -960,16 +1003,16 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			// insert the new overflow bucket in the chain of buckets
 			// 1) set the old forward pointer
 			// 2) let the bucket in the main table point to this one
-			overflowSeg.putLong(overflowBucketOffset + HEADER_FORWARD_OFFSET, forwardForNewBucket);
+			overflowSeg.putLongUnchecked(overflowBucketOffset + HEADER_FORWARD_OFFSET, forwardForNewBucket);
 			final long pointerToNewBucket = (((long) overflowBucketNum) << 32) | ((long) overflowBucketOffset);
-			bucket.putLong(bucketInSegmentPos + HEADER_FORWARD_OFFSET, pointerToNewBucket);
+			bucket.putLongUnchecked(bucketInSegmentPos + HEADER_FORWARD_OFFSET, pointerToNewBucket);
 			
 			// finally, insert the values into the overflow buckets
-			overflowSeg.putInt(overflowBucketOffset + BUCKET_HEADER_LENGTH, hashCode);	// hash code
-			overflowSeg.putLong(overflowBucketOffset + BUCKET_POINTER_START_OFFSET, pointer); // pointer
+			overflowSeg.putIntUnchecked(overflowBucketOffset + BUCKET_HEADER_LENGTH, hashCode);	// hash code
+			overflowSeg.putLongUnchecked(overflowBucketOffset + BUCKET_POINTER_START_OFFSET, pointer); // pointer
 			
 			// set the count to one
-			overflowSeg.putShort(overflowBucketOffset + HEADER_COUNT_OFFSET, (short) 1); 
+			overflowSeg.putShortUnchecked(overflowBucketOffset + HEADER_COUNT_OFFSET, (short) 1); 
 		}
 	}
 	
@@ -1046,8 +1089,8 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 				// initialize the header fields
 				seg.put(bucketOffset + HEADER_PARTITION_OFFSET, partition);
 				seg.put(bucketOffset + HEADER_STATUS_OFFSET, BUCKET_STATUS_IN_MEMORY);
-				seg.putShort(bucketOffset + HEADER_COUNT_OFFSET, (short) 0);
-				seg.putLong(bucketOffset + HEADER_FORWARD_OFFSET, BUCKET_FORWARD_POINTER_NOT_SET);
+				seg.putShortUnchecked(bucketOffset + HEADER_COUNT_OFFSET, (short) 0);
+				seg.putLongUnchecked(bucketOffset + HEADER_FORWARD_OFFSET, BUCKET_FORWARD_POINTER_NOT_SET);
 			}
 			
 			table[i] = seg;
@@ -1096,6 +1139,9 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		final HashPartition<BT, PT> p = partitions.get(largestPartNum);
 		
 		// spill the partition
+		if (this.spilledPartitions != null) {
+			this.spilledPartitions.increment();
+		}
 		int numBuffersFreed = p.spillPartition(this.availableMemory, this.ioManager, 
 										this.currentEnumerator.next(), this.writeBehindBuffers);
 		this.writeBehindBuffersAvailable += numBuffersFreed;
@@ -1344,7 +1390,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			this.originalBucketInSegmentOffset = bucketInSegmentOffset;
 			
 			this.posInSegment = this.bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
-			this.countInSegment = bucket.getShort(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+			this.countInSegment = bucket.getShortUnchecked(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 			this.numInSegment = 0;
 		}
 		
@@ -1355,13 +1401,13 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 				
 				while (this.numInSegment < this.countInSegment) {
 					
-					final int thisCode = this.bucket.getInt(this.posInSegment);
+					final int thisCode = this.bucket.getIntUnchecked(this.posInSegment);
 					this.posInSegment += HASH_CODE_LEN;
 						
 					// check if the hash code matches
 					if (thisCode == this.searchHashCode) {
 						// get the pointer to the pair
-						final long pointer = this.bucket.getLong(this.bucketInSegmentOffset + 
+						final long pointer = this.bucket.getLongUnchecked(this.bucketInSegmentOffset + 
 													BUCKET_POINTER_START_OFFSET + (this.numInSegment * POINTER_LEN));
 						this.numInSegment++;
 						
@@ -1385,7 +1431,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 				}
 				
 				// this segment is done. check if there is another chained bucket
-				final long forwardPointer = this.bucket.getLong(this.bucketInSegmentOffset + HEADER_FORWARD_OFFSET);
+				final long forwardPointer = this.bucket.getLongUnchecked(this.bucketInSegmentOffset + HEADER_FORWARD_OFFSET);
 				if (forwardPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
 					return null;
 				}
@@ -1393,7 +1439,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 				final int overflowSegNum = (int) (forwardPointer >>> 32);
 				this.bucket = this.overflowSegments[overflowSegNum];
 				this.bucketInSegmentOffset = (int) (forwardPointer & 0xffffffff);
-				this.countInSegment = this.bucket.getShort(this.bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+				this.countInSegment = this.bucket.getShortUnchecked(this.bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 				this.posInSegment = this.bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
 				this.numInSegment = 0;
 			}
@@ -1410,7 +1456,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			this.bucketInSegmentOffset = this.originalBucketInSegmentOffset;
 			
 			this.posInSegment = this.bucketInSegmentOffset + BUCKET_HEADER_LENGTH;
-			this.countInSegment = bucket.getShort(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
+			this.countInSegment = bucket.getShortUnchecked(bucketInSegmentOffset + HEADER_COUNT_OFFSET);
 			this.numInSegment = 0;
 		}
 
@@ -202,6 +202,21 @@ public final class RecordComparator extends TypeComparator<Record> {
 		}
 	}
 
+	/**
+	 * Computes the hash code that {@link #hash(Record)} returns for records whose key fields have the given
+	 * hash codes. Allows to identify keys by the hash codes of their values, without instantiating records.
+	 * 
+	 * @param fieldHashCodes The hash codes of the key fields' values, in the order of the key fields.
+	 * @return The hash code of the key.
+	 */
+	public static int hashKeyFields(int... fieldHashCodes) {
+		int code = 0;
+		for (int i = 0; i < fieldHashCodes.length; i++) {
+			code ^= fieldHashCodes[i];
+			code *= HASH_SALT[i & 0x1F];
+		}
+		return code;
+	}
 
 	@Override
 	public void setReference(Record toCompare) {
@@ -13,6 +13,8 @@
 
 package eu.stratosphere.pact.runtime.shipping;
 
+import java.util.Arrays;
+
 import eu.stratosphere.api.common.distributions.DataDistribution;
 import eu.stratosphere.nephele.io.ChannelSelector;
 import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
@@ -34,6 +36,10 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 	
 	private int[] channels;							// the reused array defining target channels
 	
+	private int[] allChannels;						// the reused array containing all channels, for skew replication
+	
+	private final int[] heavyHitters;				// the sorted hash codes of the heavy hitter keys
+	
 	private Key[][] partitionBoundaries;		// the partition boundaries for range partitioning
 	
 	private final DataDistribution distribution; // the data distribution to create the partition boundaries for range partitioning
@@ -73,6 +79,24 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 	 * @param distr The distribution pattern used in the case of a range partitioning.
 	 */
 	public RecordOutputEmitter(ShipStrategyType strategy, RecordComparator comparator, DataDistribution distr) {
+		this(strategy, comparator, distr, null);
+	}
+	
+	/**
+	 * Creates a new channel selector that uses the given strategy (broadcasting, partitioning, ...)
+	 * and uses the supplied comparator to hash / compare records for partitioning them deterministically.
+	 * For the skew resolving hash partitionings, the records whose key hashes to one of the given heavy hitter
+	 * hash codes are either distributed round robin or replicated to all channels.
+	 * 
+	 * @param strategy The distribution strategy to be used.
+	 * @param comparator The comparator used to hash / compare the records.
+	 * @param distr The distribution pattern used in the case of a range partitioning.
+	 * @param heavyHitters The hash codes of the heavy hitter keys, as computed by the comparator, in the case of
+	 *                     a skew resolving hash partitioning.
+	 */
+	public RecordOutputEmitter(ShipStrategyType strategy, RecordComparator comparator, DataDistribution distr,
+			int[] heavyHitters)
+	{
 		if (strategy == null) { 
 			throw new NullPointerException();
 		}
@@ -84,6 +108,8 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 		switch (strategy) {
 		case FORWARD:
 		case PARTITION_HASH:
+		case PARTITION_HASH_SKEW_SPLIT:
+		case PARTITION_HASH_SKEW_REPLICATE:
 		case PARTITION_LOCAL_HASH:
 		case PARTITION_RANGE:
 		case PARTITION_RANDOM:
@@ -98,6 +124,16 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 		if ((strategy == ShipStrategyType.PARTITION_RANGE) && distr == null) {
 			throw new NullPointerException("Data distribution must not be null when the ship strategy is range partitioning.");
 		}
+		
+		if (strategy == ShipStrategyType.PARTITION_HASH_SKEW_SPLIT || strategy == ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE) {
+			if (heavyHitters == null) {
+				throw new NullPointerException("Heavy hitters must not be null when the ship strategy resolves skew.");
+			}
+			this.heavyHitters = heavyHitters.clone();
+			Arrays.sort(this.heavyHitters);
+		} else {
+			this.heavyHitters = null;
+		}
 	}
 
 	// ------------------------------------------------------------------------
@@ -113,6 +149,9 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 		case PARTITION_HASH:
 		case PARTITION_LOCAL_HASH:
 			return hashPartitionDefault(record, numberOfChannels);
+		case PARTITION_HASH_SKEW_SPLIT:
+		case PARTITION_HASH_SKEW_REPLICATE:
+			return skewResolvingHashPartition(record, numberOfChannels);
 		case PARTITION_RANGE:
 			return rangePartition(record, numberOfChannels);
 		case BROADCAST:
@@ -143,7 +182,10 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 	}
 
 	private final int[] hashPartitionDefault(final Record record, int numberOfChannels) {
-		int hash = this.comparator.hash(record);
+		return hashPartition(this.comparator.hash(record), numberOfChannels);
+	}
+	
+	private final int[] hashPartition(int hash, int numberOfChannels) {
 		for (int i = 0; i < DEFAULT_SALT.length; i++) {
 			hash ^= ((hash << 5) + DEFAULT_SALT[i] + (hash >> 2));
 		}
@@ -151,6 +193,25 @@ public class RecordOutputEmitter implements ChannelSelector<Record> {
 		return this.channels;
 	}
 	
+	private final int[] skewResolvingHashPartition(final Record record, int numberOfChannels) {
+		final int hash = this.comparator.hash(record);
+		if (Arrays.binarySearch(this.heavyHitters, hash) < 0) {
+			return hashPartition(hash, numberOfChannels);
+		}
+		
+		// heavy hitters are either split across all channels or sent to all of them
+		if (this.strategy == ShipStrategyType.PARTITION_HASH_SKEW_SPLIT) {
+			return robin(numberOfChannels);
+		}
+		if (this.allChannels == null || this.allChannels.length != numberOfChannels) {
+			this.allChannels = new int[numberOfChannels];
+			for (int i = 0; i < numberOfChannels; i++) {
+				this.allChannels[i] = i;
+			}
+		}
+		return this.allChannels;
+	}
+	
 	private final int[] rangePartition(final Record record, int numberOfChannels) {
 		if (this.partitionBoundaries == null) {
 			this.partitionBoundaries = new Key[numberOfChannels - 1][];
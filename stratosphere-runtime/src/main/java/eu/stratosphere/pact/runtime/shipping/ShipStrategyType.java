@@ -50,6 +50,18 @@ public enum ShipStrategyType {
 	 */
 	PARTITION_RANGE(true, true, true),
 	
+	/**
+	 * Repartitioning the data through a hash function, except for records with heavy hitter keys, which are
+	 * distributed round robin. Used for the side of a join whose heavy hitters are split across all instances.
+	 */
+	PARTITION_HASH_SKEW_SPLIT(true, true, true),
+	
+	/**
+	 * Repartitioning the data through a hash function, except for records with heavy hitter keys, which are
+	 * replicated to all instances. Used for the side of a join that is matched against split heavy hitters.
+	 */
+	PARTITION_HASH_SKEW_REPLICATE(true, true, true),
+	
 	/**
 	 * Replicating the data set to all instances.
 	 */
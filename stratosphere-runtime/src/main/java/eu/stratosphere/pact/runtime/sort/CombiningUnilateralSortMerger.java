@@ -357,6 +357,7 @@ public class CombiningUnilateralSortMerger<E> extends UnilateralSortMerger<E> {
 					LOG.debug("Combined and spilled buffer " + element.id + ".");
 				}
 
+				reportSpilledRun(output.getBytesWritten());
 				output.close();
 				unregisterOpenChannelToBeRemovedAtShudown(writer);
 				
@@ -480,6 +481,7 @@ public class CombiningUnilateralSortMerger<E> extends UnilateralSortMerger<E> {
 			catch (Exception e) {
 				throw new IOException("An error occurred in the combiner user code.");
 			}
+			reportMergedRun(output.getBytesWritten());
 			output.close(); //IS VERY IMPORTANT!!!!
 			
 			final int numBlocksWritten = output.getBlockCount();
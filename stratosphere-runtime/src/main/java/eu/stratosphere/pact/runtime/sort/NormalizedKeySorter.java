@@ -268,7 +268,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 		}
 		
 		// add the pointer and the normalized key
-		this.currentSortIndexSegment.putLong(this.currentSortIndexOffset, this.currentDataBufferOffset);
+		this.currentSortIndexSegment.putLongUnchecked(this.currentSortIndexOffset, this.currentDataBufferOffset);
 		if(this.numKeyBytes != 0) {
 			this.comparator.putNormalizedKey(record, this.currentSortIndexSegment, this.currentSortIndexOffset + OFFSET_LEN, this.numKeyBytes);
 		}
@@ -297,7 +297,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 		final int bufferNum = logicalPosition / this.indexEntriesPerSegment;
 		final int segmentOffset = logicalPosition % this.indexEntriesPerSegment;
 		
-		return this.sortIndex.get(bufferNum).getLong(segmentOffset * this.indexEntrySize);
+		return this.sortIndex.get(bufferNum).getLongUnchecked(segmentOffset * this.indexEntrySize);
 	}
 	
 	private final T getRecordFromBuffer(T reuse, long pointer) throws IOException {
@@ -348,8 +348,8 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 			return this.useNormKeyUninverted ? val : -val;
 		}
 		
-		final long pointerI = segI.getLong(segmentOffsetI);
-		final long pointerJ = segJ.getLong(segmentOffsetJ);
+		final long pointerI = segI.getLongUnchecked(segmentOffsetI);
+		final long pointerJ = segJ.getLongUnchecked(segmentOffsetJ);
 		
 		return compareRecords(pointerI, pointerJ);
 	}
@@ -402,7 +402,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 						this.currentIndexSegment = sortIndex.get(++this.currentSegment);
 					}
 					
-					long pointer = this.currentIndexSegment.getLong(this.currentOffset);
+					long pointer = this.currentIndexSegment.getLongUnchecked(this.currentOffset);
 					this.currentOffset += indexEntrySize;
 					
 					try {
@@ -441,7 +441,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 			if (recordsLeft >= this.indexEntriesPerSegment) {
 				// full segment
 				for (;offset <= this.lastIndexEntryOffset; offset += this.indexEntrySize) {
-					final long pointer = currentIndexSegment.getLong(offset);
+					final long pointer = currentIndexSegment.getLongUnchecked(offset);
 					this.recordBuffer.setReadPosition(pointer);
 					this.serializer.copy(this.recordBuffer, output);
 					
@@ -451,7 +451,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 				// partially filled segment
 				for (; recordsLeft > 0; recordsLeft--, offset += this.indexEntrySize)
 				{
-					final long pointer = currentIndexSegment.getLong(offset);
+					final long pointer = currentIndexSegment.getLongUnchecked(offset);
 					this.recordBuffer.setReadPosition(pointer);
 					this.serializer.copy(this.recordBuffer, output);
 				}
@@ -479,7 +479,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 			if (num >= this.indexEntriesPerSegment && offset == 0) {
 				// full segment
 				for (;offset <= this.lastIndexEntryOffset; offset += this.indexEntrySize) {
-					final long pointer = currentIndexSegment.getLong(offset);
+					final long pointer = currentIndexSegment.getLongUnchecked(offset);
 					this.recordBuffer.setReadPosition(pointer);
 					this.serializer.copy(this.recordBuffer, output);
 				}
@@ -488,7 +488,7 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 				// partially filled segment
 				for (; num > 0 && offset <= this.lastIndexEntryOffset; num--, offset += this.indexEntrySize)
 				{
-					final long pointer = currentIndexSegment.getLong(offset);
+					final long pointer = currentIndexSegment.getLongUnchecked(offset);
 					this.recordBuffer.setReadPosition(pointer);
 					this.serializer.copy(this.recordBuffer, output);
 				}
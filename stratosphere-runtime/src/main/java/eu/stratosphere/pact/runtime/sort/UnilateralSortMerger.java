@@ -32,6 +32,9 @@ import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
 import eu.stratosphere.api.common.typeutils.TypeSerializerFactory;
 import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.metrics.Counter;
+import eu.stratosphere.nephele.metrics.Histogram;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelAccess;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelReader;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelWriter;
@@ -753,6 +756,11 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		 */
 		private final AbstractInvokable parentTask;
 
+		/**
+		 * The registry to report the metrics of the sort-merger to.
+		 */
+		protected final MetricRegistry metrics;
+
 		/**
 		 * The flag marking this thread as alive.
 		 */
@@ -779,6 +787,8 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 
 			this.queues = queues;
 			this.parentTask = parentTask;
+			this.metrics = parentTask != null && parentTask.getEnvironment() != null ?
+				parentTask.getEnvironment().getMetrics() : new MetricRegistry();
 			this.alive = true;
 		}
 
@@ -828,6 +838,17 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			this.interrupt();
 		}
 
+		/**
+		 * Adds the given number of bytes to the bytes spilled to disk by the parent task.
+		 * 
+		 * @param bytes The number of bytes spilled.
+		 */
+		protected final void reportSpilledBytes(long bytes) {
+			if (this.parentTask != null && this.parentTask.getEnvironment() != null) {
+				this.parentTask.getEnvironment().addSpilledBytes(bytes);
+			}
+		}
+
 		/**
 		 * Internally handles an exception and makes sure that this method returns without a problem.
 		 * 
@@ -1079,6 +1100,8 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		
 		private final IndexedSorter sorter;
 
+		private final Histogram sortTime;
+
 		/**
 		 * Creates a new sorting thread.
 		 * 
@@ -1092,6 +1115,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 
 			// members
 			this.sorter = new QuickSort();
+			this.sortTime = this.metrics.histogram("sort.sort-time-micros");
 		}
 
 		/**
@@ -1126,7 +1150,9 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 						LOG.debug("Sorting buffer " + element.id + ".");
 					}
 					
+					final long start = System.nanoTime();
 					this.sorter.sort(element.buffer);
+					this.sortTime.record((System.nanoTime() - start) / 1000);
 					
 					if (LOG.isDebugEnabled()) {
 						LOG.debug("Sorted buffer " + element.id + ".");
@@ -1165,6 +1191,14 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		
 		protected final int numWriteBuffersToCluster;
 		
+		private final Counter spilledRuns;
+		
+		private final Counter spilledRunBytes;
+		
+		private final Counter mergePasses;
+		
+		private final Counter mergedBytes;
+		
 		/**
 		 * Creates the spilling thread.
 		 * 
@@ -1193,6 +1227,10 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			this.writeMemory = writeMemory;
 			this.maxNumFileHandles = maxNumFileHandles;
 			this.numWriteBuffersToCluster = writeMemory.size() >= 4 ? writeMemory.size() / 2 : 1;
+			this.spilledRuns = this.metrics.counter("sort.spilled-runs");
+			this.spilledRunBytes = this.metrics.counter("sort.spilled-bytes");
+			this.mergePasses = this.metrics.counter("sort.merge-passes");
+			this.mergedBytes = this.metrics.counter("sort.merged-bytes");
 		}
 
 		/**
@@ -1313,6 +1351,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 					LOG.debug("Spilled buffer " + element.id + ".");
 				}
 
+				reportSpilledRun(output.getBytesWritten());
 				output.close();
 				unregisterOpenChannelToBeRemovedAtShudown(writer);
 				
@@ -1368,6 +1407,27 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			}
 		}
 		
+		/**
+		 * Reports a sorted run which has been spilled to disk.
+		 * 
+		 * @param bytes The size of the run in bytes.
+		 */
+		protected final void reportSpilledRun(long bytes) {
+			reportSpilledBytes(bytes);
+			this.spilledRuns.increment();
+			this.spilledRunBytes.add(bytes);
+		}
+		
+		/**
+		 * Reports a run which has been merged from spilled runs and written back to disk.
+		 * 
+		 * @param bytes The size of the merged run in bytes.
+		 */
+		protected final void reportMergedRun(long bytes) {
+			reportSpilledBytes(bytes);
+			this.mergedBytes.add(bytes);
+		}
+		
 		/**
 		 * Releases the memory that is registered for in-memory sorted run generation.
 		 */
@@ -1461,6 +1521,8 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 					final List<MemorySegment> allReadBuffers, final List<MemorySegment> writeBuffers)
 		throws IOException
 		{
+			this.mergePasses.increment();
+			
 			final double numMerges = Math.ceil(channelIDs.size() / ((double) this.maxNumFileHandles));
 			final int channelsToMergePerStep = (int) Math.ceil(channelIDs.size() / numMerges);
 			
@@ -1526,6 +1588,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			while ((rec = mergeIterator.next(rec)) != null) {
 				serializer.serialize(rec, output);
 			}
+			reportMergedRun(output.getBytesWritten());
 			output.close();
 			final int numBlocksWritten = output.getBlockCount();
 			
@@ -20,6 +20,7 @@ import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypePairComparatorFactory;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
 import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.template.AbstractInvokable;
 import eu.stratosphere.pact.runtime.hash.MutableHashTable;
 import eu.stratosphere.pact.runtime.task.util.TaskConfig;
 import eu.stratosphere.pact.runtime.util.EmptyMutableObjectIterator;
@@ -75,17 +76,26 @@ public abstract class AbstractCachedBuildSideMatchDriver<IT1, IT2, OT> extends M
 			MutableHashTable<IT1, IT2> hashJoin = new MutableHashTable<IT1, IT2>(serializer1, serializer2, comparator1, comparator2,
 					pairComparatorFactory.createComparator21(comparator1, comparator2), memSegments, this.taskContext.getIOManager());
 			this.hashJoin = hashJoin;
+			reportMetrics(hashJoin);
 			hashJoin.open(input1, EmptyMutableObjectIterator.<IT2>get());
 		} else if (buildSideIndex == 1 && probeSideIndex == 0) {
 			MutableHashTable<IT2, IT1> hashJoin = new MutableHashTable<IT2, IT1>(serializer2, serializer1, comparator2, comparator1,
 					pairComparatorFactory.createComparator12(comparator1, comparator2), memSegments, this.taskContext.getIOManager());
 			this.hashJoin = hashJoin;
+			reportMetrics(hashJoin);
 			hashJoin.open(input2, EmptyMutableObjectIterator.<IT1>get());
 		} else {
 			throw new Exception("Error: Inconcistent setup for repeatable hash join driver.");
 		}
 	}
 
+	private void reportMetrics(MutableHashTable<?, ?> hashJoin) {
+		AbstractInvokable owner = this.taskContext.getOwningNepheleTask();
+		if (owner != null && owner.getEnvironment() != null) {
+			hashJoin.setMetrics(owner.getEnvironment().getMetrics());
+		}
+	}
+
 	@Override
 	public void prepare() throws Exception {
 		// nothing
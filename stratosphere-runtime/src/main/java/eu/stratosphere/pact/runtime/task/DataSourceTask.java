@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -275,6 +276,14 @@ public class DataSourceTask<OT> extends AbstractInputTask<InputSplit> {
 		}
 	}
 	
+	@Override
+	public Map<String, Accumulator<?, ?>> getAccumulatorSnapshot() {
+		if (this.chainedTasks == null || this.chainedTasks.isEmpty()) {
+			return null;
+		}
+		return RegularPactTask.snapshotAccumulators(new HashMap<String, Accumulator<?, ?>>(), this.chainedTasks);
+	}
+	
 	/**
 	 * Sets the class-loader to be used to load the user code.
 	 * 
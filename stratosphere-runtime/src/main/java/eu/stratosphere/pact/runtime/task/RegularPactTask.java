@@ -65,6 +65,7 @@ import eu.stratosphere.pact.runtime.sort.UnilateralSortMerger;
 import eu.stratosphere.pact.runtime.task.chaining.ChainedDriver;
 import eu.stratosphere.pact.runtime.task.chaining.ExceptionInChainedStubException;
 import eu.stratosphere.pact.runtime.task.util.CloseableInputProvider;
+import eu.stratosphere.pact.runtime.task.util.CountingMutableObjectIterator;
 import eu.stratosphere.pact.runtime.task.util.LocalStrategy;
 import eu.stratosphere.pact.runtime.task.util.ReaderIterator;
 import eu.stratosphere.pact.runtime.task.util.RecordReaderIterator;
@@ -137,6 +138,11 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 	 */
 	protected MutableObjectIterator<?>[] broadcastInputIterators;
 	
+	/**
+	 * The counting wrappers of the inputs whose cardinality is reported back, or null, for unobserved inputs.
+	 */
+	protected CountingMutableObjectIterator<?>[] observedInputs;
+	
 	protected int[] iterativeInputs;
 	
 	protected int[] iterativeBroadcastInputs;
@@ -526,6 +532,8 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 			// (using this.stub.close() and closeChainedTasks()), so UDFs can no longer
 			// modify accumulators.ll;
 			if (this.stub != null) {
+				reportObservedCardinalities();
+				
 				// collect the counters from the stub
 				Map<String, Accumulator<?,?>> accumulators = this.stub.getRuntimeContext().getAllAccumulators();
 				RegularPactTask.reportAndClearAccumulators(getEnvironment(), accumulators, this.chainedTasks);
@@ -552,6 +560,22 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 		}
 	}
 
+	/**
+	 * Adds the number of records consumed from the observed inputs to the accumulators of the stub, such
+	 * that the client can feed them back into the optimizer's statistics.
+	 */
+	protected void reportObservedCardinalities() {
+		if (this.observedInputs == null) {
+			return;
+		}
+		for (int i = 0; i < this.observedInputs.length; i++) {
+			if (this.observedInputs[i] != null) {
+				final String name = TaskConfig.OBSERVED_CARDINALITY_ACCUMULATOR_PREFIX + this.config.getInputObservationKey(i);
+				this.stub.getRuntimeContext().getLongCounter(name).add(this.observedInputs[i].getCount());
+			}
+		}
+	}
+
 	/**
 	 * This method is called at the end of a task, receiving the accumulators of
 	 * the task and the chained tasks. It merges them into a single map of
@@ -584,7 +608,7 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 		synchronized (env.getAccumulatorProtocolProxy()) {
 			try {
 				env.getAccumulatorProtocolProxy().reportAccumulatorResult(
-						new AccumulatorEvent(env.getJobID(), accumulators, true));
+						new AccumulatorEvent(env.getJobID(), env.getExecutionVertexID(), accumulators, true));
 			} catch (IOException e) {
 				throw new RuntimeException("Communication with JobManager is broken. Could not send accumulators.", e);
 			}
@@ -599,6 +623,38 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 		}
 	}
 
+	@Override
+	public Map<String, Accumulator<?, ?>> getAccumulatorSnapshot() {
+		if (this.stub == null) {
+			return null;
+		}
+		return RegularPactTask.snapshotAccumulators(this.stub.getRuntimeContext().getAllAccumulators(), this.chainedTasks);
+	}
+
+	/**
+	 * Creates copies of the accumulators of a running task and its chained tasks and merges them into a single
+	 * map, without modifying the tasks' accumulators. This method is called by the task manager's thread that
+	 * reports the progress of the running tasks. If a task modifies its accumulators concurrently, the copies
+	 * may be inconsistent or the copying may fail with a runtime exception.
+	 * 
+	 * @param accumulators
+	 *          The accumulators of the task stub
+	 * @param chainedTasks
+	 *          The chained tasks whose accumulators are merged with the accumulators of the stub
+	 * @return The merged copies of the accumulators
+	 */
+	protected static Map<String, Accumulator<?, ?>> snapshotAccumulators(Map<String, Accumulator<?, ?>> accumulators,
+			ArrayList<ChainedDriver<?, ?>> chainedTasks) {
+		final Map<String, Accumulator<?, ?>> snapshot = AccumulatorHelper.copy(accumulators);
+		if (chainedTasks != null) {
+			for (ChainedDriver<?, ?> chainedTask : chainedTasks) {
+				AccumulatorHelper.mergeInto(snapshot,
+					AccumulatorHelper.copy(chainedTask.getStub().getRuntimeContext().getAllAccumulators()));
+			}
+		}
+		return snapshot;
+	}
+
 	protected void closeLocalStrategiesAndCaches() {
 		if (this.localStrategies != null) {
 			for (int i = 0; i < this.localStrategies.length; i++) {
@@ -767,6 +823,7 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 		this.inputSerializers = new TypeSerializerFactory<?>[numInputs];
 		this.inputComparators = this.driver.requiresComparatorOnInput() ? new TypeComparator[numInputs] : null;
 		this.inputIterators = new MutableObjectIterator[numInputs];
+		this.observedInputs = new CountingMutableObjectIterator[numInputs];
 		
 		for (int i = 0; i < numInputs; i++) {
 			//  ---------------- create the serializer first ---------------------
@@ -780,6 +837,16 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 			}
 			
 			this.inputIterators[i] = createInputIterator(this.inputReaders[i], this.inputSerializers[i].getSerializer());
+			
+			// count the records of materialized inputs. replicated inputs are counted by the first instance only
+			if (this.config.getInputObservationKey(i) != null &&
+					(!this.config.isInputObservationReplicated(i) || getEnvironment().getIndexInSubtaskGroup() == 0))
+			{
+				@SuppressWarnings({ "unchecked", "rawtypes" })
+				final CountingMutableObjectIterator<?> counting = new CountingMutableObjectIterator(this.inputIterators[i]);
+				this.observedInputs[i] = counting;
+				this.inputIterators[i] = counting;
+			}
 		}
 	}
 	
@@ -1254,7 +1321,8 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 					if (compFact instanceof RecordComparatorFactory) {
 						final RecordComparator comparator = ((RecordComparatorFactory) compFact).createComparator();
 						final DataDistribution distribution = config.getOutputDataDistribution(i, cl);
-						oe = new RecordOutputEmitter(strategy, comparator, distribution);
+						final int[] heavyHitters = config.getOutputHeavyHitters(i);
+						oe = new RecordOutputEmitter(strategy, comparator, distribution, heavyHitters);
 					} else {
 						throw new Exception("Incompatibe serializer-/comparator factories.");
 					}
@@ -0,0 +1,55 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.task.util;
+
+import java.io.IOException;
+
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * A {@link MutableObjectIterator} that counts the records returned by the wrapped iterator.
+ */
+public final class CountingMutableObjectIterator<T> implements MutableObjectIterator<T> {
+	
+	private final MutableObjectIterator<T> source;
+	
+	private long count;
+
+	/**
+	 * Creates a new iterator, counting the records of the given iterator.
+	 * 
+	 * @param source The iterator to wrap.
+	 */
+	public CountingMutableObjectIterator(MutableObjectIterator<T> source) {
+		this.source = source;
+	}
+
+	@Override
+	public T next(T reuse) throws IOException {
+		final T next = this.source.next(reuse);
+		if (next != null) {
+			this.count++;
+		}
+		return next;
+	}
+	
+	/**
+	 * Gets the number of records returned so far.
+	 * 
+	 * @return The number of records returned so far.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+}
@@ -112,6 +112,10 @@ public class TaskConfig {
 	
 	private static final String BROADCAST_INPUT_NAME_PREFIX = "in.broadcast.name.";
 	
+	private static final String INPUT_OBSERVATION_KEY_PREFIX = "in.observe.";
+	
+	private static final String INPUT_OBSERVATION_REPLICATED_PREFIX = "in.observe.replicated.";
+	
 	
 	// -------------------------------------- Outputs ---------------------------------------------
 	
@@ -131,6 +135,10 @@ public class TaskConfig {
 	
 	private static final String OUTPUT_DATA_DISTRIBUTION_PREFIX = "out.distribution.";
 	
+	private static final String OUTPUT_HEAVY_HITTERS_NUM_PREFIX = "out.skew.num.";
+	
+	private static final String OUTPUT_HEAVY_HITTERS_PREFIX = "out.skew.hash.";
+	
 	// ------------------------------------- Chaining ---------------------------------------------
 	
 	private static final String CHAINING_NUM_STUBS = "chaining.num";
@@ -208,6 +216,12 @@ public class TaskConfig {
 	// ---------------------------------- Miscellaneous -------------------------------------------
 	
 	private static final char SEPARATOR = '.';
+	
+	/**
+	 * The prefix of the accumulators through which tasks report the number of records they consumed
+	 * from inputs that have an observation key.
+	 */
+	public static final String OBSERVED_CARDINALITY_ACCUMULATOR_PREFIX = "__observed-cardinality.";
 
 	// --------------------------------------------------------------------------------------------
 	//                         Members, Constructors, and Accessors
@@ -470,6 +484,27 @@ public class TaskConfig {
 		return this.config.getString(BROADCAST_INPUT_NAME_PREFIX + groupIndex, String.format("broadcastVar%04d", groupIndex));
 	}
 	
+	/**
+	 * Sets the key under which the number of records consumed from the given input is reported back
+	 * to the client, prefixed with {@link #OBSERVED_CARDINALITY_ACCUMULATOR_PREFIX}.
+	 * 
+	 * @param inputNum The number of the input.
+	 * @param key The key identifying the producer of the input.
+	 * @param replicated True, if every parallel instance receives the full input (broadcast shipping).
+	 */
+	public void setInputObservationKey(int inputNum, String key, boolean replicated) {
+		this.config.setString(INPUT_OBSERVATION_KEY_PREFIX + inputNum, key);
+		this.config.setBoolean(INPUT_OBSERVATION_REPLICATED_PREFIX + inputNum, replicated);
+	}
+	
+	public String getInputObservationKey(int inputNum) {
+		return this.config.getString(INPUT_OBSERVATION_KEY_PREFIX + inputNum, null);
+	}
+	
+	public boolean isInputObservationReplicated(int inputNum) {
+		return this.config.getBoolean(INPUT_OBSERVATION_REPLICATED_PREFIX + inputNum, false);
+	}
+	
 	// --------------------------------------------------------------------------------------------
 	//                                        Outputs
 	// --------------------------------------------------------------------------------------------
@@ -573,6 +608,26 @@ public class TaskConfig {
 		}
 	}
 	
+	public void setOutputHeavyHitters(int[] hashCodes, int outputNum) {
+		this.config.setInteger(OUTPUT_HEAVY_HITTERS_NUM_PREFIX + outputNum, hashCodes.length);
+		for (int i = 0; i < hashCodes.length; i++) {
+			this.config.setInteger(OUTPUT_HEAVY_HITTERS_PREFIX + outputNum + SEPARATOR + i, hashCodes[i]);
+		}
+	}
+	
+	public int[] getOutputHeavyHitters(int outputNum) {
+		final int num = this.config.getInteger(OUTPUT_HEAVY_HITTERS_NUM_PREFIX + outputNum, -1);
+		if (num < 0) {
+			return null;
+		}
+		
+		final int[] hashCodes = new int[num];
+		for (int i = 0; i < num; i++) {
+			hashCodes[i] = this.config.getInteger(OUTPUT_HEAVY_HITTERS_PREFIX + outputNum + SEPARATOR + i, 0);
+		}
+		return hashCodes;
+	}
+	
 	// --------------------------------------------------------------------------------------------
 	//                       Parameters to configure the memory and I/O behavior
 	// --------------------------------------------------------------------------------------------
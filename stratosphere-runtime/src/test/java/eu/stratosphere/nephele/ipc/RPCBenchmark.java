@@ -0,0 +1,163 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.ipc;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.stratosphere.core.protocols.VersionedProtocol;
+import eu.stratosphere.nephele.types.IntegerRecord;
+
+/**
+ * Measures the throughput of small RPC calls issued concurrently by several threads over one proxy, and the
+ * latency of a priority call (such as a heartbeat) while all regular handlers of the server are busy with
+ * slow calls.
+ */
+public class RPCBenchmark {
+	
+	private static final int NUM_HANDLERS = 4;
+	
+	private static final int NUM_CALLERS = 8;
+	
+	private static final int NUM_CALLS = 20000;
+	
+	private static final int NUM_PINGS = 200;
+	
+	private static volatile boolean loading;
+	
+	
+	public static interface BenchmarkProtocol extends VersionedProtocol {
+		
+		IntegerRecord increment(IntegerRecord value) throws IOException;
+		
+		void slowCall() throws IOException;
+		
+		@PriorityCall
+		void ping() throws IOException;
+	}
+	
+	private static final class BenchmarkProtocolImpl implements BenchmarkProtocol {
+		
+		@Override
+		public IntegerRecord increment(IntegerRecord value) {
+			return new IntegerRecord(value.getValue() + 1);
+		}
+		
+		@Override
+		public void slowCall() {
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		
+		@Override
+		public void ping() {}
+	}
+	
+	
+	public static void main(String[] args) throws Exception {
+		final RPC.Server server = RPC.getServer(new BenchmarkProtocolImpl(), "localhost", 0, NUM_HANDLERS);
+		server.start();
+		final BenchmarkProtocol proxy = RPC.getProxy(BenchmarkProtocol.class,
+			new InetSocketAddress("localhost", server.getListenerAddress().getPort()));
+		
+		try {
+			// run everything twice, the first round warms up the jit compiler
+			for (int i = 0; i < 2; i++) {
+				System.out.println(i == 0 ? "--- warm-up ---" : "--- measurement ---");
+				measureThroughput(proxy);
+				measurePriorityLatency(proxy);
+			}
+		} finally {
+			RPC.stopProxy(proxy);
+			server.stop();
+		}
+	}
+	
+	private static void measureThroughput(final BenchmarkProtocol proxy) throws Exception {
+		final AtomicLong sideEffect = new AtomicLong();
+		final Thread[] callers = new Thread[NUM_CALLERS];
+		for (int i = 0; i < callers.length; i++) {
+			callers[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						long sum = 0;
+						for (int k = 0; k < NUM_CALLS / NUM_CALLERS; k++) {
+							sum += proxy.increment(new IntegerRecord(k)).getValue();
+						}
+						sideEffect.addAndGet(sum);
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			};
+		}
+		
+		final long start = System.nanoTime();
+		for (Thread t : callers) {
+			t.start();
+		}
+		for (Thread t : callers) {
+			t.join();
+		}
+		final long duration = System.nanoTime() - start;
+		
+		System.out.println(String.format("%d callers: %,d calls/sec (side effect %d).",
+			NUM_CALLERS, NUM_CALLS * 1000000000L / duration, sideEffect.get()));
+	}
+	
+	private static void measurePriorityLatency(final BenchmarkProtocol proxy) throws Exception {
+		// the client does not react to interrupts while waiting for a response, so the loaders poll a flag
+		loading = true;
+		final Thread[] loaders = new Thread[NUM_HANDLERS * 4];
+		for (int i = 0; i < loaders.length; i++) {
+			loaders[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						while (loading) {
+							proxy.slowCall();
+						}
+					} catch (IOException e) {
+						// stopped
+					}
+				}
+			};
+			loaders[i].start();
+		}
+		Thread.sleep(100);
+		
+		long total = 0;
+		long max = 0;
+		for (int i = 0; i < NUM_PINGS; i++) {
+			final long start = System.nanoTime();
+			proxy.ping();
+			final long latency = System.nanoTime() - start;
+			total += latency;
+			max = Math.max(max, latency);
+		}
+		
+		loading = false;
+		for (Thread t : loaders) {
+			t.join();
+		}
+		
+		System.out.println(String.format("ping with %d busy handlers: avg=%,d usecs, max=%,d usecs.",
+			NUM_HANDLERS, total / NUM_PINGS / 1000, max / 1000));
+	}
+}
@@ -0,0 +1,154 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.ipc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.stratosphere.core.io.StringRecord;
+import eu.stratosphere.core.protocols.VersionedProtocol;
+import eu.stratosphere.nephele.types.IntegerRecord;
+import eu.stratosphere.nephele.util.SerializableArrayList;
+
+public class RPCTest {
+
+	public static interface TestProtocol extends VersionedProtocol {
+
+		IntegerRecord add(IntegerRecord a, IntegerRecord b) throws IOException;
+
+		StringRecord echo(StringRecord value) throws IOException;
+
+		List<IntegerRecord> reverse(List<IntegerRecord> values) throws IOException;
+
+		void block() throws IOException;
+
+		@PriorityCall
+		IntegerRecord ping() throws IOException;
+	}
+
+	private static final class TestProtocolImpl implements TestProtocol {
+
+		private final CountDownLatch blocked = new CountDownLatch(1);
+
+		private final CountDownLatch released = new CountDownLatch(1);
+
+		@Override
+		public IntegerRecord add(IntegerRecord a, IntegerRecord b) {
+			return new IntegerRecord(a.getValue() + b.getValue());
+		}
+
+		@Override
+		public StringRecord echo(StringRecord value) {
+			return value;
+		}
+
+		@Override
+		public List<IntegerRecord> reverse(List<IntegerRecord> values) {
+			final SerializableArrayList<IntegerRecord> reversed = new SerializableArrayList<IntegerRecord>();
+			for (int i = values.size() - 1; i >= 0; i--) {
+				reversed.add(values.get(i));
+			}
+			return reversed;
+		}
+
+		@Override
+		public void block() {
+			this.blocked.countDown();
+			try {
+				this.released.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public IntegerRecord ping() {
+			return new IntegerRecord(42);
+		}
+	}
+
+	private TestProtocolImpl impl;
+
+	private RPC.Server server;
+
+	private TestProtocol proxy;
+
+	@Before
+	public void setUp() throws Exception {
+		this.impl = new TestProtocolImpl();
+		// a single regular handler, so that one blocking call occupies all of them
+		this.server = RPC.getServer(this.impl, "localhost", 0, 1);
+		this.server.start();
+		final InetSocketAddress address = new InetSocketAddress("localhost", this.server.getListenerAddress().getPort());
+		this.proxy = RPC.getProxy(TestProtocol.class, address);
+	}
+
+	@After
+	public void tearDown() {
+		this.impl.released.countDown();
+		RPC.stopProxy(this.proxy);
+		this.server.stop();
+	}
+
+	@Test
+	public void testCalls() throws Exception {
+		assertEquals(5, this.proxy.add(new IntegerRecord(2), new IntegerRecord(3)).getValue());
+		assertEquals("test", this.proxy.echo(new StringRecord("test")).toString());
+		assertNull(this.proxy.echo(null));
+
+		// parameters of a subtype of the declared parameter type
+		final SerializableArrayList<IntegerRecord> values = new SerializableArrayList<IntegerRecord>();
+		for (int i = 0; i < 3; i++) {
+			values.add(new IntegerRecord(i));
+		}
+		final List<IntegerRecord> reversed = this.proxy.reverse(values);
+		assertEquals(3, reversed.size());
+		assertEquals(2, reversed.get(0).getValue());
+		assertEquals(0, reversed.get(2).getValue());
+	}
+
+	@Test
+	public void testPriorityCallsBypassBusyHandlers() throws Exception {
+		final Thread blocker = new Thread() {
+			@Override
+			public void run() {
+				try {
+					proxy.block();
+				} catch (IOException e) {
+					// the test fails on the timeout below
+				}
+			}
+		};
+		blocker.setDaemon(true);
+		blocker.start();
+		assertTrue(this.impl.blocked.await(10, TimeUnit.SECONDS));
+
+		// the only regular handler is blocked, but the priority call is answered
+		assertEquals(42, this.proxy.ping().getValue());
+
+		this.impl.released.countDown();
+		blocker.join(10000);
+	}
+}
@@ -0,0 +1,160 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.accumulators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.accumulators.Accumulator;
+import eu.stratosphere.api.common.accumulators.IntCounter;
+import eu.stratosphere.nephele.execution.TaskMetrics;
+import eu.stratosphere.nephele.execution.librarycache.LibraryCacheManager;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.services.accumulators.TaskProgressEvent;
+
+/**
+ * Tests the merging of final accumulator results with the snapshots of running tasks.
+ */
+public class AccumulatorManagerTest {
+
+	@Test
+	public void testSnapshotsAreReplacedAndDroppedOnFinish() {
+		final JobID jobID = new JobID();
+		final ExecutionVertexID task1 = new ExecutionVertexID();
+		final ExecutionVertexID task2 = new ExecutionVertexID();
+
+		try {
+			LibraryCacheManager.register(jobID, new String[0]);
+
+			final AccumulatorManager manager = new AccumulatorManager(2);
+
+			manager.processTaskProgress(progress(jobID, task1, 3));
+			manager.processTaskProgress(progress(jobID, task2, 4));
+			assertEquals(7, count(manager, jobID));
+
+			// a newer snapshot replaces the older one of the same task
+			manager.processTaskProgress(progress(jobID, task1, 5));
+			assertEquals(9, count(manager, jobID));
+
+			// the final results replace the snapshot
+			manager.processIncomingAccumulators(jobID, task1, counter(6));
+			assertEquals(10, count(manager, jobID));
+
+			// a snapshot arriving after the final results is ignored
+			manager.processTaskProgress(progress(jobID, task1, 5));
+			assertEquals(10, count(manager, jobID));
+
+			manager.processIncomingAccumulators(jobID, task2, counter(4));
+			assertEquals(10, count(manager, jobID));
+
+			// reading the results must not modify them
+			assertEquals(10, count(manager, jobID));
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		} finally {
+			try {
+				LibraryCacheManager.unregister(jobID);
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	@Test
+	public void testMetricsAreKeptPerTask() {
+		final JobID jobID = new JobID();
+		final ExecutionVertexID task1 = new ExecutionVertexID();
+		final ExecutionVertexID task2 = new ExecutionVertexID();
+
+		try {
+			final AccumulatorManager manager = new AccumulatorManager(2);
+
+			manager.processTaskProgress(new TaskProgressEvent(jobID, task1, new TaskMetrics(1, 2, 3, 4, 5, 6, 7)));
+			manager.processTaskProgress(new TaskProgressEvent(jobID, task2, new TaskMetrics(1, 1, 1, 1, 1, 1, 1)));
+			manager.processTaskProgress(new TaskProgressEvent(jobID, task1, new TaskMetrics(10, 20, 30, 40, 50, 60, 70)));
+
+			final List<TaskProgressEvent> progress = manager.getTaskProgress(jobID);
+			assertEquals(2, progress.size());
+
+			final TaskMetrics total = new TaskMetrics();
+			for (TaskProgressEvent event : progress) {
+				assertNull(event.getAccumulators());
+				total.add(event.getMetrics());
+			}
+			assertEquals(11, total.getRecordsIn());
+			assertEquals(21, total.getRecordsOut());
+			assertEquals(31, total.getBytesIn());
+			assertEquals(41, total.getBytesOut());
+			assertEquals(51, total.getSpilledBytes());
+			assertEquals(61, total.getInputWaitTime());
+			assertEquals(71, total.getOutputWaitTime());
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testTaskProgressEventSerialization() {
+		final JobID jobID = new JobID();
+		final ExecutionVertexID vertexID = new ExecutionVertexID();
+
+		try {
+			final TaskProgressEvent original = new TaskProgressEvent(jobID, vertexID, new TaskMetrics(1, 2, 3, 4, 5, 6, 7));
+
+			final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			original.write(new DataOutputStream(baos));
+
+			final TaskProgressEvent copy = new TaskProgressEvent();
+			copy.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+			assertEquals(jobID, copy.getJobID());
+			assertEquals(vertexID, copy.getVertexID());
+			assertEquals(original.getMetrics().toString(), copy.getMetrics().toString());
+			assertNull(copy.getAccumulators());
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	private static TaskProgressEvent progress(JobID jobID, ExecutionVertexID vertexID, int count) throws IOException {
+		return new TaskProgressEvent(jobID, vertexID, new TaskMetrics(), counter(count));
+	}
+
+	private static Map<String, Accumulator<?, ?>> counter(int count) {
+		final IntCounter counter = new IntCounter();
+		counter.add(count);
+		final Map<String, Accumulator<?, ?>> accumulators = new HashMap<String, Accumulator<?, ?>>();
+		accumulators.put("count", counter);
+		return accumulators;
+	}
+
+	private static int count(AccumulatorManager manager, JobID jobID) {
+		return ((IntCounter) manager.getJobAccumulators(jobID).get("count")).getLocalValue();
+	}
+}
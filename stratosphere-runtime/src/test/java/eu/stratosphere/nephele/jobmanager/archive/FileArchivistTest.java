@@ -0,0 +1,183 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.archive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.stratosphere.nephele.event.job.ExecutionStateChangeEvent;
+import eu.stratosphere.nephele.event.job.JobEvent;
+import eu.stratosphere.nephele.event.job.RecentJobEvent;
+import eu.stratosphere.nephele.execution.ExecutionState;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.jobgraph.JobStatus;
+import eu.stratosphere.nephele.managementgraph.ManagementGraph;
+import eu.stratosphere.nephele.managementgraph.ManagementGroupVertex;
+import eu.stratosphere.nephele.managementgraph.ManagementStage;
+import eu.stratosphere.nephele.managementgraph.ManagementVertex;
+import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
+
+/**
+ * This class contains tests for the {@link FileArchivist}.
+ */
+public class FileArchivistTest {
+
+	private File directory;
+
+	@Before
+	public void createDirectory() {
+		this.directory = new File(System.getProperty("java.io.tmpdir"), "archive-" + new JobID());
+	}
+
+	@After
+	public void deleteDirectory() {
+		final File[] files = this.directory.listFiles();
+		if (files != null) {
+			for (final File file : files) {
+				file.delete();
+			}
+		}
+		this.directory.delete();
+	}
+
+	/**
+	 * Checks that an archived job, including its events, management graph and metrics, is read back by a new
+	 * archivist.
+	 */
+	@Test
+	public void testRestart() throws IOException {
+
+		final JobID jobID = new JobID();
+		final ManagementGraph graph = new ManagementGraph(jobID);
+		final ManagementGroupVertex groupVertex = new ManagementGroupVertex(new ManagementStage(graph, 0), "Task");
+		final ManagementVertexID vertexID = new ManagementVertexID();
+		new ManagementVertex(groupVertex, vertexID, "Host", "small", 0);
+
+		final MetricRegistry registry = new MetricRegistry();
+		registry.counter("records").add(42L);
+
+		final FileArchivist archivist = new FileArchivist(this.directory, 1, 10);
+		archivist.archiveEvent(jobID, new JobEvent(100L, JobStatus.RUNNING, null));
+		archivist.archiveEvent(jobID, new ExecutionStateChangeEvent(110L, vertexID, ExecutionState.RUNNING));
+		archivist.archiveEvent(jobID, new ExecutionStateChangeEvent(120L, vertexID, ExecutionState.FINISHED));
+		archivist.archiveEvent(jobID, new JobEvent(130L, JobStatus.FINISHED, null));
+		archivist.archiveMetrics(jobID, vertexID, registry.snapshot());
+
+		// the job is not listed before it has been archived itself
+		assertTrue(archivist.getJobs().isEmpty());
+
+		archivist.archiveManagementGraph(jobID, graph);
+		archivist.archiveNetworkTopology(jobID, null);
+		archivist.archiveJobevent(jobID, new RecentJobEvent(jobID, "Job", JobStatus.FINISHED, false, 90L, 130L));
+		assertEquals(1, archivist.getJobs().size());
+
+		final FileArchivist restarted = new FileArchivist(this.directory, 1, 10);
+		final List<RecentJobEvent> jobs = restarted.getJobs();
+		assertEquals(1, jobs.size());
+		assertEquals(jobID, jobs.get(0).getJobID());
+		assertEquals("Job", restarted.getJob(jobID).getJobName());
+
+		final ManagementGraph restoredGraph = restarted.getManagementGraph(jobID);
+		assertNotNull(restoredGraph);
+		assertEquals(1, restoredGraph.getGroupVerticesInTopologicalOrder().size());
+		assertNotNull(restoredGraph.getVertexByID(vertexID));
+
+		assertEquals(4, restarted.getEvents(jobID).size());
+		assertEquals(100L, restarted.getJobTime(jobID, JobStatus.RUNNING));
+		assertEquals(130L, restarted.getJobTime(jobID, JobStatus.FINISHED));
+		assertEquals(0L, restarted.getJobTime(jobID, JobStatus.FAILED));
+		assertEquals(110L, restarted.getVertexTime(jobID, vertexID, ExecutionState.RUNNING));
+		assertEquals(120L, restarted.getVertexTime(jobID, vertexID, ExecutionState.FINISHED));
+		assertEquals(0L, restarted.getVertexTime(jobID, vertexID, ExecutionState.FAILED));
+
+		final Map<ManagementVertexID, MetricsSnapshot> metrics = restarted.getMetrics(jobID);
+		assertEquals(42L, metrics.get(vertexID).getValue("records"));
+	}
+
+	/**
+	 * Checks that data arriving after a job has been archived is written once on flush, or when the job is evicted
+	 * from the cache.
+	 */
+	@Test
+	public void testLateDataIsWrittenOnFlush() throws IOException {
+
+		final JobID jobID = new JobID();
+		final ManagementVertexID vertexID = new ManagementVertexID();
+		final MetricRegistry registry = new MetricRegistry();
+		registry.counter("records").add(42L);
+
+		final FileArchivist archivist = new FileArchivist(this.directory, 1, 10);
+		archivist.archiveEvent(jobID, new JobEvent(100L, JobStatus.FINISHED, null));
+		archivist.archiveJobevent(jobID, new RecentJobEvent(jobID, "Job", JobStatus.FINISHED, false, 90L, 100L));
+
+		// the late metrics are kept in memory, but not yet written
+		archivist.archiveMetrics(jobID, vertexID, registry.snapshot());
+		assertEquals(42L, archivist.getMetrics(jobID).get(vertexID).getValue("records"));
+		assertTrue(new FileArchivist(this.directory, 1, 10).getMetrics(jobID).isEmpty());
+
+		archivist.flush();
+		assertEquals(42L, new FileArchivist(this.directory, 1, 10).getMetrics(jobID).get(vertexID).getValue("records"));
+
+		// a modified job evicted from the cache is written before it is dropped from memory
+		registry.counter("records").add(1L);
+		archivist.archiveMetrics(jobID, vertexID, registry.snapshot());
+		final JobID otherJobID = new JobID();
+		archivist.archiveJobevent(otherJobID, new RecentJobEvent(otherJobID, "Other", JobStatus.FINISHED, false, 0L,
+			0L));
+		assertEquals(43L, archivist.getMetrics(jobID).get(vertexID).getValue("records"));
+	}
+
+	/**
+	 * Checks that the oldest jobs are removed from the archive directory and that jobs evicted from the cache are
+	 * read from their files.
+	 */
+	@Test
+	public void testBounds() throws IOException {
+
+		final FileArchivist archivist = new FileArchivist(this.directory, 1, 2);
+
+		final JobID[] jobIDs = new JobID[3];
+		for (int i = 0; i < jobIDs.length; i++) {
+			jobIDs[i] = new JobID();
+			archivist.archiveEvent(jobIDs[i], new JobEvent(i, JobStatus.FINISHED, null));
+			archivist.archiveJobevent(jobIDs[i], new RecentJobEvent(jobIDs[i], "Job " + i, JobStatus.FINISHED, false,
+				i, i));
+		}
+
+		assertEquals(2, archivist.getJobs().size());
+		assertNull(archivist.getJob(jobIDs[0]));
+		assertNull(archivist.getEvents(jobIDs[0]));
+		assertFalse(new File(this.directory, jobIDs[0] + ".job").exists());
+		assertEquals(2, this.directory.listFiles().length);
+
+		// only the last job is cached, the other one is read from its file
+		assertEquals(1, archivist.getEvents(jobIDs[1]).size());
+		assertEquals(1L, archivist.getJobTime(jobIDs[1], JobStatus.FINISHED));
+		assertEquals(2L, archivist.getJobTime(jobIDs[2], JobStatus.FINISHED));
+	}
+}
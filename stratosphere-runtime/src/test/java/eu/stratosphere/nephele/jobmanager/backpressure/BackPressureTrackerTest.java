@@ -0,0 +1,184 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.backpressure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.io.channels.ChannelType;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.managementgraph.ManagementGraph;
+import eu.stratosphere.nephele.managementgraph.ManagementGroupEdge;
+import eu.stratosphere.nephele.managementgraph.ManagementGroupVertex;
+import eu.stratosphere.nephele.managementgraph.ManagementStage;
+import eu.stratosphere.nephele.managementgraph.ManagementVertex;
+import eu.stratosphere.nephele.managementgraph.ManagementVertexID;
+
+/**
+ * This class contains tests for the {@link BackPressureTracker}.
+ */
+public class BackPressureTrackerTest {
+
+	private static final double DELTA = 0.0001;
+
+	private final JobID jobID = new JobID();
+
+	private final ManagementGraph graph = new ManagementGraph(this.jobID);
+
+	private final ManagementStage stage = new ManagementStage(this.graph, 0);
+
+	private final ManagementGroupVertex source = new ManagementGroupVertex(this.stage, "Source");
+
+	private final ManagementGroupVertex map = new ManagementGroupVertex(this.stage, "Map");
+
+	private final ManagementGroupVertex sink = new ManagementGroupVertex(this.stage, "Sink");
+
+	private final ExecutionVertexID source1 = createMember(this.source, 0);
+
+	private final ExecutionVertexID source2 = createMember(this.source, 1);
+
+	private final ExecutionVertexID map1 = createMember(this.map, 0);
+
+	private final ExecutionVertexID sink1 = createMember(this.sink, 0);
+
+	public BackPressureTrackerTest() {
+		new ManagementGroupEdge(this.source, 0, this.map, 0, ChannelType.NETWORK);
+		new ManagementGroupEdge(this.map, 0, this.sink, 0, ChannelType.NETWORK);
+	}
+
+	/**
+	 * Checks that the ratios are derived from consecutive samples and that the slow consumer of a back pressured
+	 * group vertex is marked as the bottleneck.
+	 */
+	@Test
+	public void testBottleneckDetection() {
+
+		final BackPressureTracker tracker = new BackPressureTracker(5, 0.5);
+
+		tracker.processSample(this.jobID, this.source1, 1000L, 0L, 0L);
+		tracker.processSample(this.jobID, this.source2, 1000L, 0L, 0L);
+		tracker.processSample(this.jobID, this.map1, 1000L, 0L, 0L);
+		tracker.processSample(this.jobID, this.sink1, 1000L, 0L, 0L);
+
+		// a single sample per task does not yield any ratio
+		assertTrue(tracker.getBackPressure(this.jobID, this.graph).isEmpty());
+
+		tracker.processSample(this.jobID, this.source1, 2000L, 0L, 800L);
+		tracker.processSample(this.jobID, this.source2, 2000L, 0L, 600L);
+		tracker.processSample(this.jobID, this.map1, 2000L, 50L, 100L);
+		tracker.processSample(this.jobID, this.sink1, 2000L, 900L, 0L);
+
+		final List<VertexBackPressure> backPressure = tracker.getBackPressure(this.jobID, this.graph);
+		assertEquals(3, backPressure.size());
+
+		final VertexBackPressure sourceBackPressure = backPressure.get(0);
+		assertEquals(this.source, sourceBackPressure.getGroupVertex());
+		assertEquals(2, sourceBackPressure.getNumberOfSampledTasks());
+		assertEquals(0.7, sourceBackPressure.getBackPressureRatio(), DELTA);
+		assertEquals(0.8, sourceBackPressure.getMaxBackPressureRatio(), DELTA);
+		assertTrue(sourceBackPressure.isBackPressured());
+		assertFalse(sourceBackPressure.isBottleneck());
+
+		final VertexBackPressure mapBackPressure = backPressure.get(1);
+		assertEquals(this.map, mapBackPressure.getGroupVertex());
+		assertEquals(0.1, mapBackPressure.getBackPressureRatio(), DELTA);
+		assertEquals(0.05, mapBackPressure.getInputWaitRatio(), DELTA);
+		assertFalse(mapBackPressure.isBackPressured());
+		assertTrue(mapBackPressure.isBottleneck());
+
+		final VertexBackPressure sinkBackPressure = backPressure.get(2);
+		assertEquals(this.sink, sinkBackPressure.getGroupVertex());
+		assertEquals(0.9, sinkBackPressure.getInputWaitRatio(), DELTA);
+		assertFalse(sinkBackPressure.isBackPressured());
+		assertFalse(sinkBackPressure.isBottleneck());
+	}
+
+	/**
+	 * Checks that new samples are smoothed with the previous ratios and that outdated samples are ignored.
+	 */
+	@Test
+	public void testSmoothing() {
+
+		final BackPressureTracker tracker = new BackPressureTracker(5, 0.5);
+
+		tracker.processSample(this.jobID, this.source1, 0L, 0L, 0L);
+		tracker.processSample(this.jobID, this.source1, 1000L, 0L, 800L);
+		tracker.processSample(this.jobID, this.source1, 2000L, 0L, 800L);
+		// duplicate of the previous sample
+		tracker.processSample(this.jobID, this.source1, 2000L, 0L, 2000L);
+
+		final VertexBackPressure sourceBackPressure = tracker.getBackPressure(this.jobID, this.graph).get(0);
+		assertEquals(1, sourceBackPressure.getNumberOfSampledTasks());
+		assertEquals(0.4, sourceBackPressure.getBackPressureRatio(), DELTA);
+		assertFalse(sourceBackPressure.isBackPressured());
+	}
+
+	/**
+	 * Checks that stopped tasks do not count in the back pressure of their group vertex, even if their last progress
+	 * report arrives after they have stopped.
+	 */
+	@Test
+	public void testStoppedTasksAreDropped() {
+
+		final BackPressureTracker tracker = new BackPressureTracker(5, 0.5);
+
+		tracker.processSample(this.jobID, this.source1, 0L, 0L, 0L);
+		tracker.processSample(this.jobID, this.source2, 0L, 0L, 0L);
+		tracker.processSample(this.jobID, this.source1, 1000L, 0L, 1000L);
+		tracker.processSample(this.jobID, this.source2, 1000L, 0L, 0L);
+		assertEquals(0.5, tracker.getBackPressure(this.jobID, this.graph).get(0).getBackPressureRatio(), DELTA);
+
+		tracker.taskStopped(this.jobID, this.source1);
+		VertexBackPressure sourceBackPressure = tracker.getBackPressure(this.jobID, this.graph).get(0);
+		assertEquals(1, sourceBackPressure.getNumberOfSampledTasks());
+		assertEquals(0.0, sourceBackPressure.getBackPressureRatio(), DELTA);
+
+		// the final report of the stopped task
+		tracker.processSample(this.jobID, this.source1, 1500L, 0L, 1500L);
+		sourceBackPressure = tracker.getBackPressure(this.jobID, this.graph).get(0);
+		assertEquals(1, sourceBackPressure.getNumberOfSampledTasks());
+
+		tracker.taskStopped(this.jobID, this.source1);
+		tracker.taskStopped(this.jobID, this.source2);
+		assertTrue(tracker.getBackPressure(this.jobID, this.graph).isEmpty());
+	}
+
+	/**
+	 * Checks that the samples of the oldest jobs are removed.
+	 */
+	@Test
+	public void testEviction() {
+
+		final BackPressureTracker tracker = new BackPressureTracker(1, 0.5);
+
+		tracker.processSample(this.jobID, this.source1, 0L, 0L, 0L);
+		tracker.processSample(this.jobID, this.source1, 1000L, 0L, 1000L);
+		assertEquals(1, tracker.getBackPressure(this.jobID, this.graph).size());
+
+		tracker.processSample(new JobID(), new ExecutionVertexID(), 0L, 0L, 0L);
+		assertTrue(tracker.getBackPressure(this.jobID, this.graph).isEmpty());
+	}
+
+	private static ExecutionVertexID createMember(final ManagementGroupVertex groupVertex, final int indexInGroup) {
+		final ManagementVertexID id = new ManagementVertexID();
+		new ManagementVertex(groupVertex, id, "Host", "small", indexInGroup);
+		return ExecutionVertexID.fromManagementVertexID(id);
+	}
+}
@@ -0,0 +1,159 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
+import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.jobgraph.JobVertexID;
+
+/**
+ * This class contains tests for the {@link StragglerDetector}.
+ */
+public class StragglerDetectorTest {
+
+	private final JobID jobID = new JobID();
+
+	private final JobVertexID groupID = new JobVertexID();
+
+	/**
+	 * Checks that a member running much longer than its finished siblings is reported exactly once.
+	 */
+	@Test
+	public void testDetectStraggler() {
+
+		final StragglerDetector detector = new StragglerDetector(2.0f, 0.75f, 0L);
+		final ExecutionVertexID[] ids = startMembers(detector, 4);
+
+		assertTrue(detector.vertexFinished(this.jobID, this.groupID, ids[0], 100L).isEmpty());
+		assertTrue(detector.vertexFinished(this.jobID, this.groupID, ids[1], 110L).isEmpty());
+
+		// three of four members have finished, but the last one is still within the expected run time
+		assertTrue(detector.vertexFinished(this.jobID, this.groupID, ids[2], 120L).isEmpty());
+
+		// the last member exceeds twice the median run time
+		assertTrue(check(detector, 200L).isEmpty());
+		final List<ExecutionVertexID> stragglers = check(detector, 300L);
+		assertEquals(1, stragglers.size());
+		assertEquals(ids[3], stragglers.get(0));
+
+		// the straggler is not reported again
+		assertTrue(check(detector, 400L).isEmpty());
+	}
+
+	/**
+	 * Checks that no straggler is reported before the configured fraction of the group has finished and before the
+	 * minimum run time has passed.
+	 */
+	@Test
+	public void testThresholds() {
+
+		final StragglerDetector detector = new StragglerDetector(2.0f, 0.5f, 1000L);
+		final ExecutionVertexID[] ids = startMembers(detector, 4);
+
+		detector.vertexFinished(this.jobID, this.groupID, ids[0], 10L);
+		assertTrue(check(detector, 500L).isEmpty());
+
+		detector.vertexFinished(this.jobID, this.groupID, ids[1], 10L);
+		assertTrue(check(detector, 500L).isEmpty());
+
+		assertEquals(2, check(detector, 1001L).size());
+	}
+
+	/**
+	 * Checks that restarted and stopped members as well as unregistered jobs are handled correctly.
+	 */
+	@Test
+	public void testRestartAndUnregister() {
+
+		final StragglerDetector detector = new StragglerDetector(2.0f, 0.5f, 0L);
+		final ExecutionVertexID[] ids = startMembers(detector, 2);
+
+		detector.vertexFinished(this.jobID, this.groupID, ids[0], 100L);
+		assertEquals(1, check(detector, 300L).size());
+
+		// the straggler is restarted and starts a new run
+		detector.vertexStarted(this.jobID, this.groupID, 2, ids[1], 300L);
+		assertTrue(check(detector, 400L).isEmpty());
+		assertEquals(1, check(detector, 600L).size());
+
+		// a stopped member is not reported anymore
+		detector.vertexStarted(this.jobID, this.groupID, 2, ids[1], 600L);
+		detector.vertexStopped(this.jobID, this.groupID, ids[1]);
+		assertTrue(check(detector, 1000L).isEmpty());
+
+		detector.unregisterJob(this.jobID);
+		assertTrue(detector.vertexFinished(this.jobID, this.groupID, ids[1], 1000L).isEmpty());
+	}
+
+	/**
+	 * Checks that a running member whose progress rate falls far behind the rates of its siblings is reported, even
+	 * though no member has finished yet.
+	 */
+	@Test
+	public void testDetectSlowProgress() {
+
+		final StragglerDetector detector = new StragglerDetector(2.0f, 0.75f, 500L);
+		final ExecutionVertexID[] ids = startMembers(detector, 4);
+
+		detector.progressReported(this.jobID, ids[0], 400L, 400L);
+		detector.progressReported(this.jobID, ids[1], 400L, 380L);
+		detector.progressReported(this.jobID, ids[2], 400L, 420L);
+		detector.progressReported(this.jobID, ids[3], 400L, 50L);
+
+		// the minimum run time has not passed yet
+		assertTrue(check(detector, 400L).isEmpty());
+
+		detector.progressReported(this.jobID, ids[0], 1000L, 1000L);
+		detector.progressReported(this.jobID, ids[1], 1000L, 950L);
+		detector.progressReported(this.jobID, ids[2], 1000L, 1050L);
+		detector.progressReported(this.jobID, ids[3], 1000L, 400L);
+
+		final List<ExecutionVertexID> stragglers = check(detector, 1000L);
+		assertEquals(1, stragglers.size());
+		assertEquals(ids[3], stragglers.get(0));
+
+		// the straggler is not reported again, and the progress of unknown members is ignored
+		detector.progressReported(this.jobID, new ExecutionVertexID(), 1100L, 0L);
+		assertTrue(check(detector, 1100L).isEmpty());
+	}
+
+	private List<ExecutionVertexID> check(final StragglerDetector detector, final long now) {
+
+		final List<ExecutionVertexID> stragglers = detector.checkForStragglers(now).get(this.jobID);
+		if (stragglers == null) {
+			return Collections.emptyList();
+		}
+
+		return stragglers;
+	}
+
+	private ExecutionVertexID[] startMembers(final StragglerDetector detector, final int numberOfMembers) {
+
+		final ExecutionVertexID[] ids = new ExecutionVertexID[numberOfMembers];
+		for (int i = 0; i < numberOfMembers; ++i) {
+			ids[i] = new ExecutionVertexID();
+			detector.vertexStarted(this.jobID, this.groupID, numberOfMembers, ids[i], 0L);
+		}
+
+		return ids;
+	}
+}
@@ -0,0 +1,218 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.scheduler.fair;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.stratosphere.nephele.jobgraph.JobID;
+
+/**
+ * This class contains tests for the {@link FairShareQueue}.
+ */
+public class FairShareQueueTest {
+
+	/**
+	 * Checks that the request leading to the lowest weighted pool share is served first.
+	 */
+	@Test
+	public void testFairOrder() {
+
+		final FairShareQueue queue = new FairShareQueue();
+		queue.addPool("batch", 1.0f, 10);
+		queue.addPool("adhoc", 4.0f, 10);
+
+		final JobID large = new JobID();
+		final JobID small = new JobID();
+		queue.addJob(large, "batch");
+		queue.addJob(small, "adhoc");
+
+		queue.request(large, 8);
+		queue.request(small, 2);
+
+		final List<JobID> order = queue.getPendingRequests();
+		assertEquals(2, order.size());
+		assertEquals(small, order.get(0));
+		assertEquals(large, order.get(1));
+
+		queue.granted(small);
+		assertEquals(2, queue.getAllocatedInstances("adhoc"));
+		assertEquals(1, queue.getPendingRequests().size());
+
+		queue.stageFinished(small);
+		assertEquals(0, queue.getAllocatedInstances("adhoc"));
+
+		queue.removeJob(small);
+		queue.removeJob(large);
+		assertTrue(queue.getPendingRequests().isEmpty());
+	}
+
+	/**
+	 * Checks that jobs which have not started yet are only admitted up to the job limit of their pool.
+	 */
+	@Test
+	public void testJobLimit() {
+
+		final FairShareQueue queue = new FairShareQueue();
+		queue.addPool("limited", 1.0f, 1);
+
+		final JobID first = new JobID();
+		final JobID second = new JobID();
+		queue.addJob(first, "limited");
+		queue.addJob(second, "limited");
+		queue.request(first, 1);
+		queue.request(second, 1);
+
+		List<JobID> order = queue.getPendingRequests();
+		assertEquals(1, order.size());
+		assertEquals(first, order.get(0));
+
+		// the running job may request the instances for its next stage, the second job still has to wait
+		queue.granted(first);
+		queue.stageFinished(first);
+		queue.request(first, 1);
+		order = queue.getPendingRequests();
+		assertEquals(1, order.size());
+		assertEquals(first, order.get(0));
+
+		queue.removeJob(first);
+		order = queue.getPendingRequests();
+		assertEquals(1, order.size());
+		assertEquals(second, order.get(0));
+	}
+
+	/**
+	 * Replays a synthetic job mix on a simulated cluster: a large batch job with many long stages is submitted first,
+	 * followed by short ad-hoc jobs. The ad-hoc jobs must run at the large job's stage boundaries instead of waiting
+	 * for it to finish.
+	 */
+	@Test
+	public void testSyntheticJobMix() {
+
+		final FairShareQueue queue = new FairShareQueue();
+		queue.addPool("batch", 1.0f, 1);
+		queue.addPool("adhoc", 2.0f, 4);
+
+		final int capacity = 10;
+		final List<SimulatedJob> jobs = new ArrayList<SimulatedJob>();
+
+		// a large job with ten stages of 100 time units each, using the whole cluster
+		jobs.add(new SimulatedJob("batch", 0, 10, 10, 100));
+		// small jobs with two stages of 10 time units each
+		for (int i = 0; i < 4; ++i) {
+			jobs.add(new SimulatedJob("adhoc", 50 + 20 * i, 2, 3, 10));
+		}
+
+		int free = capacity;
+		for (long now = 0; !allFinished(jobs); ++now) {
+
+			// finish stages and submit new jobs
+			for (final SimulatedJob job : jobs) {
+				if (job.stageEnd == now) {
+					free += job.demand;
+					job.stageEnd = -1L;
+					if (++job.finishedStages == job.numberOfStages) {
+						job.finishTime = now;
+						queue.removeJob(job.jobID);
+					} else {
+						queue.stageFinished(job.jobID);
+						queue.request(job.jobID, job.demand);
+					}
+				}
+				if (job.submitTime == now) {
+					queue.addJob(job.jobID, job.pool);
+					queue.request(job.jobID, job.demand);
+				}
+			}
+
+			// serve the pending requests in fair order as long as instances are available
+			for (final JobID jobID : queue.getPendingRequests()) {
+				final SimulatedJob job = find(jobs, jobID);
+				if (job.demand > free) {
+					break;
+				}
+				free -= job.demand;
+				queue.granted(jobID);
+				job.stageEnd = now + job.stageDuration;
+			}
+
+			assertTrue(free >= 0);
+		}
+
+		final long batchFinish = jobs.get(0).finishTime;
+		for (int i = 1; i < jobs.size(); ++i) {
+			final SimulatedJob job = jobs.get(i);
+			assertTrue("Ad-hoc job " + i + " finished at " + job.finishTime, job.finishTime < 400);
+			assertTrue(job.finishTime < batchFinish);
+		}
+		assertTrue(batchFinish >= 1000);
+	}
+
+	private static boolean allFinished(final List<SimulatedJob> jobs) {
+
+		for (final SimulatedJob job : jobs) {
+			if (job.finishTime < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static SimulatedJob find(final List<SimulatedJob> jobs, final JobID jobID) {
+
+		for (final SimulatedJob job : jobs) {
+			if (job.jobID.equals(jobID)) {
+				return job;
+			}
+		}
+
+		throw new IllegalStateException("Unknown job " + jobID);
+	}
+
+	private static final class SimulatedJob {
+
+		final JobID jobID = new JobID();
+
+		final String pool;
+
+		final long submitTime;
+
+		final int numberOfStages;
+
+		final int demand;
+
+		final long stageDuration;
+
+		int finishedStages;
+
+		long stageEnd = -1L;
+
+		long finishTime = -1L;
+
+		SimulatedJob(final String pool, final long submitTime, final int numberOfStages, final int demand,
+				final long stageDuration) {
+			this.pool = pool;
+			this.submitTime = submitTime;
+			this.numberOfStages = numberOfStages;
+			this.demand = demand;
+			this.stageDuration = stageDuration;
+		}
+	}
+}
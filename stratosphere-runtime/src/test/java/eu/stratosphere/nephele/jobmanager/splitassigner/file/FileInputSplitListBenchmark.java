@@ -0,0 +1,110 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.splitassigner.file;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.nephele.instance.AbstractInstance;
+import eu.stratosphere.nephele.topology.NetworkTopology;
+
+/**
+ * Simulates many concurrent tasks requesting file input splits from one {@link FileInputSplitList}. By default,
+ * 1000 requesters on 100 hosts consume 200000 splits with three replicas each.
+ * <p>
+ * Usage: <code>FileInputSplitListBenchmark [splits] [hosts] [requesters] [batch size]</code>
+ */
+public class FileInputSplitListBenchmark {
+
+	private static final int REPLICATION = 3;
+
+	public static void main(String[] args) throws Exception {
+		final int numSplits = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		final int numHosts = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		final int numRequesters = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+		final int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+
+		for (int round = 0; round < 3; round++) {
+			runRound(numSplits, numHosts, numRequesters, batchSize);
+		}
+	}
+
+	private static void runRound(final int numSplits, final int numHosts, final int numRequesters, final int batchSize)
+			throws Exception {
+
+		final Path path = new Path("hdfs:///benchmark/input");
+		final FileInputSplitList list = new FileInputSplitList(batchSize);
+
+		final long buildStart = System.nanoTime();
+		for (int i = 0; i < numSplits; i++) {
+			final String[] hosts = new String[REPLICATION];
+			for (int r = 0; r < REPLICATION; r++) {
+				hosts[r] = "host-" + ((i + r * 7) % numHosts);
+			}
+			list.addSplit(new FileInputSplit(i, path, 0, 1, hosts));
+		}
+		final long buildMillis = (System.nanoTime() - buildStart) / 1000000;
+
+		final NetworkTopology topology = NetworkTopology.createEmptyTopology();
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final AtomicLong localSplits = new AtomicLong();
+		final AtomicLong totalSplits = new AtomicLong();
+
+		final Thread[] threads = new Thread[numRequesters];
+		for (int i = 0; i < numRequesters; i++) {
+			final String hostName = "host-" + (i % numHosts);
+			final AbstractInstance instance = FileInputSplitListTest.createInstance(hostName, topology);
+
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+
+					long local = 0;
+					long total = 0;
+					FileInputSplit split;
+					while ((split = list.getNextInputSplit(instance)) != null) {
+						total++;
+						for (String host : split.getHostNames()) {
+							if (host.equals(hostName)) {
+								local++;
+								break;
+							}
+						}
+					}
+					localSplits.addAndGet(local);
+					totalSplits.addAndGet(total);
+				}
+			};
+			threads[i].start();
+		}
+
+		final long start = System.nanoTime();
+		startLatch.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+		final long millis = (System.nanoTime() - start) / 1000000;
+
+		System.out.println(numRequesters + " requesters consumed " + totalSplits.get() + " splits in " + millis +
+			" ms (index built in " + buildMillis + " ms), " + (100 * localSplits.get() / Math.max(1, totalSplits.get())) +
+			"% local");
+	}
+}
@@ -0,0 +1,174 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.jobmanager.splitassigner.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import eu.stratosphere.core.fs.FileInputSplit;
+import eu.stratosphere.core.fs.Path;
+import eu.stratosphere.nephele.instance.AbstractInstance;
+import eu.stratosphere.nephele.instance.InstanceConnectionInfo;
+import eu.stratosphere.nephele.topology.NetworkTopology;
+
+/**
+ * Tests for the {@link FileInputSplitList}.
+ * 
+ */
+public class FileInputSplitListTest {
+
+	private static final Path PATH = new Path("file:///some/file");
+
+	private static final AtomicInteger NEXT_PORT = new AtomicInteger(1);
+
+	@Test
+	public void testLocalAssignment() {
+		final int numHosts = 4;
+		final int splitsPerHost = 100;
+
+		final FileInputSplitList list = new FileInputSplitList(8);
+		for (int i = 0; i < numHosts * splitsPerHost; i++) {
+			list.addSplit(new FileInputSplit(i, PATH, 0, 1, new String[] { "host-" + (i % numHosts) }));
+		}
+
+		final NetworkTopology topology = NetworkTopology.createEmptyTopology();
+		final AbstractInstance[] instances = new AbstractInstance[numHosts];
+		for (int i = 0; i < numHosts; i++) {
+			instances[i] = createInstance("host-" + i, topology);
+		}
+
+		final Set<Integer> assigned = new HashSet<Integer>();
+		for (int round = 0; round < splitsPerHost; round++) {
+			for (int i = 0; i < numHosts; i++) {
+				final FileInputSplit split = list.getNextInputSplit(instances[i]);
+				assertEquals("host-" + i, split.getHostNames()[0]);
+				assertTrue(assigned.add(split.getSplitNumber()));
+			}
+		}
+
+		for (int i = 0; i < numHosts; i++) {
+			assertNull(list.getNextInputSplit(instances[i]));
+		}
+	}
+
+	@Test
+	public void testRemoteAssignmentAndStealing() {
+		final FileInputSplitList list = new FileInputSplitList(4);
+		for (int i = 0; i < 10; i++) {
+			list.addSplit(new FileInputSplit(i, PATH, 0, 1, new String[] { "host-a" }));
+		}
+		list.addSplit(new FileInputSplit(10, PATH, 0, 1, null));
+
+		final NetworkTopology topology = NetworkTopology.createEmptyTopology();
+		final AbstractInstance local = createInstance("host-a", topology);
+		final AbstractInstance remote = createInstance("host-b", topology);
+
+		// the local instance reserves a batch of four splits
+		final Set<Integer> assigned = new HashSet<Integer>();
+		assertTrue(assigned.add(list.getNextInputSplit(local).getSplitNumber()));
+
+		// the remote instance takes the remaining splits from the index and then steals the reserved ones
+		FileInputSplit split;
+		int numRemote = 0;
+		while ((split = list.getNextInputSplit(remote)) != null) {
+			assertTrue(assigned.add(split.getSplitNumber()));
+			numRemote++;
+		}
+		assertEquals(10, numRemote);
+		assertNull(list.getNextInputSplit(local));
+		assertEquals(11, assigned.size());
+	}
+
+	@Test
+	public void testConcurrentAssignment() {
+		final int numHosts = 10;
+		final int numSplits = 5000;
+		final int numRequesters = 50;
+
+		final FileInputSplitList list = new FileInputSplitList(16);
+		for (int i = 0; i < numSplits; i++) {
+			final String[] hosts = i % 7 == 0 ? null : new String[] { "host-" + (i % numHosts), "host-" + ((i + 1) % numHosts) };
+			list.addSplit(new FileInputSplit(i, PATH, 0, 1, hosts));
+		}
+
+		final NetworkTopology topology = NetworkTopology.createEmptyTopology();
+		final List<Integer> assigned = Collections.synchronizedList(new ArrayList<Integer>());
+		final AtomicInteger errors = new AtomicInteger();
+
+		final Thread[] threads = new Thread[numRequesters];
+		for (int i = 0; i < numRequesters; i++) {
+			final AbstractInstance instance = createInstance("host-" + (i % (numHosts + 2)), topology);
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						FileInputSplit split;
+						while ((split = list.getNextInputSplit(instance)) != null) {
+							assigned.add(split.getSplitNumber());
+						}
+					} catch (Throwable t) {
+						t.printStackTrace();
+						errors.incrementAndGet();
+					}
+				}
+			};
+		}
+
+		try {
+			for (Thread t : threads) {
+				t.start();
+			}
+			for (Thread t : threads) {
+				t.join();
+			}
+		} catch (InterruptedException e) {
+			fail(e.getMessage());
+		}
+
+		assertEquals(0, errors.get());
+		assertEquals(numSplits, assigned.size());
+		assertEquals(numSplits, new HashSet<Integer>(assigned).size());
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	static AbstractInstance createInstance(final String hostName, final NetworkTopology topology) {
+		try {
+			final InstanceConnectionInfo connectionInfo = new InstanceConnectionInfo(
+				InetAddress.getByName("127.0.0.1"), hostName, null, NEXT_PORT.getAndIncrement(), 1);
+			return new TestInstance(connectionInfo, topology);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static final class TestInstance extends AbstractInstance {
+
+		TestInstance(final InstanceConnectionInfo connectionInfo, final NetworkTopology topology) {
+			super(null, connectionInfo, topology.getRootNode(), topology, null);
+		}
+	}
+}
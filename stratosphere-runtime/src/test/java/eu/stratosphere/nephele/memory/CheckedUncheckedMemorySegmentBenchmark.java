@@ -0,0 +1,215 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.memory;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import eu.stratosphere.core.memory.MemorySegment;
+
+/**
+ * Compares the access speed of the checked memory segment accessors with that of the unchecked
+ * accessors used by the sorters, hash tables and paged views. Besides sequential access, the benchmark
+ * reads and writes at random offsets, as the hash tables do, where the jit compiler cannot hoist the
+ * range checks out of the loop. Run with <tt>-Dstratosphere.memory.checked=true</tt> to verify that the
+ * debug switch restores the costs of the checks.
+ */
+public class CheckedUncheckedMemorySegmentBenchmark {
+	
+	private static final long LONG_VALUE = 0x1234567890abcdefl;
+	
+	private static final int INT_VALUE = 0x12345678;
+	
+	private static long sideEffect = 0;
+	
+	
+	public static void main(String[] args) {
+		final int SEGMENT_SIZE = 32 * 1024;
+		final int ROUNDS = 50000;
+		
+		final MemorySegment heap = new MemorySegment(new byte[SEGMENT_SIZE]);
+		final MemorySegment offHeap = new MemorySegment(ByteBuffer.allocateDirect(SEGMENT_SIZE));
+		
+		// random offsets, aligned to the size of a long, as the bucket accesses of the hash tables
+		final int[] offsets = new int[SEGMENT_SIZE / 8];
+		final Random rnd = new Random(42);
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = rnd.nextInt(SEGMENT_SIZE / 8) * 8;
+		}
+		
+		// run everything twice, the first round warms up the jit compiler
+		for (int i = 0; i < 2; i++) {
+			System.out.println(i == 0 ? "--- warm-up ---" : "--- measurement ---");
+			compare("heap", heap, offsets, ROUNDS);
+			compare("off-heap", offHeap, offsets, ROUNDS);
+		}
+		
+		System.out.println(sideEffect == 42 ? "" : " ");
+	}
+	
+	private static void compare(String kind, MemorySegment segment, int[] offsets, int rounds) {
+		final int num = segment.size() / 8;
+		
+		print("Writing longs", kind, rounds, timePutLongs(segment, num, rounds, false), timePutLongs(segment, num, rounds, true));
+		print("Reading longs", kind, rounds, timeGetLongs(segment, num, rounds, false), timeGetLongs(segment, num, rounds, true));
+		print("Writing big endian longs", kind, rounds, timePutLongsBigEndian(segment, num, rounds, false), timePutLongsBigEndian(segment, num, rounds, true));
+		print("Reading big endian longs", kind, rounds, timeGetLongsBigEndian(segment, num, rounds, false), timeGetLongsBigEndian(segment, num, rounds, true));
+		print("Writing random longs", kind, rounds, timePutRandomLongs(segment, offsets, rounds, false), timePutRandomLongs(segment, offsets, rounds, true));
+		print("Reading random longs", kind, rounds, timeGetRandomLongs(segment, offsets, rounds, false), timeGetRandomLongs(segment, offsets, rounds, true));
+		print("Reading random ints", kind, rounds, timeGetRandomInts(segment, offsets, rounds, false), timeGetRandomInts(segment, offsets, rounds, true));
+	}
+	
+	private static void print(String what, String kind, int rounds, long checkedNanos, long uncheckedNanos) {
+		System.out.println(String.format("%s, %d rounds, %s segment: checked=%,d nsecs, unchecked=%,d nsecs.",
+			what, rounds, kind, checkedNanos, uncheckedNanos));
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static long timePutLongs(final MemorySegment segment, final int num, final int rounds, final boolean unchecked) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			if (unchecked) {
+				for (int i = 0; i < num; i++) {
+					segment.putLongUnchecked(offset, LONG_VALUE);
+					offset += 8;
+				}
+			} else {
+				for (int i = 0; i < num; i++) {
+					segment.putLong(offset, LONG_VALUE);
+					offset += 8;
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetLongs(final MemorySegment segment, final int num, final int rounds, final boolean unchecked) {
+		long l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			if (unchecked) {
+				for (int i = 0; i < num; i++) {
+					l += segment.getLongUnchecked(offset);
+					offset += 8;
+				}
+			} else {
+				for (int i = 0; i < num; i++) {
+					l += segment.getLong(offset);
+					offset += 8;
+				}
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timePutLongsBigEndian(final MemorySegment segment, final int num, final int rounds, final boolean unchecked) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			if (unchecked) {
+				for (int i = 0; i < num; i++) {
+					segment.putLongBigEndianUnchecked(offset, LONG_VALUE);
+					offset += 8;
+				}
+			} else {
+				for (int i = 0; i < num; i++) {
+					segment.putLongBigEndian(offset, LONG_VALUE);
+					offset += 8;
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetLongsBigEndian(final MemorySegment segment, final int num, final int rounds, final boolean unchecked) {
+		long l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			if (unchecked) {
+				for (int i = 0; i < num; i++) {
+					l += segment.getLongBigEndianUnchecked(offset);
+					offset += 8;
+				}
+			} else {
+				for (int i = 0; i < num; i++) {
+					l += segment.getLongBigEndian(offset);
+					offset += 8;
+				}
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timePutRandomLongs(final MemorySegment segment, final int[] offsets, final int rounds, final boolean unchecked) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			if (unchecked) {
+				for (int i = 0; i < offsets.length; i++) {
+					segment.putLongUnchecked(offsets[i], LONG_VALUE + i);
+				}
+			} else {
+				for (int i = 0; i < offsets.length; i++) {
+					segment.putLong(offsets[i], LONG_VALUE + i);
+				}
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetRandomLongs(final MemorySegment segment, final int[] offsets, final int rounds, final boolean unchecked) {
+		long l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			if (unchecked) {
+				for (int i = 0; i < offsets.length; i++) {
+					l += segment.getLongUnchecked(offsets[i]);
+				}
+			} else {
+				for (int i = 0; i < offsets.length; i++) {
+					l += segment.getLong(offsets[i]);
+				}
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timeGetRandomInts(final MemorySegment segment, final int[] offsets, final int rounds, final boolean unchecked) {
+		int l = INT_VALUE;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			if (unchecked) {
+				for (int i = 0; i < offsets.length; i++) {
+					l += segment.getIntUnchecked(offsets[i]);
+				}
+			} else {
+				for (int i = 0; i < offsets.length; i++) {
+					l += segment.getInt(offsets[i]);
+				}
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+}
@@ -0,0 +1,210 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.memory;
+
+import java.nio.ByteBuffer;
+
+import eu.stratosphere.core.memory.MemorySegment;
+
+/**
+ * Compares the access speed of memory segments backed by heap memory with that of memory segments
+ * backed by off-heap memory.
+ */
+public class HeapOffHeapMemorySegmentBenchmark {
+	
+	private static final long LONG_VALUE = 0x1234567890abcdefl;
+	
+	private static final int INT_VALUE = 0x12345678;
+	
+	private static final byte BYTE_VALUE = 0x56;
+	
+	private static long sideEffect = 0;
+	
+	
+	public static void main(String[] args) {
+		final int SMALL_SEGMENT_SIZE = 32 * 1024;
+		final int LARGE_SEGMENT_SIZE = 256 * 1024 * 1024;
+		
+		final int SMALL_SEGMENTS_ROUNDS = 50000;
+		final int LARGE_SEGMENT_ROUNDS = 6;
+		
+		final MemorySegment smallHeap = new MemorySegment(new byte[SMALL_SEGMENT_SIZE]);
+		final MemorySegment smallOffHeap = new MemorySegment(ByteBuffer.allocateDirect(SMALL_SEGMENT_SIZE));
+		final MemorySegment largeHeap = new MemorySegment(new byte[LARGE_SEGMENT_SIZE]);
+		final MemorySegment largeOffHeap = new MemorySegment(ByteBuffer.allocateDirect(LARGE_SEGMENT_SIZE));
+		
+		// run everything twice, the first round warms up the jit compiler
+		for (int i = 0; i < 2; i++) {
+			System.out.println(i == 0 ? "--- warm-up ---" : "--- measurement ---");
+			compare(smallHeap, smallOffHeap, SMALL_SEGMENTS_ROUNDS);
+			compare(largeHeap, largeOffHeap, LARGE_SEGMENT_ROUNDS);
+		}
+		
+		System.out.println(sideEffect == 42 ? "" : " ");
+	}
+	
+	private static void compare(MemorySegment heap, MemorySegment offHeap, int rounds) {
+		final int size = heap.size();
+		
+		print("Writing longs", size, rounds, timePutLongs(heap, size / 8, rounds), timePutLongs(offHeap, size / 8, rounds));
+		print("Reading longs", size, rounds, timeGetLongs(heap, size / 8, rounds), timeGetLongs(offHeap, size / 8, rounds));
+		print("Writing big endian longs", size, rounds, timePutLongsBigEndian(heap, size / 8, rounds), timePutLongsBigEndian(offHeap, size / 8, rounds));
+		print("Reading big endian longs", size, rounds, timeGetLongsBigEndian(heap, size / 8, rounds), timeGetLongsBigEndian(offHeap, size / 8, rounds));
+		print("Writing ints", size, rounds, timePutInts(heap, size / 4, rounds), timePutInts(offHeap, size / 4, rounds));
+		print("Reading ints", size, rounds, timeGetInts(heap, size / 4, rounds), timeGetInts(offHeap, size / 4, rounds));
+		print("Writing bytes", size, rounds, timePutBytes(heap, size, rounds), timePutBytes(offHeap, size, rounds));
+		print("Reading bytes", size, rounds, timeGetBytes(heap, size, rounds), timeGetBytes(offHeap, size, rounds));
+		print("Writing 1024 byte arrays", size, rounds, timePutByteArrays(heap, size / 1024, rounds), timePutByteArrays(offHeap, size / 1024, rounds));
+		print("Reading 1024 byte arrays", size, rounds, timeGetByteArrays(heap, size / 1024, rounds), timeGetByteArrays(offHeap, size / 1024, rounds));
+	}
+	
+	private static void print(String what, int size, int rounds, long heapNanos, long offHeapNanos) {
+		System.out.println(String.format("%s, %d rounds, %d bytes segment: heap=%,d nsecs, off-heap=%,d nsecs.",
+			what, rounds, size, heapNanos, offHeapNanos));
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static long timePutLongs(final MemorySegment segment, final int num, final int rounds) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				segment.putLong(offset, LONG_VALUE);
+				offset += 8;
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetLongs(final MemorySegment segment, final int num, final int rounds) {
+		long l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				l += segment.getLong(offset);
+				offset += 8;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timePutLongsBigEndian(final MemorySegment segment, final int num, final int rounds) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				segment.putLongBigEndian(offset, LONG_VALUE);
+				offset += 8;
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetLongsBigEndian(final MemorySegment segment, final int num, final int rounds) {
+		long l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				l += segment.getLongBigEndian(offset);
+				offset += 8;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timePutInts(final MemorySegment segment, final int num, final int rounds) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				segment.putInt(offset, INT_VALUE);
+				offset += 4;
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetInts(final MemorySegment segment, final int num, final int rounds) {
+		int l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				l += segment.getInt(offset);
+				offset += 4;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timePutBytes(final MemorySegment segment, final int num, final int rounds) {
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0; i < num; i++) {
+				segment.put(i, BYTE_VALUE);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetBytes(final MemorySegment segment, final int num, final int rounds) {
+		int l = 0;
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0; i < num; i++) {
+				l += segment.get(i);
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += l;
+		return elapsed;
+	}
+	
+	private static long timePutByteArrays(final MemorySegment segment, final int num, final int rounds) {
+		final byte[] array = new byte[1024];
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				segment.put(offset, array);
+				offset += 1024;
+			}
+		}
+		return System.nanoTime() - start;
+	}
+	
+	private static long timeGetByteArrays(final MemorySegment segment, final int num, final int rounds) {
+		final byte[] array = new byte[1024];
+		long start = System.nanoTime();
+		for (int round = 0; round < rounds; round++) {
+			int offset = 0;
+			for (int i = 0; i < num; i++) {
+				segment.get(offset, array);
+				offset += 1024;
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		sideEffect += array[0];
+		return elapsed;
+	}
+}
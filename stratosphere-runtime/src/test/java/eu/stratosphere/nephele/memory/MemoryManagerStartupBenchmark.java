@@ -0,0 +1,62 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.memory;
+
+import eu.stratosphere.nephele.services.memorymanager.DefaultMemoryManagerTest;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+
+/**
+ * Measures the time it takes to create a memory manager that allocates its memory eagerly, lazily, or
+ * lazily with pre-touching in the background, together with the time until the first pages are available.
+ * The size of the memory in megabytes may be given as the first argument; the JVM must be started with
+ * a sufficiently large heap (and direct memory size, for the off-heap measurement).
+ */
+public class MemoryManagerStartupBenchmark {
+	
+	private static final int PAGE_SIZE = DefaultMemoryManager.DEFAULT_PAGE_SIZE;
+	
+	
+	public static void main(String[] args) throws Exception {
+		final long memorySize = (args.length > 0 ? Long.parseLong(args[0]) : 512) * 1024 * 1024;
+		
+		// run everything twice, the first round warms up the jit compiler
+		for (int i = 0; i < 2; i++) {
+			System.out.println(i == 0 ? "--- warm-up ---" : "--- measurement ---");
+			for (boolean offHeap : new boolean[] { false, true }) {
+				measure("eager", memorySize, offHeap, false, false);
+				measure("lazy", memorySize, offHeap, true, false);
+				measure("lazy, pre-touched", memorySize, offHeap, true, true);
+			}
+		}
+	}
+	
+	private static void measure(String mode, long memorySize, boolean offHeap, boolean lazy, boolean preTouch)
+			throws Exception
+	{
+		System.gc();
+		
+		final long start = System.nanoTime();
+		final DefaultMemoryManager memoryManager = new DefaultMemoryManager(memorySize, PAGE_SIZE, offHeap, lazy, preTouch, -1);
+		final long created = System.nanoTime();
+		
+		final DefaultMemoryManagerTest.DummyInvokable owner = new DefaultMemoryManagerTest.DummyInvokable();
+		memoryManager.release(memoryManager.allocatePages(owner, 64));
+		final long firstPages = System.nanoTime();
+		
+		memoryManager.shutdown();
+		
+		System.out.println(String.format("%s, %s, %d MB: startup=%,d usecs, first 64 pages=%,d usecs.",
+			mode, offHeap ? "off-heap" : "heap", memorySize >>> 20, (created - start) / 1000, (firstPages - created) / 1000));
+	}
+}
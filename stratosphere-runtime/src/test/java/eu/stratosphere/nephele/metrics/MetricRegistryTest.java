@@ -0,0 +1,196 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * Tests the counters, histograms and snapshots of the {@link MetricRegistry} and their export through JMX.
+ */
+public class MetricRegistryTest {
+
+	@Test
+	public void testConcurrentCounterUpdates() throws Exception {
+
+		final MetricRegistry registry = new MetricRegistry();
+		final Counter counter = registry.counter("test.counter");
+		assertSame(counter, registry.counter("test.counter"));
+
+		final int numThreads = 8;
+		final int numIncrements = 100000;
+		final Thread[] threads = new Thread[numThreads];
+		for (int i = 0; i < numThreads; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < numIncrements; j++) {
+						counter.increment();
+					}
+					counter.add(-numIncrements / 2);
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+
+		assertEquals(numThreads * (numIncrements - numIncrements / 2), counter.get());
+		assertEquals(counter.get(), registry.snapshot().getValue("test.counter"));
+	}
+
+	@Test
+	public void testHistogram() {
+
+		final Histogram histogram = new Histogram();
+		assertEquals(0L, histogram.snapshot().getCount());
+
+		// 90 small values, 10 large ones
+		for (int i = 0; i < 90; i++) {
+			histogram.record(3);
+		}
+		for (int i = 0; i < 10; i++) {
+			histogram.record(1000);
+		}
+		histogram.record(-5);
+
+		final HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(101L, snapshot.getCount());
+		assertEquals(90 * 3 + 10 * 1000, snapshot.getSum());
+		assertEquals(1000L, snapshot.getMax());
+		assertEquals(3L, snapshot.getPercentile(0.5));
+		assertEquals(3L, snapshot.getPercentile(0.9));
+		// the upper end of the bucket [512, 1024) is capped by the maximum
+		assertEquals(1000L, snapshot.getPercentile(0.99));
+
+		assertEquals(0, Histogram.bucket(0L));
+		assertEquals(1, Histogram.bucket(1L));
+		assertEquals(2, Histogram.bucket(3L));
+		assertEquals(3, Histogram.bucket(4L));
+		assertEquals(Histogram.NUM_BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+
+		final Histogram large = new Histogram();
+		large.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, large.snapshot().getPercentile(1.0));
+	}
+
+	@Test
+	public void testSnapshotSerializationAndAddition() throws IOException {
+
+		final MetricRegistry registry = new MetricRegistry();
+		registry.counter("a.counter").add(5);
+		registry.histogram("a.histogram").record(7);
+		registry.histogram("a.histogram").record(100);
+		registry.gauge("a.gauge", new Gauge() {
+			@Override
+			public long getValue() {
+				return 42L;
+			}
+		});
+
+		final MetricsSnapshot original = registry.snapshot();
+
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		original.write(new DataOutputStream(baos));
+		final MetricsSnapshot copy = new MetricsSnapshot();
+		copy.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+
+		assertEquals(5L, copy.getValue("a.counter"));
+		assertEquals(42L, copy.getValue("a.gauge"));
+		assertEquals(0L, copy.getValue("missing"));
+		assertNull(copy.getHistogram("missing"));
+		assertEquals(2L, copy.getHistogram("a.histogram").getCount());
+		assertEquals(107L, copy.getHistogram("a.histogram").getSum());
+		assertEquals(100L, copy.getHistogram("a.histogram").getMax());
+
+		copy.add(original);
+		assertEquals(10L, copy.getValue("a.counter"));
+		assertEquals(4L, copy.getHistogram("a.histogram").getCount());
+		assertEquals(100L, copy.getHistogram("a.histogram").getPercentile(1.0));
+
+		final MetricsSnapshot empty = new MetricsSnapshot();
+		assertTrue(empty.isEmpty());
+		empty.add(original);
+		assertFalse(empty.isEmpty());
+		assertEquals(original.toString(), empty.toString());
+	}
+
+	@Test
+	public void testConflictingTypes() {
+
+		final MetricRegistry registry = new MetricRegistry();
+		registry.counter("a");
+		try {
+			registry.histogram("a");
+			fail("A histogram was registered under the name of a counter");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			registry.gauge("a", new Gauge() {
+				@Override
+				public long getValue() {
+					return 0;
+				}
+			});
+			fail("A gauge was registered under the name of a counter");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertNotNull(registry.counter("a"));
+
+		registry.remove("a");
+		assertNotNull(registry.histogram("a"));
+	}
+
+	@Test
+	public void testJmxExport() throws Exception {
+
+		final MetricRegistry registry = new MetricRegistry();
+		registry.counter("test.counter").add(3);
+		registry.histogram("test.histogram").record(10);
+
+		final ObjectName name = MetricRegistryMBean.register(registry, "type=Test,name=testJmxExport");
+		assertNotNull(name);
+		try {
+			assertEquals(Long.valueOf(3L), ManagementFactory.getPlatformMBeanServer().getAttribute(name, "test.counter"));
+			assertEquals(Long.valueOf(1L),
+				ManagementFactory.getPlatformMBeanServer().getAttribute(name, "test.histogram.count"));
+
+			// metrics registered later show up as well
+			registry.counter("test.later").increment();
+			assertEquals(Long.valueOf(1L), ManagementFactory.getPlatformMBeanServer().getAttribute(name, "test.later"));
+		} finally {
+			MetricRegistryMBean.unregister(name);
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+	}
+}
@@ -13,6 +13,7 @@
 
 package eu.stratosphere.nephele.services.memorymanager;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -158,6 +159,64 @@ public class DefaultMemoryManagerTest
 		}
 	}
 	
+	@Test
+	public void releaseWhileAllocationWaits()
+	{
+		// all pages are guaranteed to the managed memory, the network has borrowed half of them
+		final UnifiedMemoryPool pool = new UnifiedMemoryPool(4, PAGE_SIZE, false, 4, 0);
+		final DefaultMemoryManager manager = new DefaultMemoryManager(pool);
+		try {
+			final AbstractInvokable firstOwner = new DummyInvokable();
+			final AbstractInvokable secondOwner = new DummyInvokable();
+			
+			manager.allocatePages(firstOwner, 2);
+			final List<ByteBuffer> networkBuffers = new ArrayList<ByteBuffer>();
+			Assert.assertTrue(pool.requestSegments(UnifiedMemoryPool.Consumer.NETWORK_BUFFERS, 2, networkBuffers, 0));
+			
+			// the second owner waits for the borrowed pages to be returned
+			final List<MemorySegment> segs = new ArrayList<MemorySegment>();
+			final Throwable[] error = new Throwable[1];
+			final Thread allocator = new Thread() {
+				@Override
+				public void run() {
+					try {
+						manager.allocatePages(secondOwner, segs, 2);
+					} catch (Throwable t) {
+						error[0] = t;
+					}
+				}
+			};
+			allocator.start();
+			while (pool.getNumberOfReclaimWaits(UnifiedMemoryPool.Consumer.MANAGED_MEMORY) == 0) {
+				Thread.sleep(1);
+			}
+			
+			// the pages released by the first owner satisfy the waiting request
+			final long start = System.currentTimeMillis();
+			manager.releaseAll(firstOwner);
+			Assert.assertTrue("The release waited for the pending allocation.", System.currentTimeMillis() - start < 5000);
+			
+			allocator.join(5000);
+			Assert.assertFalse("The allocation did not finish.", allocator.isAlive());
+			Assert.assertNull(error[0]);
+			Assert.assertEquals(2, segs.size());
+			
+			manager.releaseAll(secondOwner);
+			for (ByteBuffer buffer : networkBuffers) {
+				pool.releaseSegment(UnifiedMemoryPool.Consumer.NETWORK_BUFFERS, buffer);
+			}
+			Assert.assertTrue(manager.verifyEmpty());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("Test encountered an exception: " + e.getMessage());
+		}
+		finally {
+			manager.shutdown();
+			pool.destroy();
+		}
+	}
+	
 	private boolean allMemorySegmentsValid(List<MemorySegment> memSegs)
 	{
 		for (MemorySegment seg : memSegs) {
@@ -46,7 +46,7 @@ public class MemorySegmentTest {
 	@Before
 	public void setUp() throws Exception{
 		try {
-			this.manager = new DefaultMemoryManager(MANAGED_MEMORY_SIZE, PAGE_SIZE);
+			this.manager = createMemoryManager();
 			this.segment = manager.allocatePages(new DefaultMemoryManagerTest.DummyInvokable(), 1).get(0);
 			this.random = new Random(RANDOM_SEED);
 		} catch (Exception e) {
@@ -55,6 +55,10 @@ public class MemorySegmentTest {
 		}
 	}
 
+	protected DefaultMemoryManager createMemoryManager() {
+		return new DefaultMemoryManager(MANAGED_MEMORY_SIZE, PAGE_SIZE);
+	}
+
 	@After
 	public void tearDown() {
 		this.manager.release(this.segment);
@@ -540,4 +544,81 @@ public class MemorySegmentTest {
 			}
 		}
 	}
+	
+	@Test
+	public void uncheckedAccess() {
+		// values written by the unchecked accessors must be read back by the checked ones and vice versa
+		long seed = random.nextLong();
+		
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 8; i += 8) {
+			segment.putLongUnchecked(i, random.nextLong());
+		}
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 8; i += 8) {
+			assertEquals(random.nextLong(), segment.getLong(i));
+		}
+		
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 8; i += 8) {
+			segment.putLongBigEndian(i, random.nextLong());
+		}
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 8; i += 8) {
+			assertEquals(random.nextLong(), segment.getLongBigEndianUnchecked(i));
+		}
+		
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 4; i += 4) {
+			segment.putIntBigEndianUnchecked(i, random.nextInt());
+		}
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 4; i += 4) {
+			assertEquals(random.nextInt(), segment.getIntBigEndian(i));
+			assertEquals(segment.getInt(i), segment.getIntUnchecked(i));
+		}
+		
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 2; i += 2) {
+			segment.putShortUnchecked(i, (short) random.nextInt());
+		}
+		random.setSeed(seed);
+		for (int i = 0; i <= PAGE_SIZE - 2; i += 2) {
+			assertEquals((short) random.nextInt(), segment.getShort(i));
+			assertEquals(segment.get(i), segment.getUnchecked(i));
+		}
+	}
+	
+	@Test
+	public void uncheckedAccessAfterRelease() throws Exception {
+		// a released segment must fail with an exception, not crash or touch memory handed out again
+		final MemorySegment released = this.manager.allocatePages(new DefaultMemoryManagerTest.DummyInvokable(), 1).get(0);
+		this.manager.release(released);
+		assertTrue(released.isFreed());
+		
+		try {
+			released.getIntUnchecked(0);
+			fail("Read from a released segment.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			released.putLongUnchecked(8, 42L);
+			fail("Wrote to a released segment.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			released.getUnchecked(PAGE_SIZE - 1);
+			fail("Read from a released segment.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			released.putShortUnchecked(0, (short) 1);
+			fail("Wrote to a released segment.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
 }
@@ -0,0 +1,128 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.services.memorymanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+
+/**
+ * Runs the memory segment tests against off-heap memory and checks that heap and off-heap segments
+ * interoperate.
+ */
+public class OffHeapMemorySegmentTest extends MemorySegmentTest {
+
+	@Override
+	protected DefaultMemoryManager createMemoryManager() {
+		return new DefaultMemoryManager(MANAGED_MEMORY_SIZE, PAGE_SIZE, true);
+	}
+
+	@Test
+	public void offHeapAllocation() throws Exception {
+		final DefaultMemoryManager memMan = createMemoryManager();
+		assertTrue(memMan.isOffHeap());
+		
+		final List<MemorySegment> segments = memMan.allocatePages(new DefaultMemoryManagerTest.DummyInvokable(),
+			MANAGED_MEMORY_SIZE / PAGE_SIZE - 1);
+		
+		// pages must not overlap
+		for (int i = 0; i < segments.size(); i++) {
+			final MemorySegment seg = segments.get(i);
+			assertTrue(seg.isOffHeap());
+			assertEquals(PAGE_SIZE, seg.size());
+			seg.putInt(0, i);
+			seg.putInt(PAGE_SIZE - 4, i);
+		}
+		for (int i = 0; i < segments.size(); i++) {
+			assertEquals(i, segments.get(i).getInt(0));
+			assertEquals(i, segments.get(i).getInt(PAGE_SIZE - 4));
+		}
+		
+		final MemorySegment released = segments.get(0);
+		memMan.release(segments);
+		assertTrue(released.isFreed());
+		try {
+			released.getInt(0);
+			fail("IndexOutOfBoundsException expected");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+		
+		assertTrue(memMan.verifyEmpty());
+		memMan.shutdown();
+	}
+
+	@Test
+	public void heapAndOffHeapInteroperate() {
+		final int size = 4096;
+		final MemorySegment heap = new MemorySegment(new byte[size]);
+		final MemorySegment offHeap = new MemorySegment(ByteBuffer.allocateDirect(size));
+		final MemorySegment offHeap2 = new MemorySegment(ByteBuffer.allocateDirect(size));
+		assertFalse(heap.isOffHeap());
+		assertTrue(offHeap.isOffHeap());
+		
+		// same byte order in both kinds of memory
+		heap.putLongBigEndian(8, 0x0102030405060708L);
+		offHeap.putLongBigEndian(8, 0x0102030405060708L);
+		heap.putChar(0, (char) 0x4142);
+		offHeap.putChar(0, (char) 0x4142);
+		assertEquals(0x41, heap.get(0));
+		assertEquals(0x41, offHeap.get(0));
+		assertEquals(0x01, offHeap.get(8));
+		assertEquals(0x08, offHeap.get(15));
+		assertEquals(0, MemorySegment.compare(heap, offHeap, 8, 8, 8));
+		
+		// copies in all directions
+		final byte[] data = new byte[size];
+		new Random(RANDOM_SEED).nextBytes(data);
+		heap.put(0, data);
+		heap.copyTo(0, offHeap, 0, size);
+		offHeap.copyTo(0, offHeap2, 0, size);
+		
+		final byte[] result = new byte[size];
+		offHeap2.get(0, result);
+		assertArrayEquals(data, result);
+		assertEquals(0, MemorySegment.compare(heap, offHeap2, 0, 0, size));
+		
+		// swapping
+		offHeap.put(100, (byte) (data[200] + 1));
+		MemorySegment.swapBytes(offHeap, offHeap2, new byte[16], 100, 200, 1);
+		assertEquals(data[200], offHeap.get(100));
+		assertEquals((byte) (data[200] + 1), offHeap2.get(200));
+		
+		// byte buffer transfers and wrapping
+		final ByteBuffer target = ByteBuffer.allocate(64);
+		heap.put(64, data, 0, 64);
+		offHeap.put(0, ByteBuffer.wrap(data), 64);
+		offHeap.get(0, target, 64);
+		assertArrayEquals(Arrays.copyOf(data, 64), target.array());
+		
+		final ByteBuffer wrapped = offHeap.wrap(16, 32);
+		assertEquals(16, wrapped.position());
+		assertEquals(48, wrapped.limit());
+		assertEquals(data[16], wrapped.get(16));
+	}
+}
@@ -0,0 +1,204 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.services.memorymanager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.UnifiedMemoryPool.Consumer;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+
+public class UnifiedMemoryPoolTest {
+	
+	private static final int SEGMENT_SIZE = 4096;
+
+	@Test
+	public void testGuaranteesAndBorrowing() throws Exception {
+		final UnifiedMemoryPool pool = new UnifiedMemoryPool(10, SEGMENT_SIZE, false, 6, 2);
+		
+		// the managed memory may borrow all but the guarantee of the network buffers
+		final List<ByteBuffer> managed = new ArrayList<ByteBuffer>();
+		assertFalse(pool.requestSegments(Consumer.MANAGED_MEMORY, 9, managed, 0));
+		assertTrue(pool.requestSegments(Consumer.MANAGED_MEMORY, 8, managed, 0));
+		assertEquals(2, pool.getNumberOfBorrowedSegments(Consumer.MANAGED_MEMORY));
+		
+		// the network buffers still get their guarantee
+		final List<ByteBuffer> network = new ArrayList<ByteBuffer>();
+		for (int i = 0; i < 2; i++) {
+			network.add(pool.requestSegment(Consumer.NETWORK_BUFFERS));
+		}
+		assertNull(pool.requestSegment(Consumer.NETWORK_BUFFERS));
+		
+		for (ByteBuffer b : managed) {
+			pool.releaseSegment(Consumer.MANAGED_MEMORY, b);
+		}
+		managed.clear();
+		
+		// the network buffers may borrow the unused managed memory
+		ByteBuffer b;
+		while ((b = pool.requestSegment(Consumer.NETWORK_BUFFERS)) != null) {
+			network.add(b);
+		}
+		assertEquals(10, network.size());
+		assertEquals(8, pool.getNumberOfBorrowedSegments(Consumer.NETWORK_BUFFERS));
+		assertEquals(10, pool.getPeakNumberOfSegmentsInUse(Consumer.NETWORK_BUFFERS));
+		assertEquals(8, pool.getPeakNumberOfSegmentsInUse(Consumer.MANAGED_MEMORY));
+		
+		for (ByteBuffer seg : network) {
+			pool.releaseSegment(Consumer.NETWORK_BUFFERS, seg);
+		}
+		assertEquals(10, pool.getNumberOfFreeSegments());
+		assertEquals(0, pool.getNumberOfSegmentsInUse(Consumer.NETWORK_BUFFERS));
+	}
+	
+	@Test
+	public void testReclaimBorrowedNetworkBuffers() throws Exception {
+		final UnifiedMemoryPool pool = new UnifiedMemoryPool(10, SEGMENT_SIZE, false, 6, 2);
+		
+		final List<ByteBuffer> network = new ArrayList<ByteBuffer>();
+		for (int i = 0; i < 8; i++) {
+			network.add(pool.requestSegment(Consumer.NETWORK_BUFFERS));
+		}
+		
+		// the managed memory waits for borrowed buffers only within its guarantee
+		final List<ByteBuffer> managed = new ArrayList<ByteBuffer>();
+		assertFalse(pool.requestSegments(Consumer.MANAGED_MEMORY, 7, managed, 100));
+		
+		// recycle borrowed network buffers in the background
+		final Thread recycler = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(200);
+					for (int i = 0; i < 4; i++) {
+						pool.releaseSegment(Consumer.NETWORK_BUFFERS, network.remove(network.size() - 1));
+					}
+				} catch (InterruptedException e) {
+					// ignore
+				}
+			}
+		};
+		recycler.start();
+		
+		assertTrue(pool.requestSegments(Consumer.MANAGED_MEMORY, 6, managed, 10000));
+		recycler.join();
+		assertEquals(6, managed.size());
+		assertEquals(1, pool.getNumberOfReclaimWaits(Consumer.MANAGED_MEMORY));
+		assertEquals(4, pool.getNumberOfSegmentsInUse(Consumer.NETWORK_BUFFERS));
+	}
+	
+	@Test
+	public void testLazyAllocation() throws Exception {
+		final UnifiedMemoryPool pool = new UnifiedMemoryPool(10, SEGMENT_SIZE, false, 6, 2, true, false, -1);
+		assertEquals(10, pool.getNumberOfUnallocatedSegments());
+		assertEquals(10, pool.getNumberOfFreeSegments());
+		
+		// only the requested segments are allocated, and they are reused after their release
+		final List<ByteBuffer> managed = new ArrayList<ByteBuffer>();
+		assertTrue(pool.requestSegments(Consumer.MANAGED_MEMORY, 4, managed, 0));
+		assertEquals(6, pool.getNumberOfUnallocatedSegments());
+		assertEquals(6, pool.getNumberOfFreeSegments());
+		
+		for (ByteBuffer b : managed) {
+			assertEquals(SEGMENT_SIZE, b.capacity());
+			pool.releaseSegment(Consumer.MANAGED_MEMORY, b);
+		}
+		assertTrue(pool.requestSegments(Consumer.MANAGED_MEMORY, 4, new ArrayList<ByteBuffer>(), 0));
+		assertEquals(6, pool.getNumberOfUnallocatedSegments());
+		
+		// the guarantees are computed on the allocated and the unallocated segments
+		assertTrue(pool.requestSegments(Consumer.MANAGED_MEMORY, 4, new ArrayList<ByteBuffer>(), 0));
+		assertFalse(pool.requestSegments(Consumer.MANAGED_MEMORY, 1, new ArrayList<ByteBuffer>(), 0));
+		assertNotNull(pool.requestSegment(Consumer.NETWORK_BUFFERS));
+		assertNotNull(pool.requestSegment(Consumer.NETWORK_BUFFERS));
+		assertEquals(0, pool.getNumberOfUnallocatedSegments());
+		pool.destroy();
+		
+		// pre-touching allocates the memory in the background
+		final UnifiedMemoryPool preTouched = new UnifiedMemoryPool(10, SEGMENT_SIZE, true, 6, 2, true, true, -1);
+		final long deadline = System.currentTimeMillis() + 10000;
+		while (preTouched.getNumberOfUnallocatedSegments() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, preTouched.getNumberOfUnallocatedSegments());
+		assertEquals(10, preTouched.getNumberOfFreeSegments());
+		preTouched.destroy();
+	}
+	
+	@Test
+	public void testIdleRelease() throws Exception {
+		final UnifiedMemoryPool pool = new UnifiedMemoryPool(10, SEGMENT_SIZE, false, 6, 2, false, false, 50);
+		assertEquals(0, pool.getNumberOfUnallocatedSegments());
+		
+		// no memory is released while segments are in use
+		final ByteBuffer segment = pool.requestSegment(Consumer.NETWORK_BUFFERS);
+		Thread.sleep(300);
+		assertEquals(0, pool.getNumberOfIdleReleases());
+		pool.releaseSegment(Consumer.NETWORK_BUFFERS, segment);
+		
+		final long deadline = System.currentTimeMillis() + 10000;
+		while (pool.getNumberOfIdleReleases() == 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(10, pool.getNumberOfUnallocatedSegments());
+		assertEquals(10, pool.getNumberOfFreeSegments());
+		
+		// the released memory is allocated again on demand
+		final List<ByteBuffer> managed = new ArrayList<ByteBuffer>();
+		assertTrue(pool.requestSegments(Consumer.MANAGED_MEMORY, 6, managed, 0));
+		assertEquals(6, managed.size());
+		pool.destroy();
+	}
+	
+	@Test
+	public void testMemoryManagerOnSharedPool() throws Exception {
+		final UnifiedMemoryPool pool = new UnifiedMemoryPool(32, SEGMENT_SIZE, true, 24, 4);
+		final DefaultMemoryManager memMan = new DefaultMemoryManager(pool);
+		final DefaultMemoryManagerTest.DummyInvokable owner = new DefaultMemoryManagerTest.DummyInvokable();
+		
+		final ByteBuffer networkBuffer = pool.requestSegment(Consumer.NETWORK_BUFFERS);
+		assertNotNull(networkBuffer);
+		
+		// the memory manager may use its own pages plus the elastic part of the network buffers
+		final List<MemorySegment> segments = memMan.allocatePages(owner, 28);
+		assertEquals(28, segments.size());
+		assertTrue(segments.get(0).isOffHeap());
+		try {
+			memMan.allocatePages(owner, 1);
+			fail("Expected MemoryAllocationException.");
+		} catch (MemoryAllocationException maex) {
+			// expected
+		}
+		assertEquals(28, pool.getNumberOfSegmentsInUse(Consumer.MANAGED_MEMORY));
+		
+		memMan.releaseAll(owner);
+		assertTrue(memMan.verifyEmpty());
+		assertEquals(31, pool.getNumberOfFreeSegments());
+		
+		pool.releaseSegment(Consumer.NETWORK_BUFFERS, networkBuffer);
+		memMan.shutdown();
+		assertEquals(32, pool.getNumberOfFreeSegments());
+	}
+}
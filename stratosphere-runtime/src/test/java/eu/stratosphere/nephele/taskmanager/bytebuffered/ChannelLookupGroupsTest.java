@@ -0,0 +1,97 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.taskmanager.bytebuffered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import eu.stratosphere.nephele.io.channels.ChannelID;
+
+public class ChannelLookupGroupsTest {
+
+	@Test
+	public void testOneLookupPerGate() {
+		// the 500 producers of a 500x500 all-to-all connection, each with one gate of 500 channels
+		final int parallelism = 500;
+		final ChannelLookupGroups groups = new ChannelLookupGroups();
+		final List<List<ChannelID>> gates = new ArrayList<List<ChannelID>>();
+		for (int i = 0; i < parallelism; i++) {
+			final List<ChannelID> gate = createChannels(parallelism);
+			groups.addGroup(gate);
+			gates.add(gate);
+		}
+
+		// resolve every channel the way the channel manager does when the first envelope is sent
+		final Map<ChannelID, Boolean> resolved = new HashMap<ChannelID, Boolean>();
+		int numLookups = 0;
+		for (List<ChannelID> gate : gates) {
+			for (ChannelID channel : gate) {
+				if (!resolved.containsKey(channel)) {
+					final List<ChannelID> batch = groups.getLookupBatch(channel, resolved);
+					assertEquals(channel, batch.get(0));
+					for (ChannelID c : batch) {
+						resolved.put(c, Boolean.TRUE);
+					}
+					numLookups++;
+				}
+			}
+		}
+
+		assertEquals(parallelism * parallelism, resolved.size());
+		assertEquals(parallelism, numLookups);
+	}
+
+	@Test
+	public void testBatchContents() {
+		final ChannelLookupGroups groups = new ChannelLookupGroups();
+		final List<ChannelID> gate = createChannels(ChannelLookupGroups.MAX_BATCH_SIZE + 10);
+		groups.addGroup(gate);
+
+		// batches are limited in size
+		final Map<ChannelID, Boolean> resolved = new HashMap<ChannelID, Boolean>();
+		assertEquals(ChannelLookupGroups.MAX_BATCH_SIZE, groups.getLookupBatch(gate.get(5), resolved).size());
+
+		// resolved and removed channels are not looked up again
+		for (int i = 0; i < ChannelLookupGroups.MAX_BATCH_SIZE; i++) {
+			resolved.put(gate.get(i), Boolean.TRUE);
+		}
+		groups.remove(gate.get(gate.size() - 1));
+		final List<ChannelID> batch = groups.getLookupBatch(gate.get(ChannelLookupGroups.MAX_BATCH_SIZE), resolved);
+		assertEquals(9, batch.size());
+		assertFalse(batch.contains(gate.get(0)));
+		assertFalse(batch.contains(gate.get(gate.size() - 1)));
+
+		// channels without a group are looked up alone
+		final ChannelID single = new ChannelID();
+		final List<ChannelID> singleBatch = groups.getLookupBatch(single, resolved);
+		assertEquals(1, singleBatch.size());
+		assertTrue(singleBatch.contains(single));
+	}
+
+	private static List<ChannelID> createChannels(int num) {
+		final List<ChannelID> channels = new ArrayList<ChannelID>(num);
+		for (int i = 0; i < num; i++) {
+			channels.add(new ChannelID());
+		}
+		return channels;
+	}
+}
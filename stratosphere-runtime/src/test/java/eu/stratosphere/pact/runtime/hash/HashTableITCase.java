@@ -31,6 +31,8 @@ import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypePairComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
 import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
+import eu.stratosphere.nephele.metrics.MetricsSnapshot;
 import eu.stratosphere.nephele.services.iomanager.IOManager;
 import eu.stratosphere.nephele.services.memorymanager.MemoryAllocationException;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
@@ -232,6 +234,55 @@ public class HashTableITCase {
 		this.memManager.release(join.getFreedMemory());
 	}
 	
+	@Test
+	public void testSpillingHashJoinReportsMetrics() throws IOException
+	{
+		final int NUM_KEYS = 1000000;
+		final int BUILD_VALS_PER_KEY = 3;
+		final int PROBE_VALS_PER_KEY = 10;
+		
+		MutableObjectIterator<Record> buildInput = new UniformRecordGenerator(NUM_KEYS, BUILD_VALS_PER_KEY, false);
+		MutableObjectIterator<Record> probeInput = new UniformRecordGenerator(NUM_KEYS, PROBE_VALS_PER_KEY, true);
+
+		// allocate the memory for the HashTable
+		List<MemorySegment> memSegments;
+		try {
+			memSegments = this.memManager.allocatePages(MEM_OWNER, 896);
+		}
+		catch (MemoryAllocationException maex) {
+			fail("Memory for the Join could not be provided.");
+			return;
+		}
+		
+		// ----------------------------------------------------------------------------------------
+		
+		final MutableHashTable<Record, Record> join = new MutableHashTable<Record, Record>(
+				this.recordBuildSideAccesssor, this.recordProbeSideAccesssor, 
+				this.recordBuildSideComparator, this.recordProbeSideComparator, this.pactRecordComparator,
+				memSegments, ioManager);
+		final MetricRegistry metrics = new MetricRegistry();
+		join.setMetrics(metrics);
+		join.open(buildInput, probeInput);
+		
+		final Record recordReuse = new Record();
+		while (join.nextRecord()) {
+			HashBucketIterator<Record, Record> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(recordReuse) != null);
+		}
+		
+		join.close();
+		
+		// ----------------------------------------------------------------------------------------
+		
+		this.memManager.release(join.getFreedMemory());
+		
+		final MetricsSnapshot snapshot = metrics.snapshot();
+		Assert.assertTrue("No spilled partitions reported.", snapshot.getValue("hash.spilled-partitions") > 0);
+		Assert.assertTrue("No spilled build records reported.", snapshot.getValue("hash.spilled-build-records") > 0);
+		Assert.assertTrue("No spilled probe records reported.", snapshot.getValue("hash.spilled-probe-records") > 0);
+		Assert.assertTrue("No recursion reported.", snapshot.getHistogram("hash.recursion-depth").getMax() >= 1);
+	}
+	
 	@Test
 	public void testSpillingHashJoinOneRecursionValidity() throws IOException
 	{
@@ -209,6 +209,41 @@ public class RecordOutputEmitterTest extends TestCase {
 		}
 	}
 	
+	@Test
+	public void testPartitionHashSkew() {
+		@SuppressWarnings("unchecked")
+		final RecordComparator intComp = new RecordComparator(new int[] {0}, new Class[] {IntValue.class});
+		final int[] heavyHitters = new int[] { RecordComparator.hashKeyFields(new IntValue(7).hashCode()) };
+		final ChannelSelector<Record> plain = new RecordOutputEmitter(ShipStrategyType.PARTITION_HASH, intComp);
+		final ChannelSelector<Record> split = new RecordOutputEmitter(ShipStrategyType.PARTITION_HASH_SKEW_SPLIT, intComp, null, heavyHitters);
+		final ChannelSelector<Record> replicate = new RecordOutputEmitter(ShipStrategyType.PARTITION_HASH_SKEW_REPLICATE, intComp, null, heavyHitters);
+		
+		final int numChannels = 10;
+		final int[] splitHits = new int[numChannels];
+		
+		for (int i = 0; i < 1000; i++) {
+			final Record rec = new Record(new IntValue(i % 10 == 0 ? 7 : 1000 + i));
+			final int[] splitChans = split.selectChannels(rec, numChannels);
+			final int[] replicateChans = replicate.selectChannels(rec, numChannels);
+			
+			if (i % 10 == 0) {
+				// the heavy hitter is split round robin and replicated to all channels
+				assertTrue(splitChans.length == 1);
+				splitHits[splitChans[0]]++;
+				assertTrue(replicateChans.length == numChannels);
+			} else {
+				// all other keys are hash partitioned, by both emitters alike
+				final int chan = plain.selectChannels(rec, numChannels)[0];
+				assertTrue(splitChans.length == 1 && splitChans[0] == chan);
+				assertTrue(replicateChans.length == 1 && replicateChans[0] == chan);
+			}
+		}
+		
+		for (int i = 0; i < numChannels; i++) {
+			assertTrue(splitHits[i] == 10);
+		}
+	}
+	
 	@Test
 	public void testMultiKeys() {
 		@SuppressWarnings("unchecked")
@@ -24,6 +24,8 @@ import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.core.fs.Path;
 import eu.stratosphere.core.io.IOReadableWritable;
 import eu.stratosphere.nephele.execution.Environment;
+import eu.stratosphere.nephele.execution.TaskMetrics;
+import eu.stratosphere.nephele.executiongraph.ExecutionVertexID;
 import eu.stratosphere.nephele.io.ChannelSelector;
 import eu.stratosphere.nephele.io.GateID;
 import eu.stratosphere.nephele.io.InputChannelResult;
@@ -36,6 +38,7 @@ import eu.stratosphere.nephele.io.RuntimeInputGate;
 import eu.stratosphere.nephele.io.RuntimeOutputGate;
 import eu.stratosphere.nephele.io.channels.ChannelID;
 import eu.stratosphere.nephele.jobgraph.JobID;
+import eu.stratosphere.nephele.metrics.MetricRegistry;
 import eu.stratosphere.nephele.protocols.AccumulatorProtocol;
 import eu.stratosphere.nephele.services.iomanager.IOManager;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
@@ -62,6 +65,8 @@ public class MockEnvironment implements Environment {
 
 	private final JobID jobID = new JobID();
 
+	private final MetricRegistry metrics = new MetricRegistry();
+
 	public MockEnvironment(long memorySize, MockInputSplitProvider inputSplitProvider) {
 		this.jobConfiguration = new Configuration();
 		this.taskConfiguration = new Configuration();
@@ -279,4 +284,22 @@ public class MockEnvironment implements Environment {
 		return null;
 	}
 
+	@Override
+	public ExecutionVertexID getExecutionVertexID() {
+		return null;
+	}
+
+	@Override
+	public void addSpilledBytes(long bytes) {}
+
+	@Override
+	public TaskMetrics getTaskMetrics() {
+		return new TaskMetrics();
+	}
+
+	@Override
+	public MetricRegistry getMetrics() {
+		return this.metrics;
+	}
+
 }